@@ -58,6 +58,10 @@ dependencies {
     
     // --- Image Loading ---
     implementation("com.github.bumptech.glide:glide:4.16.0")
+    implementation("com.github.bumptech.glide:recyclerview-integration:4.16.0") {
+        isTransitive = false
+    }
+    annotationProcessor("com.github.bumptech.glide:compiler:4.16.0")
 
     // --- HTTP & JSON ---
     implementation("com.squareup.okhttp3:okhttp:4.12.0")
@@ -1,5 +1,6 @@
 package ca.ualberta.codarc.codarc_events.adapters;
 
+import android.graphics.drawable.Drawable;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -10,24 +11,35 @@ import android.widget.TextView;
 import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.RecyclerView;
 
-import com.bumptech.glide.Glide;
+import com.bumptech.glide.ListPreloader;
+import com.bumptech.glide.RequestBuilder;
+import com.bumptech.glide.RequestManager;
+import com.bumptech.glide.load.DecodeFormat;
 import com.bumptech.glide.load.engine.DiskCacheStrategy;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import ca.ualberta.codarc.codarc_events.R;
 import ca.ualberta.codarc.codarc_events.models.Event;
+import ca.ualberta.codarc.codarc_events.models.PosterRendition;
 import ca.ualberta.codarc.codarc_events.utils.DateHelper;
 
 /**
  * RecyclerView adapter for displaying events with images in the admin image list.
  * Each event card shows the poster image, event name, date, and a delete button.
+ * Tiles load the thumbnail rendition decoded at tile size, and the adapter doubles
+ * as the model provider for preloading rows ahead of the scroll.
  */
-public class AdminImageListAdapter extends RecyclerView.Adapter<AdminImageListAdapter.ViewHolder> {
+public class AdminImageListAdapter extends RecyclerView.Adapter<AdminImageListAdapter.ViewHolder>
+        implements ListPreloader.PreloadModelProvider<Event> {
 
     private final List<Event> events;
     private final DeleteClickListener deleteClickListener;
+    private final RequestManager glide;
+    private final int tileWidth;
+    private final int tileHeight;
 
     /**
      * Interface for handling delete button clicks.
@@ -44,24 +56,54 @@ public class AdminImageListAdapter extends RecyclerView.Adapter<AdminImageListAd
     /**
      * Creates an adapter for displaying events with images and delete functionality.
      *
+     * @param glide request manager tied to the hosting screen
+     * @param tileWidth width of one tile in pixels
+     * @param tileHeight height of one tile's image in pixels
      * @param deleteClickListener listener for delete button clicks
      */
-    public AdminImageListAdapter(DeleteClickListener deleteClickListener) {
+    public AdminImageListAdapter(RequestManager glide, int tileWidth, int tileHeight,
+                                 DeleteClickListener deleteClickListener) {
         this.events = new ArrayList<>();
+        this.glide = glide;
+        this.tileWidth = tileWidth;
+        this.tileHeight = tileHeight;
         this.deleteClickListener = deleteClickListener;
     }
 
     public void setItems(List<Event> events) {
         this.events.clear();
-        if (events != null) {
-            for (Event event : events) {
-                String posterUrl = event.getPosterUrl();
-                if (posterUrl != null && !posterUrl.trim().isEmpty()) {
-                    this.events.add(event);
-                }
+        addWithPoster(events);
+        notifyDataSetChanged();
+    }
+
+    /**
+     * Appends the next page of events.
+     *
+     * @param page events to append
+     */
+    public void addItems(List<Event> page) {
+        int start = events.size();
+        addWithPoster(page);
+        notifyItemRangeInserted(start, events.size() - start);
+    }
+
+    /**
+     * @return the last event shown, used as the cursor for the next page, or null if empty
+     */
+    public Event getLastItem() {
+        return events.isEmpty() ? null : events.get(events.size() - 1);
+    }
+
+    private void addWithPoster(List<Event> page) {
+        if (page == null) {
+            return;
+        }
+        for (Event event : page) {
+            String posterUrl = event.getPosterUrl();
+            if (posterUrl != null && !posterUrl.trim().isEmpty()) {
+                this.events.add(event);
             }
         }
-        notifyDataSetChanged();
     }
 
     @NonNull
@@ -79,16 +121,11 @@ public class AdminImageListAdapter extends RecyclerView.Adapter<AdminImageListAd
         holder.eventName.setText(event.getName() != null ? event.getName() : "");
         holder.eventDate.setText(DateHelper.formatEventDate(event.getEventDateTime()));
 
-        String posterUrl = event.getPosterUrl();
+        String posterUrl = event.getPosterUrl(PosterRendition.THUMB);
         if (posterUrl != null && !posterUrl.trim().isEmpty()) {
-            Glide.with(holder.itemView.getContext())
-                    .load(posterUrl)
-                    .diskCacheStrategy(DiskCacheStrategy.ALL)
-                    .placeholder(R.drawable.sample_event_banner)
-                    .error(R.drawable.sample_event_banner)
-                    .centerCrop()
-                    .into(holder.posterImage);
+            posterRequest(posterUrl).into(holder.posterImage);
         } else {
+            glide.clear(holder.posterImage);
             holder.posterImage.setImageResource(R.drawable.sample_event_banner);
         }
 
@@ -104,6 +141,35 @@ public class AdminImageListAdapter extends RecyclerView.Adapter<AdminImageListAd
         return events.size();
     }
 
+    @NonNull
+    @Override
+    public List<Event> getPreloadItems(int position) {
+        if (position < 0 || position >= events.size()) {
+            return Collections.emptyList();
+        }
+        return Collections.singletonList(events.get(position));
+    }
+
+    @Override
+    public RequestBuilder<?> getPreloadRequestBuilder(@NonNull Event event) {
+        String posterUrl = event.getPosterUrl(PosterRendition.THUMB);
+        return posterUrl != null && !posterUrl.trim().isEmpty() ? posterRequest(posterUrl) : null;
+    }
+
+    /**
+     * Same request for binding and preloading, so preloaded tiles are memory cache hits.
+     * Tiles are opaque, so RGB_565 halves their memory.
+     */
+    private RequestBuilder<Drawable> posterRequest(String posterUrl) {
+        return glide.load(posterUrl)
+                .diskCacheStrategy(DiskCacheStrategy.RESOURCE)
+                .format(DecodeFormat.PREFER_RGB_565)
+                .override(tileWidth, tileHeight)
+                .centerCrop()
+                .placeholder(R.drawable.sample_event_banner)
+                .error(R.drawable.sample_event_banner);
+    }
+
     public static class ViewHolder extends RecyclerView.ViewHolder {
         final ImageView posterImage;
         final TextView eventName;
@@ -14,14 +14,17 @@ import androidx.recyclerview.widget.RecyclerView;
 import com.google.android.material.chip.Chip;
 import com.google.android.material.chip.ChipGroup;
 
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import ca.ualberta.codarc.codarc_events.R;
 import ca.ualberta.codarc.codarc_events.utils.DateHelper;
-import ca.ualberta.codarc.codarc_events.controllers.JoinWaitlistController;
-import ca.ualberta.codarc.codarc_events.data.EntrantDB;
 import ca.ualberta.codarc.codarc_events.data.EventDB;
+import ca.ualberta.codarc.codarc_events.data.MembershipStore;
+import ca.ualberta.codarc.codarc_events.data.WaitlistCountCache;
 import ca.ualberta.codarc.codarc_events.models.Event;
+import ca.ualberta.codarc.codarc_events.models.MembershipStatus;
 import ca.ualberta.codarc.codarc_events.views.EventDetailsActivity;
 
 /**
@@ -33,7 +36,10 @@ public class EventCardAdapter extends RecyclerView.Adapter<EventCardAdapter.View
 
     private final Context context;
     private final List<Event> events;
-    private final JoinWaitlistController joinWaitlistController;
+    private final WaitlistCountCache waitlistCountCache;
+    private final MembershipStore membershipStore;
+    /** Holders currently watching a waitlist counter, released with the screen. */
+    private final Set<ViewHolder> watchingHolders = new HashSet<>();
 
     /**
      * Creates an adapter for displaying event cards in a RecyclerView.
@@ -44,7 +50,8 @@ public class EventCardAdapter extends RecyclerView.Adapter<EventCardAdapter.View
     public EventCardAdapter(Context context, List<Event> events) {
         this.context = context;
         this.events = events;
-        this.joinWaitlistController = new JoinWaitlistController(new EventDB(), new EntrantDB());
+        this.waitlistCountCache = WaitlistCountCache.getInstance();
+        this.membershipStore = MembershipStore.getInstance();
     }
 
     @NonNull
@@ -64,6 +71,7 @@ public class EventCardAdapter extends RecyclerView.Adapter<EventCardAdapter.View
         holder.status.setText(e.isOpen() ? context.getString(R.string.status_open) : context.getString(R.string.status_closed));
 
         displayTags(holder, e);
+        displayMembershipBadge(holder, eventId);
         fetchAndDisplayWaitlistCount(holder, eventId);
 
         holder.lotteryInfoBtn.setOnClickListener(v -> {
@@ -88,6 +96,39 @@ public class EventCardAdapter extends RecyclerView.Adapter<EventCardAdapter.View
         return events.size();
     }
 
+    @Override
+    public void onViewRecycled(@NonNull ViewHolder holder) {
+        super.onViewRecycled(holder);
+        waitlistCountCache.unwatch(holder.watchedEventId);
+        holder.watchedEventId = null;
+        watchingHolders.remove(holder);
+    }
+
+    /**
+     * Drops the counter watches held by this adapter's cards. Call when the
+     * screen is destroyed; watches held by other screens are left alone.
+     */
+    public void releaseWatches() {
+        for (ViewHolder holder : watchingHolders) {
+            waitlistCountCache.unwatch(holder.watchedEventId);
+            holder.watchedEventId = null;
+        }
+        watchingHolders.clear();
+    }
+
+    /**
+     * Rebinds the cards showing an event after its waitlist count changed.
+     *
+     * @param eventId the event whose count changed
+     */
+    public void notifyWaitlistCountChanged(String eventId) {
+        for (int i = 0; i < events.size(); i++) {
+            if (eventId.equals(events.get(i).getId())) {
+                notifyItemChanged(i);
+            }
+        }
+    }
+
     /**
      * Displays tags on the event card.
      *
@@ -134,16 +175,58 @@ public class EventCardAdapter extends RecyclerView.Adapter<EventCardAdapter.View
     }
 
     /**
-     * Fetches and displays the waitlist count for a specific event.
+     * Shows this device's status for the event from the local membership store.
+     * Never reads from the network; the badge is hidden until the store knows.
+     *
+     * @param holder  the ViewHolder to update
+     * @param eventId the event ID
+     */
+    private void displayMembershipBadge(@NonNull ViewHolder holder, String eventId) {
+        MembershipStatus status = membershipStore.lookup(eventId).getStatus();
+        int label;
+        if (status == MembershipStatus.WAITLISTED) {
+            label = R.string.registration_history_waitlisted;
+        } else if (status == MembershipStatus.INVITED) {
+            label = R.string.registration_history_invited;
+        } else if (status == MembershipStatus.ACCEPTED) {
+            label = R.string.registration_history_accepted;
+        } else if (status == MembershipStatus.CANCELLED) {
+            label = R.string.registration_history_cancelled;
+        } else if (status == MembershipStatus.REPLACEMENT_POOL) {
+            label = R.string.registration_history_not_selected;
+        } else {
+            holder.membershipBadge.setVisibility(View.GONE);
+            return;
+        }
+        holder.membershipBadge.setText(label);
+        holder.membershipBadge.setVisibility(View.VISIBLE);
+    }
+
+    /**
+     * Displays the waitlist count for a specific event.
+     * Uses the shared count cache, so rebinding a card does not trigger another read.
+     * The card watches the event's counter while bound; the new watch is taken before
+     * the old one is dropped so rebinding the same event keeps its listener.
      *
      * @param holder  the ViewHolder to update
      * @param eventId the event ID to fetch the count for
      */
     private void fetchAndDisplayWaitlistCount(@NonNull ViewHolder holder, String eventId) {
         holder.waitlistCount.setTag(eventId);
+        waitlistCountCache.watch(eventId);
+        waitlistCountCache.unwatch(holder.watchedEventId);
+        holder.watchedEventId = eventId;
+        watchingHolders.add(holder);
+
+        Integer cached = waitlistCountCache.peekWaitlistCount(eventId);
+        if (cached != null) {
+            holder.waitlistCount.setText(context.getString(R.string.waitlist_count, cached));
+            return;
+        }
+
         holder.waitlistCount.setText(context.getString(R.string.waitlist_loading));
 
-        joinWaitlistController.getWaitlistCount(eventId, new EventDB.Callback<Integer>() {
+        waitlistCountCache.getWaitlistCount(eventId, new EventDB.Callback<Integer>() {
             @Override
             public void onSuccess(Integer count) {
                 Object tag = holder.waitlistCount.getTag();
@@ -163,9 +246,11 @@ public class EventCardAdapter extends RecyclerView.Adapter<EventCardAdapter.View
     }
 
     public static class ViewHolder extends RecyclerView.ViewHolder {
-        TextView title, date, status, waitlistCount;
+        TextView title, date, status, waitlistCount, membershipBadge;
         View lotteryInfoBtn;
         ChipGroup tagChipGroup;
+        /** The event whose counter this card is watching, if any. */
+        String watchedEventId;
 
         ViewHolder(View itemView) {
             super(itemView);
@@ -173,6 +258,7 @@ public class EventCardAdapter extends RecyclerView.Adapter<EventCardAdapter.View
             date = itemView.findViewById(R.id.tv_lottery_ends);
             status = itemView.findViewById(R.id.tv_entrants_info);
             waitlistCount = itemView.findViewById(R.id.tv_waitlist_count);
+            membershipBadge = itemView.findViewById(R.id.tv_membership_badge);
             lotteryInfoBtn = itemView.findViewById(R.id.btn_lottery_info);
             tagChipGroup = itemView.findViewById(R.id.chip_group_tags);
         }
@@ -4,9 +4,10 @@ import androidx.annotation.NonNull;
 
 import android.util.Log;
 
-import ca.ualberta.codarc.codarc_events.data.EntrantDB;
-import ca.ualberta.codarc.codarc_events.data.EventDB;
+import ca.ualberta.codarc.codarc_events.data.EntrantRepository;
+import ca.ualberta.codarc.codarc_events.data.EventRepository;
 import ca.ualberta.codarc.codarc_events.data.UserDB;
+import ca.ualberta.codarc.codarc_events.data.UserRepository;
 import ca.ualberta.codarc.codarc_events.models.User;
 import ca.ualberta.codarc.codarc_events.utils.ValidationHelper;
 
@@ -44,7 +45,7 @@ public class AdminRemoveProfileController {
     }
 
     private final DeleteOwnProfileController deleteProfileController;
-    private final UserDB userDB;
+    private final UserRepository userDB;
 
     public AdminRemoveProfileController() {
         this.deleteProfileController = new DeleteOwnProfileController();
@@ -58,7 +59,7 @@ public class AdminRemoveProfileController {
      * @param eventDB EventDB instance for event removal operations
      * @param userDB UserDB instance for admin validation
      */
-    public AdminRemoveProfileController(EntrantDB entrantDB, EventDB eventDB, UserDB userDB) {
+    public AdminRemoveProfileController(EntrantRepository entrantDB, EventRepository eventDB, UserRepository userDB) {
         this.deleteProfileController = new DeleteOwnProfileController(entrantDB, eventDB);
         this.userDB = userDB;
     }
@@ -0,0 +1,271 @@
+package ca.ualberta.codarc.codarc_events.controllers;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayDeque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.LongSupplier;
+
+import ca.ualberta.codarc.codarc_events.data.EventDB;
+import ca.ualberta.codarc.codarc_events.data.EventRepository;
+import ca.ualberta.codarc.codarc_events.models.EntrantEntry;
+import ca.ualberta.codarc.codarc_events.utils.QRCodeHelper;
+
+/**
+ * Door check-in for one event. The accepted list and existing check-ins are
+ * loaded once, after which every scan is validated in memory with no reads.
+ * Repeated frames of the same code are debounced, and accepted check-ins are
+ * queued and written in batches in the background.
+ */
+public class CheckInController {
+
+    /** Repeats of the same code within this window are treated as the same scan. */
+    public static final long DEBOUNCE_MS = 2_000;
+    /** A flush starts on its own once this many check-ins are queued. */
+    public static final int FLUSH_THRESHOLD = 25;
+    private static final int MAX_BATCH = 500;
+    private static final long RATE_WINDOW_MS = 60_000;
+
+    public enum Outcome {
+        CHECKED_IN,
+        ALREADY_CHECKED_IN,
+        NOT_ACCEPTED,
+        WRONG_EVENT,
+        INVALID,
+        /** Another frame of a code that was just handled; nothing to show. */
+        DUPLICATE_FRAME,
+        NOT_READY
+    }
+
+    public static class ScanResult {
+        private final Outcome outcome;
+        private final String deviceId;
+
+        private ScanResult(Outcome outcome, String deviceId) {
+            this.outcome = outcome;
+            this.deviceId = deviceId;
+        }
+
+        public Outcome getOutcome() {
+            return outcome;
+        }
+
+        public String getDeviceId() {
+            return deviceId;
+        }
+
+        public boolean isCheckedIn() {
+            return outcome == Outcome.CHECKED_IN;
+        }
+    }
+
+    private final String eventId;
+    private final EventRepository eventDB;
+    private final LongSupplier clock;
+
+    private final Set<String> accepted = new HashSet<>();
+    private final Set<String> checkedIn = new HashSet<>();
+    private final Map<String, Long> pending = new LinkedHashMap<>();
+    private final ArrayDeque<Long> recentScans = new ArrayDeque<>();
+    private boolean ready;
+    private boolean flushing;
+    private int inFlight;
+    private String lastPayload;
+    private long lastPayloadAt;
+
+    public CheckInController(String eventId, EventRepository eventDB) {
+        this(eventId, eventDB, System::currentTimeMillis);
+    }
+
+    public CheckInController(String eventId, EventRepository eventDB, LongSupplier clock) {
+        this.eventId = eventId;
+        this.eventDB = eventDB;
+        this.clock = clock;
+    }
+
+    /**
+     * Loads the accepted entrants and earlier check-ins.
+     *
+     * @param cb callback with the number of accepted entrants
+     */
+    public void prepare(EventDB.Callback<Integer> cb) {
+        eventDB.getEnrolled(eventId, new EventDB.Callback<List<EntrantEntry>>() {
+            @Override
+            public void onSuccess(List<EntrantEntry> enrolled) {
+                eventDB.getCheckIns(eventId, new EventDB.Callback<List<EntrantEntry>>() {
+                    @Override
+                    public void onSuccess(List<EntrantEntry> checkIns) {
+                        int acceptedCount;
+                        synchronized (CheckInController.this) {
+                            addDeviceIds(enrolled, accepted);
+                            addDeviceIds(checkIns, checkedIn);
+                            ready = true;
+                            acceptedCount = accepted.size();
+                        }
+                        cb.onSuccess(acceptedCount);
+                    }
+
+                    @Override
+                    public void onError(@NonNull Exception e) {
+                        cb.onError(e);
+                    }
+                });
+            }
+
+            @Override
+            public void onError(@NonNull Exception e) {
+                cb.onError(e);
+            }
+        });
+    }
+
+    /**
+     * Validates one decoded frame against the preloaded lists. Never touches the network
+     * itself; a background flush may start if enough check-ins are queued.
+     *
+     * @param qrData the decoded QR payload
+     * @return what happened to the scan
+     */
+    public ScanResult scan(String qrData) {
+        ScanResult result;
+        boolean startFlush;
+        synchronized (this) {
+            long now = clock.getAsLong();
+            if (qrData != null && qrData.equals(lastPayload) && now - lastPayloadAt < DEBOUNCE_MS) {
+                lastPayloadAt = now;
+                return new ScanResult(Outcome.DUPLICATE_FRAME, null);
+            }
+            lastPayload = qrData;
+            lastPayloadAt = now;
+            if (!ready) {
+                return new ScanResult(Outcome.NOT_READY, null);
+            }
+            result = validate(qrData, now);
+            recentScans.addLast(now);
+            startFlush = pending.size() >= FLUSH_THRESHOLD && !flushing;
+        }
+        if (startFlush) {
+            flush(null);
+        }
+        return result;
+    }
+
+    private ScanResult validate(String qrData, long now) {
+        String[] pass = QRCodeHelper.parseCheckIn(qrData);
+        if (pass == null) {
+            return new ScanResult(Outcome.INVALID, null);
+        }
+        String deviceId = pass[1];
+        if (!eventId.equals(pass[0])) {
+            return new ScanResult(Outcome.WRONG_EVENT, deviceId);
+        }
+        if (!accepted.contains(deviceId)) {
+            return new ScanResult(Outcome.NOT_ACCEPTED, deviceId);
+        }
+        if (!checkedIn.add(deviceId)) {
+            return new ScanResult(Outcome.ALREADY_CHECKED_IN, deviceId);
+        }
+        pending.put(deviceId, now);
+        return new ScanResult(Outcome.CHECKED_IN, deviceId);
+    }
+
+    /**
+     * Writes queued check-ins in one batch. Does nothing if a flush is already
+     * running; check-ins that fail to write are queued again.
+     *
+     * @param cb callback with the number written (may be null)
+     */
+    public void flush(EventDB.Callback<Integer> cb) {
+        Map<String, Long> batch = new LinkedHashMap<>();
+        synchronized (this) {
+            if (flushing || pending.isEmpty()) {
+                if (cb != null) {
+                    cb.onSuccess(0);
+                }
+                return;
+            }
+            for (Map.Entry<String, Long> entry : pending.entrySet()) {
+                if (batch.size() == MAX_BATCH) {
+                    break;
+                }
+                batch.put(entry.getKey(), entry.getValue());
+            }
+            pending.keySet().removeAll(batch.keySet());
+            flushing = true;
+            inFlight = batch.size();
+        }
+        eventDB.recordCheckIns(eventId, batch, new EventDB.Callback<Void>() {
+            @Override
+            public void onSuccess(Void value) {
+                synchronized (CheckInController.this) {
+                    flushing = false;
+                    inFlight = 0;
+                }
+                if (cb != null) {
+                    cb.onSuccess(batch.size());
+                }
+            }
+
+            @Override
+            public void onError(@NonNull Exception e) {
+                synchronized (CheckInController.this) {
+                    flushing = false;
+                    inFlight = 0;
+                    for (Map.Entry<String, Long> entry : batch.entrySet()) {
+                        if (!pending.containsKey(entry.getKey())) {
+                            pending.put(entry.getKey(), entry.getValue());
+                        }
+                    }
+                }
+                if (cb != null) {
+                    cb.onError(e);
+                }
+            }
+        });
+    }
+
+    /**
+     * @return scans handled in the last minute, not counting repeated frames
+     */
+    public synchronized int getScansPerMinute() {
+        long cutoff = clock.getAsLong() - RATE_WINDOW_MS;
+        while (!recentScans.isEmpty() && recentScans.peekFirst() <= cutoff) {
+            recentScans.removeFirst();
+        }
+        return recentScans.size();
+    }
+
+    public synchronized int getCheckedInCount() {
+        return checkedIn.size();
+    }
+
+    public synchronized int getAcceptedCount() {
+        return accepted.size();
+    }
+
+    /**
+     * @return check-ins not yet written
+     */
+    public synchronized int getPendingCount() {
+        return pending.size() + inFlight;
+    }
+
+    public synchronized boolean isReady() {
+        return ready;
+    }
+
+    private static void addDeviceIds(List<EntrantEntry> entries, Set<String> target) {
+        if (entries == null) {
+            return;
+        }
+        for (EntrantEntry entry : entries) {
+            if (entry.getDeviceId() != null) {
+                target.add(entry.getDeviceId());
+            }
+        }
+    }
+}
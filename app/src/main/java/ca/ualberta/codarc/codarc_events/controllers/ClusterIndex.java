@@ -0,0 +1,211 @@
+package ca.ualberta.codarc.codarc_events.controllers;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Grid clustering for map markers. Points are projected to Web Mercator once when
+ * the index is built; clusters for a zoom level are computed the first time that
+ * level is asked for and reused after, so panning only filters by the viewport.
+ * Build and query are plain Java and meant to run off the main thread.
+ */
+public class ClusterIndex {
+
+    /** Highest zoom that still clusters; above it every point is its own marker. */
+    public static final int MAX_ZOOM = 20;
+    /** Width of one grid cell in map tile pixels; points closer than this on screen share a marker. */
+    private static final int CELL_SIZE_PX = 64;
+    private static final int TILE_SIZE_PX = 256;
+
+    /**
+     * One marker to draw: either a single point or a group of nearby points.
+     */
+    public static final class Cluster {
+        private final long key;
+        private final double latitude;
+        private final double longitude;
+        private final int count;
+        private final int pointIndex;
+
+        Cluster(long key, double latitude, double longitude, int count, int pointIndex) {
+            this.key = key;
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.count = count;
+            this.pointIndex = pointIndex;
+        }
+
+        /**
+         * @return an ID that stays the same for the same cluster at the same zoom
+         */
+        public long getKey() { return key; }
+        public double getLatitude() { return latitude; }
+        public double getLongitude() { return longitude; }
+        public int getCount() { return count; }
+
+        /**
+         * @return the index of the point in the arrays the index was built from, or -1 for a group
+         */
+        public int getPointIndex() { return pointIndex; }
+    }
+
+    private final double[] latitudes;
+    private final double[] longitudes;
+    private final double[] mercatorX;
+    private final double[] mercatorY;
+    private final Map<Integer, List<Cluster>> clustersByZoom = new HashMap<>();
+
+    /**
+     * Builds an index over the given points. The arrays are kept, not copied.
+     *
+     * @param latitudes latitude of each point
+     * @param longitudes longitude of each point, same length as latitudes
+     */
+    public ClusterIndex(double[] latitudes, double[] longitudes) {
+        if (latitudes.length != longitudes.length) {
+            throw new IllegalArgumentException("latitudes and longitudes differ in length");
+        }
+        this.latitudes = latitudes;
+        this.longitudes = longitudes;
+        this.mercatorX = new double[latitudes.length];
+        this.mercatorY = new double[latitudes.length];
+        for (int i = 0; i < latitudes.length; i++) {
+            mercatorX[i] = toMercatorX(longitudes[i]);
+            mercatorY[i] = toMercatorY(latitudes[i]);
+        }
+    }
+
+    /**
+     * @return the number of points in the index
+     */
+    public int size() {
+        return latitudes.length;
+    }
+
+    /**
+     * Returns the clusters inside a viewport. Bounds may cross the antimeridian
+     * (west greater than east).
+     *
+     * @param zoom the camera zoom
+     * @param south southern edge
+     * @param west western edge
+     * @param north northern edge
+     * @param east eastern edge
+     * @return clusters whose position falls in the viewport
+     */
+    public List<Cluster> query(float zoom, double south, double west, double north, double east) {
+        List<Cluster> all = clustersAt(zoomLevel(zoom));
+        boolean wraps = west > east;
+        List<Cluster> visible = new ArrayList<>();
+        for (Cluster cluster : all) {
+            double lat = cluster.latitude;
+            double lng = cluster.longitude;
+            if (lat < south || lat > north) {
+                continue;
+            }
+            boolean inLng = wraps ? (lng >= west || lng <= east) : (lng >= west && lng <= east);
+            if (inLng) {
+                visible.add(cluster);
+            }
+        }
+        return visible;
+    }
+
+    /**
+     * Returns every cluster at a zoom level, computing it on first use.
+     *
+     * @param zoomLevel integer zoom, clamped to 0..{@link #MAX_ZOOM} + 1
+     * @return the clusters, unmodifiable
+     */
+    public List<Cluster> clustersAt(int zoomLevel) {
+        int level = Math.max(0, Math.min(MAX_ZOOM + 1, zoomLevel));
+        synchronized (clustersByZoom) {
+            List<Cluster> cached = clustersByZoom.get(level);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        List<Cluster> computed = Collections.unmodifiableList(level > MAX_ZOOM ? singles() : cluster(level));
+        synchronized (clustersByZoom) {
+            clustersByZoom.put(level, computed);
+        }
+        return computed;
+    }
+
+    private List<Cluster> cluster(int level) {
+        long cellsPerSide = Math.max(1L, ((long) TILE_SIZE_PX << level) / CELL_SIZE_PX);
+        Map<Long, Cell> cells = new LinkedHashMap<>();
+        for (int i = 0; i < mercatorX.length; i++) {
+            long cx = Math.min(cellsPerSide - 1, (long) (mercatorX[i] * cellsPerSide));
+            long cy = Math.min(cellsPerSide - 1, (long) (mercatorY[i] * cellsPerSide));
+            long key = cy * cellsPerSide + cx;
+            Cell cell = cells.get(key);
+            if (cell == null) {
+                cell = new Cell(i);
+                cells.put(key, cell);
+            }
+            cell.sumX += mercatorX[i];
+            cell.sumY += mercatorY[i];
+            cell.count++;
+        }
+
+        List<Cluster> clusters = new ArrayList<>(cells.size());
+        for (Map.Entry<Long, Cell> entry : cells.entrySet()) {
+            Cell cell = entry.getValue();
+            if (cell.count == 1) {
+                clusters.add(new Cluster(entry.getKey(), latitudes[cell.first], longitudes[cell.first],
+                        1, cell.first));
+            } else {
+                clusters.add(new Cluster(entry.getKey(), fromMercatorY(cell.sumY / cell.count),
+                        fromMercatorX(cell.sumX / cell.count), cell.count, -1));
+            }
+        }
+        return clusters;
+    }
+
+    /** Running centroid of the points that fall in one grid cell. */
+    private static final class Cell {
+        final int first;
+        double sumX;
+        double sumY;
+        int count;
+
+        Cell(int first) {
+            this.first = first;
+        }
+    }
+
+    private List<Cluster> singles() {
+        List<Cluster> clusters = new ArrayList<>(latitudes.length);
+        for (int i = 0; i < latitudes.length; i++) {
+            clusters.add(new Cluster(i, latitudes[i], longitudes[i], 1, i));
+        }
+        return clusters;
+    }
+
+    static int zoomLevel(float zoom) {
+        return (int) Math.floor(zoom);
+    }
+
+    static double toMercatorX(double longitude) {
+        return (longitude + 180.0) / 360.0;
+    }
+
+    static double toMercatorY(double latitude) {
+        double sin = Math.sin(Math.toRadians(Math.max(-85.05112878, Math.min(85.05112878, latitude))));
+        return 0.5 - Math.log((1 + sin) / (1 - sin)) / (4 * Math.PI);
+    }
+
+    static double fromMercatorX(double x) {
+        return x * 360.0 - 180.0;
+    }
+
+    static double fromMercatorY(double y) {
+        double n = Math.PI - 2 * Math.PI * y;
+        return Math.toDegrees(Math.atan(Math.sinh(n)));
+    }
+}
@@ -6,6 +6,8 @@ import java.util.List;
 import java.util.UUID;
 
 import ca.ualberta.codarc.codarc_events.data.EventDB;
+import ca.ualberta.codarc.codarc_events.data.EventRepository;
+import ca.ualberta.codarc.codarc_events.data.FirestoreMetrics;
 import ca.ualberta.codarc.codarc_events.models.Event;
 
 /**
@@ -13,6 +15,8 @@ import ca.ualberta.codarc.codarc_events.models.Event;
  */
 public class CreateEventController {
 
+    private static final String FLOW = "create_event";
+
     public static class CreateEventResult {
         private final boolean isValid;
         private final String errorMessage;
@@ -45,10 +49,10 @@ public class CreateEventController {
         }
     }
 
-    private final EventDB eventDB;
+    private final EventRepository eventDB;
     private final String organizerId;
 
-    public CreateEventController(EventDB eventDB, String organizerId) {
+    public CreateEventController(EventRepository eventDB, String organizerId) {
         this.eventDB = eventDB;
         this.organizerId = organizerId;
     }
@@ -128,7 +132,9 @@ public class CreateEventController {
             callback.onError(new IllegalArgumentException("Event cannot be null"));
             return;
         }
-        eventDB.addEvent(event, callback);
+        try (FirestoreMetrics.Scope scope = FirestoreMetrics.getInstance().openFlow(FLOW)) {
+            eventDB.addEvent(event, callback);
+        }
     }
 
     /**
@@ -7,10 +7,15 @@ import android.util.Log;
 import java.util.List;
 
 import ca.ualberta.codarc.codarc_events.data.EventDB;
+import ca.ualberta.codarc.codarc_events.data.EventRepository;
+import ca.ualberta.codarc.codarc_events.data.FirestoreMetrics;
 import ca.ualberta.codarc.codarc_events.data.OrganizerDB;
+import ca.ualberta.codarc.codarc_events.data.OrganizerRepository;
 import ca.ualberta.codarc.codarc_events.data.PosterStorage;
 import ca.ualberta.codarc.codarc_events.data.TagDB;
+import ca.ualberta.codarc.codarc_events.data.TagRepository;
 import ca.ualberta.codarc.codarc_events.data.UserDB;
+import ca.ualberta.codarc.codarc_events.data.UserRepository;
 import ca.ualberta.codarc.codarc_events.models.Event;
 import ca.ualberta.codarc.codarc_events.models.User;
 import ca.ualberta.codarc.codarc_events.utils.ValidationHelper;
@@ -20,6 +25,8 @@ import ca.ualberta.codarc.codarc_events.utils.ValidationHelper;
  */
 public class DeleteEventController {
 
+    private static final String FLOW = "delete_event";
+
     private static final String TAG = "DeleteEventController";
 
     public static class DeleteEventResult {
@@ -48,11 +55,11 @@ public class DeleteEventController {
         }
     }
 
-    private final EventDB eventDB;
+    private final EventRepository eventDB;
     private final PosterStorage posterStorage;
-    private final OrganizerDB organizerDB;
-    private final TagDB tagDB;
-    private final UserDB userDB;
+    private final OrganizerRepository organizerDB;
+    private final TagRepository tagDB;
+    private final UserRepository userDB;
 
     public DeleteEventController() {
         this.eventDB = new EventDB();
@@ -62,8 +69,8 @@ public class DeleteEventController {
         this.userDB = new UserDB();
     }
 
-    public DeleteEventController(EventDB eventDB, PosterStorage posterStorage, OrganizerDB organizerDB,
-                                 TagDB tagDB, UserDB userDB) {
+    public DeleteEventController(EventRepository eventDB, PosterStorage posterStorage, OrganizerRepository organizerDB,
+                                 TagRepository tagDB, UserRepository userDB) {
         this.eventDB = eventDB;
         this.posterStorage = posterStorage;
         this.organizerDB = organizerDB;
@@ -87,17 +94,21 @@ public class DeleteEventController {
             return;
         }
 
-        validateAdminStatus(adminDeviceId, new ValidationCallback() {
-            @Override
-            public void onSuccess() {
-                proceedWithEventDeletion(eventId, callback);
-            }
+        try (FirestoreMetrics.Scope scope = FirestoreMetrics.getInstance().openFlow(FLOW)) {
+            validateAdminStatus(adminDeviceId, new ValidationCallback() {
+                @Override
+                public void onSuccess() {
+                    try (FirestoreMetrics.Scope scope = FirestoreMetrics.getInstance().openFlow(FLOW)) {
+                        proceedWithEventDeletion(eventId, callback);
+                    }
+                }
 
-            @Override
-            public void onError(String errorMessage) {
-                callback.onResult(DeleteEventResult.failure(errorMessage));
-            }
-        });
+                @Override
+                public void onError(String errorMessage) {
+                    callback.onResult(DeleteEventResult.failure(errorMessage));
+                }
+            });
+        }
     }
 
     /**
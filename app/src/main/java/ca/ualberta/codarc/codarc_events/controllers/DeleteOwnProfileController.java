@@ -7,7 +7,9 @@ import android.util.Log;
 import java.util.List;
 
 import ca.ualberta.codarc.codarc_events.data.EntrantDB;
+import ca.ualberta.codarc.codarc_events.data.EntrantRepository;
 import ca.ualberta.codarc.codarc_events.data.EventDB;
+import ca.ualberta.codarc.codarc_events.data.EventRepository;
 import ca.ualberta.codarc.codarc_events.utils.ValidationHelper;
 
 /**
@@ -43,8 +45,8 @@ public class DeleteOwnProfileController {
         }
     }
 
-    private final EntrantDB entrantDB;
-    private final EventDB eventDB;
+    private final EntrantRepository entrantDB;
+    private final EventRepository eventDB;
 
     public DeleteOwnProfileController() {
         this.entrantDB = new EntrantDB();
@@ -57,7 +59,7 @@ public class DeleteOwnProfileController {
      * @param entrantDB EntrantDB instance for profile operations
      * @param eventDB EventDB instance for event removal operations
      */
-    public DeleteOwnProfileController(EntrantDB entrantDB, EventDB eventDB) {
+    public DeleteOwnProfileController(EntrantRepository entrantDB, EventRepository eventDB) {
         this.entrantDB = entrantDB;
         this.eventDB = eventDB;
     }
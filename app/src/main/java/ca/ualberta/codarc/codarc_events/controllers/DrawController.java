@@ -5,12 +5,17 @@ import androidx.annotation.NonNull;
 import android.util.Log;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
-import java.util.Map;
+import java.util.Random;
 
+import ca.ualberta.codarc.codarc_events.data.AsyncResult;
 import ca.ualberta.codarc.codarc_events.data.EntrantDB;
+import ca.ualberta.codarc.codarc_events.data.EntrantRepository;
 import ca.ualberta.codarc.codarc_events.data.EventDB;
+import ca.ualberta.codarc.codarc_events.data.EventRepository;
+import ca.ualberta.codarc.codarc_events.data.FirestoreMetrics;
+import ca.ualberta.codarc.codarc_events.models.EntrantEntry;
+import ca.ualberta.codarc.codarc_events.models.NotificationEntry;
 import ca.ualberta.codarc.codarc_events.utils.ValidationHelper;
 
 /**
@@ -18,6 +23,8 @@ import ca.ualberta.codarc.codarc_events.utils.ValidationHelper;
  */
 public class DrawController {
 
+    private static final String FLOW = "draw";
+
     public interface DrawCallback {
         void onSuccess(List<String> winnerIds, List<String> replacementIds);
         void onError(@NonNull Exception e);
@@ -28,16 +35,17 @@ public class DrawController {
         void onError(@NonNull Exception e);
     }
 
-    private final EventDB eventDB;
-    private final EntrantDB entrantDB;
+    private final EventRepository eventDB;
+    private final EntrantRepository entrantDB;
     private static final int DEFAULT_REPLACEMENT_POOL_SIZE = 3;
+    private final Random random = new Random();
 
-    public DrawController(EventDB eventDB) {
+    public DrawController(EventRepository eventDB) {
         this.eventDB = eventDB;
         this.entrantDB = new EntrantDB();
     }
 
-    public DrawController(EventDB eventDB, EntrantDB entrantDB) {
+    public DrawController(EventRepository eventDB, EntrantRepository entrantDB) {
         this.eventDB = eventDB;
         this.entrantDB = entrantDB;
     }
@@ -89,48 +97,39 @@ public class DrawController {
             return;
         }
 
-        eventDB.getWaitlist(eventId, new EventDB.Callback<List<Map<String, Object>>>() {
-            @Override
-            public void onSuccess(List<Map<String, Object>> waitlist) {
-                if (waitlist == null || waitlist.isEmpty()) {
-                    cb.onError(new RuntimeException("No entrants found"));
-                    return;
-                }
-
-                Collections.shuffle(waitlist);
-
-                int total = waitlist.size();
-                int winnerCount = Math.min(numWinners, total);
-                
-                int remainingAfterWinners = total - winnerCount;
-                int replacementCount = Math.min(replacementPoolSize, remainingAfterWinners);
+        try (FirestoreMetrics.Scope scope = FirestoreMetrics.getInstance().openFlow(FLOW)) {
+            eventDB.getWaitlist(eventId, new EventDB.Callback<List<EntrantEntry>>() {
+                @Override
+                public void onSuccess(List<EntrantEntry> waitlist) {
+                    if (waitlist == null || waitlist.isEmpty()) {
+                        cb.onError(new RuntimeException("No entrants found"));
+                        return;
+                    }
 
-                List<String> winners = new ArrayList<>(winnerCount);
-                for (int i = 0; i < winnerCount; i++) {
-                    Object id = waitlist.get(i).get("deviceId");
-                    if (id != null) winners.add(id.toString());
+                    LotterySelection selection = LotterySelection.select(
+                            waitlist, numWinners, replacementPoolSize, random);
+                    saveDraw(eventId, selection.getWinners(), selection.getReplacements(), cb);
                 }
 
-                List<String> replacements = new ArrayList<>(replacementCount);
-                for (int i = winnerCount; i < winnerCount + replacementCount; i++) {
-                    Object id = waitlist.get(i).get("deviceId");
-                    if (id != null) replacements.add(id.toString());
+                @Override
+                public void onError(@NonNull Exception e) {
+                    cb.onError(e);
                 }
+            });
+        }
+    }
 
-                eventDB.markWinners(eventId, winners, replacements, new EventDB.Callback<Void>() {
-                    @Override
-                    public void onSuccess(Void ignore) {
-                        sendWinnerNotifications(eventId, winners, new NotificationCallback() {
-                            @Override
-                            public void onComplete() {
-                                cb.onSuccess(winners, replacements);
-                            }
-                        });
-                    }
-
+    /**
+     * Writes the drawn winners and pool, then notifies the winners.
+     */
+    private void saveDraw(String eventId, List<String> winners, List<String> replacements, DrawCallback cb) {
+        eventDB.markWinners(eventId, winners, replacements, new EventDB.Callback<Void>() {
+            @Override
+            public void onSuccess(Void ignore) {
+                sendWinnerNotifications(eventId, winners, new NotificationCallback() {
                     @Override
-                    public void onError(@NonNull Exception e) {
-                        cb.onError(e);
+                    public void onComplete() {
+                        cb.onSuccess(winners, replacements);
                     }
                 });
             }
@@ -175,48 +174,51 @@ public class DrawController {
             return;
         }
 
-        List<String> winnersToNotify = Collections.synchronizedList(new ArrayList<>());
-        NotificationChecker checker = new NotificationChecker(winnersToNotify, winnerIds.size(), cb);
-
+        List<AsyncResult<String>> checks = new ArrayList<>(winnerIds.size());
         for (String winnerId : winnerIds) {
-            checkSingleWinnerNotification(eventId, winnerId, winnersToNotify, checker);
+            checks.add(checkSingleWinnerNotification(eventId, winnerId));
         }
+        AsyncResult.allOf(checks).whenDone(checked -> {
+            List<String> winnersToNotify = new ArrayList<>();
+            for (String winnerId : checked) {
+                if (winnerId != null) {
+                    winnersToNotify.add(winnerId);
+                }
+            }
+            cb.onChecked(winnersToNotify);
+        }, cb::onError);
     }
 
     /**
      * Checks if a single winner already has a notification for this event.
+     *
+     * @return the winner's ID if they still need notifying, otherwise null
      */
-    private void checkSingleWinnerNotification(String eventId, String winnerId,
-                                               List<String> winnersToNotify,
-                                               NotificationChecker checker) {
-        entrantDB.getNotifications(winnerId, new EntrantDB.Callback<List<Map<String, Object>>>() {
+    private AsyncResult<String> checkSingleWinnerNotification(String eventId, String winnerId) {
+        AsyncResult<String> check = AsyncResult.pending();
+        entrantDB.getNotifications(winnerId, new EntrantDB.Callback<List<NotificationEntry>>() {
             @Override
-            public void onSuccess(List<Map<String, Object>> notifications) {
-                if (!hasWinnerNotification(notifications, eventId)) {
-                    winnersToNotify.add(winnerId);
-                }
-                checker.onChecked();
+            public void onSuccess(List<NotificationEntry> notifications) {
+                check.complete(hasWinnerNotification(notifications, eventId) ? null : winnerId);
             }
 
             @Override
             public void onError(@NonNull Exception e) {
-                winnersToNotify.add(winnerId);
-                checker.onChecked();
+                check.complete(winnerId);
             }
         });
+        return check;
     }
 
     /**
      * Checks if notifications list contains a winner notification for the event.
      */
-    private boolean hasWinnerNotification(List<Map<String, Object>> notifications, String eventId) {
+    private boolean hasWinnerNotification(List<NotificationEntry> notifications, String eventId) {
         if (notifications == null) {
             return false;
         }
-        for (Map<String, Object> notification : notifications) {
-            String notifEventId = (String) notification.get("eventId");
-            String category = (String) notification.get("category");
-            if (eventId.equals(notifEventId) && "winner".equals(category)) {
+        for (NotificationEntry notification : notifications) {
+            if (eventId.equals(notification.getEventId()) && "winner".equals(notification.getCategory())) {
                 return true;
             }
         }
@@ -233,84 +235,22 @@ public class DrawController {
         }
 
         String message = "Congratulations! You won. Proceed to signup.";
-        NotificationSender sender = new NotificationSender(winnerIds.size(), cb);
-
+        List<AsyncResult<Void>> sends = new ArrayList<>(winnerIds.size());
         for (String winnerId : winnerIds) {
-            sendSingleNotification(winnerId, eventId, message, sender);
+            sends.add(sendSingleNotification(winnerId, eventId, message));
         }
+        // Failed sends are logged; the draw itself already succeeded.
+        AsyncResult.successesOf(sends).whenDone(sent -> cb.onComplete(), e -> cb.onComplete());
     }
 
     /**
      * Sends a notification to a single winner.
      */
-    private void sendSingleNotification(String winnerId, String eventId, String message,
-                                        NotificationSender sender) {
-        entrantDB.addNotification(winnerId, eventId, message, "winner", new EntrantDB.Callback<Void>() {
-            @Override
-            public void onSuccess(Void value) {
-                sender.onSuccess();
-            }
-
-            @Override
-            public void onError(@NonNull Exception e) {
-                Log.e("DrawController", "Failed to send notification to " + winnerId, e);
-                sender.onError();
-            }
-        });
-    }
-
-    /**
-     * Helper class to track notification checking completion.
-     */
-    private static class NotificationChecker {
-        private final List<String> winnersToNotify;
-        private final int total;
-        private final NotificationCheckCallback callback;
-        private int checked = 0;
-
-        NotificationChecker(List<String> winnersToNotify, int total, NotificationCheckCallback callback) {
-            this.winnersToNotify = winnersToNotify;
-            this.total = total;
-            this.callback = callback;
-        }
-
-        synchronized void onChecked() {
-            checked++;
-            if (checked == total) {
-                callback.onChecked(new ArrayList<>(winnersToNotify));
-            }
-        }
-    }
-
-    /**
-     * Helper class to track notification sending completion.
-     */
-    private static class NotificationSender {
-        private final int total;
-        private final NotificationCallback callback;
-        private int completed = 0;
-        private int failed = 0;
-
-        NotificationSender(int total, NotificationCallback callback) {
-            this.total = total;
-            this.callback = callback;
-        }
-
-        synchronized void onSuccess() {
-            completed++;
-            checkCompletion();
-        }
-
-        synchronized void onError() {
-            failed++;
-            checkCompletion();
-        }
-
-        private void checkCompletion() {
-            if (completed + failed == total) {
-                callback.onComplete();
-            }
-        }
+    private AsyncResult<Void> sendSingleNotification(String winnerId, String eventId, String message) {
+        AsyncResult<Void> send = AsyncResult.pending();
+        send.whenDone(value -> { }, e -> Log.e("DrawController", "Failed to send notification to " + winnerId, e));
+        entrantDB.addNotification(winnerId, eventId, message, "winner", EntrantDB.Callback.completing(send));
+        return send;
     }
 
     private interface NotificationCallback {
@@ -4,123 +4,212 @@ import android.util.Log;
 import androidx.annotation.NonNull;
 import com.google.firebase.firestore.GeoPoint;
 import ca.ualberta.codarc.codarc_events.data.EntrantDB;
+import ca.ualberta.codarc.codarc_events.data.EntrantRepository;
 import ca.ualberta.codarc.codarc_events.data.EventDB;
+import ca.ualberta.codarc.codarc_events.data.EventRepository;
 import ca.ualberta.codarc.codarc_events.models.Entrant;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
 
 /**
- * Handles preparation of entrant location data for map display.
+ * Handles preparation of entrant location data for map display. Locations come
+ * from the event's location projection, so opening the map costs a few reads
+ * however many entrants there are; names are looked up only for markers the
+ * organizer opens. Markers are grouped with a {@link ClusterIndex} that is built
+ * and queried on a background thread, so large waitlists do not stall the map.
  */
 public class EntrantMapController {
     
     private static final String TAG = "EntrantMapController";
+    private static final Executor CLUSTER_EXECUTOR = Executors.newSingleThreadExecutor();
     
-    private final EventDB eventDB;
-    private final EntrantDB entrantDB;
+    private final EventRepository eventDB;
+    private final EntrantRepository entrantDB;
+    private final Executor clusterExecutor;
+    private final Map<String, String> names = new HashMap<>();
     
     public interface MapDataCallback {
         void onSuccess(List<MapMarkerData> markers);
         void onError(@NonNull Exception e);
     }
     
+    public interface NameCallback {
+        void onName(String name);
+    }
+    
+    /**
+     * Receives clustering results. Called on the clustering thread.
+     */
+    public interface ClusterCallback<T> {
+        void onResult(T result);
+    }
+    
     public static class MapMarkerData {
         private final String deviceId;
         private final String entrantName;
         private final double latitude;
         private final double longitude;
         private final long joinedAt;
+        private final String status;
         
         public MapMarkerData(String deviceId, String entrantName, 
                            double latitude, double longitude, long joinedAt) {
+            this(deviceId, entrantName, latitude, longitude, joinedAt, null);
+        }
+        
+        public MapMarkerData(String deviceId, String entrantName,
+                           double latitude, double longitude, long joinedAt, String status) {
             this.deviceId = deviceId;
             this.entrantName = entrantName;
             this.latitude = latitude;
             this.longitude = longitude;
             this.joinedAt = joinedAt;
+            this.status = status;
         }
         
         public String getDeviceId() { return deviceId; }
+        /** @return the entrant's name, or null until {@link #resolveName} has looked it up */
         public String getEntrantName() { return entrantName; }
         public double getLatitude() { return latitude; }
         public double getLongitude() { return longitude; }
         public long getJoinedAt() { return joinedAt; }
+        /** @return the stored membership status value, e.g. "waitlisted" */
+        public String getStatus() { return status; }
+    }
+    
+    public EntrantMapController(EventRepository eventDB, EntrantRepository entrantDB) {
+        this(eventDB, entrantDB, CLUSTER_EXECUTOR);
     }
     
-    public EntrantMapController(EventDB eventDB, EntrantDB entrantDB) {
+    public EntrantMapController(EventRepository eventDB, EntrantRepository entrantDB, Executor clusterExecutor) {
         this.eventDB = eventDB;
         this.entrantDB = entrantDB;
+        this.clusterExecutor = clusterExecutor;
     }
     
     public void loadMapData(String eventId, MapDataCallback callback) {
         Log.d(TAG, "Loading map data for eventId: " + eventId);
-        eventDB.getEntrantsWithLocations(eventId, new EventDB.Callback<List<Map<String, Object>>>() {
+        eventDB.getEntrantLocations(eventId, new EventDB.Callback<List<Map<String, Object>>>() {
             @Override
             public void onSuccess(List<Map<String, Object>> entries) {
-                Log.d(TAG, "getEntrantsWithLocations returned " + (entries != null ? entries.size() : 0) + " entries");
-                if (entries == null || entries.isEmpty()) {
-                    Log.d(TAG, "No entries found, returning empty list");
-                    callback.onSuccess(new ArrayList<>());
-                    return;
+                Log.d(TAG, "getEntrantLocations returned " + (entries != null ? entries.size() : 0) + " entries");
+                List<MapMarkerData> markers = new ArrayList<>();
+                if (entries != null) {
+                    for (Map<String, Object> entry : entries) {
+                        MapMarkerData marker = toMarker(entry);
+                        if (marker != null) {
+                            markers.add(marker);
+                        }
+                    }
                 }
-                Log.d(TAG, "Resolving entrant names for " + entries.size() + " entries");
-                resolveEntrantNames(entries, callback);
+                callback.onSuccess(markers);
             }
             
             @Override
             public void onError(@NonNull Exception e) {
-                Log.e(TAG, "Error loading entrants with locations", e);
+                Log.e(TAG, "Error loading entrant locations", e);
                 callback.onError(e);
             }
         });
     }
     
-    // The following function is from Anthropic Claude Sonnet 4.5, "How to fetch multiple profiles in parallel and wait for all to complete?", 2024-01-15
     /**
-     * Resolves entrant names by fetching profiles in parallel and aggregating results.
+     * Looks up an entrant's display name, falling back to the device ID. Each name is
+     * read once and then served from memory.
+     *
+     * @param deviceId the entrant's device ID
+     * @param callback receives the name on the thread the profile read completes on
      */
-    private void resolveEntrantNames(List<Map<String, Object>> entries, MapDataCallback callback) {
-        List<MapMarkerData> markers = Collections.synchronizedList(new ArrayList<>());
-        NameResolutionAggregator aggregator = new NameResolutionAggregator(entries.size(), markers, callback);
-        
-        for (Map<String, Object> entry : entries) {
-            String deviceId = (String) entry.get("deviceId");
-            GeoPoint location = (GeoPoint) entry.get("joinLocation");
-            Object timestampObj = entry.get("timestamp");
-            
-            if (deviceId == null || location == null) {
-                aggregator.onNameResolved();
-                continue;
-            }
-            
-            long timestamp = parseTimestamp(timestampObj);
-            
-            entrantDB.getProfile(deviceId, new EntrantDB.Callback<Entrant>() {
-                @Override
-                public void onSuccess(Entrant entrant) {
-                    String name = deviceId;
-                    if (entrant != null && entrant.getName() != null && !entrant.getName().isEmpty()) {
-                        name = entrant.getName();
-                    }
-                    
-                    MapMarkerData marker = new MapMarkerData(deviceId, name, 
-                            location.getLatitude(), location.getLongitude(), timestamp);
-                    markers.add(marker);
-                    aggregator.onNameResolved();
+    public void resolveName(String deviceId, NameCallback callback) {
+        String cached;
+        synchronized (names) {
+            cached = names.get(deviceId);
+        }
+        if (cached != null) {
+            callback.onName(cached);
+            return;
+        }
+        entrantDB.getProfile(deviceId, new EntrantDB.Callback<Entrant>() {
+            @Override
+            public void onSuccess(Entrant entrant) {
+                String name = deviceId;
+                if (entrant != null && entrant.getName() != null && !entrant.getName().isEmpty()) {
+                    name = entrant.getName();
                 }
-                
-                @Override
-                public void onError(@NonNull Exception e) {
-                    Log.w(TAG, "Failed to resolve name for " + deviceId, e);
-                    MapMarkerData marker = new MapMarkerData(deviceId, deviceId, 
-                            location.getLatitude(), location.getLongitude(), timestamp);
-                    markers.add(marker);
-                    aggregator.onNameResolved();
+                synchronized (names) {
+                    names.put(deviceId, name);
                 }
-            });
+                callback.onName(name);
+            }
+            
+            @Override
+            public void onError(@NonNull Exception e) {
+                Log.w(TAG, "Failed to resolve name for " + deviceId, e);
+                callback.onName(deviceId);
+            }
+        });
+    }
+    
+    /**
+     * @return the name if {@link #resolveName} has already looked it up, else null
+     */
+    public String getCachedName(String deviceId) {
+        synchronized (names) {
+            return names.get(deviceId);
+        }
+    }
+    
+    /**
+     * Builds a cluster index over the markers off the calling thread.
+     *
+     * @param markers markers to index; positions in the index match this list
+     * @param callback receives the index on the clustering thread
+     */
+    public void buildClusterIndex(List<MapMarkerData> markers, ClusterCallback<ClusterIndex> callback) {
+        List<MapMarkerData> snapshot = new ArrayList<>(markers);
+        clusterExecutor.execute(() -> {
+            double[] latitudes = new double[snapshot.size()];
+            double[] longitudes = new double[snapshot.size()];
+            for (int i = 0; i < snapshot.size(); i++) {
+                latitudes[i] = snapshot.get(i).getLatitude();
+                longitudes[i] = snapshot.get(i).getLongitude();
+            }
+            callback.onResult(new ClusterIndex(latitudes, longitudes));
+        });
+    }
+    
+    /**
+     * Looks up the clusters for a camera position off the calling thread. Queries run
+     * in the order they are made.
+     *
+     * @param index the index from {@link #buildClusterIndex}
+     * @param zoom camera zoom
+     * @param south southern edge of the visible region
+     * @param west western edge of the visible region
+     * @param north northern edge of the visible region
+     * @param east eastern edge of the visible region
+     * @param callback receives the visible clusters on the clustering thread
+     */
+    public void queryClusters(ClusterIndex index, float zoom, double south, double west,
+                              double north, double east,
+                              ClusterCallback<List<ClusterIndex.Cluster>> callback) {
+        clusterExecutor.execute(() -> callback.onResult(index.query(zoom, south, west, north, east)));
+    }
+    
+    private MapMarkerData toMarker(Map<String, Object> entry) {
+        String deviceId = (String) entry.get("deviceId");
+        Object location = entry.get("joinLocation");
+        if (deviceId == null || !(location instanceof GeoPoint)) {
+            return null;
         }
+        GeoPoint point = (GeoPoint) location;
+        Object status = entry.get("status");
+        return new MapMarkerData(deviceId, getCachedName(deviceId), point.getLatitude(), point.getLongitude(),
+                parseTimestamp(entry.get("timestamp")), status instanceof String ? (String) status : null);
     }
     
     private long parseTimestamp(Object timestampObj) {
@@ -141,26 +230,4 @@ public class EntrantMapController {
         }
         return 0;
     }
-    
-    private static class NameResolutionAggregator {
-        private final int total;
-        private final List<MapMarkerData> markers;
-        private final MapDataCallback callback;
-        private int completed;
-        
-        NameResolutionAggregator(int total, List<MapMarkerData> markers, MapDataCallback callback) {
-            this.total = total;
-            this.markers = markers;
-            this.callback = callback;
-            this.completed = 0;
-        }
-        
-        synchronized void onNameResolved() {
-            completed++;
-            if (completed >= total) {
-                callback.onSuccess(markers);
-            }
-        }
-    }
 }
-
@@ -0,0 +1,96 @@
+package ca.ualberta.codarc.codarc_events.controllers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import ca.ualberta.codarc.codarc_events.models.Event;
+import ca.ualberta.codarc.codarc_events.utils.TagHelper;
+
+/**
+ * Tag and availability matching used by {@link FilterEventsController}.
+ * Has no Firestore dependencies so the filtering loop can be benchmarked on a plain JVM.
+ */
+public final class EventFilter {
+
+    private EventFilter() {
+    }
+
+    /**
+     * Keeps the events that match both the tag filter and the availability filter.
+     *
+     * @param events the events to filter
+     * @param selectedTags tags to match (null or empty = no tag filter)
+     * @param availableOnly true to keep only events with open registration and capacity
+     * @param acceptedCounts map of event ID to accepted participant count
+     * @return the matching events, in input order
+     */
+    public static List<Event> filter(List<Event> events, List<String> selectedTags,
+                                     boolean availableOnly, Map<String, Integer> acceptedCounts) {
+        List<Event> filtered = new ArrayList<>();
+
+        for (Event event : events) {
+            if (event == null) {
+                continue;
+            }
+
+            boolean matchesTagFilter = matchesTags(event, selectedTags);
+            boolean matchesAvailabilityFilter = !availableOnly || isAvailable(event, acceptedCounts);
+
+            if (matchesTagFilter && matchesAvailabilityFilter) {
+                filtered.add(event);
+            }
+        }
+
+        return filtered;
+    }
+
+    /**
+     * Checks if an event has at least one of the selected tags.
+     *
+     * @param event the event to check
+     * @param selectedTags tags to match (null or empty = no tag filter)
+     * @return true if event matches tag filter (or no tag filter is applied)
+     */
+    public static boolean matchesTags(Event event, List<String> selectedTags) {
+        if (selectedTags == null || selectedTags.isEmpty()) {
+            return true; // No tag filter applied
+        }
+
+        List<String> eventTags = event.getTags();
+        if (eventTags == null || eventTags.isEmpty()) {
+            return false;
+        }
+
+        for (String selectedTag : selectedTags) {
+            String normalizedSelected = TagHelper.normalizeTag(selectedTag);
+            for (String eventTag : eventTags) {
+                if (eventTag != null && TagHelper.normalizeTag(eventTag).equals(normalizedSelected)) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Checks if an event is open for registration and has capacity left.
+     *
+     * @param event the event to check
+     * @param acceptedCounts map of event ID to accepted participant count
+     * @return true if registration is open and the event is not full
+     */
+    public static boolean isAvailable(Event event, Map<String, Integer> acceptedCounts) {
+        if (!EventValidationHelper.isWithinRegistrationWindow(event)) {
+            return false;
+        }
+
+        Integer acceptedCount = acceptedCounts != null ? acceptedCounts.get(event.getId()) : null;
+        if (acceptedCount == null) {
+            return false;
+        }
+
+        return EventValidationHelper.hasCapacity(event, acceptedCount);
+    }
+}
@@ -0,0 +1,64 @@
+package ca.ualberta.codarc.codarc_events.controllers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+import ca.ualberta.codarc.codarc_events.models.Event;
+
+/**
+ * Search box on the event list. Keeps an {@link EventSearchIndex} up to date from
+ * the events listener and answers queries against it. Indexing and queries run in
+ * order on one thread, so a query always sees the snapshots handed in before it.
+ */
+public class EventSearchController {
+
+    /** The most events one search returns. */
+    public static final int MAX_RESULTS = 200;
+
+    private static final Executor SEARCH_EXECUTOR = Executors.newSingleThreadExecutor();
+
+    private final EventSearchIndex index = new EventSearchIndex();
+    private final Executor searchExecutor;
+
+    /**
+     * Callback for search results.
+     */
+    public interface Callback {
+        /**
+         * @param query the query the results are for
+         * @param results matching events, best first
+         */
+        void onResult(String query, List<Event> results);
+    }
+
+    public EventSearchController() {
+        this(SEARCH_EXECUTOR);
+    }
+
+    public EventSearchController(Executor searchExecutor) {
+        this.searchExecutor = searchExecutor;
+    }
+
+    /**
+     * Hands a snapshot of every event to the index. Only events whose text changed
+     * since the last snapshot are re-indexed.
+     *
+     * @param events the events from the listener
+     */
+    public void index(List<Event> events) {
+        List<Event> snapshot = new ArrayList<>(events);
+        searchExecutor.execute(() -> index.update(snapshot));
+    }
+
+    /**
+     * Searches the indexed events off the calling thread.
+     *
+     * @param query what the user typed
+     * @param callback receives the results on the search thread
+     */
+    public void search(String query, Callback callback) {
+        searchExecutor.execute(() -> callback.onResult(query, index.search(query, MAX_RESULTS)));
+    }
+}
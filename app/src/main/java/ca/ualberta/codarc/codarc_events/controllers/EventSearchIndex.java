@@ -0,0 +1,545 @@
+package ca.ualberta.codarc.codarc_events.controllers;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+import ca.ualberta.codarc.codarc_events.models.Event;
+
+/**
+ * Inverted index over event names, descriptions, locations and tags for the
+ * search box. Updates are incremental: {@link #update} compares a snapshot with
+ * what is indexed and only re-indexes events whose text changed, so a listener
+ * can feed it every snapshot without the list being re-scanned per keystroke.
+ *
+ * <p>Text is lower-cased, accents are folded and it is split on anything that is
+ * not a letter or digit. Every query word must match. The last word also matches
+ * as a prefix while it is being typed, and a word that matches nothing falls back
+ * to indexed words within one or two edits that start with the same letter.
+ * Matches are ranked with BM25, counting a word in the name three times, in a tag
+ * twice and in the location one and a half times.
+ *
+ * <p>Plain Java and not thread-safe; callers use it from one thread.
+ */
+public class EventSearchIndex {
+
+    private static final float NAME_WEIGHT = 3f;
+    private static final float TAG_WEIGHT = 2f;
+    private static final float LOCATION_WEIGHT = 1.5f;
+    private static final float DESCRIPTION_WEIGHT = 1f;
+
+    /** BM25 term frequency saturation and length normalization. */
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+
+    /** Score factor for a word matched as a prefix, and for one and two edits. */
+    private static final float PREFIX_FACTOR = 0.7f;
+    private static final float ONE_EDIT_FACTOR = 0.5f;
+    private static final float TWO_EDIT_FACTOR = 0.25f;
+    /** Most indexed words one query word can expand to; the most common are kept. */
+    private static final int MAX_EXPANSIONS = 64;
+
+    /** An indexed event, the postings it is in and its length weighted by field. */
+    private static final class Doc {
+        private final Event event;
+        private final Postings[] terms;
+        private final float length;
+
+        private Doc(Event event, Postings[] terms, float length) {
+            this.event = event;
+            this.terms = terms;
+            this.length = length;
+        }
+    }
+
+    /** Events containing one word, unordered, with the word's weighted count in each. */
+    private static final class Postings {
+        private final String term;
+        private int[] docs = new int[2];
+        private float[] frequencies = new float[2];
+        private int size;
+
+        private Postings(String term) {
+            this.term = term;
+        }
+
+        private void add(int doc, float frequency) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            docs[size] = doc;
+            frequencies[size] = frequency;
+            size++;
+        }
+
+        private void remove(int doc) {
+            for (int i = 0; i < size; i++) {
+                if (docs[i] == doc) {
+                    size--;
+                    docs[i] = docs[size];
+                    frequencies[i] = frequencies[size];
+                    return;
+                }
+            }
+        }
+    }
+
+    /** One way a query word matches: an indexed word and how much it counts. */
+    private static final class Expansion {
+        private final Postings postings;
+        private final float factor;
+
+        private Expansion(Postings postings, float factor) {
+            this.postings = postings;
+            this.factor = factor;
+        }
+    }
+
+    private final Map<String, Postings> terms = new HashMap<>();
+    /** The same postings in word order, for prefix and typo lookups. */
+    private final TreeMap<String, Postings> sortedTerms = new TreeMap<>();
+    private final Map<String, Integer> docIds = new HashMap<>();
+    private Doc[] docs = new Doc[16];
+    private int[] freeIds = new int[16];
+    private int freeCount;
+    private int nextId;
+    private double totalLength;
+
+    // Per-query scratch, indexed by doc ID and grown with docs.
+    private int[] matchedWords = new int[16];
+    private float[] scores = new float[16];
+    private float[] wordScores = new float[16];
+    private int[] seenMark = new int[16];
+    private int mark;
+
+    /**
+     * @return the number of indexed events
+     */
+    public int size() {
+        return docIds.size();
+    }
+
+    /**
+     * Brings the index in line with a full event list. Events whose text is
+     * unchanged are only re-pointed at the new object; events missing from the
+     * list are dropped.
+     *
+     * @param events every event, as the listener delivered them
+     */
+    public void update(List<Event> events) {
+        int updateMark = ++mark;
+        for (Event event : events) {
+            if (event == null || event.getId() == null) {
+                continue;
+            }
+            put(event);
+            seenMark[docIds.get(event.getId())] = updateMark;
+        }
+        for (int id = 0; id < nextId; id++) {
+            if (docs[id] != null && seenMark[id] != updateMark) {
+                remove(docs[id].event.getId());
+            }
+        }
+    }
+
+    /**
+     * Indexes one event, replacing an earlier version with the same ID.
+     *
+     * @param event the event; ignored if it has no ID
+     */
+    public void put(Event event) {
+        if (event == null || event.getId() == null) {
+            return;
+        }
+        Integer existing = docIds.get(event.getId());
+        if (existing != null) {
+            Doc doc = docs[existing];
+            if (sameText(doc.event, event)) {
+                docs[existing] = new Doc(event, doc.terms, doc.length);
+                return;
+            }
+            remove(event.getId());
+        }
+        int id = allocateId();
+        List<Postings> docTerms = new ArrayList<>();
+        float length = 0;
+        length += addField(id, docTerms, event.getName(), NAME_WEIGHT);
+        length += addField(id, docTerms, event.getDescription(), DESCRIPTION_WEIGHT);
+        length += addField(id, docTerms, event.getLocation(), LOCATION_WEIGHT);
+        if (event.getTags() != null) {
+            for (String tag : event.getTags()) {
+                length += addField(id, docTerms, tag, TAG_WEIGHT);
+            }
+        }
+        docs[id] = new Doc(event, docTerms.toArray(new Postings[0]), length);
+        docIds.put(event.getId(), id);
+        totalLength += length;
+    }
+
+    /**
+     * Drops an event from the index.
+     *
+     * @param eventId the event's ID
+     */
+    public void remove(String eventId) {
+        Integer id = docIds.remove(eventId);
+        if (id == null) {
+            return;
+        }
+        Doc doc = docs[id];
+        for (Postings postings : doc.terms) {
+            postings.remove(id);
+            if (postings.size == 0) {
+                terms.remove(postings.term);
+                sortedTerms.remove(postings.term);
+            }
+        }
+        totalLength -= doc.length;
+        docs[id] = null;
+        freeIds[freeCount++] = id;
+    }
+
+    /**
+     * Finds the events matching every word of a query, best first.
+     *
+     * @param query what the user typed; a trailing space ends the last word
+     * @param limit the most events to return
+     * @return matching events, best first; empty for a blank query
+     */
+    public List<Event> search(String query, int limit) {
+        List<String> words = tokenize(query);
+        if (words.isEmpty() || limit <= 0 || docIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        boolean lastIsPrefix = !Character.isWhitespace(query.charAt(query.length() - 1));
+
+        List<List<Expansion>> expansions = new ArrayList<>(words.size());
+        for (int i = 0; i < words.size(); i++) {
+            List<Expansion> forWord = expand(words.get(i), lastIsPrefix && i == words.size() - 1);
+            if (forWord.isEmpty()) {
+                return new ArrayList<>();
+            }
+            expansions.add(forWord);
+        }
+        // Rarest word first so later words only touch events still in the running.
+        expansions.sort((a, b) -> Integer.compare(postingCount(a), postingCount(b)));
+
+        int[] touched = new int[postingCount(expansions.get(0))];
+        int touchedCount = 0;
+        int[] hits = new int[touched.length];
+        double averageLength = totalLength / docIds.size();
+        for (int word = 0; word < expansions.size(); word++) {
+            int wordMark = ++mark;
+            int hitCount = 0;
+            // All forms of a word share one IDF, or a rare completion would outrank the word itself.
+            float idf = idf(Math.min(docIds.size(), postingCount(expansions.get(word))));
+            for (Expansion expansion : expansions.get(word)) {
+                Postings postings = expansion.postings;
+                for (int p = 0; p < postings.size; p++) {
+                    int id = postings.docs[p];
+                    if (matchedWords[id] != word) {
+                        continue;
+                    }
+                    float frequency = postings.frequencies[p];
+                    float norm = (float) (K1 * (1 - B + B * docs[id].length / averageLength));
+                    float score = expansion.factor * idf * frequency * (K1 + 1) / (frequency + norm);
+                    if (seenMark[id] != wordMark) {
+                        seenMark[id] = wordMark;
+                        wordScores[id] = score;
+                        if (word == 0) {
+                            touched[touchedCount++] = id;
+                        } else {
+                            hits[hitCount] = id;
+                        }
+                        hitCount++;
+                    } else if (score > wordScores[id]) {
+                        // A word matching an event two ways counts its best way once.
+                        wordScores[id] = score;
+                    }
+                }
+            }
+            if (word == 0) {
+                System.arraycopy(touched, 0, hits, 0, touchedCount);
+            }
+            for (int h = 0; h < hitCount; h++) {
+                int id = hits[h];
+                matchedWords[id] = word + 1;
+                scores[id] += wordScores[id];
+            }
+        }
+
+        List<Event> results = topMatches(touched, touchedCount, expansions.size(), limit);
+        for (int t = 0; t < touchedCount; t++) {
+            matchedWords[touched[t]] = 0;
+            scores[touched[t]] = 0;
+        }
+        return results;
+    }
+
+    /**
+     * Splits text into lower-case words without accents.
+     *
+     * @param text the text, may be null
+     * @return the words in order, repeats kept
+     */
+    public static List<String> tokenize(String text) {
+        List<String> words = new ArrayList<>();
+        if (text == null) {
+            return words;
+        }
+        String folded = text;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) > 0x7f) {
+                folded = Normalizer.normalize(text, Normalizer.Form.NFD);
+                break;
+            }
+        }
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i < folded.length(); i++) {
+            char c = folded.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                word.append(Character.toLowerCase(c));
+            } else if (Character.getType(c) != Character.NON_SPACING_MARK && word.length() > 0) {
+                words.add(word.toString());
+                word.setLength(0);
+            }
+        }
+        if (word.length() > 0) {
+            words.add(word.toString());
+        }
+        return words;
+    }
+
+    /**
+     * Adds a field's words to the postings for a doc. The doc is the last entry
+     * of any postings it is already in, so a repeated word only adds to its count.
+     */
+    private float addField(int id, List<Postings> docTerms, String text, float weight) {
+        List<String> words = tokenize(text);
+        for (String word : words) {
+            Postings postings = terms.get(word);
+            if (postings == null) {
+                postings = new Postings(word);
+                terms.put(word, postings);
+                sortedTerms.put(word, postings);
+            }
+            if (postings.size > 0 && postings.docs[postings.size - 1] == id) {
+                postings.frequencies[postings.size - 1] += weight;
+            } else {
+                postings.add(id, weight);
+                docTerms.add(postings);
+            }
+        }
+        return words.size() * weight;
+    }
+
+    private static boolean sameText(Event a, Event b) {
+        return Objects.equals(a.getName(), b.getName())
+                && Objects.equals(a.getDescription(), b.getDescription())
+                && Objects.equals(a.getLocation(), b.getLocation())
+                && Objects.equals(a.getTags(), b.getTags());
+    }
+
+    private int allocateId() {
+        if (freeCount > 0) {
+            return freeIds[--freeCount];
+        }
+        if (nextId == docs.length) {
+            int capacity = docs.length * 2;
+            docs = Arrays.copyOf(docs, capacity);
+            freeIds = Arrays.copyOf(freeIds, capacity);
+            matchedWords = Arrays.copyOf(matchedWords, capacity);
+            scores = Arrays.copyOf(scores, capacity);
+            wordScores = Arrays.copyOf(wordScores, capacity);
+            seenMark = Arrays.copyOf(seenMark, capacity);
+        }
+        return nextId++;
+    }
+
+    /**
+     * The indexed words a query word stands for: itself, then longer words it
+     * starts if it is the word being typed, and only if neither exists, words a
+     * typo or two away.
+     */
+    private List<Expansion> expand(String word, boolean prefix) {
+        List<Expansion> expansions = new ArrayList<>();
+        Postings exact = terms.get(word);
+        if (exact != null) {
+            expansions.add(new Expansion(exact, 1f));
+        }
+        if (prefix) {
+            List<Expansion> longer = new ArrayList<>();
+            for (Map.Entry<String, Postings> entry : sortedTerms.tailMap(word, false).entrySet()) {
+                if (!entry.getKey().startsWith(word)) {
+                    break;
+                }
+                longer.add(new Expansion(entry.getValue(), PREFIX_FACTOR));
+            }
+            expansions.addAll(mostCommon(longer));
+        }
+        if (expansions.isEmpty()) {
+            expansions.addAll(mostCommon(typoMatches(word, prefix)));
+        }
+        return expansions;
+    }
+
+    private List<Expansion> typoMatches(String word, boolean prefix) {
+        List<Expansion> close = new ArrayList<>();
+        int maxEdits = word.length() <= 3 ? 0 : word.length() <= 7 ? 1 : 2;
+        if (maxEdits == 0) {
+            return close;
+        }
+        // Only words with the same first letter are compared, which keeps this to a slice of the terms.
+        for (Map.Entry<String, Postings> entry : sortedTerms.tailMap(word.substring(0, 1), true).entrySet()) {
+            String term = entry.getKey();
+            if (term.charAt(0) != word.charAt(0)) {
+                break;
+            }
+            if (!prefix && Math.abs(term.length() - word.length()) > maxEdits) {
+                continue;
+            }
+            int distance = editDistance(word, term, maxEdits, prefix);
+            if (distance <= maxEdits) {
+                close.add(new Expansion(entry.getValue(), distance == 1 ? ONE_EDIT_FACTOR : TWO_EDIT_FACTOR));
+            }
+        }
+        return close;
+    }
+
+    private static List<Expansion> mostCommon(List<Expansion> expansions) {
+        if (expansions.size() > MAX_EXPANSIONS) {
+            expansions.sort((a, b) -> Integer.compare(b.postings.size, a.postings.size));
+            return expansions.subList(0, MAX_EXPANSIONS);
+        }
+        return expansions;
+    }
+
+    /**
+     * Edit distance counting a swap of neighbouring letters as one edit, or, for a
+     * prefix, the distance to the closest start of the term. Returns more than
+     * {@code max} as soon as every path is over it.
+     */
+    static int editDistance(String word, String term, int max, boolean prefix) {
+        int columns = prefix ? Math.min(term.length(), word.length() + max) : term.length();
+        int[] before = new int[columns + 1];
+        int[] previous = new int[columns + 1];
+        int[] current = new int[columns + 1];
+        for (int j = 0; j <= columns; j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= word.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= columns; j++) {
+                int cost = word.charAt(i - 1) == term.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && word.charAt(i - 1) == term.charAt(j - 2)
+                        && word.charAt(i - 2) == term.charAt(j - 1)) {
+                    value = Math.min(value, before[j - 2] + 1);
+                }
+                current[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (rowMin > max) {
+                return max + 1;
+            }
+            int[] recycled = before;
+            before = previous;
+            previous = current;
+            current = recycled;
+        }
+        if (!prefix) {
+            return previous[columns];
+        }
+        int best = previous[0];
+        for (int j = 1; j <= columns; j++) {
+            best = Math.min(best, previous[j]);
+        }
+        return best;
+    }
+
+    private float idf(int documentFrequency) {
+        int count = docIds.size();
+        return (float) Math.log(1 + (count - documentFrequency + 0.5) / (documentFrequency + 0.5));
+    }
+
+    private static int postingCount(List<Expansion> expansions) {
+        int count = 0;
+        for (Expansion expansion : expansions) {
+            count += expansion.postings.size;
+        }
+        return count;
+    }
+
+    /**
+     * The best scoring events that matched every word, kept in a min-heap of
+     * packed score and ID so the candidates are never sorted in full.
+     */
+    private List<Event> topMatches(int[] touched, int touchedCount, int wordCount, int limit) {
+        long[] heap = new long[Math.min(limit, touchedCount)];
+        int heapSize = 0;
+        for (int t = 0; t < touchedCount; t++) {
+            int id = touched[t];
+            if (matchedWords[id] != wordCount) {
+                continue;
+            }
+            // Scores are positive, so their bits sort like the floats; lower IDs win ties.
+            long key = ((long) Float.floatToIntBits(scores[id]) << 32) | (Integer.MAX_VALUE - id);
+            if (heapSize < heap.length) {
+                heap[heapSize] = key;
+                siftUp(heap, heapSize++);
+            } else if (key > heap[0]) {
+                heap[0] = key;
+                siftDown(heap, heapSize);
+            }
+        }
+        Arrays.sort(heap, 0, heapSize);
+        List<Event> results = new ArrayList<>(heapSize);
+        for (int i = heapSize - 1; i >= 0; i--) {
+            int id = Integer.MAX_VALUE - (int) heap[i];
+            results.add(docs[id].event);
+        }
+        return results;
+    }
+
+    private static void siftUp(long[] heap, int index) {
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (heap[parent] <= heap[index]) {
+                return;
+            }
+            long swap = heap[parent];
+            heap[parent] = heap[index];
+            heap[index] = swap;
+            index = parent;
+        }
+    }
+
+    private static void siftDown(long[] heap, int size) {
+        int index = 0;
+        while (true) {
+            int smallest = index;
+            int left = 2 * index + 1;
+            int right = left + 1;
+            if (left < size && heap[left] < heap[smallest]) {
+                smallest = left;
+            }
+            if (right < size && heap[right] < heap[smallest]) {
+                smallest = right;
+            }
+            if (smallest == index) {
+                return;
+            }
+            long swap = heap[smallest];
+            heap[smallest] = heap[index];
+            heap[index] = swap;
+            index = smallest;
+        }
+    }
+}
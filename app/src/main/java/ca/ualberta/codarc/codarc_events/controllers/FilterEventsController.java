@@ -1,13 +1,13 @@
 package ca.ualberta.codarc.codarc_events.controllers;
 
-import androidx.annotation.NonNull;
-
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import ca.ualberta.codarc.codarc_events.data.AsyncResult;
 import ca.ualberta.codarc.codarc_events.data.EventDB;
+import ca.ualberta.codarc.codarc_events.data.EventRepository;
 import ca.ualberta.codarc.codarc_events.models.Event;
 import ca.ualberta.codarc.codarc_events.utils.TagHelper;
 
@@ -123,21 +123,8 @@ public class FilterEventsController {
             return FilterResult.success(new ArrayList<>(allEvents));
         }
 
-        List<Event> filtered = new ArrayList<>();
-
-        for (Event event : allEvents) {
-            if (event == null) {
-                continue;
-            }
-
-            boolean matchesTagFilter = matchesTagFilter(event, criteria);
-            boolean matchesAvailabilityFilter = matchesAvailabilityFilter(event, criteria, acceptedCounts);
-
-            if (matchesTagFilter && matchesAvailabilityFilter) {
-                filtered.add(event);
-            }
-        }
-
+        List<Event> filtered = EventFilter.filter(allEvents, criteria.getSelectedTags(),
+                criteria.isAvailableOnly(), acceptedCounts);
         return FilterResult.success(filtered);
     }
 
@@ -148,37 +135,22 @@ public class FilterEventsController {
      * @param criteria the filter criteria
      * @param eventDB EventDB instance for fetching waitlist counts
      * @param callback callback to receive the filter result
+     * @return the filter in flight; cancelling it drops the callback
      */
-    public void applyFiltersAsync(List<Event> allEvents, FilterCriteria criteria, EventDB eventDB, Callback callback) {
+    public AsyncResult<FilterResult> applyFiltersAsync(List<Event> allEvents, FilterCriteria criteria,
+                                                       EventRepository eventDB, Callback callback) {
+        AsyncResult<FilterResult> filtered;
         if (allEvents == null) {
-            callback.onResult(FilterResult.failure("Event list is null"));
-            return;
-        }
-
-        if (criteria == null || criteria.isEmpty()) {
-            callback.onResult(FilterResult.success(new ArrayList<>(allEvents)));
-            return;
-        }
-
-        if (!criteria.isAvailableOnly()) {
-            Map<String, Integer> emptyCounts = new HashMap<>();
-            FilterResult result = applyFilters(allEvents, criteria, emptyCounts);
-            callback.onResult(result);
-            return;
-        }
-
-        fetchAcceptedCounts(allEvents, eventDB, new AcceptedCountsCallback() {
-            @Override
-            public void onCountsReady(Map<String, Integer> counts) {
-                FilterResult result = applyFilters(allEvents, criteria, counts);
-                callback.onResult(result);
-            }
-
-            @Override
-            public void onError(Exception e) {
-                callback.onResult(FilterResult.success(new ArrayList<>()));
-            }
-        });
+            filtered = AsyncResult.success(FilterResult.failure("Event list is null"));
+        } else if (criteria == null || criteria.isEmpty()) {
+            filtered = AsyncResult.success(FilterResult.success(new ArrayList<>(allEvents)));
+        } else if (!criteria.isAvailableOnly()) {
+            filtered = AsyncResult.success(applyFilters(allEvents, criteria, new HashMap<>()));
+        } else {
+            filtered = fetchAcceptedCounts(allEvents, eventDB).map(counts -> applyFilters(allEvents, criteria, counts));
+        }
+        return filtered.whenDone(callback::onResult,
+                e -> callback.onResult(FilterResult.success(new ArrayList<>())));
     }
 
     /**
@@ -192,119 +164,29 @@ public class FilterEventsController {
     }
 
     /**
-     * Checks if an event matches the tag filter criteria.
-     *
-     * @param event the event to check
-     * @param criteria the filter criteria
-     * @return true if event matches tag filter (or no tag filter is applied)
-     */
-    private boolean matchesTagFilter(Event event, FilterCriteria criteria) {
-        if (!criteria.hasTagFilter()) {
-            return true; // No tag filter applied
-        }
-
-        List<String> eventTags = event.getTags();
-        if (eventTags == null || eventTags.isEmpty()) {
-            return false;
-        }
-
-        for (String selectedTag : criteria.getSelectedTags()) {
-            String normalizedSelected = TagHelper.normalizeTag(selectedTag);
-            for (String eventTag : eventTags) {
-                if (eventTag != null && TagHelper.normalizeTag(eventTag).equals(normalizedSelected)) {
-                    return true;
-                }
-            }
-        }
-
-        return false;
-    }
-
-    /**
-     * Checks if an event matches the availability filter criteria.
-     *
-     * @param event the event to check
-     * @param criteria the filter criteria
-     * @param acceptedCounts map of event ID to accepted participant count
-     * @return true if event matches availability filter (or no availability filter is applied)
+     * Fetches accepted participant counts for all events. Fails if any count
+     * cannot be read.
      */
-    private boolean matchesAvailabilityFilter(Event event, FilterCriteria criteria, Map<String, Integer> acceptedCounts) {
-        if (!criteria.isAvailableOnly()) {
-            return true;
-        }
-
-        if (!EventValidationHelper.isWithinRegistrationWindow(event)) {
-            return false;
-        }
-
-        Integer acceptedCount = acceptedCounts != null ? acceptedCounts.get(event.getId()) : null;
-        if (acceptedCount == null) {
-            return false;
-        }
-
-        return EventValidationHelper.hasCapacity(event, acceptedCount);
-    }
-
-    /**
-     * Fetches accepted participant counts for all events.
-     */
-    private void fetchAcceptedCounts(List<Event> events, EventDB eventDB, AcceptedCountsCallback callback) {
-        if (events == null || events.isEmpty()) {
-            callback.onCountsReady(new HashMap<>());
-            return;
-        }
-
-        Map<String, Integer> counts = new HashMap<>();
-        final int[] pendingRequests = {events.size()};
-        final boolean[] hasError = {false};
-
+    private AsyncResult<Map<String, Integer>> fetchAcceptedCounts(List<Event> events, EventRepository eventDB) {
+        List<String> eventIds = new ArrayList<>(events.size());
+        List<AsyncResult<Integer>> lookups = new ArrayList<>(events.size());
         for (Event event : events) {
             if (event == null || event.getId() == null) {
-                synchronized (pendingRequests) {
-                    pendingRequests[0]--;
-                    if (pendingRequests[0] == 0 && !hasError[0]) {
-                        callback.onCountsReady(counts);
-                    }
-                }
                 continue;
             }
-
-            eventDB.getAcceptedCount(event.getId(), new EventDB.Callback<Integer>() {
-                @Override
-                public void onSuccess(Integer count) {
-                    synchronized (counts) {
-                        counts.put(event.getId(), count != null ? count : 0);
-                    }
-                    synchronized (pendingRequests) {
-                        pendingRequests[0]--;
-                        if (pendingRequests[0] == 0 && !hasError[0]) {
-                            callback.onCountsReady(counts);
-                        }
-                    }
-                }
-
-                @Override
-                public void onError(@NonNull Exception e) {
-                    synchronized (pendingRequests) {
-                        pendingRequests[0]--;
-                        if (pendingRequests[0] == 0) {
-                            if (!hasError[0]) {
-                                hasError[0] = true;
-                                callback.onError(e);
-                            }
-                        }
-                    }
-                }
-            });
-        }
-    }
-
-    /**
-     * Callback interface for accepted participant counts fetching.
-     */
-    private interface AcceptedCountsCallback {
-        void onCountsReady(Map<String, Integer> counts);
-        void onError(Exception e);
+            AsyncResult<Integer> lookup = AsyncResult.pending();
+            eventDB.getAcceptedCount(event.getId(), EventDB.Callback.completing(lookup));
+            eventIds.add(event.getId());
+            lookups.add(lookup);
+        }
+        return AsyncResult.allOf(lookups).map(found -> {
+            Map<String, Integer> counts = new HashMap<>();
+            for (int i = 0; i < eventIds.size(); i++) {
+                Integer count = found.get(i);
+                counts.put(eventIds.get(i), count != null ? count : 0);
+            }
+            return counts;
+        });
     }
 }
 
@@ -8,7 +8,11 @@ import java.util.List;
 import java.util.Map;
 
 import ca.ualberta.codarc.codarc_events.data.EntrantDB;
+import ca.ualberta.codarc.codarc_events.data.EntrantRepository;
 import ca.ualberta.codarc.codarc_events.data.EventDB;
+import ca.ualberta.codarc.codarc_events.data.EventRepository;
+import ca.ualberta.codarc.codarc_events.data.FirestoreMetrics;
+import ca.ualberta.codarc.codarc_events.models.EntrantEntry;
 import ca.ualberta.codarc.codarc_events.utils.ValidationHelper;
 
 /**
@@ -16,15 +20,17 @@ import ca.ualberta.codarc.codarc_events.utils.ValidationHelper;
  */
 public class InvitationResponseController {
 
+    private static final String FLOW = "invitation";
+
     public interface ResponseCallback {
         void onSuccess();
         void onError(@NonNull Exception e);
     }
 
-    private final EventDB eventDB;
-    private final EntrantDB entrantDB;
+    private final EventRepository eventDB;
+    private final EntrantRepository entrantDB;
 
-    public InvitationResponseController(EventDB eventDB, EntrantDB entrantDB) {
+    public InvitationResponseController(EventRepository eventDB, EntrantRepository entrantDB) {
         this.eventDB = eventDB;
         this.entrantDB = entrantDB;
     }
@@ -58,17 +64,19 @@ public class InvitationResponseController {
             return;
         }
 
-        eventDB.setEnrolledStatus(eventId, deviceId, enroll, new EventDB.Callback<Void>() {
-            @Override
-            public void onSuccess(Void value) {
-                updateNotificationAndHandleResponse(eventId, deviceId, notificationId, enroll, response, cb);
-            }
+        try (FirestoreMetrics.Scope scope = FirestoreMetrics.getInstance().openFlow(FLOW)) {
+            eventDB.setEnrolledStatus(eventId, deviceId, enroll, new EventDB.Callback<Void>() {
+                @Override
+                public void onSuccess(Void value) {
+                    updateNotificationAndHandleResponse(eventId, deviceId, notificationId, enroll, response, cb);
+                }
 
-            @Override
-            public void onError(@NonNull Exception e) {
-                cb.onError(e);
-            }
-        });
+                @Override
+                public void onError(@NonNull Exception e) {
+                    cb.onError(e);
+                }
+            });
+        }
     }
 
     /**
@@ -107,17 +115,16 @@ public class InvitationResponseController {
      * @param cb               callback for completion
      */
     private void handleAutomaticReselection(String eventId, String declinedEntrantId, ResponseCallback cb) {
-        eventDB.getReplacementPool(eventId, new EventDB.Callback<List<Map<String, Object>>>() {
+        eventDB.getReplacementPool(eventId, new EventDB.Callback<List<EntrantEntry>>() {
             @Override
-            public void onSuccess(List<Map<String, Object>> pool) {
+            public void onSuccess(List<EntrantEntry> pool) {
                 if (pool != null && !pool.isEmpty()) {
-                    Object deviceIdObj = pool.get(0).get("deviceId");
-                    if (deviceIdObj == null || !(deviceIdObj instanceof String)) {
+                    String replacementId = pool.get(0).getDeviceId();
+                    if (replacementId == null) {
                         android.util.Log.w("InvitationResponseController", "Invalid deviceId in replacement pool, trying waitlist");
                         tryWaitlistSelection(eventId, declinedEntrantId, cb);
                         return;
                     }
-                    String replacementId = (String) deviceIdObj;
                     String source = "replacementPool";
                     promoteAndNotifyReplacement(eventId, declinedEntrantId, replacementId, source, cb);
                 } else {
@@ -141,18 +148,17 @@ public class InvitationResponseController {
      * @param cb               callback for completion
      */
     private void tryWaitlistSelection(String eventId, String declinedEntrantId, ResponseCallback cb) {
-        eventDB.getWaitlist(eventId, new EventDB.Callback<List<Map<String, Object>>>() {
+        eventDB.getWaitlist(eventId, new EventDB.Callback<List<EntrantEntry>>() {
             @Override
-            public void onSuccess(List<Map<String, Object>> waitlist) {
+            public void onSuccess(List<EntrantEntry> waitlist) {
                 if (waitlist != null && !waitlist.isEmpty()) {
                     Collections.shuffle(waitlist);
-                    Object deviceIdObj = waitlist.get(0).get("deviceId");
-                    if (deviceIdObj == null || !(deviceIdObj instanceof String)) {
+                    String replacementId = waitlist.get(0).getDeviceId();
+                    if (replacementId == null) {
                         android.util.Log.w("InvitationResponseController", "Invalid deviceId in waitlist, no replacement available");
                         logDeclineOnly(eventId, declinedEntrantId, cb);
                         return;
                     }
-                    String replacementId = (String) deviceIdObj;
                     String source = "waitlist";
                     promoteAndNotifyReplacement(eventId, declinedEntrantId, replacementId, source, cb);
                 } else {
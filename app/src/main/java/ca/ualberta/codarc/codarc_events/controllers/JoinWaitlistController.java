@@ -3,21 +3,33 @@ package ca.ualberta.codarc.codarc_events.controllers;
 import androidx.annotation.NonNull;
 
 import android.content.Context;
-import android.location.Location;
 import android.util.Log;
 
+import com.google.android.gms.tasks.CancellationToken;
+import com.google.firebase.firestore.GeoPoint;
+
+import ca.ualberta.codarc.codarc_events.data.AsyncResult;
 import ca.ualberta.codarc.codarc_events.data.EntrantDB;
+import ca.ualberta.codarc.codarc_events.data.EntrantRepository;
 import ca.ualberta.codarc.codarc_events.data.EventDB;
+import ca.ualberta.codarc.codarc_events.data.EventRepository;
+import ca.ualberta.codarc.codarc_events.data.FirestoreMetrics;
 import ca.ualberta.codarc.codarc_events.models.Entrant;
 import ca.ualberta.codarc.codarc_events.models.Event;
 import ca.ualberta.codarc.codarc_events.utils.LocationHelper;
 import ca.ualberta.codarc.codarc_events.utils.ValidationHelper;
 
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * Handles joining waitlists - validation and business logic.
  */
 public class JoinWaitlistController {
 
+    private static final String FLOW = "join";
+
     public static class JoinResult {
         private final boolean success;
         private final String message;
@@ -54,12 +66,44 @@ public class JoinWaitlistController {
         }
     }
 
-    private final EventDB eventDB;
-    private final EntrantDB entrantDB;
+    /**
+     * Where the location attached to a join comes from.
+     */
+    public interface LocationSource {
+        void getLocation(Context context, CancellationToken cancellationToken,
+                         LocationHelper.LocationCallback callback);
+    }
+
+    private static final String TAG = "JoinWaitlistController";
+
+    /**
+     * Fails a join step with the result to report, so the first rejection settles
+     * the attempt.
+     */
+    private static final class Rejection extends Exception {
+        private final JoinResult result;
 
-    public JoinWaitlistController(EventDB eventDB, EntrantDB entrantDB) {
+        Rejection(JoinResult result) {
+            super(result.getMessage());
+            this.result = result;
+        }
+    }
+
+    private final EventRepository eventDB;
+    private final EntrantRepository entrantDB;
+    private final LocationSource locationSource;
+    /** Attempt in flight per event and entrant; a new tap supersedes it. Main thread only. */
+    private final Map<String, AsyncResult<JoinResult>> attempts = new HashMap<>();
+
+    public JoinWaitlistController(EventRepository eventDB, EntrantRepository entrantDB) {
+        this(eventDB, entrantDB, LocationHelper::getJoinLocation);
+    }
+
+    public JoinWaitlistController(EventRepository eventDB, EntrantRepository entrantDB,
+                                  LocationSource locationSource) {
         this.eventDB = eventDB;
         this.entrantDB = entrantDB;
+        this.locationSource = locationSource;
     }
 
     /**
@@ -103,7 +147,9 @@ public class JoinWaitlistController {
 
     // The following function is from OpenAI GPT 5.1, "How to validate multiple checks before joining waitlist?", 2024-01-15
     /**
-     * Joins the waitlist for an event with optional location capture.
+     * Joins the waitlist for an event with optional location capture. The join does
+     * not wait for a location fix; once it has committed, the location is looked up
+     * and attached to the entry.
      *
      * @param event the event to join
      * @param deviceId the device ID of the entrant
@@ -111,6 +157,24 @@ public class JoinWaitlistController {
      * @param callback callback for completion
      */
     public void joinWaitlist(Event event, String deviceId, Context context, Callback callback) {
+        startJoin(event, deviceId, context, null, callback);
+    }
+
+    /**
+     * Joins the waitlist for an event with a location that was captured beforehand.
+     * Runs the same checks as {@link #joinWaitlist(Event, String, Context, Callback)}.
+     *
+     * @param event the event to join
+     * @param deviceId the device ID of the entrant
+     * @param location the join location (null to store none)
+     * @param callback callback for completion
+     */
+    public void joinWaitlistAt(Event event, String deviceId, GeoPoint location, Callback callback) {
+        startJoin(event, deviceId, null, location, callback);
+    }
+
+    private void startJoin(Event event, String deviceId, Context context, GeoPoint location, Callback callback) {
+        long startNanos = System.nanoTime();
         try {
             ValidationHelper.requireNonNull(event, "event");
             ValidationHelper.requireNonEmpty(deviceId, "deviceId");
@@ -124,168 +188,191 @@ public class JoinWaitlistController {
             return;
         }
 
-        checkProfileRegistration(deviceId, new EntrantDB.Callback<Boolean>() {
-            @Override
-            public void onSuccess(Boolean isRegistered) {
-                if (!isRegistered) {
-                    callback.onResult(JoinResult.requiresProfileRegistration());
-                    return;
-                }
-                checkBanStatusAndJoin(event, deviceId, context, callback);
-            }
+        if (!EventValidationHelper.isWithinRegistrationWindow(event)) {
+            callback.onResult(JoinResult.failure("Registration window is closed"));
+            return;
+        }
 
-            @Override
-            public void onError(@NonNull Exception e) {
-                callback.onResult(JoinResult.failure("Failed to check profile"));
-            }
-        });
+        // A repeated tap replaces the attempt in flight; only the latest one reports.
+        String attemptKey = event.getId() + "/" + deviceId;
+        AsyncResult<JoinResult> attempt = AsyncResult.pending();
+        AsyncResult<JoinResult> superseded = attempts.put(attemptKey, attempt);
+        if (superseded != null) {
+            superseded.cancel();
+        }
+        attempt.whenDone(result -> {
+            attempts.remove(attemptKey, attempt);
+            callback.onResult(result);
+        }, e -> attempts.remove(attemptKey, attempt));
+
+        try (FirestoreMetrics.Scope scope = FirestoreMetrics.getInstance().openFlow(FLOW)) {
+            // The profile read and the join transaction go out together; membership and
+            // capacity are checked inside the transaction, and the location, if wanted,
+            // is attached after the join so a slow fix never costs a seat.
+            JoinSteps steps = new JoinSteps(event.getId(), deviceId);
+            AsyncResult<Void> profile = checkEntrant(deviceId, startNanos, steps);
+            AsyncResult<Void> join = joinWaitlistWithLocation(event, deviceId, location, startNanos, steps);
+            AsyncResult.allOf(Arrays.asList(profile, join)).whenDone(unused -> {
+                recordLatency(location != null ? "join.withLocation" : "join.withoutLocation", startNanos, true);
+                attempt.complete(JoinResult.success("Joined successfully"));
+                if (location == null && context != null) {
+                    attachLocation(context, event.getId(), deviceId, startNanos);
+                }
+            }, e -> attempt.complete(e instanceof Rejection ? ((Rejection) e).result
+                    : JoinResult.failure("Failed to join. Please try again.")));
+        }
     }
 
     /**
-     * Checks ban status and proceeds with join logic.
+     * Tracks the two halves of one attempt so a join that committed for an entrant
+     * the profile check then turned away is undone. Callbacks arrive on the main thread.
      */
-    private void checkBanStatusAndJoin(Event event, String deviceId, Context context, Callback callback) {
-                entrantDB.isBanned(deviceId, new EntrantDB.Callback<Boolean>() {
-                    @Override
-                    public void onSuccess(Boolean isBanned) {
-                        if (isBanned != null && isBanned) {
-                            callback.onResult(JoinResult.failure("You are banned from joining events"));
-                            return;
-                        }
-                        checkAlreadyJoinedAndJoin(event, deviceId, context, callback);
-                    }
+    private final class JoinSteps {
+        private final String eventId;
+        private final String deviceId;
+        private boolean committed;
+        private boolean ineligible;
+        private boolean rolledBack;
+
+        JoinSteps(String eventId, String deviceId) {
+            this.eventId = eventId;
+            this.deviceId = deviceId;
+        }
 
-                    @Override
-                    public void onError(@NonNull Exception e) {
-                        Log.w("JoinWaitlistController", "Failed to check ban status", e);
-                        checkAlreadyJoinedAndJoin(event, deviceId, context, callback);
+        void onCommitted() {
+            committed = true;
+            rollBackIfNeeded();
+        }
+
+        void onIneligible() {
+            ineligible = true;
+            rollBackIfNeeded();
+        }
+
+        private void rollBackIfNeeded() {
+            if (!committed || !ineligible || rolledBack) {
+                return;
             }
-        });
+            rolledBack = true;
+            eventDB.leaveWaitlist(eventId, deviceId, new EventDB.Callback<Void>() {
+                @Override
+                public void onSuccess(Void value) {
+                    Log.d(TAG, "Rolled back join for ineligible entrant " + deviceId);
+                }
+
+                @Override
+                public void onError(@NonNull Exception e) {
+                    Log.e(TAG, "Failed to roll back join for " + deviceId, e);
+                }
+            });
+        }
     }
 
     /**
-     * Checks if already joined and proceeds with join logic.
-     *
-     * @param event the event to join
-     * @param deviceId the device ID of the entrant
-     * @param context context for location capture
-     * @param callback callback for completion
+     * Checks registration and ban status from a single profile read. A rejection
+     * fails the result; the read's latency is recorded as "profile".
      */
-    private void checkAlreadyJoinedAndJoin(Event event, String deviceId, Context context, Callback callback) {
-        eventDB.isEntrantOnWaitlist(event.getId(), deviceId, new EventDB.Callback<Boolean>() {
+    private AsyncResult<Void> checkEntrant(String deviceId, long startNanos, JoinSteps steps) {
+        AsyncResult<Void> check = AsyncResult.pending();
+        entrantDB.getProfile(deviceId, new EntrantDB.Callback<Entrant>() {
             @Override
-            public void onSuccess(Boolean alreadyJoined) {
-                if (alreadyJoined) {
-                    callback.onResult(JoinResult.failure("Already joined"));
-                    return;
-                }
-
-                if (!EventValidationHelper.isWithinRegistrationWindow(event)) {
-                    callback.onResult(JoinResult.failure("Registration window is closed"));
-                    return;
+            public void onSuccess(Entrant entrant) {
+                recordLatency("profile", startNanos, true);
+                if (entrant == null || !entrant.getIsRegistered()) {
+                    reject(JoinResult.requiresProfileRegistration());
+                } else if (entrant.isBanned()) {
+                    reject(JoinResult.failure("You are banned from joining events"));
+                } else {
+                    check.complete(null);
                 }
-
-                checkCapacityAndJoin(event, deviceId, context, callback);
             }
 
             @Override
             public void onError(@NonNull Exception e) {
-                callback.onResult(JoinResult.failure("Failed to check status. Please try again."));
+                recordLatency("profile", startNanos, false);
+                reject(JoinResult.failure("Failed to check profile"));
             }
-        });
-    }
 
-    /**
-     * Checks waitlist capacity and proceeds with joining.
-     */
-    private void checkCapacityAndJoin(Event event, String deviceId, Context context, Callback callback) {
-        eventDB.getWaitlistCount(event.getId(), new EventDB.Callback<Integer>() {
-                    @Override
-            public void onSuccess(Integer waitlistCount) {
-                if (waitlistCount == null) {
-                    waitlistCount = 0;
-                }
-                if (!EventValidationHelper.hasWaitlistCapacity(event, waitlistCount)) {
-                            callback.onResult(JoinResult.failure("Event is full"));
-                            return;
-                        }
-                performJoin(event, deviceId, context, callback);
-                                    }
-
-                                    @Override
-                                    public void onError(@NonNull Exception e) {
-                callback.onResult(JoinResult.failure("Failed to check availability"));
+            private void reject(JoinResult result) {
+                steps.onIneligible();
+                check.fail(new Rejection(result));
             }
         });
+        return check;
     }
 
     /**
-     * Performs the actual waitlist join operation with optional location capture.
+     * Joins the waitlist. Duplicate and capacity checks run in the same transaction
+     * as the write, so concurrent joiners cannot over-fill the event. The
+     * transaction's latency is recorded as "transaction".
      */
-    private void performJoin(Event event, String deviceId, Context context, Callback callback) {
-        if (context != null) {
-            captureLocationAndJoin(event, deviceId, context, callback);
-        } else {
-            joinWaitlistWithLocation(event, deviceId, null, callback);
-        }
-    }
-
-    /**
-     * Captures location and then joins waitlist.
-     */
-    private void captureLocationAndJoin(Event event, String deviceId, Context context, Callback callback) {
-        LocationHelper.getCurrentLocation(context, new LocationHelper.LocationCallback() {
+    private AsyncResult<Void> joinWaitlistWithLocation(Event event, String deviceId, GeoPoint location,
+                                                       long startNanos, JoinSteps steps) {
+        AsyncResult<Void> join = AsyncResult.pending();
+        eventDB.joinWaitlistAtomic(event.getId(), deviceId, location, new EventDB.Callback<EventDB.JoinOutcome>() {
             @Override
-            public void onLocation(Location location) {
-                com.google.firebase.firestore.GeoPoint geoPoint = null;
-                if (location != null) {
-                    geoPoint = new com.google.firebase.firestore.GeoPoint(
-                        location.getLatitude(), 
-                        location.getLongitude()
-                    );
+            public void onSuccess(EventDB.JoinOutcome outcome) {
+                recordLatency("transaction", startNanos, true);
+                if (outcome == EventDB.JoinOutcome.ALREADY_JOINED) {
+                    join.fail(new Rejection(JoinResult.failure("Already joined")));
+                } else if (outcome == EventDB.JoinOutcome.NOT_ELIGIBLE) {
+                    join.fail(new Rejection(JoinResult.failure("You have already been selected for this event")));
+                } else if (outcome == EventDB.JoinOutcome.FULL) {
+                    join.fail(new Rejection(JoinResult.failure("Event is full")));
+                } else {
+                    steps.onCommitted();
+                    join.complete(null);
                 }
-                joinWaitlistWithLocation(event, deviceId, geoPoint, callback);
+            }
+
+            @Override
+            public void onError(@NonNull Exception e) {
+                recordLatency("transaction", startNanos, false);
+                join.fail(new Rejection(JoinResult.failure("Failed to join. Please try again.")));
             }
         });
+        return join;
     }
 
     /**
-     * Joins waitlist with location data.
+     * Looks up a location for a committed join and stores it on the entry
+     * (fire-and-forget). The time from the join tap until the location is stored
+     * is recorded as "locationAttached".
      */
-    private void joinWaitlistWithLocation(Event event, String deviceId, 
-                                         com.google.firebase.firestore.GeoPoint location,
-                                         Callback callback) {
-        eventDB.joinWaitlist(event.getId(), deviceId, location, new EventDB.Callback<Void>() {
-            @Override
-            public void onSuccess(Void value) {
-                updateRegistrationHistory(event.getId(), deviceId);
-                                callback.onResult(JoinResult.success("Joined successfully"));
-                            }
-
-                            @Override
-                            public void onError(@NonNull Exception e) {
-                                callback.onResult(JoinResult.failure("Failed to join. Please try again."));
-                            }
-                        });
+    private void attachLocation(Context context, String eventId, String deviceId, long startNanos) {
+        Context appContext = context.getApplicationContext() != null ? context.getApplicationContext() : context;
+        locationSource.getLocation(appContext, null, captured -> {
+            if (captured == null) {
+                recordLatency("locationAttached", startNanos, false);
+                return;
+            }
+            GeoPoint point = new GeoPoint(captured.getLatitude(), captured.getLongitude());
+            // The fix arrives from the location service, outside the data layer's flow.
+            try (FirestoreMetrics.Scope scope = FirestoreMetrics.getInstance().openFlow(FLOW)) {
+                eventDB.attachJoinLocation(eventId, deviceId, point, new EventDB.Callback<Boolean>() {
+                    @Override
+                    public void onSuccess(Boolean attached) {
+                        recordLatency("locationAttached", startNanos, Boolean.TRUE.equals(attached));
                     }
 
-    /**
-     * Updates registration history (fire-and-forget operation).
-     */
-    private void updateRegistrationHistory(String eventId, String deviceId) {
-        entrantDB.addEventToEntrant(deviceId, eventId, new EntrantDB.Callback<Void>() {
                     @Override
-            public void onSuccess(Void v) {
-                // Success - no action needed
-            }
-
-            @Override
-            public void onError(@NonNull Exception e) {
-                Log.w("JoinWaitlistController", "Failed to update registration history", e);
+                    public void onError(@NonNull Exception e) {
+                        recordLatency("locationAttached", startNanos, false);
+                        Log.w(TAG, "Failed to attach join location", e);
+                    }
+                });
             }
         });
     }
 
+    private static void recordLatency(String step, long startNanos, boolean success) {
+        FirestoreMetrics metrics = FirestoreMetrics.getInstance();
+        if (metrics.isEnabled()) {
+            metrics.record(FLOW, "JoinWaitlistController." + step, System.nanoTime() - startNanos,
+                    success, 0, 0, 0, 0);
+        }
+    }
+
     public void getWaitlistCount(String eventId, EventDB.Callback<Integer> cb) {
         eventDB.getWaitlistCount(eventId, cb);
     }
@@ -5,7 +5,10 @@ import androidx.annotation.NonNull;
 import android.util.Log;
 
 import ca.ualberta.codarc.codarc_events.data.EntrantDB;
+import ca.ualberta.codarc.codarc_events.data.EntrantRepository;
 import ca.ualberta.codarc.codarc_events.data.EventDB;
+import ca.ualberta.codarc.codarc_events.data.EventRepository;
+import ca.ualberta.codarc.codarc_events.data.FirestoreMetrics;
 import ca.ualberta.codarc.codarc_events.models.Event;
 
 /**
@@ -13,6 +16,8 @@ import ca.ualberta.codarc.codarc_events.models.Event;
  */
 public class LeaveWaitlistController {
 
+    private static final String FLOW = "leave";
+
     public static class LeaveResult {
         private final boolean success;
         private final String message;
@@ -39,15 +44,15 @@ public class LeaveWaitlistController {
         }
     }
 
-    private final EventDB eventDB;
-    private final EntrantDB entrantDB;
+    private final EventRepository eventDB;
+    private final EntrantRepository entrantDB;
 
-    public LeaveWaitlistController(EventDB eventDB) {
+    public LeaveWaitlistController(EventRepository eventDB) {
         this.eventDB = eventDB;
         this.entrantDB = new EntrantDB();
     }
 
-    public LeaveWaitlistController(EventDB eventDB, EntrantDB entrantDB) {
+    public LeaveWaitlistController(EventRepository eventDB, EntrantRepository entrantDB) {
         this.eventDB = eventDB;
         this.entrantDB = entrantDB;
     }
@@ -62,42 +67,44 @@ public class LeaveWaitlistController {
             return;
         }
 
-        eventDB.isEntrantOnWaitlist(event.getId(), deviceId, new EventDB.Callback<Boolean>() {
-            @Override
-            public void onSuccess(Boolean isOnWaitlist) {
-                if (!isOnWaitlist) {
-                    callback.onResult(LeaveResult.failure("You are not registered for this event"));
-                    return;
-                }
-
-                eventDB.leaveWaitlist(event.getId(), deviceId, new EventDB.Callback<Void>() {
-                    @Override
-                    public void onSuccess(Void value) {
-                        entrantDB.removeEventFromEntrant(deviceId, event.getId(), new EntrantDB.Callback<Void>() {
-                            @Override
-                            public void onSuccess(Void v) {
-                            }
-
-                            @Override
-                            public void onError(@NonNull Exception e) {
-                                Log.w("LeaveWaitlistController", "Failed to update registration history", e);
-                            }
-                        });
-                        callback.onResult(LeaveResult.success("You have left this event"));
+        try (FirestoreMetrics.Scope scope = FirestoreMetrics.getInstance().openFlow(FLOW)) {
+            eventDB.isEntrantOnWaitlist(event.getId(), deviceId, new EventDB.Callback<Boolean>() {
+                @Override
+                public void onSuccess(Boolean isOnWaitlist) {
+                    if (!isOnWaitlist) {
+                        callback.onResult(LeaveResult.failure("You are not registered for this event"));
+                        return;
                     }
 
-                    @Override
-                    public void onError(@NonNull Exception e) {
-                        callback.onResult(LeaveResult.failure("Failed to leave. Please try again."));
-                    }
-                });
-            }
-
-            @Override
-            public void onError(@NonNull Exception e) {
-                callback.onResult(LeaveResult.failure("Failed to check status. Please try again."));
-            }
-        });
+                    eventDB.leaveWaitlist(event.getId(), deviceId, new EventDB.Callback<Void>() {
+                        @Override
+                        public void onSuccess(Void value) {
+                            entrantDB.removeEventFromEntrant(deviceId, event.getId(), new EntrantDB.Callback<Void>() {
+                                @Override
+                                public void onSuccess(Void v) {
+                                }
+
+                                @Override
+                                public void onError(@NonNull Exception e) {
+                                    Log.w("LeaveWaitlistController", "Failed to update registration history", e);
+                                }
+                            });
+                            callback.onResult(LeaveResult.success("You have left this event"));
+                        }
+
+                        @Override
+                        public void onError(@NonNull Exception e) {
+                            callback.onResult(LeaveResult.failure("Failed to leave. Please try again."));
+                        }
+                    });
+                }
+
+                @Override
+                public void onError(@NonNull Exception e) {
+                    callback.onResult(LeaveResult.failure("Failed to check status. Please try again."));
+                }
+            });
+        }
     }
 
     public interface Callback {
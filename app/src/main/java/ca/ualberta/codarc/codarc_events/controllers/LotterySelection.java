@@ -0,0 +1,66 @@
+package ca.ualberta.codarc.codarc_events.controllers;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import ca.ualberta.codarc.codarc_events.models.EntrantEntry;
+
+/**
+ * Picks winners and a replacement pool from a waitlist.
+ * Kept free of Android and Firestore types so the selection can be benchmarked on a plain JVM.
+ */
+public final class LotterySelection {
+
+    private final List<String> winners;
+    private final List<String> replacements;
+
+    private LotterySelection(List<String> winners, List<String> replacements) {
+        this.winners = winners;
+        this.replacements = replacements;
+    }
+
+    /**
+     * Shuffles the waitlist in place, then takes winners from the front and the
+     * replacement pool from the entries right after them.
+     *
+     * @param waitlist waitlist entries
+     * @param numWinners number of winners to select
+     * @param replacementPoolSize size of replacement pool
+     * @param random source of randomness for the shuffle
+     * @return the selected winner and replacement device IDs
+     */
+    public static LotterySelection select(List<EntrantEntry> waitlist, int numWinners,
+                                          int replacementPoolSize, Random random) {
+        Collections.shuffle(waitlist, random);
+
+        int total = waitlist.size();
+        int winnerCount = Math.min(numWinners, total);
+
+        int remainingAfterWinners = total - winnerCount;
+        int replacementCount = Math.min(replacementPoolSize, remainingAfterWinners);
+
+        List<String> winners = new ArrayList<>(winnerCount);
+        for (int i = 0; i < winnerCount; i++) {
+            String id = waitlist.get(i).getDeviceId();
+            if (id != null) winners.add(id);
+        }
+
+        List<String> replacements = new ArrayList<>(replacementCount);
+        for (int i = winnerCount; i < winnerCount + replacementCount; i++) {
+            String id = waitlist.get(i).getDeviceId();
+            if (id != null) replacements.add(id);
+        }
+
+        return new LotterySelection(winners, replacements);
+    }
+
+    public List<String> getWinners() {
+        return winners;
+    }
+
+    public List<String> getReplacements() {
+        return replacements;
+    }
+}
@@ -4,13 +4,17 @@ import android.util.Log;
 import androidx.annotation.NonNull;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import ca.ualberta.codarc.codarc_events.data.AsyncResult;
 import ca.ualberta.codarc.codarc_events.data.EntrantDB;
+import ca.ualberta.codarc.codarc_events.data.EntrantRepository;
 import ca.ualberta.codarc.codarc_events.data.EventDB;
+import ca.ualberta.codarc.codarc_events.data.EventRepository;
+import ca.ualberta.codarc.codarc_events.data.FirestoreMetrics;
+import ca.ualberta.codarc.codarc_events.models.EntrantEntry;
 import ca.ualberta.codarc.codarc_events.utils.FCMHelper;
 import ca.ualberta.codarc.codarc_events.utils.ValidationHelper;
 
@@ -20,6 +24,8 @@ import ca.ualberta.codarc.codarc_events.utils.ValidationHelper;
  */
 public class NotificationController {
 
+    private static final String FLOW = "broadcast";
+
     /**
      * Notification category types.
      */
@@ -76,9 +82,11 @@ public class NotificationController {
 
     private static final int MAX_MESSAGE_LENGTH = 500;
     private static final String TAG = "NotificationController";
+    /** A token read still pending after this is skipped so the rest of the push is not held up. */
+    private static final long TOKEN_FETCH_TIMEOUT_MS = 15_000;
 
-    private final EventDB eventDB;
-    private final EntrantDB entrantDB;
+    private final EventRepository eventDB;
+    private final EntrantRepository entrantDB;
     private final FCMHelper fcmHelper;
 
     /**
@@ -87,7 +95,7 @@ public class NotificationController {
      * @param eventDB EventDB instance
      * @param entrantDB EntrantDB instance
      */
-    public NotificationController(EventDB eventDB, EntrantDB entrantDB) {
+    public NotificationController(EventRepository eventDB, EntrantRepository entrantDB) {
         this.eventDB = eventDB;
         this.entrantDB = entrantDB;
         this.fcmHelper = null;
@@ -100,7 +108,7 @@ public class NotificationController {
      * @param entrantDB EntrantDB instance
      * @param fcmHelper FCMHelper instance (can be null)
      */
-    public NotificationController(EventDB eventDB, EntrantDB entrantDB, FCMHelper fcmHelper) {
+    public NotificationController(EventRepository eventDB, EntrantRepository entrantDB, FCMHelper fcmHelper) {
         this.eventDB = eventDB;
         this.entrantDB = entrantDB;
         this.fcmHelper = fcmHelper;
@@ -148,29 +156,31 @@ public class NotificationController {
             return;
         }
 
-        getEntrantList(eventId, category, new EventDB.Callback<List<Map<String, Object>>>() {
-            @Override
-            public void onSuccess(List<Map<String, Object>> entrants) {
-                if (entrants == null || entrants.isEmpty()) {
-                    callback.onError(new RuntimeException(emptyListErrorMessage));
-                    return;
-                }
+        try (FirestoreMetrics.Scope scope = FirestoreMetrics.getInstance().openFlow(FLOW)) {
+            getEntrantList(eventId, category, new EventDB.Callback<List<EntrantEntry>>() {
+                @Override
+                public void onSuccess(List<EntrantEntry> entrants) {
+                    if (entrants == null || entrants.isEmpty()) {
+                        callback.onError(new RuntimeException(emptyListErrorMessage));
+                        return;
+                    }
 
-                sendNotifications(eventId, message, category.getCategoryValue(), entrants, callback);
-            }
+                    sendNotifications(eventId, message, category.getCategoryValue(), entrants, callback);
+                }
 
-            @Override
-            public void onError(@NonNull Exception e) {
-                callback.onError(e);
-            }
-        });
+                @Override
+                public void onError(@NonNull Exception e) {
+                    callback.onError(e);
+                }
+            });
+        }
     }
 
     /**
      * Gets the appropriate entrant list based on category.
      */
     private void getEntrantList(String eventId, NotificationCategory category,
-                               EventDB.Callback<List<Map<String, Object>>> callback) {
+                               EventDB.Callback<List<EntrantEntry>> callback) {
         switch (category) {
             case WAITLIST:
                 eventDB.getWaitlist(eventId, callback);
@@ -200,7 +210,7 @@ public class NotificationController {
      * @param callback callback for operation completion
      */
     private void sendNotifications(String eventId, String message, String categoryValue,
-                                   List<Map<String, Object>> entrants,
+                                   List<EntrantEntry> entrants,
                                    NotificationCallback callback) {
         final int total = entrants.size();
 
@@ -222,49 +232,47 @@ public class NotificationController {
      * Filters entrants by notification preference and sends notifications.
      */
     private void filterByPreferenceAndSend(String eventId, String message, String categoryValue,
-                                           List<Map<String, Object>> entrants,
+                                           List<EntrantEntry> entrants,
                                            NotificationCallback callback) {
-        final int total = entrants.size();
-        final List<String> enabledDeviceIds = Collections.synchronizedList(new ArrayList<>());
-        final PreferenceCheckAggregator aggregator = new PreferenceCheckAggregator(total, enabledDeviceIds, () -> {
-            List<Map<String, Object>> filteredEntrants = new ArrayList<>();
-            for (Map<String, Object> entry : entrants) {
-                Object deviceIdObj = entry.get("deviceId");
-                if (deviceIdObj != null && enabledDeviceIds.contains(deviceIdObj.toString())) {
-                    filteredEntrants.add(entry);
-                }
-            }
-            sendNotificationsToFilteredList(eventId, message, categoryValue, filteredEntrants, callback);
-        });
-
-        for (Map<String, Object> entry : entrants) {
-            Object deviceIdObj = entry.get("deviceId");
-            if (deviceIdObj == null) {
-                aggregator.onPreferenceChecked(null, false);
+        List<AsyncResult<EntrantEntry>> checks = new ArrayList<>(entrants.size());
+        for (EntrantEntry entry : entrants) {
+            String deviceId = entry.getDeviceId();
+            if (deviceId == null) {
                 continue;
             }
 
-            String deviceId = deviceIdObj.toString();
+            AsyncResult<EntrantEntry> check = AsyncResult.pending();
             entrantDB.getNotificationPreference(deviceId, new EntrantDB.Callback<Boolean>() {
                 @Override
                 public void onSuccess(Boolean enabled) {
-                    aggregator.onPreferenceChecked(deviceId, enabled != null && enabled);
+                    check.complete(enabled != null && enabled ? entry : null);
                 }
 
                 @Override
                 public void onError(@NonNull Exception e) {
                     Log.d(TAG, "Failed to get notification preference for " + deviceId, e);
-                    aggregator.onPreferenceChecked(deviceId, true);
+                    check.complete(entry);
                 }
             });
+            checks.add(check);
         }
+
+        AsyncResult.allOf(checks).whenDone(checked -> {
+            List<EntrantEntry> filteredEntrants = new ArrayList<>();
+            for (EntrantEntry entry : checked) {
+                if (entry != null) {
+                    filteredEntrants.add(entry);
+                }
+            }
+            sendNotificationsToFilteredList(eventId, message, categoryValue, filteredEntrants, callback);
+        }, callback::onError);
     }
 
     /**
      * Sends notifications to a filtered list of entrants.
      */
     private void sendNotificationsToFilteredList(String eventId, String message, String categoryValue,
-                                                List<Map<String, Object>> entrants,
+                                                List<EntrantEntry> entrants,
                                                 NotificationCallback callback) {
         final int total = entrants.size();
 
@@ -273,31 +281,23 @@ public class NotificationController {
             return;
         }
 
-        final NotificationSender sender = new NotificationSender(total, callback);
-
-        for (Map<String, Object> entry : entrants) {
-            Object deviceIdObj = entry.get("deviceId");
-            if (deviceIdObj == null) {
-                sender.onError();
+        List<AsyncResult<Void>> sends = new ArrayList<>(total);
+        for (EntrantEntry entry : entrants) {
+            String deviceId = entry.getDeviceId();
+            if (deviceId == null) {
+                sends.add(AsyncResult.failure(new IllegalArgumentException("Entrant has no device ID")));
                 continue;
             }
 
-            String deviceId = deviceIdObj.toString();
-            entrantDB.addNotification(deviceId, eventId, message, categoryValue,
-                    new EntrantDB.Callback<Void>() {
-                        @Override
-                        public void onSuccess(Void value) {
-                            sender.onSuccess();
-                        }
-
-                        @Override
-                        public void onError(@NonNull Exception e) {
-                            Log.e(TAG, "Failed to send notification to " + deviceId, e);
-                            sender.onError();
-                        }
-                    });
+            AsyncResult<Void> send = AsyncResult.pending();
+            send.whenDone(value -> { }, e -> Log.e(TAG, "Failed to send notification to " + deviceId, e));
+            entrantDB.addNotification(deviceId, eventId, message, categoryValue, EntrantDB.Callback.completing(send));
+            sends.add(send);
         }
 
+        AsyncResult.successesOf(sends).whenDone(sent ->
+                callback.onSuccess(sent.size(), total - sent.size()), callback::onError);
+
         if (fcmHelper != null) {
             sendFCMPushNotifications(entrants, eventId, message, categoryValue);
         }
@@ -308,14 +308,13 @@ public class NotificationController {
      * Sends FCM push notifications to entrants.
      * Fire-and-forget: errors are logged but don't affect Firestore notification saving.
      */
-    private void sendFCMPushNotifications(List<Map<String, Object>> entrants,
+    private void sendFCMPushNotifications(List<EntrantEntry> entrants,
                                          String eventId, String message,
                                          String categoryValue) {
         List<String> deviceIds = new ArrayList<>();
-        for (Map<String, Object> entry : entrants) {
-            Object deviceIdObj = entry.get("deviceId");
-            if (deviceIdObj != null) {
-                deviceIds.add(deviceIdObj.toString());
+        for (EntrantEntry entry : entrants) {
+            if (entry.getDeviceId() != null) {
+                deviceIds.add(entry.getDeviceId());
             }
         }
 
@@ -328,132 +327,51 @@ public class NotificationController {
 
     private void fetchTokensAndSend(List<String> deviceIds, String eventId,
                                     String message, String categoryValue) {
-        final int total = deviceIds.size();
-        final List<String> tokens = Collections.synchronizedList(new ArrayList<>());
-        final TokenFetchAggregator aggregator = new TokenFetchAggregator(total, tokens, () -> {
-            if (!tokens.isEmpty() && fcmHelper != null) {
-                Map<String, String> data = new HashMap<>();
-                data.put("eventId", eventId);
-                data.put("category", categoryValue);
-                fcmHelper.sendNotifications(tokens, "Event Notification", message, data);
-            }
-        });
-
         boolean isWinnerCategory = "winners_broadcast".equals(categoryValue);
 
+        List<AsyncResult<String>> fetches = new ArrayList<>(deviceIds.size());
         for (String deviceId : deviceIds) {
-            if (isWinnerCategory) {
-                fetchTokenForDevice(deviceId, tokens, aggregator);
-            } else {
-                checkPreferenceAndFetchToken(deviceId, tokens, aggregator);
-            }
+            AsyncResult<String> token = isWinnerCategory
+                    ? fetchTokenForDevice(deviceId)
+                    : checkPreferenceAndFetchToken(deviceId);
+            fetches.add(token.withTimeout(TOKEN_FETCH_TIMEOUT_MS));
         }
-    }
 
-    private void fetchTokenForDevice(String deviceId, List<String> tokens, TokenFetchAggregator aggregator) {
-        entrantDB.getFCMToken(deviceId, new EntrantDB.Callback<String>() {
-            @Override
-            public void onSuccess(String token) {
+        AsyncResult.successesOf(fetches).whenDone(fetched -> {
+            List<String> tokens = new ArrayList<>();
+            for (String token : fetched) {
                 if (token != null && !token.isEmpty()) {
                     tokens.add(token);
                 }
-                aggregator.onTokenFetched();
             }
-
-            @Override
-            public void onError(@NonNull Exception e) {
-                aggregator.onTokenFetched();
+            if (!tokens.isEmpty() && fcmHelper != null) {
+                Map<String, String> data = new HashMap<>();
+                data.put("eventId", eventId);
+                data.put("category", categoryValue);
+                fcmHelper.sendNotifications(tokens, "Event Notification", message, data);
             }
-        });
+        }, e -> Log.w(TAG, "Failed to collect FCM tokens", e));
     }
 
-    private void checkPreferenceAndFetchToken(String deviceId, List<String> tokens, TokenFetchAggregator aggregator) {
+    private AsyncResult<String> fetchTokenForDevice(String deviceId) {
+        AsyncResult<String> token = AsyncResult.pending();
+        entrantDB.getFCMToken(deviceId, EntrantDB.Callback.completing(token));
+        return token;
+    }
+
+    private AsyncResult<String> checkPreferenceAndFetchToken(String deviceId) {
+        AsyncResult<Boolean> enabled = AsyncResult.pending();
         entrantDB.getNotificationPreference(deviceId, new EntrantDB.Callback<Boolean>() {
             @Override
-            public void onSuccess(Boolean enabled) {
-                if (enabled != null && enabled) {
-                    fetchTokenForDevice(deviceId, tokens, aggregator);
-                } else {
-                    aggregator.onTokenFetched();
-                }
+            public void onSuccess(Boolean value) {
+                enabled.complete(value != null && value);
             }
 
             @Override
             public void onError(@NonNull Exception e) {
-                fetchTokenForDevice(deviceId, tokens, aggregator);
+                enabled.complete(true);
             }
         });
-    }
-
-    private static class TokenFetchAggregator {
-        private final int total;
-        private final List<String> tokens;
-        private final Runnable onComplete;
-        private int completed;
-
-        TokenFetchAggregator(int total, List<String> tokens, Runnable onComplete) {
-            this.total = total;
-            this.tokens = tokens;
-            this.onComplete = onComplete;
-            this.completed = 0;
-        }
-
-        synchronized void onTokenFetched() {
-            completed++;
-            if (completed == total) {
-                onComplete.run();
-            }
-        }
-    }
-
-    private static class PreferenceCheckAggregator {
-        private final int total;
-        private final List<String> enabledDeviceIds;
-        private final Runnable onComplete;
-        private int completed = 0;
-
-        PreferenceCheckAggregator(int total, List<String> enabledDeviceIds, Runnable onComplete) {
-            this.total = total;
-            this.enabledDeviceIds = enabledDeviceIds;
-            this.onComplete = onComplete;
-        }
-
-        synchronized void onPreferenceChecked(String deviceId, boolean enabled) {
-            if (enabled && deviceId != null) {
-                enabledDeviceIds.add(deviceId);
-            }
-            completed++;
-            if (completed == total) {
-                onComplete.run();
-            }
-        }
-    }
-
-    private static class NotificationSender {
-        private final int total;
-        private final NotificationCallback callback;
-        private int completed = 0;
-        private int failed = 0;
-
-        NotificationSender(int total, NotificationCallback callback) {
-            this.total = total;
-            this.callback = callback;
-        }
-
-        synchronized void onSuccess() {
-            completed++;
-            checkCompletion();
-        }
-
-        synchronized void onError() {
-            failed++;
-            checkCompletion();
-        }
-
-        private void checkCompletion() {
-            if (completed + failed == total) {
-                callback.onSuccess(completed, failed);
-            }
-        }
+        return enabled.then(send -> send ? fetchTokenForDevice(deviceId) : AsyncResult.<String>success(null));
     }
 }
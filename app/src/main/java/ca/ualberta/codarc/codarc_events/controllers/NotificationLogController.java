@@ -8,7 +8,9 @@ import java.util.List;
 import java.util.Map;
 
 import ca.ualberta.codarc.codarc_events.data.EntrantDB;
+import ca.ualberta.codarc.codarc_events.data.EntrantRepository;
 import ca.ualberta.codarc.codarc_events.data.EventDB;
+import ca.ualberta.codarc.codarc_events.data.EventRepository;
 import ca.ualberta.codarc.codarc_events.models.Event;
 
 /**
@@ -21,10 +23,10 @@ public class NotificationLogController {
         void onError(@NonNull Exception e);
     }
 
-    private final EntrantDB entrantDB;
-    private final EventDB eventDB;
+    private final EntrantRepository entrantDB;
+    private final EventRepository eventDB;
 
-    public NotificationLogController(EntrantDB entrantDB, EventDB eventDB) {
+    public NotificationLogController(EntrantRepository entrantDB, EventRepository eventDB) {
         this.entrantDB = entrantDB;
         this.eventDB = eventDB;
     }
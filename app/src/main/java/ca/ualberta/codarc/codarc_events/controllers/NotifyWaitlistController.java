@@ -2,8 +2,8 @@ package ca.ualberta.codarc.codarc_events.controllers;
 
 import androidx.annotation.NonNull;
 
-import ca.ualberta.codarc.codarc_events.data.EntrantDB;
-import ca.ualberta.codarc.codarc_events.data.EventDB;
+import ca.ualberta.codarc.codarc_events.data.EntrantRepository;
+import ca.ualberta.codarc.codarc_events.data.EventRepository;
 import ca.ualberta.codarc.codarc_events.utils.FCMHelper;
 
 /**
@@ -54,7 +54,7 @@ public class NotifyWaitlistController {
      * @param eventDB EventDB instance
      * @param entrantDB EntrantDB instance
      */
-    public NotifyWaitlistController(EventDB eventDB, EntrantDB entrantDB) {
+    public NotifyWaitlistController(EventRepository eventDB, EntrantRepository entrantDB) {
         this.notificationController = new NotificationController(eventDB, entrantDB);
     }
 
@@ -65,7 +65,7 @@ public class NotifyWaitlistController {
      * @param entrantDB EntrantDB instance
      * @param fcmHelper FCMHelper instance (can be null)
      */
-    public NotifyWaitlistController(EventDB eventDB, EntrantDB entrantDB, FCMHelper fcmHelper) {
+    public NotifyWaitlistController(EventRepository eventDB, EntrantRepository entrantDB, FCMHelper fcmHelper) {
         this.notificationController = new NotificationController(eventDB, entrantDB, fcmHelper);
     }
 
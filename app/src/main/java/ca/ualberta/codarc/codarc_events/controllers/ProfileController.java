@@ -6,6 +6,7 @@ import android.text.TextUtils;
 import android.util.Patterns;
 
 import ca.ualberta.codarc.codarc_events.data.EntrantDB;
+import ca.ualberta.codarc.codarc_events.data.EntrantRepository;
 import ca.ualberta.codarc.codarc_events.models.Entrant;
 
 /**
@@ -45,9 +46,9 @@ public class ProfileController {
         }
     }
 
-    private final EntrantDB entrantDB;
+    private final EntrantRepository entrantDB;
 
-    public ProfileController(EntrantDB entrantDB) {
+    public ProfileController(EntrantRepository entrantDB) {
         this.entrantDB = entrantDB;
     }
 
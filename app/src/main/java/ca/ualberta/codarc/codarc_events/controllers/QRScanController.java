@@ -3,13 +3,18 @@ package ca.ualberta.codarc.codarc_events.controllers;
 import androidx.annotation.NonNull;
 
 import ca.ualberta.codarc.codarc_events.data.EventDB;
+import ca.ualberta.codarc.codarc_events.data.EventRepository;
+import ca.ualberta.codarc.codarc_events.data.FirestoreMetrics;
 import ca.ualberta.codarc.codarc_events.models.Event;
+import ca.ualberta.codarc.codarc_events.utils.QRCodeHelper;
 
 /**
  * Handles QR code scanning - parsing, validation, and event lookup logic.
  */
 public class QRScanController {
 
+    private static final String FLOW = "qr_scan";
+
     public static class QRScanResult {
         private final boolean isSuccess;
         private final String errorMessage;
@@ -48,25 +53,15 @@ public class QRScanController {
         }
     }
 
-    // The following function is from Anthropic Claude Sonnet 4.5, "How to parse QR code with event: prefix?", 2024-01-15
     /**
      * Parses an event ID from a QR code string.
      *
      * @param qrData the raw QR code string data
      * @return the extracted event ID, or null if the input is invalid
+     * @see QRCodeHelper#parseEventId(String)
      */
     public static String parseEventIdFromQR(String qrData) {
-        if (qrData == null || qrData.trim().isEmpty()) {
-            return null;
-        }
-
-        String trimmed = qrData.trim();
-        if (trimmed.startsWith("event:")) {
-            String eventId = trimmed.substring(6).trim();
-            return eventId.isEmpty() ? null : eventId;
-        }
-
-        return trimmed;
+        return QRCodeHelper.parseEventId(qrData);
     }
 
     /**
@@ -95,7 +90,7 @@ public class QRScanController {
      * @param eventDB the EventDB instance to use for fetching
      * @param callback callback to receive the scan result
      */
-    public void fetchEventFromQR(String qrData, EventDB eventDB, Callback callback) {
+    public void fetchEventFromQR(String qrData, EventRepository eventDB, Callback callback) {
         QRScanResult validation = validateQRCode(qrData);
         if (!validation.isSuccess()) {
             callback.onResult(validation);
@@ -104,25 +99,27 @@ public class QRScanController {
 
         String eventId = validation.getEventId();
 
-        eventDB.getEvent(eventId, new EventDB.Callback<Event>() {
-            @Override
-            public void onSuccess(Event event) {
-                if (event != null) {
-                    callback.onResult(QRScanResult.success(event, eventId));
-                } else {
-                    callback.onResult(QRScanResult.failure("Event not found. The QR code may be invalid or the event may have been deleted."));
+        try (FirestoreMetrics.Scope scope = FirestoreMetrics.getInstance().openFlow(FLOW)) {
+            eventDB.getEvent(eventId, new EventDB.Callback<Event>() {
+                @Override
+                public void onSuccess(Event event) {
+                    if (event != null) {
+                        callback.onResult(QRScanResult.success(event, eventId));
+                    } else {
+                        callback.onResult(QRScanResult.failure("Event not found. The QR code may be invalid or the event may have been deleted."));
+                    }
                 }
-            }
 
-            @Override
-            public void onError(@NonNull Exception e) {
-                String errorMessage = "Failed to load event. Please check your connection and try again.";
-                if (e.getMessage() != null && e.getMessage().contains("not found")) {
-                    errorMessage = "Event not found. The QR code may be invalid or the event may have been deleted.";
+                @Override
+                public void onError(@NonNull Exception e) {
+                    String errorMessage = "Failed to load event. Please check your connection and try again.";
+                    if (e.getMessage() != null && e.getMessage().contains("not found")) {
+                        errorMessage = "Event not found. The QR code may be invalid or the event may have been deleted.";
+                    }
+                    callback.onResult(QRScanResult.failure(errorMessage));
                 }
-                callback.onResult(QRScanResult.failure(errorMessage));
-            }
-        });
+            });
+        }
     }
 
     public interface Callback {
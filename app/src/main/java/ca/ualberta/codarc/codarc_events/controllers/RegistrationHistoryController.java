@@ -12,9 +12,13 @@ import java.util.Date;
 import java.util.List;
 import java.util.Locale;
 
+import ca.ualberta.codarc.codarc_events.data.AsyncResult;
 import ca.ualberta.codarc.codarc_events.data.EntrantDB;
+import ca.ualberta.codarc.codarc_events.data.EntrantRepository;
 import ca.ualberta.codarc.codarc_events.data.EventDB;
+import ca.ualberta.codarc.codarc_events.data.EventRepository;
 import ca.ualberta.codarc.codarc_events.models.Event;
+import ca.ualberta.codarc.codarc_events.models.MembershipStatus;
 import ca.ualberta.codarc.codarc_events.models.RegistrationHistoryEntry;
 import ca.ualberta.codarc.codarc_events.utils.ValidationHelper;
 
@@ -62,10 +66,10 @@ public class RegistrationHistoryController {
         void onResult(HistoryResult result);
     }
 
-    private final EntrantDB entrantDB;
-    private final EventDB eventDB;
+    private final EntrantRepository entrantDB;
+    private final EventRepository eventDB;
 
-    public RegistrationHistoryController(EntrantDB entrantDB, EventDB eventDB) {
+    public RegistrationHistoryController(EntrantRepository entrantDB, EventRepository eventDB) {
         this.entrantDB = entrantDB;
         this.eventDB = eventDB;
     }
@@ -111,113 +115,75 @@ public class RegistrationHistoryController {
      * @param callback callback that receives the final result
      */
     private void processEventIds(List<String> eventIds, String deviceId, Callback callback) {
-        List<RegistrationHistoryEntry> entries = Collections.synchronizedList(new ArrayList<>());
-        EventProcessor processor = new EventProcessor(entries, eventIds.size(), callback);
-
-        if (eventIds.isEmpty()) {
-            callback.onResult(HistoryResult.success(new ArrayList<>()));
-            return;
-        }
-
+        List<AsyncResult<RegistrationHistoryEntry>> lookups = new ArrayList<>(eventIds.size());
         for (String eventId : eventIds) {
-            processSingleEvent(eventId, deviceId, entries, processor);
+            lookups.add(processSingleEvent(eventId, deviceId));
         }
+        // Every lookup completes, with null for events that are gone or could not be read.
+        AsyncResult.allOf(lookups).whenDone(found -> {
+            List<RegistrationHistoryEntry> entries = new ArrayList<>(found.size());
+            for (RegistrationHistoryEntry entry : found) {
+                if (entry != null) {
+                    entries.add(entry);
+                }
+            }
+            sortAndReturn(entries, callback);
+        }, e -> callback.onResult(HistoryResult.failure("Failed to load history. Please try again.")));
     }
 
     /**
-     * Processes a single event and adds it to the history entries.
+     * Builds the history entry for a single event.
+     *
+     * @return the entry, or null if the event no longer exists or could not be read
      */
-    private void processSingleEvent(String eventId, String deviceId,
-                                    List<RegistrationHistoryEntry> entries,
-                                    EventProcessor processor) {
-            eventDB.eventExists(eventId, new EventDB.Callback<Boolean>() {
-                @Override
-                public void onSuccess(Boolean exists) {
-                    if (!exists) {
-                        Log.d(TAG, "Event " + eventId + " no longer exists, filtering from history");
-                        cleanupDeletedEvent(deviceId, eventId);
-                    processor.onEventProcessed();
-                        return;
-                    }
-                fetchEventAndDetermineStatus(eventId, deviceId, entries, processor);
+    private AsyncResult<RegistrationHistoryEntry> processSingleEvent(String eventId, String deviceId) {
+        AsyncResult<RegistrationHistoryEntry> lookup = AsyncResult.pending();
+        eventDB.eventExists(eventId, new EventDB.Callback<Boolean>() {
+            @Override
+            public void onSuccess(Boolean exists) {
+                if (!exists) {
+                    Log.d(TAG, "Event " + eventId + " no longer exists, filtering from history");
+                    cleanupDeletedEvent(deviceId, eventId);
+                    lookup.complete(null);
+                    return;
+                }
+                fetchEventAndDetermineStatus(eventId, deviceId, lookup);
             }
 
             @Override
             public void onError(@NonNull Exception e) {
                 Log.e(TAG, "Failed to check if event exists: " + eventId, e);
-                processor.onEventProcessed();
+                lookup.complete(null);
             }
         });
+        return lookup;
     }
 
     /**
      * Fetches event details and determines selection status.
      */
     private void fetchEventAndDetermineStatus(String eventId, String deviceId,
-                                              List<RegistrationHistoryEntry> entries,
-                                              EventProcessor processor) {
-                    eventDB.getEvent(eventId, new EventDB.Callback<Event>() {
-                        @Override
-                        public void onSuccess(Event event) {
-                            if (event == null) {
-                    processor.onEventProcessed();
-                                return;
-                            }
-                determineStatusAndAddEntry(event, deviceId, entries, processor);
+                                              AsyncResult<RegistrationHistoryEntry> lookup) {
+        eventDB.getEvent(eventId, new EventDB.Callback<Event>() {
+            @Override
+            public void onSuccess(Event event) {
+                if (event == null) {
+                    lookup.complete(null);
+                    return;
+                }
+                determineSelectionStatus(event, deviceId, status -> lookup.complete(
+                        new RegistrationHistoryEntry(event.getId(), event.getName(),
+                                event.getEventDateTime(), status)));
             }
 
             @Override
             public void onError(@NonNull Exception e) {
                 Log.e(TAG, "Failed to fetch event " + eventId, e);
-                processor.onEventProcessed();
+                lookup.complete(null);
             }
         });
     }
 
-    /**
-     * Determines selection status and adds entry to history.
-     */
-    private void determineStatusAndAddEntry(Event event, String deviceId,
-                                           List<RegistrationHistoryEntry> entries,
-                                           EventProcessor processor) {
-                            determineSelectionStatus(event, deviceId, new SelectionStatusCallback() {
-                                @Override
-                                public void onStatus(String status) {
-                                    RegistrationHistoryEntry entry = new RegistrationHistoryEntry(
-                                            event.getId(),
-                                            event.getName(),
-                                            event.getEventDateTime(),
-                                            status
-                                    );
-                                        entries.add(entry);
-                processor.onEventProcessed();
-                                }
-                            });
-                        }
-
-    /**
-     * Helper class to track event processing completion.
-     */
-    private static class EventProcessor {
-        private final List<RegistrationHistoryEntry> entries;
-        private final int total;
-        private final Callback callback;
-        private int completed = 0;
-
-        EventProcessor(List<RegistrationHistoryEntry> entries, int total, Callback callback) {
-            this.entries = entries;
-            this.total = total;
-            this.callback = callback;
-        }
-
-        synchronized void onEventProcessed() {
-            completed++;
-            if (completed == total) {
-                            sortAndReturn(entries, callback);
-                        }
-        }
-    }
-
     /**
      * Sorts entries by event date and returns the result.
      *
@@ -246,93 +212,43 @@ public class RegistrationHistoryController {
         callback.onResult(HistoryResult.success(entries));
     }
 
-    // The following function is from Anthropic Claude Sonnet 4.5, "How to check entrant status in multiple Firestore collections?", 2024-01-15
     /**
-     * Determines the selection status for an entrant in an event.
+     * Determines the selection status for an entrant in an event from their
+     * membership document.
      *
      * @param event   the event to check
      * @param deviceId the device ID of the entrant
      * @param callback callback that receives the status string
      */
     private void determineSelectionStatus(Event event, String deviceId, SelectionStatusCallback callback) {
-        checkAccepted(event, deviceId, callback);
-    }
-
-    private void checkAccepted(Event event, String deviceId, SelectionStatusCallback callback) {
-        eventDB.isEntrantAccepted(event.getId(), deviceId, new EventDB.Callback<Boolean>() {
-            @Override
-            public void onSuccess(Boolean isAccepted) {
-                if (isAccepted != null && isAccepted) {
-                    callback.onStatus("Accepted");
-                } else {
-                    checkCancelled(event, deviceId, callback);
-                }
-            }
-
-            @Override
-            public void onError(@NonNull Exception e) {
-                Log.e(TAG, "Failed to check accepted status", e);
-                checkCancelled(event, deviceId, callback);
-            }
-        });
-    }
-
-    private void checkCancelled(Event event, String deviceId, SelectionStatusCallback callback) {
-        eventDB.isEntrantCancelled(event.getId(), deviceId, new EventDB.Callback<Boolean>() {
-            @Override
-            public void onSuccess(Boolean isCancelled) {
-                if (isCancelled != null && isCancelled) {
-                    callback.onStatus("Cancelled");
-                } else {
-                    checkInvited(event, deviceId, callback);
-                }
-            }
-
-            @Override
-            public void onError(@NonNull Exception e) {
-                Log.e(TAG, "Failed to check cancelled status", e);
-                checkInvited(event, deviceId, callback);
-            }
-        });
-    }
-
-    private void checkInvited(Event event, String deviceId, SelectionStatusCallback callback) {
-        eventDB.isEntrantWinner(event.getId(), deviceId, new EventDB.Callback<Boolean>() {
+        eventDB.getMembershipStatus(event.getId(), deviceId, new EventDB.Callback<MembershipStatus>() {
             @Override
-            public void onSuccess(Boolean isWinner) {
-                if (isWinner != null && isWinner) {
-                    callback.onStatus("Invited");
-                } else {
-                    checkWaitlisted(event, deviceId, callback);
-                }
+            public void onSuccess(MembershipStatus status) {
+                callback.onStatus(describeStatus(event, status));
             }
 
             @Override
             public void onError(@NonNull Exception e) {
-                Log.e(TAG, "Failed to check winner status", e);
-                checkWaitlisted(event, deviceId, callback);
+                Log.e(TAG, "Failed to check membership status", e);
+                callback.onStatus("Waitlisted");
             }
         });
     }
 
-    private void checkWaitlisted(Event event, String deviceId, SelectionStatusCallback callback) {
-        eventDB.isEntrantOnWaitlist(event.getId(), deviceId, new EventDB.Callback<Boolean>() {
-            @Override
-            public void onSuccess(Boolean isOnWaitlist) {
-                if (isOnWaitlist != null && isOnWaitlist) {
-                    callback.onStatus("Waitlisted");
-                } else {
-                    boolean isPast = isEventPast(event);
-                    callback.onStatus(isPast ? "Not Selected" : "Waitlisted");
-                }
-            }
-
-            @Override
-            public void onError(@NonNull Exception e) {
-                Log.e(TAG, "Failed to check waitlist status", e);
-                callback.onStatus("Waitlisted");
-            }
-        });
+    private String describeStatus(Event event, MembershipStatus status) {
+        if (status == MembershipStatus.ACCEPTED) {
+            return "Accepted";
+        }
+        if (status == MembershipStatus.CANCELLED) {
+            return "Cancelled";
+        }
+        if (status == MembershipStatus.INVITED) {
+            return "Invited";
+        }
+        if (status == MembershipStatus.WAITLISTED) {
+            return "Waitlisted";
+        }
+        return isEventPast(event) ? "Not Selected" : "Waitlisted";
     }
 
     /**
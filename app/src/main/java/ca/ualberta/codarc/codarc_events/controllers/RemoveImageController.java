@@ -5,8 +5,10 @@ import androidx.annotation.NonNull;
 import android.util.Log;
 
 import ca.ualberta.codarc.codarc_events.data.EventDB;
+import ca.ualberta.codarc.codarc_events.data.EventRepository;
 import ca.ualberta.codarc.codarc_events.data.PosterStorage;
 import ca.ualberta.codarc.codarc_events.data.UserDB;
+import ca.ualberta.codarc.codarc_events.data.UserRepository;
 import ca.ualberta.codarc.codarc_events.models.Event;
 import ca.ualberta.codarc.codarc_events.models.User;
 import ca.ualberta.codarc.codarc_events.utils.ValidationHelper;
@@ -44,9 +46,9 @@ public class RemoveImageController {
         }
     }
 
-    private final EventDB eventDB;
+    private final EventRepository eventDB;
     private final PosterStorage posterStorage;
-    private final UserDB userDB;
+    private final UserRepository userDB;
 
     public RemoveImageController() {
         this.eventDB = new EventDB();
@@ -55,7 +57,7 @@ public class RemoveImageController {
     }
 
     // For tests
-    public RemoveImageController(EventDB eventDB, PosterStorage posterStorage, UserDB userDB) {
+    public RemoveImageController(EventRepository eventDB, PosterStorage posterStorage, UserRepository userDB) {
         this.eventDB = eventDB;
         this.posterStorage = posterStorage;
         this.userDB = userDB;
@@ -112,7 +114,7 @@ public class RemoveImageController {
      * Updates the event to remove the poster URL.
      */
     private void updateEventWithoutPoster(Event event, Callback callback) {
-        event.setPosterUrl(null);
+        event.setPosterUrls(null);
         eventDB.addEvent(event, new EventDB.Callback<Void>() {
             @Override
             public void onSuccess(Void value) {
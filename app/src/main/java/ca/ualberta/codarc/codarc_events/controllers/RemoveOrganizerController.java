@@ -4,13 +4,19 @@ import androidx.annotation.NonNull;
 
 import android.util.Log;
 
+import java.util.ArrayList;
 import java.util.List;
 
+import ca.ualberta.codarc.codarc_events.data.AsyncResult;
 import ca.ualberta.codarc.codarc_events.data.EntrantDB;
+import ca.ualberta.codarc.codarc_events.data.EntrantRepository;
 import ca.ualberta.codarc.codarc_events.data.EventDB;
+import ca.ualberta.codarc.codarc_events.data.EventRepository;
 import ca.ualberta.codarc.codarc_events.data.OrganizerDB;
+import ca.ualberta.codarc.codarc_events.data.OrganizerRepository;
 import ca.ualberta.codarc.codarc_events.data.PosterStorage;
 import ca.ualberta.codarc.codarc_events.data.UserDB;
+import ca.ualberta.codarc.codarc_events.data.UserRepository;
 import ca.ualberta.codarc.codarc_events.models.Event;
 import ca.ualberta.codarc.codarc_events.models.User;
 import ca.ualberta.codarc.codarc_events.utils.ValidationHelper;
@@ -50,12 +56,12 @@ public class RemoveOrganizerController {
         }
     }
 
-    private final OrganizerDB organizerDB;
-    private final EventDB eventDB;
-    private final EntrantDB entrantDB;
+    private final OrganizerRepository organizerDB;
+    private final EventRepository eventDB;
+    private final EntrantRepository entrantDB;
     private final DeleteEventController deleteEventController;
     private final PosterStorage posterStorage;
-    private final UserDB userDB;
+    private final UserRepository userDB;
 
     public RemoveOrganizerController() {
         this.organizerDB = new OrganizerDB();
@@ -66,8 +72,8 @@ public class RemoveOrganizerController {
         this.userDB = new UserDB();
     }
 
-    public RemoveOrganizerController(OrganizerDB organizerDB, EventDB eventDB, EntrantDB entrantDB,
-                                    PosterStorage posterStorage, UserDB userDB) {
+    public RemoveOrganizerController(OrganizerRepository organizerDB, EventRepository eventDB, EntrantRepository entrantDB,
+                                    PosterStorage posterStorage, UserRepository userDB) {
         this.organizerDB = organizerDB;
         this.eventDB = eventDB;
         this.entrantDB = entrantDB;
@@ -76,8 +82,8 @@ public class RemoveOrganizerController {
         this.userDB = userDB;
     }
 
-    public RemoveOrganizerController(OrganizerDB organizerDB, EventDB eventDB, EntrantDB entrantDB,
-                                    DeleteEventController deleteEventController, PosterStorage posterStorage, UserDB userDB) {
+    public RemoveOrganizerController(OrganizerRepository organizerDB, EventRepository eventDB, EntrantRepository entrantDB,
+                                    DeleteEventController deleteEventController, PosterStorage posterStorage, UserRepository userDB) {
         this.organizerDB = organizerDB;
         this.eventDB = eventDB;
         this.entrantDB = entrantDB;
@@ -134,35 +140,39 @@ public class RemoveOrganizerController {
     }
 
     private void deleteAllEvents(List<Event> events, String organizerId, String adminDeviceId, Callback callback) {
-        final int totalEvents = events.size();
-        final EventDeletionAggregator aggregator = new EventDeletionAggregator(totalEvents, organizerId, adminDeviceId, this, callback);
-
+        List<AsyncResult<Void>> cleanups = new ArrayList<>(events.size());
         for (Event event : events) {
-            deleteEventAndCleanup(event.getId(), event, adminDeviceId, aggregator);
+            cleanups.add(deleteEventAndCleanup(event.getId(), event, adminDeviceId));
         }
+        // Best effort: each step logs its own failure, and the ban goes ahead regardless.
+        AsyncResult.successesOf(cleanups).whenDone(
+                cleaned -> setBannedStatus(organizerId, callback),
+                e -> setBannedStatus(organizerId, callback));
     }
 
-    private void deleteEventAndCleanup(String eventId, Event event, String adminDeviceId, EventDeletionAggregator aggregator) {
-        deletePosterAndProceed(eventId, event, adminDeviceId, aggregator);
+    private AsyncResult<Void> deleteEventAndCleanup(String eventId, Event event, String adminDeviceId) {
+        AsyncResult<Void> cleanup = AsyncResult.pending();
+        deletePosterAndProceed(eventId, event, adminDeviceId, cleanup);
+        return cleanup;
     }
 
-    private void deletePosterAndProceed(String eventId, Event event, String adminDeviceId, EventDeletionAggregator aggregator) {
+    private void deletePosterAndProceed(String eventId, Event event, String adminDeviceId, AsyncResult<Void> cleanup) {
         posterStorage.deletePoster(eventId, new PosterStorage.Callback<Void>() {
             @Override
             public void onSuccess(Void value) {
                 Log.d(TAG, "Poster deleted successfully for event: " + eventId);
-                deleteEventFromFirestore(eventId, event, adminDeviceId, aggregator);
+                deleteEventFromFirestore(eventId, event, adminDeviceId, cleanup);
             }
 
             @Override
             public void onError(@NonNull Exception e) {
                 Log.w(TAG, "Failed to delete poster for event: " + eventId, e);
-                deleteEventFromFirestore(eventId, event, adminDeviceId, aggregator);
+                deleteEventFromFirestore(eventId, event, adminDeviceId, cleanup);
             }
         });
     }
 
-    private void deleteEventFromFirestore(String eventId, Event event, String adminDeviceId, EventDeletionAggregator aggregator) {
+    private void deleteEventFromFirestore(String eventId, Event event, String adminDeviceId, AsyncResult<Void> cleanup) {
         deleteEventController.deleteEvent(eventId, adminDeviceId, new DeleteEventController.Callback() {
             @Override
             public void onResult(DeleteEventController.DeleteEventResult result) {
@@ -171,14 +181,14 @@ public class RemoveOrganizerController {
                 } else {
                     Log.w(TAG, "Failed to delete event from Firestore: " + eventId);
                 }
-                removeEventFromOrganizerSubcollection(event.getOrganizerId(), eventId, aggregator);
+                removeEventFromOrganizerSubcollection(event.getOrganizerId(), eventId, cleanup);
             }
         });
     }
 
-    private void removeEventFromOrganizerSubcollection(String organizerId, String eventId, EventDeletionAggregator aggregator) {
+    private void removeEventFromOrganizerSubcollection(String organizerId, String eventId, AsyncResult<Void> cleanup) {
         if (organizerId == null || organizerId.isEmpty()) {
-            removeEventFromEntrantHistoryLazy(eventId, aggregator);
+            removeEventFromEntrantHistoryLazy(eventId, cleanup);
             return;
         }
 
@@ -186,30 +196,21 @@ public class RemoveOrganizerController {
             @Override
             public void onSuccess(Void value) {
                 Log.d(TAG, "Removed event from organizer's events subcollection: " + eventId);
-                removeEventFromEntrantHistoryLazy(eventId, aggregator);
+                removeEventFromEntrantHistoryLazy(eventId, cleanup);
             }
 
             @Override
             public void onError(@NonNull Exception e) {
                 Log.w(TAG, "Failed to remove event from organizer's events subcollection: " + eventId, e);
-                removeEventFromEntrantHistoryLazy(eventId, aggregator);
+                removeEventFromEntrantHistoryLazy(eventId, cleanup);
             }
         });
     }
 
-    private void removeEventFromEntrantHistoryLazy(String eventId, EventDeletionAggregator aggregator) {
-        entrantDB.removeEventFromAllEntrants(eventId, new EntrantDB.Callback<Void>() {
-            @Override
-            public void onSuccess(Void value) {
-                aggregator.onEventProcessed();
-            }
-
-            @Override
-            public void onError(@NonNull Exception e) {
-                Log.w(TAG, "Failed to remove event from entrant history (lazy): " + eventId, e);
-                aggregator.onEventProcessed();
-            }
-        });
+    private void removeEventFromEntrantHistoryLazy(String eventId, AsyncResult<Void> cleanup) {
+        cleanup.whenDone(value -> { },
+                e -> Log.w(TAG, "Failed to remove event from entrant history (lazy): " + eventId, e));
+        entrantDB.removeEventFromAllEntrants(eventId, EntrantDB.Callback.completing(cleanup));
     }
 
     void setBannedStatus(String organizerId, Callback callback) {
@@ -252,7 +253,7 @@ public class RemoveOrganizerController {
             @Override
             public void onSuccess(List<String> eventIds) {
                 if (eventIds == null || eventIds.isEmpty()) {
-                    callback.onSuccess(new java.util.ArrayList<>());
+                    callback.onSuccess(new ArrayList<>());
                     return;
                 }
 
@@ -268,29 +269,23 @@ public class RemoveOrganizerController {
     }
 
     private void fetchEventsByIds(List<String> eventIds, EventsCallback callback) {
-        final int total = eventIds.size();
-        final List<Event> events = new java.util.ArrayList<>();
-        final EventFetchAggregator aggregator = new EventFetchAggregator(total, events, callback);
-
+        List<AsyncResult<Event>> fetches = new ArrayList<>(eventIds.size());
         for (String eventId : eventIds) {
-            eventDB.getEvent(eventId, new EventDB.Callback<Event>() {
-                @Override
-                public void onSuccess(Event event) {
-                    if (event != null) {
-                        synchronized (events) {
-                            events.add(event);
-                        }
-                    }
-                    aggregator.onEventFetched();
-                }
-
-                @Override
-                public void onError(@NonNull Exception e) {
-                    Log.w(TAG, "Failed to fetch event: " + eventId, e);
-                    aggregator.onEventFetched();
-                }
-            });
+            AsyncResult<Event> fetch = AsyncResult.pending();
+            fetch.whenDone(event -> { }, e -> Log.w(TAG, "Failed to fetch event: " + eventId, e));
+            eventDB.getEvent(eventId, EventDB.Callback.completing(fetch));
+            fetches.add(fetch);
         }
+        // Events that are missing or cannot be read are left out.
+        AsyncResult.successesOf(fetches).whenDone(fetched -> {
+            List<Event> events = new ArrayList<>(fetched.size());
+            for (Event event : fetched) {
+                if (event != null) {
+                    events.add(event);
+                }
+            }
+            callback.onSuccess(events);
+        }, e -> callback.onError("Failed to retrieve organizer events"));
     }
 
     private interface ValidationCallback {
@@ -303,52 +298,6 @@ public class RemoveOrganizerController {
         void onError(String errorMessage);
     }
 
-    private static class EventDeletionAggregator {
-        private final int total;
-        private final String organizerId;
-        private final String adminDeviceId;
-        private final RemoveOrganizerController controller;
-        private final Callback callback;
-        private int completed;
-
-        EventDeletionAggregator(int total, String organizerId, String adminDeviceId, RemoveOrganizerController controller, Callback callback) {
-            this.total = total;
-            this.organizerId = organizerId;
-            this.adminDeviceId = adminDeviceId;
-            this.controller = controller;
-            this.callback = callback;
-            this.completed = 0;
-        }
-
-        synchronized void onEventProcessed() {
-            completed++;
-            if (completed == total) {
-                controller.setBannedStatus(organizerId, callback);
-            }
-        }
-    }
-
-    private static class EventFetchAggregator {
-        private final int total;
-        private final List<Event> events;
-        private final EventsCallback callback;
-        private int completed;
-
-        EventFetchAggregator(int total, List<Event> events, EventsCallback callback) {
-            this.total = total;
-            this.events = events;
-            this.callback = callback;
-            this.completed = 0;
-        }
-
-        synchronized void onEventFetched() {
-            completed++;
-            if (completed == total) {
-                callback.onSuccess(events);
-            }
-        }
-    }
-
     public interface Callback {
         void onResult(RemoveOrganizerResult result);
     }
@@ -3,9 +3,13 @@ package ca.ualberta.codarc.codarc_events.controllers;
 import android.net.Uri;
 import androidx.annotation.NonNull;
 
+import java.util.Map;
+
 import ca.ualberta.codarc.codarc_events.data.EventDB;
+import ca.ualberta.codarc.codarc_events.data.EventRepository;
 import ca.ualberta.codarc.codarc_events.data.PosterStorage;
 import ca.ualberta.codarc.codarc_events.models.Event;
+import ca.ualberta.codarc.codarc_events.models.PosterRendition;
 
 /**
  * Handles updating event posters.
@@ -51,7 +55,7 @@ public class UpdatePosterController {
         void onResult(UpdatePosterResult result);
     }
 
-    private final EventDB eventDB;
+    private final EventRepository eventDB;
     private final PosterStorage posterStorage;
 
     /**
@@ -60,7 +64,7 @@ public class UpdatePosterController {
      * @param eventDB the EventDB instance
      * @param posterStorage the PosterStorage instance
      */
-    public UpdatePosterController(EventDB eventDB, PosterStorage posterStorage) {
+    public UpdatePosterController(EventRepository eventDB, PosterStorage posterStorage) {
         this.eventDB = eventDB;
         this.posterStorage = posterStorage;
     }
@@ -83,10 +87,10 @@ public class UpdatePosterController {
             return;
         }
 
-        posterStorage.uploadPoster(event.getId(), imageUri, new PosterStorage.Callback<String>() {
+        posterStorage.uploadPoster(event.getId(), imageUri, new PosterStorage.Callback<Map<PosterRendition, String>>() {
             @Override
-            public void onSuccess(String posterUrl) {
-                event.setPosterUrl(posterUrl);
+            public void onSuccess(Map<PosterRendition, String> posterUrls) {
+                event.setPosterUrls(posterUrls);
                 eventDB.addEvent(event, new EventDB.Callback<Void>() {
                     @Override
                     public void onSuccess(Void value) {
@@ -0,0 +1,499 @@
+package ca.ualberta.codarc.codarc_events.data;
+
+import androidx.annotation.NonNull;
+
+import com.google.android.gms.tasks.Task;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Result of an asynchronous data call that settles exactly once: with a value,
+ * an error, or cancellation. Listeners added before or after it settles are
+ * called once with the value or error. After cancellation they are dropped
+ * without a call, so a finished screen is neither called back nor kept alive by
+ * work it no longer needs. Listeners run on the thread that settles the result.
+ *
+ * <p>Results compose with {@link #map}, {@link #then}, {@link #allOf},
+ * {@link #successesOf} and {@link #anyOf}, take a deadline with
+ * {@link #withTimeout}, and are cancelled together through an {@link AsyncScope}.
+ * Cancelling a composed result cancels the results it was built from.
+ *
+ * @param <T> type of the value
+ */
+public final class AsyncResult<T> {
+
+    /**
+     * Receives the outcome of a result. The repository callbacks extend this, so
+     * any of them can be passed to {@link #whenDone(Listener)}.
+     */
+    public interface Listener<T> {
+        void onSuccess(T value);
+
+        void onError(@NonNull Exception e);
+    }
+
+    private enum State { PENDING, SUCCEEDED, FAILED, CANCELLED }
+
+    private State state = State.PENDING;
+    private T value;
+    private Exception error;
+    private List<Listener<? super T>> listeners;
+    private List<Runnable> cancelHooks;
+    private List<Runnable> settledHooks;
+    private ScheduledFuture<?> deadline;
+
+    private AsyncResult() { }
+
+    /**
+     * @return a result settled later through {@link #complete}, {@link #fail} or {@link #cancel}
+     */
+    public static <T> AsyncResult<T> pending() {
+        return new AsyncResult<>();
+    }
+
+    public static <T> AsyncResult<T> success(T value) {
+        AsyncResult<T> result = new AsyncResult<>();
+        result.complete(value);
+        return result;
+    }
+
+    public static <T> AsyncResult<T> failure(@NonNull Exception e) {
+        AsyncResult<T> result = new AsyncResult<>();
+        result.fail(e);
+        return result;
+    }
+
+    /**
+     * Follows a Play Services task. Listeners run on the main thread.
+     */
+    public static <T> AsyncResult<T> fromTask(Task<T> task) {
+        AsyncResult<T> result = new AsyncResult<>();
+        task.addOnSuccessListener(result::complete)
+                .addOnFailureListener(result::fail)
+                .addOnCanceledListener(result::cancel);
+        return result;
+    }
+
+    /**
+     * Follows a Play Services task, settling on the given executor, e.g.
+     * {@link DataExecutors#background()} when the value is parsed next.
+     */
+    public static <T> AsyncResult<T> fromTask(Task<T> task, Executor executor) {
+        AsyncResult<T> result = new AsyncResult<>();
+        task.addOnSuccessListener(executor, result::complete)
+                .addOnFailureListener(executor, result::fail)
+                .addOnCanceledListener(result::cancel);
+        return result;
+    }
+
+    /**
+     * Settles with a value.
+     *
+     * @return false if the result had already settled
+     */
+    public boolean complete(T value) {
+        return settle(State.SUCCEEDED, value, null, false);
+    }
+
+    /**
+     * Settles with an error.
+     *
+     * @return false if the result had already settled
+     */
+    public boolean fail(@NonNull Exception e) {
+        return settle(State.FAILED, null, e, false);
+    }
+
+    /**
+     * Cancels the result: pending listeners are dropped and the hooks added with
+     * {@link #onCancel} run.
+     *
+     * @return false if the result had already settled
+     */
+    public boolean cancel() {
+        return settle(State.CANCELLED, null, null, true);
+    }
+
+    public synchronized boolean isDone() {
+        return state != State.PENDING;
+    }
+
+    public synchronized boolean isCancelled() {
+        return state == State.CANCELLED;
+    }
+
+    /**
+     * Calls the listener once with the value or error; immediately if the result
+     * has already settled, never if it was cancelled.
+     */
+    public AsyncResult<T> whenDone(Listener<? super T> listener) {
+        State settled;
+        T settledValue;
+        Exception settledError;
+        synchronized (this) {
+            if (state == State.PENDING) {
+                if (listeners == null) {
+                    listeners = new ArrayList<>(2);
+                }
+                listeners.add(listener);
+                return this;
+            }
+            settled = state;
+            settledValue = value;
+            settledError = error;
+        }
+        notify(listener, settled, settledValue, settledError);
+        return this;
+    }
+
+    /**
+     * Same as {@link #whenDone(Listener)} with separate handlers, e.g.
+     * {@code whenDone(cb::onSuccess, cb::onError)}.
+     */
+    public AsyncResult<T> whenDone(Consumer<? super T> onSuccess, Consumer<Exception> onError) {
+        return whenDone(new Listener<T>() {
+            @Override
+            public void onSuccess(T value) {
+                onSuccess.accept(value);
+            }
+
+            @Override
+            public void onError(@NonNull Exception e) {
+                onError.accept(e);
+            }
+        });
+    }
+
+    /**
+     * Runs a hook that stops the underlying work when the result is cancelled or
+     * times out, e.g. removing a listener or cancelling a location request. Runs
+     * immediately if the result is already cancelled.
+     */
+    public AsyncResult<T> onCancel(Runnable hook) {
+        synchronized (this) {
+            if (state == State.PENDING) {
+                if (cancelHooks == null) {
+                    cancelHooks = new ArrayList<>(2);
+                }
+                cancelHooks.add(hook);
+                return this;
+            }
+            if (state != State.CANCELLED) {
+                return this;
+            }
+        }
+        hook.run();
+        return this;
+    }
+
+    /**
+     * Fails the result with a {@link TimeoutException} if it has not settled in
+     * time, and stops the underlying work as {@link #cancel} would. A later
+     * deadline replaces an earlier one.
+     */
+    public AsyncResult<T> withTimeout(long timeoutMs) {
+        return withTimeout(timeoutMs, DataExecutors.scheduler());
+    }
+
+    public AsyncResult<T> withTimeout(long timeoutMs, ScheduledExecutorService scheduler) {
+        ScheduledFuture<?> timer = scheduler.schedule(() -> settle(State.FAILED, null,
+                new TimeoutException("Timed out after " + timeoutMs + " ms"), true),
+                timeoutMs, TimeUnit.MILLISECONDS);
+        ScheduledFuture<?> replaced = null;
+        boolean settled;
+        synchronized (this) {
+            settled = state != State.PENDING;
+            if (!settled) {
+                replaced = deadline;
+                deadline = timer;
+            }
+        }
+        if (settled) {
+            timer.cancel(false);
+        }
+        if (replaced != null) {
+            replaced.cancel(false);
+        }
+        return this;
+    }
+
+    /**
+     * @return a result holding the function applied to this value; an exception
+     *         thrown by the function fails it
+     */
+    public <R> AsyncResult<R> map(Function<? super T, ? extends R> function) {
+        AsyncResult<R> next = new AsyncResult<>();
+        link(next);
+        whenDone(new Listener<T>() {
+            @Override
+            public void onSuccess(T value) {
+                R mapped;
+                try {
+                    mapped = function.apply(value);
+                } catch (RuntimeException e) {
+                    next.fail(e);
+                    return;
+                }
+                next.complete(mapped);
+            }
+
+            @Override
+            public void onError(@NonNull Exception e) {
+                next.fail(e);
+            }
+        });
+        return next;
+    }
+
+    /**
+     * @return a result that follows the one the function starts with this value
+     */
+    public <R> AsyncResult<R> then(Function<? super T, AsyncResult<R>> function) {
+        AsyncResult<R> next = new AsyncResult<>();
+        link(next);
+        whenDone(new Listener<T>() {
+            @Override
+            public void onSuccess(T value) {
+                AsyncResult<R> inner;
+                try {
+                    inner = function.apply(value);
+                } catch (RuntimeException e) {
+                    next.fail(e);
+                    return;
+                }
+                next.onCancel(inner::cancel);
+                inner.onCancel(next::cancel);
+                inner.whenDone(next::complete, next::fail);
+            }
+
+            @Override
+            public void onError(@NonNull Exception e) {
+                next.fail(e);
+            }
+        });
+        return next;
+    }
+
+    /**
+     * Succeeds with every value, in input order, once all succeed. Fails with the
+     * first error and cancels the rest.
+     */
+    public static <T> AsyncResult<List<T>> allOf(List<AsyncResult<T>> results) {
+        AsyncResult<List<T>> combined = new AsyncResult<>();
+        if (results.isEmpty()) {
+            combined.complete(new ArrayList<>());
+            return combined;
+        }
+        Object[] values = new Object[results.size()];
+        int[] remaining = {results.size()};
+        combined.onCancel(() -> cancelAll(results));
+        for (int i = 0; i < results.size(); i++) {
+            int index = i;
+            AsyncResult<T> result = results.get(i);
+            result.whenDone(new Listener<T>() {
+                @Override
+                public void onSuccess(T value) {
+                    boolean last;
+                    synchronized (values) {
+                        values[index] = value;
+                        last = --remaining[0] == 0;
+                    }
+                    if (last) {
+                        combined.complete(valuesAsList(values));
+                    }
+                }
+
+                @Override
+                public void onError(@NonNull Exception e) {
+                    if (combined.fail(e)) {
+                        cancelAll(results);
+                    }
+                }
+            });
+            result.onCancel(combined::cancel);
+        }
+        return combined;
+    }
+
+    /**
+     * Waits for every result and succeeds with the values of those that
+     * succeeded, in input order. Failed and cancelled results are left out, so
+     * this never fails; use it for best-effort fan-out.
+     */
+    public static <T> AsyncResult<List<T>> successesOf(List<AsyncResult<T>> results) {
+        AsyncResult<List<T>> combined = new AsyncResult<>();
+        if (results.isEmpty()) {
+            combined.complete(new ArrayList<>());
+            return combined;
+        }
+        Object[] values = new Object[results.size()];
+        boolean[] succeeded = new boolean[results.size()];
+        int[] remaining = {results.size()};
+        combined.onCancel(() -> cancelAll(results));
+        for (int i = 0; i < results.size(); i++) {
+            int index = i;
+            AsyncResult<T> result = results.get(i);
+            result.whenDone(value -> {
+                synchronized (values) {
+                    values[index] = value;
+                    succeeded[index] = true;
+                }
+            }, e -> { });
+            // Settled hooks run after the listeners, so the value is already stored.
+            result.onSettled(() -> {
+                List<T> collected = null;
+                synchronized (values) {
+                    if (--remaining[0] == 0) {
+                        collected = new ArrayList<>(values.length);
+                        for (int j = 0; j < values.length; j++) {
+                            if (succeeded[j]) {
+                                collected.add(cast(values[j]));
+                            }
+                        }
+                    }
+                }
+                if (collected != null) {
+                    combined.complete(collected);
+                }
+            });
+        }
+        return combined;
+    }
+
+    /**
+     * Succeeds with the first value and cancels the rest. Fails with the last
+     * error once every result has failed or been cancelled.
+     */
+    public static <T> AsyncResult<T> anyOf(List<AsyncResult<T>> results) {
+        AsyncResult<T> combined = new AsyncResult<>();
+        if (results.isEmpty()) {
+            combined.fail(new IllegalArgumentException("No results to wait for"));
+            return combined;
+        }
+        int[] remaining = {results.size()};
+        Exception[] lastError = new Exception[1];
+        combined.onCancel(() -> cancelAll(results));
+        for (AsyncResult<T> result : results) {
+            result.whenDone(value -> {
+                if (combined.complete(value)) {
+                    cancelAll(results);
+                }
+            }, e -> {
+                synchronized (lastError) {
+                    lastError[0] = e;
+                }
+            });
+            result.onSettled(() -> {
+                Exception e;
+                synchronized (lastError) {
+                    if (--remaining[0] > 0) {
+                        return;
+                    }
+                    e = lastError[0];
+                }
+                combined.fail(e != null ? e : new CancellationException("All results cancelled"));
+            });
+        }
+        return combined;
+    }
+
+    /**
+     * Runs a hook once the result settles in any way, cancellation included.
+     */
+    void onSettled(Runnable hook) {
+        synchronized (this) {
+            if (state == State.PENDING) {
+                if (settledHooks == null) {
+                    settledHooks = new ArrayList<>(2);
+                }
+                settledHooks.add(hook);
+                return;
+            }
+        }
+        hook.run();
+    }
+
+    /** Cancelling either side cancels the other. */
+    private void link(AsyncResult<?> next) {
+        next.onCancel(this::cancel);
+        onCancel(next::cancel);
+    }
+
+    private boolean settle(State outcome, T settledValue, Exception settledError, boolean stopWork) {
+        List<Listener<? super T>> toNotify;
+        List<Runnable> toStop;
+        List<Runnable> toRun;
+        ScheduledFuture<?> timer;
+        synchronized (this) {
+            if (state != State.PENDING) {
+                return false;
+            }
+            state = outcome;
+            value = settledValue;
+            error = settledError;
+            toNotify = outcome != State.CANCELLED ? listeners : null;
+            toStop = stopWork ? cancelHooks : null;
+            toRun = settledHooks;
+            timer = deadline;
+            listeners = null;
+            cancelHooks = null;
+            settledHooks = null;
+            deadline = null;
+        }
+        if (timer != null) {
+            timer.cancel(false);
+        }
+        if (toNotify != null) {
+            for (Listener<? super T> listener : toNotify) {
+                notify(listener, outcome, settledValue, settledError);
+            }
+        }
+        runAll(toStop);
+        runAll(toRun);
+        return true;
+    }
+
+    private static <T> void notify(Listener<? super T> listener, State outcome, T value, Exception error) {
+        if (outcome == State.SUCCEEDED) {
+            listener.onSuccess(value);
+        } else if (outcome == State.FAILED) {
+            listener.onError(error);
+        }
+    }
+
+    private static void runAll(List<Runnable> hooks) {
+        if (hooks != null) {
+            for (Runnable hook : hooks) {
+                hook.run();
+            }
+        }
+    }
+
+    private static <T> void cancelAll(List<AsyncResult<T>> results) {
+        for (AsyncResult<T> result : results) {
+            result.cancel();
+        }
+    }
+
+    private static <T> List<T> valuesAsList(Object[] values) {
+        List<T> list = new ArrayList<>(values.length);
+        for (Object value : values) {
+            list.add(cast(value));
+        }
+        return list;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T cast(Object value) {
+        return (T) value;
+    }
+}
@@ -0,0 +1,96 @@
+package ca.ualberta.codarc.codarc_events.data;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.DefaultLifecycleObserver;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleOwner;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Group of {@link AsyncResult}s cancelled together, usually when a screen is
+ * destroyed. Results tracked after the scope is cancelled are cancelled at once,
+ * so a late reply never reaches a finished activity.
+ */
+public final class AsyncScope {
+
+    private final Set<AsyncResult<?>> active = new HashSet<>();
+    private boolean cancelled;
+
+    /**
+     * Creates a scope cancelled when the owner is destroyed.
+     *
+     * @param owner an activity or fragment
+     * @return the scope; already cancelled if the owner is already destroyed
+     */
+    public static AsyncScope bindTo(LifecycleOwner owner) {
+        AsyncScope scope = new AsyncScope();
+        Lifecycle lifecycle = owner.getLifecycle();
+        if (lifecycle.getCurrentState() == Lifecycle.State.DESTROYED) {
+            scope.cancel();
+            return scope;
+        }
+        lifecycle.addObserver(new DefaultLifecycleObserver() {
+            @Override
+            public void onDestroy(@NonNull LifecycleOwner source) {
+                source.getLifecycle().removeObserver(this);
+                scope.cancel();
+            }
+        });
+        return scope;
+    }
+
+    /**
+     * Tracks a result until it settles.
+     *
+     * @return the same result, for chaining
+     */
+    public <T> AsyncResult<T> track(AsyncResult<T> result) {
+        boolean cancelNow;
+        synchronized (this) {
+            cancelNow = cancelled;
+            if (!cancelNow) {
+                active.add(result);
+            }
+        }
+        if (cancelNow) {
+            result.cancel();
+            return result;
+        }
+        result.onSettled(() -> {
+            synchronized (this) {
+                active.remove(result);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Cancels every tracked result and any tracked later.
+     */
+    public void cancel() {
+        List<AsyncResult<?>> toCancel;
+        synchronized (this) {
+            cancelled = true;
+            toCancel = new ArrayList<>(active);
+            active.clear();
+        }
+        for (AsyncResult<?> result : toCancel) {
+            result.cancel();
+        }
+    }
+
+    public synchronized boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * @return results tracked and not yet settled
+     */
+    public synchronized int activeCount() {
+        return active.size();
+    }
+}
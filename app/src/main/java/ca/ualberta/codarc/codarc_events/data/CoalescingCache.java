@@ -0,0 +1,252 @@
+package ca.ualberta.codarc.codarc_events.data;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Keyed cache that merges concurrent loads of the same key into a single request
+ * and serves the loaded value until it is older than the freshness window.
+ * Invalidating a key while a load is in flight detaches that load, so its result
+ * is handed to the callers already waiting on it but never stored.
+ *
+ * @param <V> type of the cached value
+ */
+public class CoalescingCache<V> {
+
+    public interface Callback<V> {
+        void onSuccess(V value);
+        void onError(@NonNull Exception e);
+    }
+
+    /**
+     * Performs the actual lookup for a key on a cache miss.
+     */
+    public interface Loader<V> {
+        void load(String key, Callback<V> cb);
+    }
+
+    /**
+     * Point-in-time hit/miss counters for a cache.
+     */
+    public static class Stats {
+        private final long hits;
+        private final long misses;
+        private final long coalesced;
+
+        Stats(long hits, long misses, long coalesced) {
+            this.hits = hits;
+            this.misses = misses;
+            this.coalesced = coalesced;
+        }
+
+        public long getHits() {
+            return hits;
+        }
+
+        public long getMisses() {
+            return misses;
+        }
+
+        /**
+         * @return number of requests that joined an already running load
+         */
+        public long getCoalesced() {
+            return coalesced;
+        }
+
+        /**
+         * @return fraction of requests that did not start a load, or 0 if there were none
+         */
+        public double getHitRate() {
+            long total = hits + misses + coalesced;
+            return total == 0 ? 0 : (double) (hits + coalesced) / total;
+        }
+
+        @Override
+        public String toString() {
+            return "hits=" + hits + ", misses=" + misses + ", coalesced=" + coalesced;
+        }
+    }
+
+    private static class Entry<V> {
+        final V value;
+        final long loadedAt;
+
+        Entry(V value, long loadedAt) {
+            this.value = value;
+            this.loadedAt = loadedAt;
+        }
+    }
+
+    private final long ttlMillis;
+    private final LongSupplier clock;
+    private final Map<String, Entry<V>> entries = new HashMap<>();
+    private final Map<String, List<Callback<V>>> inFlight = new HashMap<>();
+    private long hits;
+    private long misses;
+    private long coalesced;
+
+    /**
+     * @param ttlMillis how long a loaded value is served before it is reloaded
+     */
+    public CoalescingCache(long ttlMillis) {
+        this(ttlMillis, System::currentTimeMillis);
+    }
+
+    /**
+     * @param ttlMillis how long a loaded value is served before it is reloaded
+     * @param clock time source in milliseconds
+     */
+    public CoalescingCache(long ttlMillis, LongSupplier clock) {
+        this.ttlMillis = ttlMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * Returns the cached value for the key, joins an in-flight load for it,
+     * or starts a new load with the given loader.
+     *
+     * @param key the cache key
+     * @param loader loader used on a miss
+     * @param cb callback that receives the value
+     */
+    public void get(String key, Loader<V> loader, Callback<V> cb) {
+        V cached = null;
+        boolean hit = false;
+        final List<Callback<V>> waiters;
+
+        synchronized (this) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null && isFresh(entry)) {
+                hits++;
+                hit = true;
+                cached = entry.value;
+                waiters = null;
+            } else {
+                List<Callback<V>> pending = inFlight.get(key);
+                if (pending != null) {
+                    coalesced++;
+                    pending.add(cb);
+                    return;
+                }
+                misses++;
+                waiters = new ArrayList<>();
+                waiters.add(cb);
+                inFlight.put(key, waiters);
+            }
+        }
+
+        if (hit) {
+            cb.onSuccess(cached);
+            return;
+        }
+
+        loader.load(key, new Callback<V>() {
+            @Override
+            public void onSuccess(V value) {
+                List<Callback<V>> toNotify;
+                synchronized (CoalescingCache.this) {
+                    if (inFlight.get(key) == waiters) {
+                        inFlight.remove(key);
+                        entries.put(key, new Entry<>(value, clock.getAsLong()));
+                    }
+                    toNotify = new ArrayList<>(waiters);
+                    waiters.clear();
+                }
+                for (Callback<V> waiter : toNotify) {
+                    waiter.onSuccess(value);
+                }
+            }
+
+            @Override
+            public void onError(@NonNull Exception e) {
+                List<Callback<V>> toNotify;
+                synchronized (CoalescingCache.this) {
+                    if (inFlight.get(key) == waiters) {
+                        inFlight.remove(key);
+                    }
+                    toNotify = new ArrayList<>(waiters);
+                    waiters.clear();
+                }
+                for (Callback<V> waiter : toNotify) {
+                    waiter.onError(e);
+                }
+            }
+        });
+    }
+
+    /**
+     * Returns the cached value if it is still fresh, without loading.
+     *
+     * @param key the cache key
+     * @return the fresh cached value, or null if there is none
+     */
+    public synchronized V peek(String key) {
+        Entry<V> entry = entries.get(key);
+        if (entry != null && isFresh(entry)) {
+            return entry.value;
+        }
+        return null;
+    }
+
+    /**
+     * Stores a value that was obtained without a load (for example from a listener).
+     * Any in-flight load for the key is detached so it cannot overwrite this value.
+     *
+     * @param key the cache key
+     * @param value the value to store
+     */
+    public synchronized void put(String key, V value) {
+        inFlight.remove(key);
+        entries.put(key, new Entry<>(value, clock.getAsLong()));
+    }
+
+    /**
+     * Drops the cached value for a key and detaches any in-flight load.
+     *
+     * @param key the cache key
+     */
+    public synchronized void invalidate(String key) {
+        entries.remove(key);
+        inFlight.remove(key);
+    }
+
+    /**
+     * Drops every cached value and detaches all in-flight loads.
+     */
+    public synchronized void invalidateAll() {
+        entries.clear();
+        inFlight.clear();
+    }
+
+    /**
+     * @return snapshot of the hit/miss counters
+     */
+    public synchronized Stats getStats() {
+        return new Stats(hits, misses, coalesced);
+    }
+
+    public synchronized long getHitCount() {
+        return hits;
+    }
+
+    public synchronized long getMissCount() {
+        return misses;
+    }
+
+    /**
+     * @return number of requests that joined an already running load
+     */
+    public synchronized long getCoalescedCount() {
+        return coalesced;
+    }
+
+    private boolean isFresh(Entry<V> entry) {
+        return clock.getAsLong() - entry.loadedAt < ttlMillis;
+    }
+}
@@ -0,0 +1,131 @@
+package ca.ualberta.codarc.codarc_events.data;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Threads the data layer uses around Firestore. Listeners that parse snapshots,
+ * build result maps, sort or aggregate run on {@link #background()}; only the
+ * finished result is posted to {@link #main()}, so large catalogs and lists do
+ * not stall the UI thread. When metrics are on, the time spent in each
+ * background step is recorded as "DataExecutors.background".
+ */
+public final class DataExecutors {
+
+    private static final int THREADS = 2;
+    private static final long KEEP_ALIVE_SECONDS = 30;
+
+    private static Executor background;
+    private static Executor main;
+    private static ScheduledExecutorService scheduler;
+
+    private DataExecutors() { }
+
+    /**
+     * @return the pool for parsing and mapping Firestore results
+     */
+    public static synchronized Executor background() {
+        if (background == null) {
+            background = timed(newBackgroundPool(), FirestoreMetrics.getInstance());
+        }
+        return background;
+    }
+
+    /**
+     * @return an executor that posts to the main thread
+     */
+    public static synchronized Executor main() {
+        if (main == null) {
+            Handler handler = new Handler(Looper.getMainLooper());
+            main = handler::post;
+        }
+        return main;
+    }
+
+    /**
+     * @return a single daemon thread that fires {@link AsyncResult#withTimeout} deadlines
+     */
+    public static synchronized ScheduledExecutorService scheduler() {
+        if (scheduler == null) {
+            ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1,
+                    new NamedThreadFactory("data-timeout-"));
+            // Deadlines are usually cancelled long before they fire; do not keep them queued.
+            timer.setRemoveOnCancelPolicy(true);
+            scheduler = timer;
+        }
+        return scheduler;
+    }
+
+    /**
+     * Replaces both executors, for tests and benchmarks.
+     *
+     * @param backgroundExecutor executor for parsing, or null to restore the default pool
+     * @param mainExecutor executor for results, or null to restore the main thread
+     */
+    public static synchronized void set(Executor backgroundExecutor, Executor mainExecutor) {
+        background = backgroundExecutor;
+        main = mainExecutor;
+    }
+
+    /**
+     * Two threads and an unbounded queue. A burst of snapshots waits its turn instead
+     * of running on the submitting thread, which for listener callbacks is one of
+     * Firestore's own. Tasks are never dropped, since each one completes a callback.
+     */
+    static ThreadPoolExecutor newBackgroundPool() {
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(THREADS, THREADS, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), new NamedThreadFactory("data-parse-"));
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    /**
+     * Wraps an executor so each task runs, and has its run time recorded, under
+     * the flow that was current when it was submitted.
+     */
+    static Executor timed(Executor delegate, FirestoreMetrics metrics) {
+        return task -> {
+            if (!metrics.isEnabled()) {
+                delegate.execute(task);
+                return;
+            }
+            String flow = metrics.getFlow();
+            delegate.execute(() -> {
+                long start = System.nanoTime();
+                boolean success = false;
+                try (FirestoreMetrics.Scope scope = metrics.openFlow(flow)) {
+                    task.run();
+                    success = true;
+                } finally {
+                    metrics.record(flow, "DataExecutors.background", System.nanoTime() - start,
+                            success, 0, 0, 0, 0);
+                }
+            });
+        };
+    }
+
+    private static final class NamedThreadFactory implements ThreadFactory {
+        private final String prefix;
+        private final AtomicInteger count = new AtomicInteger();
+
+        NamedThreadFactory(String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, prefix + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
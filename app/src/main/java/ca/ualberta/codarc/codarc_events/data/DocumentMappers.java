@@ -0,0 +1,165 @@
+package ca.ualberta.codarc.codarc_events.data;
+
+import com.google.firebase.Timestamp;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.QueryDocumentSnapshot;
+import com.google.firebase.firestore.QuerySnapshot;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+
+import ca.ualberta.codarc.codarc_events.models.EntrantEntry;
+import ca.ualberta.codarc.codarc_events.models.Event;
+import ca.ualberta.codarc.codarc_events.models.NotificationEntry;
+
+/**
+ * Hand-written mappers from stored documents to models. Each field is read once
+ * by name into a typed model, with no per-row map and no reflection through
+ * {@code toObject}. The Firestore repositories and their in-memory mirrors share
+ * these, so both produce the same models from the same fields.
+ */
+public final class DocumentMappers {
+
+    /** One formatter per thread; SimpleDateFormat is not thread-safe and parsing runs on a pool. */
+    private static final ThreadLocal<SimpleDateFormat> ISO_FORMAT = new ThreadLocal<SimpleDateFormat>() {
+        @Override
+        protected SimpleDateFormat initialValue() {
+            return new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss", Locale.US);
+        }
+    };
+
+    private DocumentMappers() { }
+
+    /**
+     * Maps every document of an event list subcollection.
+     *
+     * @param snapshot the query result, may be null
+     * @param timeField the field holding when the entrant was added, e.g. "request_time"
+     * @return one entry per document, in snapshot order
+     */
+    public static List<EntrantEntry> entrantEntries(QuerySnapshot snapshot, String timeField) {
+        if (snapshot == null) {
+            return new ArrayList<>();
+        }
+        List<EntrantEntry> entries = new ArrayList<>(snapshot.size());
+        for (QueryDocumentSnapshot doc : snapshot) {
+            entries.add(new EntrantEntry(doc.getId(), millis(doc.get(timeField))));
+        }
+        return entries;
+    }
+
+    /**
+     * Maps a notification document.
+     */
+    public static NotificationEntry notification(DocumentSnapshot doc) {
+        return notification(doc.getId(), doc::get);
+    }
+
+    /**
+     * Maps a notification from its ID and a field lookup.
+     *
+     * @param id the notification document ID
+     * @param field returns the stored value of a field, or null
+     */
+    public static NotificationEntry notification(String id, Function<String, Object> field) {
+        NotificationEntry entry = new NotificationEntry();
+        entry.setId(id);
+        entry.setEventId(string(field.apply("eventId")));
+        String message = string(field.apply("message"));
+        entry.setMessage(message != null ? message : "");
+        entry.setCategory(string(field.apply("category")));
+        entry.setCreatedAt(millis(field.apply("createdAt")));
+        entry.setRead(Boolean.TRUE.equals(field.apply("read")));
+        entry.setResponse(string(field.apply("response")));
+        entry.setRespondedAt(millis(field.apply("respondedAt")));
+        return entry;
+    }
+
+    /**
+     * Maps an event document.
+     *
+     * @return the event, or null if a field has an unexpected type
+     */
+    public static Event event(DocumentSnapshot doc) {
+        try {
+            return event(doc.getId(), doc::get);
+        } catch (RuntimeException e) {
+            android.util.Log.e("DocumentMappers", "Failed to parse event from document", e);
+            return null;
+        }
+    }
+
+    /**
+     * Maps an event from its ID and a field lookup. Dates stored as timestamps
+     * come back in the ISO form the rest of the app stores them in.
+     *
+     * @param id the event document ID
+     * @param field returns the stored value of a field, or null
+     */
+    public static Event event(String id, Function<String, Object> field) {
+        Event event = new Event();
+        event.setId(id);
+        event.setName((String) field.apply("name"));
+        event.setDescription((String) field.apply("description"));
+        event.setLocation((String) field.apply("location"));
+        event.setOpen(Boolean.TRUE.equals(field.apply("open")));
+        event.setOrganizerId((String) field.apply("organizerId"));
+        event.setQrCode((String) field.apply("qrCode"));
+        Object maxCapacity = field.apply("maxCapacity");
+        event.setMaxCapacity(maxCapacity instanceof Number ? ((Number) maxCapacity).intValue() : null);
+        event.setEventDateTime(dateString(field.apply("eventDateTime")));
+        event.setRegistrationOpen(dateString(field.apply("registrationOpen")));
+        event.setRegistrationClose(dateString(field.apply("registrationClose")));
+        event.setTags(stringList(field.apply("tags")));
+        event.setPosterUrl((String) field.apply("posterUrl"));
+        event.setPosterThumbUrl((String) field.apply("posterThumbUrl"));
+        event.setPosterCardUrl((String) field.apply("posterCardUrl"));
+        return event;
+    }
+
+    /**
+     * Reads a stored time as epoch millis.
+     *
+     * @param value a Timestamp, Date or number of millis
+     * @return the millis, or 0 for null and other types
+     */
+    public static long millis(Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).longValue();
+        }
+        if (value instanceof Timestamp) {
+            Timestamp timestamp = (Timestamp) value;
+            return timestamp.getSeconds() * 1000L + timestamp.getNanoseconds() / 1_000_000;
+        }
+        if (value instanceof Date) {
+            return ((Date) value).getTime();
+        }
+        return 0L;
+    }
+
+    private static String dateString(Object value) {
+        if (value == null || value instanceof String) {
+            return (String) value;
+        }
+        if (value instanceof Timestamp) {
+            return ISO_FORMAT.get().format(((Timestamp) value).toDate());
+        }
+        if (value instanceof Date) {
+            return ISO_FORMAT.get().format((Date) value);
+        }
+        return value.toString();
+    }
+
+    private static String string(Object value) {
+        return value != null ? value.toString() : null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<String> stringList(Object value) {
+        return value instanceof List ? new ArrayList<>((List<String>) value) : null;
+    }
+}
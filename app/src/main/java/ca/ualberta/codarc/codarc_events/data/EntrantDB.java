@@ -6,36 +6,93 @@ import com.google.android.gms.tasks.Task;
 import com.google.firebase.firestore.DocumentReference;
 import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.ListenerRegistration;
 import com.google.firebase.firestore.Query;
 import com.google.firebase.firestore.QueryDocumentSnapshot;
+import com.google.firebase.firestore.QuerySnapshot;
 import com.google.firebase.firestore.SetOptions;
 import com.google.firebase.firestore.WriteBatch;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
 
 import ca.ualberta.codarc.codarc_events.models.Entrant;
+import ca.ualberta.codarc.codarc_events.models.MembershipStatus;
+import ca.ualberta.codarc.codarc_events.models.NotificationEntry;
 import ca.ualberta.codarc.codarc_events.utils.ValidationHelper;
 
 /**
  * Handles Entrants collection - profile info and notifications.
  */
-public class EntrantDB {
+public class EntrantDB implements EntrantRepository {
 
     private static final int BATCH_SIZE = 500;
 
-    public interface Callback<T> {
+    public interface Callback<T> extends AsyncResult.Listener<T> {
         void onSuccess(T value);
         void onError(@NonNull Exception e);
+
+        /**
+         * @return a callback that settles the result, for composing calls with {@link AsyncResult}
+         */
+        static <T> Callback<T> completing(AsyncResult<T> result) {
+            return new Callback<T>() {
+                @Override
+                public void onSuccess(T value) {
+                    result.complete(value);
+                }
+
+                @Override
+                public void onError(@NonNull Exception e) {
+                    result.fail(e);
+                }
+            };
+        }
     }
 
     private final FirebaseFirestore db;
+    private final FirestoreMetrics metrics = FirestoreMetrics.getInstance();
+    private final Executor background = DataExecutors.background();
 
     public EntrantDB() {
-        this.db = FirebaseFirestore.getInstance();
+        this(FirebaseFirestore.getInstance());
+    }
+
+    /**
+     * @param db the Firestore instance to use, e.g. a stand-in in JVM tests
+     */
+    public EntrantDB(FirebaseFirestore db) {
+        this.db = db;
+    }
+
+    /**
+     * Wraps a callback so both outcomes reach it on the main thread, for reads
+     * that map their results on {@link DataExecutors#background()}.
+     */
+    private static <T> Callback<T> onMain(Callback<T> cb) {
+        Executor main = FirestoreMetrics.getInstance().inFlow(DataExecutors.main());
+        return new Callback<T>() {
+            @Override
+            public void onSuccess(T value) {
+                main.execute(() -> cb.onSuccess(value));
+            }
+
+            @Override
+            public void onError(@NonNull Exception e) {
+                main.execute(() -> cb.onError(e));
+            }
+        };
+    }
+
+    /**
+     * Executor for task listeners, so steps issued from them, and the callers'
+     * callbacks, stay in the flow of the call that attached them.
+     */
+    private Executor inFlow() {
+        return metrics.inFlow(DataExecutors.main());
     }
 
     /**
@@ -66,12 +123,12 @@ public class EntrantDB {
             return;
         }
         
-        db.collection("entrants").document(deviceId)
-            .get()
-            .addOnSuccessListener(snapshot -> {
+        metrics.read("EntrantDB.entrantExists", db.collection("entrants").document(deviceId)
+            .get())
+            .addOnSuccessListener(inFlow(), snapshot -> {
                 cb.onSuccess(snapshot != null && snapshot.exists());
             })
-            .addOnFailureListener(cb::onError);
+            .addOnFailureListener(inFlow(), cb::onError);
     }
 
     /**
@@ -89,10 +146,10 @@ public class EntrantDB {
             return;
         }
         
-        db.collection("entrants").document(entrant.getDeviceId())
-            .set(entrant)
-            .addOnSuccessListener(unused -> cb.onSuccess(null))
-            .addOnFailureListener(cb::onError);
+        metrics.write("EntrantDB.createEntrant", 1, db.collection("entrants").document(entrant.getDeviceId())
+            .set(entrant))
+            .addOnSuccessListener(inFlow(), unused -> cb.onSuccess(null))
+            .addOnFailureListener(inFlow(), cb::onError);
     }
 
     public void getProfile(String deviceId, Callback<Entrant> cb) {
@@ -102,16 +159,16 @@ public class EntrantDB {
             cb.onError(e);
             return;
         }
-        db.collection("entrants").document(deviceId)
-                .get()
-                .addOnSuccessListener(snapshot -> {
+        metrics.read("EntrantDB.getProfile", db.collection("entrants").document(deviceId)
+                .get())
+                .addOnSuccessListener(inFlow(), snapshot -> {
                     if (snapshot != null && snapshot.exists()) {
                         cb.onSuccess(snapshot.toObject(Entrant.class));
                     } else {
                         cb.onSuccess(null);
                     }
                 })
-                .addOnFailureListener(cb::onError);
+                .addOnFailureListener(inFlow(), cb::onError);
     }
 
     /**
@@ -130,10 +187,10 @@ public class EntrantDB {
             return;
         }
         entrant.setDeviceId(deviceId);
-        db.collection("entrants").document(deviceId)
-                .set(entrant, SetOptions.merge())
-                .addOnSuccessListener(unused -> cb.onSuccess(null))
-                .addOnFailureListener(cb::onError);
+        metrics.write("EntrantDB.upsertProfile", 1, db.collection("entrants").document(deviceId)
+                .set(entrant, SetOptions.merge()))
+                .addOnSuccessListener(inFlow(), unused -> cb.onSuccess(null))
+                .addOnFailureListener(inFlow(), cb::onError);
     }
 
     /**
@@ -167,13 +224,13 @@ public class EntrantDB {
         data.put("createdAt", System.currentTimeMillis());
         data.put("read", false);
 
-        entrantRef.collection("notifications")
-                .add(data)
-                .addOnSuccessListener(unused -> cb.onSuccess(null))
-                .addOnFailureListener(cb::onError);
+        metrics.write("EntrantDB.addNotification", data, entrantRef.collection("notifications")
+                .add(data))
+                .addOnSuccessListener(inFlow(), unused -> cb.onSuccess(null))
+                .addOnFailureListener(inFlow(), cb::onError);
     }
 
-    public void getNotifications(String deviceId, Callback<List<Map<String, Object>>> cb) {
+    public void getNotifications(String deviceId, Callback<List<NotificationEntry>> cb) {
         try {
             ValidationHelper.requireNonEmpty(deviceId, "deviceId");
         } catch (IllegalArgumentException e) {
@@ -181,22 +238,21 @@ public class EntrantDB {
             return;
         }
 
-        db.collection("entrants").document(deviceId)
+        Callback<List<NotificationEntry>> result = onMain(cb);
+        metrics.read("EntrantDB.getNotifications", db.collection("entrants").document(deviceId)
                 .collection("notifications")
                 .orderBy("createdAt", Query.Direction.DESCENDING)
-                .get()
-                .addOnSuccessListener(querySnapshot -> {
-                    List<Map<String, Object>> notifications = new ArrayList<>();
+                .get())
+                .addOnSuccessListener(metrics.inFlow(background), querySnapshot -> {
+                    List<NotificationEntry> notifications = new ArrayList<>();
                     if (querySnapshot != null) {
                         for (QueryDocumentSnapshot doc : querySnapshot) {
-                            Map<String, Object> data = new HashMap<>(doc.getData());
-                            data.put("id", doc.getId());
-                            notifications.add(data);
+                            notifications.add(DocumentMappers.notification(doc));
                         }
                     }
-                    cb.onSuccess(notifications);
+                    result.onSuccess(notifications);
                 })
-                .addOnFailureListener(cb::onError);
+                .addOnFailureListener(inFlow(), cb::onError);
     }
 
     /**
@@ -228,13 +284,14 @@ public class EntrantDB {
                 .collection("notifications")
                 .document(notificationId);
 
-        notificationRef.update(updates)
-                .addOnSuccessListener(unused -> cb.onSuccess(null))
-                .addOnFailureListener(cb::onError);
+        metrics.write("EntrantDB.updateNotificationState", updates, notificationRef.update(updates))
+                .addOnSuccessListener(inFlow(), unused -> cb.onSuccess(null))
+                .addOnFailureListener(inFlow(), cb::onError);
     }
 
     /**
-     * Adds an event to the entrant's events subcollection.
+     * Adds an event to the entrant's events subcollection. Merges, so a membership
+     * status already copied there by {@link EventDB} is kept.
      *
      * @param deviceId the device ID
      * @param eventId the event ID
@@ -252,11 +309,11 @@ public class EntrantDB {
         Map<String, Object> data = new HashMap<>();
         data.put("eventId", eventId);
         
-        db.collection("entrants").document(deviceId)
+        metrics.write("EntrantDB.addEventToEntrant", data, db.collection("entrants").document(deviceId)
             .collection("events").document(eventId)
-            .set(data)
-            .addOnSuccessListener(unused -> cb.onSuccess(null))
-            .addOnFailureListener(cb::onError);
+            .set(data, SetOptions.merge()))
+            .addOnSuccessListener(inFlow(), unused -> cb.onSuccess(null))
+            .addOnFailureListener(inFlow(), cb::onError);
     }
 
     public void getEntrantEvents(String deviceId, Callback<List<String>> cb) {
@@ -267,10 +324,11 @@ public class EntrantDB {
             return;
         }
         
-        db.collection("entrants").document(deviceId)
+        Callback<List<String>> result = onMain(cb);
+        metrics.read("EntrantDB.getEntrantEvents", db.collection("entrants").document(deviceId)
             .collection("events")
-            .get()
-            .addOnSuccessListener(querySnapshot -> {
+            .get())
+            .addOnSuccessListener(metrics.inFlow(background), querySnapshot -> {
                 List<String> eventIds = new ArrayList<>();
                 if (querySnapshot != null) {
                     for (QueryDocumentSnapshot doc : querySnapshot) {
@@ -280,9 +338,63 @@ public class EntrantDB {
                         }
                     }
                 }
-                cb.onSuccess(eventIds);
+                result.onSuccess(eventIds);
             })
-            .addOnFailureListener(cb::onError);
+            .addOnFailureListener(inFlow(), cb::onError);
+    }
+
+    /**
+     * Listens to the entrant's events subcollection. Entries written before the
+     * membership status was copied into history are reported with a null status.
+     *
+     * @param deviceId the device ID
+     * @param cb callback invoked with event ID to entry on every change
+     * @return registration used to stop listening, or null if deviceId is invalid
+     */
+    public ListenerRegistration addEntrantEventsListener(String deviceId,
+                                                         Callback<Map<String, MembershipStore.Entry>> cb) {
+        try {
+            ValidationHelper.requireNonEmpty(deviceId, "deviceId");
+        } catch (IllegalArgumentException e) {
+            cb.onError(e);
+            return null;
+        }
+
+        Callback<Map<String, MembershipStore.Entry>> result = onMain(cb);
+        return db.collection("entrants").document(deviceId)
+            .collection("events")
+            .addSnapshotListener(background, metrics.listen("EntrantDB.addEntrantEventsListener", (querySnapshot, e) -> {
+                if (e != null) {
+                    result.onError(e);
+                    return;
+                }
+                Map<String, MembershipStore.Entry> entries = new HashMap<>();
+                if (querySnapshot != null) {
+                    for (QueryDocumentSnapshot doc : querySnapshot) {
+                        String eventId = doc.getString("eventId");
+                        if (eventId == null) {
+                            eventId = doc.getId();
+                        }
+                        entries.put(eventId, new MembershipStore.Entry(
+                                MembershipStatus.fromValue(doc.getString("status")),
+                                parseTimestamp(doc.get("updatedAt"))));
+                    }
+                }
+                result.onSuccess(entries);
+            }));
+    }
+
+    /**
+     * Server timestamps are null in the local snapshot until the write is acknowledged.
+     */
+    private static long parseTimestamp(Object value) {
+        if (value instanceof com.google.firebase.Timestamp) {
+            return ((com.google.firebase.Timestamp) value).toDate().getTime();
+        }
+        if (value instanceof Number) {
+            return ((Number) value).longValue();
+        }
+        return 0;
     }
 
     /**
@@ -304,11 +416,11 @@ public class EntrantDB {
             return;
         }
         
-        db.collection("entrants").document(deviceId)
+        metrics.write("EntrantDB.removeEventFromEntrant", 1, db.collection("entrants").document(deviceId)
             .collection("events").document(eventId)
-            .delete()
-            .addOnSuccessListener(unused -> cb.onSuccess(null))
-            .addOnFailureListener(cb::onError);
+            .delete())
+            .addOnSuccessListener(inFlow(), unused -> cb.onSuccess(null))
+            .addOnFailureListener(inFlow(), cb::onError);
     }
 
     /**
@@ -325,10 +437,10 @@ public class EntrantDB {
             return;
         }
         
-        db.collection("entrants").document(deviceId)
+        metrics.read("EntrantDB.deleteAllEntrantEvents", db.collection("entrants").document(deviceId)
             .collection("events")
-            .get()
-            .addOnSuccessListener(querySnapshot -> {
+            .get())
+            .addOnSuccessListener(inFlow(), querySnapshot -> {
                 if (querySnapshot == null || querySnapshot.isEmpty()) {
                     cb.onSuccess(null);
                     return;
@@ -341,7 +453,7 @@ public class EntrantDB {
                 
                 deleteInBatches(docs, 0, cb);
             })
-            .addOnFailureListener(cb::onError);
+            .addOnFailureListener(inFlow(), cb::onError);
     }
 
     /**
@@ -364,9 +476,9 @@ public class EntrantDB {
             batch.delete(docs.get(i).getReference());
         }
         
-        batch.commit()
-            .addOnSuccessListener(unused -> deleteInBatches(docs, endIndex, cb))
-            .addOnFailureListener(cb::onError);
+        metrics.write("EntrantDB.deleteAllEntrantEvents", endIndex - startIndex, batch.commit())
+            .addOnSuccessListener(inFlow(), unused -> deleteInBatches(docs, endIndex, cb))
+            .addOnFailureListener(inFlow(), cb::onError);
     }
     
     /**
@@ -384,10 +496,10 @@ public class EntrantDB {
             return;
         }
         
-        db.collection("entrants").document(deviceId)
-            .update("banned", banned)
-            .addOnSuccessListener(unused -> cb.onSuccess(null))
-            .addOnFailureListener(cb::onError);
+        metrics.write("EntrantDB.setBannedStatus", 1, db.collection("entrants").document(deviceId)
+            .update("banned", banned))
+            .addOnSuccessListener(inFlow(), unused -> cb.onSuccess(null))
+            .addOnFailureListener(inFlow(), cb::onError);
     }
     
     public void isBanned(String deviceId, Callback<Boolean> cb) {
@@ -456,9 +568,10 @@ public class EntrantDB {
      * @param cb callback that receives list of all entrants
      */
     public void getAllEntrants(Callback<List<Entrant>> cb) {
-        db.collection("entrants")
-            .get()
-            .addOnSuccessListener(querySnapshot -> {
+        Callback<List<Entrant>> result = onMain(cb);
+        metrics.read("EntrantDB.getAllEntrants", db.collection("entrants")
+            .get())
+            .addOnSuccessListener(metrics.inFlow(background), querySnapshot -> {
                 List<Entrant> entrants = new ArrayList<>();
                 if (querySnapshot != null) {
                     for (QueryDocumentSnapshot doc : querySnapshot) {
@@ -468,9 +581,9 @@ public class EntrantDB {
                         }
                     }
                 }
-                cb.onSuccess(entrants);
+                result.onSuccess(entrants);
             })
-            .addOnFailureListener(cb::onError);
+            .addOnFailureListener(inFlow(), cb::onError);
     }
 
     /**
@@ -489,11 +602,11 @@ public class EntrantDB {
             return;
         }
         
-        db.collection("entrants").document(deviceId)
+        metrics.write("EntrantDB.removeNotification", 1, db.collection("entrants").document(deviceId)
             .collection("notifications").document(notificationId)
-            .delete()
-            .addOnSuccessListener(unused -> cb.onSuccess(null))
-            .addOnFailureListener(cb::onError);
+            .delete())
+            .addOnSuccessListener(inFlow(), unused -> cb.onSuccess(null))
+            .addOnFailureListener(inFlow(), cb::onError);
     }
 
     /**
@@ -503,71 +616,48 @@ public class EntrantDB {
      * @param callback callback with list of notification maps
      */
     public void getAllNotificationsForAdmin(Callback<List<Map<String, Object>>> callback) {
-        db.collection("entrants")
-                .get()
-                .addOnSuccessListener(entrantsSnapshot -> {
+        Callback<List<Map<String, Object>>> result = onMain(callback);
+        metrics.read("EntrantDB.getAllNotificationsForAdmin", db.collection("entrants")
+                .get())
+                .addOnSuccessListener(metrics.inFlow(background), entrantsSnapshot -> {
                     if (entrantsSnapshot == null || entrantsSnapshot.isEmpty()) {
-                        callback.onSuccess(new ArrayList<>());
-                        return;
-                    }
-
-                    final int totalEntrants = entrantsSnapshot.size();
-                    final List<Map<String, Object>> allNotifications = Collections.synchronizedList(new ArrayList<>());
-                    final NotificationAggregator aggregator = new NotificationAggregator(totalEntrants, allNotifications, callback);
-
-                    if (totalEntrants == 0) {
-                        callback.onSuccess(allNotifications);
+                        result.onSuccess(new ArrayList<>());
                         return;
                     }
 
+                    List<AsyncResult<List<Map<String, Object>>>> perEntrant = new ArrayList<>(entrantsSnapshot.size());
                     for (QueryDocumentSnapshot entrantDoc : entrantsSnapshot) {
                         String deviceId = entrantDoc.getId();
-                        entrantDoc.getReference()
-                                .collection("notifications")
-                                .orderBy("createdAt", Query.Direction.DESCENDING)
-                                .get()
-                                .addOnSuccessListener(notificationsSnapshot -> {
-                                    if (notificationsSnapshot != null) {
-                                        for (QueryDocumentSnapshot notificationDoc : notificationsSnapshot) {
-                                            Map<String, Object> notificationData = new HashMap<>(notificationDoc.getData());
-                                            notificationData.put("id", notificationDoc.getId());
-                                            notificationData.put("entrantDeviceId", deviceId);
-                                            allNotifications.add(notificationData);
-                                        }
-                                    }
-                                    aggregator.onEntrantProcessed();
-                                })
-                                .addOnFailureListener(e -> {
-                                    aggregator.onEntrantProcessed();
-                                });
+                        perEntrant.add(AsyncResult.fromTask(metrics.read("EntrantDB.getAllNotificationsForAdmin",
+                                entrantDoc.getReference()
+                                        .collection("notifications")
+                                        .orderBy("createdAt", Query.Direction.DESCENDING)
+                                        .get()), metrics.inFlow(background))
+                                .map(notificationsSnapshot -> adminNotificationRows(deviceId, notificationsSnapshot)));
                     }
+                    // Entrants whose notifications cannot be read are left out.
+                    AsyncResult.successesOf(perEntrant).whenDone(lists -> {
+                        List<Map<String, Object>> allNotifications = new ArrayList<>();
+                        for (List<Map<String, Object>> rows : lists) {
+                            allNotifications.addAll(rows);
+                        }
+                        result.onSuccess(allNotifications);
+                    }, result::onError);
                 })
-                .addOnFailureListener(callback::onError);
+                .addOnFailureListener(inFlow(), callback::onError);
     }
 
-    /**
-     * Helper class to track notification aggregation completion.
-     */
-    private static class NotificationAggregator {
-        private final int total;
-        private final List<Map<String, Object>> notifications;
-        private final Callback<List<Map<String, Object>>> callback;
-        private int completed;
-
-        NotificationAggregator(int total, List<Map<String, Object>> notifications,
-                              Callback<List<Map<String, Object>>> callback) {
-            this.total = total;
-            this.notifications = notifications;
-            this.callback = callback;
-            this.completed = 0;
-        }
-
-        synchronized void onEntrantProcessed() {
-            completed++;
-            if (completed == total) {
-                callback.onSuccess(notifications);
+    private static List<Map<String, Object>> adminNotificationRows(String deviceId, QuerySnapshot snapshot) {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        if (snapshot != null) {
+            for (QueryDocumentSnapshot notificationDoc : snapshot) {
+                Map<String, Object> notificationData = new HashMap<>(notificationDoc.getData());
+                notificationData.put("id", notificationDoc.getId());
+                notificationData.put("entrantDeviceId", deviceId);
+                rows.add(notificationData);
             }
         }
+        return rows;
     }
 
     /**
@@ -584,33 +674,24 @@ public class EntrantDB {
             return;
         }
 
-        db.collection("entrants")
-                .get()
-                .addOnSuccessListener(entrantsSnapshot -> {
+        metrics.read("EntrantDB.removeEventFromAllEntrants", db.collection("entrants")
+                .get())
+                .addOnSuccessListener(inFlow(), entrantsSnapshot -> {
                     if (entrantsSnapshot == null || entrantsSnapshot.isEmpty()) {
                         cb.onSuccess(null);
                         return;
                     }
 
-                    final int totalEntrants = entrantsSnapshot.size();
-                    final EventRemovalAggregator aggregator = new EventRemovalAggregator(totalEntrants, cb);
-
+                    List<AsyncResult<Void>> removals = new ArrayList<>(entrantsSnapshot.size());
                     for (QueryDocumentSnapshot entrantDoc : entrantsSnapshot) {
-                        String deviceId = entrantDoc.getId();
-                        removeEventFromEntrant(deviceId, eventId, new Callback<Void>() {
-                            @Override
-                            public void onSuccess(Void value) {
-                                aggregator.onEntrantProcessed();
-                            }
-
-                            @Override
-                            public void onError(@NonNull Exception e) {
-                                aggregator.onEntrantProcessed();
-                            }
-                        });
+                        AsyncResult<Void> removal = AsyncResult.pending();
+                        removeEventFromEntrant(entrantDoc.getId(), eventId, Callback.completing(removal));
+                        removals.add(removal);
                     }
+                    // Best effort: an entrant that cannot be updated keeps the stale entry.
+                    AsyncResult.successesOf(removals).whenDone(unused -> cb.onSuccess(null), cb::onError);
                 })
-                .addOnFailureListener(cb::onError);
+                .addOnFailureListener(inFlow(), cb::onError);
     }
 
     /**
@@ -627,78 +708,39 @@ public class EntrantDB {
             return;
         }
 
-        db.collection("entrants")
-                .get()
-                .addOnSuccessListener(entrantsSnapshot -> {
+        metrics.read("EntrantDB.removeNotificationsForEvent", db.collection("entrants")
+                .get())
+                .addOnSuccessListener(inFlow(), entrantsSnapshot -> {
                     if (entrantsSnapshot == null || entrantsSnapshot.isEmpty()) {
                         cb.onSuccess(null);
                         return;
                     }
 
-                    final int totalEntrants = entrantsSnapshot.size();
-                    final NotificationRemovalAggregator aggregator = new NotificationRemovalAggregator(totalEntrants, cb);
-
+                    List<AsyncResult<Void>> removals = new ArrayList<>(entrantsSnapshot.size());
                     for (QueryDocumentSnapshot entrantDoc : entrantsSnapshot) {
-                        String deviceId = entrantDoc.getId();
-                        entrantDoc.getReference()
-                                .collection("notifications")
-                                .whereEqualTo("eventId", eventId)
-                                .get()
-                                .addOnSuccessListener(notificationsSnapshot -> {
-                                    if (notificationsSnapshot != null && !notificationsSnapshot.isEmpty()) {
-                                        WriteBatch batch = db.batch();
-                                        for (QueryDocumentSnapshot notificationDoc : notificationsSnapshot) {
-                                            batch.delete(notificationDoc.getReference());
-                                        }
-                                        batch.commit()
-                                                .addOnSuccessListener(unused -> aggregator.onEntrantProcessed())
-                                                .addOnFailureListener(e -> aggregator.onEntrantProcessed());
-                                    } else {
-                                        aggregator.onEntrantProcessed();
-                                    }
-                                })
-                                .addOnFailureListener(e -> aggregator.onEntrantProcessed());
+                        removals.add(AsyncResult.fromTask(metrics.read("EntrantDB.removeNotificationsForEvent",
+                                entrantDoc.getReference()
+                                        .collection("notifications")
+                                        .whereEqualTo("eventId", eventId)
+                                        .get()), inFlow())
+                                .then(this::deleteNotifications));
                     }
+                    // Best effort, as above.
+                    AsyncResult.successesOf(removals).whenDone(unused -> cb.onSuccess(null), cb::onError);
                 })
-                .addOnFailureListener(cb::onError);
-    }
-
-    private static class EventRemovalAggregator {
-        private final int total;
-        private final Callback<Void> callback;
-        private int completed;
-
-        EventRemovalAggregator(int total, Callback<Void> callback) {
-            this.total = total;
-            this.callback = callback;
-            this.completed = 0;
-        }
-
-        synchronized void onEntrantProcessed() {
-            completed++;
-            if (completed == total) {
-                callback.onSuccess(null);
-            }
-        }
+                .addOnFailureListener(inFlow(), cb::onError);
     }
 
-    private static class NotificationRemovalAggregator {
-        private final int total;
-        private final Callback<Void> callback;
-        private int completed;
-
-        NotificationRemovalAggregator(int total, Callback<Void> callback) {
-            this.total = total;
-            this.callback = callback;
-            this.completed = 0;
+    private AsyncResult<Void> deleteNotifications(QuerySnapshot notificationsSnapshot) {
+        if (notificationsSnapshot == null || notificationsSnapshot.isEmpty()) {
+            return AsyncResult.success(null);
         }
-
-        synchronized void onEntrantProcessed() {
-            completed++;
-            if (completed == total) {
-                callback.onSuccess(null);
-            }
+        WriteBatch batch = db.batch();
+        for (QueryDocumentSnapshot notificationDoc : notificationsSnapshot) {
+            batch.delete(notificationDoc.getReference());
         }
+        return AsyncResult.fromTask(metrics.write("EntrantDB.removeNotificationsForEvent",
+                notificationsSnapshot.size(), batch.commit()), inFlow());
     }
 
     /**
@@ -720,10 +762,10 @@ public class EntrantDB {
         Map<String, Object> data = new HashMap<>();
         data.put("fcmToken", token);
 
-        db.collection("entrants").document(deviceId)
-                .set(data, SetOptions.merge())
-                .addOnSuccessListener(unused -> callback.onSuccess(null))
-                .addOnFailureListener(callback::onError);
+        metrics.write("EntrantDB.saveFCMToken", data, db.collection("entrants").document(deviceId)
+                .set(data, SetOptions.merge()))
+                .addOnSuccessListener(inFlow(), unused -> callback.onSuccess(null))
+                .addOnFailureListener(inFlow(), callback::onError);
     }
 
     /**
@@ -740,9 +782,9 @@ public class EntrantDB {
             return;
         }
 
-        db.collection("entrants").document(deviceId)
-                .get()
-                .addOnSuccessListener(snapshot -> {
+        metrics.read("EntrantDB.getFCMToken", db.collection("entrants").document(deviceId)
+                .get())
+                .addOnSuccessListener(inFlow(), snapshot -> {
                     if (snapshot != null && snapshot.exists()) {
                         String token = snapshot.getString("fcmToken");
                         callback.onSuccess(token);
@@ -750,7 +792,7 @@ public class EntrantDB {
                         callback.onSuccess(null);
                     }
                 })
-                .addOnFailureListener(callback::onError);
+                .addOnFailureListener(inFlow(), callback::onError);
     }
 
     /**
@@ -767,9 +809,9 @@ public class EntrantDB {
             return;
         }
 
-        db.collection("entrants").document(deviceId)
-                .get()
-                .addOnSuccessListener(snapshot -> {
+        metrics.read("EntrantDB.getNotificationPreference", db.collection("entrants").document(deviceId)
+                .get())
+                .addOnSuccessListener(inFlow(), snapshot -> {
                     if (snapshot != null && snapshot.exists()) {
                         Boolean enabled = snapshot.getBoolean("notificationEnabled");
                         callback.onSuccess(enabled != null ? enabled : true);
@@ -777,7 +819,7 @@ public class EntrantDB {
                         callback.onSuccess(true);
                     }
                 })
-                .addOnFailureListener(callback::onError);
+                .addOnFailureListener(inFlow(), callback::onError);
     }
 
     /**
@@ -798,10 +840,10 @@ public class EntrantDB {
         Map<String, Object> data = new HashMap<>();
         data.put("notificationEnabled", enabled);
 
-        db.collection("entrants").document(deviceId)
-                .set(data, SetOptions.merge())
-                .addOnSuccessListener(unused -> callback.onSuccess(null))
-                .addOnFailureListener(callback::onError);
+        metrics.write("EntrantDB.setNotificationPreference", data, db.collection("entrants").document(deviceId)
+                .set(data, SetOptions.merge()))
+                .addOnSuccessListener(inFlow(), unused -> callback.onSuccess(null))
+                .addOnFailureListener(inFlow(), callback::onError);
     }
 
 }
@@ -0,0 +1,90 @@
+package ca.ualberta.codarc.codarc_events.data;
+
+import com.google.firebase.firestore.ListenerRegistration;
+
+import java.util.List;
+import java.util.Map;
+
+import ca.ualberta.codarc.codarc_events.models.Entrant;
+import ca.ualberta.codarc.codarc_events.models.NotificationEntry;
+
+/**
+ * Entrant profiles, histories and notifications used by the controllers.
+ * {@link EntrantDB} is the Firestore implementation.
+ */
+public interface EntrantRepository {
+
+    void getOrCreateEntrant(String deviceId, EntrantDB.Callback<Void> cb);
+
+    void entrantExists(String deviceId, EntrantDB.Callback<Boolean> cb);
+
+    void createEntrant(Entrant entrant, EntrantDB.Callback<Void> cb);
+
+    /**
+     * Gets an entrant profile, or null if there is none.
+     */
+    void getProfile(String deviceId, EntrantDB.Callback<Entrant> cb);
+
+    void upsertProfile(String deviceId, Entrant entrant, EntrantDB.Callback<Void> cb);
+
+    void addNotification(String deviceId, String eventId, String message, String category,
+                         EntrantDB.Callback<Void> cb);
+
+    /**
+     * Gets the entrant's notifications, newest first.
+     */
+    void getNotifications(String deviceId, EntrantDB.Callback<List<NotificationEntry>> cb);
+
+    void updateNotificationState(String deviceId, String notificationId, Map<String, Object> updates,
+                                 EntrantDB.Callback<Void> cb);
+
+    void addEventToEntrant(String deviceId, String eventId, EntrantDB.Callback<Void> cb);
+
+    void getEntrantEvents(String deviceId, EntrantDB.Callback<List<String>> cb);
+
+    void getRegistrationHistory(String deviceId, EntrantDB.Callback<List<String>> cb);
+
+    /**
+     * Listens to the entrant's registration history, reporting every event ID with
+     * the membership status stored alongside it.
+     */
+    ListenerRegistration addEntrantEventsListener(String deviceId,
+                                                  EntrantDB.Callback<Map<String, MembershipStore.Entry>> cb);
+
+    void removeEventFromEntrant(String deviceId, String eventId, EntrantDB.Callback<Void> cb);
+
+    void deleteAllEntrantEvents(String deviceId, EntrantDB.Callback<Void> cb);
+
+    void setBannedStatus(String deviceId, boolean banned, EntrantDB.Callback<Void> cb);
+
+    void isBanned(String deviceId, EntrantDB.Callback<Boolean> cb);
+
+    /**
+     * Clears the profile fields, optionally marking the entrant as banned.
+     */
+    void deleteProfile(String deviceId, boolean shouldBan, EntrantDB.Callback<Void> cb);
+
+    void getAllEntrants(EntrantDB.Callback<List<Entrant>> cb);
+
+    void removeNotification(String deviceId, String notificationId, EntrantDB.Callback<Void> cb);
+
+    /**
+     * Gets every entrant's notifications for admin review.
+     */
+    void getAllNotificationsForAdmin(EntrantDB.Callback<List<Map<String, Object>>> callback);
+
+    void removeEventFromAllEntrants(String eventId, EntrantDB.Callback<Void> cb);
+
+    void removeNotificationsForEvent(String eventId, EntrantDB.Callback<Void> cb);
+
+    void saveFCMToken(String deviceId, String token, EntrantDB.Callback<Void> callback);
+
+    void getFCMToken(String deviceId, EntrantDB.Callback<String> callback);
+
+    /**
+     * Gets whether the entrant wants notifications; true when never set.
+     */
+    void getNotificationPreference(String deviceId, EntrantDB.Callback<Boolean> callback);
+
+    void setNotificationPreference(String deviceId, boolean enabled, EntrantDB.Callback<Void> callback);
+}
@@ -2,47 +2,155 @@ package ca.ualberta.codarc.codarc_events.data;
 
 import androidx.annotation.NonNull;
 
+import com.google.android.gms.tasks.Task;
+
+import com.google.firebase.firestore.AggregateSource;
 import com.google.firebase.firestore.DocumentReference;
 import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldPath;
 import com.google.firebase.firestore.FieldValue;
 import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.ListenerRegistration;
+import com.google.firebase.firestore.Query;
 import com.google.firebase.firestore.QueryDocumentSnapshot;
 import com.google.firebase.firestore.SetOptions;
+import com.google.firebase.firestore.Transaction;
 import com.google.firebase.firestore.WriteBatch;
 import com.google.firebase.Timestamp;
 
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 
+import ca.ualberta.codarc.codarc_events.models.EntrantEntry;
 import ca.ualberta.codarc.codarc_events.models.Event;
+import ca.ualberta.codarc.codarc_events.models.MembershipStatus;
+import ca.ualberta.codarc.codarc_events.utils.GeoHash;
 import ca.ualberta.codarc.codarc_events.utils.ValidationHelper;
 
 /**
  * Handles Firestore operations for events.
  */
-public class EventDB {
+public class EventDB implements EventRepository {
 
     private static final int BATCH_SIZE = 500;
+    private static final long EVENT_CACHE_TTL_MS = 5_000;
+    private static final String WAITLIST_COUNT = "waitlistCount";
+    private static final String MEMBERSHIPS = "memberships";
+    private static final String CHECK_INS = "checkIns";
+    private static final String GEOHASH = "geohash";
+    private static final String LOCATION_CHUNKS = "locationChunks";
+    /** Fixed so the map can read the whole projection with one query of at most this many documents. */
+    private static final int LOCATION_CHUNK_COUNT = 16;
+    private static final String CHUNK_ENTRIES = "entries";
+    private static final String CHUNK_COMPLETE = "complete";
+    /**
+     * Lists that held each entrant before membership documents, in the order their
+     * statuses win when an entrant is found in more than one.
+     */
+    private static final String[] LEGACY_LISTS = {"accepted", "winners", "waitingList", "cancelled", "replacementPool"};
+    /** Set on events created with membership documents; older ones may have entrants without one. */
+    private static final String MEMBERSHIP_DOCS = "membershipDocs";
 
-    public interface Callback<T> {
+    /**
+     * Event documents shared by every EventDB instance, so screens that open
+     * together read each event once. Every write to an event document goes
+     * through {@link #writingEvent} so a cached copy never outlives it.
+     */
+    private static final CoalescingCache<Event> eventCache = new CoalescingCache<>(EVENT_CACHE_TTL_MS);
+    /**
+     * Whether each event read so far was created with membership documents. The
+     * flag is set when an event is created and never changes, so it is kept for
+     * the life of the process.
+     */
+    private static final Map<String, Boolean> membershipDocsByEvent = new ConcurrentHashMap<>();
+
+    public interface Callback<T> extends AsyncResult.Listener<T> {
         void onSuccess(T value);
         void onError(@NonNull Exception e);
+
+        /**
+         * @return a callback that settles the result, for composing calls with {@link AsyncResult}
+         */
+        static <T> Callback<T> completing(AsyncResult<T> result) {
+            return new Callback<T>() {
+                @Override
+                public void onSuccess(T value) {
+                    result.complete(value);
+                }
+
+                @Override
+                public void onError(@NonNull Exception e) {
+                    result.fail(e);
+                }
+            };
+        }
+    }
+
+    /**
+     * Outcome of {@link #joinWaitlistAtomic}.
+     */
+    public enum JoinOutcome {
+        JOINED,
+        ALREADY_JOINED,
+        FULL,
+        /** Already invited or accepted, so not allowed back onto the waitlist. */
+        NOT_ELIGIBLE
     }
 
     private final FirebaseFirestore db;
+    private final FirestoreMetrics metrics = FirestoreMetrics.getInstance();
+    private final Executor background = DataExecutors.background();
+    private final SnapshotSubscriptions subscriptions = SnapshotSubscriptions.getInstance();
 
     public EventDB() {
-        this.db = FirebaseFirestore.getInstance();
+        this(FirebaseFirestore.getInstance());
+    }
+
+    /**
+     * @param db the Firestore instance to use, e.g. a stand-in in JVM tests
+     */
+    public EventDB(FirebaseFirestore db) {
+        this.db = db;
+    }
+
+    /**
+     * Wraps a callback so both outcomes reach it on the main thread. Reads whose
+     * listeners parse or aggregate on {@link DataExecutors#background()} report
+     * through this, so only the finished result crosses back to the UI.
+     */
+    private static <T> Callback<T> onMain(AsyncResult.Listener<T> cb) {
+        Executor main = FirestoreMetrics.getInstance().inFlow(DataExecutors.main());
+        return new Callback<T>() {
+            @Override
+            public void onSuccess(T value) {
+                main.execute(() -> cb.onSuccess(value));
+            }
+
+            @Override
+            public void onError(@NonNull Exception e) {
+                main.execute(() -> cb.onError(e));
+            }
+        };
+    }
+
+    /**
+     * Executor for task listeners, so steps issued from them, and the callers'
+     * callbacks, stay in the flow of the call that attached them.
+     */
+    private Executor inFlow() {
+        return metrics.inFlow(DataExecutors.main());
     }
 
     /**
      * Adds or updates an event in Firestore.
+     * Updates merge into the existing document so the waitlist counter survives edits.
      */
     public void addEvent(Event event, Callback<Void> cb) {
         try {
@@ -65,6 +173,8 @@ public class EventDB {
         eventData.put("registrationOpen", event.getRegistrationOpen());
         eventData.put("registrationClose", event.getRegistrationClose());
         eventData.put("posterUrl", event.getPosterUrl());
+        eventData.put("posterThumbUrl", event.getPosterThumbUrl());
+        eventData.put("posterCardUrl", event.getPosterCardUrl());
         
         if (event.getTags() != null && !event.getTags().isEmpty()) {
             eventData.put("tags", event.getTags());
@@ -72,9 +182,9 @@ public class EventDB {
             eventData.put("tags", new ArrayList<String>());
         }
 
-        db.collection("events").document(event.getId())
-                .get()
-                .addOnSuccessListener(existingDoc -> {
+        metrics.read("EventDB.addEvent", db.collection("events").document(event.getId())
+                .get())
+                .addOnSuccessListener(inFlow(), existingDoc -> {
                     final List<String> oldTags;
                     if (existingDoc != null && existingDoc.exists()) {
                         Object tagsObj = existingDoc.get("tags");
@@ -90,10 +200,15 @@ public class EventDB {
                     }
 
                     final List<String> eventTags = event.getTags();
+                    if (existingDoc == null || !existingDoc.exists()) {
+                        eventData.put(WAITLIST_COUNT, 0);
+                        eventData.put(MEMBERSHIP_DOCS, true);
+                        membershipDocsByEvent.put(event.getId(), true);
+                    }
 
-                    db.collection("events").document(event.getId())
-                            .set(eventData)
-                            .addOnSuccessListener(aVoid -> {
+                    writingEvent(event.getId(), metrics.write("EventDB.addEvent", eventData,
+                            db.collection("events").document(event.getId()).set(eventData, SetOptions.merge())))
+                            .addOnSuccessListener(inFlow(), aVoid -> {
                                 TagDB tagDB = new TagDB();
                                 if (oldTags == null) {
                                     tagDB.addTags(eventTags, new TagDB.Callback<Void>() {
@@ -123,33 +238,40 @@ public class EventDB {
                                     });
                                 }
                             })
-                            .addOnFailureListener(cb::onError);
+                            .addOnFailureListener(inFlow(), cb::onError);
                 })
-                .addOnFailureListener(cb::onError);
+                .addOnFailureListener(inFlow(), cb::onError);
     }
 
     /**
-     * Gets all events with real-time updates.
+     * Subscribes to all events with real-time updates. Every subscriber shares one
+     * listener on the collection, and a new subscriber gets the last list at once.
+     *
+     * @param cb callback with the full list on every change, on the main thread
+     * @return the subscription; bind it to the screen's lifecycle or remove it
      */
-    public void getAllEvents(Callback<List<Event>> cb) {
-        db.collection("events").addSnapshotListener((snapshots, e) -> {
-            if (e != null) {
-                cb.onError(e);
-                return;
-            }
-            if (snapshots == null) {
-                cb.onSuccess(new ArrayList<>());
-                return;
-            }
-            List<Event> events = new ArrayList<>();
-            for (QueryDocumentSnapshot doc : snapshots) {
-                Event event = parseEventFromDocument(doc);
-                if (event != null) {
-                    events.add(event);
+    public SnapshotSubscriptions.Subscription subscribeAllEvents(Callback<List<Event>> cb) {
+        return subscriptions.subscribe("events", listener -> {
+            Callback<List<Event>> result = onMain(listener);
+            return db.collection("events").addSnapshotListener(background, metrics.listen("EventDB.getAllEvents", (snapshots, e) -> {
+                if (e != null) {
+                    result.onError(e);
+                    return;
                 }
-            }
-            cb.onSuccess(events);
-        });
+                if (snapshots == null) {
+                    result.onSuccess(new ArrayList<>());
+                    return;
+                }
+                List<Event> events = new ArrayList<>();
+                for (QueryDocumentSnapshot doc : snapshots) {
+                    Event event = DocumentMappers.event(doc);
+                    if (event != null) {
+                        events.add(event);
+                    }
+                }
+                result.onSuccess(events);
+            }));
+        }, cb);
     }
 
     /**
@@ -158,21 +280,60 @@ public class EventDB {
      * @param cb callback with the list of events
      */
     public void getAllEventsOnce(Callback<List<Event>> cb) {
-        db.collection("events")
-                .get()
-                .addOnSuccessListener(querySnapshot -> {
+        Callback<List<Event>> result = onMain(cb);
+        metrics.read("EventDB.getAllEventsOnce", db.collection("events")
+                .get())
+                .addOnSuccessListener(metrics.inFlow(background), querySnapshot -> {
                     List<Event> events = new ArrayList<>();
                     if (querySnapshot != null) {
                         for (QueryDocumentSnapshot doc : querySnapshot) {
-                            Event event = parseEventFromDocument(doc);
+                            Event event = DocumentMappers.event(doc);
                             if (event != null) {
                                 events.add(event);
                             }
                         }
                     }
-                    cb.onSuccess(events);
+                    result.onSuccess(events);
                 })
-                .addOnFailureListener(cb::onError);
+                .addOnFailureListener(inFlow(), cb::onError);
+    }
+
+    /**
+     * Fetches one page of events that have a poster, ordered by poster URL then ID.
+     * Only the returned page is read; events without a poster are never fetched.
+     *
+     * @param after the last event of the previous page, or null for the first page
+     * @param limit page size
+     * @param cb callback with the page; fewer than {@code limit} events means it is the last
+     */
+    public void getEventsWithPosters(Event after, int limit, Callback<List<Event>> cb) {
+        if (limit <= 0) {
+            cb.onError(new IllegalArgumentException("limit must be positive"));
+            return;
+        }
+        // A string inequality skips documents where posterUrl is missing or null.
+        Query query = db.collection("events")
+                .whereGreaterThan("posterUrl", "")
+                .orderBy("posterUrl")
+                .orderBy(FieldPath.documentId());
+        if (after != null && after.getPosterUrl() != null && after.getId() != null) {
+            query = query.startAfter(after.getPosterUrl(), after.getId());
+        }
+        Callback<List<Event>> result = onMain(cb);
+        metrics.read("EventDB.getEventsWithPosters", query.limit(limit).get())
+                .addOnSuccessListener(metrics.inFlow(background), querySnapshot -> {
+                    List<Event> events = new ArrayList<>();
+                    if (querySnapshot != null) {
+                        for (QueryDocumentSnapshot doc : querySnapshot) {
+                            Event event = DocumentMappers.event(doc);
+                            if (event != null) {
+                                events.add(event);
+                            }
+                        }
+                    }
+                    result.onSuccess(events);
+                })
+                .addOnFailureListener(inFlow(), cb::onError);
     }
 
     /**
@@ -190,14 +351,15 @@ public class EventDB {
             return;
         }
 
-        db.collection("events")
+        Callback<List<Event>> result = onMain(cb);
+        metrics.read("EventDB.getEventsByOrganizer", db.collection("events")
                 .whereEqualTo("organizerId", organizerId)
-                .get()
-                .addOnSuccessListener(querySnapshot -> {
+                .get())
+                .addOnSuccessListener(metrics.inFlow(background), querySnapshot -> {
                     List<Event> events = new ArrayList<>();
                     if (querySnapshot != null) {
                         for (QueryDocumentSnapshot doc : querySnapshot) {
-                            Event event = parseEventFromDocument(doc);
+                            Event event = DocumentMappers.event(doc);
                             if (event != null) {
                                 events.add(event);
                             }
@@ -217,13 +379,15 @@ public class EventDB {
                         events = events.subList(0, limit);
                     }
 
-                    cb.onSuccess(events);
+                    result.onSuccess(events);
                 })
-                .addOnFailureListener(cb::onError);
+                .addOnFailureListener(inFlow(), cb::onError);
     }
 
     /**
      * Fetches a single event by its ID.
+     * Concurrent requests for the same event share one read, and the result is
+     * reused for a few seconds. Each caller receives its own copy.
      */
     public void getEvent(String eventId, Callback<Event> cb) {
         try {
@@ -232,11 +396,29 @@ public class EventDB {
             cb.onError(e);
             return;
         }
-        db.collection("events").document(eventId)
-                .get()
-                .addOnSuccessListener(snapshot -> {
+        eventCache.get(eventId, this::loadEvent, new CoalescingCache.Callback<Event>() {
+            @Override
+            public void onSuccess(Event value) {
+                cb.onSuccess(new Event(value));
+            }
+
+            @Override
+            public void onError(@NonNull Exception e) {
+                cb.onError(e);
+            }
+        });
+    }
+
+    /**
+     * Reads an event document from Firestore, bypassing the cache.
+     */
+    private void loadEvent(String eventId, CoalescingCache.Callback<Event> cb) {
+        metrics.read("EventDB.getEvent", db.collection("events").document(eventId)
+                .get())
+                .addOnSuccessListener(inFlow(), snapshot -> {
                     if (snapshot != null && snapshot.exists()) {
-                        Event event = parseEventFromDocument(snapshot);
+                        membershipDocsByEvent.put(eventId, Boolean.TRUE.equals(snapshot.getBoolean(MEMBERSHIP_DOCS)));
+                        Event event = DocumentMappers.event(snapshot);
                         if (event != null) {
                             cb.onSuccess(event);
                         } else {
@@ -246,7 +428,16 @@ public class EventDB {
                         cb.onError(new RuntimeException("Event not found"));
                     }
                 })
-                .addOnFailureListener(cb::onError);
+                .addOnFailureListener(inFlow(), cb::onError);
+    }
+
+    /**
+     * Returns hit/miss counters for the shared event cache used by {@link #getEvent}.
+     *
+     * @return snapshot of the cache counters
+     */
+    public static CoalescingCache.Stats getEventCacheStats() {
+        return eventCache.getStats();
     }
 
     public void isEntrantOnWaitlist(String eventId, String deviceId, Callback<Boolean> cb) {
@@ -257,13 +448,13 @@ public class EventDB {
             cb.onError(e);
             return;
         }
-        db.collection("events").document(eventId)
+        metrics.read("EventDB.isEntrantOnWaitlist", db.collection("events").document(eventId)
                 .collection("waitingList").document(deviceId)
-                .get()
-                .addOnSuccessListener(snapshot -> {
+                .get())
+                .addOnSuccessListener(inFlow(), snapshot -> {
                     cb.onSuccess(snapshot != null && snapshot.exists());
                 })
-                .addOnFailureListener(cb::onError);
+                .addOnFailureListener(inFlow(), cb::onError);
     }
 
     /**
@@ -281,13 +472,13 @@ public class EventDB {
             cb.onError(e);
             return;
         }
-        db.collection("events").document(eventId)
+        metrics.read("EventDB.isEntrantWinner", db.collection("events").document(eventId)
                 .collection("winners").document(deviceId)
-                .get()
-                .addOnSuccessListener(snapshot -> {
+                .get())
+                .addOnSuccessListener(inFlow(), snapshot -> {
                     cb.onSuccess(snapshot != null && snapshot.exists());
                 })
-                .addOnFailureListener(cb::onError);
+                .addOnFailureListener(inFlow(), cb::onError);
     }
 
     /**
@@ -303,12 +494,12 @@ public class EventDB {
             cb.onError(e);
             return;
         }
-        db.collection("events").document(eventId)
-                .get()
-                .addOnSuccessListener(snapshot -> {
+        metrics.read("EventDB.eventExists", db.collection("events").document(eventId)
+                .get())
+                .addOnSuccessListener(inFlow(), snapshot -> {
                     cb.onSuccess(snapshot != null && snapshot.exists());
                 })
-                .addOnFailureListener(cb::onError);
+                .addOnFailureListener(inFlow(), cb::onError);
     }
 
     /**
@@ -326,13 +517,13 @@ public class EventDB {
             cb.onError(e);
             return;
         }
-        db.collection("events").document(eventId)
+        metrics.read("EventDB.isEntrantAccepted", db.collection("events").document(eventId)
                 .collection("accepted").document(deviceId)
-                .get()
-                .addOnSuccessListener(snapshot -> {
+                .get())
+                .addOnSuccessListener(inFlow(), snapshot -> {
                     cb.onSuccess(snapshot != null && snapshot.exists());
                 })
-                .addOnFailureListener(cb::onError);
+                .addOnFailureListener(inFlow(), cb::onError);
     }
 
     /**
@@ -350,23 +541,28 @@ public class EventDB {
             cb.onError(e);
             return;
         }
-        db.collection("events").document(eventId)
+        metrics.read("EventDB.isEntrantCancelled", db.collection("events").document(eventId)
                 .collection("cancelled").document(deviceId)
-                .get()
-                .addOnSuccessListener(snapshot -> {
+                .get())
+                .addOnSuccessListener(inFlow(), snapshot -> {
                     cb.onSuccess(snapshot != null && snapshot.exists());
                 })
-                .addOnFailureListener(cb::onError);
+                .addOnFailureListener(inFlow(), cb::onError);
     }
 
     /**
-     * Checks if user can join the waitlist.
+     * Reads an entrant's membership status with a single point read. A missing
+     * document means no status, once the event is known to keep membership
+     * documents; that takes the event from the event cache, reading it only if it
+     * has not been seen. Entrants of events that predate membership documents
+     * have none; their status is taken from the old lists and copied into a
+     * membership document on the way.
      *
      * @param eventId  the event ID
      * @param deviceId the device ID of the entrant
-     * @param cb       callback that receives true if the entrant can join, false otherwise
+     * @param cb       callback with the status, or null if the entrant has none
      */
-    public void canJoinWaitlist(String eventId, String deviceId, Callback<Boolean> cb) {
+    public void getMembershipStatus(String eventId, String deviceId, Callback<MembershipStatus> cb) {
         try {
             ValidationHelper.requireNonEmpty(eventId, "eventId");
             ValidationHelper.requireNonEmpty(deviceId, "deviceId");
@@ -374,40 +570,268 @@ public class EventDB {
             cb.onError(e);
             return;
         }
-        
-        db.collection("events").document(eventId)
-                .collection("waitingList").document(deviceId)
-                .get()
-                .addOnSuccessListener(snapshot -> {
+        metrics.read("EventDB.getMembershipStatus", membershipRef(eventId, deviceId).get())
+                .addOnSuccessListener(inFlow(), snapshot -> {
                     if (snapshot != null && snapshot.exists()) {
-                        cb.onSuccess(false);
+                        cb.onSuccess(MembershipStatus.fromValue(snapshot.getString("status")));
                         return;
                     }
-                    
-                    db.collection("events").document(eventId)
-                            .collection("winners").document(deviceId)
-                            .get()
-                            .addOnSuccessListener(winnerSnapshot -> {
-                                if (winnerSnapshot != null && winnerSnapshot.exists()) {
-                                    cb.onSuccess(false);
-                                    return;
-                                }
-                                
-                                db.collection("events").document(eventId)
-                                        .collection("accepted").document(deviceId)
-                                        .get()
-                                        .addOnSuccessListener(acceptedSnapshot -> {
-                                            if (acceptedSnapshot != null && acceptedSnapshot.exists()) {
-                                                cb.onSuccess(false);
-                                            } else {
-                                                cb.onSuccess(true);
-                                            }
-                                        })
-                                        .addOnFailureListener(cb::onError);
-                            })
-                            .addOnFailureListener(cb::onError);
+                    keepsMembershipDocs(eventId, new Callback<Boolean>() {
+                        @Override
+                        public void onSuccess(Boolean keepsDocs) {
+                            if (keepsDocs) {
+                                cb.onSuccess(null);
+                            } else {
+                                getLegacyMembershipStatus(eventId, deviceId, cb);
+                            }
+                        }
+
+                        @Override
+                        public void onError(@NonNull Exception e) {
+                            cb.onError(e);
+                        }
+                    });
                 })
-                .addOnFailureListener(cb::onError);
+                .addOnFailureListener(inFlow(), cb::onError);
+    }
+
+    /**
+     * Passes on whether an event keeps membership documents, loading the event
+     * through the event cache the first time it is asked about.
+     */
+    private void keepsMembershipDocs(String eventId, Callback<Boolean> cb) {
+        Boolean known = membershipDocsByEvent.get(eventId);
+        if (known != null) {
+            cb.onSuccess(known);
+            return;
+        }
+        eventCache.get(eventId, this::loadEvent, new CoalescingCache.Callback<Event>() {
+            @Override
+            public void onSuccess(Event value) {
+                cb.onSuccess(Boolean.TRUE.equals(membershipDocsByEvent.get(eventId)));
+            }
+
+            @Override
+            public void onError(@NonNull Exception e) {
+                cb.onError(e);
+            }
+        });
+    }
+
+    /**
+     * Probes the lists that held entrants before membership documents. A status
+     * found there is written back as a membership document and a history status,
+     * so the entrant's next lookup is one read.
+     */
+    private void getLegacyMembershipStatus(String eventId, String deviceId, Callback<MembershipStatus> cb) {
+        DocumentReference eventRef = db.collection("events").document(eventId);
+        List<AsyncResult<DocumentSnapshot>> probes = new ArrayList<>();
+        for (String list : LEGACY_LISTS) {
+            probes.add(AsyncResult.fromTask(metrics.read("EventDB.getLegacyMembershipStatus",
+                    eventRef.collection(list).document(deviceId).get()), inFlow()));
+        }
+        AsyncResult.allOf(probes).whenDone(snapshots -> {
+            MembershipStatus status = null;
+            for (int i = 0; i < LEGACY_LISTS.length && status == null; i++) {
+                DocumentSnapshot snapshot = snapshots.get(i);
+                if (snapshot != null && snapshot.exists()) {
+                    status = locationStatus(LEGACY_LISTS[i]);
+                }
+            }
+            if (status != null) {
+                backfillMembership(eventId, deviceId, status);
+            }
+            cb.onSuccess(status);
+        }, cb::onError);
+    }
+
+    /**
+     * Writes a membership found in the old lists (fire-and-forget). The status
+     * timestamp is left out since the original time is not known.
+     */
+    private void backfillMembership(String eventId, String deviceId, MembershipStatus status) {
+        Map<String, Object> membership = new HashMap<>();
+        membership.put("deviceId", deviceId);
+        membership.put("status", status.getValue());
+        membership.put("updatedAt", FieldValue.serverTimestamp());
+        WriteBatch batch = db.batch();
+        batch.set(membershipRef(eventId, deviceId), membership, SetOptions.merge());
+        batch.set(entrantEventRef(deviceId, eventId), entrantEventData(eventId, status), SetOptions.merge());
+        metrics.write("EventDB.backfillMembership", 2, batch.commit())
+                .addOnFailureListener(inFlow(), e -> android.util.Log.w("EventDB",
+                        "Failed to backfill membership for " + deviceId + " in " + eventId, e));
+    }
+
+    /**
+     * Checks if user can join the waitlist.
+     *
+     * @param eventId  the event ID
+     * @param deviceId the device ID of the entrant
+     * @param cb       callback that receives true if the entrant can join, false otherwise
+     */
+    public void canJoinWaitlist(String eventId, String deviceId, Callback<Boolean> cb) {
+        getMembershipStatus(eventId, deviceId, new Callback<MembershipStatus>() {
+            @Override
+            public void onSuccess(MembershipStatus status) {
+                cb.onSuccess(status == null || status.canJoinWaitlist());
+            }
+
+            @Override
+            public void onError(@NonNull Exception e) {
+                cb.onError(e);
+            }
+        });
+    }
+
+    /**
+     * Drops the cached copy of an event now and again once a write to its
+     * document settles, committed or not. Dropping it up front stops a read
+     * already in flight from caching the old fields.
+     */
+    private <T> Task<T> writingEvent(String eventId, Task<T> write) {
+        eventCache.invalidate(eventId);
+        return write.addOnCompleteListener(inFlow(), task -> eventCache.invalidate(eventId));
+    }
+
+    private DocumentReference membershipRef(String eventId, String deviceId) {
+        return db.collection("events").document(eventId).collection(MEMBERSHIPS).document(deviceId);
+    }
+
+    private DocumentReference entrantEventRef(String deviceId, String eventId) {
+        return db.collection("entrants").document(deviceId).collection("events").document(eventId);
+    }
+
+    /**
+     * Fields that move an entrant into a status. Written with merge so the
+     * timestamps of earlier statuses are kept.
+     */
+    private static Map<String, Object> membershipData(String deviceId, MembershipStatus status) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("deviceId", deviceId);
+        data.put("status", status.getValue());
+        data.put("updatedAt", FieldValue.serverTimestamp());
+        data.put(status.getTimestampField(), FieldValue.serverTimestamp());
+        return data;
+    }
+
+    /**
+     * The entrant's own copy of the status, kept in their registration history so
+     * the device can follow its memberships with one listener.
+     */
+    private static Map<String, Object> entrantEventData(String eventId, MembershipStatus status) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("eventId", eventId);
+        data.put("status", status.getValue());
+        data.put("updatedAt", FieldValue.serverTimestamp());
+        return data;
+    }
+
+    /**
+     * Copies a join location onto an entry along with its geohash, which the area
+     * queries range over. Entries moved from older documents get the geohash here.
+     */
+    private static void putJoinLocation(Map<String, Object> data, com.google.firebase.firestore.GeoPoint location) {
+        if (location != null) {
+            data.put("joinLocation", location);
+            data.put(GEOHASH, GeoHash.encode(location.getLatitude(), location.getLongitude()));
+        }
+    }
+
+    /**
+     * Field holding when an entrant entered each list that can carry a join location.
+     */
+    private static String locationTimestampField(String collection) {
+        switch (collection) {
+            case "waitingList":
+                return "request_time";
+            case "winners":
+                return "invitedAt";
+            case "replacementPool":
+                return "addedToPoolAt";
+            case "accepted":
+            case "cancelled":
+                return "respondedAt";
+            default:
+                throw new IllegalArgumentException("Unknown entrant list: " + collection);
+        }
+    }
+
+    /**
+     * Status recorded in the location projection for entrants in each list.
+     */
+    private static MembershipStatus locationStatus(String collection) {
+        switch (collection) {
+            case "waitingList":
+                return MembershipStatus.WAITLISTED;
+            case "winners":
+                return MembershipStatus.INVITED;
+            case "replacementPool":
+                return MembershipStatus.REPLACEMENT_POOL;
+            case "accepted":
+                return MembershipStatus.ACCEPTED;
+            default:
+                return MembershipStatus.CANCELLED;
+        }
+    }
+
+    /**
+     * The projection chunk an entrant's location lives in. String.hashCode is fixed
+     * by the language spec, so every client picks the same chunk.
+     */
+    static int locationChunk(String deviceId) {
+        return Math.floorMod(deviceId.hashCode(), LOCATION_CHUNK_COUNT);
+    }
+
+    private DocumentReference locationChunkRef(String eventId, int chunk) {
+        return db.collection("events").document(eventId).collection(LOCATION_CHUNKS).document(String.valueOf(chunk));
+    }
+
+    private DocumentReference locationChunkRef(String eventId, String deviceId) {
+        return locationChunkRef(eventId, locationChunk(deviceId));
+    }
+
+    /**
+     * Packs one entrant for the location projection as [lat, lng, status, millis].
+     */
+    private static List<Object> packLocation(com.google.firebase.firestore.GeoPoint location,
+                                             MembershipStatus status, long timestamp) {
+        return Arrays.asList(location.getLatitude(), location.getLongitude(), status.getValue(), timestamp);
+    }
+
+    /**
+     * Merge data that sets or clears entries of one projection chunk. A null value
+     * clears the entry; nothing else in the chunk is touched.
+     */
+    private static Map<String, Object> locationChunkData(Map<String, Object> entries) {
+        Map<String, Object> packed = new HashMap<>();
+        for (Map.Entry<String, Object> entry : entries.entrySet()) {
+            packed.put(entry.getKey(), entry.getValue() != null ? entry.getValue() : FieldValue.delete());
+        }
+        Map<String, Object> data = new HashMap<>();
+        data.put(CHUNK_ENTRIES, packed);
+        return data;
+    }
+
+    private static Map<String, Object> locationChunkData(String deviceId, Object packed) {
+        Map<String, Object> entries = new HashMap<>();
+        entries.put(deviceId, packed);
+        return locationChunkData(entries);
+    }
+
+    /**
+     * Groups projection updates by chunk so a batch writes each chunk once.
+     */
+    private static Map<Integer, Map<String, Object>> groupByChunk(Map<String, Object> entries) {
+        Map<Integer, Map<String, Object>> chunks = new HashMap<>();
+        for (Map.Entry<String, Object> entry : entries.entrySet()) {
+            Map<String, Object> chunk = chunks.get(locationChunk(entry.getKey()));
+            if (chunk == null) {
+                chunk = new HashMap<>();
+                chunks.put(locationChunk(entry.getKey()), chunk);
+            }
+            chunk.put(entry.getKey(), entry.getValue());
+        }
+        return chunks;
     }
 
     public void getWaitlistCount(String eventId, Callback<Integer> cb) {
@@ -417,14 +841,39 @@ public class EventDB {
             cb.onError(e);
             return;
         }
-        db.collection("events").document(eventId)
+        metrics.read("EventDB.getWaitlistCount", db.collection("events").document(eventId)
                 .collection("waitingList")
-                .get()
-                .addOnSuccessListener(querySnapshot -> {
-                    int count = querySnapshot != null ? querySnapshot.size() : 0;
-                    cb.onSuccess(count);
-                })
-                .addOnFailureListener(cb::onError);
+                .count()
+                .get(AggregateSource.SERVER))
+                .addOnSuccessListener(inFlow(), snapshot -> cb.onSuccess((int) snapshot.getCount()))
+                .addOnFailureListener(inFlow(), cb::onError);
+    }
+
+    /**
+     * Listens to the waitlist counter stored on the event document.
+     * Reports null when the event has no counter field, so callers can treat
+     * the snapshot as a plain change signal.
+     *
+     * @param eventId the event ID
+     * @param cb callback invoked with the counter on every event change
+     * @return registration used to stop listening, or null if eventId is invalid
+     */
+    public ListenerRegistration addWaitlistCounterListener(String eventId, Callback<Integer> cb) {
+        try {
+            ValidationHelper.requireNonEmpty(eventId, "eventId");
+        } catch (IllegalArgumentException e) {
+            cb.onError(e);
+            return null;
+        }
+        return db.collection("events").document(eventId)
+                .addSnapshotListener(metrics.listen("EventDB.addWaitlistCounterListener", (snapshot, e) -> {
+                    if (e != null) {
+                        cb.onError(e);
+                        return;
+                    }
+                    Long counter = snapshot != null ? snapshot.getLong(WAITLIST_COUNT) : null;
+                    cb.onSuccess(counter != null ? counter.intValue() : null);
+                }));
     }
 
     /**
@@ -440,14 +889,14 @@ public class EventDB {
             cb.onError(e);
             return;
         }
-        db.collection("events").document(eventId)
+        metrics.read("EventDB.getAcceptedCount", db.collection("events").document(eventId)
                 .collection("accepted")
-                .get()
-                .addOnSuccessListener(querySnapshot -> {
+                .get())
+                .addOnSuccessListener(inFlow(), querySnapshot -> {
                     int count = querySnapshot != null ? querySnapshot.size() : 0;
                     cb.onSuccess(count);
                 })
-                .addOnFailureListener(cb::onError);
+                .addOnFailureListener(inFlow(), cb::onError);
     }
 
     /**
@@ -463,32 +912,263 @@ public class EventDB {
 
     /**
      * Adds an entrant to the waitlist with optional location.
+     * Does not check capacity; see {@link #joinWaitlistAtomic} for the guarded join.
      *
      * @param eventId the event ID
      * @param deviceId the device ID
      * @param location optional location (GeoPoint) - captured when joining
      * @param cb callback for completion
      */
-    public void joinWaitlist(String eventId, String deviceId, com.google.firebase.firestore.GeoPoint location, Callback<Void> cb) {
-        try {
-            ValidationHelper.requireNonEmpty(eventId, "eventId");
-            ValidationHelper.requireNonEmpty(deviceId, "deviceId");
-        } catch (IllegalArgumentException e) {
-            cb.onError(e);
-            return;
-        }
-        Map<String, Object> data = new HashMap<>();
-        data.put("deviceId", deviceId);
-        data.put("request_time", FieldValue.serverTimestamp());
-        if (location != null) {
-            data.put("joinLocation", location);
+    public void joinWaitlist(String eventId, String deviceId, com.google.firebase.firestore.GeoPoint location, Callback<Void> cb) {
+        try {
+            ValidationHelper.requireNonEmpty(eventId, "eventId");
+            ValidationHelper.requireNonEmpty(deviceId, "deviceId");
+        } catch (IllegalArgumentException e) {
+            cb.onError(e);
+            return;
+        }
+        runJoinTransaction("EventDB.joinWaitlist", eventId, deviceId, location, false, new Callback<JoinOutcome>() {
+            @Override
+            public void onSuccess(JoinOutcome outcome) {
+                cb.onSuccess(null);
+            }
+
+            @Override
+            public void onError(@NonNull Exception e) {
+                cb.onError(e);
+            }
+        });
+    }
+
+    /**
+     * Adds an entrant to the waitlist in a single transaction that checks membership
+     * and capacity first. Capacity is read from the waitlistCount counter on the event
+     * document, which the same transaction increments, so concurrent joiners cannot
+     * both take the last spot. Events created before the counter existed get it
+     * backfilled from a count query on their first guarded join.
+     *
+     * @param eventId the event ID
+     * @param deviceId the device ID of the entrant
+     * @param location optional join location
+     * @param cb callback with JOINED, ALREADY_JOINED, NOT_ELIGIBLE or FULL
+     */
+    public void joinWaitlistAtomic(String eventId, String deviceId, com.google.firebase.firestore.GeoPoint location,
+                                   Callback<JoinOutcome> cb) {
+        try {
+            ValidationHelper.requireNonEmpty(eventId, "eventId");
+            ValidationHelper.requireNonEmpty(deviceId, "deviceId");
+        } catch (IllegalArgumentException e) {
+            cb.onError(e);
+            return;
+        }
+        String operation = "EventDB.joinWaitlistAtomic";
+        runJoinTransaction(operation, eventId, deviceId, location, true, new Callback<JoinOutcome>() {
+            @Override
+            public void onSuccess(JoinOutcome outcome) {
+                if (outcome != null) {
+                    cb.onSuccess(outcome);
+                    return;
+                }
+                ensureWaitlistCounter(eventId, new Callback<Void>() {
+                    @Override
+                    public void onSuccess(Void value) {
+                        runJoinTransaction(operation, eventId, deviceId, location, true, new Callback<JoinOutcome>() {
+                            @Override
+                            public void onSuccess(JoinOutcome retried) {
+                                if (retried == null) {
+                                    cb.onError(new IllegalStateException("Waitlist counter is missing"));
+                                    return;
+                                }
+                                cb.onSuccess(retried);
+                            }
+
+                            @Override
+                            public void onError(@NonNull Exception e) {
+                                cb.onError(e);
+                            }
+                        });
+                    }
+
+                    @Override
+                    public void onError(@NonNull Exception e) {
+                        cb.onError(e);
+                    }
+                });
+            }
+
+            @Override
+            public void onError(@NonNull Exception e) {
+                cb.onError(e);
+            }
+        });
+    }
+
+    /**
+     * Reads the entry, the membership and the event, then writes the entry and bumps
+     * the counter. Entrants whose membership does not allow joining are turned away
+     * inside the transaction, so a stale status on the device or a concurrent draw
+     * cannot overwrite it. Events from before membership documents also have their
+     * old winners and accepted entries checked. Reports null instead of an outcome
+     * when capacity is enforced but the event has no counter yet.
+     */
+    private void runJoinTransaction(String operation, String eventId, String deviceId,
+                                    com.google.firebase.firestore.GeoPoint location,
+                                    boolean enforceCapacity, Callback<JoinOutcome> cb) {
+        DocumentReference eventRef = db.collection("events").document(eventId);
+        DocumentReference entryRef = eventRef.collection("waitingList").document(deviceId);
+        DocumentReference membershipRef = eventRef.collection(MEMBERSHIPS).document(deviceId);
+        DocumentReference historyRef = entrantEventRef(deviceId, eventId);
+        Map<String, Object> data = new HashMap<>();
+        data.put("deviceId", deviceId);
+        data.put("request_time", FieldValue.serverTimestamp());
+        putJoinLocation(data, location);
+        Map<String, Object> membership = membershipData(deviceId, MembershipStatus.WAITLISTED);
+        Map<String, Object> history = entrantEventData(eventId, MembershipStatus.WAITLISTED);
+        DocumentReference chunkRef = locationChunkRef(eventId, deviceId);
+        Map<String, Object> chunk = location != null
+                ? locationChunkData(deviceId, packLocation(location, MembershipStatus.WAITLISTED, System.currentTimeMillis()))
+                : null;
+
+        writingEvent(eventId, metrics.transaction(operation, 3, chunk != null ? 5 : 4, db.runTransaction(transaction -> {
+                    if (transaction.get(entryRef).exists()) {
+                        return JoinOutcome.ALREADY_JOINED;
+                    }
+                    DocumentSnapshot member = transaction.get(membershipRef);
+                    DocumentSnapshot event = transaction.get(eventRef);
+                    MembershipStatus current = member.exists()
+                            ? MembershipStatus.fromValue(member.getString("status")) : null;
+                    if (current == MembershipStatus.WAITLISTED) {
+                        return JoinOutcome.ALREADY_JOINED;
+                    }
+                    if (current != null && !current.canJoinWaitlist()) {
+                        return JoinOutcome.NOT_ELIGIBLE;
+                    }
+                    if (!member.exists() && !Boolean.TRUE.equals(event.getBoolean(MEMBERSHIP_DOCS))
+                            && (transaction.get(eventRef.collection("winners").document(deviceId)).exists()
+                            || transaction.get(eventRef.collection("accepted").document(deviceId)).exists())) {
+                        return JoinOutcome.NOT_ELIGIBLE;
+                    }
+                    Long count = event.getLong(WAITLIST_COUNT);
+                    if (count == null) {
+                        if (enforceCapacity) {
+                            return null;
+                        }
+                        transaction.set(entryRef, data);
+                        transaction.set(membershipRef, membership, SetOptions.merge());
+                        transaction.set(historyRef, history, SetOptions.merge());
+                        if (chunk != null) {
+                            transaction.set(chunkRef, chunk, SetOptions.merge());
+                        }
+                        return JoinOutcome.JOINED;
+                    }
+                    Long maxCapacity = event.getLong("maxCapacity");
+                    if (enforceCapacity && maxCapacity != null && maxCapacity > 0 && count >= maxCapacity) {
+                        return JoinOutcome.FULL;
+                    }
+                    transaction.set(entryRef, data);
+                    transaction.set(membershipRef, membership, SetOptions.merge());
+                    transaction.set(historyRef, history, SetOptions.merge());
+                    if (chunk != null) {
+                        transaction.set(chunkRef, chunk, SetOptions.merge());
+                    }
+                    transaction.update(eventRef, WAITLIST_COUNT, FieldValue.increment(1));
+                    return JoinOutcome.JOINED;
+                })))
+                .addOnSuccessListener(inFlow(), outcome -> {
+                    if (outcome == JoinOutcome.JOINED) {
+                        WaitlistCountCache.getInstance().invalidate(eventId);
+                    }
+                    cb.onSuccess(outcome);
+                })
+                .addOnFailureListener(inFlow(), cb::onError);
+    }
+
+    /**
+     * Adds a join location to a waitlist entry after the join has committed, so the
+     * join never waits on a location fix. The entry keeps any location it already
+     * has, and nothing is written once the entrant has left the waitlist.
+     *
+     * @param eventId the event ID
+     * @param deviceId the device ID of the entrant
+     * @param location the captured location
+     * @param cb callback with true if the location was stored
+     */
+    public void attachJoinLocation(String eventId, String deviceId,
+                                   com.google.firebase.firestore.GeoPoint location, Callback<Boolean> cb) {
+        try {
+            ValidationHelper.requireNonEmpty(eventId, "eventId");
+            ValidationHelper.requireNonEmpty(deviceId, "deviceId");
+            ValidationHelper.requireNonNull(location, "location");
+        } catch (IllegalArgumentException e) {
+            cb.onError(e);
+            return;
+        }
+        DocumentReference entryRef = db.collection("events").document(eventId)
+                .collection("waitingList").document(deviceId);
+        DocumentReference chunkRef = locationChunkRef(eventId, deviceId);
+        metrics.transaction("EventDB.attachJoinLocation", 1, 2, db.runTransaction(transaction -> {
+                    DocumentSnapshot entry = transaction.get(entryRef);
+                    if (!entry.exists() || entry.getGeoPoint("joinLocation") != null) {
+                        return false;
+                    }
+                    Map<String, Object> data = new HashMap<>();
+                    putJoinLocation(data, location);
+                    transaction.update(entryRef, data);
+                    Timestamp requested = entry.getTimestamp("request_time");
+                    long joinedAt = requested != null ? requested.toDate().getTime() : System.currentTimeMillis();
+                    transaction.set(chunkRef, locationChunkData(deviceId,
+                            packLocation(location, MembershipStatus.WAITLISTED, joinedAt)), SetOptions.merge());
+                    return true;
+                }))
+                .addOnSuccessListener(inFlow(), cb::onSuccess)
+                .addOnFailureListener(inFlow(), cb::onError);
+    }
+
+    /**
+     * Makes sure the event document carries a waitlist counter. Events created before
+     * the counter existed get one from a count query, written only if still missing.
+     */
+    private void ensureWaitlistCounter(String eventId, Callback<Void> cb) {
+        DocumentReference eventRef = db.collection("events").document(eventId);
+        metrics.read("EventDB.ensureWaitlistCounter", eventRef.get())
+                .addOnSuccessListener(inFlow(), snapshot -> {
+                    if (snapshot == null || !snapshot.exists()) {
+                        cb.onError(new RuntimeException("Event not found"));
+                        return;
+                    }
+                    if (snapshot.getLong(WAITLIST_COUNT) != null) {
+                        cb.onSuccess(null);
+                        return;
+                    }
+                    metrics.read("EventDB.ensureWaitlistCounter", eventRef.collection("waitingList")
+                            .count()
+                            .get(AggregateSource.SERVER))
+                            .addOnSuccessListener(inFlow(), countSnapshot -> {
+                                long count = countSnapshot.getCount();
+                                writingEvent(eventId, metrics.transaction("EventDB.ensureWaitlistCounter", 1, 1,
+                                        db.runTransaction(transaction -> {
+                                            DocumentSnapshot event = transaction.get(eventRef);
+                                            if (event.exists() && event.getLong(WAITLIST_COUNT) == null) {
+                                                transaction.update(eventRef, WAITLIST_COUNT, count);
+                                            }
+                                            return null;
+                                        })))
+                                        .addOnSuccessListener(inFlow(), unused -> cb.onSuccess(null))
+                                        .addOnFailureListener(inFlow(), cb::onError);
+                            })
+                            .addOnFailureListener(inFlow(), cb::onError);
+                })
+                .addOnFailureListener(inFlow(), cb::onError);
+    }
+
+    /**
+     * Lowers the waitlist counter inside a transaction, unless the event predates it.
+     */
+    private static void decrementWaitlistCounter(Transaction transaction, DocumentReference eventRef,
+                                                 DocumentSnapshot event, int removed) {
+        if (removed > 0 && event.exists() && event.getLong(WAITLIST_COUNT) != null) {
+            transaction.update(eventRef, WAITLIST_COUNT, FieldValue.increment(-removed));
         }
-
-        db.collection("events").document(eventId)
-                .collection("waitingList").document(deviceId)
-                .set(data)
-                .addOnSuccessListener(unused -> cb.onSuccess(null))
-                .addOnFailureListener(cb::onError);
     }
 
     /**
@@ -506,11 +1186,31 @@ public class EventDB {
             cb.onError(e);
             return;
         }
-        db.collection("events").document(eventId)
-                .collection("waitingList").document(deviceId)
-                .delete()
-                .addOnSuccessListener(unused -> cb.onSuccess(null))
-                .addOnFailureListener(cb::onError);
+        DocumentReference eventRef = db.collection("events").document(eventId);
+        DocumentReference entryRef = eventRef.collection("waitingList").document(deviceId);
+        DocumentReference membershipRef = eventRef.collection(MEMBERSHIPS).document(deviceId);
+        DocumentReference historyRef = entrantEventRef(deviceId, eventId);
+        DocumentReference chunkRef = locationChunkRef(eventId, deviceId);
+        writingEvent(eventId, metrics.transaction("EventDB.leaveWaitlist", 2, 4, db.runTransaction(transaction -> {
+                    DocumentSnapshot entry = transaction.get(entryRef);
+                    if (!entry.exists()) {
+                        return null;
+                    }
+                    DocumentSnapshot event = transaction.get(eventRef);
+                    transaction.delete(entryRef);
+                    transaction.delete(membershipRef);
+                    transaction.delete(historyRef);
+                    if (entry.getGeoPoint("joinLocation") != null) {
+                        transaction.set(chunkRef, locationChunkData(deviceId, null), SetOptions.merge());
+                    }
+                    decrementWaitlistCounter(transaction, eventRef, event, 1);
+                    return null;
+                })))
+                .addOnSuccessListener(inFlow(), unused -> {
+                    WaitlistCountCache.getInstance().invalidate(eventId);
+                    cb.onSuccess(null);
+                })
+                .addOnFailureListener(inFlow(), cb::onError);
     }
 
     /**
@@ -529,73 +1229,56 @@ public class EventDB {
             return;
         }
         
-        WriteBatch batch = db.batch();
-        
-        DocumentReference waitlistRef = db.collection("events")
-            .document(eventId)
-            .collection("waitingList")
-            .document(deviceId);
-        batch.delete(waitlistRef);
-        
-        DocumentReference winnersRef = db.collection("events")
-            .document(eventId)
-            .collection("winners")
-            .document(deviceId);
-        batch.delete(winnersRef);
-        
-        DocumentReference acceptedRef = db.collection("events")
-            .document(eventId)
-            .collection("accepted")
-            .document(deviceId);
-        batch.delete(acceptedRef);
-        
-        // Remove from cancelled
-        DocumentReference cancelledRef = db.collection("events")
-            .document(eventId)
-            .collection("cancelled")
-            .document(deviceId);
-        batch.delete(cancelledRef);
-        
-        DocumentReference replacementRef = db.collection("events")
-            .document(eventId)
-            .collection("replacementPool")
-            .document(deviceId);
-        batch.delete(replacementRef);
-        
-        batch.commit()
-            .addOnSuccessListener(unused -> {
+        DocumentReference eventRef = db.collection("events").document(eventId);
+        DocumentReference waitlistRef = eventRef.collection("waitingList").document(deviceId);
+        DocumentReference winnersRef = eventRef.collection("winners").document(deviceId);
+        DocumentReference acceptedRef = eventRef.collection("accepted").document(deviceId);
+        DocumentReference cancelledRef = eventRef.collection("cancelled").document(deviceId);
+        DocumentReference replacementRef = eventRef.collection("replacementPool").document(deviceId);
+        DocumentReference membershipRef = eventRef.collection(MEMBERSHIPS).document(deviceId);
+
+        DocumentReference historyRef = entrantEventRef(deviceId, eventId);
+        DocumentReference chunkRef = locationChunkRef(eventId, deviceId);
+
+        writingEvent(eventId, metrics.transaction("EventDB.removeEntrantFromEvent", 2, 9, db.runTransaction(transaction -> {
+                boolean onWaitlist = transaction.get(waitlistRef).exists();
+                DocumentSnapshot event = transaction.get(eventRef);
+                transaction.delete(waitlistRef);
+                transaction.delete(winnersRef);
+                transaction.delete(acceptedRef);
+                transaction.delete(cancelledRef);
+                transaction.delete(replacementRef);
+                transaction.delete(membershipRef);
+                transaction.delete(historyRef);
+                transaction.set(chunkRef, locationChunkData(deviceId, null), SetOptions.merge());
+                decrementWaitlistCounter(transaction, eventRef, event, onWaitlist ? 1 : 0);
+                return null;
+            })))
+            .addOnSuccessListener(inFlow(), unused -> {
                 android.util.Log.d("EventDB", "Removed entrant from all event subcollections: " + deviceId);
+                WaitlistCountCache.getInstance().invalidate(eventId);
                 cb.onSuccess(null);
             })
-            .addOnFailureListener(e -> {
+            .addOnFailureListener(inFlow(), e -> {
                 android.util.Log.e("EventDB", "Failed to remove entrant from event: " + eventId, e);
                 cb.onError(e);
             });
     }
 
-    public void getWaitlist(String eventId, Callback<List<Map<String, Object>>> cb) {
+    public void getWaitlist(String eventId, Callback<List<EntrantEntry>> cb) {
         try {
             ValidationHelper.requireNonEmpty(eventId, "eventId");
         } catch (IllegalArgumentException e) {
             cb.onError(e);
             return;
         }
-        db.collection("events").document(eventId)
+        Callback<List<EntrantEntry>> result = onMain(cb);
+        metrics.read("EventDB.getWaitlist", db.collection("events").document(eventId)
                 .collection("waitingList")
-                .get()
-                .addOnSuccessListener(querySnapshot -> {
-                    List<Map<String, Object>> entries = new ArrayList<>();
-                    if (querySnapshot != null) {
-                        for (QueryDocumentSnapshot doc : querySnapshot) {
-                            Map<String, Object> entry = new HashMap<>();
-                            entry.put("deviceId", doc.getId());
-                            entry.put("requestTime", doc.get("request_time"));
-                            entries.add(entry);
-                        }
-                    }
-                    cb.onSuccess(entries);
-                })
-                .addOnFailureListener(cb::onError);
+                .get())
+                .addOnSuccessListener(metrics.inFlow(background), querySnapshot ->
+                        result.onSuccess(DocumentMappers.entrantEntries(querySnapshot, "request_time")))
+                .addOnFailureListener(inFlow(), cb::onError);
     }
 
     // The following function is from Anthropic Claude Sonnet 4.5, "How to batch update multiple Firestore subcollections for winners and replacement pool?", 2024-01-15
@@ -619,10 +1302,20 @@ public class EventDB {
             return;
         }
 
-        readWaitlistLocations(eventId, winnerIds, replacementIds, new Callback<Map<String, com.google.firebase.firestore.GeoPoint>>() {
+        ensureWaitlistCounter(eventId, new Callback<Void>() {
             @Override
-            public void onSuccess(Map<String, com.google.firebase.firestore.GeoPoint> locationMap) {
-                writeWinnersWithLocation(eventId, winnerIds, replacementIds, locationMap, cb);
+            public void onSuccess(Void value) {
+                readWaitlistLocations(eventId, winnerIds, replacementIds, new Callback<Map<String, com.google.firebase.firestore.GeoPoint>>() {
+                    @Override
+                    public void onSuccess(Map<String, com.google.firebase.firestore.GeoPoint> locationMap) {
+                        writeWinnersWithLocation(eventId, winnerIds, replacementIds, locationMap, cb);
+                    }
+
+                    @Override
+                    public void onError(@NonNull Exception e) {
+                        cb.onError(e);
+                    }
+                });
             }
 
             @Override
@@ -644,24 +1337,31 @@ public class EventDB {
             return;
         }
 
-        LocationReadAggregator aggregator = new LocationReadAggregator(allIds.size(), callback);
-
+        List<AsyncResult<Map<String, com.google.firebase.firestore.GeoPoint>>> reads = new ArrayList<>(allIds.size());
         for (String deviceId : allIds) {
-            db.collection("events").document(eventId)
+            AsyncResult<Map<String, com.google.firebase.firestore.GeoPoint>> read = AsyncResult.pending();
+            metrics.read("EventDB.markWinners", db.collection("events").document(eventId)
                     .collection("waitingList").document(deviceId)
-                    .get()
-                    .addOnSuccessListener(snapshot -> {
-                        com.google.firebase.firestore.GeoPoint location = null;
+                    .get())
+                    .addOnSuccessListener(inFlow(), snapshot -> {
+                        // Entrants with no waitlist entry are left out of the map so they are not counted as removed.
                         if (snapshot != null && snapshot.exists()) {
-                            location = snapshot.getGeoPoint("joinLocation");
+                            read.complete(Collections.singletonMap(deviceId, snapshot.getGeoPoint("joinLocation")));
+                        } else {
+                            read.complete(Collections.emptyMap());
                         }
-                        aggregator.onLocationRead(deviceId, location);
                     })
-                    .addOnFailureListener(e -> {
-                        android.util.Log.w("EventDB", "Failed to read location for " + deviceId, e);
-                        aggregator.onLocationRead(deviceId, null);
-                    });
+                    // Without the entry the counter cannot be kept right, so the draw fails instead.
+                    .addOnFailureListener(inFlow(), read::fail);
+            reads.add(read);
         }
+        AsyncResult.allOf(reads).whenDone(maps -> {
+            Map<String, com.google.firebase.firestore.GeoPoint> locationMap = new HashMap<>();
+            for (Map<String, com.google.firebase.firestore.GeoPoint> map : maps) {
+                locationMap.putAll(map);
+            }
+            callback.onSuccess(locationMap);
+        }, callback::onError);
     }
 
     private void writeWinnersWithLocation(String eventId, List<String> winnerIds, List<String> replacementIds,
@@ -669,13 +1369,13 @@ public class EventDB {
                                          Callback<Void> cb) {
         WriteBatch batch = db.batch();
         long timestamp = System.currentTimeMillis();
+        Map<String, Object> projection = new HashMap<>();
 
         for (String winnerId : winnerIds) {
-            DocumentReference waitlistRef = db.collection("events")
-                    .document(eventId)
-                    .collection("waitingList")
-                    .document(winnerId);
-            batch.delete(waitlistRef);
+            if (locationMap.containsKey(winnerId)) {
+                batch.delete(db.collection("events").document(eventId)
+                        .collection("waitingList").document(winnerId));
+            }
 
             DocumentReference winnersRef = db.collection("events")
                     .document(eventId)
@@ -685,19 +1385,19 @@ public class EventDB {
             data.put("deviceId", winnerId);
             data.put("invitedAt", timestamp);
             com.google.firebase.firestore.GeoPoint location = locationMap.get(winnerId);
+            putJoinLocation(data, location);
             if (location != null) {
-                data.put("joinLocation", location);
+                projection.put(winnerId, packLocation(location, MembershipStatus.INVITED, timestamp));
             }
             batch.set(winnersRef, data);
         }
 
         if (replacementIds != null && !replacementIds.isEmpty()) {
             for (String replacementId : replacementIds) {
-                DocumentReference waitlistRef = db.collection("events")
-                        .document(eventId)
-                        .collection("waitingList")
-                        .document(replacementId);
-                batch.delete(waitlistRef);
+                if (locationMap.containsKey(replacementId)) {
+                    batch.delete(db.collection("events").document(eventId)
+                            .collection("waitingList").document(replacementId));
+                }
 
                 DocumentReference poolRef = db.collection("events")
                         .document(eventId)
@@ -707,40 +1407,72 @@ public class EventDB {
                 data.put("deviceId", replacementId);
                 data.put("addedToPoolAt", timestamp);
                 com.google.firebase.firestore.GeoPoint location = locationMap.get(replacementId);
+                putJoinLocation(data, location);
                 if (location != null) {
-                    data.put("joinLocation", location);
+                    projection.put(replacementId, packLocation(location, MembershipStatus.REPLACEMENT_POOL, timestamp));
                 }
                 batch.set(poolRef, data);
             }
         }
 
-        batch.commit()
-                .addOnSuccessListener(unused -> cb.onSuccess(null))
-                .addOnFailureListener(cb::onError);
-    }
+        // locationMap only holds entrants whose waitlist entry existed, and only those are deleted
+        int removed = locationMap.size();
+        if (removed > 0) {
+            batch.update(db.collection("events").document(eventId), WAITLIST_COUNT, FieldValue.increment(-removed));
+        }
+
+        Map<Integer, Map<String, Object>> chunks = groupByChunk(projection);
+        for (Map.Entry<Integer, Map<String, Object>> chunk : chunks.entrySet()) {
+            batch.set(locationChunkRef(eventId, chunk.getKey()), locationChunkData(chunk.getValue()), SetOptions.merge());
+        }
 
-    private static class LocationReadAggregator {
-        private final int total;
-        private final Map<String, com.google.firebase.firestore.GeoPoint> locationMap;
-        private final Callback<Map<String, com.google.firebase.firestore.GeoPoint>> callback;
-        private int completed;
+        int writes = winnerIds.size() + (replacementIds != null ? replacementIds.size() : 0)
+                + removed + (removed > 0 ? 1 : 0) + chunks.size();
+        writingEvent(eventId, metrics.write("EventDB.markWinners", writes, batch.commit()))
+                .addOnSuccessListener(inFlow(), unused -> {
+                    WaitlistCountCache.getInstance().invalidate(eventId);
+                    writeDrawMemberships(eventId, winnerIds, replacementIds).whenDone(cb);
+                })
+                .addOnFailureListener(inFlow(), cb::onError);
+    }
 
-        LocationReadAggregator(int total, Callback<Map<String, com.google.firebase.firestore.GeoPoint>> callback) {
-            this.total = total;
-            this.callback = callback;
-            this.locationMap = new HashMap<>();
-            this.completed = 0;
+    /**
+     * Writes the membership document and history status of every drawn entrant,
+     * after the draw itself has committed. Two writes per entrant would halve the
+     * draw size one batch can hold, so they go in batches of their own.
+     */
+    private AsyncResult<Void> writeDrawMemberships(String eventId, List<String> winnerIds, List<String> replacementIds) {
+        Map<String, MembershipStatus> statuses = new LinkedHashMap<>();
+        for (String winnerId : winnerIds) {
+            statuses.put(winnerId, MembershipStatus.INVITED);
+        }
+        if (replacementIds != null) {
+            for (String replacementId : replacementIds) {
+                statuses.put(replacementId, MembershipStatus.REPLACEMENT_POOL);
+            }
         }
 
-        synchronized void onLocationRead(String deviceId, com.google.firebase.firestore.GeoPoint location) {
-            locationMap.put(deviceId, location);
-            completed++;
-            if (completed >= total) {
-                callback.onSuccess(locationMap);
+        List<AsyncResult<Void>> commits = new ArrayList<>();
+        WriteBatch batch = db.batch();
+        int writes = 0;
+        for (Map.Entry<String, MembershipStatus> entry : statuses.entrySet()) {
+            if (writes + 2 > BATCH_SIZE) {
+                commits.add(AsyncResult.fromTask(metrics.write("EventDB.markWinners.memberships", writes, batch.commit()),
+                        inFlow()));
+                batch = db.batch();
+                writes = 0;
             }
+            batch.set(membershipRef(eventId, entry.getKey()), membershipData(entry.getKey(), entry.getValue()),
+                    SetOptions.merge());
+            batch.set(entrantEventRef(entry.getKey(), eventId), entrantEventData(eventId, entry.getValue()),
+                    SetOptions.merge());
+            writes += 2;
         }
+        commits.add(AsyncResult.fromTask(metrics.write("EventDB.markWinners.memberships", writes, batch.commit()),
+                inFlow()));
+        return AsyncResult.allOf(commits).map(committed -> null);
     }
-    
+
     /**
      * Marks entrants as winners without replacement pool.
      *
@@ -770,14 +1502,14 @@ public class EventDB {
         if (entrantId != null && !entrantId.isEmpty()) {
             promoteReplacementToWinner(eventId, entrantId, cb);
         } else {
-            getReplacementPool(eventId, new Callback<List<Map<String, Object>>>() {
+            getReplacementPool(eventId, new Callback<List<EntrantEntry>>() {
                 @Override
-                public void onSuccess(List<Map<String, Object>> pool) {
+                public void onSuccess(List<EntrantEntry> pool) {
                     if (pool == null || pool.isEmpty()) {
                         cb.onError(new IllegalStateException("Replacement pool is empty"));
                         return;
                     }
-                    String firstReplacementId = (String) pool.get(0).get("deviceId");
+                    String firstReplacementId = pool.get(0).getDeviceId();
                     promoteReplacementToWinner(eventId, firstReplacementId, cb);
                 }
 
@@ -790,10 +1522,10 @@ public class EventDB {
     }
     
     private void promoteReplacementToWinner(String eventId, String entrantId, Callback<Void> cb) {
-        db.collection("events").document(eventId)
+        metrics.read("EventDB.promoteReplacementToWinner", db.collection("events").document(eventId)
                 .collection("replacementPool").document(entrantId)
-                .get()
-                .addOnSuccessListener(snapshot -> {
+                .get())
+                .addOnSuccessListener(inFlow(), snapshot -> {
                     if (snapshot == null || !snapshot.exists()) {
                         cb.onError(new IllegalArgumentException("Entrant not in replacement pool"));
                         return;
@@ -817,16 +1549,23 @@ public class EventDB {
                     data.put("deviceId", entrantId);
                     data.put("invitedAt", System.currentTimeMillis());
                     data.put("isReplacement", true);
+                    putJoinLocation(data, location);
+                    batch.set(winnersRef, data);
+                    batch.set(membershipRef(eventId, entrantId),
+                            membershipData(entrantId, MembershipStatus.INVITED), SetOptions.merge());
+                    batch.set(entrantEventRef(entrantId, eventId),
+                            entrantEventData(eventId, MembershipStatus.INVITED), SetOptions.merge());
                     if (location != null) {
-                        data.put("joinLocation", location);
+                        batch.set(locationChunkRef(eventId, entrantId), locationChunkData(entrantId,
+                                packLocation(location, MembershipStatus.INVITED, System.currentTimeMillis())),
+                                SetOptions.merge());
                     }
-                    batch.set(winnersRef, data);
 
-                    batch.commit()
-                            .addOnSuccessListener(unused -> cb.onSuccess(null))
-                            .addOnFailureListener(cb::onError);
+                    metrics.write("EventDB.promoteReplacementToWinner", location != null ? 5 : 4, batch.commit())
+                            .addOnSuccessListener(inFlow(), unused -> cb.onSuccess(null))
+                            .addOnFailureListener(inFlow(), cb::onError);
                 })
-                .addOnFailureListener(cb::onError);
+                .addOnFailureListener(inFlow(), cb::onError);
     }
 
     /**
@@ -851,7 +1590,7 @@ public class EventDB {
                 .collection("winners")
                 .document(deviceId);
         
-        winnersRef.get().addOnSuccessListener(snapshot -> {
+        metrics.read("EventDB.setEnrolledStatus", winnersRef.get()).addOnSuccessListener(inFlow(), snapshot -> {
             com.google.firebase.firestore.GeoPoint location = null;
             if (snapshot != null && snapshot.exists()) {
                 location = snapshot.getGeoPoint("joinLocation");
@@ -869,18 +1608,23 @@ public class EventDB {
             Map<String, Object> data = new HashMap<>();
             data.put("deviceId", deviceId);
             data.put("respondedAt", System.currentTimeMillis());
+            putJoinLocation(data, location);
+            batch.set(targetRef, data);
+            MembershipStatus status = enrolled ? MembershipStatus.ACCEPTED : MembershipStatus.CANCELLED;
+            batch.set(membershipRef(eventId, deviceId), membershipData(deviceId, status), SetOptions.merge());
+            batch.set(entrantEventRef(deviceId, eventId), entrantEventData(eventId, status), SetOptions.merge());
             if (location != null) {
-                data.put("joinLocation", location);
+                batch.set(locationChunkRef(eventId, deviceId), locationChunkData(deviceId,
+                        packLocation(location, status, System.currentTimeMillis())), SetOptions.merge());
             }
-            batch.set(targetRef, data);
 
-            batch.commit()
-                    .addOnSuccessListener(unused -> cb.onSuccess(null))
-                    .addOnFailureListener(cb::onError);
-        }).addOnFailureListener(cb::onError);
+            metrics.write("EventDB.setEnrolledStatus", location != null ? 5 : 4, batch.commit())
+                    .addOnSuccessListener(inFlow(), unused -> cb.onSuccess(null))
+                    .addOnFailureListener(inFlow(), cb::onError);
+        }).addOnFailureListener(inFlow(), cb::onError);
     }
 
-    public void getWinners(String eventId, Callback<List<Map<String, Object>>> cb) {
+    public void getWinners(String eventId, Callback<List<EntrantEntry>> cb) {
         try {
             ValidationHelper.requireNonEmpty(eventId, "eventId");
         } catch (IllegalArgumentException e) {
@@ -888,25 +1632,16 @@ public class EventDB {
             return;
         }
 
-        db.collection("events").document(eventId)
+        Callback<List<EntrantEntry>> result = onMain(cb);
+        metrics.read("EventDB.getWinners", db.collection("events").document(eventId)
                 .collection("winners")
-                .get()
-                .addOnSuccessListener(querySnapshot -> {
-                    List<Map<String, Object>> winners = new ArrayList<>();
-                    if (querySnapshot != null) {
-                        for (QueryDocumentSnapshot doc : querySnapshot) {
-                            Map<String, Object> data = new HashMap<>();
-                            data.put("deviceId", doc.getId());
-                            data.put("invitedAt", doc.get("invitedAt"));
-                            winners.add(data);
-                        }
-                    }
-                    cb.onSuccess(winners);
-                })
-                .addOnFailureListener(cb::onError);
+                .get())
+                .addOnSuccessListener(metrics.inFlow(background), querySnapshot ->
+                        result.onSuccess(DocumentMappers.entrantEntries(querySnapshot, "invitedAt")))
+                .addOnFailureListener(inFlow(), cb::onError);
     }
 
-    public void getCancelled(String eventId, Callback<List<Map<String, Object>>> cb) {
+    public void getCancelled(String eventId, Callback<List<EntrantEntry>> cb) {
         try {
             ValidationHelper.requireNonEmpty(eventId, "eventId");
         } catch (IllegalArgumentException e) {
@@ -914,25 +1649,16 @@ public class EventDB {
             return;
         }
 
-        db.collection("events").document(eventId)
+        Callback<List<EntrantEntry>> result = onMain(cb);
+        metrics.read("EventDB.getCancelled", db.collection("events").document(eventId)
                 .collection("cancelled")
-                .get()
-                .addOnSuccessListener(querySnapshot -> {
-                    List<Map<String, Object>> cancelled = new ArrayList<>();
-                    if (querySnapshot != null) {
-                        for (QueryDocumentSnapshot doc : querySnapshot) {
-                            Map<String, Object> data = new HashMap<>();
-                            data.put("deviceId", doc.getId());
-                            data.put("respondedAt", doc.get("respondedAt"));
-                            cancelled.add(data);
-                        }
-                    }
-                    cb.onSuccess(cancelled);
-                })
-                .addOnFailureListener(cb::onError);
+                .get())
+                .addOnSuccessListener(metrics.inFlow(background), querySnapshot ->
+                        result.onSuccess(DocumentMappers.entrantEntries(querySnapshot, "respondedAt")))
+                .addOnFailureListener(inFlow(), cb::onError);
     }
 
-    public void getEnrolled(String eventId, Callback<List<Map<String, Object>>> cb) {
+    public void getEnrolled(String eventId, Callback<List<EntrantEntry>> cb) {
         try {
             ValidationHelper.requireNonEmpty(eventId, "eventId");
         } catch (IllegalArgumentException e) {
@@ -940,25 +1666,75 @@ public class EventDB {
             return;
         }
 
-        db.collection("events").document(eventId)
+        Callback<List<EntrantEntry>> result = onMain(cb);
+        metrics.read("EventDB.getEnrolled", db.collection("events").document(eventId)
                 .collection("accepted")
-                .get()
-                .addOnSuccessListener(querySnapshot -> {
-                    List<Map<String, Object>> enrolled = new ArrayList<>();
-                    if (querySnapshot != null) {
-                        for (QueryDocumentSnapshot doc : querySnapshot) {
-                            Map<String, Object> data = new HashMap<>();
-                            data.put("deviceId", doc.getId());
-                            data.put("respondedAt", doc.get("respondedAt"));
-                            enrolled.add(data);
-                        }
-                    }
-                    cb.onSuccess(enrolled);
-                })
-                .addOnFailureListener(cb::onError);
+                .get())
+                .addOnSuccessListener(metrics.inFlow(background), querySnapshot ->
+                        result.onSuccess(DocumentMappers.entrantEntries(querySnapshot, "respondedAt")))
+                .addOnFailureListener(inFlow(), cb::onError);
     }
     
-    public void getReplacementPool(String eventId, Callback<List<Map<String, Object>>> cb) {
+    /**
+     * Gets the entrants already checked in to an event.
+     *
+     * @param eventId the event ID
+     * @param cb callback with deviceId and checkedInAt for each check-in
+     */
+    public void getCheckIns(String eventId, Callback<List<EntrantEntry>> cb) {
+        try {
+            ValidationHelper.requireNonEmpty(eventId, "eventId");
+        } catch (IllegalArgumentException e) {
+            cb.onError(e);
+            return;
+        }
+
+        Callback<List<EntrantEntry>> result = onMain(cb);
+        metrics.read("EventDB.getCheckIns", db.collection("events").document(eventId)
+                .collection(CHECK_INS)
+                .get())
+                .addOnSuccessListener(metrics.inFlow(background), querySnapshot ->
+                        result.onSuccess(DocumentMappers.entrantEntries(querySnapshot, "checkedInAt")))
+                .addOnFailureListener(inFlow(), cb::onError);
+    }
+
+    /**
+     * Writes check-in records in a single batch.
+     *
+     * @param eventId the event ID
+     * @param checkIns device ID to check-in time in epoch millis, at most 500 entries
+     * @param cb callback for completion
+     */
+    public void recordCheckIns(String eventId, Map<String, Long> checkIns, Callback<Void> cb) {
+        try {
+            ValidationHelper.requireNonEmpty(eventId, "eventId");
+        } catch (IllegalArgumentException e) {
+            cb.onError(e);
+            return;
+        }
+        if (checkIns == null || checkIns.isEmpty()) {
+            cb.onSuccess(null);
+            return;
+        }
+        if (checkIns.size() > BATCH_SIZE) {
+            cb.onError(new IllegalArgumentException("At most " + BATCH_SIZE + " check-ins per batch"));
+            return;
+        }
+
+        WriteBatch batch = db.batch();
+        for (Map.Entry<String, Long> checkIn : checkIns.entrySet()) {
+            Map<String, Object> data = new HashMap<>();
+            data.put("deviceId", checkIn.getKey());
+            data.put("checkedInAt", checkIn.getValue());
+            batch.set(db.collection("events").document(eventId)
+                    .collection(CHECK_INS).document(checkIn.getKey()), data);
+        }
+        metrics.write("EventDB.recordCheckIns", checkIns.size(), batch.commit())
+                .addOnSuccessListener(inFlow(), unused -> cb.onSuccess(null))
+                .addOnFailureListener(inFlow(), cb::onError);
+    }
+
+    public void getReplacementPool(String eventId, Callback<List<EntrantEntry>> cb) {
         try {
             ValidationHelper.requireNonEmpty(eventId, "eventId");
         } catch (IllegalArgumentException e) {
@@ -966,28 +1742,20 @@ public class EventDB {
             return;
         }
 
-        db.collection("events").document(eventId)
+        Callback<List<EntrantEntry>> result = onMain(cb);
+        metrics.read("EventDB.getReplacementPool", db.collection("events").document(eventId)
                 .collection("replacementPool")
-                .get()
-                .addOnSuccessListener(querySnapshot -> {
-                    List<Map<String, Object>> pool = new ArrayList<>();
-                    if (querySnapshot != null) {
-                        for (QueryDocumentSnapshot doc : querySnapshot) {
-                            Map<String, Object> data = new HashMap<>();
-                            data.put("deviceId", doc.getId());
-                            data.put("addedToPoolAt", doc.get("addedToPoolAt"));
-                            pool.add(data);
-                        }
-                    }
-                    cb.onSuccess(pool);
-                })
-                .addOnFailureListener(cb::onError);
+                .get())
+                .addOnSuccessListener(metrics.inFlow(background), querySnapshot ->
+                        result.onSuccess(DocumentMappers.entrantEntries(querySnapshot, "addedToPoolAt")))
+                .addOnFailureListener(inFlow(), cb::onError);
     }
 
     // The following function is from Anthropic Claude Sonnet 4.5, "How to query multiple Firestore collections in parallel and combine results?", 2024-01-15
     /**
-     * Gets all entrants with location data for map display.
-     * Aggregates from waitlist, winners, accepted, and cancelled collections.
+     * Gets all entrants with location data by scanning the waitlist, winners,
+     * accepted, and cancelled collections. Reads every entrant; the map uses
+     * {@link #getEntrantLocations} instead.
      *
      * @param eventId the event ID
      * @param callback callback with list of entries including location
@@ -999,71 +1767,307 @@ public class EventDB {
             callback.onError(e);
             return;
         }
+        scanEntrantsWithLocations(eventId, onMain(callback));
+    }
 
-        List<Map<String, Object>> allEntries = Collections.synchronizedList(new ArrayList<>());
-        EntrantLocationAggregator aggregator = new EntrantLocationAggregator(4, allEntries, callback);
-
-        queryCollectionWithLocation(eventId, "waitingList", "request_time", aggregator);
-        queryCollectionWithLocation(eventId, "winners", "invitedAt", aggregator);
-        queryCollectionWithLocation(eventId, "accepted", "respondedAt", aggregator);
-        queryCollectionWithLocation(eventId, "cancelled", "respondedAt", aggregator);
+    /**
+     * Queries the four lists in parallel. Reports on the background executor.
+     */
+    private void scanEntrantsWithLocations(String eventId, Callback<List<Map<String, Object>>> callback) {
+        List<AsyncResult<List<Map<String, Object>>>> queries = Arrays.asList(
+                queryCollectionWithLocation(eventId, "waitingList", "request_time"),
+                queryCollectionWithLocation(eventId, "winners", "invitedAt"),
+                queryCollectionWithLocation(eventId, "accepted", "respondedAt"),
+                queryCollectionWithLocation(eventId, "cancelled", "respondedAt"));
+        // A list that fails to load is skipped rather than failing the whole scan.
+        AsyncResult.successesOf(queries).whenDone(lists -> {
+            List<Map<String, Object>> allEntries = new ArrayList<>();
+            for (List<Map<String, Object>> entries : lists) {
+                allEntries.addAll(entries);
+            }
+            callback.onSuccess(allEntries);
+        }, callback::onError);
     }
 
-    private void queryCollectionWithLocation(String eventId, String collectionName, String timestampField,
-                                             EntrantLocationAggregator aggregator) {
+    private AsyncResult<List<Map<String, Object>>> queryCollectionWithLocation(String eventId, String collectionName,
+                                                                             String timestampField) {
         android.util.Log.d("EventDB", "Querying " + collectionName + " for eventId: " + eventId);
-        db.collection("events").document(eventId)
-                .collection(collectionName)
-                .get()
-                .addOnSuccessListener(querySnapshot -> {
-                    int totalDocs = querySnapshot != null ? querySnapshot.size() : 0;
-                    int withLocation = 0;
+        AsyncResult<List<Map<String, Object>>> entries = AsyncResult.fromTask(metrics.read("EventDB.getEntrantsWithLocations",
+                db.collection("events").document(eventId)
+                        .collection(collectionName)
+                        .get()), metrics.inFlow(background))
+                .map(querySnapshot -> {
+                    List<Map<String, Object>> withLocation = new ArrayList<>();
                     if (querySnapshot != null) {
                         for (QueryDocumentSnapshot doc : querySnapshot) {
                             com.google.firebase.firestore.GeoPoint location = doc.getGeoPoint("joinLocation");
                             if (location != null) {
-                                withLocation++;
                                 Map<String, Object> entry = new HashMap<>();
                                 entry.put("deviceId", doc.getId());
                                 entry.put("joinLocation", location);
                                 entry.put("timestamp", doc.get(timestampField));
-                                aggregator.addEntry(entry);
+                                entry.put("status", locationStatus(collectionName).getValue());
+                                withLocation.add(entry);
                             }
                         }
                     }
-                    android.util.Log.d("EventDB", collectionName + ": " + totalDocs + " total, " + withLocation + " with location");
-                    aggregator.onCollectionComplete();
-                })
-                .addOnFailureListener(e -> {
-                    android.util.Log.w("EventDB", "Failed to query " + collectionName, e);
-                    aggregator.onCollectionComplete();
+                    int totalDocs = querySnapshot != null ? querySnapshot.size() : 0;
+                    android.util.Log.d("EventDB", collectionName + ": " + totalDocs + " total, " + withLocation.size() + " with location");
+                    return withLocation;
                 });
+        entries.whenDone(value -> { }, e -> android.util.Log.w("EventDB", "Failed to query " + collectionName, e));
+        return entries;
     }
 
-    private static class EntrantLocationAggregator {
-        private final int totalCollections;
-        private final List<Map<String, Object>> entries;
-        private final Callback<List<Map<String, Object>>> callback;
-        private int completed;
+    /**
+     * Gets every entrant of the event that joined with a location from the location
+     * projection: at most 16 chunk documents, each holding
+     * packed [lat, lng, status, millis] entries keyed by device ID. Every membership
+     * transition updates the projection in the same write. Events whose projection was
+     * never built fall back to {@link #getEntrantsWithLocations} once and build it.
+     *
+     * @param eventId the event ID
+     * @param cb callback with entries holding deviceId, joinLocation, status and timestamp
+     */
+    public void getEntrantLocations(String eventId, Callback<List<Map<String, Object>>> cb) {
+        try {
+            ValidationHelper.requireNonEmpty(eventId, "eventId");
+        } catch (IllegalArgumentException e) {
+            cb.onError(e);
+            return;
+        }
+        Callback<List<Map<String, Object>>> result = onMain(cb);
+        metrics.read("EventDB.getEntrantLocations", db.collection("events").document(eventId)
+                .collection(LOCATION_CHUNKS)
+                .get())
+                .addOnSuccessListener(metrics.inFlow(background), querySnapshot -> {
+                    boolean complete = false;
+                    List<Map<String, Object>> entries = new ArrayList<>();
+                    if (querySnapshot != null) {
+                        for (QueryDocumentSnapshot doc : querySnapshot) {
+                            complete |= Boolean.TRUE.equals(doc.getBoolean(CHUNK_COMPLETE));
+                            unpackLocationChunk(doc.get(CHUNK_ENTRIES), entries);
+                        }
+                    }
+                    if (complete) {
+                        result.onSuccess(entries);
+                        return;
+                    }
+                    scanEntrantsWithLocations(eventId, new Callback<List<Map<String, Object>>>() {
+                        @Override
+                        public void onSuccess(List<Map<String, Object>> scanned) {
+                            rebuildLocationProjection(eventId, scanned);
+                            result.onSuccess(scanned);
+                        }
+
+                        @Override
+                        public void onError(@NonNull Exception e) {
+                            result.onError(e);
+                        }
+                    });
+                })
+                .addOnFailureListener(inFlow(), cb::onError);
+    }
 
-        EntrantLocationAggregator(int totalCollections, List<Map<String, Object>> entries,
-                                 Callback<List<Map<String, Object>>> callback) {
-            this.totalCollections = totalCollections;
-            this.entries = entries;
-            this.callback = callback;
-            this.completed = 0;
+    private static void unpackLocationChunk(Object chunkEntries, List<Map<String, Object>> out) {
+        if (!(chunkEntries instanceof Map)) {
+            return;
+        }
+        for (Map.Entry<?, ?> packed : ((Map<?, ?>) chunkEntries).entrySet()) {
+            if (!(packed.getValue() instanceof List) || ((List<?>) packed.getValue()).size() < 4) {
+                continue;
+            }
+            List<?> values = (List<?>) packed.getValue();
+            Map<String, Object> entry = new HashMap<>();
+            entry.put("deviceId", packed.getKey());
+            entry.put("joinLocation", new com.google.firebase.firestore.GeoPoint(
+                    ((Number) values.get(0)).doubleValue(), ((Number) values.get(1)).doubleValue()));
+            entry.put("status", values.get(2));
+            entry.put("timestamp", values.get(3));
+            out.add(entry);
         }
+    }
 
-        synchronized void addEntry(Map<String, Object> entry) {
-            entries.add(entry);
+    /**
+     * Writes the projection from a full scan and marks every chunk complete. Best
+     * effort: if it fails the next map open scans again.
+     */
+    private void rebuildLocationProjection(String eventId, List<Map<String, Object>> scanned) {
+        Map<String, Object> projection = new HashMap<>();
+        for (Map<String, Object> entry : scanned) {
+            MembershipStatus status = MembershipStatus.fromValue((String) entry.get("status"));
+            long millis = DocumentMappers.millis(entry.get("timestamp"));
+            if (status != null) {
+                projection.put((String) entry.get("deviceId"), packLocation(
+                        (com.google.firebase.firestore.GeoPoint) entry.get("joinLocation"), status, millis));
+            }
+        }
+        Map<Integer, Map<String, Object>> chunks = groupByChunk(projection);
+        WriteBatch batch = db.batch();
+        for (int chunk = 0; chunk < LOCATION_CHUNK_COUNT; chunk++) {
+            Map<String, Object> entries = chunks.get(chunk);
+            Map<String, Object> data = locationChunkData(entries != null ? entries : new HashMap<>());
+            data.put(CHUNK_COMPLETE, true);
+            batch.set(locationChunkRef(eventId, chunk), data, SetOptions.merge());
         }
+        metrics.write("EventDB.rebuildLocationProjection", LOCATION_CHUNK_COUNT, batch.commit())
+                .addOnFailureListener(inFlow(), e -> android.util.Log.w("EventDB",
+                        "Failed to build location projection for " + eventId, e));
+    }
 
-        synchronized void onCollectionComplete() {
-            completed++;
-            if (completed >= totalCollections) {
-                callback.onSuccess(entries);
+    /**
+     * Gets the entrants in one list who joined within a radius. Runs geohash range
+     * queries over the box around the circle, then keeps entries inside the exact
+     * radius, nearest first. Entries carry deviceId, joinLocation, timestamp and
+     * distanceMeters. Entries written before the geohash field existed are not found.
+     *
+     * @param eventId the event ID
+     * @param collection waitingList, winners, replacementPool, accepted or cancelled
+     * @param center the point to measure from
+     * @param radiusMeters the radius in meters
+     * @param cb callback with the matching entries
+     */
+    public void getEntrantsNear(String eventId, String collection, com.google.firebase.firestore.GeoPoint center,
+                                double radiusMeters, Callback<List<Map<String, Object>>> cb) {
+        String timestampField;
+        try {
+            ValidationHelper.requireNonEmpty(eventId, "eventId");
+            ValidationHelper.requireNonNull(center, "center");
+            if (!(radiusMeters > 0)) {
+                throw new IllegalArgumentException("radiusMeters must be positive");
             }
+            ValidationHelper.requireNonEmpty(collection, "collection");
+            timestampField = locationTimestampField(collection);
+        } catch (IllegalArgumentException e) {
+            cb.onError(e);
+            return;
+        }
+        double lat = center.getLatitude();
+        double lng = center.getLongitude();
+        double[] box = GeoHash.boundsForRadius(lat, lng, radiusMeters);
+        Callback<List<Map<String, Object>>> result = onMain(cb);
+        queryGeohashRanges("EventDB.getEntrantsNear", eventId, collection, timestampField,
+                GeoHash.rangesForBounds(box[0], box[1], box[2], box[3]),
+                new Callback<List<Map<String, Object>>>() {
+                    @Override
+                    public void onSuccess(List<Map<String, Object>> candidates) {
+                        List<Map<String, Object>> matches = new ArrayList<>();
+                        for (Map<String, Object> entry : candidates) {
+                            com.google.firebase.firestore.GeoPoint point =
+                                    (com.google.firebase.firestore.GeoPoint) entry.get("joinLocation");
+                            double distance = GeoHash.distanceMeters(lat, lng, point.getLatitude(), point.getLongitude());
+                            if (distance <= radiusMeters) {
+                                entry.put("distanceMeters", distance);
+                                matches.add(entry);
+                            }
+                        }
+                        Collections.sort(matches, (a, b) -> Double.compare(
+                                (Double) a.get("distanceMeters"), (Double) b.get("distanceMeters")));
+                        result.onSuccess(matches);
+                    }
+
+                    @Override
+                    public void onError(@NonNull Exception e) {
+                        result.onError(e);
+                    }
+                });
+    }
+
+    /**
+     * Gets the entrants in one list who joined inside a box. West may be greater than
+     * east for a box that crosses the antimeridian. Entries carry deviceId,
+     * joinLocation and timestamp.
+     *
+     * @param eventId the event ID
+     * @param collection waitingList, winners, replacementPool, accepted or cancelled
+     * @param southWest the south-west corner
+     * @param northEast the north-east corner
+     * @param cb callback with the matching entries
+     */
+    public void getEntrantsInBounds(String eventId, String collection,
+                                    com.google.firebase.firestore.GeoPoint southWest,
+                                    com.google.firebase.firestore.GeoPoint northEast,
+                                    Callback<List<Map<String, Object>>> cb) {
+        String timestampField;
+        try {
+            ValidationHelper.requireNonEmpty(eventId, "eventId");
+            ValidationHelper.requireNonNull(southWest, "southWest");
+            ValidationHelper.requireNonNull(northEast, "northEast");
+            ValidationHelper.requireNonEmpty(collection, "collection");
+            timestampField = locationTimestampField(collection);
+        } catch (IllegalArgumentException e) {
+            cb.onError(e);
+            return;
+        }
+        double south = southWest.getLatitude();
+        double west = southWest.getLongitude();
+        double north = northEast.getLatitude();
+        double east = northEast.getLongitude();
+        Callback<List<Map<String, Object>>> result = onMain(cb);
+        queryGeohashRanges("EventDB.getEntrantsInBounds", eventId, collection, timestampField,
+                GeoHash.rangesForBounds(south, west, north, east),
+                new Callback<List<Map<String, Object>>>() {
+                    @Override
+                    public void onSuccess(List<Map<String, Object>> candidates) {
+                        List<Map<String, Object>> matches = new ArrayList<>();
+                        for (Map<String, Object> entry : candidates) {
+                            com.google.firebase.firestore.GeoPoint point =
+                                    (com.google.firebase.firestore.GeoPoint) entry.get("joinLocation");
+                            if (GeoHash.contains(south, west, north, east, point.getLatitude(), point.getLongitude())) {
+                                matches.add(entry);
+                            }
+                        }
+                        result.onSuccess(matches);
+                    }
+
+                    @Override
+                    public void onError(@NonNull Exception e) {
+                        result.onError(e);
+                    }
+                });
+    }
+
+    /**
+     * Runs one ordered geohash query per range in parallel and merges the results.
+     * Fails if any range fails, since a partial answer would undercount.
+     */
+    private void queryGeohashRanges(String operation, String eventId, String collection, String timestampField,
+                                    List<String[]> ranges, Callback<List<Map<String, Object>>> cb) {
+        List<AsyncResult<List<Map<String, Object>>>> queries = new ArrayList<>(ranges.size());
+        for (String[] range : ranges) {
+            queries.add(AsyncResult.fromTask(metrics.read(operation, db.collection("events").document(eventId)
+                    .collection(collection)
+                    .orderBy(GEOHASH)
+                    .startAt(range[0])
+                    .endAt(range[1])
+                    .get()), metrics.inFlow(background))
+                    .map(querySnapshot -> {
+                        List<Map<String, Object>> entries = new ArrayList<>();
+                        if (querySnapshot != null) {
+                            for (QueryDocumentSnapshot doc : querySnapshot) {
+                                com.google.firebase.firestore.GeoPoint location = doc.getGeoPoint("joinLocation");
+                                if (location != null) {
+                                    Map<String, Object> entry = new HashMap<>();
+                                    entry.put("deviceId", doc.getId());
+                                    entry.put("joinLocation", location);
+                                    entry.put("timestamp", doc.get(timestampField));
+                                    entries.add(entry);
+                                }
+                            }
+                        }
+                        return entries;
+                    }));
         }
+        AsyncResult.allOf(queries).whenDone(lists -> {
+            // Neighbouring ranges can overlap at their edges; keep one entry per device.
+            Map<String, Map<String, Object>> byDevice = new HashMap<>();
+            for (List<Map<String, Object>> entries : lists) {
+                for (Map<String, Object> entry : entries) {
+                    byDevice.put((String) entry.get("deviceId"), entry);
+                }
+            }
+            cb.onSuccess(new ArrayList<>(byDevice.values()));
+        }, cb::onError);
     }
 
     /**
@@ -1083,43 +2087,48 @@ public class EventDB {
             return;
         }
 
-        db.collection("events").document(eventId)
-                .collection("waitingList").document(entrantId)
-                .get()
-                .addOnSuccessListener(snapshot -> {
-                    if (snapshot == null || !snapshot.exists()) {
-                        cb.onError(new IllegalArgumentException("Entrant not in waitlist"));
-                        return;
-                    }
-
-                    com.google.firebase.firestore.GeoPoint location = snapshot.getGeoPoint("joinLocation");
+        DocumentReference eventRef = db.collection("events").document(eventId);
+        DocumentReference waitlistRef = eventRef.collection("waitingList").document(entrantId);
+        DocumentReference winnersRef = eventRef.collection("winners").document(entrantId);
 
-                    WriteBatch batch = db.batch();
+        DocumentReference chunkRef = locationChunkRef(eventId, entrantId);
 
-                    DocumentReference waitlistRef = db.collection("events")
-                            .document(eventId)
-                            .collection("waitingList")
-                            .document(entrantId);
-                    batch.delete(waitlistRef);
+        writingEvent(eventId, metrics.transaction("EventDB.promoteFromWaitlist", 2, 6, db.runTransaction(transaction -> {
+                    DocumentSnapshot entry = transaction.get(waitlistRef);
+                    if (!entry.exists()) {
+                        return false;
+                    }
+                    DocumentSnapshot event = transaction.get(eventRef);
+                    com.google.firebase.firestore.GeoPoint location = entry.getGeoPoint("joinLocation");
 
-                    DocumentReference winnersRef = db.collection("events")
-                            .document(eventId)
-                            .collection("winners")
-                            .document(entrantId);
                     Map<String, Object> data = new HashMap<>();
                     data.put("deviceId", entrantId);
                     data.put("invitedAt", System.currentTimeMillis());
                     data.put("isReplacement", true);
+                    putJoinLocation(data, location);
+                    transaction.delete(waitlistRef);
+                    transaction.set(winnersRef, data);
+                    transaction.set(eventRef.collection(MEMBERSHIPS).document(entrantId),
+                            membershipData(entrantId, MembershipStatus.INVITED), SetOptions.merge());
+                    transaction.set(entrantEventRef(entrantId, eventId),
+                            entrantEventData(eventId, MembershipStatus.INVITED), SetOptions.merge());
                     if (location != null) {
-                        data.put("joinLocation", location);
+                        transaction.set(chunkRef, locationChunkData(entrantId,
+                                packLocation(location, MembershipStatus.INVITED, System.currentTimeMillis())),
+                                SetOptions.merge());
                     }
-                    batch.set(winnersRef, data);
-
-                    batch.commit()
-                            .addOnSuccessListener(unused -> cb.onSuccess(null))
-                            .addOnFailureListener(cb::onError);
+                    decrementWaitlistCounter(transaction, eventRef, event, 1);
+                    return true;
+                })))
+                .addOnSuccessListener(inFlow(), promoted -> {
+                    if (!Boolean.TRUE.equals(promoted)) {
+                        cb.onError(new IllegalArgumentException("Entrant not in waitlist"));
+                        return;
+                    }
+                    WaitlistCountCache.getInstance().invalidate(eventId);
+                    cb.onSuccess(null);
                 })
-                .addOnFailureListener(cb::onError);
+                .addOnFailureListener(inFlow(), cb::onError);
     }
 
     /**
@@ -1161,67 +2170,11 @@ public class EventDB {
             logData.put("source", source);
         }
 
-        db.collection("events").document(eventId)
+        metrics.write("EventDB.logDeclineReplacement", logData, db.collection("events").document(eventId)
                 .collection("declineLogs")
-                .add(logData)
-                .addOnSuccessListener(unused -> cb.onSuccess(null))
-                .addOnFailureListener(cb::onError);
-    }
-
-    private Event parseEventFromDocument(DocumentSnapshot doc) {
-        try {
-            Event event = new Event();
-            event.setId(doc.getId());
-            event.setName(doc.getString("name"));
-            event.setDescription(doc.getString("description"));
-            event.setLocation(doc.getString("location"));
-            event.setOpen(doc.getBoolean("open") != null && doc.getBoolean("open"));
-            event.setOrganizerId(doc.getString("organizerId"));
-            event.setQrCode(doc.getString("qrCode"));
-            event.setMaxCapacity(doc.get("maxCapacity", Integer.class));
-
-            event.setEventDateTime(convertTimestampToString(doc.get("eventDateTime")));
-            event.setRegistrationOpen(convertTimestampToString(doc.get("registrationOpen")));
-            event.setRegistrationClose(convertTimestampToString(doc.get("registrationClose")));
-
-            Object tagsObj = doc.get("tags");
-            if (tagsObj instanceof List) {
-                @SuppressWarnings("unchecked")
-                List<String> tags = (List<String>) tagsObj;
-                event.setTags(tags);
-            } else {
-                event.setTags(null);
-            }
-
-            // Parse poster URL
-            event.setPosterUrl(doc.getString("posterUrl"));
-
-            return event;
-        } catch (Exception e) {
-            android.util.Log.e("EventDB", "Failed to parse event from document", e);
-            return null;
-        }
-    }
-
-    private String convertTimestampToString(Object value) {
-        if (value == null) {
-            return null;
-        }
-        if (value instanceof String) {
-            return (String) value;
-        }
-        if (value instanceof Timestamp) {
-            Timestamp timestamp = (Timestamp) value;
-            Date date = timestamp.toDate();
-            SimpleDateFormat isoFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss", Locale.US);
-            return isoFormat.format(date);
-        }
-        if (value instanceof Date) {
-            Date date = (Date) value;
-            SimpleDateFormat isoFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss", Locale.US);
-            return isoFormat.format(date);
-        }
-        return value.toString();
+                .add(logData))
+                .addOnSuccessListener(inFlow(), unused -> cb.onSuccess(null))
+                .addOnFailureListener(inFlow(), cb::onError);
     }
 
     /**
@@ -1238,6 +2191,7 @@ public class EventDB {
             return;
         }
         
+        eventCache.invalidate(eventId);
         DocumentReference eventRef = db.collection("events").document(eventId);
         
         String[] subcollections = {
@@ -1246,6 +2200,9 @@ public class EventDB {
             "accepted",
             "cancelled",
             "replacementPool",
+            MEMBERSHIPS,
+            CHECK_INS,
+            LOCATION_CHUNKS,
             "declineLogs"
         };
         
@@ -1267,12 +2224,12 @@ public class EventDB {
      * Deletes the event document itself.
      */
     private void deleteEventDocument(DocumentReference eventRef, String eventId, Callback<Void> cb) {
-        eventRef.delete()
-            .addOnSuccessListener(aVoid -> {
+        writingEvent(eventId, metrics.write("EventDB.deleteEvent", 1, eventRef.delete()))
+            .addOnSuccessListener(inFlow(), aVoid -> {
                 android.util.Log.d("EventDB", "Event deleted: " + eventId);
                 cb.onSuccess(null);
             })
-            .addOnFailureListener(e -> {
+            .addOnFailureListener(inFlow(), e -> {
                 android.util.Log.e("EventDB", "Failed to delete event: " + eventId, e);
                 cb.onError(e);
             });
@@ -1294,9 +2251,9 @@ public class EventDB {
         }
         
         String subcollectionName = subcollectionNames[index];
-        eventRef.collection(subcollectionName)
-            .get()
-            .addOnSuccessListener(querySnapshot -> {
+        metrics.read("EventDB.deleteEvent", eventRef.collection(subcollectionName)
+            .get())
+            .addOnSuccessListener(inFlow(), querySnapshot -> {
                 if (querySnapshot == null || querySnapshot.isEmpty()) {
                     deleteSubcollections(eventRef, subcollectionNames, index + 1, cb);
                     return;
@@ -1320,7 +2277,7 @@ public class EventDB {
                     }
                 });
             })
-            .addOnFailureListener(e -> {
+            .addOnFailureListener(inFlow(), e -> {
                 android.util.Log.w("EventDB", "Failed to query subcollection: " + subcollectionName, e);
                 deleteSubcollections(eventRef, subcollectionNames, index + 1, cb);
             });
@@ -1351,9 +2308,9 @@ public class EventDB {
             batch.delete(docs.get(i).getReference());
         }
         
-        batch.commit()
-            .addOnSuccessListener(aVoid -> deleteDocumentsInBatches(eventRef, subcollectionName, docs, batchIndex + 1, cb))
-            .addOnFailureListener(e -> {
+        metrics.write("EventDB.deleteEvent", endIndex - startIndex, batch.commit())
+            .addOnSuccessListener(inFlow(), aVoid -> deleteDocumentsInBatches(eventRef, subcollectionName, docs, batchIndex + 1, cb))
+            .addOnFailureListener(inFlow(), e -> {
                 android.util.Log.w("EventDB", "Failed to delete batch " + (batchIndex + 1) + " of subcollection: " + subcollectionName, e);
                 deleteDocumentsInBatches(eventRef, subcollectionName, docs, batchIndex + 1, cb);
             });
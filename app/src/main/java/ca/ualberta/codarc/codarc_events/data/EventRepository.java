@@ -0,0 +1,173 @@
+package ca.ualberta.codarc.codarc_events.data;
+
+import com.google.firebase.firestore.GeoPoint;
+import com.google.firebase.firestore.ListenerRegistration;
+
+import java.util.List;
+import java.util.Map;
+
+import ca.ualberta.codarc.codarc_events.models.EntrantEntry;
+import ca.ualberta.codarc.codarc_events.models.Event;
+import ca.ualberta.codarc.codarc_events.models.MembershipStatus;
+
+/**
+ * Event storage used by the controllers.
+ * {@link EventDB} is the Firestore implementation; the in-memory model in the
+ * unit tests' {@code data.memory} mirrors its document access so controller
+ * flows can run on a plain JVM.
+ */
+public interface EventRepository {
+
+    /**
+     * Adds or updates an event and keeps the tag counts in step.
+     */
+    void addEvent(Event event, EventDB.Callback<Void> cb);
+
+    /**
+     * Delivers the full event list now and again whenever it changes, until the
+     * returned subscription is paused or removed. Subscribers share one listener.
+     */
+    SnapshotSubscriptions.Subscription subscribeAllEvents(EventDB.Callback<List<Event>> cb);
+
+    void getAllEventsOnce(EventDB.Callback<List<Event>> cb);
+
+    /**
+     * Gets one page of events that have a poster, ordered by poster URL then ID.
+     *
+     * @param after the last event of the previous page, or null for the first page
+     */
+    void getEventsWithPosters(Event after, int limit, EventDB.Callback<List<Event>> cb);
+
+    /**
+     * Gets an organizer's events, newest event date first.
+     */
+    void getEventsByOrganizer(String organizerId, int limit, EventDB.Callback<List<Event>> cb);
+
+    void getEvent(String eventId, EventDB.Callback<Event> cb);
+
+    void eventExists(String eventId, EventDB.Callback<Boolean> cb);
+
+    void isEntrantOnWaitlist(String eventId, String deviceId, EventDB.Callback<Boolean> cb);
+
+    void isEntrantWinner(String eventId, String deviceId, EventDB.Callback<Boolean> cb);
+
+    void isEntrantAccepted(String eventId, String deviceId, EventDB.Callback<Boolean> cb);
+
+    void isEntrantCancelled(String eventId, String deviceId, EventDB.Callback<Boolean> cb);
+
+    /**
+     * Reads the entrant's membership document; null means no membership.
+     */
+    void getMembershipStatus(String eventId, String deviceId, EventDB.Callback<MembershipStatus> cb);
+
+    /**
+     * Reports false if the entrant is already waitlisted, invited or accepted.
+     */
+    void canJoinWaitlist(String eventId, String deviceId, EventDB.Callback<Boolean> cb);
+
+    void getWaitlistCount(String eventId, EventDB.Callback<Integer> cb);
+
+    /**
+     * Listens to the waitlist counter on the event.
+     *
+     * @return registration used to stop listening, or null if eventId is invalid
+     */
+    ListenerRegistration addWaitlistCounterListener(String eventId, EventDB.Callback<Integer> cb);
+
+    void getAcceptedCount(String eventId, EventDB.Callback<Integer> cb);
+
+    void joinWaitlist(String eventId, String deviceId, EventDB.Callback<Void> cb);
+
+    void joinWaitlist(String eventId, String deviceId, GeoPoint location, EventDB.Callback<Void> cb);
+
+    /**
+     * Joins the waitlist in one transaction that rejects duplicates and entrants
+     * whose membership does not allow joining, and enforces the event's max
+     * capacity against its waitlist counter.
+     */
+    void joinWaitlistAtomic(String eventId, String deviceId, GeoPoint location,
+                            EventDB.Callback<EventDB.JoinOutcome> cb);
+
+    /**
+     * Adds a join location to an existing waitlist entry that has none yet.
+     */
+    void attachJoinLocation(String eventId, String deviceId, GeoPoint location, EventDB.Callback<Boolean> cb);
+
+    void leaveWaitlist(String eventId, String deviceId, EventDB.Callback<Void> cb);
+
+    /**
+     * Removes the entrant from every membership list of the event.
+     */
+    void removeEntrantFromEvent(String eventId, String deviceId, EventDB.Callback<Void> cb);
+
+    void getWaitlist(String eventId, EventDB.Callback<List<EntrantEntry>> cb);
+
+    /**
+     * Moves the given entrants off the waitlist into winners and the replacement pool.
+     */
+    void markWinners(String eventId, List<String> winnerIds, List<String> replacementIds,
+                     EventDB.Callback<Void> cb);
+
+    void markWinners(String eventId, List<String> entrantIds, EventDB.Callback<Void> cb);
+
+    /**
+     * Promotes a replacement to winner, or the first one in the pool if entrantId is null.
+     */
+    void markReplacement(String eventId, String entrantId, EventDB.Callback<Void> cb);
+
+    /**
+     * Moves a winner to accepted (true) or cancelled (false).
+     */
+    void setEnrolledStatus(String eventId, String deviceId, Boolean enrolled, EventDB.Callback<Void> cb);
+
+    void getWinners(String eventId, EventDB.Callback<List<EntrantEntry>> cb);
+
+    void getCancelled(String eventId, EventDB.Callback<List<EntrantEntry>> cb);
+
+    void getEnrolled(String eventId, EventDB.Callback<List<EntrantEntry>> cb);
+
+    void getReplacementPool(String eventId, EventDB.Callback<List<EntrantEntry>> cb);
+
+    /**
+     * Gets every entrant checked in to the event, with the check-in time.
+     */
+    void getCheckIns(String eventId, EventDB.Callback<List<EntrantEntry>> cb);
+
+    /**
+     * Writes check-in records (device ID to epoch millis) in one batch of at most 500.
+     */
+    void recordCheckIns(String eventId, Map<String, Long> checkIns, EventDB.Callback<Void> cb);
+
+    /**
+     * Gets every entrant of the event that joined with a location by scanning each list.
+     */
+    void getEntrantsWithLocations(String eventId, EventDB.Callback<List<Map<String, Object>>> callback);
+
+    /**
+     * Gets every entrant of the event that joined with a location, with their current
+     * status, from the per-event location projection.
+     */
+    void getEntrantLocations(String eventId, EventDB.Callback<List<Map<String, Object>>> cb);
+
+    /**
+     * Gets the entrants in one list who joined within a radius of a point, nearest first.
+     */
+    void getEntrantsNear(String eventId, String collection, GeoPoint center, double radiusMeters,
+                         EventDB.Callback<List<Map<String, Object>>> cb);
+
+    /**
+     * Gets the entrants in one list who joined inside a box.
+     */
+    void getEntrantsInBounds(String eventId, String collection, GeoPoint southWest, GeoPoint northEast,
+                             EventDB.Callback<List<Map<String, Object>>> cb);
+
+    void promoteFromWaitlist(String eventId, String entrantId, EventDB.Callback<Void> cb);
+
+    void logDeclineReplacement(String eventId, String declinedEntrantId, String replacementEntrantId,
+                               String source, boolean replacementNotified, EventDB.Callback<Void> cb);
+
+    /**
+     * Deletes an event and all of its subcollections.
+     */
+    void deleteEvent(String eventId, EventDB.Callback<Void> cb);
+}
@@ -0,0 +1,551 @@
+package ca.ualberta.codarc.codarc_events.data;
+
+import com.google.android.gms.tasks.Task;
+import com.google.firebase.Timestamp;
+import com.google.firebase.firestore.AggregateQuerySnapshot;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.EventListener;
+import com.google.firebase.firestore.GeoPoint;
+import com.google.firebase.firestore.QuerySnapshot;
+import com.google.firebase.storage.UploadTask;
+import com.google.gson.GsonBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executor;
+import java.util.function.LongSupplier;
+
+/**
+ * Records what the data layer costs in Firestore and Storage operations.
+ * Every DB class passes its tasks and listeners through here. Each call is counted
+ * against the current flow (for example "join" or "draw") together with the
+ * documents read or written, estimated bytes and latency. A controller opens its
+ * flow with {@link #openFlow} for the steps it issues; anything issued outside an
+ * open flow is counted against the screen in the foreground.
+ * When disabled, tasks are handed back untouched.
+ */
+public class FirestoreMetrics {
+
+    public static final String DEFAULT_FLOW = "other";
+
+    /** Upper bounds of the latency histogram buckets in milliseconds. */
+    private static final long[] BUCKET_BOUNDS_MS =
+            {1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 2000, 5000, 10000, 30000};
+
+    private static FirestoreMetrics instance;
+
+    private final LongSupplier nanoClock;
+    private final Map<String, Map<String, OperationStats>> flows = new TreeMap<>();
+    private volatile boolean enabled;
+    private volatile String screenFlow = DEFAULT_FLOW;
+    private final ThreadLocal<String> operationFlow = new ThreadLocal<>();
+    private long startedAtMillis = System.currentTimeMillis();
+
+    /**
+     * @return the process-wide metrics recorder (disabled until switched on)
+     */
+    public static synchronized FirestoreMetrics getInstance() {
+        if (instance == null) {
+            instance = new FirestoreMetrics(System::nanoTime);
+        }
+        return instance;
+    }
+
+    /**
+     * @param nanoClock monotonic time source in nanoseconds
+     */
+    public FirestoreMetrics(LongSupplier nanoClock) {
+        this.nanoClock = nanoClock;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Sets the flow for operations issued while no flow is open on the issuing
+     * thread, normally the screen in the foreground.
+     * Operations remember the flow that was current when they were issued.
+     *
+     * @param name flow name, or null to fall back to {@link #DEFAULT_FLOW}
+     */
+    public void setFlow(String name) {
+        screenFlow = flowName(name);
+    }
+
+    /**
+     * @return the innermost flow open on this thread, or the screen flow
+     */
+    public String getFlow() {
+        String open = operationFlow.get();
+        return open != null ? open : screenFlow;
+    }
+
+    /**
+     * Attributes operations issued on this thread to a flow until the returned
+     * scope is closed, which brings back whatever flow was current before.
+     * Callbacks run later on other threads; listeners attached through
+     * {@link #inFlow} open the flow again.
+     *
+     * @param name flow name, or null for {@link #DEFAULT_FLOW}
+     * @return the scope to close, best used with try-with-resources
+     */
+    public Scope openFlow(String name) {
+        String previous = operationFlow.get();
+        operationFlow.set(flowName(name));
+        return () -> {
+            if (previous != null) {
+                operationFlow.set(previous);
+            } else {
+                operationFlow.remove();
+            }
+        };
+    }
+
+    /**
+     * Wraps an executor so each command runs under the flow that is current now.
+     * Task listeners attached through it keep their flow, so the steps the data
+     * layer issues from its own listeners are charged to the flow that started
+     * them rather than to the screen.
+     *
+     * @param delegate executor that runs the commands
+     * @return an executor that reopens this thread's current flow around each command
+     */
+    public Executor inFlow(Executor delegate) {
+        String flow = getFlow();
+        return command -> {
+            // Open around the hand-off too, so an executor that records its own
+            // time under the submitting flow sees this one.
+            try (Scope outer = openFlow(flow)) {
+                delegate.execute(() -> {
+                    try (Scope inner = openFlow(flow)) {
+                        command.run();
+                    }
+                });
+            }
+        };
+    }
+
+    private static String flowName(String name) {
+        return name == null || name.isEmpty() ? DEFAULT_FLOW : name;
+    }
+
+    /**
+     * Tracks a read task. Documents and bytes are taken from the result.
+     *
+     * @param operation operation name, e.g. "EventDB.getEvent"
+     * @param task the task to observe
+     * @return the same task
+     */
+    public <R extends Task<?>> R read(String operation, R task) {
+        if (enabled && task != null) {
+            observe((Task<?>) task, getFlow(), operation, 0, 0, 0, nanoClock.getAsLong());
+        }
+        return task;
+    }
+
+    /**
+     * Tracks a write task that touches a known number of documents.
+     *
+     * @param operation operation name
+     * @param documents number of documents written (batch size for commits)
+     * @param task the task to observe
+     * @return the same task
+     */
+    public <R extends Task<?>> R write(String operation, int documents, R task) {
+        if (enabled && task != null) {
+            observe((Task<?>) task, getFlow(), operation, 0, documents, 0, nanoClock.getAsLong());
+        }
+        return task;
+    }
+
+    /**
+     * Tracks a single-document write, estimating its size from the written fields.
+     *
+     * @param operation operation name
+     * @param data fields being written
+     * @param task the task to observe
+     * @return the same task
+     */
+    public <R extends Task<?>> R write(String operation, Map<String, ?> data, R task) {
+        if (enabled && task != null) {
+            observe((Task<?>) task, getFlow(), operation, 0, 1, estimateSize(data), nanoClock.getAsLong());
+        }
+        return task;
+    }
+
+    /**
+     * Tracks a transaction. Counts are for one attempt that reads and writes everything;
+     * retries and early exits are not visible from the task.
+     *
+     * @param operation operation name
+     * @param documentsRead documents read by the transaction
+     * @param documentsWritten documents written on commit
+     * @param task the task to observe
+     * @return the same task
+     */
+    public <R extends Task<?>> R transaction(String operation, int documentsRead, int documentsWritten, R task) {
+        if (enabled && task != null) {
+            observe((Task<?>) task, getFlow(), operation, documentsRead, documentsWritten, 0, nanoClock.getAsLong());
+        }
+        return task;
+    }
+
+    /**
+     * Wraps a snapshot listener so every delivered snapshot is counted as reads.
+     * The flow is the one current when the listener was registered.
+     *
+     * @param operation operation name
+     * @param listener the listener to wrap
+     * @return a listener that records and then delegates
+     */
+    public <T> EventListener<T> listen(String operation, EventListener<T> listener) {
+        String listenerFlow = getFlow();
+        return (value, error) -> {
+            if (enabled) {
+                long docs = 0;
+                long bytes = 0;
+                if (value instanceof QuerySnapshot) {
+                    QuerySnapshot snapshot = (QuerySnapshot) value;
+                    docs = snapshot.getDocumentChanges() != null
+                            ? snapshot.getDocumentChanges().size() : snapshot.size();
+                } else if (value instanceof DocumentSnapshot) {
+                    docs = 1;
+                    bytes = estimateSize(((DocumentSnapshot) value).getData());
+                }
+                record(listenerFlow, operation, -1, error == null, docs, 0, bytes, 0);
+            }
+            listener.onEvent(value, error);
+        };
+    }
+
+    /**
+     * Records one completed operation.
+     *
+     * @param flowName flow the operation belongs to
+     * @param operation operation name
+     * @param latencyNanos latency, or a negative value to leave the histogram untouched
+     * @param success whether the operation succeeded
+     * @param docsRead documents read
+     * @param docsWritten documents written
+     * @param bytesRead estimated bytes read
+     * @param bytesWritten estimated bytes written
+     */
+    public synchronized void record(String flowName, String operation, long latencyNanos,
+                                    boolean success, long docsRead, long docsWritten,
+                                    long bytesRead, long bytesWritten) {
+        Map<String, OperationStats> operations = flows.get(flowName);
+        if (operations == null) {
+            operations = new TreeMap<>();
+            flows.put(flowName, operations);
+        }
+        OperationStats stats = operations.get(operation);
+        if (stats == null) {
+            stats = new OperationStats();
+            operations.put(operation, stats);
+        }
+        stats.calls++;
+        if (!success) {
+            stats.failures++;
+        }
+        stats.docsRead += docsRead;
+        stats.docsWritten += docsWritten;
+        stats.bytesRead += bytesRead;
+        stats.bytesWritten += bytesWritten;
+        if (latencyNanos >= 0) {
+            stats.addLatency(latencyNanos / 1_000_000);
+        }
+    }
+
+    /**
+     * Clears all recorded numbers.
+     */
+    public synchronized void reset() {
+        flows.clear();
+        startedAtMillis = System.currentTimeMillis();
+    }
+
+    /**
+     * Returns the stats for one operation in one flow.
+     *
+     * @return the stats, or null if nothing was recorded
+     */
+    public synchronized OperationStats getStats(String flowName, String operation) {
+        Map<String, OperationStats> operations = flows.get(flowName);
+        if (operations == null) {
+            return null;
+        }
+        OperationStats stats = operations.get(operation);
+        return stats != null ? stats.copy() : null;
+    }
+
+    /**
+     * @return all recorded numbers as pretty-printed JSON
+     */
+    public synchronized String toJson() {
+        Map<String, Object> root = new LinkedHashMap<>();
+        root.put("enabled", enabled);
+        root.put("since", startedAtMillis);
+        Map<String, Object> flowsJson = new LinkedHashMap<>();
+        for (Map.Entry<String, Map<String, OperationStats>> flowEntry : flows.entrySet()) {
+            long reads = 0;
+            long writes = 0;
+            Map<String, Object> operationsJson = new LinkedHashMap<>();
+            for (Map.Entry<String, OperationStats> op : flowEntry.getValue().entrySet()) {
+                reads += op.getValue().docsRead;
+                writes += op.getValue().docsWritten;
+                operationsJson.put(op.getKey(), op.getValue().toJsonMap());
+            }
+            Map<String, Object> flowJson = new LinkedHashMap<>();
+            flowJson.put("docsRead", reads);
+            flowJson.put("docsWritten", writes);
+            flowJson.put("operations", operationsJson);
+            flowsJson.put(flowEntry.getKey(), flowJson);
+        }
+        root.put("flows", flowsJson);
+        return new GsonBuilder().setPrettyPrinting().create().toJson(root);
+    }
+
+    /**
+     * @return a short per-flow, per-operation text summary for display
+     */
+    public synchronized String summary() {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, Map<String, OperationStats>> flowEntry : flows.entrySet()) {
+            sb.append(flowEntry.getKey()).append('\n');
+            for (Map.Entry<String, OperationStats> op : flowEntry.getValue().entrySet()) {
+                OperationStats s = op.getValue();
+                sb.append("  ").append(op.getKey())
+                        .append(": ").append(s.calls).append(" calls, ")
+                        .append(s.docsRead).append(" read, ")
+                        .append(s.docsWritten).append(" written");
+                if (s.latencyCount > 0) {
+                    sb.append(", p50 ").append(s.percentileMillis(0.50))
+                            .append("ms p95 ").append(s.percentileMillis(0.95))
+                            .append("ms p99 ").append(s.percentileMillis(0.99)).append("ms");
+                }
+                sb.append('\n');
+            }
+        }
+        return sb.toString();
+    }
+
+    private <T> void observe(Task<T> task, String flowName, String operation, long knownDocsRead,
+                             long docsWritten, long bytesWritten, long startNanos) {
+        task.addOnCompleteListener(done -> {
+            long latency = nanoClock.getAsLong() - startNanos;
+            if (!done.isSuccessful()) {
+                record(flowName, operation, latency, false, 0, 0, 0, 0);
+                return;
+            }
+            Object result = done.getResult();
+            long docsRead = knownDocsRead;
+            long bytesRead = 0;
+            long written = bytesWritten;
+            if (result instanceof QuerySnapshot) {
+                QuerySnapshot snapshot = (QuerySnapshot) result;
+                // Queries are billed at least one read even when empty.
+                docsRead = Math.max(1, snapshot.size());
+                if (snapshot.getDocuments() != null) {
+                    for (DocumentSnapshot doc : snapshot.getDocuments()) {
+                        bytesRead += estimateSize(doc.getData());
+                    }
+                }
+            } else if (result instanceof DocumentSnapshot) {
+                docsRead = 1;
+                bytesRead = estimateSize(((DocumentSnapshot) result).getData());
+            } else if (result instanceof AggregateQuerySnapshot) {
+                docsRead = 1;
+            } else if (result instanceof UploadTask.TaskSnapshot) {
+                written = ((UploadTask.TaskSnapshot) result).getBytesTransferred();
+            }
+            record(flowName, operation, latency, true, docsRead, docsWritten, bytesRead, written);
+        });
+    }
+
+    /**
+     * Approximates the stored size of a set of fields using Firestore's sizing
+     * rules (field names and strings are UTF-8 plus one byte, numbers are 8 bytes).
+     */
+    static long estimateSize(Map<String, ?> data) {
+        if (data == null) {
+            return 0;
+        }
+        long size = 0;
+        for (Map.Entry<String, ?> entry : data.entrySet()) {
+            size += stringSize(entry.getKey()) + valueSize(entry.getValue());
+        }
+        return size;
+    }
+
+    private static long valueSize(Object value) {
+        if (value == null || value instanceof Boolean) {
+            return 1;
+        }
+        if (value instanceof String) {
+            return stringSize((String) value);
+        }
+        if (value instanceof Number || value instanceof Timestamp || value instanceof java.util.Date) {
+            return 8;
+        }
+        if (value instanceof GeoPoint) {
+            return 16;
+        }
+        if (value instanceof DocumentReference) {
+            return stringSize(((DocumentReference) value).getPath());
+        }
+        if (value instanceof Map) {
+            @SuppressWarnings("unchecked")
+            Map<String, ?> map = (Map<String, ?>) value;
+            return estimateSize(map);
+        }
+        if (value instanceof List) {
+            long size = 0;
+            for (Object item : (List<?>) value) {
+                size += valueSize(item);
+            }
+            return size;
+        }
+        return 8;
+    }
+
+    private static long stringSize(String s) {
+        return s == null ? 1 : s.getBytes(StandardCharsets.UTF_8).length + 1;
+    }
+
+    /**
+     * An open flow, see {@link #openFlow}. Closing it does not throw.
+     */
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    /**
+     * Counters and latency histogram for one operation within one flow.
+     */
+    public static class OperationStats {
+        private long calls;
+        private long failures;
+        private long docsRead;
+        private long docsWritten;
+        private long bytesRead;
+        private long bytesWritten;
+        private final long[] buckets = new long[BUCKET_BOUNDS_MS.length + 1];
+        private long latencyCount;
+        private long latencySumMillis;
+        private long latencyMaxMillis;
+
+        public long getCalls() {
+            return calls;
+        }
+
+        public long getFailures() {
+            return failures;
+        }
+
+        public long getDocsRead() {
+            return docsRead;
+        }
+
+        public long getDocsWritten() {
+            return docsWritten;
+        }
+
+        public long getBytesRead() {
+            return bytesRead;
+        }
+
+        public long getBytesWritten() {
+            return bytesWritten;
+        }
+
+        /**
+         * Returns the upper bound of the histogram bucket holding the given percentile.
+         * Latencies above the last bucket report the slowest latency seen.
+         *
+         * @param percentile value between 0 and 1
+         * @return latency in milliseconds, or 0 if no latency was recorded
+         */
+        public long percentileMillis(double percentile) {
+            if (latencyCount == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(percentile * latencyCount);
+            long seen = 0;
+            for (int i = 0; i < BUCKET_BOUNDS_MS.length; i++) {
+                seen += buckets[i];
+                if (seen >= rank) {
+                    return BUCKET_BOUNDS_MS[i];
+                }
+            }
+            return latencyMaxMillis;
+        }
+
+        private void addLatency(long millis) {
+            int i = 0;
+            while (i < BUCKET_BOUNDS_MS.length && millis > BUCKET_BOUNDS_MS[i]) {
+                i++;
+            }
+            buckets[i]++;
+            latencyCount++;
+            latencySumMillis += millis;
+            latencyMaxMillis = Math.max(latencyMaxMillis, millis);
+        }
+
+        private OperationStats copy() {
+            OperationStats copy = new OperationStats();
+            copy.calls = calls;
+            copy.failures = failures;
+            copy.docsRead = docsRead;
+            copy.docsWritten = docsWritten;
+            copy.bytesRead = bytesRead;
+            copy.bytesWritten = bytesWritten;
+            System.arraycopy(buckets, 0, copy.buckets, 0, buckets.length);
+            copy.latencyCount = latencyCount;
+            copy.latencySumMillis = latencySumMillis;
+            copy.latencyMaxMillis = latencyMaxMillis;
+            return copy;
+        }
+
+        private Map<String, Object> toJsonMap() {
+            Map<String, Object> json = new LinkedHashMap<>();
+            json.put("calls", calls);
+            json.put("failures", failures);
+            json.put("docsRead", docsRead);
+            json.put("docsWritten", docsWritten);
+            json.put("bytesRead", bytesRead);
+            json.put("bytesWritten", bytesWritten);
+            if (latencyCount > 0) {
+                Map<String, Object> latency = new LinkedHashMap<>();
+                latency.put("p50", percentileMillis(0.50));
+                latency.put("p95", percentileMillis(0.95));
+                latency.put("p99", percentileMillis(0.99));
+                latency.put("max", latencyMaxMillis);
+                latency.put("mean", latencySumMillis / latencyCount);
+                List<Object> histogram = new ArrayList<>();
+                for (int i = 0; i < buckets.length; i++) {
+                    if (buckets[i] == 0) {
+                        continue;
+                    }
+                    Map<String, Object> bucket = new LinkedHashMap<>();
+                    bucket.put("le", i < BUCKET_BOUNDS_MS.length ? BUCKET_BOUNDS_MS[i] : "inf");
+                    bucket.put("count", buckets[i]);
+                    histogram.add(bucket);
+                }
+                latency.put("histogram", histogram);
+                json.put("latencyMs", latency);
+            }
+            return json;
+        }
+    }
+}
@@ -0,0 +1,383 @@
+package ca.ualberta.codarc.codarc_events.data;
+
+import androidx.annotation.NonNull;
+
+import com.google.firebase.firestore.ListenerRegistration;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+
+import ca.ualberta.codarc.codarc_events.models.MembershipStatus;
+
+/**
+ * This device's own memberships, keyed by event ID and kept in memory by a listener
+ * on entrants/{deviceId}/events. Screens read it synchronously to pick the Join or
+ * Leave action and card badges without waiting on the network; anything the store
+ * cannot answer is reconciled with a point read in the background.
+ */
+public class MembershipStore {
+
+    /**
+     * One membership as last seen by this device.
+     */
+    public static final class Entry {
+        private final MembershipStatus status;
+        private final long updatedAt;
+
+        public Entry(MembershipStatus status, long updatedAt) {
+            this.status = status;
+            this.updatedAt = updatedAt;
+        }
+
+        /**
+         * @return the status, or null for history entries written before statuses were kept
+         */
+        public MembershipStatus getStatus() {
+            return status;
+        }
+
+        /**
+         * @return when the status last changed in epoch millis, or 0 if not yet known
+         */
+        public long getUpdatedAt() {
+            return updatedAt;
+        }
+    }
+
+    /**
+     * Answer to a synchronous lookup.
+     */
+    public static final class Lookup {
+        private final boolean known;
+        private final MembershipStatus status;
+
+        private Lookup(boolean known, MembershipStatus status) {
+            this.known = known;
+            this.status = status;
+        }
+
+        /**
+         * @return true if the store could answer without a read
+         */
+        public boolean isKnown() {
+            return known;
+        }
+
+        /**
+         * @return the status, or null if the device has no membership (only meaningful when known)
+         */
+        public MembershipStatus getStatus() {
+            return status;
+        }
+    }
+
+    public interface OnChangeListener {
+        void onMembershipsChanged();
+    }
+
+    private static final Lookup UNKNOWN = new Lookup(false, null);
+    private static final Lookup NONE = new Lookup(true, null);
+
+    /** How long the listener outlives its last owner, long enough to span a rotation. */
+    public static final long RELEASE_GRACE_MS = 5_000L;
+
+    private static MembershipStore instance;
+
+    private final Map<String, Entry> entries = new HashMap<>();
+    private final List<OnChangeListener> changeListeners = new ArrayList<>();
+    private EntrantRepository entrantDB;
+    private EventRepository eventDB;
+    private String deviceId;
+    private ListenerRegistration registration;
+    private boolean synced;
+    private final SharedLifetime lifetime;
+
+    /**
+     * Returns the process-wide store. Firestore is not touched until {@link #start(String)}.
+     *
+     * @return the shared store
+     */
+    public static synchronized MembershipStore getInstance() {
+        if (instance == null) {
+            instance = new MembershipStore(null, null);
+        }
+        return instance;
+    }
+
+    /**
+     * Creates a store backed by the given repositories.
+     *
+     * @param entrantDB source of the device's history (null to create one lazily)
+     * @param eventDB source for reconciling single events (null to create one lazily)
+     */
+    public MembershipStore(EntrantRepository entrantDB, EventRepository eventDB) {
+        this(entrantDB, eventDB, null);
+    }
+
+    /**
+     * Creates a store backed by the given repositories.
+     *
+     * @param entrantDB source of the device's history (null to create one lazily)
+     * @param eventDB source for reconciling single events (null to create one lazily)
+     * @param releaseScheduler runs the stop after the last owner releases
+     *                         (null for {@link DataExecutors#scheduler()})
+     */
+    public MembershipStore(EntrantRepository entrantDB, EventRepository eventDB,
+                           ScheduledExecutorService releaseScheduler) {
+        this.entrantDB = entrantDB;
+        this.eventDB = eventDB;
+        this.lifetime = new SharedLifetime(this::stop, RELEASE_GRACE_MS, releaseScheduler);
+    }
+
+    /**
+     * Starts following the device's memberships on behalf of a screen. The
+     * listener keeps running until every owner has released it, plus
+     * {@link #RELEASE_GRACE_MS}, so one screen closing or rotating does not stop
+     * it under another.
+     *
+     * @param owner the screen using the store, typically the activity
+     * @param deviceId the device ID
+     */
+    public void retain(Object owner, String deviceId) {
+        lifetime.retain(owner);
+        start(deviceId);
+    }
+
+    /**
+     * Releases a screen's hold taken with {@link #retain(Object, String)}.
+     *
+     * @param owner the screen passed to retain
+     */
+    public void release(Object owner) {
+        lifetime.release(owner);
+    }
+
+    /**
+     * Starts following the device's memberships. Calling this again for the same
+     * device does nothing; a different device replaces the previous listener.
+     *
+     * @param deviceId the device ID
+     */
+    public void start(String deviceId) {
+        if (deviceId == null || deviceId.isEmpty()) {
+            return;
+        }
+        ListenerRegistration previous;
+        synchronized (this) {
+            if (deviceId.equals(this.deviceId) && registration != null) {
+                return;
+            }
+            previous = registration;
+            registration = null;
+            this.deviceId = deviceId;
+            entries.clear();
+            synced = false;
+        }
+        if (previous != null) {
+            previous.remove();
+        }
+        ListenerRegistration added = entrantDB().addEntrantEventsListener(deviceId,
+                new EntrantDB.Callback<Map<String, Entry>>() {
+                    @Override
+                    public void onSuccess(Map<String, Entry> value) {
+                        onSnapshot(deviceId, value);
+                    }
+
+                    @Override
+                    public void onError(@NonNull Exception e) {
+                        onListenerError(deviceId);
+                    }
+                });
+        synchronized (this) {
+            if (deviceId.equals(this.deviceId)) {
+                registration = added;
+                return;
+            }
+        }
+        if (added != null) {
+            added.remove();
+        }
+    }
+
+    /**
+     * Stops the listener and forgets every membership.
+     */
+    public void stop() {
+        ListenerRegistration previous;
+        synchronized (this) {
+            previous = registration;
+            registration = null;
+            deviceId = null;
+            entries.clear();
+            synced = false;
+        }
+        if (previous != null) {
+            previous.remove();
+        }
+    }
+
+    /**
+     * @return true once the first snapshot has arrived and no error has occurred since
+     */
+    public synchronized boolean isSynced() {
+        return synced;
+    }
+
+    /**
+     * Looks up this device's membership in an event without any network access.
+     *
+     * @param eventId the event ID
+     * @return the status when the store can vouch for it, otherwise an unknown lookup
+     */
+    public synchronized Lookup lookup(String eventId) {
+        if (eventId == null) {
+            return UNKNOWN;
+        }
+        Entry entry = entries.get(eventId);
+        if (entry != null) {
+            return entry.getStatus() != null ? new Lookup(true, entry.getStatus()) : UNKNOWN;
+        }
+        return synced ? NONE : UNKNOWN;
+    }
+
+    /**
+     * @param eventId the event ID
+     * @return the cached entry, or null if there is none
+     */
+    public synchronized Entry peek(String eventId) {
+        return eventId != null ? entries.get(eventId) : null;
+    }
+
+    /**
+     * @return a copy of every cached entry
+     */
+    public synchronized Map<String, Entry> snapshot() {
+        return Collections.unmodifiableMap(new HashMap<>(entries));
+    }
+
+    /**
+     * Checks one event against the server and stores the answer. Used when
+     * {@link #lookup(String)} cannot answer, and to confirm what it said.
+     *
+     * @param eventId the event ID
+     * @param cb callback with the server's status, or null for no membership
+     */
+    public void reconcile(String eventId, EventDB.Callback<MembershipStatus> cb) {
+        String current = currentDeviceId();
+        if (current == null) {
+            cb.onError(new IllegalStateException("Membership store is not started"));
+            return;
+        }
+        eventDB().getMembershipStatus(eventId, current, new EventDB.Callback<MembershipStatus>() {
+            @Override
+            public void onSuccess(MembershipStatus status) {
+                if (current.equals(currentDeviceId())) {
+                    record(eventId, status);
+                }
+                cb.onSuccess(status);
+            }
+
+            @Override
+            public void onError(@NonNull Exception e) {
+                cb.onError(e);
+            }
+        });
+    }
+
+    /**
+     * Stores a status this device has just confirmed, such as the outcome of its own
+     * join or leave, ahead of the listener catching up.
+     *
+     * @param eventId the event ID
+     * @param status the new status, or null if the device no longer has a membership
+     */
+    public void record(String eventId, MembershipStatus status) {
+        if (eventId == null) {
+            return;
+        }
+        boolean changed;
+        synchronized (this) {
+            Entry entry = entries.get(eventId);
+            if (status == null) {
+                changed = entries.remove(eventId) != null;
+            } else if (entry != null && entry.getStatus() == status) {
+                changed = false;
+            } else {
+                entries.put(eventId, new Entry(status, System.currentTimeMillis()));
+                changed = true;
+            }
+        }
+        if (changed) {
+            notifyChanged();
+        }
+    }
+
+    public void addOnChangeListener(OnChangeListener listener) {
+        synchronized (changeListeners) {
+            changeListeners.add(listener);
+        }
+    }
+
+    public void removeOnChangeListener(OnChangeListener listener) {
+        synchronized (changeListeners) {
+            changeListeners.remove(listener);
+        }
+    }
+
+    private void onSnapshot(String snapshotDeviceId, Map<String, Entry> snapshot) {
+        synchronized (this) {
+            if (!snapshotDeviceId.equals(deviceId)) {
+                return;
+            }
+            entries.clear();
+            if (snapshot != null) {
+                entries.putAll(snapshot);
+            }
+            synced = true;
+        }
+        notifyChanged();
+    }
+
+    private void onListenerError(String errorDeviceId) {
+        synchronized (this) {
+            if (!errorDeviceId.equals(deviceId)) {
+                return;
+            }
+            // Keep what we have, but stop claiming that a missing entry means no membership.
+            synced = false;
+        }
+        notifyChanged();
+    }
+
+    private synchronized String currentDeviceId() {
+        return deviceId;
+    }
+
+    private void notifyChanged() {
+        List<OnChangeListener> toNotify;
+        synchronized (changeListeners) {
+            toNotify = new ArrayList<>(changeListeners);
+        }
+        for (OnChangeListener listener : toNotify) {
+            listener.onMembershipsChanged();
+        }
+    }
+
+    private synchronized EntrantRepository entrantDB() {
+        if (entrantDB == null) {
+            entrantDB = new EntrantDB();
+        }
+        return entrantDB;
+    }
+
+    private synchronized EventRepository eventDB() {
+        if (eventDB == null) {
+            eventDB = new EventDB();
+        }
+        return eventDB;
+    }
+}
@@ -17,17 +17,42 @@ import ca.ualberta.codarc.codarc_events.utils.ValidationHelper;
 /**
  * Handles Organizers collection - minimal, just deviceId and events list.
  */
-public class OrganizerDB {
+public class OrganizerDB implements OrganizerRepository {
     
-    public interface Callback<T> {
+    public interface Callback<T> extends AsyncResult.Listener<T> {
         void onSuccess(T value);
         void onError(@NonNull Exception e);
+
+        /**
+         * @return a callback that settles the result, for composing calls with {@link AsyncResult}
+         */
+        static <T> Callback<T> completing(AsyncResult<T> result) {
+            return new Callback<T>() {
+                @Override
+                public void onSuccess(T value) {
+                    result.complete(value);
+                }
+
+                @Override
+                public void onError(@NonNull Exception e) {
+                    result.fail(e);
+                }
+            };
+        }
     }
     
     private final FirebaseFirestore db;
+    private final FirestoreMetrics metrics = FirestoreMetrics.getInstance();
     
     public OrganizerDB() {
-        this.db = FirebaseFirestore.getInstance();
+        this(FirebaseFirestore.getInstance());
+    }
+
+    /**
+     * @param db the Firestore instance to use, e.g. a stand-in in JVM tests
+     */
+    public OrganizerDB(FirebaseFirestore db) {
+        this.db = db;
     }
     
     /**
@@ -45,8 +70,8 @@ public class OrganizerDB {
         }
         
         Organizer organizer = new Organizer(deviceId);
-        db.collection("organizers").document(deviceId)
-            .set(organizer)
+        metrics.write("OrganizerDB.createOrganizer", 1, db.collection("organizers").document(deviceId)
+            .set(organizer))
             .addOnSuccessListener(unused -> cb.onSuccess(null))
             .addOnFailureListener(cb::onError);
     }
@@ -59,8 +84,8 @@ public class OrganizerDB {
             return;
         }
         
-        db.collection("organizers").document(deviceId)
-            .get()
+        metrics.read("OrganizerDB.organizerExists", db.collection("organizers").document(deviceId)
+            .get())
             .addOnSuccessListener(snapshot -> {
                 cb.onSuccess(snapshot != null && snapshot.exists());
             })
@@ -86,9 +111,9 @@ public class OrganizerDB {
         Map<String, Object> data = new HashMap<>();
         data.put("eventId", eventId);
         
-        db.collection("organizers").document(deviceId)
+        metrics.write("OrganizerDB.addEventToOrganizer", data, db.collection("organizers").document(deviceId)
             .collection("events").document(eventId)
-            .set(data)
+            .set(data))
             .addOnSuccessListener(unused -> cb.onSuccess(null))
             .addOnFailureListener(cb::onError);
     }
@@ -101,9 +126,9 @@ public class OrganizerDB {
             return;
         }
         
-        db.collection("organizers").document(deviceId)
+        metrics.read("OrganizerDB.getOrganizerEvents", db.collection("organizers").document(deviceId)
             .collection("events")
-            .get()
+            .get())
             .addOnSuccessListener(querySnapshot -> {
                 List<String> eventIds = new ArrayList<>();
                 if (querySnapshot != null) {
@@ -128,9 +153,9 @@ public class OrganizerDB {
             return;
         }
         
-        db.collection("organizers").document(deviceId)
+        metrics.write("OrganizerDB.removeEventFromOrganizer", 1, db.collection("organizers").document(deviceId)
             .collection("events").document(eventId)
-            .delete()
+            .delete())
             .addOnSuccessListener(unused -> cb.onSuccess(null))
             .addOnFailureListener(cb::onError);
     }
@@ -150,8 +175,8 @@ public class OrganizerDB {
             return;
         }
         
-        db.collection("organizers").document(deviceId)
-            .update("banned", banned)
+        metrics.write("OrganizerDB.setBannedStatus", 1, db.collection("organizers").document(deviceId)
+            .update("banned", banned))
             .addOnSuccessListener(unused -> cb.onSuccess(null))
             .addOnFailureListener(cb::onError);
     }
@@ -164,8 +189,8 @@ public class OrganizerDB {
             return;
         }
         
-        db.collection("organizers").document(deviceId)
-            .get()
+        metrics.read("OrganizerDB.isBanned", db.collection("organizers").document(deviceId)
+            .get())
             .addOnSuccessListener(snapshot -> {
                 if (snapshot != null && snapshot.exists()) {
                     Boolean banned = snapshot.getBoolean("banned");
@@ -183,8 +208,8 @@ public class OrganizerDB {
      * @param cb callback with list of organizers (excluding banned ones)
      */
     public void getAllOrganizers(Callback<List<Organizer>> cb) {
-        db.collection("organizers")
-            .get()
+        metrics.read("OrganizerDB.getAllOrganizers", db.collection("organizers")
+            .get())
             .addOnSuccessListener(querySnapshot -> {
                 List<Organizer> organizers = new ArrayList<>();
                 if (querySnapshot != null) {
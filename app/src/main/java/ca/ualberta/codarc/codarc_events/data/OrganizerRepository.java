@@ -0,0 +1,31 @@
+package ca.ualberta.codarc.codarc_events.data;
+
+import java.util.List;
+
+import ca.ualberta.codarc.codarc_events.models.Organizer;
+
+/**
+ * Organizer records and their event lists.
+ * {@link OrganizerDB} is the Firestore implementation.
+ */
+public interface OrganizerRepository {
+
+    void createOrganizer(String deviceId, OrganizerDB.Callback<Void> cb);
+
+    void organizerExists(String deviceId, OrganizerDB.Callback<Boolean> cb);
+
+    void addEventToOrganizer(String deviceId, String eventId, OrganizerDB.Callback<Void> cb);
+
+    void getOrganizerEvents(String deviceId, OrganizerDB.Callback<List<String>> cb);
+
+    void removeEventFromOrganizer(String deviceId, String eventId, OrganizerDB.Callback<Void> cb);
+
+    void setBannedStatus(String deviceId, boolean banned, OrganizerDB.Callback<Void> cb);
+
+    void isBanned(String deviceId, OrganizerDB.Callback<Boolean> cb);
+
+    /**
+     * Gets all organizers that are not banned.
+     */
+    void getAllOrganizers(OrganizerDB.Callback<List<Organizer>> cb);
+}
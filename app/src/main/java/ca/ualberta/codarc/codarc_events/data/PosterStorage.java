@@ -1,48 +1,82 @@
 package ca.ualberta.codarc.codarc_events.data;
 
+import android.content.Context;
 import android.net.Uri;
 import android.util.Log;
 
 import androidx.annotation.NonNull;
 
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.TaskCompletionSource;
+import com.google.android.gms.tasks.Tasks;
 import com.google.firebase.storage.FirebaseStorage;
+import com.google.firebase.storage.StorageException;
+import com.google.firebase.storage.StorageMetadata;
 import com.google.firebase.storage.StorageReference;
 import com.google.firebase.storage.UploadTask;
 
-import java.io.InputStream;
-
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import ca.ualberta.codarc.codarc_events.models.PosterRendition;
+import ca.ualberta.codarc.codarc_events.utils.PosterEncoder;
 import ca.ualberta.codarc.codarc_events.utils.ValidationHelper;
 
 /**
  * Handles Firebase Storage operations for event posters.
- * Stores posters at the path: posters/{eventId}.jpg
+ * Each poster is stored as one WebP file per {@link PosterRendition} at
+ * posters/{eventId}/{rendition}.webp. Older posters live at posters/{eventId}.jpg.
  */
 public class PosterStorage {
 
     private static final String TAG = "PosterStorage";
     private static final String POSTERS_PATH = "posters";
-    private static final long MAX_FILE_SIZE = 5 * 1024 * 1024;
+    private static final String LEGACY_EXTENSION = ".jpg";
+    private static final String CACHE_DIR = "poster-upload";
+    private static final int MAX_UPLOAD_ATTEMPTS = 3;
+    private static final long MAX_UPLOAD_RETRY_MS = 60_000;
+    private static final ExecutorService ENCODER = Executors.newSingleThreadExecutor();
 
-    public interface Callback<T> {
+    public interface Callback<T> extends AsyncResult.Listener<T> {
         void onSuccess(T value);
         void onError(@NonNull Exception e);
     }
 
     private final FirebaseStorage storage;
+    private final Context context;
+    private final FirestoreMetrics metrics = FirestoreMetrics.getInstance();
 
+    /**
+     * Creates storage that can delete posters but not upload them.
+     */
     public PosterStorage() {
+        this(null);
+    }
+
+    /**
+     * @param context used to read picked images and stage encoded files
+     */
+    public PosterStorage(Context context) {
         this.storage = FirebaseStorage.getInstance();
+        this.storage.setMaxUploadRetryTimeMillis(MAX_UPLOAD_RETRY_MS);
+        this.context = context != null ? context.getApplicationContext() : null;
     }
 
     /**
-     * Uploads a poster image for an event.
-     * The file will be stored at posters/{eventId}.jpg
+     * Uploads a poster for an event. The image is decoded and encoded into every
+     * rendition on a background thread, then the renditions are uploaded in parallel.
      *
-     * @param eventId the event ID (used as filename)
-     * @param imageUri the URI of the image to upload
-     * @param callback callback that receives the download URL on success
+     * @param eventId the event ID
+     * @param imageUri the URI of the picked image
+     * @param callback callback that receives the download URL of each rendition
      */
-    public void uploadPoster(String eventId, Uri imageUri, Callback<String> callback) {
+    public void uploadPoster(String eventId, Uri imageUri, Callback<Map<PosterRendition, String>> callback) {
         try {
             ValidationHelper.requireNonEmpty(eventId, "eventId");
             ValidationHelper.requireNonNull(imageUri, "imageUri");
@@ -50,46 +84,93 @@ public class PosterStorage {
             callback.onError(e);
             return;
         }
+        if (context == null) {
+            callback.onError(new IllegalStateException("PosterStorage needs a Context to upload"));
+            return;
+        }
 
-        try {
-            StorageReference posterRef = storage.getReference()
-                    .child(POSTERS_PATH)
-                    .child(eventId + ".jpg");
-
-            UploadTask uploadTask = posterRef.putFile(imageUri);
-
-            uploadTask.addOnSuccessListener(taskSnapshot -> {
-                posterRef.getDownloadUrl()
-                        .addOnSuccessListener(uri -> {
-                            String downloadUrl = uri.toString();
-                            Log.d(TAG, "Poster uploaded successfully: " + downloadUrl);
-                            callback.onSuccess(downloadUrl);
-                        })
-                        .addOnFailureListener(e -> {
-                            Log.e(TAG, "Failed to get download URL", e);
-                            callback.onError(new RuntimeException("Failed to get download URL", e));
-                        });
-            }).addOnFailureListener(e -> {
-                Log.e(TAG, "Failed to upload poster", e);
-                String errorMessage = "Failed to upload poster";
-                if (e.getMessage() != null) {
-                    if (e.getMessage().contains("size")) {
-                        errorMessage = "Image is too large. Maximum size is 5MB.";
-                    } else if (e.getMessage().contains("content")) {
-                        errorMessage = "Invalid file type. Please select an image file.";
-                    }
-                }
-                callback.onError(new RuntimeException(errorMessage, e));
-            });
+        ENCODER.execute(() -> {
+            Map<PosterRendition, File> files;
+            try {
+                files = PosterEncoder.encode(context.getContentResolver(), imageUri,
+                        new File(context.getCacheDir(), CACHE_DIR), eventId);
+            } catch (IOException | RuntimeException e) {
+                Log.e(TAG, "Failed to encode poster", e);
+                String message = e.getMessage() != null ? e.getMessage() : "Failed to read image";
+                callback.onError(new RuntimeException(message, e));
+                return;
+            }
+            uploadRenditions(eventId, files, callback);
+        });
+    }
 
-        } catch (Exception e) {
-            Log.e(TAG, "Error uploading poster", e);
-            callback.onError(new RuntimeException("Error uploading poster", e));
+    private void uploadRenditions(String eventId, Map<PosterRendition, File> files,
+                                  Callback<Map<PosterRendition, String>> callback) {
+        StorageMetadata metadata = new StorageMetadata.Builder()
+                .setContentType(PosterEncoder.CONTENT_TYPE)
+                .build();
+        List<PosterRendition> renditions = new ArrayList<>(files.keySet());
+        List<Task<String>> uploads = new ArrayList<>();
+        for (PosterRendition rendition : renditions) {
+            TaskCompletionSource<String> result = new TaskCompletionSource<>();
+            upload(renditionRef(eventId, rendition), rendition, files.get(rendition), metadata,
+                    null, 1, result);
+            uploads.add(result.getTask());
         }
+
+        Tasks.whenAllComplete(uploads).addOnCompleteListener(done -> {
+            for (File file : files.values()) {
+                file.delete();
+            }
+            Map<PosterRendition, String> urls = new EnumMap<>(PosterRendition.class);
+            for (int i = 0; i < uploads.size(); i++) {
+                Task<String> upload = uploads.get(i);
+                if (!upload.isSuccessful()) {
+                    Exception e = upload.getException();
+                    Log.e(TAG, "Failed to upload poster", e);
+                    callback.onError(new RuntimeException("Failed to upload poster", e));
+                    return;
+                }
+                urls.put(renditions.get(i), upload.getResult());
+            }
+            Log.d(TAG, "Poster uploaded for event: " + eventId);
+            callback.onSuccess(urls);
+        });
+    }
+
+    /**
+     * Uploads one file, resuming the same session after a failure so bytes already
+     * sent are not sent again.
+     */
+    private void upload(StorageReference ref, PosterRendition rendition, File file, StorageMetadata metadata,
+                        Uri sessionUri, int attempt, TaskCompletionSource<String> result) {
+        Uri fileUri = Uri.fromFile(file);
+        UploadTask task = sessionUri != null
+                ? ref.putFile(fileUri, metadata, sessionUri)
+                : ref.putFile(fileUri, metadata);
+        metrics.write("PosterStorage.uploadPoster", 0, task)
+                .addOnSuccessListener(snapshot -> {
+                    if (metrics.isEnabled()) {
+                        metrics.record(metrics.getFlow(), "PosterStorage.upload." + rendition.getSuffix(),
+                                -1, true, 0, 0, 0, file.length());
+                    }
+                    metrics.read("PosterStorage.uploadPoster", ref.getDownloadUrl())
+                            .addOnSuccessListener(uri -> result.setResult(uri.toString()))
+                            .addOnFailureListener(result::setException);
+                })
+                .addOnFailureListener(e -> {
+                    if (attempt >= MAX_UPLOAD_ATTEMPTS) {
+                        result.setException(e);
+                        return;
+                    }
+                    Uri session = task.getSnapshot().getUploadSessionUri();
+                    Log.w(TAG, "Retrying " + rendition.getSuffix() + " upload, attempt " + (attempt + 1), e);
+                    upload(ref, rendition, file, metadata, session, attempt + 1, result);
+                });
     }
 
     /**
-     * Deletes a poster image for an event.
+     * Deletes every stored copy of an event's poster. Copies that do not exist are ignored.
      *
      * @param eventId the event ID
      * @param callback callback for completion
@@ -102,19 +183,40 @@ public class PosterStorage {
             return;
         }
 
-        StorageReference posterRef = storage.getReference()
-                .child(POSTERS_PATH)
-                .child(eventId + ".jpg");
+        List<StorageReference> refs = new ArrayList<>();
+        refs.add(storage.getReference().child(POSTERS_PATH).child(eventId + LEGACY_EXTENSION));
+        for (PosterRendition rendition : PosterRendition.values()) {
+            refs.add(renditionRef(eventId, rendition));
+        }
+        List<Task<Void>> deletes = new ArrayList<>();
+        for (StorageReference ref : refs) {
+            deletes.add(metrics.write("PosterStorage.deletePoster", 1, ref.delete()));
+        }
 
-        posterRef.delete()
-                .addOnSuccessListener(aVoid -> {
-                    Log.d(TAG, "Poster deleted successfully for event: " + eventId);
-                    callback.onSuccess(null);
-                })
-                .addOnFailureListener(e -> {
+        Tasks.whenAllComplete(deletes).addOnCompleteListener(done -> {
+            // A poster is stored either the old way or as renditions, never both.
+            for (Task<Void> delete : deletes) {
+                Exception e = delete.getException();
+                if (e != null && !isNotFound(e)) {
                     Log.e(TAG, "Failed to delete poster", e);
                     callback.onError(e);
-                });
+                    return;
+                }
+            }
+            Log.d(TAG, "Poster deleted successfully for event: " + eventId);
+            callback.onSuccess(null);
+        });
     }
-}
 
+    private StorageReference renditionRef(String eventId, PosterRendition rendition) {
+        return storage.getReference()
+                .child(POSTERS_PATH)
+                .child(eventId)
+                .child(rendition.getSuffix() + PosterEncoder.EXTENSION);
+    }
+
+    private static boolean isNotFound(Exception e) {
+        return e instanceof StorageException
+                && ((StorageException) e).getErrorCode() == StorageException.ERROR_OBJECT_NOT_FOUND;
+    }
+}
@@ -0,0 +1,73 @@
+package ca.ualberta.codarc.codarc_events.data;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps a process-wide listener running while any screen uses it. Each owner
+ * retains it once and releases it when done; once none are left, and none come
+ * back within a grace period, the listener is stopped. The grace period covers a
+ * rotation, which destroys the old activity before creating the new one.
+ */
+public final class SharedLifetime {
+
+    private final Runnable onIdle;
+    private final long graceMs;
+    private ScheduledExecutorService scheduler;
+    private final Set<Object> owners = Collections.newSetFromMap(new IdentityHashMap<>());
+    /** Bumped on every retain, so a stop scheduled before it does nothing. */
+    private long generation;
+
+    /**
+     * @param onIdle stops the shared work; runs on the scheduler thread
+     * @param graceMs how long to wait after the last release before stopping
+     * @param scheduler runs the delayed stop (null for {@link DataExecutors#scheduler()})
+     */
+    public SharedLifetime(Runnable onIdle, long graceMs, ScheduledExecutorService scheduler) {
+        this.onIdle = onIdle;
+        this.graceMs = graceMs;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Adds an owner. Retaining the same owner twice counts once.
+     */
+    public synchronized void retain(Object owner) {
+        owners.add(owner);
+        generation++;
+    }
+
+    /**
+     * Removes an owner. Once no owners are left, stops the shared work after the
+     * grace period unless another owner retains it first.
+     */
+    public void release(Object owner) {
+        long releasedAt;
+        synchronized (this) {
+            if (!owners.remove(owner) || !owners.isEmpty()) {
+                return;
+            }
+            releasedAt = generation;
+            if (scheduler == null) {
+                scheduler = DataExecutors.scheduler();
+            }
+        }
+        scheduler.schedule(() -> {
+            synchronized (this) {
+                if (owners.isEmpty() && generation == releasedAt) {
+                    onIdle.run();
+                }
+            }
+        }, graceMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @return the number of owners currently retaining the shared work
+     */
+    public synchronized int ownerCount() {
+        return owners.size();
+    }
+}
@@ -0,0 +1,383 @@
+package ca.ualberta.codarc.codarc_events.data;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.DefaultLifecycleObserver;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleOwner;
+
+import com.google.firebase.firestore.ListenerRegistration;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Snapshot listeners shared per query. Every subscriber to the same key is served
+ * by one Firestore listener, and a late subscriber gets the last snapshot straight
+ * away instead of starting another download. The listener is removed once no
+ * subscriber is active, so a stopped screen costs nothing, and started again when
+ * one resumes. {@link #activeListenerCount()} shows how many are live.
+ */
+public class SnapshotSubscriptions {
+
+    /**
+     * Registers the one listener behind a key.
+     *
+     * @param <T> type of the parsed snapshot
+     */
+    public interface Source<T> {
+        /**
+         * @param listener receives every parsed snapshot, or the error that ended the listener
+         * @return the registration, or null if nothing was registered
+         */
+        ListenerRegistration start(AsyncResult.Listener<T> listener);
+    }
+
+    private enum State { ACTIVE, PAUSED, REMOVED }
+
+    private static SnapshotSubscriptions instance;
+
+    private final Map<String, Channel<?>> channels = new HashMap<>();
+
+    /**
+     * @return the process-wide registry
+     */
+    public static synchronized SnapshotSubscriptions getInstance() {
+        if (instance == null) {
+            instance = new SnapshotSubscriptions();
+        }
+        return instance;
+    }
+
+    /**
+     * Subscribes to the snapshots of a query, starting its listener if no one else has.
+     *
+     * @param key identifies the query, e.g. "events"; subscribers with the same key share a listener
+     * @param source registers the listener when one is needed; ignored if the key is already live
+     * @param listener receives every snapshot on the thread the source reports on
+     * @return the handle used to pause, resume or remove the subscription
+     */
+    public <T> Subscription subscribe(String key, Source<T> source, AsyncResult.Listener<? super T> listener) {
+        Channel<T> channel;
+        Subscription subscription;
+        boolean replay;
+        T last;
+        boolean needStart;
+        synchronized (this) {
+            channel = channel(key, source);
+            subscription = new Subscription(channel, listener);
+            channel.members.add(subscription);
+            channel.active++;
+            channel.failed = false;
+            replay = channel.version > 0;
+            last = channel.last;
+            subscription.seenVersion = channel.version;
+            needStart = claimStart(channel);
+        }
+        if (replay) {
+            subscription.<T>listener().onSuccess(last);
+        }
+        if (needStart) {
+            start(channel);
+        }
+        return subscription;
+    }
+
+    /**
+     * @return the number of Firestore listeners currently registered through this registry
+     */
+    public synchronized int activeListenerCount() {
+        int count = 0;
+        for (Channel<?> channel : channels.values()) {
+            if (channel.registration != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @param key the query key
+     * @return subscriptions on the key that are not removed, paused ones included
+     */
+    public synchronized int subscriberCount(String key) {
+        Channel<?> channel = channels.get(key);
+        return channel != null ? channel.members.size() : 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> Channel<T> channel(String key, Source<T> source) {
+        Channel<T> channel = (Channel<T>) channels.get(key);
+        if (channel == null) {
+            channel = new Channel<>(key, source);
+            channels.put(key, channel);
+        }
+        return channel;
+    }
+
+    /** Caller holds the lock. */
+    private boolean claimStart(Channel<?> channel) {
+        if (channel.registration != null || channel.starting || channel.active == 0) {
+            return false;
+        }
+        channel.starting = true;
+        return true;
+    }
+
+    private <T> void start(Channel<T> channel) {
+        while (true) {
+            int generation;
+            synchronized (this) {
+                generation = ++channel.generation;
+            }
+            ListenerRegistration registration = channel.source.start(new AsyncResult.Listener<T>() {
+                @Override
+                public void onSuccess(T value) {
+                    onSnapshot(channel, generation, value);
+                }
+
+                @Override
+                public void onError(@NonNull Exception e) {
+                    onListenerError(channel, generation, e);
+                }
+            });
+            boolean again;
+            synchronized (this) {
+                if (generation == channel.generation && channel.active > 0 && !channel.failed) {
+                    channel.registration = registration;
+                    channel.starting = false;
+                    return;
+                }
+                // Paused, or paused and resumed, while registering: drop this one and
+                // register again only if someone is still waiting.
+                again = channel.active > 0 && !channel.failed;
+                if (!again) {
+                    channel.starting = false;
+                }
+            }
+            if (registration != null) {
+                registration.remove();
+            }
+            if (!again) {
+                return;
+            }
+        }
+    }
+
+    private <T> void onSnapshot(Channel<T> channel, int generation, T value) {
+        List<Subscription> targets = new ArrayList<>();
+        int version;
+        synchronized (this) {
+            if (generation != channel.generation) {
+                return;
+            }
+            channel.last = value;
+            version = ++channel.version;
+            for (Subscription subscription : channel.members) {
+                if (subscription.state == State.ACTIVE) {
+                    subscription.seenVersion = version;
+                    targets.add(subscription);
+                }
+            }
+        }
+        for (Subscription subscription : targets) {
+            subscription.<T>listener().onSuccess(value);
+        }
+    }
+
+    private void onListenerError(Channel<?> channel, int generation, Exception e) {
+        List<Subscription> targets = new ArrayList<>();
+        ListenerRegistration toRemove;
+        synchronized (this) {
+            if (generation != channel.generation) {
+                return;
+            }
+            // Firestore ends a listener after an error; the next subscribe or resume starts a new one.
+            toRemove = channel.registration;
+            channel.registration = null;
+            channel.generation++;
+            channel.failed = true;
+            for (Subscription subscription : channel.members) {
+                if (subscription.state == State.ACTIVE) {
+                    targets.add(subscription);
+                }
+            }
+        }
+        if (toRemove != null) {
+            toRemove.remove();
+        }
+        for (Subscription subscription : targets) {
+            subscription.listener().onError(e);
+        }
+    }
+
+    /**
+     * Caller holds the lock.
+     *
+     * @return the registration to remove once the lock is released, or null
+     */
+    private ListenerRegistration detach(Channel<?> channel) {
+        if (channel.active > 0) {
+            return null;
+        }
+        ListenerRegistration registration = channel.registration;
+        channel.registration = null;
+        channel.generation++;
+        if (channel.members.isEmpty()) {
+            channels.remove(channel.key);
+        }
+        return registration;
+    }
+
+    /**
+     * One subscriber's handle. Snapshots stop arriving while paused; on resume the
+     * subscriber gets the latest snapshot if it changed in the meantime.
+     */
+    public final class Subscription {
+
+        private final Channel<?> channel;
+        private final AsyncResult.Listener<?> listener;
+        private State state = State.ACTIVE;
+        private int seenVersion;
+
+        private Subscription(Channel<?> channel, AsyncResult.Listener<?> listener) {
+            this.channel = channel;
+            this.listener = listener;
+        }
+
+        /**
+         * Stops delivering snapshots. The shared listener is removed if no other
+         * subscriber is active.
+         */
+        public void pause() {
+            ListenerRegistration toRemove;
+            synchronized (SnapshotSubscriptions.this) {
+                if (state != State.ACTIVE) {
+                    return;
+                }
+                state = State.PAUSED;
+                channel.active--;
+                toRemove = detach(channel);
+            }
+            if (toRemove != null) {
+                toRemove.remove();
+            }
+        }
+
+        /**
+         * Delivers snapshots again, starting the shared listener if it was stopped.
+         */
+        public void resume() {
+            boolean replay;
+            Object last;
+            boolean needStart;
+            synchronized (SnapshotSubscriptions.this) {
+                if (state != State.PAUSED) {
+                    return;
+                }
+                state = State.ACTIVE;
+                channel.active++;
+                channel.failed = false;
+                replay = channel.version > seenVersion;
+                last = channel.last;
+                seenVersion = channel.version;
+                needStart = claimStart(channel);
+            }
+            if (replay) {
+                listener().onSuccess(last);
+            }
+            if (needStart) {
+                start(channel);
+            }
+        }
+
+        /**
+         * Ends the subscription for good. Safe to call more than once.
+         */
+        public void remove() {
+            ListenerRegistration toRemove;
+            synchronized (SnapshotSubscriptions.this) {
+                if (state == State.REMOVED) {
+                    return;
+                }
+                if (state == State.ACTIVE) {
+                    channel.active--;
+                }
+                state = State.REMOVED;
+                channel.members.remove(this);
+                toRemove = detach(channel);
+            }
+            if (toRemove != null) {
+                toRemove.remove();
+            }
+        }
+
+        public boolean isActive() {
+            synchronized (SnapshotSubscriptions.this) {
+                return state == State.ACTIVE;
+            }
+        }
+
+        /**
+         * Ties the subscription to a screen: paused when it stops, resumed when it
+         * starts again and removed when it is destroyed.
+         *
+         * @param owner an activity or fragment
+         * @return this subscription
+         */
+        public Subscription bindTo(LifecycleOwner owner) {
+            Lifecycle lifecycle = owner.getLifecycle();
+            if (lifecycle.getCurrentState() == Lifecycle.State.DESTROYED) {
+                remove();
+                return this;
+            }
+            lifecycle.addObserver(new DefaultLifecycleObserver() {
+                @Override
+                public void onStart(@NonNull LifecycleOwner source) {
+                    resume();
+                }
+
+                @Override
+                public void onStop(@NonNull LifecycleOwner source) {
+                    pause();
+                }
+
+                @Override
+                public void onDestroy(@NonNull LifecycleOwner source) {
+                    source.getLifecycle().removeObserver(this);
+                    remove();
+                }
+            });
+            return this;
+        }
+
+        @SuppressWarnings("unchecked")
+        private <T> AsyncResult.Listener<T> listener() {
+            return (AsyncResult.Listener<T>) listener;
+        }
+    }
+
+    /**
+     * The shared listener of one key. Guarded by the registry's lock.
+     */
+    private static final class Channel<T> {
+        private final String key;
+        private final Source<T> source;
+        private final List<Subscription> members = new ArrayList<>();
+        private int active;
+        private ListenerRegistration registration;
+        private boolean starting;
+        private boolean failed;
+        /** Bumped whenever the listener is replaced or stopped, so stale snapshots are dropped. */
+        private int generation;
+        /** Number of snapshots seen; 0 until the first arrives. */
+        private int version;
+        private T last;
+
+        private Channel(String key, Source<T> source) {
+            this.key = key;
+            this.source = source;
+        }
+    }
+}
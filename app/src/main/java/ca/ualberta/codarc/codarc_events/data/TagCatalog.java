@@ -0,0 +1,243 @@
+package ca.ualberta.codarc.codarc_events.data;
+
+import androidx.annotation.NonNull;
+
+import com.google.firebase.firestore.ListenerRegistration;
+
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+
+import ca.ualberta.codarc.codarc_events.utils.TagHelper;
+import ca.ualberta.codarc.codarc_events.utils.TagTrie;
+
+/**
+ * Every tag in use, kept in memory by a listener on the tags collection and
+ * indexed in a {@link TagTrie} ranked by usage count. The filter dialog lists
+ * tags from here and tag autocomplete asks it for suggestions on every
+ * keystroke, neither touching the network once the first snapshot is in.
+ * Predefined tags are always listed; custom tags no event uses any more are not.
+ */
+public class TagCatalog {
+
+    /**
+     * One tag as reported by the listener.
+     */
+    public static final class Change {
+        private final String tag;
+        private final long usageCount;
+        private final boolean removed;
+
+        private Change(String tag, long usageCount, boolean removed) {
+            this.tag = tag;
+            this.usageCount = usageCount;
+            this.removed = removed;
+        }
+
+        public static Change counted(String tag, long usageCount) {
+            return new Change(tag, usageCount, false);
+        }
+
+        public static Change removed(String tag) {
+            return new Change(tag, 0L, true);
+        }
+
+        public String getTag() {
+            return tag;
+        }
+
+        public long getUsageCount() {
+            return usageCount;
+        }
+
+        /**
+         * @return true if the tag document was deleted
+         */
+        public boolean isRemoved() {
+            return removed;
+        }
+    }
+
+    /** The most suggestions one lookup returns. */
+    public static final int MAX_SUGGESTIONS = 8;
+
+    /** How long the listener outlives its last owner, long enough to span a rotation. */
+    public static final long RELEASE_GRACE_MS = 5_000L;
+
+    private static TagCatalog instance;
+
+    private final TagTrie trie = new TagTrie(MAX_SUGGESTIONS);
+    private TagRepository tagDB;
+    private ListenerRegistration registration;
+    private boolean synced;
+    private final SharedLifetime lifetime;
+
+    /**
+     * Returns the process-wide catalog. Firestore is not touched until {@link #start()}.
+     *
+     * @return the shared catalog
+     */
+    public static synchronized TagCatalog getInstance() {
+        if (instance == null) {
+            instance = new TagCatalog(null);
+        }
+        return instance;
+    }
+
+    /**
+     * Creates a catalog backed by the given repository.
+     *
+     * @param tagDB source of the tags (null to create one lazily)
+     */
+    public TagCatalog(TagRepository tagDB) {
+        this(tagDB, null);
+    }
+
+    /**
+     * Creates a catalog backed by the given repository.
+     *
+     * @param tagDB source of the tags (null to create one lazily)
+     * @param releaseScheduler runs the stop after the last owner releases
+     *                         (null for {@link DataExecutors#scheduler()})
+     */
+    public TagCatalog(TagRepository tagDB, ScheduledExecutorService releaseScheduler) {
+        this.tagDB = tagDB;
+        this.lifetime = new SharedLifetime(this::stop, RELEASE_GRACE_MS, releaseScheduler);
+        addPredefinedTags();
+    }
+
+    /**
+     * Starts following the tags collection on behalf of a screen. The listener
+     * keeps running until every owner has released it, plus
+     * {@link #RELEASE_GRACE_MS}, so one screen closing or rotating does not stop
+     * it under another.
+     *
+     * @param owner the screen using the catalog, typically the activity
+     */
+    public void retain(Object owner) {
+        lifetime.retain(owner);
+        start();
+    }
+
+    /**
+     * Releases a screen's hold taken with {@link #retain(Object)}.
+     *
+     * @param owner the screen passed to retain
+     */
+    public void release(Object owner) {
+        lifetime.release(owner);
+    }
+
+    /**
+     * Starts following the tags collection. Calling this again does nothing.
+     */
+    public void start() {
+        synchronized (this) {
+            if (registration != null) {
+                return;
+            }
+        }
+        ListenerRegistration added = tagDB().addTagsListener(new TagDB.Callback<List<Change>>() {
+            @Override
+            public void onSuccess(List<Change> changes) {
+                apply(changes);
+            }
+
+            @Override
+            public void onError(@NonNull Exception e) {
+                synchronized (TagCatalog.this) {
+                    synced = false;
+                }
+            }
+        });
+        synchronized (this) {
+            if (registration == null) {
+                registration = added;
+                return;
+            }
+        }
+        // Another caller started it first.
+        added.remove();
+    }
+
+    /**
+     * Stops the listener. Cached tags are kept and served until the next start.
+     */
+    public void stop() {
+        ListenerRegistration previous;
+        synchronized (this) {
+            previous = registration;
+            registration = null;
+            synced = false;
+        }
+        if (previous != null) {
+            previous.remove();
+        }
+    }
+
+    /**
+     * @return true once the first snapshot has arrived and no error has occurred since
+     */
+    public synchronized boolean isSynced() {
+        return synced;
+    }
+
+    /**
+     * Suggests tags for what the user has typed, without any network access.
+     *
+     * @param query the typed text; matched against the start of the tag or of any word in it
+     * @param limit the most suggestions to return, at most {@link #MAX_SUGGESTIONS}
+     * @return matching tags, most used first
+     */
+    public synchronized List<String> suggest(String query, int limit) {
+        return trie.suggest(query, limit);
+    }
+
+    /**
+     * Gets every tag, alphabetical. Served from memory once synced; before that
+     * the tags are read once from the repository.
+     *
+     * @param cb callback with the tags
+     */
+    public void getAllTags(TagDB.Callback<List<String>> cb) {
+        List<String> cached = null;
+        synchronized (this) {
+            if (synced) {
+                cached = trie.allTags();
+            }
+        }
+        if (cached != null) {
+            cb.onSuccess(cached);
+            return;
+        }
+        tagDB().getAllTags(cb);
+    }
+
+    private void apply(List<Change> changes) {
+        synchronized (this) {
+            for (Change change : changes) {
+                String tag = TagHelper.normalizeTag(change.getTag());
+                if (TagHelper.isPredefinedTag(tag)) {
+                    trie.put(tag, Math.max(0L, change.isRemoved() ? 0L : change.getUsageCount()));
+                } else if (change.isRemoved() || change.getUsageCount() <= 0) {
+                    trie.remove(tag);
+                } else {
+                    trie.put(tag, change.getUsageCount());
+                }
+            }
+            synced = true;
+        }
+    }
+
+    private void addPredefinedTags() {
+        for (String tag : TagHelper.getPredefinedTags()) {
+            trie.put(tag, 0L);
+        }
+    }
+
+    private synchronized TagRepository tagDB() {
+        if (tagDB == null) {
+            tagDB = new TagDB();
+        }
+        return tagDB;
+    }
+}
@@ -2,9 +2,11 @@ package ca.ualberta.codarc.codarc_events.data;
 
 import androidx.annotation.NonNull;
 
+import com.google.firebase.firestore.DocumentChange;
 import com.google.firebase.firestore.DocumentReference;
 import com.google.firebase.firestore.FieldValue;
 import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.ListenerRegistration;
 import com.google.firebase.firestore.QueryDocumentSnapshot;
 import com.google.firebase.firestore.SetOptions;
 import com.google.firebase.firestore.Transaction;
@@ -16,22 +18,49 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Executor;
 
 /**
  * Manages tags collection in Firestore.
  * Maintains a separate tags collection for efficient tag queries.
  */
-public class TagDB {
+public class TagDB implements TagRepository {
 
-    public interface Callback<T> {
+    public interface Callback<T> extends AsyncResult.Listener<T> {
         void onSuccess(T value);
         void onError(@NonNull Exception e);
+
+        /**
+         * @return a callback that settles the result, for composing calls with {@link AsyncResult}
+         */
+        static <T> Callback<T> completing(AsyncResult<T> result) {
+            return new Callback<T>() {
+                @Override
+                public void onSuccess(T value) {
+                    result.complete(value);
+                }
+
+                @Override
+                public void onError(@NonNull Exception e) {
+                    result.fail(e);
+                }
+            };
+        }
     }
 
     private final FirebaseFirestore db;
+    private final FirestoreMetrics metrics = FirestoreMetrics.getInstance();
+    private final Executor background = DataExecutors.background();
 
     public TagDB() {
-        this.db = FirebaseFirestore.getInstance();
+        this(FirebaseFirestore.getInstance());
+    }
+
+    /**
+     * @param db the Firestore instance to use, e.g. a stand-in in JVM tests
+     */
+    public TagDB(FirebaseFirestore db) {
+        this.db = db;
     }
 
     /**
@@ -40,8 +69,8 @@ public class TagDB {
      * @param cb callback with list of all tag strings
      */
     public void getAllTags(Callback<List<String>> cb) {
-        db.collection("tags")
-                .get()
+        metrics.read("TagDB.getAllTags", db.collection("tags")
+                .get())
                 .addOnSuccessListener(querySnapshot -> {
                     Set<String> tags = new HashSet<>();
                     
@@ -61,6 +90,37 @@ public class TagDB {
                 .addOnFailureListener(cb::onError);
     }
 
+    /**
+     * Listens to the tags collection and reports document changes rather than the
+     * whole collection, so a changed count costs one entry. Reports on the
+     * background executor; {@link TagCatalog} is the only listener.
+     *
+     * @param cb callback with the changed tags on every snapshot
+     * @return registration used to stop listening
+     */
+    public ListenerRegistration addTagsListener(Callback<List<TagCatalog.Change>> cb) {
+        return db.collection("tags")
+                .addSnapshotListener(background, metrics.listen("TagDB.addTagsListener", (querySnapshot, e) -> {
+                    if (e != null) {
+                        cb.onError(e);
+                        return;
+                    }
+                    List<TagCatalog.Change> changes = new ArrayList<>();
+                    if (querySnapshot != null) {
+                        for (DocumentChange change : querySnapshot.getDocumentChanges()) {
+                            String tagName = change.getDocument().getId();
+                            if (change.getType() == DocumentChange.Type.REMOVED) {
+                                changes.add(TagCatalog.Change.removed(tagName));
+                            } else {
+                                Long usageCount = change.getDocument().getLong("usageCount");
+                                changes.add(TagCatalog.Change.counted(tagName, usageCount != null ? usageCount : 0L));
+                            }
+                        }
+                    }
+                    cb.onSuccess(changes);
+                }));
+    }
+
     /**
      * Adds tags to the tags collection.
      *
@@ -74,6 +134,7 @@ public class TagDB {
         }
 
         WriteBatch batch = db.batch();
+        int writes = 0;
 
         for (String tag : tags) {
             if (tag == null || tag.trim().isEmpty()) {
@@ -91,9 +152,10 @@ public class TagDB {
             tagData.put("usageCount", FieldValue.increment(1));
             tagData.put("createdAt", FieldValue.serverTimestamp());
             batch.set(tagRef, tagData, SetOptions.merge());
+            writes++;
         }
 
-        batch.commit()
+        metrics.write("TagDB.addTags", writes, batch.commit())
                 .addOnSuccessListener(aVoid -> cb.onSuccess(null))
                 .addOnFailureListener(cb::onError);
     }
@@ -111,6 +173,7 @@ public class TagDB {
         }
 
         WriteBatch batch = db.batch();
+        int writes = 0;
 
         for (String tag : tags) {
             if (tag == null || tag.trim().isEmpty()) {
@@ -125,9 +188,10 @@ public class TagDB {
             DocumentReference tagRef = db.collection("tags").document(normalizedTag);
 
             batch.update(tagRef, "usageCount", FieldValue.increment(-1));
+            writes++;
         }
 
-        batch.commit()
+        metrics.write("TagDB.removeTags", writes, batch.commit())
                 .addOnSuccessListener(aVoid -> cb.onSuccess(null))
                 .addOnFailureListener(cb::onError);
     }
@@ -0,0 +1,31 @@
+package ca.ualberta.codarc.codarc_events.data;
+
+import com.google.firebase.firestore.ListenerRegistration;
+
+import java.util.List;
+
+/**
+ * Custom tag usage counts.
+ * {@link TagDB} is the Firestore implementation.
+ */
+public interface TagRepository {
+
+    /**
+     * Gets predefined tags plus every custom tag in use.
+     */
+    void getAllTags(TagDB.Callback<List<String>> cb);
+
+    void addTags(List<String> tags, TagDB.Callback<Void> cb);
+
+    void removeTags(List<String> tags, TagDB.Callback<Void> cb);
+
+    void updateTags(List<String> oldTags, List<String> newTags, TagDB.Callback<Void> cb);
+
+    /**
+     * Listens to the custom tags. The first report holds every tag; later ones
+     * hold only the tags that changed.
+     *
+     * @return registration used to stop listening
+     */
+    ListenerRegistration addTagsListener(TagDB.Callback<List<TagCatalog.Change>> cb);
+}
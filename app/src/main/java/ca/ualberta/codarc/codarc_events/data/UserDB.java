@@ -13,17 +13,42 @@ import ca.ualberta.codarc.codarc_events.utils.ValidationHelper;
  * Handles Users collection operations in Firestore.
  * Users start with no roles - flags get set when they do actions.
  */
-public class UserDB {
+public class UserDB implements UserRepository {
     
-    public interface Callback<T> {
+    public interface Callback<T> extends AsyncResult.Listener<T> {
         void onSuccess(T value);
         void onError(@NonNull Exception e);
+
+        /**
+         * @return a callback that settles the result, for composing calls with {@link AsyncResult}
+         */
+        static <T> Callback<T> completing(AsyncResult<T> result) {
+            return new Callback<T>() {
+                @Override
+                public void onSuccess(T value) {
+                    result.complete(value);
+                }
+
+                @Override
+                public void onError(@NonNull Exception e) {
+                    result.fail(e);
+                }
+            };
+        }
     }
     
     private final FirebaseFirestore db;
+    private final FirestoreMetrics metrics = FirestoreMetrics.getInstance();
     
     public UserDB() {
-        this.db = FirebaseFirestore.getInstance();
+        this(FirebaseFirestore.getInstance());
+    }
+
+    /**
+     * @param db the Firestore instance to use, e.g. a stand-in in JVM tests
+     */
+    public UserDB(FirebaseFirestore db) {
+        this.db = db;
     }
     
     /**
@@ -41,7 +66,7 @@ public class UserDB {
         }
         
         DocumentReference userRef = db.collection("users").document(deviceId);
-        userRef.get().addOnCompleteListener(task -> {
+        metrics.read("UserDB.ensureUserExists", userRef.get()).addOnCompleteListener(task -> {
             if (!task.isSuccessful()) {
                 cb.onError(task.getException() != null ? task.getException() : new RuntimeException("Unknown error"));
                 return;
@@ -52,7 +77,7 @@ public class UserDB {
                 cb.onSuccess(null);
             } else {
                 User newUser = new User(deviceId);
-                userRef.set(newUser)
+                metrics.write("UserDB.ensureUserExists", 1, userRef.set(newUser))
                     .addOnSuccessListener(unused -> cb.onSuccess(null))
                     .addOnFailureListener(cb::onError);
             }
@@ -67,8 +92,8 @@ public class UserDB {
             return;
         }
         
-        db.collection("users").document(deviceId)
-            .get()
+        metrics.read("UserDB.getUser", db.collection("users").document(deviceId)
+            .get())
             .addOnSuccessListener(snapshot -> {
                 if (snapshot != null && snapshot.exists()) {
                     User user = snapshot.toObject(User.class);
@@ -96,8 +121,8 @@ public class UserDB {
             return;
         }
         
-        db.collection("users").document(deviceId)
-            .update(roleField, value)
+        metrics.write("UserDB.setRole", 1, db.collection("users").document(deviceId)
+            .update(roleField, value))
             .addOnSuccessListener(unused -> cb.onSuccess(null))
             .addOnFailureListener(cb::onError);
     }
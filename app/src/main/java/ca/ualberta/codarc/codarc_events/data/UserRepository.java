@@ -0,0 +1,21 @@
+package ca.ualberta.codarc.codarc_events.data;
+
+import ca.ualberta.codarc.codarc_events.models.User;
+
+/**
+ * User records and role flags.
+ * {@link UserDB} is the Firestore implementation.
+ */
+public interface UserRepository {
+
+    void ensureUserExists(String deviceId, UserDB.Callback<Void> cb);
+
+    /**
+     * Gets a user, failing with "User not found" if there is none.
+     */
+    void getUser(String deviceId, UserDB.Callback<User> cb);
+
+    void setEntrantRole(String deviceId, boolean isEntrant, UserDB.Callback<Void> cb);
+
+    void setOrganizerRole(String deviceId, boolean isOrganizer, UserDB.Callback<Void> cb);
+}
@@ -0,0 +1,252 @@
+package ca.ualberta.codarc.codarc_events.data;
+
+import androidx.annotation.NonNull;
+
+import com.google.firebase.firestore.ListenerRegistration;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Shared cache of waitlist counts keyed by event ID.
+ * Concurrent requests for the same event share one count query, and results are
+ * served from memory for a freshness window, so rebinding event cards is free.
+ * Entries are refreshed by a listener on the event document's waitlistCount field
+ * while at least one card showing the event is bound, and dropped whenever this
+ * device joins or leaves a waitlist.
+ */
+public class WaitlistCountCache {
+
+    /**
+     * Told when a watched event's count changes, so the cards showing it can rebind.
+     */
+    public interface OnCountChangeListener {
+        void onWaitlistCountChanged(String eventId);
+    }
+
+    private static final long FRESHNESS_WINDOW_MS = 60_000;
+
+    private static WaitlistCountCache instance;
+
+    private final CoalescingCache<Integer> counts;
+    /** Counter listener per event and how many bound cards are watching it. */
+    private final Map<String, Watch> watches = new HashMap<>();
+    private final List<OnCountChangeListener> changeListeners = new ArrayList<>();
+    private EventDB eventDB;
+
+    private static final class Watch {
+        private ListenerRegistration registration;
+        private int watchers;
+    }
+
+    /**
+     * Returns the process-wide cache. Firestore is not touched until the first lookup.
+     *
+     * @return the shared cache instance
+     */
+    public static synchronized WaitlistCountCache getInstance() {
+        if (instance == null) {
+            instance = new WaitlistCountCache(null, new CoalescingCache<>(FRESHNESS_WINDOW_MS));
+        }
+        return instance;
+    }
+
+    /**
+     * Creates a cache backed by the given EventDB.
+     *
+     * @param eventDB data source for counts (null to create one lazily)
+     * @param counts the underlying cache
+     */
+    public WaitlistCountCache(EventDB eventDB, CoalescingCache<Integer> counts) {
+        this.eventDB = eventDB;
+        this.counts = counts;
+    }
+
+    /**
+     * Gets the waitlist count for an event, from memory when fresh.
+     *
+     * @param eventId the event ID
+     * @param cb callback with the count
+     */
+    public void getWaitlistCount(String eventId, EventDB.Callback<Integer> cb) {
+        counts.get(eventId,
+                (key, loadCb) -> eventDB().getWaitlistCount(key, new EventDB.Callback<Integer>() {
+                    @Override
+                    public void onSuccess(Integer value) {
+                        loadCb.onSuccess(value != null ? value : 0);
+                    }
+
+                    @Override
+                    public void onError(@NonNull Exception e) {
+                        loadCb.onError(e);
+                    }
+                }),
+                new CoalescingCache.Callback<Integer>() {
+                    @Override
+                    public void onSuccess(Integer value) {
+                        cb.onSuccess(value);
+                    }
+
+                    @Override
+                    public void onError(@NonNull Exception e) {
+                        cb.onError(e);
+                    }
+                });
+    }
+
+    /**
+     * Returns the cached count without any network access.
+     *
+     * @param eventId the event ID
+     * @return the fresh cached count, or null if none is cached
+     */
+    public Integer peekWaitlistCount(String eventId) {
+        return counts.peek(eventId);
+    }
+
+    /**
+     * Starts listening to the event's counter field so the cached count stays
+     * current. Every call must be paired with {@link #unwatch}; the listener is
+     * shared and stays until the last watcher is gone.
+     *
+     * @param eventId the event ID
+     */
+    public void watch(String eventId) {
+        if (eventId == null || eventId.isEmpty()) {
+            return;
+        }
+        synchronized (watches) {
+            Watch watch = watches.get(eventId);
+            if (watch != null) {
+                watch.watchers++;
+                return;
+            }
+            watch = new Watch();
+            watch.watchers = 1;
+            watch.registration = eventDB().addWaitlistCounterListener(eventId,
+                    new EventDB.Callback<Integer>() {
+                        private boolean initialSnapshot = true;
+
+                        @Override
+                        public void onSuccess(Integer value) {
+                            // Events without a counter only tell us "something changed",
+                            // which the first snapshot never means.
+                            boolean changed = false;
+                            if (value != null) {
+                                changed = !value.equals(counts.peek(eventId));
+                                counts.put(eventId, value);
+                            } else if (!initialSnapshot) {
+                                counts.invalidate(eventId);
+                                changed = true;
+                            }
+                            initialSnapshot = false;
+                            if (changed) {
+                                notifyChanged(eventId);
+                            }
+                        }
+
+                        @Override
+                        public void onError(@NonNull Exception e) {
+                            counts.invalidate(eventId);
+                        }
+                    });
+            watches.put(eventId, watch);
+        }
+    }
+
+    /**
+     * Stops one watch started with {@link #watch}. The counter listener is removed
+     * with the last one.
+     *
+     * @param eventId the event ID
+     */
+    public void unwatch(String eventId) {
+        if (eventId == null) {
+            return;
+        }
+        ListenerRegistration toRemove = null;
+        synchronized (watches) {
+            Watch watch = watches.get(eventId);
+            if (watch == null) {
+                return;
+            }
+            watch.watchers--;
+            if (watch.watchers == 0) {
+                watches.remove(eventId);
+                toRemove = watch.registration;
+            }
+        }
+        if (toRemove != null) {
+            toRemove.remove();
+        }
+    }
+
+    /**
+     * @return the number of events with a counter listener
+     */
+    public int watchedCount() {
+        synchronized (watches) {
+            return watches.size();
+        }
+    }
+
+    public void addOnCountChangeListener(OnCountChangeListener listener) {
+        synchronized (changeListeners) {
+            changeListeners.add(listener);
+        }
+    }
+
+    public void removeOnCountChangeListener(OnCountChangeListener listener) {
+        synchronized (changeListeners) {
+            changeListeners.remove(listener);
+        }
+    }
+
+    /**
+     * Drops the cached count for an event, for example after a local join or leave.
+     *
+     * @param eventId the event ID
+     */
+    public void invalidate(String eventId) {
+        if (eventId != null) {
+            counts.invalidate(eventId);
+        }
+    }
+
+    /**
+     * Removes all counter listeners. Cached counts are kept until they expire.
+     */
+    public void releaseListeners() {
+        List<ListenerRegistration> toRemove = new ArrayList<>();
+        synchronized (watches) {
+            for (Watch watch : watches.values()) {
+                toRemove.add(watch.registration);
+            }
+            watches.clear();
+        }
+        for (ListenerRegistration registration : toRemove) {
+            if (registration != null) {
+                registration.remove();
+            }
+        }
+    }
+
+    private void notifyChanged(String eventId) {
+        List<OnCountChangeListener> toNotify;
+        synchronized (changeListeners) {
+            toNotify = new ArrayList<>(changeListeners);
+        }
+        for (OnCountChangeListener listener : toNotify) {
+            listener.onWaitlistCountChanged(eventId);
+        }
+    }
+
+    private synchronized EventDB eventDB() {
+        if (eventDB == null) {
+            eventDB = new EventDB();
+        }
+        return eventDB;
+    }
+}
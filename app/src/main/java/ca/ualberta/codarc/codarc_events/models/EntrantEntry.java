@@ -0,0 +1,33 @@
+package ca.ualberta.codarc.codarc_events.models;
+
+/**
+ * One entrant in an event list: the waitlist, winners, replacement pool,
+ * accepted, cancelled or check-ins. Holds the device ID and when the entrant
+ * was added to that list.
+ */
+public final class EntrantEntry {
+
+    private final String deviceId;
+    private final long timestamp;
+
+    /**
+     * @param deviceId the entrant's device ID
+     * @param timestamp when the entrant was added to the list, in epoch millis, or 0 if not known
+     */
+    public EntrantEntry(String deviceId, long timestamp) {
+        this.deviceId = deviceId;
+        this.timestamp = timestamp;
+    }
+
+    public String getDeviceId() {
+        return deviceId;
+    }
+
+    /**
+     * @return epoch millis; 0 when the document has no time yet, such as a
+     *         server timestamp that has not been written back
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+}
@@ -1,7 +1,9 @@
 package ca.ualberta.codarc.codarc_events.models;
 
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Plain data holder for events.
@@ -22,9 +24,33 @@ public class Event implements Serializable {
     private String location;
     private List<String> tags;
     private String posterUrl;
+    private String posterThumbUrl;
+    private String posterCardUrl;
 
     public Event() { }
 
+    /**
+     * Creates a copy of another event. The tag list is copied, not shared.
+     *
+     * @param other the event to copy
+     */
+    public Event(Event other) {
+        this.id = other.id;
+        this.name = other.name;
+        this.description = other.description;
+        this.eventDateTime = other.eventDateTime;
+        this.registrationOpen = other.registrationOpen;
+        this.registrationClose = other.registrationClose;
+        this.open = other.open;
+        this.organizerId = other.organizerId;
+        this.qrCode = other.qrCode;
+        this.maxCapacity = other.maxCapacity;
+        this.location = other.location;
+        this.tags = other.tags != null ? new ArrayList<>(other.tags) : null;
+        this.posterUrl = other.posterUrl;
+        this.posterThumbUrl = other.posterThumbUrl;
+        this.posterCardUrl = other.posterCardUrl;
+    }
 
     /**
      * Creates an Event with the given details.
@@ -81,6 +107,27 @@ public class Event implements Serializable {
 
     public String getPosterUrl() { return posterUrl; }
 
+    public String getPosterThumbUrl() { return posterThumbUrl; }
+
+    public String getPosterCardUrl() { return posterCardUrl; }
+
+    /**
+     * Returns the URL of a poster rendition. Posters uploaded before renditions
+     * existed only have the full image, which is returned for every size.
+     *
+     * @param rendition the size wanted
+     * @return the URL, or null if the event has no poster
+     */
+    public String getPosterUrl(PosterRendition rendition) {
+        String url = null;
+        if (rendition == PosterRendition.THUMB) {
+            url = posterThumbUrl;
+        } else if (rendition == PosterRendition.CARD) {
+            url = posterCardUrl;
+        }
+        return url != null && !url.isEmpty() ? url : posterUrl;
+    }
+
     // Setters
     public void setId(String id) { this.id = id; }
 
@@ -107,5 +154,20 @@ public class Event implements Serializable {
     public void setTags(List<String> tags) { this.tags = tags; }
 
     public void setPosterUrl(String posterUrl) { this.posterUrl = posterUrl; }
+
+    public void setPosterThumbUrl(String posterThumbUrl) { this.posterThumbUrl = posterThumbUrl; }
+
+    public void setPosterCardUrl(String posterCardUrl) { this.posterCardUrl = posterCardUrl; }
+
+    /**
+     * Replaces every poster URL. Renditions missing from the map are cleared.
+     *
+     * @param urls download URLs by rendition, or null to remove the poster
+     */
+    public void setPosterUrls(Map<PosterRendition, String> urls) {
+        this.posterThumbUrl = urls != null ? urls.get(PosterRendition.THUMB) : null;
+        this.posterCardUrl = urls != null ? urls.get(PosterRendition.CARD) : null;
+        this.posterUrl = urls != null ? urls.get(PosterRendition.FULL) : null;
+    }
 }
 
@@ -0,0 +1,61 @@
+package ca.ualberta.codarc.codarc_events.models;
+
+/**
+ * Where an entrant stands in an event. Stored as the "status" field of
+ * events/{eventId}/memberships/{deviceId}; an entrant with no membership
+ * document has no relationship to the event.
+ */
+public enum MembershipStatus {
+    WAITLISTED("waitlisted"),
+    INVITED("invited"),
+    ACCEPTED("accepted"),
+    CANCELLED("cancelled"),
+    REPLACEMENT_POOL("replacementPool");
+
+    private final String value;
+
+    MembershipStatus(String value) {
+        this.value = value;
+    }
+
+    /**
+     * @return the value stored in Firestore
+     */
+    public String getValue() {
+        return value;
+    }
+
+    /**
+     * @return the name of the timestamp field set when an entrant enters this status
+     */
+    public String getTimestampField() {
+        return value + "At";
+    }
+
+    /**
+     * Waitlisted, invited and accepted entrants cannot join the waitlist again.
+     *
+     * @return true if an entrant in this status may join the waitlist
+     */
+    public boolean canJoinWaitlist() {
+        return this == CANCELLED || this == REPLACEMENT_POOL;
+    }
+
+    /**
+     * Parses a stored status value.
+     *
+     * @param value the stored value
+     * @return the matching status, or null if the value is null or unknown
+     */
+    public static MembershipStatus fromValue(String value) {
+        if (value == null) {
+            return null;
+        }
+        for (MembershipStatus status : values()) {
+            if (status.value.equals(value)) {
+                return status;
+            }
+        }
+        return null;
+    }
+}
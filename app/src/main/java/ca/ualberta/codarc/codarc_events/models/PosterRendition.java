@@ -0,0 +1,57 @@
+package ca.ualberta.codarc.codarc_events.models;
+
+/**
+ * Sizes a poster is stored at. Each screen loads the smallest one that covers it
+ * instead of the original upload.
+ */
+public enum PosterRendition {
+    THUMB("thumb", 320, 70),
+    CARD("card", 960, 80),
+    FULL("full", 2048, 85);
+
+    private final String suffix;
+    private final int maxEdgePx;
+    private final int quality;
+
+    PosterRendition(String suffix, int maxEdgePx, int quality) {
+        this.suffix = suffix;
+        this.maxEdgePx = maxEdgePx;
+        this.quality = quality;
+    }
+
+    /**
+     * @return the file name used in Storage, without extension
+     */
+    public String getSuffix() {
+        return suffix;
+    }
+
+    /**
+     * @return the longest edge in pixels; smaller images are not scaled up
+     */
+    public int getMaxEdgePx() {
+        return maxEdgePx;
+    }
+
+    /**
+     * @return encoder quality, 0-100
+     */
+    public int getQuality() {
+        return quality;
+    }
+
+    /**
+     * Picks the smallest rendition at least as large as a view.
+     *
+     * @param sizePx the longest edge the image will be drawn at
+     * @return the rendition to load
+     */
+    public static PosterRendition forSize(int sizePx) {
+        for (PosterRendition rendition : values()) {
+            if (sizePx <= rendition.maxEdgePx) {
+                return rendition;
+            }
+        }
+        return FULL;
+    }
+}
@@ -0,0 +1,214 @@
+package ca.ualberta.codarc.codarc_events.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Geohash encoding and the query ranges that cover an area. A geohash sorts
+ * nearby points next to each other, so an area search becomes a few range
+ * queries on one string field; callers then drop the points outside the exact
+ * radius or box.
+ */
+public final class GeoHash {
+
+    /** Characters stored per location; about 5 m by 5 m at this length. */
+    public static final int PRECISION = 9;
+    /** Sorts after every geohash character, so {@code hash + END} closes a prefix range. */
+    public static final String END = "~";
+
+    private static final String BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz";
+    private static final double EARTH_RADIUS_M = 6_371_008.8;
+    private static final double METERS_PER_DEGREE_LAT = 111_320.0;
+    /** Upper bound on cells per search; more means fewer wasted reads but more queries. */
+    private static final int MAX_CELLS = 16;
+
+    private GeoHash() { }
+
+    /**
+     * Encodes a location at {@link #PRECISION}.
+     */
+    public static String encode(double latitude, double longitude) {
+        return encode(latitude, longitude, PRECISION);
+    }
+
+    /**
+     * Encodes a location.
+     *
+     * @param latitude latitude in degrees
+     * @param longitude longitude in degrees
+     * @param precision number of characters, 1 to 12
+     * @return the geohash
+     */
+    public static String encode(double latitude, double longitude, int precision) {
+        if (precision < 1 || precision > 12) {
+            throw new IllegalArgumentException("precision must be between 1 and 12");
+        }
+        int bits = precision * 5;
+        long x = cellIndex(longitude, -180, 360, (bits + 1) / 2);
+        long y = cellIndex(latitude, -90, 180, bits / 2);
+        return encodeCell(x, y, precision);
+    }
+
+    /**
+     * Great-circle distance between two locations.
+     *
+     * @return the distance in meters
+     */
+    public static double distanceMeters(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return 2 * EARTH_RADIUS_M * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    /**
+     * Box that contains every point within a radius.
+     *
+     * @return south, west, north and east edges; west is greater than east when the
+     *         box crosses the antimeridian
+     */
+    public static double[] boundsForRadius(double latitude, double longitude, double radiusMeters) {
+        double dLat = radiusMeters / METERS_PER_DEGREE_LAT;
+        double south = Math.max(-90, latitude - dLat);
+        double north = Math.min(90, latitude + dLat);
+        double cos = Math.cos(Math.toRadians(Math.max(Math.abs(south), Math.abs(north))));
+        if (north >= 90 || south <= -90 || cos <= 0) {
+            return new double[]{south, -180, north, 180};
+        }
+        double dLng = radiusMeters / (METERS_PER_DEGREE_LAT * cos);
+        if (dLng >= 180) {
+            return new double[]{south, -180, north, 180};
+        }
+        return new double[]{south, wrap(longitude - dLng), north, wrap(longitude + dLng)};
+    }
+
+    /**
+     * Tests whether a point falls in a box that may cross the antimeridian.
+     */
+    public static boolean contains(double south, double west, double north, double east,
+                                   double latitude, double longitude) {
+        if (latitude < south || latitude > north) {
+            return false;
+        }
+        return west <= east
+                ? longitude >= west && longitude <= east
+                : longitude >= west || longitude <= east;
+    }
+
+    /**
+     * Geohash ranges that together cover a box. Each range is {startAt, endAt},
+     * both inclusive, and adjacent cells are merged into one range.
+     *
+     * @return the ranges, sorted and not overlapping
+     */
+    public static List<String[]> rangesForBounds(double south, double west, double north, double east) {
+        if (west > east) {
+            List<String[]> ranges = rangesForBounds(south, west, north, 180);
+            ranges.addAll(rangesForBounds(south, -180, north, east));
+            return ranges;
+        }
+        for (int precision = PRECISION; precision >= 1; precision--) {
+            int bits = precision * 5;
+            int lngBits = (bits + 1) / 2;
+            int latBits = bits / 2;
+            long x0 = cellIndex(west, -180, 360, lngBits);
+            long x1 = cellIndex(east, -180, 360, lngBits);
+            long y0 = cellIndex(south, -90, 180, latBits);
+            long y1 = cellIndex(north, -90, 180, latBits);
+            if ((x1 - x0 + 1) * (y1 - y0 + 1) > MAX_CELLS) {
+                continue;
+            }
+            TreeSet<String> cells = new TreeSet<>();
+            for (long x = x0; x <= x1; x++) {
+                for (long y = y0; y <= y1; y++) {
+                    cells.add(encodeCell(x, y, precision));
+                }
+            }
+            return merge(cells);
+        }
+        List<String[]> everything = new ArrayList<>();
+        everything.add(new String[]{"0", "z" + END});
+        return everything;
+    }
+
+    private static List<String[]> merge(TreeSet<String> cells) {
+        List<String[]> ranges = new ArrayList<>();
+        String start = null;
+        String last = null;
+        for (String cell : cells) {
+            if (last != null && cell.equals(successor(last))) {
+                last = cell;
+                continue;
+            }
+            if (start != null) {
+                ranges.add(new String[]{start, last + END});
+            }
+            start = cell;
+            last = cell;
+        }
+        if (start != null) {
+            ranges.add(new String[]{start, last + END});
+        }
+        return ranges;
+    }
+
+    /**
+     * The next geohash of the same length, or null after the last one.
+     */
+    static String successor(String hash) {
+        char[] chars = hash.toCharArray();
+        for (int i = chars.length - 1; i >= 0; i--) {
+            int digit = BASE32.indexOf(chars[i]);
+            if (digit < 31) {
+                chars[i] = BASE32.charAt(digit + 1);
+                return new String(chars);
+            }
+            chars[i] = BASE32.charAt(0);
+        }
+        return null;
+    }
+
+    private static long cellIndex(double value, double min, double span, int bits) {
+        long cells = 1L << bits;
+        long index = (long) Math.floor((value - min) / span * cells);
+        return Math.max(0, Math.min(cells - 1, index));
+    }
+
+    /**
+     * Interleaves longitude and latitude cell indexes, longitude first, into base32.
+     */
+    private static String encodeCell(long x, long y, int precision) {
+        int bits = precision * 5;
+        int lngBit = (bits + 1) / 2;
+        int latBit = bits / 2;
+        StringBuilder hash = new StringBuilder(precision);
+        int chunk = 0;
+        for (int i = 0; i < bits; i++) {
+            int bit;
+            if (i % 2 == 0) {
+                bit = (int) ((x >> --lngBit) & 1);
+            } else {
+                bit = (int) ((y >> --latBit) & 1);
+            }
+            chunk = (chunk << 1) | bit;
+            if (i % 5 == 4) {
+                hash.append(BASE32.charAt(chunk));
+                chunk = 0;
+            }
+        }
+        return hash.toString();
+    }
+
+    private static double wrap(double longitude) {
+        if (longitude > 180) {
+            return longitude - 360;
+        }
+        if (longitude < -180) {
+            return longitude + 360;
+        }
+        return longitude;
+    }
+}
@@ -5,6 +5,7 @@ import android.content.Context;
 import android.content.pm.PackageManager;
 import android.location.Location;
 import android.os.Build;
+import android.os.SystemClock;
 import android.util.Log;
 import androidx.annotation.NonNull;
 import androidx.core.content.ContextCompat;
@@ -13,6 +14,7 @@ import com.google.android.gms.location.FusedLocationProviderClient;
 import com.google.android.gms.location.LocationRequest;
 import com.google.android.gms.location.LocationServices;
 import com.google.android.gms.location.Priority;
+import com.google.android.gms.tasks.CancellationToken;
 
 /**
  * Helper for requesting location permission and getting current location.
@@ -20,6 +22,13 @@ import com.google.android.gms.location.Priority;
 public class LocationHelper {
     
     private static final String TAG = "LocationHelper";
+
+    /** Oldest cached fix still taken as where the entrant joined from. */
+    static final long MAX_CACHED_AGE_MS = 10 * 60 * 1000;
+    /** Cached fixes with a wider accuracy radius than this are not used. */
+    static final float MAX_CACHED_ACCURACY_M = 1_000f;
+    /** Nothing waits on a join location, so a fresh coarse fix may take this long. */
+    private static final long JOIN_FIX_TIMEOUT_MS = 30_000;
     
     /**
      * Checks if location permission is granted.
@@ -44,8 +53,21 @@ public class LocationHelper {
      * @param context the context
      * @param callback callback with location (may be null if unavailable)
      */
-    @SuppressWarnings("MissingPermission")
     public static void getCurrentLocation(Context context, LocationCallback callback) {
+        getCurrentLocation(context, null, callback);
+    }
+
+    /**
+     * Gets the current location, giving up once the token is cancelled.
+     * A cancelled request does not call the callback.
+     *
+     * @param context the context
+     * @param cancellationToken token that cancels the request (may be null)
+     * @param callback callback with location (may be null if unavailable)
+     */
+    @SuppressWarnings("MissingPermission")
+    public static void getCurrentLocation(Context context, CancellationToken cancellationToken,
+                                          LocationCallback callback) {
         if (!hasLocationPermission(context)) {
             callback.onLocation(null);
             return;
@@ -54,26 +76,108 @@ public class LocationHelper {
         FusedLocationProviderClient locationClient = LocationServices.getFusedLocationProviderClient(context);
         
         locationClient.getLastLocation().addOnSuccessListener(location -> {
+            if (isCancelled(cancellationToken)) {
+                return;
+            }
             if (location != null) {
                 callback.onLocation(location);
             } else {
                 Log.d(TAG, "Last location is null, requesting fresh location");
-                requestFreshLocation(locationClient, callback);
+                requestFreshLocation(locationClient, cancellationToken, callback);
             }
         }).addOnFailureListener(e -> {
+            if (isCancelled(cancellationToken)) {
+                return;
+            }
             Log.e(TAG, "Failed to get last location", e);
-            requestFreshLocation(locationClient, callback);
+            requestFreshLocation(locationClient, cancellationToken, callback);
         });
     }
 
+    /**
+     * Gets a location to attach to a join after it has committed. A cached fix is
+     * used when it is recent and accurate enough; otherwise a coarse fix is
+     * requested, which cell and Wi-Fi usually answer before GPS would.
+     *
+     * @param context the context
+     * @param cancellationToken token that cancels the request (may be null)
+     * @param callback callback with location (may be null if unavailable)
+     */
     @SuppressWarnings("MissingPermission")
-    private static void requestFreshLocation(FusedLocationProviderClient locationClient, LocationCallback callback) {
+    public static void getJoinLocation(Context context, CancellationToken cancellationToken,
+                                       LocationCallback callback) {
+        if (!hasLocationPermission(context)) {
+            callback.onLocation(null);
+            return;
+        }
+
+        FusedLocationProviderClient locationClient = LocationServices.getFusedLocationProviderClient(context);
+
+        locationClient.getLastLocation().addOnSuccessListener(location -> {
+            if (isCancelled(cancellationToken)) {
+                return;
+            }
+            if (location != null && isUsableCachedFix(ageMillis(location), location.hasAccuracy(),
+                    location.getAccuracy())) {
+                callback.onLocation(location);
+            } else {
+                requestCoarseLocation(locationClient, cancellationToken, callback);
+            }
+        }).addOnFailureListener(e -> {
+            if (isCancelled(cancellationToken)) {
+                return;
+            }
+            Log.e(TAG, "Failed to get last location", e);
+            requestCoarseLocation(locationClient, cancellationToken, callback);
+        });
+    }
+
+    /**
+     * Whether a cached fix is recent and accurate enough to stand in for a fresh one.
+     *
+     * @param ageMillis time since the fix
+     * @param hasAccuracy whether the fix reports an accuracy
+     * @param accuracyMeters the accuracy radius, if reported
+     * @return true if the fix can be used
+     */
+    static boolean isUsableCachedFix(long ageMillis, boolean hasAccuracy, float accuracyMeters) {
+        return ageMillis >= 0 && ageMillis <= MAX_CACHED_AGE_MS
+                && hasAccuracy && accuracyMeters <= MAX_CACHED_ACCURACY_M;
+    }
+
+    private static long ageMillis(Location location) {
+        return (SystemClock.elapsedRealtimeNanos() - location.getElapsedRealtimeNanos()) / 1_000_000;
+    }
+
+    @SuppressWarnings("MissingPermission")
+    private static void requestCoarseLocation(FusedLocationProviderClient locationClient,
+                                              CancellationToken cancellationToken, LocationCallback callback) {
+        CurrentLocationRequest request = new CurrentLocationRequest.Builder()
+                .setPriority(Priority.PRIORITY_BALANCED_POWER_ACCURACY)
+                .setMaxUpdateAgeMillis(MAX_CACHED_AGE_MS)
+                .setDurationMillis(JOIN_FIX_TIMEOUT_MS)
+                .build();
+
+        locationClient.getCurrentLocation(request, cancellationToken)
+                .addOnSuccessListener(callback::onLocation)
+                .addOnFailureListener(e -> {
+                    if (isCancelled(cancellationToken)) {
+                        return;
+                    }
+                    Log.e(TAG, "Failed to get coarse location", e);
+                    callback.onLocation(null);
+                });
+    }
+
+    @SuppressWarnings("MissingPermission")
+    private static void requestFreshLocation(FusedLocationProviderClient locationClient,
+                                             CancellationToken cancellationToken, LocationCallback callback) {
         CurrentLocationRequest currentLocationRequest = new CurrentLocationRequest.Builder()
                 .setPriority(Priority.PRIORITY_HIGH_ACCURACY)
                 .setDurationMillis(5000)
                 .build();
         
-        locationClient.getCurrentLocation(currentLocationRequest, null)
+        locationClient.getCurrentLocation(currentLocationRequest, cancellationToken)
                 .addOnSuccessListener(location -> {
                     if (location != null) {
                         callback.onLocation(location);
@@ -83,10 +187,17 @@ public class LocationHelper {
                     }
                 })
                 .addOnFailureListener(e -> {
+                    if (isCancelled(cancellationToken)) {
+                        return;
+                    }
                     Log.e(TAG, "Failed to get fresh location", e);
                     callback.onLocation(null);
                 });
     }
+
+    private static boolean isCancelled(CancellationToken cancellationToken) {
+        return cancellationToken != null && cancellationToken.isCancellationRequested();
+    }
     
     public interface LocationCallback {
         void onLocation(Location location);
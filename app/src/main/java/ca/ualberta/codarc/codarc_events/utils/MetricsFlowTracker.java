@@ -0,0 +1,57 @@
+package ca.ualberta.codarc.codarc_events.utils;
+
+import android.app.Activity;
+import android.app.Application;
+import android.os.Bundle;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import ca.ualberta.codarc.codarc_events.data.FirestoreMetrics;
+
+/**
+ * Attributes Firestore operations to the screen in the foreground.
+ * Each resumed activity becomes the screen flow, which counts every operation
+ * issued outside a named flow that a controller opened, such as "join" or "draw".
+ */
+public class MetricsFlowTracker implements Application.ActivityLifecycleCallbacks {
+
+    private static boolean registered;
+
+    public static synchronized void register(Application application) {
+        if (registered) {
+            return;
+        }
+        application.registerActivityLifecycleCallbacks(new MetricsFlowTracker());
+        registered = true;
+    }
+
+    @Override
+    public void onActivityResumed(@NonNull Activity activity) {
+        FirestoreMetrics.getInstance().setFlow(activity.getClass().getSimpleName());
+    }
+
+    @Override
+    public void onActivityCreated(@NonNull Activity activity, @Nullable Bundle savedInstanceState) {
+    }
+
+    @Override
+    public void onActivityStarted(@NonNull Activity activity) {
+    }
+
+    @Override
+    public void onActivityPaused(@NonNull Activity activity) {
+    }
+
+    @Override
+    public void onActivityStopped(@NonNull Activity activity) {
+    }
+
+    @Override
+    public void onActivitySaveInstanceState(@NonNull Activity activity, @NonNull Bundle outState) {
+    }
+
+    @Override
+    public void onActivityDestroyed(@NonNull Activity activity) {
+    }
+}
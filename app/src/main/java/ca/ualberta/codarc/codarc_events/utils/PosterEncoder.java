@@ -0,0 +1,165 @@
+package ca.ualberta.codarc.codarc_events.utils;
+
+import android.content.ContentResolver;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Matrix;
+import android.media.ExifInterface;
+import android.net.Uri;
+import android.os.Build;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.EnumMap;
+import java.util.Map;
+
+import ca.ualberta.codarc.codarc_events.models.PosterRendition;
+
+/**
+ * Turns a picked image into the poster renditions. The source is decoded with
+ * sampling so a large photo never has to fit in memory at full size, and each
+ * rendition is scaled from that one decode. Call off the main thread.
+ */
+public final class PosterEncoder {
+
+    public static final String EXTENSION = ".webp";
+    public static final String CONTENT_TYPE = "image/webp";
+
+    private PosterEncoder() { }
+
+    /**
+     * Encodes every rendition of an image to WebP files.
+     *
+     * @param resolver resolver for the image URI
+     * @param imageUri the picked image
+     * @param outDir directory for the encoded files
+     * @param name prefix for the file names
+     * @return the encoded file for each rendition
+     * @throws IOException if the image cannot be read or written
+     */
+    public static Map<PosterRendition, File> encode(ContentResolver resolver, Uri imageUri,
+                                                     File outDir, String name) throws IOException {
+        BitmapFactory.Options bounds = new BitmapFactory.Options();
+        bounds.inJustDecodeBounds = true;
+        try (InputStream in = open(resolver, imageUri)) {
+            BitmapFactory.decodeStream(in, null, bounds);
+        }
+        if (bounds.outWidth <= 0 || bounds.outHeight <= 0) {
+            throw new IOException("Invalid file type. Please select an image file.");
+        }
+
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inSampleSize = sampleSize(bounds.outWidth, bounds.outHeight,
+                PosterRendition.FULL.getMaxEdgePx());
+        Bitmap source;
+        try (InputStream in = open(resolver, imageUri)) {
+            source = BitmapFactory.decodeStream(in, null, options);
+        }
+        if (source == null) {
+            throw new IOException("Invalid file type. Please select an image file.");
+        }
+        source = applyOrientation(source, readOrientation(resolver, imageUri));
+
+        if (!outDir.exists() && !outDir.mkdirs()) {
+            source.recycle();
+            throw new IOException("Cannot create " + outDir);
+        }
+        Map<PosterRendition, File> files = new EnumMap<>(PosterRendition.class);
+        try {
+            for (PosterRendition rendition : PosterRendition.values()) {
+                Bitmap scaled = scale(source, rendition.getMaxEdgePx());
+                File file = new File(outDir, name + "-" + rendition.getSuffix() + EXTENSION);
+                try (OutputStream out = new FileOutputStream(file)) {
+                    if (!scaled.compress(webpFormat(), rendition.getQuality(), out)) {
+                        throw new IOException("Failed to encode " + rendition.getSuffix());
+                    }
+                } finally {
+                    if (scaled != source) {
+                        scaled.recycle();
+                    }
+                }
+                files.put(rendition, file);
+            }
+        } catch (IOException e) {
+            for (File file : files.values()) {
+                file.delete();
+            }
+            throw e;
+        } finally {
+            source.recycle();
+        }
+        return files;
+    }
+
+    /**
+     * Largest power of two that still leaves the longest edge at least {@code targetEdge}.
+     */
+    static int sampleSize(int width, int height, int targetEdge) {
+        int longEdge = Math.max(width, height);
+        int sample = 1;
+        while (longEdge / (sample * 2) >= targetEdge) {
+            sample *= 2;
+        }
+        return sample;
+    }
+
+    private static Bitmap scale(Bitmap source, int maxEdge) {
+        int longEdge = Math.max(source.getWidth(), source.getHeight());
+        if (longEdge <= maxEdge) {
+            return source;
+        }
+        float factor = (float) maxEdge / longEdge;
+        int width = Math.max(1, Math.round(source.getWidth() * factor));
+        int height = Math.max(1, Math.round(source.getHeight() * factor));
+        return Bitmap.createScaledBitmap(source, width, height, true);
+    }
+
+    private static int readOrientation(ContentResolver resolver, Uri imageUri) {
+        try (InputStream in = open(resolver, imageUri)) {
+            return new ExifInterface(in).getAttributeInt(ExifInterface.TAG_ORIENTATION,
+                    ExifInterface.ORIENTATION_NORMAL);
+        } catch (IOException | RuntimeException e) {
+            return ExifInterface.ORIENTATION_NORMAL;
+        }
+    }
+
+    private static Bitmap applyOrientation(Bitmap source, int orientation) {
+        Matrix matrix = new Matrix();
+        switch (orientation) {
+            case ExifInterface.ORIENTATION_ROTATE_90:
+                matrix.postRotate(90);
+                break;
+            case ExifInterface.ORIENTATION_ROTATE_180:
+                matrix.postRotate(180);
+                break;
+            case ExifInterface.ORIENTATION_ROTATE_270:
+                matrix.postRotate(270);
+                break;
+            default:
+                return source;
+        }
+        Bitmap rotated = Bitmap.createBitmap(source, 0, 0, source.getWidth(), source.getHeight(), matrix, true);
+        if (rotated != source) {
+            source.recycle();
+        }
+        return rotated;
+    }
+
+    @SuppressWarnings("deprecation")
+    private static Bitmap.CompressFormat webpFormat() {
+        return Build.VERSION.SDK_INT >= Build.VERSION_CODES.R
+                ? Bitmap.CompressFormat.WEBP_LOSSY
+                : Bitmap.CompressFormat.WEBP;
+    }
+
+    private static InputStream open(ContentResolver resolver, Uri imageUri) throws IOException {
+        InputStream in = resolver.openInputStream(imageUri);
+        if (in == null) {
+            throw new IOException("Cannot open " + imageUri);
+        }
+        return in;
+    }
+}
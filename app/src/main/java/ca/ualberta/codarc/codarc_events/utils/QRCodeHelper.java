@@ -0,0 +1,64 @@
+package ca.ualberta.codarc.codarc_events.utils;
+
+/**
+ * Utility class for reading event QR code payloads.
+ */
+public class QRCodeHelper {
+
+    private static final String EVENT_PREFIX = "event:";
+    private static final String CHECK_IN_PREFIX = "checkin:";
+
+    // The following function is from Anthropic Claude Sonnet 4.5, "How to parse QR code with event: prefix?", 2024-01-15
+    /**
+     * Parses an event ID from a QR code string.
+     *
+     * @param qrData the raw QR code string data
+     * @return the extracted event ID, or null if the input is invalid
+     */
+    public static String parseEventId(String qrData) {
+        if (qrData == null || qrData.trim().isEmpty()) {
+            return null;
+        }
+
+        String trimmed = qrData.trim();
+        if (trimmed.startsWith(EVENT_PREFIX)) {
+            String eventId = trimmed.substring(EVENT_PREFIX.length()).trim();
+            return eventId.isEmpty() ? null : eventId;
+        }
+
+        return trimmed;
+    }
+
+    /**
+     * Builds the check-in pass an accepted entrant shows at the door.
+     *
+     * @param eventId the event ID
+     * @param deviceId the entrant's device ID
+     * @return the QR payload
+     */
+    public static String buildCheckInPayload(String eventId, String deviceId) {
+        return CHECK_IN_PREFIX + eventId + ":" + deviceId;
+    }
+
+    /**
+     * Parses a check-in pass.
+     *
+     * @param qrData the raw QR code string data
+     * @return {eventId, deviceId}, or null if the input is not a check-in pass
+     */
+    public static String[] parseCheckIn(String qrData) {
+        if (qrData == null) {
+            return null;
+        }
+        String trimmed = qrData.trim();
+        if (!trimmed.startsWith(CHECK_IN_PREFIX)) {
+            return null;
+        }
+        String body = trimmed.substring(CHECK_IN_PREFIX.length());
+        int separator = body.indexOf(':');
+        if (separator <= 0 || separator == body.length() - 1) {
+            return null;
+        }
+        return new String[]{body.substring(0, separator), body.substring(separator + 1)};
+    }
+}
@@ -0,0 +1,246 @@
+package ca.ualberta.codarc.codarc_events.utils;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import android.util.LruCache;
+
+import androidx.annotation.NonNull;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.EncodeHintType;
+import com.google.zxing.WriterException;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.QRCodeWriter;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import ca.ualberta.codarc.codarc_events.data.FirestoreMetrics;
+
+/**
+ * Renders event QR codes off the main thread.
+ * Bitmaps are ALPHA_8 at one pixel per module (a few hundred bytes instead of a
+ * 600x600 ARGB image) and are meant to be drawn scaled up without filtering.
+ * Results are kept in a memory LRU, and the module matrix is kept on disk keyed
+ * by the QR payload, so reopening an event never re-encodes it.
+ */
+public class QRCodeRenderer {
+
+    private static final String TAG = "QRCodeRenderer";
+    private static final int MEMORY_CACHE_BYTES = 256 * 1024;
+    private static final String DISK_DIR = "qr";
+    private static final int DISK_FORMAT = 1;
+    private static final int QUIET_ZONE_MODULES = 1;
+
+    public interface Callback {
+        /**
+         * Called on the main thread with the rendered code.
+         */
+        void onRendered(@NonNull Bitmap bitmap);
+
+        void onError(@NonNull Exception e);
+    }
+
+    private static QRCodeRenderer instance;
+
+    private final LruCache<String, Bitmap> memory = new LruCache<String, Bitmap>(MEMORY_CACHE_BYTES) {
+        @Override
+        protected int sizeOf(String key, Bitmap bitmap) {
+            return bitmap.getByteCount();
+        }
+    };
+    private final File diskDir;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final FirestoreMetrics metrics = FirestoreMetrics.getInstance();
+
+    /**
+     * Returns the process-wide renderer, caching to the app's cache directory.
+     *
+     * @param context any context
+     * @return the shared renderer
+     */
+    public static synchronized QRCodeRenderer getInstance(Context context) {
+        if (instance == null) {
+            instance = new QRCodeRenderer(new File(context.getApplicationContext().getCacheDir(), DISK_DIR));
+        }
+        return instance;
+    }
+
+    private QRCodeRenderer(File diskDir) {
+        this.diskDir = diskDir;
+    }
+
+    /**
+     * Returns an already rendered code without doing any work.
+     *
+     * @param qrData the QR payload
+     * @return the bitmap, or null if it is not in memory
+     */
+    public Bitmap peek(String qrData) {
+        return qrData != null ? memory.get(qrData) : null;
+    }
+
+    /**
+     * Renders a QR code. A code already in memory is delivered before this returns;
+     * otherwise it is loaded from disk or encoded on a background thread.
+     *
+     * @param qrData the QR payload
+     * @param cb callback, always invoked on the main thread
+     */
+    public void render(String qrData, Callback cb) {
+        if (qrData == null || qrData.isEmpty()) {
+            cb.onError(new IllegalArgumentException("qrData cannot be empty"));
+            return;
+        }
+        Bitmap cached = memory.get(qrData);
+        if (cached != null) {
+            cb.onRendered(cached);
+            return;
+        }
+        String flow = metrics.getFlow();
+        executor.execute(() -> {
+            long start = System.nanoTime();
+            try {
+                BitMatrix matrix = readFromDisk(qrData);
+                String operation = "QRCodeRenderer.diskHit";
+                if (matrix == null) {
+                    matrix = encode(qrData);
+                    writeToDisk(qrData, matrix);
+                    operation = "QRCodeRenderer.encode";
+                }
+                Bitmap bitmap = toBitmap(matrix);
+                memory.put(qrData, bitmap);
+                if (metrics.isEnabled()) {
+                    metrics.record(flow, operation, System.nanoTime() - start, true, 0, 0, 0, 0);
+                }
+                mainHandler.post(() -> cb.onRendered(bitmap));
+            } catch (WriterException | RuntimeException e) {
+                mainHandler.post(() -> cb.onError(e));
+            }
+        });
+    }
+
+    private static BitMatrix encode(String qrData) throws WriterException {
+        Map<EncodeHintType, Object> hints = new EnumMap<>(EncodeHintType.class);
+        hints.put(EncodeHintType.MARGIN, QUIET_ZONE_MODULES);
+        hints.put(EncodeHintType.CHARACTER_SET, "UTF-8");
+        // A zero size asks for one pixel per module.
+        return new QRCodeWriter().encode(qrData, BarcodeFormat.QR_CODE, 0, 0, hints);
+    }
+
+    /**
+     * Dark modules are opaque and light ones transparent, so the code takes the
+     * paint colour and shows the view's background between modules.
+     */
+    private static Bitmap toBitmap(BitMatrix matrix) {
+        int width = matrix.getWidth();
+        int height = matrix.getHeight();
+        Bitmap bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ALPHA_8);
+        int rowBytes = bitmap.getRowBytes();
+        byte[] pixels = new byte[rowBytes * height];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                if (matrix.get(x, y)) {
+                    pixels[y * rowBytes + x] = (byte) 0xFF;
+                }
+            }
+        }
+        bitmap.copyPixelsFromBuffer(ByteBuffer.wrap(pixels));
+        return bitmap;
+    }
+
+    private BitMatrix readFromDisk(String qrData) {
+        File file = new File(diskDir, diskKey(qrData));
+        if (!file.exists()) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+            if (in.readInt() != DISK_FORMAT || !qrData.equals(in.readUTF())) {
+                return null;
+            }
+            int width = in.readInt();
+            int height = in.readInt();
+            BitMatrix matrix = new BitMatrix(width, height);
+            int bits = 0;
+            int available = 0;
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < width; x++) {
+                    if (available == 0) {
+                        bits = in.readUnsignedByte();
+                        available = 8;
+                    }
+                    available--;
+                    if ((bits & (1 << available)) != 0) {
+                        matrix.set(x, y);
+                    }
+                }
+            }
+            return matrix;
+        } catch (IOException | RuntimeException e) {
+            Log.w(TAG, "Discarding unreadable QR cache entry", e);
+            file.delete();
+            return null;
+        }
+    }
+
+    private void writeToDisk(String qrData, BitMatrix matrix) {
+        if (!diskDir.exists() && !diskDir.mkdirs()) {
+            return;
+        }
+        File file = new File(diskDir, diskKey(qrData));
+        try (DataOutputStream out = new DataOutputStream(new FileOutputStream(file))) {
+            out.writeInt(DISK_FORMAT);
+            out.writeUTF(qrData);
+            out.writeInt(matrix.getWidth());
+            out.writeInt(matrix.getHeight());
+            int bits = 0;
+            int used = 0;
+            for (int y = 0; y < matrix.getHeight(); y++) {
+                for (int x = 0; x < matrix.getWidth(); x++) {
+                    bits = (bits << 1) | (matrix.get(x, y) ? 1 : 0);
+                    if (++used == 8) {
+                        out.writeByte(bits);
+                        bits = 0;
+                        used = 0;
+                    }
+                }
+            }
+            if (used > 0) {
+                out.writeByte(bits << (8 - used));
+            }
+        } catch (IOException e) {
+            Log.w(TAG, "Failed to cache QR code", e);
+            file.delete();
+        }
+    }
+
+    private static String diskKey(String qrData) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(qrData.getBytes(StandardCharsets.UTF_8));
+            StringBuilder key = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                key.append(String.format("%02x", b));
+            }
+            return key.toString();
+        } catch (NoSuchAlgorithmException e) {
+            return Integer.toHexString(qrData.hashCode());
+        }
+    }
+}
@@ -0,0 +1,296 @@
+package ca.ualberta.codarc.codarc_events.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Prefix trie of tags ranked by usage count, for autocomplete.
+ *
+ * <p>Each tag is indexed under its full normalized text and under the start of
+ * every later word, so "climb" finds "rock climbing". Every node keeps the best
+ * {@link #getCapacity()} tags of its subtree, so a suggestion is a walk down the
+ * prefix plus a copy of that list, independent of how many tags there are.
+ * Changing a count only marks the nodes on the tag's paths; their lists are
+ * rebuilt from the children's lists on the next lookup that reaches them.
+ *
+ * <p>Not thread-safe; callers synchronize.
+ */
+public class TagTrie {
+
+    /** Most used first, then alphabetical. */
+    private static final Comparator<Ranked> RANKING = (a, b) -> {
+        if (a.usageCount != b.usageCount) {
+            return Long.compare(b.usageCount, a.usageCount);
+        }
+        return a.tag.compareTo(b.tag);
+    };
+
+    private final int capacity;
+    private final Node root = new Node();
+    private final Map<String, Ranked> tags = new HashMap<>();
+
+    /**
+     * @param capacity the most suggestions a lookup can return
+     */
+    public TagTrie(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.capacity = capacity;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @return the number of distinct tags
+     */
+    public int size() {
+        return tags.size();
+    }
+
+    /**
+     * @param tag the tag, normalized or not
+     * @return true if the tag is in the trie
+     */
+    public boolean contains(String tag) {
+        return tags.containsKey(TagHelper.normalizeTag(tag));
+    }
+
+    /**
+     * Adds a tag or changes its usage count.
+     *
+     * @param tag the tag; stored normalized, blank tags are ignored
+     * @param usageCount how many events use it
+     */
+    public void put(String tag, long usageCount) {
+        String normalized = TagHelper.normalizeTag(tag);
+        if (normalized.isEmpty()) {
+            return;
+        }
+        Ranked existing = tags.get(normalized);
+        if (existing != null) {
+            if (existing.usageCount == usageCount) {
+                return;
+            }
+            // Entries are shared by reference, so the node lists must be rebuilt, not patched.
+            removeFromPaths(existing);
+        }
+        Ranked ranked = new Ranked(normalized, usageCount);
+        tags.put(normalized, ranked);
+        for (String key : keys(normalized)) {
+            Node node = root;
+            node.dirty = true;
+            for (int i = 0; i < key.length(); i++) {
+                node = node.childOrAdd(key.charAt(i));
+                node.dirty = true;
+            }
+            if (node.terminal == null) {
+                node.terminal = new ArrayList<>(1);
+            }
+            node.terminal.add(ranked);
+        }
+    }
+
+    /**
+     * Removes a tag.
+     *
+     * @param tag the tag, normalized or not
+     */
+    public void remove(String tag) {
+        Ranked existing = tags.remove(TagHelper.normalizeTag(tag));
+        if (existing != null) {
+            removeFromPaths(existing);
+        }
+    }
+
+    /**
+     * Suggests the most used tags matching a prefix.
+     *
+     * @param prefix what the user has typed; blank returns the most used tags overall
+     * @param limit the most suggestions to return, capped at {@link #getCapacity()}
+     * @return matching tags, most used first
+     */
+    public List<String> suggest(String prefix, int limit) {
+        String normalized = TagHelper.normalizeTag(prefix);
+        Node node = root;
+        for (int i = 0; i < normalized.length() && node != null; i++) {
+            node = node.child(normalized.charAt(i));
+        }
+        if (node == null || limit <= 0) {
+            return new ArrayList<>();
+        }
+        List<Ranked> best = best(node);
+        int count = Math.min(limit, best.size());
+        List<String> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(best.get(i).tag);
+        }
+        return result;
+    }
+
+    /**
+     * @return every tag, alphabetical
+     */
+    public List<String> allTags() {
+        List<String> all = new ArrayList<>(tags.keySet());
+        Collections.sort(all);
+        return all;
+    }
+
+    /**
+     * The full tag and the text from each later word start, e.g. "rock climbing"
+     * gives "rock climbing" and "climbing".
+     */
+    private static List<String> keys(String normalized) {
+        List<String> keys = new ArrayList<>(2);
+        keys.add(normalized);
+        for (int i = 1; i < normalized.length(); i++) {
+            char previous = normalized.charAt(i - 1);
+            if ((previous == ' ' || previous == '-' || previous == '_') && isWordStart(normalized.charAt(i))) {
+                keys.add(normalized.substring(i));
+            }
+        }
+        return keys;
+    }
+
+    private static boolean isWordStart(char c) {
+        return c != ' ' && c != '-' && c != '_';
+    }
+
+    private void removeFromPaths(Ranked ranked) {
+        for (String key : keys(ranked.tag)) {
+            List<Node> path = new ArrayList<>(key.length() + 1);
+            Node node = root;
+            path.add(node);
+            for (int i = 0; i < key.length() && node != null; i++) {
+                node = node.child(key.charAt(i));
+                path.add(node);
+            }
+            if (node == null || node.terminal == null) {
+                continue;
+            }
+            node.terminal.remove(ranked);
+            if (node.terminal.isEmpty()) {
+                node.terminal = null;
+            }
+            for (Node onPath : path) {
+                onPath.dirty = true;
+            }
+            // Prune nodes left with nothing under them.
+            for (int i = key.length(); i > 0; i--) {
+                Node child = path.get(i);
+                if (child.terminal != null || child.childCount > 0) {
+                    break;
+                }
+                path.get(i - 1).removeChild(key.charAt(i - 1));
+            }
+        }
+    }
+
+    /**
+     * The node's best tags, rebuilt from its own and its children's lists if marked.
+     * Children are rebuilt first, and only the marked ones, so a rebuild costs the
+     * nodes on changed paths rather than the whole subtree.
+     */
+    private List<Ranked> best(Node node) {
+        if (!node.dirty) {
+            return node.best;
+        }
+        node.dirty = false;
+        // Most nodes sit on a chain with one tag or one child; share that list.
+        if (node.childCount == 0 && node.terminal != null && node.terminal.size() == 1) {
+            node.best = node.terminal;
+            return node.best;
+        }
+        if (node.childCount == 1 && node.terminal == null) {
+            node.best = best(node.children[0]);
+            return node.best;
+        }
+        List<Ranked> candidates = new ArrayList<>();
+        if (node.terminal != null) {
+            candidates.addAll(node.terminal);
+        }
+        for (int i = 0; i < node.childCount; i++) {
+            candidates.addAll(best(node.children[i]));
+        }
+        Collections.sort(candidates, RANKING);
+        List<Ranked> best = new ArrayList<>(Math.min(capacity, candidates.size()));
+        for (Ranked ranked : candidates) {
+            if (best.size() == capacity) {
+                break;
+            }
+            // A tag reached through two of its words appears twice; entries are shared, so compare references.
+            if (!best.contains(ranked)) {
+                best.add(ranked);
+            }
+        }
+        node.best = best;
+        return best;
+    }
+
+    private static final class Ranked {
+        private final String tag;
+        private final long usageCount;
+
+        private Ranked(String tag, long usageCount) {
+            this.tag = tag;
+            this.usageCount = usageCount;
+        }
+    }
+
+    /** Children are kept in arrays sorted by character; most nodes have one. */
+    private static final class Node {
+        private char[] keys;
+        private Node[] children;
+        private int childCount;
+        /** Tags whose key ends here; usually one. */
+        private List<Ranked> terminal;
+        private List<Ranked> best = Collections.emptyList();
+        private boolean dirty;
+
+        private Node child(char c) {
+            int index = childCount > 0 ? Arrays.binarySearch(keys, 0, childCount, c) : -1;
+            return index >= 0 ? children[index] : null;
+        }
+
+        private Node childOrAdd(char c) {
+            int index = childCount > 0 ? Arrays.binarySearch(keys, 0, childCount, c) : -1;
+            if (index >= 0) {
+                return children[index];
+            }
+            int insertAt = -index - 1;
+            if (keys == null) {
+                keys = new char[1];
+                children = new Node[1];
+            } else if (childCount == keys.length) {
+                keys = Arrays.copyOf(keys, childCount * 2);
+                children = Arrays.copyOf(children, childCount * 2);
+            }
+            System.arraycopy(keys, insertAt, keys, insertAt + 1, childCount - insertAt);
+            System.arraycopy(children, insertAt, children, insertAt + 1, childCount - insertAt);
+            Node child = new Node();
+            keys[insertAt] = c;
+            children[insertAt] = child;
+            childCount++;
+            return child;
+        }
+
+        private void removeChild(char c) {
+            int index = childCount > 0 ? Arrays.binarySearch(keys, 0, childCount, c) : -1;
+            if (index < 0) {
+                return;
+            }
+            System.arraycopy(keys, index + 1, keys, index, childCount - index - 1);
+            System.arraycopy(children, index + 1, children, index, childCount - index - 1);
+            childCount--;
+            children[childCount] = null;
+        }
+    }
+}
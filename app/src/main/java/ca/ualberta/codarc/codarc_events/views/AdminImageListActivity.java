@@ -5,9 +5,14 @@ import android.widget.Toast;
 import androidx.annotation.NonNull;
 import androidx.appcompat.app.AlertDialog;
 import androidx.recyclerview.widget.GridLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.RequestManager;
+import com.bumptech.glide.integration.recyclerview.RecyclerViewPreloader;
+import com.bumptech.glide.util.FixedPreloadSizeProvider;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 import ca.ualberta.codarc.codarc_events.R;
 import ca.ualberta.codarc.codarc_events.adapters.AdminImageListAdapter;
@@ -18,12 +23,25 @@ import ca.ualberta.codarc.codarc_events.models.Event;
 /**
  * Displays a list of all events with images (posters) for administrators to browse and manage.
  * Provides gallery view with delete option for each image.
+ * Events with posters are fetched a page at a time as the grid scrolls.
  */
 public class AdminImageListActivity extends BaseAdminListActivity {
 
+    private static final int SPAN_COUNT = 2;
+    private static final int PAGE_SIZE = 24;
+    /** Fetch the next page once the last visible tile is this close to the end. */
+    private static final int PAGE_PREFETCH_ITEMS = 8;
+    /** Tiles preloaded ahead of the scroll (three rows). */
+    private static final int IMAGE_PRELOAD_ITEMS = 6;
+
     private AdminImageListAdapter adapter;
     private EventDB eventDB;
     private RemoveImageController removeImageController;
+    private GridLayoutManager layoutManager;
+    private boolean loadingPage;
+    private boolean hasMore;
+    /** Bumped on every reload so pages from an earlier load are dropped. */
+    private int generation;
 
     @Override
     protected int getLayoutResourceId() {
@@ -52,9 +70,26 @@ public class AdminImageListActivity extends BaseAdminListActivity {
 
     @Override
     protected void setupRecyclerView() {
-        recyclerView.setLayoutManager(new GridLayoutManager(this, 2));
-        adapter = new AdminImageListAdapter(event -> handleDeleteClick(event));
+        layoutManager = new GridLayoutManager(this, SPAN_COUNT);
+        recyclerView.setLayoutManager(layoutManager);
+
+        int tileWidth = getResources().getDisplayMetrics().widthPixels / SPAN_COUNT;
+        int tileHeight = getResources().getDimensionPixelSize(R.dimen.admin_image_tile_height);
+        RequestManager glide = Glide.with(this);
+        adapter = new AdminImageListAdapter(glide, tileWidth, tileHeight, event -> handleDeleteClick(event));
         recyclerView.setAdapter(adapter);
+
+        recyclerView.addOnScrollListener(new RecyclerViewPreloader<>(glide, adapter,
+                new FixedPreloadSizeProvider<>(tileWidth, tileHeight), IMAGE_PRELOAD_ITEMS));
+        recyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView view, int dx, int dy) {
+                if (dy > 0 && hasMore && !loadingPage
+                        && layoutManager.findLastVisibleItemPosition() >= adapter.getItemCount() - PAGE_PREFETCH_ITEMS) {
+                    loadNextPage();
+                }
+            }
+        });
     }
 
     @Override
@@ -70,31 +105,70 @@ public class AdminImageListActivity extends BaseAdminListActivity {
 
     private void loadEvents() {
         resetUIStates();
+        int load = ++generation;
+        loadingPage = true;
+        hasMore = false;
 
-        eventDB.getAllEventsOnce(new EventDB.Callback<List<Event>>() {
+        eventDB.getEventsWithPosters(null, PAGE_SIZE, new EventDB.Callback<List<Event>>() {
             @Override
             public void onSuccess(List<Event> events) {
                 runOnUiThread(() -> {
-                    if (events == null || events.isEmpty()) {
-                        adapter.setItems(null);
-                        handleLoadSuccess(false);
-                    } else {
-                        List<Event> eventsWithImages = events.stream()
-                                .filter(event -> event != null && event.getPosterUrl() != null && !event.getPosterUrl().trim().isEmpty())
-                                .collect(Collectors.toList());
-                        adapter.setItems(eventsWithImages);
-                        handleLoadSuccess(!eventsWithImages.isEmpty());
+                    if (load != generation) {
+                        return;
                     }
+                    loadingPage = false;
+                    hasMore = events != null && events.size() == PAGE_SIZE;
+                    adapter.setItems(events);
+                    handleLoadSuccess(adapter.getItemCount() > 0);
                 });
             }
 
             @Override
             public void onError(@NonNull Exception e) {
+                runOnUiThread(() -> {
+                    if (load == generation) {
+                        loadingPage = false;
+                    }
+                });
                 handleLoadError(e, "AdminImageListActivity");
             }
         });
     }
 
+    private void loadNextPage() {
+        Event after = adapter.getLastItem();
+        if (after == null) {
+            return;
+        }
+        int load = generation;
+        loadingPage = true;
+
+        eventDB.getEventsWithPosters(after, PAGE_SIZE, new EventDB.Callback<List<Event>>() {
+            @Override
+            public void onSuccess(List<Event> events) {
+                runOnUiThread(() -> {
+                    if (load != generation) {
+                        return;
+                    }
+                    loadingPage = false;
+                    hasMore = events != null && events.size() == PAGE_SIZE;
+                    adapter.addItems(events);
+                });
+            }
+
+            @Override
+            public void onError(@NonNull Exception e) {
+                android.util.Log.w("AdminImageListActivity", "Failed to load more images", e);
+                runOnUiThread(() -> {
+                    if (load == generation) {
+                        // Leave hasMore set so the next scroll tries again.
+                        loadingPage = false;
+                    }
+                });
+            }
+        });
+    }
+
     private void handleDeleteClick(Event event) {
         if (event == null || event.getId() == null) {
             return;
@@ -12,6 +12,8 @@ import java.util.List;
 import ca.ualberta.codarc.codarc_events.R;
 import ca.ualberta.codarc.codarc_events.adapters.AdminOrganizerListAdapter;
 import ca.ualberta.codarc.codarc_events.controllers.RemoveOrganizerController;
+import ca.ualberta.codarc.codarc_events.data.AsyncResult;
+import ca.ualberta.codarc.codarc_events.data.AsyncScope;
 import ca.ualberta.codarc.codarc_events.data.EventDB;
 import ca.ualberta.codarc.codarc_events.data.OrganizerDB;
 import ca.ualberta.codarc.codarc_events.models.Event;
@@ -28,6 +30,8 @@ public class AdminOrganizerListActivity extends BaseAdminListActivity {
     private OrganizerDB organizerDB;
     private EventDB eventDB;
     private RemoveOrganizerController removeController;
+    private AsyncScope scope;
+    private AsyncResult<List<OrganizerWithEvents>> eventsFetch;
 
     @Override
     protected int getLayoutResourceId() {
@@ -63,6 +67,7 @@ public class AdminOrganizerListActivity extends BaseAdminListActivity {
 
     @Override
     protected void initializeActivity() {
+        scope = AsyncScope.bindTo(this);
         organizerDB = new OrganizerDB();
         eventDB = new EventDB();
         removeController = new RemoveOrganizerController();
@@ -98,38 +103,34 @@ public class AdminOrganizerListActivity extends BaseAdminListActivity {
     }
 
     private void loadEventsForOrganizers(List<Organizer> organizers) {
-        final int total = organizers.size();
-        final List<OrganizerWithEvents> organizersWithEvents = new ArrayList<>();
-        final OrganizerEventsAggregator aggregator = new OrganizerEventsAggregator(total, organizersWithEvents);
-
-        if (total == 0) {
-            runOnUiThread(() -> {
-                adapter.setItems(null);
-                handleLoadSuccess(false);
-            });
-            return;
+        // A reload replaces the fetch still in flight so the list is not built twice.
+        if (eventsFetch != null) {
+            eventsFetch.cancel();
         }
-
+        List<AsyncResult<OrganizerWithEvents>> fetches = new ArrayList<>(organizers.size());
         for (Organizer organizer : organizers) {
             String organizerId = organizer.getDeviceId();
+            AsyncResult<OrganizerWithEvents> fetch = AsyncResult.pending();
             eventDB.getEventsByOrganizer(organizerId, 3, new EventDB.Callback<List<Event>>() {
                 @Override
                 public void onSuccess(List<Event> events) {
-                    synchronized (organizersWithEvents) {
-                        organizersWithEvents.add(new OrganizerWithEvents(organizer, events));
-                    }
-                    aggregator.onOrganizerProcessed();
+                    fetch.complete(new OrganizerWithEvents(organizer, events));
                 }
 
                 @Override
                 public void onError(@NonNull Exception e) {
-                    synchronized (organizersWithEvents) {
-                        organizersWithEvents.add(new OrganizerWithEvents(organizer, new ArrayList<>()));
-                    }
-                    aggregator.onOrganizerProcessed();
+                    fetch.complete(new OrganizerWithEvents(organizer, new ArrayList<>()));
                 }
             });
+            fetches.add(fetch);
         }
+
+        // Cancelled with the activity, so a slow read never updates a destroyed screen.
+        eventsFetch = scope.track(AsyncResult.allOf(fetches));
+        eventsFetch.whenDone(organizersWithEvents -> runOnUiThread(() -> {
+            adapter.setItems(organizersWithEvents);
+            handleLoadSuccess(true);
+        }), e -> handleLoadError(e, "AdminOrganizerListActivity"));
     }
 
     private void handleRemoveClick(OrganizerWithEvents organizerWithEvents) {
@@ -175,31 +176,4 @@ public class AdminOrganizerListActivity extends BaseAdminListActivity {
             }
         });
     }
-
-    private class OrganizerEventsAggregator {
-        private final int total;
-        private final List<OrganizerWithEvents> organizersWithEvents;
-        private int completed;
-
-        OrganizerEventsAggregator(int total, List<OrganizerWithEvents> organizersWithEvents) {
-            this.total = total;
-            this.organizersWithEvents = organizersWithEvents;
-            this.completed = 0;
-        }
-
-        synchronized void onOrganizerProcessed() {
-            completed++;
-            if (completed == total) {
-                runOnUiThread(() -> {
-                    if (organizersWithEvents.isEmpty()) {
-                        adapter.setItems(null);
-                        handleLoadSuccess(false);
-                    } else {
-                        adapter.setItems(organizersWithEvents);
-                        handleLoadSuccess(true);
-                    }
-                });
-            }
-        }
-    }
 }
@@ -1,7 +1,6 @@
 package ca.ualberta.codarc.codarc_events.views;
 
 import android.os.Bundle;
-import android.util.Log;
 import android.view.View;
 import android.widget.TextView;
 import android.widget.Toast;
@@ -11,10 +10,6 @@ import androidx.appcompat.app.AppCompatActivity;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
-import com.google.firebase.Timestamp;
-
-import java.util.Date;
-
 import ca.ualberta.codarc.codarc_events.data.EntrantDB;
 import ca.ualberta.codarc.codarc_events.data.EventDB;
 import ca.ualberta.codarc.codarc_events.models.Event;
@@ -128,35 +123,6 @@ public abstract class BaseEntrantListActivity extends AppCompatActivity {
         });
     }
 
-    /**
-     * Parses a timestamp object from Firestore into a long value.
-     *
-     * @param timestampObj the timestamp object (Timestamp, Long, Date, or null)
-     * @return the timestamp as milliseconds since epoch, or 0 if invalid
-     */
-    protected long parseTimestamp(Object timestampObj) {
-        if (timestampObj == null) {
-            Log.w(getClass().getSimpleName(), "Timestamp is null, using 0");
-            return 0L;
-        }
-
-        if (timestampObj instanceof Timestamp) {
-            Timestamp ts = (Timestamp) timestampObj;
-            return ts.toDate().getTime();
-        }
-
-        if (timestampObj instanceof Long) {
-            return (Long) timestampObj;
-        }
-
-        if (timestampObj instanceof Date) {
-            return ((Date) timestampObj).getTime();
-        }
-
-        Log.w(getClass().getSimpleName(), "Unknown timestamp type: " + timestampObj.getClass().getName());
-        return 0L;
-    }
-
     /**
      * Shows the empty state and hides the RecyclerView.
      */
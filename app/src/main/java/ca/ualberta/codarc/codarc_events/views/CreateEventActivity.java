@@ -33,16 +33,18 @@ import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 
 import ca.ualberta.codarc.codarc_events.R;
 import ca.ualberta.codarc.codarc_events.controllers.CreateEventController;
 import ca.ualberta.codarc.codarc_events.data.EventDB;
 import ca.ualberta.codarc.codarc_events.data.OrganizerDB;
 import ca.ualberta.codarc.codarc_events.data.PosterStorage;
+import ca.ualberta.codarc.codarc_events.data.TagCatalog;
 import ca.ualberta.codarc.codarc_events.data.UserDB;
 import ca.ualberta.codarc.codarc_events.models.Event;
+import ca.ualberta.codarc.codarc_events.models.PosterRendition;
 import ca.ualberta.codarc.codarc_events.utils.Identity;
-import ca.ualberta.codarc.codarc_events.utils.TagHelper;
 
 /**
  * Create Event screen that lets organizers fill event info.
@@ -75,7 +77,7 @@ public class CreateEventActivity extends AppCompatActivity {
         eventDB = new EventDB();
         organizerDB = new OrganizerDB();
         userDB = new UserDB();
-        posterStorage = new PosterStorage();
+        posterStorage = new PosterStorage(this);
         organizerId = Identity.getOrCreateDeviceId(this);
         controller = new CreateEventController(eventDB, organizerId);
 
@@ -112,6 +114,12 @@ public class CreateEventActivity extends AppCompatActivity {
         createButton.setOnClickListener(v -> createEvent());
     }
 
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        TagCatalog.getInstance().release(this);
+    }
+
     /**
      * Shows a date picker followed by a time picker.
      * Formats the selected date/time for display and stores ISO format in the tag.
@@ -258,11 +266,11 @@ public class CreateEventActivity extends AppCompatActivity {
 
     // The following function is from Anthropic Claude Sonnet 4.5, "How to upload image after creating event and update event with image URL?", 2024-01-15
     private void uploadPosterAndUpdateEvent(Event event) {
-        posterStorage.uploadPoster(event.getId(), selectedImageUri, new PosterStorage.Callback<String>() {
+        posterStorage.uploadPoster(event.getId(), selectedImageUri, new PosterStorage.Callback<Map<PosterRendition, String>>() {
             @Override
-            public void onSuccess(String posterUrl) {
-                event.setPosterUrl(posterUrl);
-                updateEventWithPosterUrl(event, posterUrl);
+            public void onSuccess(Map<PosterRendition, String> posterUrls) {
+                event.setPosterUrls(posterUrls);
+                updateEventWithPosterUrl(event);
             }
 
             @Override
@@ -279,9 +287,7 @@ public class CreateEventActivity extends AppCompatActivity {
         });
     }
 
-    private void updateEventWithPosterUrl(Event event, String posterUrl) {
-        event.setPosterUrl(posterUrl);
-
+    private void updateEventWithPosterUrl(Event event) {
         controller.persistEvent(event, new EventDB.Callback<Void>() {
             @Override
             public void onSuccess(Void value) {
@@ -364,12 +370,15 @@ public class CreateEventActivity extends AppCompatActivity {
 
     /**
      * Sets up the tag input field with autocomplete functionality.
-     * Supports both predefined tags (via autocomplete) and custom tags (by typing and pressing Enter).
+     * Suggests tags in use, most used first, from the tag catalog; custom tags are
+     * added by typing and pressing Enter.
      */
     private void setupTagInput() {
-        List<String> predefinedTags = TagHelper.getPredefinedTags();
+        TagCatalog tagCatalog = TagCatalog.getInstance();
+        tagCatalog.retain(this);
         ArrayAdapter<String> adapter = new ArrayAdapter<>(this,
-                android.R.layout.simple_dropdown_item_1line, predefinedTags);
+                android.R.layout.simple_dropdown_item_1line,
+                tagCatalog.suggest("", TagCatalog.MAX_SUGGESTIONS));
         
         tagInput.setAdapter(adapter);
         tagInput.setThreshold(1);
@@ -405,7 +414,7 @@ public class CreateEventActivity extends AppCompatActivity {
                 if (query.isEmpty()) {
                     adapter.getFilter().filter(null);
                 } else {
-                    List<String> matches = TagHelper.filterMatchingTags(query, predefinedTags);
+                    List<String> matches = tagCatalog.suggest(query, TagCatalog.MAX_SUGGESTIONS);
                     ArrayAdapter<String> filteredAdapter = new ArrayAdapter<>(CreateEventActivity.this,
                             android.R.layout.simple_dropdown_item_1line, matches);
                     tagInput.setAdapter(filteredAdapter);
@@ -1,5 +1,8 @@
 package ca.ualberta.codarc.codarc_events.views;
 
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
 import android.os.Bundle;
 import android.util.Log;
 import android.view.View;
@@ -7,14 +10,19 @@ import android.widget.TextView;
 import android.widget.Toast;
 import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.core.content.ContextCompat;
 import com.google.android.gms.maps.CameraUpdateFactory;
 import com.google.android.gms.maps.GoogleMap;
 import com.google.android.gms.maps.OnMapReadyCallback;
 import com.google.android.gms.maps.SupportMapFragment;
+import com.google.android.gms.maps.model.BitmapDescriptor;
+import com.google.android.gms.maps.model.BitmapDescriptorFactory;
 import com.google.android.gms.maps.model.LatLng;
 import com.google.android.gms.maps.model.LatLngBounds;
+import com.google.android.gms.maps.model.Marker;
 import com.google.android.gms.maps.model.MarkerOptions;
 import ca.ualberta.codarc.codarc_events.R;
+import ca.ualberta.codarc.codarc_events.controllers.ClusterIndex;
 import ca.ualberta.codarc.codarc_events.controllers.EntrantMapController;
 import ca.ualberta.codarc.codarc_events.data.EventDB;
 import ca.ualberta.codarc.codarc_events.data.EntrantDB;
@@ -22,15 +30,22 @@ import ca.ualberta.codarc.codarc_events.models.Event;
 import ca.ualberta.codarc.codarc_events.utils.Identity;
 import java.text.DateFormat;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Displays a map showing where entrants joined the waitlist from.
- * Organizer-only view.
+ * Nearby entrants are drawn as one cluster marker with a count, recomputed
+ * off the main thread whenever the camera settles. Organizer-only view.
  */
 public class EntrantMapActivity extends AppCompatActivity implements OnMapReadyCallback {
     
     private static final String TAG = "EntrantMapActivity";
+    private static final int CLUSTER_ICON_DP = 40;
     
     private GoogleMap map;
     private EntrantMapController controller;
@@ -38,6 +53,13 @@ public class EntrantMapActivity extends AppCompatActivity implements OnMapReadyC
     private String deviceId;
     private TextView emptyState;
     
+    private List<EntrantMapController.MapMarkerData> markerData;
+    private ClusterIndex clusterIndex;
+    private final Map<Long, Marker> shownMarkers = new HashMap<>();
+    private final Map<String, BitmapDescriptor> clusterIcons = new HashMap<>();
+    private int shownZoomLevel = -1;
+    private int queryGeneration;
+    
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -103,6 +125,8 @@ public class EntrantMapActivity extends AppCompatActivity implements OnMapReadyC
         if (map != null) {
             map.getUiSettings().setZoomControlsEnabled(true);
             map.getUiSettings().setMyLocationButtonEnabled(false);
+            map.setOnCameraIdleListener(this::refreshClusters);
+            map.setOnMarkerClickListener(this::onMarkerClick);
         }
         
         loadMapMarkers();
@@ -120,9 +144,14 @@ public class EntrantMapActivity extends AppCompatActivity implements OnMapReadyC
                     return;
                 }
                 
-                Log.d(TAG, "Adding " + markers.size() + " markers to map");
-                addMarkersToMap(markers);
-                fitMapToMarkers(markers);
+                Log.d(TAG, "Indexing " + markers.size() + " markers");
+                controller.buildClusterIndex(markers, index -> runOnUiThread(() -> {
+                    markerData = markers;
+                    clusterIndex = index;
+                    clearMarkers();
+                    fitMapToMarkers(markers);
+                    refreshClusters();
+                }));
                 hideEmptyState();
             }
             
@@ -136,28 +165,139 @@ public class EntrantMapActivity extends AppCompatActivity implements OnMapReadyC
         });
     }
     
-    private void addMarkersToMap(List<EntrantMapController.MapMarkerData> markers) {
+    /**
+     * Asks for the clusters under the current camera. Results for an older camera
+     * position are dropped.
+     */
+    private void refreshClusters() {
+        if (map == null || clusterIndex == null) {
+            return;
+        }
+        LatLngBounds bounds = map.getProjection().getVisibleRegion().latLngBounds;
+        float zoom = map.getCameraPosition().zoom;
+        ClusterIndex index = clusterIndex;
+        int generation = ++queryGeneration;
+        controller.queryClusters(index, zoom,
+                bounds.southwest.latitude, bounds.southwest.longitude,
+                bounds.northeast.latitude, bounds.northeast.longitude,
+                clusters -> runOnUiThread(() -> {
+                    if (generation == queryGeneration && index == clusterIndex && !isFinishing()) {
+                        showClusters(clusters, (int) Math.floor(zoom));
+                    }
+                }));
+    }
+    
+    /**
+     * Updates the markers on the map to match a query. Panning at the same zoom only
+     * adds and removes the markers that changed.
+     */
+    private void showClusters(List<ClusterIndex.Cluster> clusters, int zoomLevel) {
         if (map == null) {
-            Log.w(TAG, "Map is null, cannot add markers");
             return;
         }
+        if (zoomLevel != shownZoomLevel) {
+            clearMarkers();
+            shownZoomLevel = zoomLevel;
+        }
         
-        for (EntrantMapController.MapMarkerData marker : markers) {
-            LatLng position = new LatLng(marker.getLatitude(), marker.getLongitude());
-            String title = marker.getEntrantName();
-            String snippet = formatJoinTime(marker.getJoinedAt());
-            
-            com.google.android.gms.maps.model.Marker mapMarker = map.addMarker(new MarkerOptions()
-                    .position(position)
-                    .title(title)
-                    .snippet(snippet));
-            
-            if (mapMarker != null) {
-                Log.d(TAG, "Added marker at " + position.latitude + ", " + position.longitude + " for " + title);
-            } else {
-                Log.w(TAG, "Failed to add marker for " + title);
+        Set<Long> visibleKeys = new HashSet<>();
+        for (ClusterIndex.Cluster cluster : clusters) {
+            visibleKeys.add(cluster.getKey());
+            if (shownMarkers.containsKey(cluster.getKey())) {
+                continue;
+            }
+            Marker marker = map.addMarker(markerOptionsFor(cluster));
+            if (marker != null) {
+                marker.setTag(cluster);
+                shownMarkers.put(cluster.getKey(), marker);
             }
         }
+        
+        Iterator<Map.Entry<Long, Marker>> it = shownMarkers.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Long, Marker> entry = it.next();
+            if (!visibleKeys.contains(entry.getKey())) {
+                entry.getValue().remove();
+                it.remove();
+            }
+        }
+        Log.d(TAG, "Showing " + shownMarkers.size() + " markers at zoom " + zoomLevel);
+    }
+    
+    private MarkerOptions markerOptionsFor(ClusterIndex.Cluster cluster) {
+        LatLng position = new LatLng(cluster.getLatitude(), cluster.getLongitude());
+        if (cluster.getCount() == 1) {
+            EntrantMapController.MapMarkerData marker = markerData.get(cluster.getPointIndex());
+            String name = controller.getCachedName(marker.getDeviceId());
+            return new MarkerOptions()
+                    .position(position)
+                    .title(name != null ? name : getString(R.string.map_entrant_loading))
+                    .snippet(formatSnippet(marker));
+        }
+        return new MarkerOptions()
+                .position(position)
+                .anchor(0.5f, 0.5f)
+                .icon(clusterIcon(cluster.getCount()));
+    }
+    
+    /**
+     * Zooms into a cluster when it is tapped. A single entrant's name is looked up
+     * the first time their marker is opened.
+     */
+    private boolean onMarkerClick(Marker marker) {
+        Object tag = marker.getTag();
+        if (!(tag instanceof ClusterIndex.Cluster)) {
+            return false;
+        }
+        ClusterIndex.Cluster cluster = (ClusterIndex.Cluster) tag;
+        if (cluster.getCount() == 1) {
+            String deviceId = markerData.get(cluster.getPointIndex()).getDeviceId();
+            marker.showInfoWindow();
+            controller.resolveName(deviceId, name -> runOnUiThread(() -> {
+                if (shownMarkers.get(cluster.getKey()) == marker) {
+                    marker.setTitle(name);
+                    marker.showInfoWindow();
+                }
+            }));
+            return true;
+        }
+        float zoom = Math.min(map.getCameraPosition().zoom + 2, map.getMaxZoomLevel());
+        map.animateCamera(CameraUpdateFactory.newLatLngZoom(marker.getPosition(), zoom));
+        return true;
+    }
+    
+    private void clearMarkers() {
+        for (Marker marker : shownMarkers.values()) {
+            marker.remove();
+        }
+        shownMarkers.clear();
+        shownZoomLevel = -1;
+    }
+    
+    private BitmapDescriptor clusterIcon(int count) {
+        String label = count < 1000 ? String.valueOf(count) : (count / 1000) + "k";
+        BitmapDescriptor icon = clusterIcons.get(label);
+        if (icon != null) {
+            return icon;
+        }
+        int size = Math.round(CLUSTER_ICON_DP * getResources().getDisplayMetrics().density);
+        Bitmap bitmap = Bitmap.createBitmap(size, size, Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(bitmap);
+        
+        Paint circle = new Paint(Paint.ANTI_ALIAS_FLAG);
+        circle.setColor(ContextCompat.getColor(this, R.color.primary_purple));
+        canvas.drawCircle(size / 2f, size / 2f, size / 2f, circle);
+        
+        Paint text = new Paint(Paint.ANTI_ALIAS_FLAG);
+        text.setColor(ContextCompat.getColor(this, R.color.white));
+        text.setTextAlign(Paint.Align.CENTER);
+        text.setTextSize(size * 0.4f);
+        float baseline = size / 2f - (text.descent() + text.ascent()) / 2f;
+        canvas.drawText(label, size / 2f, baseline, text);
+        
+        icon = BitmapDescriptorFactory.fromBitmap(bitmap);
+        clusterIcons.put(label, icon);
+        return icon;
     }
     
     private void fitMapToMarkers(List<EntrantMapController.MapMarkerData> markers) {
@@ -183,6 +323,11 @@ public class EntrantMapActivity extends AppCompatActivity implements OnMapReadyC
         }
     }
     
+    private String formatSnippet(EntrantMapController.MapMarkerData marker) {
+        String time = formatJoinTime(marker.getJoinedAt());
+        return marker.getStatus() != null ? marker.getStatus() + " · " + time : time;
+    }
+    
     private String formatJoinTime(long timestamp) {
         if (timestamp <= 0) {
             return "Unknown time";
@@ -2,11 +2,15 @@ package ca.ualberta.codarc.codarc_events.views;
 
 import android.content.Intent;
 import android.os.Bundle;
+import android.text.Editable;
+import android.text.TextWatcher;
 import android.view.LayoutInflater;
 import android.view.MenuItem;
 import android.view.View;
+import android.widget.EditText;
 import android.widget.ImageView;
 import android.widget.PopupMenu;
+import android.widget.ScrollView;
 import android.widget.TextView;
 import android.widget.Toast;
 
@@ -31,12 +35,20 @@ import java.util.Set;
 
 import ca.ualberta.codarc.codarc_events.R;
 import ca.ualberta.codarc.codarc_events.adapters.EventCardAdapter;
+import ca.ualberta.codarc.codarc_events.controllers.EventSearchController;
 import ca.ualberta.codarc.codarc_events.controllers.FilterEventsController;
+import ca.ualberta.codarc.codarc_events.data.AsyncResult;
+import ca.ualberta.codarc.codarc_events.data.AsyncScope;
 import ca.ualberta.codarc.codarc_events.data.EntrantDB;
 import ca.ualberta.codarc.codarc_events.data.EventDB;
+import ca.ualberta.codarc.codarc_events.data.FirestoreMetrics;
+import ca.ualberta.codarc.codarc_events.data.MembershipStore;
 import ca.ualberta.codarc.codarc_events.data.OrganizerDB;
+import ca.ualberta.codarc.codarc_events.data.SnapshotSubscriptions;
+import ca.ualberta.codarc.codarc_events.data.TagCatalog;
 import ca.ualberta.codarc.codarc_events.data.TagDB;
 import ca.ualberta.codarc.codarc_events.data.UserDB;
+import ca.ualberta.codarc.codarc_events.data.WaitlistCountCache;
 import ca.ualberta.codarc.codarc_events.models.Event;
 import ca.ualberta.codarc.codarc_events.models.User;
 import ca.ualberta.codarc.codarc_events.utils.Identity;
@@ -55,7 +67,18 @@ public class EventBrowserActivity extends AppCompatActivity {
     private EventDB eventDB;
     private FilterEventsController filterController;
     private FilterEventsController.FilterCriteria currentFilterCriteria;
+    private AsyncScope scope;
+    private AsyncResult<FilterEventsController.FilterResult> pendingFilter;
     private ImageView filterIcon;
+    private EventSearchController searchController;
+    private String searchQuery = "";
+    private final List<Event> searchResults = new ArrayList<>();
+    private int searchGeneration;
+    private SnapshotSubscriptions.Subscription eventsSubscription;
+    private final MembershipStore.OnChangeListener membershipListener =
+            () -> runOnUiThread(() -> adapter.notifyDataSetChanged());
+    private final WaitlistCountCache.OnCountChangeListener countListener =
+            eventId -> runOnUiThread(() -> adapter.notifyWaitlistCountChanged(eventId));
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -83,10 +106,20 @@ public class EventBrowserActivity extends AppCompatActivity {
         adapter = new EventCardAdapter(this, eventList);
         rvEvents.setAdapter(adapter);
 
+        // Card badges and the details screen read memberships from this store.
+        MembershipStore.getInstance().addOnChangeListener(membershipListener);
+        WaitlistCountCache.getInstance().addOnCountChangeListener(countListener);
+        MembershipStore.getInstance().retain(this, deviceId);
+        // The filter dialog and tag autocomplete read tags from this catalog.
+        TagCatalog.getInstance().retain(this);
+
+        scope = AsyncScope.bindTo(this);
         eventDB = new EventDB();
         filterController = new FilterEventsController();
         currentFilterCriteria = new FilterEventsController.FilterCriteria(null, false);
+        searchController = new EventSearchController();
         loadEvents();
+        setupSearch();
 
         filterIcon = findViewById(R.id.iv_filter);
         if (filterIcon != null) {
@@ -195,15 +228,65 @@ public class EventBrowserActivity extends AppCompatActivity {
                 startActivity(intent);
                 return true;
             }
+            if (item.getItemId() == R.id.menu_admin_firestore_metrics) {
+                showFirestoreMetrics();
+                return true;
+            }
             return false;
         });
         popupMenu.show();
     }
 
+    /**
+     * Shows the recorded Firestore costs per flow, with options to toggle
+     * recording, reset the numbers or share them as JSON.
+     */
+    private void showFirestoreMetrics() {
+        FirestoreMetrics metrics = FirestoreMetrics.getInstance();
+        String summary = metrics.summary();
+        if (!metrics.isEnabled()) {
+            summary = getString(R.string.admin_firestore_metrics_disabled) + "\n\n" + summary;
+        } else if (summary.isEmpty()) {
+            summary = getString(R.string.admin_firestore_metrics_empty);
+        }
+        summary = getString(R.string.admin_firestore_metrics_listeners,
+                SnapshotSubscriptions.getInstance().activeListenerCount()) + "\n\n" + summary;
+
+        TextView content = new TextView(this);
+        content.setText(summary);
+        content.setTextIsSelectable(true);
+        int padding = (int) (16 * getResources().getDisplayMetrics().density);
+        content.setPadding(padding, padding, padding, padding);
+        ScrollView scrollView = new ScrollView(this);
+        scrollView.addView(content);
+
+        new AlertDialog.Builder(this)
+                .setTitle(R.string.admin_firestore_metrics_title)
+                .setView(scrollView)
+                .setPositiveButton(R.string.admin_firestore_metrics_share, (dialog, which) -> {
+                    Intent share = new Intent(Intent.ACTION_SEND);
+                    share.setType("application/json");
+                    share.putExtra(Intent.EXTRA_TEXT, metrics.toJson());
+                    startActivity(Intent.createChooser(share, getString(R.string.admin_firestore_metrics_title)));
+                })
+                .setNeutralButton(R.string.admin_firestore_metrics_reset, (dialog, which) -> metrics.reset())
+                .setNegativeButton(metrics.isEnabled()
+                                ? R.string.admin_firestore_metrics_disable
+                                : R.string.admin_firestore_metrics_enable,
+                        (dialog, which) -> metrics.setEnabled(!metrics.isEnabled()))
+                .show();
+    }
+
     @Override
-    protected void onResume() {
-        super.onResume();
-        loadEvents();
+    protected void onDestroy() {
+        super.onDestroy();
+        WaitlistCountCache.getInstance().removeOnCountChangeListener(countListener);
+        if (adapter != null) {
+            adapter.releaseWatches();
+        }
+        MembershipStore.getInstance().removeOnChangeListener(membershipListener);
+        MembershipStore.getInstance().release(this);
+        TagCatalog.getInstance().release(this);
     }
 
     private void checkBannedAndNavigate(String deviceId) {
@@ -236,14 +319,26 @@ public class EventBrowserActivity extends AppCompatActivity {
                 .show();
     }
 
+    /**
+     * Subscribes to the event list once. The subscription pauses while the screen is
+     * stopped and catches up when it starts again, so returning here adds no listener.
+     */
     private void loadEvents() {
-        eventDB.getAllEvents(new EventDB.Callback<List<Event>>() {
+        if (eventsSubscription != null) {
+            return;
+        }
+        eventsSubscription = eventDB.subscribeAllEvents(new EventDB.Callback<List<Event>>() {
             @Override
             public void onSuccess(List<Event> value) {
                 if (value != null) {
                     allEvents.clear();
                     allEvents.addAll(value);
-                    applyCurrentFilters();
+                    searchController.index(value);
+                    if (searchQuery.isEmpty()) {
+                        applyCurrentFilters();
+                    } else {
+                        runSearch();
+                    }
                 }
             }
 
@@ -251,9 +346,50 @@ public class EventBrowserActivity extends AppCompatActivity {
             public void onError(@NonNull Exception e) {
                 android.util.Log.e("EventBrowserActivity", "Failed to load events", e);
             }
+        }).bindTo(this);
+    }
+
+    private void setupSearch() {
+        EditText searchInput = findViewById(R.id.et_search);
+        if (searchInput == null) {
+            return;
+        }
+        searchInput.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {}
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {}
+
+            @Override
+            public void afterTextChanged(Editable s) {
+                searchQuery = s.toString();
+                if (searchQuery.trim().isEmpty()) {
+                    searchQuery = "";
+                    searchGeneration++;
+                    applyCurrentFilters();
+                } else {
+                    runSearch();
+                }
+            }
         });
     }
 
+    /**
+     * Searches the indexed events for the current query. Results for an older
+     * query or snapshot are dropped.
+     */
+    private void runSearch() {
+        int generation = ++searchGeneration;
+        searchController.search(searchQuery, (query, results) -> runOnUiThread(() -> {
+            if (generation == searchGeneration && !isFinishing()) {
+                searchResults.clear();
+                searchResults.addAll(results);
+                applyCurrentFilters();
+            }
+        }));
+    }
+
     private void showFilterDialog() {
         View dialogView = LayoutInflater.from(this).inflate(R.layout.dialog_filter_events, null);
         ChipGroup tagChipGroup = dialogView.findViewById(R.id.chip_group_filter_tags);
@@ -271,8 +407,7 @@ public class EventBrowserActivity extends AppCompatActivity {
                 .setView(dialogView)
                 .create();
 
-        TagDB tagDB = new TagDB();
-        tagDB.getAllTags(new TagDB.Callback<List<String>>() {
+        TagCatalog.getInstance().getAllTags(new TagDB.Callback<List<String>>() {
             @Override
             public void onSuccess(List<String> allTagsList) {
                 List<String> sortedTags = new ArrayList<>(allTagsList);
@@ -314,15 +449,26 @@ public class EventBrowserActivity extends AppCompatActivity {
         dialog.show();
     }
 
+    /**
+     * Shows the search results, best match first, or every event when the search
+     * box is empty, narrowed by the current filters.
+     */
     private void applyCurrentFilters() {
+        List<Event> source = searchQuery.isEmpty() ? allEvents : searchResults;
+        // Only the latest pass may update the list; an older one still counting is dropped.
+        if (pendingFilter != null) {
+            pendingFilter.cancel();
+            pendingFilter = null;
+        }
         if (currentFilterCriteria == null || currentFilterCriteria.isEmpty()) {
             eventList.clear();
-            eventList.addAll(allEvents);
+            eventList.addAll(source);
             adapter.notifyDataSetChanged();
             return;
         }
 
-        filterController.applyFiltersAsync(allEvents, currentFilterCriteria, eventDB,
+        pendingFilter = scope.track(filterController.applyFiltersAsync(new ArrayList<>(source),
+                currentFilterCriteria, eventDB,
                 new FilterEventsController.Callback() {
                     @Override
                     public void onResult(FilterEventsController.FilterResult result) {
@@ -331,7 +477,7 @@ public class EventBrowserActivity extends AppCompatActivity {
                             eventList.addAll(result.getFilteredEvents());
                             adapter.notifyDataSetChanged();
 
-                            if (eventList.isEmpty()) {
+                            if (eventList.isEmpty() && searchQuery.isEmpty()) {
                                 showEmptyState("No events match your filters");
                             } else {
                                 hideEmptyState();
@@ -341,7 +487,7 @@ public class EventBrowserActivity extends AppCompatActivity {
                                     result.getErrorMessage(), Toast.LENGTH_SHORT).show();
                         }
                     }
-                });
+                }));
     }
 
     private void updateFilterIcon() {
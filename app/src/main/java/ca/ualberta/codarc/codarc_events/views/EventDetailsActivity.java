@@ -4,6 +4,8 @@ import android.Manifest;
 import android.content.Intent;
 import android.content.pm.PackageManager;
 import android.graphics.Bitmap;
+import android.graphics.drawable.BitmapDrawable;
+import android.graphics.drawable.ColorDrawable;
 import android.os.Build;
 import android.os.Bundle;
 import android.util.Log;
@@ -31,13 +33,17 @@ import ca.ualberta.codarc.codarc_events.controllers.JoinWaitlistController;
 import ca.ualberta.codarc.codarc_events.controllers.LeaveWaitlistController;
 import ca.ualberta.codarc.codarc_events.data.EntrantDB;
 import ca.ualberta.codarc.codarc_events.data.EventDB;
+import ca.ualberta.codarc.codarc_events.data.FirestoreMetrics;
+import ca.ualberta.codarc.codarc_events.data.MembershipStore;
 import ca.ualberta.codarc.codarc_events.models.Event;
+import ca.ualberta.codarc.codarc_events.models.MembershipStatus;
+import ca.ualberta.codarc.codarc_events.models.PosterRendition;
 import ca.ualberta.codarc.codarc_events.utils.DateHelper;
 import ca.ualberta.codarc.codarc_events.utils.Identity;
 import ca.ualberta.codarc.codarc_events.utils.LocationHelper;
+import ca.ualberta.codarc.codarc_events.utils.QRCodeHelper;
+import ca.ualberta.codarc.codarc_events.utils.QRCodeRenderer;
 import com.google.android.material.button.MaterialButton;
-import com.google.zxing.BarcodeFormat;
-import com.journeyapps.barcodescanner.BarcodeEncoder;
 
 /**
  * Event details screen. Displays event info and regenerates QR from stored data.
@@ -52,11 +58,16 @@ public class EventDetailsActivity extends AppCompatActivity {
     private MaterialButton joinBtn;
     private MaterialButton leaveBtn;
     private ImageButton settingsBtn;
+    private ImageView qrImage;
+    private String shownQrData;
     private String deviceId;
+    private MembershipStore membershipStore;
+    private final MembershipStore.OnChangeListener membershipListener = () -> runOnUiThread(this::checkWaitlistStatus);
     private static final int REQUEST_LOCATION_PERMISSION = 300;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
+        long createStartNanos = System.nanoTime();
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_event_detail);
 
@@ -71,6 +82,9 @@ public class EventDetailsActivity extends AppCompatActivity {
         this.eventDB = new EventDB();
         this.entrantDB = new EntrantDB();
         this.deviceId = Identity.getOrCreateDeviceId(this);
+        this.membershipStore = MembershipStore.getInstance();
+        membershipStore.retain(this, deviceId);
+        membershipStore.addOnChangeListener(membershipListener);
         this.joinController = new JoinWaitlistController(eventDB, entrantDB);
         this.leaveController = new LeaveWaitlistController(eventDB);
         this.joinBtn = findViewById(R.id.btn_join_waitlist);
@@ -80,7 +94,7 @@ public class EventDetailsActivity extends AppCompatActivity {
         TextView desc = findViewById(R.id.event_desc);
         TextView dateTime = findViewById(R.id.event_datetime);
         TextView regWindow = findViewById(R.id.event_reg_window);
-        ImageView qrImage = findViewById(R.id.event_qr);
+        this.qrImage = findViewById(R.id.event_qr);
         ImageView eventBanner = findViewById(R.id.event_banner);
 
         title.setText(event.getName() != null ? event.getName() : "");
@@ -88,7 +102,7 @@ public class EventDetailsActivity extends AppCompatActivity {
         String eventDateTime = event.getEventDateTime();
         dateTime.setText(DateHelper.formatEventDate(eventDateTime));
 
-        loadPosterImage(eventBanner, event.getPosterUrl());
+        loadPosterImage(eventBanner, event.getPosterUrl(PosterRendition.CARD));
         
         if (event.getPosterUrl() != null && !event.getPosterUrl().isEmpty()) {
             eventBanner.setClickable(true);
@@ -107,19 +121,7 @@ public class EventDetailsActivity extends AppCompatActivity {
 
         displayTags();
 
-        try {
-            String qrData = event.getQrCode();
-            if (qrData == null || qrData.isEmpty()) {
-                qrData = "event:" + event.getId();
-                Log.w("EventDetailsActivity", "QR code missing, using fallback: " + qrData);
-            }
-            BarcodeEncoder encoder = new BarcodeEncoder();
-            Bitmap qrBitmap = encoder.encodeBitmap(qrData, BarcodeFormat.QR_CODE, 600, 600);
-            qrImage.setImageBitmap(qrBitmap);
-        } catch (Exception e) {
-            Log.e("EventDetailsActivity", "Failed to generate QR code", e);
-            Toast.makeText(this, "Failed to display QR code", Toast.LENGTH_SHORT).show();
-        }
+        showQrCode(eventQrData());
 
         leaveBtn.setVisibility(View.GONE);
 
@@ -129,6 +131,60 @@ public class EventDetailsActivity extends AppCompatActivity {
         checkWaitlistStatus();
         setupOrganizerSettings();
         setupBackButton();
+
+        // Time until the screen is drawn with its actions bound, for comparing builds.
+        FirestoreMetrics metrics = FirestoreMetrics.getInstance();
+        if (metrics.isEnabled()) {
+            metrics.record(metrics.getFlow(), "EventDetailsActivity.onCreate",
+                    System.nanoTime() - createStartNanos, true, 0, 0, 0, 0);
+        }
+    }
+
+    private String eventQrData() {
+        String qrData = event.getQrCode();
+        if (qrData == null || qrData.isEmpty()) {
+            qrData = "event:" + event.getId();
+            Log.w("EventDetailsActivity", "QR code missing, using fallback: " + qrData);
+        }
+        return qrData;
+    }
+
+    /**
+     * Shows a placeholder and swaps in the QR code once the renderer has it.
+     * The code is a few pixels per side, so it is scaled up without filtering.
+     */
+    private void showQrCode(String qrData) {
+        if (qrData.equals(shownQrData)) {
+            return;
+        }
+        shownQrData = qrData;
+        qrImage.setImageDrawable(new ColorDrawable(ContextCompat.getColor(this, R.color.divider)));
+        QRCodeRenderer.getInstance(this).render(qrData, new QRCodeRenderer.Callback() {
+            @Override
+            public void onRendered(@NonNull Bitmap bitmap) {
+                if (isFinishing() || isDestroyed() || !qrData.equals(shownQrData)) {
+                    return;
+                }
+                BitmapDrawable drawable = new BitmapDrawable(getResources(), bitmap);
+                drawable.setFilterBitmap(false);
+                qrImage.setImageDrawable(drawable);
+            }
+
+            @Override
+            public void onError(@NonNull Exception e) {
+                Log.e("EventDetailsActivity", "Failed to generate QR code", e);
+                Toast.makeText(EventDetailsActivity.this, "Failed to display QR code", Toast.LENGTH_SHORT).show();
+            }
+        });
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        if (membershipStore != null) {
+            membershipStore.removeOnChangeListener(membershipListener);
+            membershipStore.release(this);
+        }
     }
 
     @Override
@@ -153,7 +209,7 @@ public class EventDetailsActivity extends AppCompatActivity {
                         if (oldPosterUrl != null && !oldPosterUrl.equals(newPosterUrl)) {
                             Glide.with(EventDetailsActivity.this).clear(eventBanner);
                         }
-                        loadPosterImage(eventBanner, event.getPosterUrl());
+                        loadPosterImage(eventBanner, event.getPosterUrl(PosterRendition.CARD));
                         if (event.getPosterUrl() != null && !event.getPosterUrl().isEmpty()) {
                             eventBanner.setClickable(true);
                             eventBanner.setFocusable(true);
@@ -192,6 +248,10 @@ public class EventDetailsActivity extends AppCompatActivity {
         }
     }
 
+    /**
+     * Shows Join or Leave from the local membership store, falling back to a
+     * point read only when the store cannot answer yet.
+     */
     private void checkWaitlistStatus() {
         if (event == null || deviceId == null) {
             return;
@@ -205,62 +265,46 @@ public class EventDetailsActivity extends AppCompatActivity {
             return;
         }
 
-        eventDB.isEntrantOnWaitlist(event.getId(), deviceId, new EventDB.Callback<Boolean>() {
-            @Override
-            public void onSuccess(Boolean isOnWaitlist) {
-                if (isOnWaitlist) {
-                    runOnUiThread(() -> {
-                        joinBtn.setVisibility(View.GONE);
-                        leaveBtn.setVisibility(View.VISIBLE);
-                    });
-                } else {
-                    eventDB.canJoinWaitlist(event.getId(), deviceId, new EventDB.Callback<Boolean>() {
-                        @Override
-                        public void onSuccess(Boolean canJoin) {
-                            runOnUiThread(() -> {
-                                if (canJoin) {
-                                    joinBtn.setVisibility(View.VISIBLE);
-                                    leaveBtn.setVisibility(View.GONE);
-                                } else {
-                                    joinBtn.setVisibility(View.GONE);
-                                    leaveBtn.setVisibility(View.GONE);
-                                }
-                            });
-                        }
+        MembershipStore.Lookup cached = membershipStore.lookup(event.getId());
+        if (cached.isKnown()) {
+            showActionsFor(cached.getStatus());
+            return;
+        }
 
-                        @Override
-                        public void onError(@NonNull Exception e) {
-                            Log.e("EventDetailsActivity", "Failed to check if can join", e);
-                            runOnUiThread(() -> {
-                                if (event.getOrganizerId() != null && event.getOrganizerId().equals(deviceId)) {
-                                    joinBtn.setVisibility(View.GONE);
-                                    leaveBtn.setVisibility(View.GONE);
-                                } else {
-                                    joinBtn.setVisibility(View.VISIBLE);
-                                    leaveBtn.setVisibility(View.GONE);
-                                }
-                            });
-                        }
-                    });
-                }
+        membershipStore.reconcile(event.getId(), new EventDB.Callback<MembershipStatus>() {
+            @Override
+            public void onSuccess(MembershipStatus status) {
+                runOnUiThread(() -> showActionsFor(status));
             }
 
             @Override
             public void onError(@NonNull Exception e) {
                 Log.e("EventDetailsActivity", "Failed to check waitlist status", e);
                 runOnUiThread(() -> {
-                    if (event.getOrganizerId() != null && event.getOrganizerId().equals(deviceId)) {
-                        joinBtn.setVisibility(View.GONE);
-                        leaveBtn.setVisibility(View.GONE);
-                    } else {
-                        joinBtn.setVisibility(View.VISIBLE);
-                        leaveBtn.setVisibility(View.GONE);
-                    }
+                    joinBtn.setVisibility(View.VISIBLE);
+                    leaveBtn.setVisibility(View.GONE);
                 });
             }
         });
     }
 
+    private void showActionsFor(MembershipStatus status) {
+        // Accepted entrants get their door pass in place of the event's code.
+        showQrCode(status == MembershipStatus.ACCEPTED
+                ? QRCodeHelper.buildCheckInPayload(event.getId(), deviceId)
+                : eventQrData());
+        if (status == MembershipStatus.WAITLISTED) {
+            joinBtn.setVisibility(View.GONE);
+            leaveBtn.setVisibility(View.VISIBLE);
+        } else if (status == null || status.canJoinWaitlist()) {
+            joinBtn.setVisibility(View.VISIBLE);
+            leaveBtn.setVisibility(View.GONE);
+        } else {
+            joinBtn.setVisibility(View.GONE);
+            leaveBtn.setVisibility(View.GONE);
+        }
+    }
+
     private void showJoinConfirmation() {
         new AlertDialog.Builder(this)
                 .setTitle("Join Waitlist")
@@ -301,6 +345,7 @@ public class EventDetailsActivity extends AppCompatActivity {
 
                     if (result.isSuccess()) {
                         Toast.makeText(EventDetailsActivity.this, result.getMessage(), Toast.LENGTH_SHORT).show();
+                        membershipStore.record(event.getId(), MembershipStatus.WAITLISTED);
                         checkWaitlistStatus();
                     } else {
                         Toast.makeText(EventDetailsActivity.this, result.getMessage(), Toast.LENGTH_SHORT).show();
@@ -335,6 +380,7 @@ public class EventDetailsActivity extends AppCompatActivity {
                 runOnUiThread(() -> {
                     Toast.makeText(EventDetailsActivity.this, result.getMessage(), Toast.LENGTH_SHORT).show();
                     if (result.isSuccess()) {
+                        membershipStore.record(event.getId(), null);
                         checkWaitlistStatus();
                     }
                 });
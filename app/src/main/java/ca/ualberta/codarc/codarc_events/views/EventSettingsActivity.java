@@ -59,7 +59,7 @@ public class EventSettingsActivity extends AppCompatActivity {
         }
 
         eventDB = new EventDB();
-        posterStorage = new PosterStorage();
+        posterStorage = new PosterStorage(this);
         updatePosterController = new UpdatePosterController(eventDB, posterStorage);
 
         setupImagePicker();
@@ -117,6 +117,13 @@ public class EventSettingsActivity extends AppCompatActivity {
             startActivity(intent);
         });
 
+        MaterialButton checkInBtn = findViewById(R.id.btn_check_in);
+        checkInBtn.setOnClickListener(v -> {
+            Intent intent = new Intent(this, QRScannerActivity.class);
+            intent.putExtra("checkInEventId", event.getId());
+            startActivity(intent);
+        });
+
         setupBackButton();
     }
 
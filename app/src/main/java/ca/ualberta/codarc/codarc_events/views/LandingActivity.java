@@ -16,6 +16,7 @@ import com.google.android.material.button.MaterialButton;
 import com.google.firebase.messaging.FirebaseMessaging;
 import ca.ualberta.codarc.codarc_events.R;
 import ca.ualberta.codarc.codarc_events.utils.Identity;
+import ca.ualberta.codarc.codarc_events.utils.MetricsFlowTracker;
 import ca.ualberta.codarc.codarc_events.utils.NotificationChannelHelper;
 import ca.ualberta.codarc.codarc_events.data.EntrantDB;
 import ca.ualberta.codarc.codarc_events.data.UserDB;
@@ -34,6 +35,7 @@ public class LandingActivity extends AppCompatActivity {
         setContentView(R.layout.activity_landing);
 
         NotificationChannelHelper.createChannel(this);
+        MetricsFlowTracker.register(getApplication());
         requestNotificationPermission();
 
         String deviceId = Identity.getOrCreateDeviceId(this);
@@ -18,7 +18,6 @@ import ca.ualberta.codarc.codarc_events.utils.TextWatcherHelper;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.Map;
 
 import ca.ualberta.codarc.codarc_events.R;
 import ca.ualberta.codarc.codarc_events.adapters.WaitlistAdapter;
@@ -26,6 +25,7 @@ import ca.ualberta.codarc.codarc_events.controllers.NotifyWaitlistController;
 import ca.ualberta.codarc.codarc_events.data.EntrantDB;
 import ca.ualberta.codarc.codarc_events.data.EventDB;
 import ca.ualberta.codarc.codarc_events.models.Entrant;
+import ca.ualberta.codarc.codarc_events.models.EntrantEntry;
 import ca.ualberta.codarc.codarc_events.utils.FCMHelper;
 
 /**
@@ -84,9 +84,9 @@ public class ManageWaitlistActivity extends BaseEntrantListActivity {
     }
 
     private void loadWaitlist() {
-        eventDB.getWaitlist(eventId, new EventDB.Callback<List<Map<String, Object>>>() {
+        eventDB.getWaitlist(eventId, new EventDB.Callback<List<EntrantEntry>>() {
             @Override
-            public void onSuccess(List<Map<String, Object>> entries) {
+            public void onSuccess(List<EntrantEntry> entries) {
                 if (entries == null || entries.isEmpty()) {
                     showEmptyState();
                     updateNotifyButtonState(0);
@@ -106,7 +106,7 @@ public class ManageWaitlistActivity extends BaseEntrantListActivity {
         });
     }
 
-    private void fetchEntrantNames(List<Map<String, Object>> entries) {
+    private void fetchEntrantNames(List<EntrantEntry> entries) {
         itemList.clear();
         if (entries == null || entries.isEmpty()) {
             showEmptyState();
@@ -116,9 +116,9 @@ public class ManageWaitlistActivity extends BaseEntrantListActivity {
         final int totalEntries = entries.size();
         final int[] completed = {0};
 
-        for (Map<String, Object> entry : entries) {
-            String deviceId = (String) entry.get("deviceId");
-            Object requestTimeObj = entry.get("requestTime");
+        for (EntrantEntry entry : entries) {
+            String deviceId = entry.getDeviceId();
+            long timestamp = entry.getTimestamp();
 
             entrantDB.getProfile(deviceId, new EntrantDB.Callback<Entrant>() {
                 @Override
@@ -127,7 +127,6 @@ public class ManageWaitlistActivity extends BaseEntrantListActivity {
                     if (entrant != null && entrant.getName() != null && !entrant.getName().isEmpty()) {
                         name = entrant.getName();
                     }
-                    long timestamp = parseTimestamp(requestTimeObj);
                     itemList.add(new WaitlistAdapter.WaitlistItem(deviceId, name, timestamp, ""));
                     
                     checkAndUpdateUI(completed, totalEntries);
@@ -135,7 +134,6 @@ public class ManageWaitlistActivity extends BaseEntrantListActivity {
 
                 @Override
                 public void onError(@NonNull Exception e) {
-                    long timestamp = parseTimestamp(requestTimeObj);
                     itemList.add(new WaitlistAdapter.WaitlistItem(deviceId, deviceId, timestamp, ""));
                     
                     checkAndUpdateUI(completed, totalEntries);
@@ -95,9 +95,9 @@ public class NotificationsActivity extends AppCompatActivity {
 
     private void loadNotifications() {
         showLoading(true);
-        entrantDB.getNotifications(deviceId, new EntrantDB.Callback<List<Map<String, Object>>>() {
+        entrantDB.getNotifications(deviceId, new EntrantDB.Callback<List<NotificationEntry>>() {
             @Override
-            public void onSuccess(List<Map<String, Object>> value) {
+            public void onSuccess(List<NotificationEntry> value) {
                 runOnUiThread(() -> {
                     showLoading(false);
                     notifications.clear();
@@ -106,9 +106,7 @@ public class NotificationsActivity extends AppCompatActivity {
                         updateEmptyState(true);
                         return;
                     }
-                    for (Map<String, Object> map : value) {
-                        notifications.add(mapToEntry(map));
-                    }
+                    notifications.addAll(value);
                     adapter.setItems(notifications);
                     updateEmptyState(notifications.isEmpty());
                     resolveEventNames();
@@ -127,34 +125,6 @@ public class NotificationsActivity extends AppCompatActivity {
         });
     }
 
-    private NotificationEntry mapToEntry(Map<String, Object> data) {
-        NotificationEntry entry = new NotificationEntry();
-        if (data == null) {
-            return entry;
-        }
-        Object id = data.get("id");
-        if (id != null) entry.setId(id.toString());
-        Object eventId = data.get("eventId");
-        if (eventId != null) entry.setEventId(eventId.toString());
-        Object message = data.get("message");
-        entry.setMessage(message != null ? message.toString() : "");
-        Object category = data.get("category");
-        if (category != null) entry.setCategory(category.toString());
-        Object createdAt = data.get("createdAt");
-        if (createdAt instanceof Number) {
-            entry.setCreatedAt(((Number) createdAt).longValue());
-        }
-        Object read = data.get("read");
-        entry.setRead(read instanceof Boolean && (Boolean) read);
-        Object response = data.get("response");
-        if (response != null) entry.setResponse(response.toString());
-        Object respondedAt = data.get("respondedAt");
-        if (respondedAt instanceof Number) {
-            entry.setRespondedAt(((Number) respondedAt).longValue());
-        }
-        return entry;
-    }
-
     private void resolveEventNames() {
         for (NotificationEntry entry : notifications) {
             String eventId = entry.getEventId();
@@ -4,8 +4,11 @@ import android.Manifest;
 import android.content.Intent;
 import android.content.pm.PackageManager;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
 import android.view.View;
 import android.widget.ProgressBar;
+import android.widget.TextView;
 import android.widget.Toast;
 
 import androidx.annotation.NonNull;
@@ -14,23 +17,46 @@ import androidx.appcompat.app.AppCompatActivity;
 import androidx.core.app.ActivityCompat;
 import androidx.core.content.ContextCompat;
 
+import com.google.zxing.BarcodeFormat;
+import com.journeyapps.barcodescanner.DecoratedBarcodeView;
+import com.journeyapps.barcodescanner.DefaultDecoderFactory;
 import com.journeyapps.barcodescanner.ScanContract;
 import com.journeyapps.barcodescanner.ScanOptions;
 
+import java.util.Collections;
+
 import ca.ualberta.codarc.codarc_events.R;
+import ca.ualberta.codarc.codarc_events.controllers.CheckInController;
 import ca.ualberta.codarc.codarc_events.controllers.QRScanController;
 import ca.ualberta.codarc.codarc_events.data.EventDB;
 import ca.ualberta.codarc.codarc_events.models.Event;
 
 /**
  * QR code scanning activity for entrants to view event details.
+ * Started with a "checkInEventId" extra, it instead keeps the camera open and
+ * checks attendees in to that event one pass after another.
  */
 public class QRScannerActivity extends AppCompatActivity {
 
     private static final int CAMERA_PERMISSION_REQUEST_CODE = 100;
+    private static final long CHECK_IN_REFRESH_MS = 5_000;
     private QRScanController scanController;
     private EventDB eventDB;
     private ProgressBar progressBar;
+    private CheckInController checkInController;
+    private DecoratedBarcodeView barcodeView;
+    private TextView checkInStatus;
+    private TextView scanRate;
+    private boolean cameraAllowed;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Runnable checkInTick = new Runnable() {
+        @Override
+        public void run() {
+            checkInController.flush(null);
+            updateCheckInCounts();
+            handler.postDelayed(this, CHECK_IN_REFRESH_MS);
+        }
+    };
     private final androidx.activity.result.ActivityResultLauncher<ScanOptions> barcodeLauncher =
             registerForActivityResult(new ScanContract(), result -> {
                 if (result.getContents() == null) {
@@ -51,13 +77,77 @@ public class QRScannerActivity extends AppCompatActivity {
         eventDB = new EventDB();
         progressBar = findViewById(R.id.progress_loading);
 
+        String checkInEventId = getIntent().getStringExtra("checkInEventId");
+        if (checkInEventId != null) {
+            setupCheckInMode(checkInEventId);
+        }
+
         if (checkCameraPermission()) {
-            launchScanner();
+            startScanning();
         } else {
             requestCameraPermission();
         }
     }
 
+    @Override
+    protected void onResume() {
+        super.onResume();
+        if (checkInController != null) {
+            if (cameraAllowed) {
+                barcodeView.resume();
+            }
+            handler.post(checkInTick);
+        }
+    }
+
+    @Override
+    protected void onPause() {
+        super.onPause();
+        if (checkInController != null) {
+            barcodeView.pause();
+            handler.removeCallbacks(checkInTick);
+            checkInController.flush(null);
+        }
+    }
+
+    private void setupCheckInMode(String eventId) {
+        checkInController = new CheckInController(eventId, eventDB);
+        barcodeView = findViewById(R.id.barcode_scanner);
+        checkInStatus = findViewById(R.id.tv_check_in_status);
+        scanRate = findViewById(R.id.tv_scan_rate);
+        TextView prompt = findViewById(R.id.tv_scan_prompt);
+
+        prompt.setText("Scan attendee passes");
+        barcodeView.setVisibility(View.VISIBLE);
+        checkInStatus.setVisibility(View.VISIBLE);
+        scanRate.setVisibility(View.VISIBLE);
+        barcodeView.setStatusText("");
+        barcodeView.getBarcodeView().setDecoderFactory(
+                new DefaultDecoderFactory(Collections.singletonList(BarcodeFormat.QR_CODE)));
+        progressBar.setVisibility(View.VISIBLE);
+        checkInStatus.setText("Loading attendee list...");
+
+        checkInController.prepare(new EventDB.Callback<Integer>() {
+            @Override
+            public void onSuccess(Integer accepted) {
+                runOnUiThread(() -> {
+                    progressBar.setVisibility(View.GONE);
+                    checkInStatus.setText("Ready to scan");
+                    updateCheckInCounts();
+                });
+            }
+
+            @Override
+            public void onError(@NonNull Exception e) {
+                runOnUiThread(() -> {
+                    Toast.makeText(QRScannerActivity.this,
+                            "Failed to load attendee list", Toast.LENGTH_LONG).show();
+                    finish();
+                });
+            }
+        });
+    }
+
     private boolean checkCameraPermission() {
         return ContextCompat.checkSelfPermission(this, Manifest.permission.CAMERA)
                 == PackageManager.PERMISSION_GRANTED;
@@ -88,7 +178,7 @@ public class QRScannerActivity extends AppCompatActivity {
         super.onRequestPermissionsResult(requestCode, permissions, grantResults);
         if (requestCode == CAMERA_PERMISSION_REQUEST_CODE) {
             if (grantResults.length > 0 && grantResults[0] == PackageManager.PERMISSION_GRANTED) {
-                launchScanner();
+                startScanning();
             } else {
                 Toast.makeText(this, "Camera permission is required to scan QR codes", Toast.LENGTH_LONG).show();
                 finish();
@@ -96,6 +186,58 @@ public class QRScannerActivity extends AppCompatActivity {
         }
     }
 
+    private void startScanning() {
+        if (checkInController == null) {
+            launchScanner();
+            return;
+        }
+        cameraAllowed = true;
+        // Decoded frames arrive on the main thread; each is checked in memory.
+        barcodeView.decodeContinuous(result -> onCheckInScan(result.getText()));
+        barcodeView.resume();
+    }
+
+    private void onCheckInScan(String qrData) {
+        CheckInController.ScanResult result = checkInController.scan(qrData);
+        switch (result.getOutcome()) {
+            case DUPLICATE_FRAME:
+                return;
+            case CHECKED_IN:
+                showCheckInStatus("Checked in", R.color.organizer_create_button_green);
+                break;
+            case ALREADY_CHECKED_IN:
+                showCheckInStatus("Already checked in", R.color.accent_yellow);
+                break;
+            case NOT_ACCEPTED:
+                showCheckInStatus("Not on the attendee list", R.color.error_red);
+                break;
+            case WRONG_EVENT:
+                showCheckInStatus("Pass is for a different event", R.color.error_red);
+                break;
+            case NOT_READY:
+                showCheckInStatus("Still loading attendee list...", R.color.text_secondary);
+                break;
+            default:
+                showCheckInStatus("Not a check-in pass", R.color.error_red);
+                break;
+        }
+        updateCheckInCounts();
+    }
+
+    private void showCheckInStatus(String message, int colorRes) {
+        checkInStatus.setText(message);
+        checkInStatus.setTextColor(ContextCompat.getColor(this, colorRes));
+    }
+
+    private void updateCheckInCounts() {
+        if (!checkInController.isReady()) {
+            return;
+        }
+        scanRate.setText(checkInController.getCheckedInCount() + " / "
+                + checkInController.getAcceptedCount() + " checked in, "
+                + checkInController.getScansPerMinute() + " scans/min");
+    }
+
     private void launchScanner() {
         ScanOptions options = new ScanOptions();
         options.setDesiredBarcodeFormats(ScanOptions.QR_CODE);
@@ -18,7 +18,6 @@ import ca.ualberta.codarc.codarc_events.utils.TextWatcherHelper;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.Map;
 
 import ca.ualberta.codarc.codarc_events.R;
 import ca.ualberta.codarc.codarc_events.adapters.CancelledAdapter;
@@ -27,6 +26,7 @@ import ca.ualberta.codarc.codarc_events.controllers.NotifyCancelledController;
 import ca.ualberta.codarc.codarc_events.data.EntrantDB;
 import ca.ualberta.codarc.codarc_events.data.EventDB;
 import ca.ualberta.codarc.codarc_events.models.Entrant;
+import ca.ualberta.codarc.codarc_events.models.EntrantEntry;
 import ca.ualberta.codarc.codarc_events.utils.FCMHelper;
 
 /**
@@ -95,9 +95,9 @@ public class ViewCancelledActivity extends BaseEntrantListActivity {
     }
 
     private void loadCancelled() {
-        eventDB.getCancelled(eventId, new EventDB.Callback<List<Map<String, Object>>>() {
+        eventDB.getCancelled(eventId, new EventDB.Callback<List<EntrantEntry>>() {
             @Override
-            public void onSuccess(List<Map<String, Object>> entries) {
+            public void onSuccess(List<EntrantEntry> entries) {
                 if (entries == null || entries.isEmpty()) {
                     showEmptyState();
                     updateNotifyButtonState(0);
@@ -117,7 +117,7 @@ public class ViewCancelledActivity extends BaseEntrantListActivity {
         });
     }
 
-    private void fetchEntrantNames(List<Map<String, Object>> entries) {
+    private void fetchEntrantNames(List<EntrantEntry> entries) {
         itemList.clear();
         if (entries == null || entries.isEmpty()) {
             showEmptyState();
@@ -127,9 +127,9 @@ public class ViewCancelledActivity extends BaseEntrantListActivity {
         final int totalEntries = entries.size();
         final int[] completed = {0};
 
-        for (Map<String, Object> entry : entries) {
-            String deviceId = (String) entry.get("deviceId");
-            Object invitedAtObj = entry.get("invitedAt");
+        for (EntrantEntry entry : entries) {
+            String deviceId = entry.getDeviceId();
+            long timestamp = entry.getTimestamp();
 
             entrantDB.getProfile(deviceId, new EntrantDB.Callback<Entrant>() {
                 @Override
@@ -138,7 +138,6 @@ public class ViewCancelledActivity extends BaseEntrantListActivity {
                     if (entrant != null && entrant.getName() != null && !entrant.getName().isEmpty()) {
                         name = entrant.getName();
                     }
-                    long timestamp = parseTimestamp(invitedAtObj);
                     itemList.add(new WaitlistAdapter.WaitlistItem(deviceId, name, timestamp, ""));
 
                     checkAndUpdateUI(completed, totalEntries);
@@ -146,7 +145,6 @@ public class ViewCancelledActivity extends BaseEntrantListActivity {
 
                 @Override
                 public void onError(@NonNull Exception e) {
-                    long timestamp = parseTimestamp(invitedAtObj);
                     itemList.add(new WaitlistAdapter.WaitlistItem(deviceId, deviceId, timestamp, ""));
                     checkAndUpdateUI(completed, totalEntries);
                 }
@@ -173,9 +171,9 @@ public class ViewCancelledActivity extends BaseEntrantListActivity {
     }
 
     private void drawReplacement(String cancelledDeviceId) {
-        eventDB.getWaitlist(eventId, new EventDB.Callback<List<Map<String, Object>>>() {
+        eventDB.getWaitlist(eventId, new EventDB.Callback<List<EntrantEntry>>() {
             @Override
-            public void onSuccess(List<Map<String, Object>> waitlist) {
+            public void onSuccess(List<EntrantEntry> waitlist) {
                 if (waitlist == null || waitlist.isEmpty()) {
                     Toast.makeText(ViewCancelledActivity.this, "No entrants available for replacement", Toast.LENGTH_SHORT).show();
                     return;
@@ -187,12 +185,11 @@ public class ViewCancelledActivity extends BaseEntrantListActivity {
                     return;
                 }
 
-                Object deviceIdObj = waitlist.get(0).get("deviceId");
-                if (deviceIdObj == null) {
+                String replacementId = waitlist.get(0).getDeviceId();
+                if (replacementId == null) {
                     Toast.makeText(ViewCancelledActivity.this, "Invalid entrant data", Toast.LENGTH_SHORT).show();
                     return;
                 }
-                String replacementId = deviceIdObj.toString();
 
                 eventDB.markReplacement(eventId, replacementId, new EventDB.Callback<Void>() {
                     @Override
@@ -20,16 +20,18 @@ import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.Locale;
-import java.util.Map;
 
 import android.content.Intent;
 
 import ca.ualberta.codarc.codarc_events.R;
 import ca.ualberta.codarc.codarc_events.adapters.WaitlistAdapter;
 import ca.ualberta.codarc.codarc_events.controllers.NotifyEnrolledController;
+import ca.ualberta.codarc.codarc_events.data.AsyncResult;
+import ca.ualberta.codarc.codarc_events.data.AsyncScope;
 import ca.ualberta.codarc.codarc_events.data.EntrantDB;
 import ca.ualberta.codarc.codarc_events.data.EventDB;
 import ca.ualberta.codarc.codarc_events.models.Entrant;
+import ca.ualberta.codarc.codarc_events.models.EntrantEntry;
 import ca.ualberta.codarc.codarc_events.models.Event;
 import ca.ualberta.codarc.codarc_events.utils.FCMHelper;
 
@@ -45,6 +47,8 @@ public class ViewEnrolledActivity extends BaseEntrantListActivity {
     private NotifyEnrolledController notifyController;
     private List<WaitlistAdapter.WaitlistItem> itemList;
     private Event currentEvent;
+    private AsyncScope scope;
+    private AsyncResult<List<WaitlistAdapter.WaitlistItem>> nameFetch;
 
     @Override
     protected int getLayoutResourceId() {
@@ -75,6 +79,7 @@ public class ViewEnrolledActivity extends BaseEntrantListActivity {
 
     @Override
     protected void initializeActivity() {
+        scope = AsyncScope.bindTo(this);
         FCMHelper fcmHelper = createFCMHelperIfConfigured();
         notifyController = new NotifyEnrolledController(eventDB, entrantDB, fcmHelper);
         btnNotifyEnrolled = findViewById(R.id.btn_notify_enrolled);
@@ -120,9 +125,9 @@ public class ViewEnrolledActivity extends BaseEntrantListActivity {
     }
 
     private void loadEnrolledList() {
-        eventDB.getEnrolled(eventId, new EventDB.Callback<List<Map<String, Object>>>() {
+        eventDB.getEnrolled(eventId, new EventDB.Callback<List<EntrantEntry>>() {
             @Override
-            public void onSuccess(List<Map<String, Object>> entries) {
+            public void onSuccess(List<EntrantEntry> entries) {
                 if (entries == null || entries.isEmpty()) {
                     showEmptyState();
                     updateNotifyButtonState(0);
@@ -141,65 +146,50 @@ public class ViewEnrolledActivity extends BaseEntrantListActivity {
         });
     }
 
-    private void fetchEntrantNames(List<Map<String, Object>> entries) {
+    private void fetchEntrantNames(List<EntrantEntry> entries) {
         itemList.clear();
         if (entries == null || entries.isEmpty()) {
             showEmptyState();
             return;
         }
 
-        final int totalEntries = entries.size();
-        EntrantNameAggregator aggregator = new EntrantNameAggregator(totalEntries, () -> {
-            adapter.notifyDataSetChanged();
-            hideEmptyState();
-        });
-
-        for (Map<String, Object> entry : entries) {
-            String deviceId = (String) entry.get("deviceId");
-            Object respondedAtObj = entry.get("respondedAt");
+        // A reload replaces the fetch still in flight so its names are not added twice.
+        if (nameFetch != null) {
+            nameFetch.cancel();
+        }
+        List<AsyncResult<WaitlistAdapter.WaitlistItem>> names = new ArrayList<>(entries.size());
+        for (EntrantEntry entry : entries) {
+            String deviceId = entry.getDeviceId();
+            long timestamp = entry.getTimestamp();
+            AsyncResult<WaitlistAdapter.WaitlistItem> name = AsyncResult.pending();
 
             entrantDB.getProfile(deviceId, new EntrantDB.Callback<Entrant>() {
                 @Override
                 public void onSuccess(Entrant entrant) {
-                    String name = deviceId;
+                    String displayName = deviceId;
                     if (entrant != null && entrant.getName() != null && !entrant.getName().isEmpty()) {
-                        name = entrant.getName();
+                        displayName = entrant.getName();
                     }
                     String email = (entrant != null && entrant.getEmail() != null) ? entrant.getEmail() : "";
-                    long timestamp = parseTimestamp(respondedAtObj);
-                    itemList.add(new WaitlistAdapter.WaitlistItem(deviceId, name, timestamp, email));
-
-                    aggregator.onEntrantFetched();
+                    name.complete(new WaitlistAdapter.WaitlistItem(deviceId, displayName, timestamp, email));
                 }
 
                 @Override
                 public void onError(@NonNull Exception e) {
                     Log.w("ViewEnrolledActivity", "Failed to fetch profile for " + deviceId, e);
-                    long timestamp = parseTimestamp(respondedAtObj);
-                    itemList.add(new WaitlistAdapter.WaitlistItem(deviceId, deviceId, timestamp, ""));
-
-                    aggregator.onEntrantFetched();
+                    name.complete(new WaitlistAdapter.WaitlistItem(deviceId, deviceId, timestamp, ""));
                 }
             });
+            names.add(name);
         }
-    }
 
-    private static class EntrantNameAggregator {
-        private final int total;
-        private final Runnable onComplete;
-        private int completed = 0;
-
-        EntrantNameAggregator(int total, Runnable onComplete) {
-            this.total = total;
-            this.onComplete = onComplete;
-        }
-
-        synchronized void onEntrantFetched() {
-            completed++;
-            if (completed == total) {
-                onComplete.run();
-            }
-        }
+        // Cancelled with the activity, so a slow profile read never updates a destroyed screen.
+        nameFetch = scope.track(AsyncResult.allOf(names));
+        nameFetch.whenDone(items -> {
+            itemList.addAll(items);
+            adapter.notifyDataSetChanged();
+            hideEmptyState();
+        }, e -> Log.e("ViewEnrolledActivity", "Failed to load entrant names", e));
     }
 
     private void setupNotifyButton() {
@@ -17,14 +17,16 @@ import ca.ualberta.codarc.codarc_events.utils.TextWatcherHelper;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 
 import ca.ualberta.codarc.codarc_events.R;
 import ca.ualberta.codarc.codarc_events.adapters.WinnersAdapter;
 import ca.ualberta.codarc.codarc_events.controllers.NotifyWinnersController;
+import ca.ualberta.codarc.codarc_events.data.AsyncResult;
+import ca.ualberta.codarc.codarc_events.data.AsyncScope;
 import ca.ualberta.codarc.codarc_events.data.EntrantDB;
 import ca.ualberta.codarc.codarc_events.data.EventDB;
 import ca.ualberta.codarc.codarc_events.models.Entrant;
+import ca.ualberta.codarc.codarc_events.models.EntrantEntry;
 import ca.ualberta.codarc.codarc_events.models.Event;
 import ca.ualberta.codarc.codarc_events.controllers.EventValidationHelper;
 import ca.ualberta.codarc.codarc_events.utils.FCMHelper;
@@ -40,6 +42,8 @@ public class ViewWinnersActivity extends BaseEntrantListActivity {
     private NotifyWinnersController notifyController;
     private List<WinnersAdapter.WinnerItem> itemList;
     private Event currentEvent;
+    private AsyncScope scope;
+    private AsyncResult<List<WinnersAdapter.WinnerItem>> nameFetch;
 
     @Override
     protected int getLayoutResourceId() {
@@ -70,6 +74,7 @@ public class ViewWinnersActivity extends BaseEntrantListActivity {
 
     @Override
     protected void initializeActivity() {
+        scope = AsyncScope.bindTo(this);
         FCMHelper fcmHelper = createFCMHelperIfConfigured();
         notifyController = new NotifyWinnersController(eventDB, entrantDB, fcmHelper);
         btnNotifyWinners = findViewById(R.id.btn_notify_winners);
@@ -113,9 +118,9 @@ public class ViewWinnersActivity extends BaseEntrantListActivity {
     }
 
     private void loadWinnersList() {
-        eventDB.getWinners(eventId, new EventDB.Callback<List<Map<String, Object>>>() {
+        eventDB.getWinners(eventId, new EventDB.Callback<List<EntrantEntry>>() {
             @Override
-            public void onSuccess(List<Map<String, Object>> entries) {
+            public void onSuccess(List<EntrantEntry> entries) {
                 if (entries == null || entries.isEmpty()) {
                     showEmptyState();
                     updateNotifyButtonState(0);
@@ -134,61 +139,46 @@ public class ViewWinnersActivity extends BaseEntrantListActivity {
         });
     }
 
-    private void fetchEntrantNames(List<Map<String, Object>> entries) {
+    private void fetchEntrantNames(List<EntrantEntry> entries) {
         itemList.clear();
         if (entries == null || entries.isEmpty()) {
             showEmptyState();
             return;
         }
 
-        final int totalEntries = entries.size();
-        WinnerNameAggregator aggregator = new WinnerNameAggregator(totalEntries, () -> {
-            adapter.notifyDataSetChanged();
-            hideEmptyState();
-        });
-
-        for (Map<String, Object> entry : entries) {
-            String deviceId = (String) entry.get("deviceId");
-            Object invitedAtObj = entry.get("invitedAt");
-            Object isEnrolledObj = entry.get("is_enrolled");
-            final Boolean isEnrolled = (isEnrolledObj instanceof Boolean) ? (Boolean) isEnrolledObj : null;
+        // A reload replaces the fetch still in flight so its names are not added twice.
+        if (nameFetch != null) {
+            nameFetch.cancel();
+        }
+        List<AsyncResult<WinnersAdapter.WinnerItem>> names = new ArrayList<>(entries.size());
+        for (EntrantEntry entry : entries) {
+            String deviceId = entry.getDeviceId();
+            long timestamp = entry.getTimestamp();
+            AsyncResult<WinnersAdapter.WinnerItem> name = AsyncResult.pending();
 
             entrantDB.getProfile(deviceId, new EntrantDB.Callback<Entrant>() {
                 @Override
                 public void onSuccess(Entrant entrant) {
-                    String name = (entrant != null && entrant.getName() != null && !entrant.getName().isEmpty())
+                    String displayName = (entrant != null && entrant.getName() != null && !entrant.getName().isEmpty())
                             ? entrant.getName() : deviceId;
-                    long timestamp = parseTimestamp(invitedAtObj);
-                    itemList.add(new WinnersAdapter.WinnerItem(deviceId, name, timestamp, isEnrolled));
-                    aggregator.onWinnerFetched();
+                    name.complete(new WinnersAdapter.WinnerItem(deviceId, displayName, timestamp, null));
                 }
 
                 @Override
                 public void onError(@NonNull Exception e) {
-                    long timestamp = parseTimestamp(invitedAtObj);
-                    itemList.add(new WinnersAdapter.WinnerItem(deviceId, deviceId, timestamp, isEnrolled));
-                    aggregator.onWinnerFetched();
+                    name.complete(new WinnersAdapter.WinnerItem(deviceId, deviceId, timestamp, null));
                 }
             });
+            names.add(name);
         }
-    }
-
-    private static class WinnerNameAggregator {
-        private final int total;
-        private final Runnable onComplete;
-        private int completed = 0;
 
-        WinnerNameAggregator(int total, Runnable onComplete) {
-            this.total = total;
-            this.onComplete = onComplete;
-        }
-
-        synchronized void onWinnerFetched() {
-            completed++;
-            if (completed == total) {
-                onComplete.run();
-            }
-        }
+        // Cancelled with the activity, so a slow profile read never updates a destroyed screen.
+        nameFetch = scope.track(AsyncResult.allOf(names));
+        nameFetch.whenDone(items -> {
+            itemList.addAll(items);
+            adapter.notifyDataSetChanged();
+            hideEmptyState();
+        }, e -> Log.e("ViewWinnersActivity", "Failed to load winner names", e));
     }
 
     private void setupNotifyButton() {
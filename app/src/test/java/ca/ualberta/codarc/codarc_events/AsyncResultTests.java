@@ -0,0 +1,259 @@
+package ca.ualberta.codarc.codarc_events;
+
+import androidx.annotation.NonNull;
+
+import ca.ualberta.codarc.codarc_events.data.AsyncResult;
+import ca.ualberta.codarc.codarc_events.data.AsyncScope;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+/**
+ * Settling, cancellation, composition and deadlines of {@link AsyncResult}, and
+ * cancelling through an {@link AsyncScope}.
+ */
+public class AsyncResultTests {
+
+    private ScheduledExecutorService scheduler;
+
+    @Before
+    public void setUp() {
+        scheduler = new ScheduledThreadPoolExecutor(1);
+    }
+
+    @After
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void complete_settlesOnceAndNotifiesEveryListener() {
+        AsyncResult<String> result = AsyncResult.pending();
+        List<String> seen = new ArrayList<>();
+        result.whenDone(seen::add, e -> fail());
+
+        assertTrue(result.complete("first"));
+        assertFalse(result.complete("second"));
+        assertFalse(result.fail(new RuntimeException()));
+        assertFalse(result.cancel());
+        result.whenDone(seen::add, e -> fail());
+
+        assertEquals(Arrays.asList("first", "first"), seen);
+        assertTrue(result.isDone());
+        assertFalse(result.isCancelled());
+    }
+
+    @Test
+    public void cancel_dropsListenersAndRunsHooks() {
+        AsyncResult<String> result = AsyncResult.pending();
+        AtomicInteger calls = new AtomicInteger();
+        AtomicInteger hooks = new AtomicInteger();
+        result.whenDone(value -> calls.incrementAndGet(), e -> calls.incrementAndGet());
+        result.onCancel(hooks::incrementAndGet);
+
+        assertTrue(result.cancel());
+        assertFalse(result.complete("late"));
+        result.whenDone(value -> calls.incrementAndGet(), e -> calls.incrementAndGet());
+        result.onCancel(hooks::incrementAndGet);
+
+        assertEquals(0, calls.get());
+        assertEquals(2, hooks.get());
+        assertTrue(result.isCancelled());
+    }
+
+    @Test
+    public void onCancel_doesNotRunWhenResultSucceeds() {
+        AsyncResult<String> result = AsyncResult.pending();
+        AtomicInteger hooks = new AtomicInteger();
+        result.onCancel(hooks::incrementAndGet);
+
+        result.complete("done");
+        result.onCancel(hooks::incrementAndGet);
+
+        assertEquals(0, hooks.get());
+    }
+
+    @Test
+    public void map_appliesFunctionAndFailsOnException() {
+        AtomicReference<Integer> length = new AtomicReference<>();
+        AsyncResult.success("four").map(String::length).whenDone(length::set, e -> fail());
+        assertEquals(Integer.valueOf(4), length.get());
+
+        AtomicReference<Exception> error = new AtomicReference<>();
+        AsyncResult.success("x").<Integer>map(value -> {
+            throw new IllegalStateException("bad");
+        }).whenDone(value -> fail(), error::set);
+        assertTrue(error.get() instanceof IllegalStateException);
+    }
+
+    @Test
+    public void then_followsInnerResultAndCancelsBothWays() {
+        AsyncResult<String> outer = AsyncResult.pending();
+        AsyncResult<Integer> inner = AsyncResult.pending();
+        AsyncResult<Integer> chained = outer.then(value -> inner);
+        AtomicReference<Integer> seen = new AtomicReference<>();
+        chained.whenDone(seen::set, e -> fail());
+
+        outer.complete("go");
+        assertNull(seen.get());
+        inner.complete(7);
+        assertEquals(Integer.valueOf(7), seen.get());
+
+        AsyncResult<String> source = AsyncResult.pending();
+        AsyncResult<Integer> pendingInner = AsyncResult.pending();
+        AsyncResult<Integer> next = source.then(value -> pendingInner);
+        source.complete("go");
+        next.cancel();
+        assertTrue(pendingInner.isCancelled());
+    }
+
+    @Test
+    public void allOf_keepsInputOrder() {
+        AsyncResult<String> a = AsyncResult.pending();
+        AsyncResult<String> b = AsyncResult.pending();
+        AtomicReference<List<String>> values = new AtomicReference<>();
+        AsyncResult.allOf(Arrays.asList(a, b)).whenDone(values::set, e -> fail());
+
+        b.complete("b");
+        assertNull(values.get());
+        a.complete("a");
+
+        assertEquals(Arrays.asList("a", "b"), values.get());
+    }
+
+    @Test
+    public void allOf_failsFastAndCancelsTheRest() {
+        AsyncResult<String> a = AsyncResult.pending();
+        AsyncResult<String> b = AsyncResult.pending();
+        AtomicReference<Exception> error = new AtomicReference<>();
+        AsyncResult.allOf(Arrays.asList(a, b)).whenDone(value -> fail(), error::set);
+
+        RuntimeException boom = new RuntimeException("boom");
+        a.fail(boom);
+
+        assertSame(boom, error.get());
+        assertTrue(b.isCancelled());
+    }
+
+    @Test
+    public void allOf_emptyListSucceedsImmediately() {
+        AtomicReference<List<String>> values = new AtomicReference<>();
+        AsyncResult.<String>allOf(Collections.emptyList()).whenDone(values::set, e -> fail());
+        assertEquals(Collections.emptyList(), values.get());
+    }
+
+    @Test
+    public void successesOf_leavesOutFailuresAndCancellations() {
+        AsyncResult<String> a = AsyncResult.pending();
+        AsyncResult<String> b = AsyncResult.pending();
+        AsyncResult<String> c = AsyncResult.pending();
+        AtomicReference<List<String>> values = new AtomicReference<>();
+        AsyncResult.successesOf(Arrays.asList(a, b, c)).whenDone(values::set, e -> fail());
+
+        c.complete("c");
+        b.fail(new RuntimeException());
+        assertNull(values.get());
+        a.cancel();
+
+        assertEquals(Collections.singletonList("c"), values.get());
+    }
+
+    @Test
+    public void anyOf_takesFirstValueAndCancelsTheRest() {
+        AsyncResult<String> a = AsyncResult.pending();
+        AsyncResult<String> b = AsyncResult.pending();
+        AtomicReference<String> value = new AtomicReference<>();
+        AsyncResult.anyOf(Arrays.asList(a, b)).whenDone(value::set, e -> fail());
+
+        b.complete("b");
+
+        assertEquals("b", value.get());
+        assertTrue(a.isCancelled());
+    }
+
+    @Test
+    public void anyOf_failsOnceEveryResultFails() {
+        AsyncResult<String> a = AsyncResult.pending();
+        AsyncResult<String> b = AsyncResult.pending();
+        AtomicReference<Exception> error = new AtomicReference<>();
+        AsyncResult.anyOf(Arrays.asList(a, b)).whenDone(value -> fail(), error::set);
+
+        a.fail(new RuntimeException("a"));
+        assertNull(error.get());
+        RuntimeException last = new RuntimeException("b");
+        b.fail(last);
+
+        assertSame(last, error.get());
+    }
+
+    @Test
+    public void withTimeout_failsAndStopsWork() throws InterruptedException {
+        AsyncResult<String> result = AsyncResult.pending();
+        CountDownLatch settled = new CountDownLatch(1);
+        AtomicReference<Exception> error = new AtomicReference<>();
+        CountDownLatch stopped = new CountDownLatch(1);
+        result.onCancel(stopped::countDown);
+        result.withTimeout(20, scheduler).whenDone(new AsyncResult.Listener<String>() {
+            @Override
+            public void onSuccess(String value) {
+                settled.countDown();
+            }
+
+            @Override
+            public void onError(@NonNull Exception e) {
+                error.set(e);
+                settled.countDown();
+            }
+        });
+
+        assertTrue(settled.await(2, TimeUnit.SECONDS));
+        assertTrue(error.get() instanceof TimeoutException);
+        assertTrue(stopped.await(2, TimeUnit.SECONDS));
+        assertFalse(result.complete("late"));
+    }
+
+    @Test
+    public void withTimeout_doesNotFireAfterValue() throws InterruptedException {
+        AsyncResult<String> result = AsyncResult.<String>pending().withTimeout(20, scheduler);
+        AtomicReference<Exception> error = new AtomicReference<>();
+        result.whenDone(value -> { }, error::set);
+
+        result.complete("in time");
+        Thread.sleep(60);
+
+        assertNull(error.get());
+    }
+
+    @Test
+    public void scope_cancelsTrackedResultsAndLateArrivals() {
+        AsyncScope scope = new AsyncScope();
+        AsyncResult<String> tracked = scope.track(AsyncResult.pending());
+        AsyncResult<String> done = scope.track(AsyncResult.pending());
+        done.complete("done");
+        assertEquals(1, scope.activeCount());
+
+        scope.cancel();
+
+        assertTrue(tracked.isCancelled());
+        assertFalse(done.isCancelled());
+        assertEquals(0, scope.activeCount());
+        AsyncResult<String> late = scope.track(AsyncResult.pending());
+        assertTrue(late.isCancelled());
+        assertTrue(scope.isCancelled());
+    }
+}
@@ -0,0 +1,212 @@
+package ca.ualberta.codarc.codarc_events;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import ca.ualberta.codarc.codarc_events.controllers.CheckInController;
+import ca.ualberta.codarc.codarc_events.data.EventDB;
+import ca.ualberta.codarc.codarc_events.models.EntrantEntry;
+import ca.ualberta.codarc.codarc_events.utils.QRCodeHelper;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.MockedStatic;
+import org.mockito.Mockito;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+/**
+ * {@link CheckInController} against the in-memory repositories with a fake clock.
+ */
+public class CheckInControllerTests {
+
+    private static final String EVENT_ID = "event-1";
+
+    private MockedStatic<Log> logMock;
+    private InMemoryDataLayer data;
+    private AtomicLong now;
+    private CheckInController controller;
+
+    @Before
+    public void setUp() {
+        logMock = Mockito.mockStatic(Log.class);
+        data = new InMemoryDataLayer();
+        data.seedEvent(EVENT_ID, "Event 1", "org-1", "2099-06-01T18:00:00");
+        data.seedEvent("event-2", "Event 2", "org-1", "2099-06-01T18:00:00");
+        for (int i = 0; i < 40; i++) {
+            data.seedMembership(EVENT_ID, "accepted", "device-" + i, null);
+        }
+        data.seedMembership(EVENT_ID, "waitingList", "waitlisted", null);
+        now = new AtomicLong(1_000_000L);
+        controller = new CheckInController(EVENT_ID, data.eventDB, now::get);
+    }
+
+    @After
+    public void tearDown() {
+        if (logMock != null) {
+            logMock.close();
+        }
+    }
+
+    @Test
+    public void scan_beforePrepare_isNotReady() {
+        assertEquals(CheckInController.Outcome.NOT_READY, controller.scan(pass(EVENT_ID, "device-0")).getOutcome());
+    }
+
+    @Test
+    public void prepare_loadsAcceptedList() {
+        assertEquals(Integer.valueOf(40), prepare());
+        assertTrue(controller.isReady());
+        assertEquals(40, controller.getAcceptedCount());
+        assertEquals(0, controller.getCheckedInCount());
+    }
+
+    @Test
+    public void scan_validPass_checksInWithoutReads() {
+        prepare();
+        data.store.resetCounters();
+
+        CheckInController.ScanResult result = controller.scan(pass(EVENT_ID, "device-3"));
+
+        assertTrue(result.isCheckedIn());
+        assertEquals("device-3", result.getDeviceId());
+        assertEquals(1, controller.getCheckedInCount());
+        assertEquals(1, controller.getPendingCount());
+        assertEquals(0, data.store.getReads());
+        assertEquals(0, data.store.getWrites());
+    }
+
+    @Test
+    public void scan_repeatedFrames_areDebounced() {
+        prepare();
+        String code = pass(EVENT_ID, "device-3");
+
+        controller.scan(code);
+        now.addAndGet(500);
+        assertEquals(CheckInController.Outcome.DUPLICATE_FRAME, controller.scan(code).getOutcome());
+        now.addAndGet(1_900);
+        // Still held up: each repeat frame extends the window.
+        assertEquals(CheckInController.Outcome.DUPLICATE_FRAME, controller.scan(code).getOutcome());
+
+        now.addAndGet(CheckInController.DEBOUNCE_MS);
+        assertEquals(CheckInController.Outcome.ALREADY_CHECKED_IN, controller.scan(code).getOutcome());
+        assertEquals(2, controller.getScansPerMinute());
+    }
+
+    @Test
+    public void scan_rejectsOtherPasses() {
+        prepare();
+
+        assertEquals(CheckInController.Outcome.NOT_ACCEPTED,
+                controller.scan(pass(EVENT_ID, "waitlisted")).getOutcome());
+        assertEquals(CheckInController.Outcome.WRONG_EVENT,
+                controller.scan(pass("event-2", "device-1")).getOutcome());
+        assertEquals(CheckInController.Outcome.INVALID,
+                controller.scan("event:" + EVENT_ID).getOutcome());
+        assertEquals(0, controller.getCheckedInCount());
+    }
+
+    @Test
+    public void flush_writesQueuedCheckIns() {
+        prepare();
+        controller.scan(pass(EVENT_ID, "device-1"));
+        controller.scan(pass(EVENT_ID, "device-2"));
+
+        AtomicReference<Integer> written = new AtomicReference<>();
+        controller.flush(callback(written));
+        assertEquals(2, controller.getPendingCount());
+        data.runUntilIdle();
+
+        assertEquals(Integer.valueOf(2), written.get());
+        assertEquals(0, controller.getPendingCount());
+        Map<String, Object> record = data.store.peek("events/" + EVENT_ID + "/checkIns/device-1");
+        assertNotNull(record);
+        assertEquals("device-1", record.get("deviceId"));
+        assertEquals(now.get(), ((Number) record.get("checkedInAt")).longValue());
+    }
+
+    @Test
+    public void scan_flushesOnItsOwnAtThreshold() {
+        prepare();
+        for (int i = 0; i < CheckInController.FLUSH_THRESHOLD; i++) {
+            controller.scan(pass(EVENT_ID, "device-" + i));
+        }
+        data.runUntilIdle();
+
+        assertEquals(0, controller.getPendingCount());
+        assertEquals(CheckInController.FLUSH_THRESHOLD, data.store.size("events/" + EVENT_ID + "/checkIns"));
+    }
+
+    @Test
+    public void prepare_picksUpEarlierCheckIns() {
+        AtomicReference<Void> done = new AtomicReference<>();
+        data.eventDB.recordCheckIns(EVENT_ID, Collections.singletonMap("device-5", 1L), callback(done));
+        data.runUntilIdle();
+
+        prepare();
+
+        assertEquals(1, controller.getCheckedInCount());
+        assertEquals(CheckInController.Outcome.ALREADY_CHECKED_IN,
+                controller.scan(pass(EVENT_ID, "device-5")).getOutcome());
+    }
+
+    @Test
+    public void scansPerMinute_dropsOldScans() {
+        prepare();
+        controller.scan(pass(EVENT_ID, "device-1"));
+        now.addAndGet(30_000);
+        controller.scan(pass(EVENT_ID, "device-2"));
+        assertEquals(2, controller.getScansPerMinute());
+
+        now.addAndGet(40_000);
+        assertEquals(1, controller.getScansPerMinute());
+    }
+
+    @Test
+    public void getCheckIns_returnsRecords() {
+        AtomicReference<Void> done = new AtomicReference<>();
+        data.eventDB.recordCheckIns(EVENT_ID, Collections.singletonMap("device-7", 42L), callback(done));
+        data.runUntilIdle();
+
+        AtomicReference<List<EntrantEntry>> checkIns = new AtomicReference<>();
+        data.eventDB.getCheckIns(EVENT_ID, callback(checkIns));
+        data.runUntilIdle();
+
+        assertEquals(1, checkIns.get().size());
+        assertEquals("device-7", checkIns.get().get(0).getDeviceId());
+        assertEquals(42L, checkIns.get().get(0).getTimestamp());
+    }
+
+    private Integer prepare() {
+        AtomicReference<Integer> accepted = new AtomicReference<>();
+        controller.prepare(callback(accepted));
+        data.runUntilIdle();
+        return accepted.get();
+    }
+
+    private static String pass(String eventId, String deviceId) {
+        return QRCodeHelper.buildCheckInPayload(eventId, deviceId);
+    }
+
+    private static <T> EventDB.Callback<T> callback(AtomicReference<T> result) {
+        return new EventDB.Callback<T>() {
+            @Override
+            public void onSuccess(T value) {
+                result.set(value);
+            }
+
+            @Override
+            public void onError(@NonNull Exception e) {
+                fail(e.getMessage());
+            }
+        };
+    }
+}
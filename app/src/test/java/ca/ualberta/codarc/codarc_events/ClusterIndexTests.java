@@ -0,0 +1,128 @@
+package ca.ualberta.codarc.codarc_events;
+
+import ca.ualberta.codarc.codarc_events.controllers.ClusterIndex;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Correctness of {@link ClusterIndex}.
+ */
+public class ClusterIndexTests {
+
+    @Test
+    public void clusters_accountForEveryPoint() {
+        ClusterIndex index = randomIndex(2_000, 7);
+
+        for (int zoom = 0; zoom <= ClusterIndex.MAX_ZOOM + 1; zoom++) {
+            int total = 0;
+            for (ClusterIndex.Cluster cluster : index.clustersAt(zoom)) {
+                total += cluster.getCount();
+            }
+            assertEquals("zoom " + zoom, 2_000, total);
+        }
+    }
+
+    @Test
+    public void clusters_splitAsZoomIncreases() {
+        ClusterIndex index = randomIndex(2_000, 11);
+
+        int previous = 0;
+        for (int zoom = 0; zoom <= 12; zoom++) {
+            int size = index.clustersAt(zoom).size();
+            assertTrue("zoom " + zoom, size >= previous);
+            previous = size;
+        }
+        assertEquals(2_000, index.clustersAt(ClusterIndex.MAX_ZOOM + 1).size());
+    }
+
+    @Test
+    public void nearbyPoints_mergeUntilZoomedIn() {
+        // Two entrants about 100 m apart.
+        ClusterIndex index = new ClusterIndex(new double[]{53.5461, 53.5470},
+                new double[]{-113.4938, -113.4938});
+
+        List<ClusterIndex.Cluster> far = index.clustersAt(10);
+        assertEquals(1, far.size());
+        assertEquals(2, far.get(0).getCount());
+        assertEquals(-1, far.get(0).getPointIndex());
+        assertEquals(53.5465, far.get(0).getLatitude(), 0.001);
+
+        List<ClusterIndex.Cluster> near = index.clustersAt(18);
+        assertEquals(2, near.size());
+        Set<Integer> points = new HashSet<>();
+        for (ClusterIndex.Cluster cluster : near) {
+            assertEquals(1, cluster.getCount());
+            points.add(cluster.getPointIndex());
+        }
+        assertEquals(new HashSet<>(Arrays.asList(0, 1)), points);
+    }
+
+    @Test
+    public void singlePoint_keepsExactPosition() {
+        ClusterIndex index = new ClusterIndex(new double[]{53.5461}, new double[]{-113.4938});
+
+        ClusterIndex.Cluster cluster = index.clustersAt(3).get(0);
+
+        assertEquals(0, cluster.getPointIndex());
+        assertEquals(53.5461, cluster.getLatitude(), 0);
+        assertEquals(-113.4938, cluster.getLongitude(), 0);
+    }
+
+    @Test
+    public void query_filtersByViewport() {
+        ClusterIndex index = new ClusterIndex(
+                new double[]{53.5, 51.0, 49.2, -33.9},
+                new double[]{-113.5, -114.1, -123.1, 151.2});
+
+        List<ClusterIndex.Cluster> alberta = index.query(15f, 48, -120, 60, -110);
+        assertEquals(2, alberta.size());
+
+        // West edge greater than east: the viewport crosses the antimeridian.
+        List<ClusterIndex.Cluster> pacific = index.query(15f, -40, 150, 0, -170);
+        assertEquals(1, pacific.size());
+        assertEquals(3, pacific.get(0).getPointIndex());
+    }
+
+    @Test
+    public void query_reusesClustersForSameZoomLevel() {
+        ClusterIndex index = randomIndex(500, 3);
+
+        assertSame(index.clustersAt(6), index.clustersAt(6));
+        assertEquals(index.query(6.2f, -90, -180, 90, 180).size(),
+                index.query(6.9f, -90, -180, 90, 180).size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void mismatchedArrays_rejected() {
+        new ClusterIndex(new double[2], new double[3]);
+    }
+
+    /** Points scattered over Alberta, denser around the two cities. */
+    private static ClusterIndex randomIndex(int n, long seed) {
+        Random random = new Random(seed);
+        double[] lat = new double[n];
+        double[] lng = new double[n];
+        for (int i = 0; i < n; i++) {
+            int spot = random.nextInt(3);
+            if (spot == 0) {
+                lat[i] = 53.54 + random.nextGaussian() * 0.1;
+                lng[i] = -113.49 + random.nextGaussian() * 0.15;
+            } else if (spot == 1) {
+                lat[i] = 51.05 + random.nextGaussian() * 0.1;
+                lng[i] = -114.07 + random.nextGaussian() * 0.15;
+            } else {
+                lat[i] = 49 + random.nextDouble() * 11;
+                lng[i] = -120 + random.nextDouble() * 10;
+            }
+        }
+        return new ClusterIndex(lat, lng);
+    }
+}
@@ -0,0 +1,106 @@
+package ca.ualberta.codarc.codarc_events;
+
+import ca.ualberta.codarc.codarc_events.data.DataExecutors;
+import ca.ualberta.codarc.codarc_events.data.FirestoreMetrics;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+/**
+ * Threading of {@link DataExecutors}: parsing off the calling thread even in a
+ * burst, and background time recorded in metrics.
+ */
+public class DataExecutorsTests {
+
+    @After
+    public void tearDown() {
+        DataExecutors.set(null, null);
+    }
+
+    @Test
+    public void background_runsOffTheCallingThread() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        AtomicReference<String> threadName = new AtomicReference<>();
+
+        DataExecutors.background().execute(() -> {
+            threadName.set(Thread.currentThread().getName());
+            done.countDown();
+        });
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertTrue(threadName.get().startsWith("data-parse-"));
+        assertNotEquals(Thread.currentThread().getName(), threadName.get());
+    }
+
+    @Test
+    public void background_burstQueuesInsteadOfRunningOnCaller() throws InterruptedException {
+        Executor pool = DataExecutors.background();
+        CountDownLatch release = new CountDownLatch(1);
+        // Two tasks hold both threads, then a burst piles up behind them.
+        for (int i = 0; i < 2 + 200; i++) {
+            pool.execute(() -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        CountDownLatch done = new CountDownLatch(1);
+        AtomicReference<Thread> ranOn = new AtomicReference<>();
+
+        pool.execute(() -> {
+            ranOn.set(Thread.currentThread());
+            done.countDown();
+        });
+        assertNull(ranOn.get());
+        release.countDown();
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertTrue(ranOn.get().getName().startsWith("data-parse-"));
+    }
+
+    @Test
+    public void set_replacesBothExecutors() {
+        Executor direct = Runnable::run;
+
+        DataExecutors.set(direct, direct);
+
+        assertSame(direct, DataExecutors.background());
+        assertSame(direct, DataExecutors.main());
+    }
+
+    @Test
+    public void background_recordsParseTimeWhenMetricsEnabled() throws InterruptedException {
+        FirestoreMetrics metrics = FirestoreMetrics.getInstance();
+        boolean wasEnabled = metrics.isEnabled();
+        metrics.reset();
+        metrics.setEnabled(true);
+        metrics.setFlow("browse");
+        try {
+            CountDownLatch done = new CountDownLatch(1);
+            DataExecutors.background().execute(done::countDown);
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+
+            // The recording happens just after the task returns.
+            FirestoreMetrics.OperationStats stats = null;
+            for (int i = 0; i < 100 && stats == null; i++) {
+                stats = metrics.getStats("browse", "DataExecutors.background");
+                Thread.sleep(10);
+            }
+            assertNotNull(stats);
+            assertEquals(1, stats.getCalls());
+        } finally {
+            metrics.setEnabled(wasEnabled);
+            metrics.setFlow(null);
+            metrics.reset();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package ca.ualberta.codarc.codarc_events;
+
+import ca.ualberta.codarc.codarc_events.data.DocumentMappers;
+import ca.ualberta.codarc.codarc_events.models.Event;
+import ca.ualberta.codarc.codarc_events.models.NotificationEntry;
+
+import com.google.firebase.Timestamp;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Field mapping of {@link DocumentMappers}.
+ */
+public class DocumentMappersTests {
+
+    @Test
+    public void millis_readsEveryStoredForm() {
+        assertEquals(1_700_000_000_123L, DocumentMappers.millis(new Timestamp(1_700_000_000L, 123_000_000)));
+        assertEquals(42L, DocumentMappers.millis(42L));
+        assertEquals(42L, DocumentMappers.millis(42));
+        assertEquals(99L, DocumentMappers.millis(new Date(99L)));
+        assertEquals(0L, DocumentMappers.millis(null));
+        assertEquals(0L, DocumentMappers.millis("soon"));
+    }
+
+    @Test
+    public void event_mapsFieldsAndFormatsTimestamps() {
+        Map<String, Object> data = new HashMap<>();
+        data.put("name", "Swim");
+        data.put("open", true);
+        data.put("maxCapacity", 30L);
+        data.put("eventDateTime", "2025-12-01T10:00:00");
+        data.put("registrationOpen", new Timestamp(new Date(0)));
+        data.put("tags", Arrays.asList("sports", "outdoor"));
+
+        Event event = DocumentMappers.event("e1", data::get);
+
+        assertEquals("e1", event.getId());
+        assertEquals("Swim", event.getName());
+        assertTrue(event.isOpen());
+        assertEquals(Integer.valueOf(30), event.getMaxCapacity());
+        assertEquals("2025-12-01T10:00:00", event.getEventDateTime());
+        assertNotNull(event.getRegistrationOpen());
+        assertTrue(event.getRegistrationOpen().matches("\\d{4}-\\d{2}-\\d{2}T\\d{2}:\\d{2}:\\d{2}"));
+        assertNull(event.getRegistrationClose());
+        assertEquals(Arrays.asList("sports", "outdoor"), event.getTags());
+    }
+
+    @Test
+    public void event_missingFieldsStayEmpty() {
+        Event event = DocumentMappers.event("e2", field -> null);
+
+        assertFalse(event.isOpen());
+        assertNull(event.getMaxCapacity());
+        assertNull(event.getTags());
+    }
+
+    @Test
+    public void notification_mapsFieldsWithDefaults() {
+        Map<String, Object> data = new HashMap<>();
+        data.put("eventId", "e1");
+        data.put("category", "winner");
+        data.put("createdAt", 500L);
+        data.put("read", true);
+        data.put("respondedAt", new Timestamp(1L, 0));
+
+        NotificationEntry entry = DocumentMappers.notification("n1", data::get);
+
+        assertEquals("n1", entry.getId());
+        assertEquals("e1", entry.getEventId());
+        assertEquals("", entry.getMessage());
+        assertEquals("winner", entry.getCategory());
+        assertEquals(500L, entry.getCreatedAt());
+        assertTrue(entry.isRead());
+        assertNull(entry.getResponse());
+        assertEquals(1_000L, entry.getRespondedAt());
+    }
+}
@@ -3,6 +3,7 @@ package ca.ualberta.codarc.codarc_events;
 import ca.ualberta.codarc.codarc_events.controllers.DrawController;
 import ca.ualberta.codarc.codarc_events.data.EntrantDB;
 import ca.ualberta.codarc.codarc_events.data.EventDB;
+import ca.ualberta.codarc.codarc_events.models.EntrantEntry;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -110,11 +111,11 @@ public class DrawControllerTests {
 
         controller.runDraw("E", 2, cb);
 
-        ArgumentCaptor<EventDB.Callback<List<Map<String, Object>>>> wlCap =
+        ArgumentCaptor<EventDB.Callback<List<EntrantEntry>>> wlCap =
                 ArgumentCaptor.forClass(EventDB.Callback.class);
         verify(mockEventDb).getWaitlist(eq("E"), wlCap.capture());
 
-        List<Map<String, Object>> waitlist = ids("A","B","C","D");
+        List<EntrantEntry> waitlist = ids("A","B","C","D");
         wlCap.getValue().onSuccess(waitlist);
 
         ArgumentCaptor<List<String>> winnersCap = ArgumentCaptor.forClass(List.class);
@@ -141,7 +142,7 @@ public class DrawControllerTests {
 
         controller.runDraw("E", 2, 3, cb);
 
-        ArgumentCaptor<EventDB.Callback<List<Map<String, Object>>>> wlCap =
+        ArgumentCaptor<EventDB.Callback<List<EntrantEntry>>> wlCap =
                 ArgumentCaptor.forClass(EventDB.Callback.class);
         verify(mockEventDb).getWaitlist(eq("E"), wlCap.capture());
 
@@ -157,11 +158,11 @@ public class DrawControllerTests {
 
         controller.runDraw("E", 2, 3, cb);
 
-        ArgumentCaptor<EventDB.Callback<List<Map<String, Object>>>> wlCap =
+        ArgumentCaptor<EventDB.Callback<List<EntrantEntry>>> wlCap =
                 ArgumentCaptor.forClass(EventDB.Callback.class);
         verify(mockEventDb).getWaitlist(eq("E"), wlCap.capture());
 
-        List<Map<String, Object>> waitlist = ids("A","B","C","D","E");
+        List<EntrantEntry> waitlist = ids("A","B","C","D","E");
         wlCap.getValue().onSuccess(waitlist);
 
         ArgumentCaptor<List<String>> winnersCap = ArgumentCaptor.forClass(List.class);
@@ -192,11 +193,11 @@ public class DrawControllerTests {
 
         controller.runDraw("E", 5, 3, cb);
 
-        ArgumentCaptor<EventDB.Callback<List<Map<String, Object>>>> wlCap =
+        ArgumentCaptor<EventDB.Callback<List<EntrantEntry>>> wlCap =
                 ArgumentCaptor.forClass(EventDB.Callback.class);
         verify(mockEventDb).getWaitlist(eq("E"), wlCap.capture());
 
-        List<Map<String, Object>> waitlist = ids("X","Y");
+        List<EntrantEntry> waitlist = ids("X","Y");
         wlCap.getValue().onSuccess(waitlist);
 
         ArgumentCaptor<List<String>> winnersCap = ArgumentCaptor.forClass(List.class);
@@ -221,13 +222,13 @@ public class DrawControllerTests {
 
         controller.runDraw("E", 3, 3, cb);
 
-        ArgumentCaptor<EventDB.Callback<List<Map<String, Object>>>> wlCap =
+        ArgumentCaptor<EventDB.Callback<List<EntrantEntry>>> wlCap =
                 ArgumentCaptor.forClass(EventDB.Callback.class);
         verify(mockEventDb).getWaitlist(eq("E"), wlCap.capture());
 
-        List<Map<String, Object>> waitlist = new ArrayList<>();
+        List<EntrantEntry> waitlist = new ArrayList<>();
         waitlist.add(mapId("A"));
-        waitlist.add(Collections.singletonMap("deviceId", null));
+        waitlist.add(new EntrantEntry(null, 0L));
         waitlist.add(mapId("B"));
         waitlist.add(mapId("C"));
         waitlist.add(mapId("D"));
@@ -256,7 +257,7 @@ public class DrawControllerTests {
 
         controller.runDraw("E", 2, 3, cb);
 
-        ArgumentCaptor<EventDB.Callback<List<Map<String, Object>>>> wlCap =
+        ArgumentCaptor<EventDB.Callback<List<EntrantEntry>>> wlCap =
                 ArgumentCaptor.forClass(EventDB.Callback.class);
         verify(mockEventDb).getWaitlist(eq("E"), wlCap.capture());
 
@@ -273,7 +274,7 @@ public class DrawControllerTests {
 
         controller.runDraw("E", 2, 1, cb);
 
-        ArgumentCaptor<EventDB.Callback<List<Map<String, Object>>>> wlCap =
+        ArgumentCaptor<EventDB.Callback<List<EntrantEntry>>> wlCap =
                 ArgumentCaptor.forClass(EventDB.Callback.class);
         verify(mockEventDb).getWaitlist(eq("E"), wlCap.capture());
         wlCap.getValue().onSuccess(ids("A","B"));
@@ -288,16 +289,16 @@ public class DrawControllerTests {
         verify(cb, never()).onSuccess(anyList(), anyList());
     }
 
-    private static List<Map<String, Object>> ids(String... deviceIds) {
-        List<Map<String, Object>> list = new ArrayList<>();
+    private static List<EntrantEntry> ids(String... deviceIds) {
+        List<EntrantEntry> list = new ArrayList<>();
         for (String id : deviceIds) {
             list.add(mapId(id));
         }
         return list;
     }
 
-    private static Map<String, Object> mapId(String id) {
-        return Collections.singletonMap("deviceId", id);
+    private static EntrantEntry mapId(String id) {
+        return new EntrantEntry(id, 0L);
     }
 
     private static void assertMembersOf(Collection<String> actual, String... domain) {
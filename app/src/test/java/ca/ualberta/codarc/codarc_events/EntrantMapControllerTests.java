@@ -1,6 +1,7 @@
 package ca.ualberta.codarc.codarc_events;
 
 import android.util.Log;
+import ca.ualberta.codarc.codarc_events.controllers.ClusterIndex;
 import ca.ualberta.codarc.codarc_events.controllers.EntrantMapController;
 import ca.ualberta.codarc.codarc_events.data.EntrantDB;
 import ca.ualberta.codarc.codarc_events.data.EventDB;
@@ -17,6 +18,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.Assert.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -56,7 +58,7 @@ public class EntrantMapControllerTests {
         @SuppressWarnings("unchecked")
         ArgumentCaptor<EventDB.Callback<List<Map<String, Object>>>> cap =
                 ArgumentCaptor.forClass(EventDB.Callback.class);
-        verify(mockEventDb).getEntrantsWithLocations(eq(EVENT_ID), cap.capture());
+        verify(mockEventDb).getEntrantLocations(eq(EVENT_ID), cap.capture());
 
         cap.getValue().onSuccess(new ArrayList<>());
 
@@ -68,7 +70,7 @@ public class EntrantMapControllerTests {
     }
 
     @Test
-    public void loadMapData_success_returnsMarkersWithResolvedNames() {
+    public void loadMapData_success_returnsMarkersWithoutProfileReads() {
         EntrantMapController.MapDataCallback cb = mock(EntrantMapController.MapDataCallback.class);
 
         controller.loadMapData(EVENT_ID, cb);
@@ -76,33 +78,27 @@ public class EntrantMapControllerTests {
         @SuppressWarnings("unchecked")
         ArgumentCaptor<EventDB.Callback<List<Map<String, Object>>>> cap =
                 ArgumentCaptor.forClass(EventDB.Callback.class);
-        verify(mockEventDb).getEntrantsWithLocations(eq(EVENT_ID), cap.capture());
+        verify(mockEventDb).getEntrantLocations(eq(EVENT_ID), cap.capture());
 
         List<Map<String, Object>> entries = new ArrayList<>();
         Map<String, Object> entry = new HashMap<>();
         entry.put("deviceId", DEVICE_ID);
         entry.put("joinLocation", new GeoPoint(53.5461, -113.4938));
         entry.put("timestamp", 1234567890L);
+        entry.put("status", "waitlisted");
         entries.add(entry);
         cap.getValue().onSuccess(entries);
 
-        @SuppressWarnings("unchecked")
-        ArgumentCaptor<EntrantDB.Callback<Entrant>> entrantCap =
-                ArgumentCaptor.forClass(EntrantDB.Callback.class);
-        verify(mockEntrantDb).getProfile(eq(DEVICE_ID), entrantCap.capture());
-
-        Entrant entrant = new Entrant();
-        entrant.setName("Test User");
-        entrantCap.getValue().onSuccess(entrant);
-
         ArgumentCaptor<List<EntrantMapController.MapMarkerData>> markersCap =
                 ArgumentCaptor.forClass(List.class);
         verify(cb).onSuccess(markersCap.capture());
+        verifyNoInteractions(mockEntrantDb);
 
         List<EntrantMapController.MapMarkerData> markers = markersCap.getValue();
         assertEquals(1, markers.size());
         assertEquals(DEVICE_ID, markers.get(0).getDeviceId());
-        assertEquals("Test User", markers.get(0).getEntrantName());
+        assertNull(markers.get(0).getEntrantName());
+        assertEquals("waitlisted", markers.get(0).getStatus());
         assertEquals(53.5461, markers.get(0).getLatitude(), 0.0001);
         assertEquals(-113.4938, markers.get(0).getLongitude(), 0.0001);
         assertEquals(1234567890L, markers.get(0).getJoinedAt());
@@ -117,7 +113,7 @@ public class EntrantMapControllerTests {
         @SuppressWarnings("unchecked")
         ArgumentCaptor<EventDB.Callback<List<Map<String, Object>>>> cap =
                 ArgumentCaptor.forClass(EventDB.Callback.class);
-        verify(mockEventDb).getEntrantsWithLocations(eq(EVENT_ID), cap.capture());
+        verify(mockEventDb).getEntrantLocations(eq(EVENT_ID), cap.capture());
 
         Exception error = new RuntimeException("DB error");
         cap.getValue().onError(error);
@@ -128,37 +124,61 @@ public class EntrantMapControllerTests {
     }
 
     @Test
-    public void loadMapData_getEntrantError_usesUnknownName() {
-        EntrantMapController.MapDataCallback cb = mock(EntrantMapController.MapDataCallback.class);
+    public void resolveName_readsProfileOnce() {
+        AtomicReference<String> name = new AtomicReference<>();
 
-        controller.loadMapData(EVENT_ID, cb);
+        controller.resolveName(DEVICE_ID, name::set);
 
         @SuppressWarnings("unchecked")
-        ArgumentCaptor<EventDB.Callback<List<Map<String, Object>>>> cap =
-                ArgumentCaptor.forClass(EventDB.Callback.class);
-        verify(mockEventDb).getEntrantsWithLocations(eq(EVENT_ID), cap.capture());
+        ArgumentCaptor<EntrantDB.Callback<Entrant>> entrantCap =
+                ArgumentCaptor.forClass(EntrantDB.Callback.class);
+        verify(mockEntrantDb).getProfile(eq(DEVICE_ID), entrantCap.capture());
+        Entrant entrant = new Entrant();
+        entrant.setName("Test User");
+        entrantCap.getValue().onSuccess(entrant);
+        assertEquals("Test User", name.get());
 
-        List<Map<String, Object>> entries = new ArrayList<>();
-        Map<String, Object> entry = new HashMap<>();
-        entry.put("deviceId", DEVICE_ID);
-        entry.put("joinLocation", new GeoPoint(53.5461, -113.4938));
-        entry.put("timestamp", 1234567890L);
-        entries.add(entry);
-        cap.getValue().onSuccess(entries);
+        name.set(null);
+        controller.resolveName(DEVICE_ID, name::set);
+        assertEquals("Test User", name.get());
+        assertEquals("Test User", controller.getCachedName(DEVICE_ID));
+        verify(mockEntrantDb, times(1)).getProfile(anyString(), any());
+    }
+
+    @Test
+    public void resolveName_profileError_usesDeviceId() {
+        AtomicReference<String> name = new AtomicReference<>();
+
+        controller.resolveName(DEVICE_ID, name::set);
 
         @SuppressWarnings("unchecked")
         ArgumentCaptor<EntrantDB.Callback<Entrant>> entrantCap =
                 ArgumentCaptor.forClass(EntrantDB.Callback.class);
         verify(mockEntrantDb).getProfile(eq(DEVICE_ID), entrantCap.capture());
-
         entrantCap.getValue().onError(new RuntimeException("Not found"));
 
-        ArgumentCaptor<List<EntrantMapController.MapMarkerData>> markersCap =
-                ArgumentCaptor.forClass(List.class);
-        verify(cb).onSuccess(markersCap.capture());
+        assertEquals(DEVICE_ID, name.get());
+        assertNull(controller.getCachedName(DEVICE_ID));
+    }
 
-        List<EntrantMapController.MapMarkerData> markers = markersCap.getValue();
-        assertEquals(1, markers.size());
-        assertEquals(DEVICE_ID, markers.get(0).getEntrantName());
+    @Test
+    public void buildClusterIndex_queriesOnExecutor() {
+        List<Runnable> queued = new ArrayList<>();
+        EntrantMapController clustering = new EntrantMapController(mockEventDb, mockEntrantDb, queued::add);
+        List<EntrantMapController.MapMarkerData> markers = new ArrayList<>();
+        markers.add(new EntrantMapController.MapMarkerData("a", "A", 53.5461, -113.4938, 1L));
+        markers.add(new EntrantMapController.MapMarkerData("b", "B", 53.5470, -113.4938, 2L));
+
+        AtomicReference<ClusterIndex> index = new AtomicReference<>();
+        clustering.buildClusterIndex(markers, index::set);
+        assertNull(index.get());
+        queued.remove(0).run();
+        assertEquals(2, index.get().size());
+
+        AtomicReference<List<ClusterIndex.Cluster>> clusters = new AtomicReference<>();
+        clustering.queryClusters(index.get(), 18f, 53, -114, 54, -113, clusters::set);
+        queued.remove(0).run();
+        assertEquals(2, clusters.get().size());
+        assertEquals("B", markers.get(clusters.get().get(1).getPointIndex()).getEntrantName());
     }
 }
@@ -1,9 +1,13 @@
 package ca.ualberta.codarc.codarc_events;
 
 import ca.ualberta.codarc.codarc_events.models.Event;
+import ca.ualberta.codarc.codarc_events.models.PosterRendition;
 import org.junit.Test;
 
 import java.io.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 
 import static org.junit.Assert.*;
 
@@ -145,4 +149,62 @@ public class EventModelTests {
         assertEquals(original.getMaxCapacity(), copy.getMaxCapacity());
         assertEquals(original.getLocation(), copy.getLocation());
     }
+
+    @Test
+    public void copyConstructor_copiesFields_andDetachesTags() {
+        Event original = new Event();
+        original.setId("id123");
+        original.setName("Lan Party");
+        original.setOpen(true);
+        original.setMaxCapacity(40);
+        original.setPosterUrl("https://example.com/p.png");
+        original.setTags(new ArrayList<>(Arrays.asList("games", "food")));
+
+        Event copy = new Event(original);
+        copy.getTags().add("music");
+        copy.setName("Renamed");
+
+        assertEquals("id123", copy.getId());
+        assertTrue(copy.isOpen());
+        assertEquals(Integer.valueOf(40), copy.getMaxCapacity());
+        assertEquals("https://example.com/p.png", copy.getPosterUrl());
+        assertEquals("Lan Party", original.getName());
+        assertEquals(Arrays.asList("games", "food"), original.getTags());
+    }
+
+    @Test
+    public void posterRendition_fallsBackToFullForLegacyPosters() {
+        Event e = new Event();
+        e.setPosterUrl("https://example.com/p.jpg");
+
+        assertEquals("https://example.com/p.jpg", e.getPosterUrl(PosterRendition.THUMB));
+        assertEquals("https://example.com/p.jpg", e.getPosterUrl(PosterRendition.CARD));
+
+        e.setPosterThumbUrl("https://example.com/thumb.webp");
+        assertEquals("https://example.com/thumb.webp", e.getPosterUrl(PosterRendition.THUMB));
+        assertEquals("https://example.com/p.jpg", e.getPosterUrl(PosterRendition.FULL));
+    }
+
+    @Test
+    public void setPosterUrls_clearsMissingRenditions() {
+        Event e = new Event();
+        e.setPosterThumbUrl("https://example.com/thumb.webp");
+        e.setPosterCardUrl("https://example.com/card.webp");
+
+        e.setPosterUrls(Collections.singletonMap(PosterRendition.FULL, "https://example.com/full.webp"));
+        assertNull(e.getPosterThumbUrl());
+        assertNull(e.getPosterCardUrl());
+        assertEquals("https://example.com/full.webp", e.getPosterUrl(PosterRendition.THUMB));
+
+        e.setPosterUrls(null);
+        assertNull(e.getPosterUrl(PosterRendition.CARD));
+    }
+
+    @Test
+    public void posterRendition_forSize_picksSmallestCovering() {
+        assertEquals(PosterRendition.THUMB, PosterRendition.forSize(200));
+        assertEquals(PosterRendition.THUMB, PosterRendition.forSize(PosterRendition.THUMB.getMaxEdgePx()));
+        assertEquals(PosterRendition.CARD, PosterRendition.forSize(PosterRendition.THUMB.getMaxEdgePx() + 1));
+        assertEquals(PosterRendition.FULL, PosterRendition.forSize(10_000));
+    }
 }
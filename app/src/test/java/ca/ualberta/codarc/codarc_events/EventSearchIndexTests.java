@@ -0,0 +1,168 @@
+package ca.ualberta.codarc.codarc_events;
+
+import androidx.annotation.NonNull;
+
+import ca.ualberta.codarc.codarc_events.controllers.EventSearchController;
+import ca.ualberta.codarc.codarc_events.controllers.EventSearchIndex;
+import ca.ualberta.codarc.codarc_events.data.EventDB;
+import ca.ualberta.codarc.codarc_events.data.SnapshotSubscriptions;
+import ca.ualberta.codarc.codarc_events.models.Event;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+/**
+ * Matching, ranking and incremental updates of {@link EventSearchIndex}, and the
+ * controller fed from the in-memory events listener.
+ */
+public class EventSearchIndexTests {
+
+    @Test
+    public void search_ranksNameAboveDescription() {
+        EventSearchIndex index = new EventSearchIndex();
+        index.update(Arrays.asList(
+                event("e1", "Board games night", "Bring a friend, we supply the swimming snacks", "Library"),
+                event("e2", "Swimming lessons", "Learn to swim", "Kinsmen pool")));
+
+        assertEquals(ids("e2", "e1"), idsOf(index.search("swimming", 10)));
+        assertEquals(ids("e2"), idsOf(index.search("kinsmen", 10)));
+    }
+
+    @Test
+    public void search_requiresEveryWord() {
+        EventSearchIndex index = new EventSearchIndex();
+        index.update(Arrays.asList(
+                event("e1", "Swimming lessons", "Beginners", "Kinsmen pool"),
+                event("e2", "Swimming gala", "Racing", "Kinsmen pool"),
+                event("e3", "Piano lessons", "Beginners", "Hall")));
+
+        assertEquals(ids("e1"), idsOf(index.search("lessons swimming", 10)));
+        assertTrue(index.search("piano gala", 10).isEmpty());
+        assertTrue(index.search("   ", 10).isEmpty());
+    }
+
+    @Test
+    public void search_lastWordMatchesAsPrefixWhileTyping() {
+        EventSearchIndex index = new EventSearchIndex();
+        index.update(Arrays.asList(
+                event("e1", "Swimming lessons", null, null),
+                event("e2", "Swim meet", null, null)));
+
+        assertEquals(ids("e2", "e1"), idsOf(index.search("swim", 10)));
+        assertEquals("A finished word only matches whole words", ids("e2"), idsOf(index.search("swim ", 10)));
+        assertEquals(ids("e1"), idsOf(index.search("swimming le", 10)));
+    }
+
+    @Test
+    public void search_fallsBackToCloseSpellings() {
+        EventSearchIndex index = new EventSearchIndex();
+        index.update(Arrays.asList(
+                event("e1", "Rock climbing", null, null),
+                event("e2", "Photography walk", null, null)));
+
+        assertEquals(ids("e1"), idsOf(index.search("climbnig", 10)));
+        assertEquals(ids("e2"), idsOf(index.search("photgraphy", 10)));
+        assertEquals(ids("e2"), idsOf(index.search("phtog", 10)));
+        assertTrue("Short words are not guessed at", index.search("rok ", 10).isEmpty());
+    }
+
+    @Test
+    public void search_foldsCaseAccentsAndTags() {
+        Event cafe = event("e1", "Café Crawl", "Downtown", "Whyte Ave");
+        cafe.setTags(Arrays.asList("Food", "social"));
+        EventSearchIndex index = new EventSearchIndex();
+        index.update(Collections.singletonList(cafe));
+
+        assertEquals(ids("e1"), idsOf(index.search("CAFE", 10)));
+        assertEquals(ids("e1"), idsOf(index.search("food whyte", 10)));
+        assertEquals(Arrays.asList("cafe", "s", "crawl"), EventSearchIndex.tokenize("Café's  crawl!"));
+    }
+
+    @Test
+    public void update_reindexesChangedEventsAndDropsMissingOnes() {
+        EventSearchIndex index = new EventSearchIndex();
+        index.update(Arrays.asList(
+                event("e1", "Chess club", null, null),
+                event("e2", "Yoga", null, null)));
+
+        Event renamed = event("e1", "Checkers club", null, null);
+        Event unchanged = event("e2", "Yoga", null, null);
+        index.update(Arrays.asList(renamed, unchanged, event("e3", "Chess open", null, null)));
+
+        assertEquals(ids("e3"), idsOf(index.search("chess", 10)));
+        assertEquals(ids("e1"), idsOf(index.search("checkers", 10)));
+        assertSame("Unchanged events point at the newest object", unchanged, index.search("yoga", 10).get(0));
+
+        index.update(Collections.singletonList(unchanged));
+        assertEquals(1, index.size());
+        assertTrue(index.search("club", 10).isEmpty());
+    }
+
+    @Test
+    public void controller_followsTheEventsListener() {
+        InMemoryDataLayer data = new InMemoryDataLayer();
+        data.seedEvent("event-1", "Swim meet", "org-1", "2099-06-01T18:00:00");
+        data.seedEvent("event-2", "Run club", "org-1", "2099-06-01T18:00:00");
+        EventSearchController controller = new EventSearchController(Runnable::run);
+
+        SnapshotSubscriptions.Subscription subscription = data.eventDB.subscribeAllEvents(
+                new EventDB.Callback<List<Event>>() {
+                    @Override
+                    public void onSuccess(List<Event> value) {
+                        controller.index(value);
+                    }
+
+                    @Override
+                    public void onError(@NonNull Exception e) {
+                        fail(e.getMessage());
+                    }
+                });
+        data.runUntilIdle();
+        assertEquals(ids("event-1"), idsOf(search(controller, "swim")));
+
+        Map<String, Object> fields = new HashMap<>();
+        fields.put("name", "Swimming lessons");
+        fields.put("description", "Lane swim for beginners");
+        data.store.set("events/event-3", fields);
+        data.runUntilIdle();
+
+        assertEquals(ids("event-1", "event-3"), idsOf(search(controller, "swim")));
+        subscription.remove();
+    }
+
+    private static List<Event> search(EventSearchController controller, String query) {
+        AtomicReference<List<Event>> results = new AtomicReference<>();
+        controller.search(query, (q, found) -> results.set(found));
+        return results.get();
+    }
+
+    private static Event event(String id, String name, String description, String location) {
+        Event event = new Event();
+        event.setId(id);
+        event.setName(name);
+        event.setDescription(description);
+        event.setLocation(location);
+        return event;
+    }
+
+    private static List<String> ids(String... ids) {
+        return Arrays.asList(ids);
+    }
+
+    private static List<String> idsOf(List<Event> events) {
+        List<String> ids = new ArrayList<>();
+        for (Event event : events) {
+            ids.add(event.getId());
+        }
+        return ids;
+    }
+}
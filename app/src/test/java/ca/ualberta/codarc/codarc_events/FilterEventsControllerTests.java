@@ -1,9 +1,13 @@
 package ca.ualberta.codarc.codarc_events;
 
 import ca.ualberta.codarc.codarc_events.controllers.FilterEventsController;
+import ca.ualberta.codarc.codarc_events.data.AsyncResult;
+import ca.ualberta.codarc.codarc_events.data.EventDB;
+import ca.ualberta.codarc.codarc_events.data.EventRepository;
 import ca.ualberta.codarc.codarc_events.models.Event;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.robolectric.RobolectricTestRunner;
 import org.robolectric.annotation.Config;
 
@@ -14,8 +18,13 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 
 @RunWith(RobolectricTestRunner.class)
 @Config(sdk = 34)
@@ -273,8 +282,79 @@ public class FilterEventsControllerTests {
         assertNotNull(result.getErrorMessage());
     }
 
+    // ---------- Async Filtering Tests ----------
+
+    @Test
+    public void applyFiltersAsync_availability_usesFetchedCounts() {
+        EventRepository eventDB = mock(EventRepository.class);
+        List<Event> events = new ArrayList<>();
+        events.add(openEvent("open", 2));
+        events.add(openEvent("full", 2));
+        AtomicReference<FilterEventsController.FilterResult> result = new AtomicReference<>();
+
+        controller.applyFiltersAsync(events, new FilterEventsController.FilterCriteria(null, true),
+                eventDB, result::set);
+
+        ArgumentCaptor<EventDB.Callback<Integer>> openCap = ArgumentCaptor.forClass(EventDB.Callback.class);
+        ArgumentCaptor<EventDB.Callback<Integer>> fullCap = ArgumentCaptor.forClass(EventDB.Callback.class);
+        verify(eventDB).getAcceptedCount(eq("open"), openCap.capture());
+        verify(eventDB).getAcceptedCount(eq("full"), fullCap.capture());
+        fullCap.getValue().onSuccess(2);
+        assertNull(result.get());
+        openCap.getValue().onSuccess(1);
+
+        assertTrue(result.get().isSuccess());
+        assertEquals(1, result.get().getFilteredEvents().size());
+        assertEquals("open", result.get().getFilteredEvents().get(0).getId());
+    }
+
+    @Test
+    public void applyFiltersAsync_countFails_returnsEmptyList() {
+        EventRepository eventDB = mock(EventRepository.class);
+        List<Event> events = new ArrayList<>();
+        events.add(openEvent("a", 2));
+        events.add(openEvent("b", 2));
+        AtomicReference<FilterEventsController.FilterResult> result = new AtomicReference<>();
+
+        controller.applyFiltersAsync(events, new FilterEventsController.FilterCriteria(null, true),
+                eventDB, result::set);
+
+        ArgumentCaptor<EventDB.Callback<Integer>> cap = ArgumentCaptor.forClass(EventDB.Callback.class);
+        verify(eventDB).getAcceptedCount(eq("a"), cap.capture());
+        cap.getValue().onError(new RuntimeException("offline"));
+
+        assertTrue(result.get().isSuccess());
+        assertTrue(result.get().getFilteredEvents().isEmpty());
+    }
+
+    @Test
+    public void applyFiltersAsync_cancelled_dropsResult() {
+        EventRepository eventDB = mock(EventRepository.class);
+        List<Event> events = new ArrayList<>();
+        events.add(openEvent("a", 2));
+        AtomicReference<FilterEventsController.FilterResult> result = new AtomicReference<>();
+
+        AsyncResult<FilterEventsController.FilterResult> pending = controller.applyFiltersAsync(events,
+                new FilterEventsController.FilterCriteria(null, true), eventDB, result::set);
+        ArgumentCaptor<EventDB.Callback<Integer>> cap = ArgumentCaptor.forClass(EventDB.Callback.class);
+        verify(eventDB).getAcceptedCount(eq("a"), cap.capture());
+        pending.cancel();
+        cap.getValue().onSuccess(0);
+
+        assertNull(result.get());
+    }
+
     // ---------- Helper Methods ----------
 
+    private Event openEvent(String id, int capacity) {
+        Event event = createEvent(id);
+        long now = System.currentTimeMillis();
+        event.setRegistrationOpen(iso.format(new Date(now - 1000)));
+        event.setRegistrationClose(iso.format(new Date(now + 10000)));
+        event.setMaxCapacity(capacity);
+        return event;
+    }
+
     private Event createEvent(String id) {
         Event event = new Event();
         event.setId(id);
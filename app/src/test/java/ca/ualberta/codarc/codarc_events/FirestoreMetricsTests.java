@@ -0,0 +1,252 @@
+package ca.ualberta.codarc.codarc_events;
+
+import ca.ualberta.codarc.codarc_events.data.FirestoreMetrics;
+
+import com.google.android.gms.tasks.OnCompleteListener;
+import com.google.android.gms.tasks.Task;
+import com.google.firebase.firestore.DocumentChange;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.EventListener;
+import com.google.firebase.firestore.QuerySnapshot;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class FirestoreMetricsTests {
+
+    private long nowNanos;
+    private FirestoreMetrics metrics;
+
+    @Before
+    public void setUp() {
+        nowNanos = 0;
+        metrics = new FirestoreMetrics(() -> nowNanos);
+        metrics.setEnabled(true);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> void complete(Task<T> task, T result) {
+        ArgumentCaptor<OnCompleteListener<T>> cap = ArgumentCaptor.forClass(OnCompleteListener.class);
+        verify(task).addOnCompleteListener(cap.capture());
+        when(task.isSuccessful()).thenReturn(true);
+        when(task.getResult()).thenReturn(result);
+        cap.getValue().onComplete(task);
+    }
+
+    private QuerySnapshot querySnapshot(int size) {
+        QuerySnapshot snapshot = mock(QuerySnapshot.class);
+        when(snapshot.size()).thenReturn(size);
+        when(snapshot.getDocuments()).thenReturn(Collections.emptyList());
+        return snapshot;
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void disabled_leavesTaskUntouched() {
+        metrics.setEnabled(false);
+        Task<QuerySnapshot> task = mock(Task.class);
+
+        assertSame(task, metrics.read("EventDB.getWaitlist", task));
+
+        verify(task, never()).addOnCompleteListener(any());
+        assertNull(metrics.getStats(FirestoreMetrics.DEFAULT_FLOW, "EventDB.getWaitlist"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void queryRead_countsDocuments_andLatency() {
+        Task<QuerySnapshot> task = mock(Task.class);
+        metrics.setFlow("draw");
+        metrics.read("EventDB.getWaitlist", task);
+
+        nowNanos = 40_000_000;
+        complete(task, querySnapshot(3));
+
+        FirestoreMetrics.OperationStats stats = metrics.getStats("draw", "EventDB.getWaitlist");
+        assertEquals(1, stats.getCalls());
+        assertEquals(3, stats.getDocsRead());
+        assertEquals(50, stats.percentileMillis(0.5));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void emptyQuery_isBilledOneRead() {
+        Task<QuerySnapshot> task = mock(Task.class);
+        metrics.read("EventDB.getWinners", task);
+        complete(task, querySnapshot(0));
+
+        assertEquals(1, metrics.getStats(FirestoreMetrics.DEFAULT_FLOW, "EventDB.getWinners").getDocsRead());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void documentRead_estimatesBytes() {
+        Task<DocumentSnapshot> task = mock(Task.class);
+        DocumentSnapshot doc = mock(DocumentSnapshot.class);
+        Map<String, Object> data = new HashMap<>();
+        data.put("name", "abc");
+        when(doc.getData()).thenReturn(data);
+
+        metrics.read("EventDB.getEvent", task);
+        complete(task, doc);
+
+        FirestoreMetrics.OperationStats stats = metrics.getStats(FirestoreMetrics.DEFAULT_FLOW, "EventDB.getEvent");
+        assertEquals(1, stats.getDocsRead());
+        // "name" (4 + 1) + "abc" (3 + 1)
+        assertEquals(9, stats.getBytesRead());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void writes_countDocuments_andFailures() {
+        Task<Void> batch = mock(Task.class);
+        Task<Void> single = mock(Task.class);
+        metrics.setFlow("join");
+        metrics.write("EventDB.markWinners", 6, batch);
+        metrics.write("EventDB.joinWaitlist", Collections.singletonMap("deviceId", "d1"), single);
+
+        complete(batch, null);
+        ArgumentCaptor<OnCompleteListener<Void>> cap = ArgumentCaptor.forClass(OnCompleteListener.class);
+        verify(single).addOnCompleteListener(cap.capture());
+        when(single.isSuccessful()).thenReturn(false);
+        cap.getValue().onComplete(single);
+
+        assertEquals(6, metrics.getStats("join", "EventDB.markWinners").getDocsWritten());
+        FirestoreMetrics.OperationStats failed = metrics.getStats("join", "EventDB.joinWaitlist");
+        assertEquals(1, failed.getCalls());
+        assertEquals(1, failed.getFailures());
+        assertEquals(0, failed.getDocsWritten());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void flow_isCapturedWhenOperationIsIssued() {
+        Task<QuerySnapshot> task = mock(Task.class);
+        metrics.setFlow("join");
+        metrics.read("EventDB.getWaitlistCount", task);
+        metrics.setFlow("broadcast");
+
+        complete(task, querySnapshot(1));
+
+        assertNotNull(metrics.getStats("join", "EventDB.getWaitlistCount"));
+        assertNull(metrics.getStats("broadcast", "EventDB.getWaitlistCount"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void openFlow_coversOnlyOperationsIssuedInsideIt() {
+        Task<QuerySnapshot> inside = mock(Task.class);
+        Task<QuerySnapshot> after = mock(Task.class);
+        metrics.setFlow("EventDetailsActivity");
+        try (FirestoreMetrics.Scope join = metrics.openFlow("join")) {
+            try (FirestoreMetrics.Scope draw = metrics.openFlow("draw")) {
+                assertEquals("draw", metrics.getFlow());
+            }
+            assertEquals("join", metrics.getFlow());
+            metrics.read("EventDB.getWaitlist", inside);
+        }
+        metrics.read("EventDB.getWaitlist", after);
+
+        complete(inside, querySnapshot(1));
+        complete(after, querySnapshot(1));
+
+        assertEquals("EventDetailsActivity", metrics.getFlow());
+        assertEquals(1, metrics.getStats("join", "EventDB.getWaitlist").getCalls());
+        assertEquals(1, metrics.getStats("EventDetailsActivity", "EventDB.getWaitlist").getCalls());
+    }
+
+    @Test
+    public void openFlow_isNotSeenByOtherThreads() throws InterruptedException {
+        metrics.setFlow("EventBrowserActivity");
+        String[] seen = new String[1];
+        try (FirestoreMetrics.Scope join = metrics.openFlow("join")) {
+            Thread other = new Thread(() -> seen[0] = metrics.getFlow());
+            other.start();
+            other.join();
+        }
+
+        assertEquals("EventBrowserActivity", seen[0]);
+    }
+
+    @Test
+    public void inFlow_reopensTheFlowForLaterCallbacks() throws InterruptedException {
+        metrics.setFlow("EventBrowserActivity");
+        Executor listeners;
+        try (FirestoreMetrics.Scope draw = metrics.openFlow("draw")) {
+            listeners = metrics.inFlow(Runnable::run);
+        }
+        String[] seen = new String[2];
+        Thread completion = new Thread(() -> listeners.execute(() -> seen[0] = metrics.getFlow()));
+        completion.start();
+        completion.join();
+        seen[1] = metrics.getFlow();
+
+        assertEquals("draw", seen[0]);
+        assertEquals("The flow is closed again after the callback", "EventBrowserActivity", seen[1]);
+    }
+
+    @Test
+    public void percentiles_useHistogramBuckets() {
+        for (int i = 0; i < 98; i++) {
+            metrics.record("draw", "op", 3_000_000, true, 1, 0, 0, 0);
+        }
+        metrics.record("draw", "op", 150_000_000, true, 1, 0, 0, 0);
+        metrics.record("draw", "op", 60_000_000_000L, true, 1, 0, 0, 0);
+
+        FirestoreMetrics.OperationStats stats = metrics.getStats("draw", "op");
+        assertEquals(5, stats.percentileMillis(0.50));
+        assertEquals(5, stats.percentileMillis(0.95));
+        assertEquals(200, stats.percentileMillis(0.99));
+        assertEquals(60_000, stats.percentileMillis(1.0));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void listener_countsDocumentChanges_perSnapshot() {
+        EventListener<QuerySnapshot> delegate = mock(EventListener.class);
+        metrics.setFlow("EventBrowserActivity");
+        EventListener<QuerySnapshot> wrapped = metrics.listen("EventDB.getAllEvents", delegate);
+        metrics.setFlow("join");
+
+        QuerySnapshot snapshot = mock(QuerySnapshot.class);
+        when(snapshot.getDocumentChanges()).thenReturn(
+                Arrays.asList(mock(DocumentChange.class), mock(DocumentChange.class)));
+        wrapped.onEvent(snapshot, null);
+
+        verify(delegate).onEvent(snapshot, null);
+        FirestoreMetrics.OperationStats stats = metrics.getStats("EventBrowserActivity", "EventDB.getAllEvents");
+        assertEquals(2, stats.getDocsRead());
+        assertEquals(0, stats.percentileMillis(0.5));
+    }
+
+    @Test
+    public void toJson_groupsByFlowAndOperation() {
+        metrics.record("join", "EventDB.joinWaitlist", 12_000_000, true, 0, 1, 0, 40);
+        metrics.record("join", "EventDB.getWaitlistCount", 8_000_000, true, 1, 0, 0, 0);
+
+        JsonObject root = JsonParser.parseString(metrics.toJson()).getAsJsonObject();
+        JsonObject join = root.getAsJsonObject("flows").getAsJsonObject("join");
+        assertEquals(1, join.get("docsRead").getAsLong());
+        assertEquals(1, join.get("docsWritten").getAsLong());
+        JsonObject op = join.getAsJsonObject("operations").getAsJsonObject("EventDB.joinWaitlist");
+        assertEquals(40, op.get("bytesWritten").getAsLong());
+        assertEquals(20, op.getAsJsonObject("latencyMs").get("p99").getAsLong());
+
+        metrics.reset();
+        assertEquals(0, JsonParser.parseString(metrics.toJson()).getAsJsonObject()
+                .getAsJsonObject("flows").size());
+    }
+}
@@ -0,0 +1,107 @@
+package ca.ualberta.codarc.codarc_events;
+
+import ca.ualberta.codarc.codarc_events.utils.GeoHash;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Encoding and range cover of {@link GeoHash}.
+ */
+public class GeoHashTests {
+
+    @Test
+    public void encode_matchesKnownHashes() {
+        assertEquals("ezs42", GeoHash.encode(42.6, -5.6, 5));
+        assertEquals("u4pruydqq", GeoHash.encode(57.64911, 10.40744));
+        assertEquals(GeoHash.PRECISION, GeoHash.encode(0, 0).length());
+    }
+
+    @Test
+    public void encode_sharesPrefixForNearbyPoints() {
+        String a = GeoHash.encode(53.5461, -113.4938);
+        String b = GeoHash.encode(53.5462, -113.4939);
+
+        assertEquals(a.substring(0, 6), b.substring(0, 6));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void encode_rejectsBadPrecision() {
+        GeoHash.encode(0, 0, 0);
+    }
+
+    @Test
+    public void distanceMeters_edmontonToCalgary() {
+        double distance = GeoHash.distanceMeters(53.5461, -113.4938, 51.0447, -114.0719);
+
+        assertEquals(281_000, distance, 2_000);
+        assertEquals(0, GeoHash.distanceMeters(10, 10, 10, 10), 0);
+    }
+
+    @Test
+    public void rangesForBounds_coverEveryPointInTheBox() {
+        double south = 53.50;
+        double west = -113.56;
+        double north = 53.59;
+        double east = -113.42;
+        List<String[]> ranges = GeoHash.rangesForBounds(south, west, north, east);
+        assertTrue(ranges.size() <= 16);
+
+        Random random = new Random(1);
+        for (int i = 0; i < 2_000; i++) {
+            double lat = south + random.nextDouble() * (north - south);
+            double lng = west + random.nextDouble() * (east - west);
+            assertTrue(lat + "," + lng, inAnyRange(ranges, GeoHash.encode(lat, lng)));
+        }
+    }
+
+    @Test
+    public void rangesForBounds_splitsAtAntimeridian() {
+        List<String[]> ranges = GeoHash.rangesForBounds(-20, 175, -10, -175);
+
+        assertTrue(inAnyRange(ranges, GeoHash.encode(-15, 178)));
+        assertTrue(inAnyRange(ranges, GeoHash.encode(-15, -178)));
+        assertFalse(inAnyRange(ranges, GeoHash.encode(-15, 0)));
+    }
+
+    @Test
+    public void rangesForBounds_mergesAdjacentCells() {
+        // Cells "9" and "b" are consecutive in geohash order and sit side by side.
+        List<String[]> ranges = GeoHash.rangesForBounds(0.1, -134, 44, -91);
+
+        for (int i = 1; i < ranges.size(); i++) {
+            assertTrue(ranges.get(i - 1)[1].compareTo(ranges.get(i)[0]) < 0);
+        }
+        assertTrue(inAnyRange(ranges, GeoHash.encode(20, -100)));
+    }
+
+    @Test
+    public void boundsForRadius_containsTheCircle() {
+        double[] box = GeoHash.boundsForRadius(53.5461, -113.4938, 5_000);
+
+        assertTrue(GeoHash.contains(box[0], box[1], box[2], box[3], 53.5461 + 0.044, -113.4938));
+        assertTrue(GeoHash.contains(box[0], box[1], box[2], box[3], 53.5461, -113.4938 - 0.074));
+        assertFalse(GeoHash.contains(box[0], box[1], box[2], box[3], 53.70, -113.4938));
+    }
+
+    @Test
+    public void boundsForRadius_wrapsAcrossAntimeridian() {
+        double[] box = GeoHash.boundsForRadius(0, 179.99, 10_000);
+
+        assertTrue(box[1] > box[3]);
+        assertTrue(GeoHash.contains(box[0], box[1], box[2], box[3], 0, -179.99));
+    }
+
+    private static boolean inAnyRange(List<String[]> ranges, String hash) {
+        for (String[] range : ranges) {
+            if (hash.compareTo(range[0]) >= 0 && hash.compareTo(range[1]) <= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,167 @@
+package ca.ualberta.codarc.codarc_events;
+
+import ca.ualberta.codarc.codarc_events.data.EntrantRepository;
+import ca.ualberta.codarc.codarc_events.data.EventRepository;
+import ca.ualberta.codarc.codarc_events.data.OrganizerRepository;
+import ca.ualberta.codarc.codarc_events.data.PosterStorage;
+import ca.ualberta.codarc.codarc_events.data.TagRepository;
+import ca.ualberta.codarc.codarc_events.data.UserRepository;
+import ca.ualberta.codarc.codarc_events.data.memory.InMemoryDatabase;
+import ca.ualberta.codarc.codarc_events.data.memory.InMemoryDocumentStore;
+import ca.ualberta.codarc.codarc_events.data.memory.InMemoryEntrantRepository;
+import ca.ualberta.codarc.codarc_events.data.memory.InMemoryEventRepository;
+import ca.ualberta.codarc.codarc_events.data.memory.InMemoryOrganizerRepository;
+import ca.ualberta.codarc.codarc_events.data.memory.InMemoryTagRepository;
+import ca.ualberta.codarc.codarc_events.data.memory.InMemoryUserRepository;
+import ca.ualberta.codarc.codarc_events.models.MembershipStatus;
+import ca.ualberta.codarc.codarc_events.utils.GeoHash;
+
+import com.google.firebase.firestore.GeoPoint;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+/**
+ * The in-memory repositories on a queued dispatcher, plus seeding helpers. The
+ * repositories model the Firestore ones' document access; they do not run them.
+ * Callbacks are queued instead of run inline, the way Firestore listeners fire on a
+ * later main-looper turn, so fan-out code sees the same ordering it does on a device.
+ * Call {@link #runUntilIdle()} to deliver them. Poster storage is not Firestore and
+ * stays a mock.
+ */
+class InMemoryDataLayer {
+
+    private static final Map<String, MembershipStatus> MEMBERSHIP_STATUSES = new HashMap<>();
+
+    static {
+        MEMBERSHIP_STATUSES.put("waitingList", MembershipStatus.WAITLISTED);
+        MEMBERSHIP_STATUSES.put("winners", MembershipStatus.INVITED);
+        MEMBERSHIP_STATUSES.put("accepted", MembershipStatus.ACCEPTED);
+        MEMBERSHIP_STATUSES.put("cancelled", MembershipStatus.CANCELLED);
+        MEMBERSHIP_STATUSES.put("replacementPool", MembershipStatus.REPLACEMENT_POOL);
+    }
+
+    final InMemoryDatabase.QueuedDispatcher dispatcher = new InMemoryDatabase.QueuedDispatcher();
+    final InMemoryDatabase database = new InMemoryDatabase(dispatcher);
+    final InMemoryDocumentStore store = database.getStore();
+    final TagRepository tagDB = new InMemoryTagRepository(database);
+    final EventRepository eventDB = new InMemoryEventRepository(database, tagDB);
+    final EntrantRepository entrantDB = new InMemoryEntrantRepository(database);
+    final OrganizerRepository organizerDB = new InMemoryOrganizerRepository(database);
+    final UserRepository userDB = new InMemoryUserRepository(database);
+    final PosterStorage posterStorage = mock(PosterStorage.class);
+
+    InMemoryDataLayer() {
+        // Simulated time never advances without latency, so cached events stay fresh.
+        database.setClock(dispatcher::now);
+        stubPosterStorage();
+    }
+
+    /**
+     * Delivers queued callbacks, including any queued while delivering, until none are left.
+     */
+    void runUntilIdle() {
+        dispatcher.runUntilIdle();
+    }
+
+    // ---- seeding helpers ----
+
+    void seedEvent(String eventId, String name, String organizerId, String eventDateTime) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("name", name);
+        data.put("organizerId", organizerId);
+        data.put("eventDateTime", eventDateTime);
+        data.put("waitlistCount", 0);
+        data.put("membershipDocs", true);
+        store.seed("events/" + eventId, data);
+        if (organizerId != null) {
+            if (!store.exists("organizers/" + organizerId)) {
+                store.seed("organizers/" + organizerId, single("deviceId", organizerId));
+            }
+            store.seed("organizers/" + organizerId + "/events/" + eventId, single("eventId", eventId));
+        }
+    }
+
+    void seedEntrant(String deviceId, String name, boolean notificationsEnabled) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("deviceId", deviceId);
+        data.put("name", name);
+        data.put("notificationEnabled", notificationsEnabled);
+        data.put("fcmToken", "token-" + deviceId);
+        store.seed("entrants/" + deviceId, data);
+    }
+
+    void seedAdmin(String deviceId) {
+        store.seed("users/" + deviceId, single("isAdmin", true));
+    }
+
+    /**
+     * Puts an entrant in one of an event's membership subcollections and records the
+     * event in the entrant's history.
+     */
+    void seedMembership(String eventId, String subcollection, String deviceId, Object location) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("deviceId", deviceId);
+        data.put("request_time", 1_700_000_000_000L);
+        if (location != null) {
+            data.put("joinLocation", location);
+        }
+        if (location instanceof GeoPoint) {
+            GeoPoint point = (GeoPoint) location;
+            data.put("geohash", GeoHash.encode(point.getLatitude(), point.getLongitude()));
+        }
+        store.seed("events/" + eventId + "/" + subcollection + "/" + deviceId, data);
+        Map<String, Object> history = single("eventId", eventId);
+        MembershipStatus status = MEMBERSHIP_STATUSES.get(subcollection);
+        if (status != null) {
+            history.put("status", status.getValue());
+            history.put("updatedAt", 1_700_000_000_000L);
+        }
+        store.seed("entrants/" + deviceId + "/events/" + eventId, history);
+        if (status != null) {
+            Map<String, Object> membership = new HashMap<>();
+            membership.put("deviceId", deviceId);
+            membership.put("status", status.getValue());
+            membership.put("updatedAt", 1_700_000_000_000L);
+            membership.put(status.getTimestampField(), 1_700_000_000_000L);
+            store.seed("events/" + eventId + "/memberships/" + deviceId, membership);
+        }
+        if ("waitingList".equals(subcollection)) {
+            // Keep the event's waitlist counter in step, as a real join would.
+            Map<String, Object> event = store.peek("events/" + eventId);
+            if (event != null && event.get("waitlistCount") instanceof Number) {
+                event.put("waitlistCount", ((Number) event.get("waitlistCount")).intValue() + 1);
+                store.seed("events/" + eventId, event);
+            }
+        }
+    }
+
+    void seedNotification(String deviceId, String eventId, String category) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("eventId", eventId);
+        data.put("message", "hello");
+        data.put("category", category);
+        data.put("createdAt", 1_700_000_000_000L);
+        store.seed("entrants/" + deviceId + "/notifications/" + eventId + "-" + category, data);
+    }
+
+    private void stubPosterStorage() {
+        // Storage objects are not Firestore documents, so poster deletes are not billed.
+        doAnswer(inv -> {
+            PosterStorage.Callback<Void> cb = inv.getArgument(1);
+            database.execute("PosterStorage.deletePoster", () -> null, cb::onSuccess, cb::onError);
+            return null;
+        }).when(posterStorage).deletePoster(anyString(), any());
+    }
+
+    private static Map<String, Object> single(String key, Object value) {
+        Map<String, Object> data = new HashMap<>();
+        data.put(key, value);
+        return data;
+    }
+}
@@ -0,0 +1,486 @@
+package ca.ualberta.codarc.codarc_events;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import ca.ualberta.codarc.codarc_events.controllers.JoinWaitlistController;
+import ca.ualberta.codarc.codarc_events.data.EventDB;
+import ca.ualberta.codarc.codarc_events.data.EventRepository;
+import ca.ualberta.codarc.codarc_events.data.memory.InMemoryDatabase;
+import ca.ualberta.codarc.codarc_events.data.memory.InMemoryDocumentStore;
+import ca.ualberta.codarc.codarc_events.data.memory.InMemoryEntrantRepository;
+import ca.ualberta.codarc.codarc_events.data.memory.InMemoryEventRepository;
+import ca.ualberta.codarc.codarc_events.data.memory.InMemoryTagRepository;
+import ca.ualberta.codarc.codarc_events.models.Event;
+import ca.ualberta.codarc.codarc_events.models.MembershipStatus;
+import ca.ualberta.codarc.codarc_events.utils.GeoHash;
+
+import com.google.firebase.firestore.GeoPoint;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.MockedStatic;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests latency, failure injection and threading of the in-memory data layer.
+ */
+public class InMemoryDatabaseTests {
+
+    private static final String EVENT_ID = "event-1";
+
+    private MockedStatic<Log> logMock;
+    private InMemoryDataLayer data;
+
+    @Before
+    public void setUp() {
+        logMock = Mockito.mockStatic(Log.class);
+        data = new InMemoryDataLayer();
+        data.seedEvent(EVENT_ID, "Swim Lessons", "org-1", "2099-01-01T10:00:00");
+    }
+
+    @After
+    public void tearDown() {
+        if (logMock != null) {
+            logMock.close();
+        }
+    }
+
+    @Test
+    public void latency_addsUpAcrossSequentialRoundTrips() {
+        data.seedMembership(EVENT_ID, "waitingList", "device-1", null);
+        data.database.setDefaultLatency(40, 40);
+        AtomicReference<Void> result = new AtomicReference<>();
+
+        // Counter check, then the location read, then the batch write.
+        data.eventDB.markWinners(EVENT_ID, Collections.singletonList("device-1"), callback(result));
+        data.runUntilIdle();
+
+        assertEquals(120, data.dispatcher.now());
+        assertEquals(2, data.store.getReads());
+        assertTrue(data.store.exists("events/" + EVENT_ID + "/winners/device-1"));
+    }
+
+    @Test
+    public void markWinners_failedLocationReadFailsTheDraw() {
+        data.eventDB.joinWaitlistAtomic(EVENT_ID, "device-1", null, callback(new AtomicReference<>()));
+        data.eventDB.joinWaitlistAtomic(EVENT_ID, "device-2", null, callback(new AtomicReference<>()));
+        data.runUntilIdle();
+        data.database.failNext("EventDB.markWinners", 1);
+        AtomicReference<Exception> error = new AtomicReference<>();
+
+        data.eventDB.markWinners(EVENT_ID, Arrays.asList("device-1", "device-2"), new EventDB.Callback<Void>() {
+            @Override
+            public void onSuccess(Void value) {
+                fail("draw should fail");
+            }
+
+            @Override
+            public void onError(@NonNull Exception e) {
+                error.set(e);
+            }
+        });
+        data.runUntilIdle();
+
+        assertTrue(error.get() instanceof InMemoryDatabase.InjectedFailureException);
+        assertEquals(2, data.store.size("events/" + EVENT_ID + "/waitingList"));
+        assertEquals(2, ((Number) data.store.peek("events/" + EVENT_ID).get("waitlistCount")).intValue());
+    }
+
+    @Test
+    public void membershipStatus_followsEveryTransition() {
+        AtomicReference<MembershipStatus> status = new AtomicReference<>();
+        Runnable read = () -> {
+            data.eventDB.getMembershipStatus(EVENT_ID, "device-1", callback(status));
+            data.runUntilIdle();
+        };
+
+        read.run();
+        assertNull(status.get());
+
+        data.eventDB.joinWaitlistAtomic(EVENT_ID, "device-1", null, callback(new AtomicReference<>()));
+        data.runUntilIdle();
+        read.run();
+        assertEquals(MembershipStatus.WAITLISTED, status.get());
+
+        data.eventDB.markWinners(EVENT_ID, Collections.singletonList("device-1"), callback(new AtomicReference<>()));
+        data.runUntilIdle();
+        read.run();
+        assertEquals(MembershipStatus.INVITED, status.get());
+
+        data.eventDB.setEnrolledStatus(EVENT_ID, "device-1", true, callback(new AtomicReference<>()));
+        data.runUntilIdle();
+        read.run();
+        assertEquals(MembershipStatus.ACCEPTED, status.get());
+        Map<String, Object> membership = data.store.peek("events/" + EVENT_ID + "/memberships/device-1");
+        assertNotNull(membership.get("waitlistedAt"));
+        assertNotNull(membership.get("acceptedAt"));
+
+        data.eventDB.removeEntrantFromEvent(EVENT_ID, "device-1", callback(new AtomicReference<>()));
+        data.runUntilIdle();
+        read.run();
+        assertNull(status.get());
+    }
+
+    @Test
+    public void geohash_followsJoinLocationThroughTheDraw() {
+        GeoPoint location = new GeoPoint(53.5461, -113.4938);
+        String hash = GeoHash.encode(53.5461, -113.4938);
+
+        data.eventDB.joinWaitlistAtomic(EVENT_ID, "device-1", location, callback(new AtomicReference<>()));
+        data.runUntilIdle();
+        assertEquals(hash, data.store.peek("events/" + EVENT_ID + "/waitingList/device-1").get("geohash"));
+
+        data.eventDB.markWinners(EVENT_ID, Collections.singletonList("device-1"), callback(new AtomicReference<>()));
+        data.runUntilIdle();
+        assertEquals(hash, data.store.peek("events/" + EVENT_ID + "/winners/device-1").get("geohash"));
+
+        data.eventDB.setEnrolledStatus(EVENT_ID, "device-1", true, callback(new AtomicReference<>()));
+        data.runUntilIdle();
+        Map<String, Object> accepted = data.store.peek("events/" + EVENT_ID + "/accepted/device-1");
+        assertEquals(location, accepted.get("joinLocation"));
+        assertEquals(hash, accepted.get("geohash"));
+    }
+
+    @Test
+    public void attachJoinLocation_fillsEntryOnce() {
+        GeoPoint location = new GeoPoint(53.5461, -113.4938);
+        AtomicReference<Boolean> first = new AtomicReference<>();
+        AtomicReference<Boolean> second = new AtomicReference<>();
+        AtomicReference<Boolean> afterLeave = new AtomicReference<>();
+
+        data.eventDB.joinWaitlistAtomic(EVENT_ID, "device-1", null, callback(new AtomicReference<>()));
+        data.runUntilIdle();
+        data.eventDB.attachJoinLocation(EVENT_ID, "device-1", location, callback(first));
+        data.runUntilIdle();
+        data.eventDB.attachJoinLocation(EVENT_ID, "device-1", new GeoPoint(0, 0), callback(second));
+        data.runUntilIdle();
+
+        assertTrue(first.get());
+        assertFalse(second.get());
+        Map<String, Object> entry = data.store.peek("events/" + EVENT_ID + "/waitingList/device-1");
+        assertEquals(location, entry.get("joinLocation"));
+        assertEquals(GeoHash.encode(53.5461, -113.4938), entry.get("geohash"));
+        assertTrue(hasLocationEntry("device-1"));
+
+        data.eventDB.leaveWaitlist(EVENT_ID, "device-1", callback(new AtomicReference<>()));
+        data.runUntilIdle();
+        data.eventDB.attachJoinLocation(EVENT_ID, "device-1", location, callback(afterLeave));
+        data.runUntilIdle();
+
+        assertFalse(afterLeave.get());
+        assertFalse(hasLocationEntry("device-1"));
+        assertNull(data.store.peek("events/" + EVENT_ID + "/waitingList/device-1"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private boolean hasLocationEntry(String deviceId) {
+        for (int chunk = 0; chunk < 16; chunk++) {
+            Map<String, Object> doc = data.store.peek("events/" + EVENT_ID + "/locationChunks/" + chunk);
+            if (doc != null && ((Map<String, Object>) doc.get("entries")).containsKey(deviceId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Test
+    public void canJoinWaitlist_isOnePointRead() {
+        data.seedMembership(EVENT_ID, "winners", "device-1", null);
+        data.seedMembership(EVENT_ID, "cancelled", "device-2", null);
+        AtomicReference<Boolean> winner = new AtomicReference<>();
+        AtomicReference<Boolean> cancelled = new AtomicReference<>();
+
+        data.eventDB.canJoinWaitlist(EVENT_ID, "device-1", callback(winner));
+        data.eventDB.canJoinWaitlist(EVENT_ID, "device-2", callback(cancelled));
+        data.runUntilIdle();
+
+        assertFalse(winner.get());
+        assertTrue(cancelled.get());
+        assertEquals(2, data.store.getReads());
+    }
+
+    @Test
+    public void membershipStatus_fallsBackToLegacyListsAndBackfills() {
+        // Written before membership documents: no flag on the event, only the old list entry.
+        data.store.set("events/legacy-1", Collections.singletonMap("name", "Legacy"));
+        data.store.set("events/legacy-1/accepted/device-1", Collections.singletonMap("deviceId", "device-1"));
+        AtomicReference<MembershipStatus> status = new AtomicReference<>();
+        AtomicReference<Boolean> canJoin = new AtomicReference<>();
+
+        data.eventDB.getMembershipStatus("legacy-1", "device-1", callback(status));
+        data.runUntilIdle();
+        data.store.resetCounters();
+        data.eventDB.canJoinWaitlist("legacy-1", "device-1", callback(canJoin));
+        data.runUntilIdle();
+
+        assertEquals(MembershipStatus.ACCEPTED, status.get());
+        assertFalse(canJoin.get());
+        assertEquals("The backfilled membership answers with one read", 1, data.store.getReads());
+        assertEquals("accepted", data.store.peek("entrants/device-1/events/legacy-1").get("status"));
+    }
+
+    @Test
+    public void membershipStatus_nonMemberOfNewEventSkipsLegacyLists() {
+        // An old list entry on an event with membership documents must not be probed.
+        data.store.set("events/" + EVENT_ID + "/accepted/device-1", Collections.singletonMap("deviceId", "device-1"));
+        AtomicReference<MembershipStatus> cold = new AtomicReference<>(MembershipStatus.ACCEPTED);
+        AtomicReference<MembershipStatus> warm = new AtomicReference<>(MembershipStatus.ACCEPTED);
+
+        data.eventDB.getMembershipStatus(EVENT_ID, "device-1", callback(cold));
+        data.runUntilIdle();
+        assertNull(cold.get());
+        assertEquals("The membership read and the event read", 2, data.store.getReads());
+
+        data.store.resetCounters();
+        data.eventDB.getMembershipStatus(EVENT_ID, "device-1", callback(warm));
+        data.runUntilIdle();
+        assertNull(warm.get());
+        assertEquals(1, data.store.getReads());
+    }
+
+    @Test
+    public void latency_parallelRoundTripsOverlap() {
+        data.database.setDefaultLatency(25, 25);
+        AtomicInteger completed = new AtomicInteger();
+
+        for (int i = 0; i < 10; i++) {
+            data.eventDB.isEntrantOnWaitlist(EVENT_ID, "device-" + i, new EventDB.Callback<Boolean>() {
+                @Override
+                public void onSuccess(Boolean value) {
+                    completed.incrementAndGet();
+                }
+
+                @Override
+                public void onError(@NonNull Exception e) {
+                    fail(e.getMessage());
+                }
+            });
+        }
+        data.runUntilIdle();
+
+        assertEquals(10, completed.get());
+        assertEquals(25, data.dispatcher.now());
+    }
+
+    @Test
+    public void failNext_failsThenRecovers() {
+        data.database.failNext("EventDB.joinWaitlist", 1);
+        AtomicReference<Exception> error = new AtomicReference<>();
+        AtomicReference<Boolean> joined = new AtomicReference<>(false);
+        EventDB.Callback<Void> cb = new EventDB.Callback<Void>() {
+            @Override
+            public void onSuccess(Void value) {
+                joined.set(true);
+            }
+
+            @Override
+            public void onError(@NonNull Exception e) {
+                error.set(e);
+            }
+        };
+
+        data.eventDB.joinWaitlist(EVENT_ID, "device-1", cb);
+        data.runUntilIdle();
+        assertTrue(error.get() instanceof InMemoryDatabase.InjectedFailureException);
+        assertFalse(data.store.exists("events/" + EVENT_ID + "/waitingList/device-1"));
+        assertEquals(0, data.store.getWrites());
+
+        data.eventDB.joinWaitlist(EVENT_ID, "device-1", cb);
+        data.runUntilIdle();
+        assertTrue(joined.get());
+        assertTrue(data.store.exists("events/" + EVENT_ID + "/waitingList/device-1"));
+    }
+
+    @Test
+    public void failureRate_isRepeatableForASeed() {
+        assertEquals(failurePattern(42), failurePattern(42));
+        List<Boolean> pattern = failurePattern(42);
+        int failures = 0;
+        for (Boolean failed : pattern) {
+            if (failed) {
+                failures++;
+            }
+        }
+        assertTrue("failures: " + failures, failures > 50 && failures < 150);
+    }
+
+    private List<Boolean> failurePattern(long seed) {
+        InMemoryDatabase.QueuedDispatcher dispatcher = new InMemoryDatabase.QueuedDispatcher();
+        InMemoryDatabase database = new InMemoryDatabase(new InMemoryDocumentStore(), dispatcher, seed);
+        database.setFailureRate("EventDB.eventExists", 0.5);
+        EventRepository events = new InMemoryEventRepository(database, new InMemoryTagRepository(database));
+        List<Boolean> pattern = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            events.eventExists(EVENT_ID, new EventDB.Callback<Boolean>() {
+                @Override
+                public void onSuccess(Boolean value) {
+                    pattern.add(false);
+                }
+
+                @Override
+                public void onError(@NonNull Exception e) {
+                    pattern.add(true);
+                }
+            });
+        }
+        dispatcher.runUntilIdle();
+        return pattern;
+    }
+
+    @Test
+    public void injectedFailure_surfacesThroughController() {
+        seedRegisteredEntrant("device-1");
+        data.database.failNext("EventDB.joinWaitlistAtomic", 1);
+        JoinWaitlistController controller = new JoinWaitlistController(data.eventDB, data.entrantDB);
+        AtomicReference<JoinWaitlistController.JoinResult> result = new AtomicReference<>();
+
+        controller.joinWaitlist(openEvent(), "device-1", result::set);
+        data.runUntilIdle();
+
+        assertFalse(result.get().isSuccess());
+        assertEquals("Failed to join. Please try again.", result.get().getMessage());
+        assertEquals(0, data.store.size("events/" + EVENT_ID + "/waitingList"));
+    }
+
+    @Test
+    public void concurrentJoins_onExecutor_allLand() throws Exception {
+        int entrants = 300;
+        for (int i = 0; i < entrants; i++) {
+            seedRegisteredEntrant("device-" + i);
+        }
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+        InMemoryDatabase database = new InMemoryDatabase(data.store, InMemoryDatabase.on(executor), 7L);
+        database.setDefaultLatency(0, 3);
+        InMemoryTagRepository tags = new InMemoryTagRepository(database);
+        JoinWaitlistController controller = new JoinWaitlistController(
+                new InMemoryEventRepository(database, tags), new InMemoryEntrantRepository(database));
+
+        Event event = openEvent();
+        CountDownLatch done = new CountDownLatch(entrants);
+        AtomicInteger successes = new AtomicInteger();
+        for (int i = 0; i < entrants; i++) {
+            controller.joinWaitlist(event, "device-" + i, result -> {
+                if (result.isSuccess()) {
+                    successes.incrementAndGet();
+                }
+                done.countDown();
+            });
+        }
+
+        assertTrue(done.await(30, TimeUnit.SECONDS));
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+        assertEquals(entrants, successes.get());
+        assertEquals(entrants, data.store.size("events/" + EVENT_ID + "/waitingList"));
+        assertEquals(1, data.store.size("entrants/device-0/events"));
+    }
+
+    @Test
+    public void atomicJoin_backfillsCounterForOlderEvents() {
+        Map<String, Object> legacy = data.store.peek("events/" + EVENT_ID);
+        legacy.remove("waitlistCount");
+        legacy.put("maxCapacity", 3);
+        data.store.seed("events/" + EVENT_ID, legacy);
+        data.seedMembership(EVENT_ID, "waitingList", "device-1", null);
+        data.seedMembership(EVENT_ID, "waitingList", "device-2", null);
+        AtomicReference<EventDB.JoinOutcome> first = new AtomicReference<>();
+        AtomicReference<EventDB.JoinOutcome> second = new AtomicReference<>();
+
+        data.eventDB.joinWaitlistAtomic(EVENT_ID, "device-3", null, callback(first));
+        data.runUntilIdle();
+        data.eventDB.joinWaitlistAtomic(EVENT_ID, "device-4", null, callback(second));
+        data.runUntilIdle();
+
+        assertEquals(EventDB.JoinOutcome.JOINED, first.get());
+        assertEquals(EventDB.JoinOutcome.FULL, second.get());
+        assertEquals(3, data.store.peek("events/" + EVENT_ID).get("waitlistCount"));
+    }
+
+    @Test
+    public void leaveWaitlist_decrementsCounterOnce() {
+        AtomicReference<EventDB.JoinOutcome> joined = new AtomicReference<>();
+        data.eventDB.joinWaitlistAtomic(EVENT_ID, "device-1", null, callback(joined));
+        data.runUntilIdle();
+        assertEquals(EventDB.JoinOutcome.JOINED, joined.get());
+        assertEquals(1, data.store.peek("events/" + EVENT_ID).get("waitlistCount"));
+
+        for (int i = 0; i < 2; i++) {
+            data.eventDB.leaveWaitlist(EVENT_ID, "device-1", callback(new AtomicReference<>()));
+            data.runUntilIdle();
+        }
+
+        assertEquals(0, data.store.peek("events/" + EVENT_ID).get("waitlistCount"));
+    }
+
+    @Test
+    public void joinWaitlistAtomic_turnsAwaySelectedEntrants() {
+        data.seedMembership(EVENT_ID, "winners", "device-1", null);
+        data.seedMembership(EVENT_ID, "cancelled", "device-2", null);
+        // An event from before membership documents, with a winner that has none.
+        data.store.seed("events/legacy", Collections.singletonMap("waitlistCount", 0));
+        data.store.seed("events/legacy/accepted/device-3", Collections.singletonMap("deviceId", "device-3"));
+        AtomicReference<EventDB.JoinOutcome> invited = new AtomicReference<>();
+        AtomicReference<EventDB.JoinOutcome> cancelled = new AtomicReference<>();
+        AtomicReference<EventDB.JoinOutcome> legacy = new AtomicReference<>();
+
+        data.eventDB.joinWaitlistAtomic(EVENT_ID, "device-1", null, callback(invited));
+        data.eventDB.joinWaitlistAtomic(EVENT_ID, "device-2", null, callback(cancelled));
+        data.eventDB.joinWaitlistAtomic("legacy", "device-3", null, callback(legacy));
+        data.runUntilIdle();
+
+        assertEquals(EventDB.JoinOutcome.NOT_ELIGIBLE, invited.get());
+        assertEquals(EventDB.JoinOutcome.JOINED, cancelled.get());
+        assertEquals(EventDB.JoinOutcome.NOT_ELIGIBLE, legacy.get());
+        assertEquals("invited", data.store.peek("events/" + EVENT_ID + "/memberships/device-1").get("status"));
+        assertEquals(1, data.store.peek("events/" + EVENT_ID).get("waitlistCount"));
+    }
+
+    private void seedRegisteredEntrant(String deviceId) {
+        Map<String, Object> profile = new HashMap<>();
+        profile.put("deviceId", deviceId);
+        profile.put("name", "Entrant " + deviceId);
+        profile.put("is_registered", true);
+        data.store.seed("entrants/" + deviceId, profile);
+    }
+
+    private static Event openEvent() {
+        Event event = new Event();
+        event.setId(EVENT_ID);
+        event.setOrganizerId("org-1");
+        event.setRegistrationOpen("2000-01-01T00:00:00");
+        event.setRegistrationClose("2099-01-01T00:00:00");
+        return event;
+    }
+
+    private static <T> EventDB.Callback<T> callback(AtomicReference<T> result) {
+        return new EventDB.Callback<T>() {
+            @Override
+            public void onSuccess(T value) {
+                result.set(value);
+            }
+
+            @Override
+            public void onError(@NonNull Exception e) {
+                fail(e.getMessage());
+            }
+        };
+    }
+}
@@ -5,6 +5,7 @@ import android.util.Log;
 import ca.ualberta.codarc.codarc_events.controllers.InvitationResponseController;
 import ca.ualberta.codarc.codarc_events.data.EntrantDB;
 import ca.ualberta.codarc.codarc_events.data.EventDB;
+import ca.ualberta.codarc.codarc_events.models.EntrantEntry;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -13,7 +14,6 @@ import org.mockito.MockedStatic;
 import org.mockito.Mockito;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -132,11 +132,11 @@ public class InvitationResponseControllerTests {
 
         notifCap.getValue().onSuccess(null);
 
-        ArgumentCaptor<EventDB.Callback<List<Map<String, Object>>>> poolCap = ArgumentCaptor.forClass(EventDB.Callback.class);
+        ArgumentCaptor<EventDB.Callback<List<EntrantEntry>>> poolCap = ArgumentCaptor.forClass(EventDB.Callback.class);
         verify(mockEventDb).getReplacementPool(eq("evt"), poolCap.capture());
         poolCap.getValue().onSuccess(new ArrayList<>());
 
-        ArgumentCaptor<EventDB.Callback<List<Map<String, Object>>>> waitlistCap = ArgumentCaptor.forClass(EventDB.Callback.class);
+        ArgumentCaptor<EventDB.Callback<List<EntrantEntry>>> waitlistCap = ArgumentCaptor.forClass(EventDB.Callback.class);
         verify(mockEventDb).getWaitlist(eq("evt"), waitlistCap.capture());
         waitlistCap.getValue().onSuccess(new ArrayList<>());
 
@@ -198,12 +198,11 @@ public class InvitationResponseControllerTests {
         verify(mockEntrantDb).updateNotificationState(eq("dev1"), eq("notif1"), anyMap(), notifCap.capture());
         notifCap.getValue().onSuccess(null);
 
-        List<Map<String, Object>> pool = new ArrayList<>();
-        Map<String, Object> poolEntry = new HashMap<>();
-        poolEntry.put("deviceId", "replacement1");
+        List<EntrantEntry> pool = new ArrayList<>();
+        EntrantEntry poolEntry = new EntrantEntry("replacement1", 0L);
         pool.add(poolEntry);
 
-        ArgumentCaptor<EventDB.Callback<List<Map<String, Object>>>> poolCap = ArgumentCaptor.forClass(EventDB.Callback.class);
+        ArgumentCaptor<EventDB.Callback<List<EntrantEntry>>> poolCap = ArgumentCaptor.forClass(EventDB.Callback.class);
         verify(mockEventDb).getReplacementPool(eq("evt"), poolCap.capture());
         poolCap.getValue().onSuccess(pool);
 
@@ -236,16 +235,15 @@ public class InvitationResponseControllerTests {
         verify(mockEntrantDb).updateNotificationState(eq("dev1"), eq("notif1"), anyMap(), notifCap.capture());
         notifCap.getValue().onSuccess(null);
 
-        ArgumentCaptor<EventDB.Callback<List<Map<String, Object>>>> poolCap = ArgumentCaptor.forClass(EventDB.Callback.class);
+        ArgumentCaptor<EventDB.Callback<List<EntrantEntry>>> poolCap = ArgumentCaptor.forClass(EventDB.Callback.class);
         verify(mockEventDb).getReplacementPool(eq("evt"), poolCap.capture());
         poolCap.getValue().onSuccess(new ArrayList<>());
 
-        List<Map<String, Object>> waitlist = new ArrayList<>();
-        Map<String, Object> waitlistEntry = new HashMap<>();
-        waitlistEntry.put("deviceId", "waitlist1");
+        List<EntrantEntry> waitlist = new ArrayList<>();
+        EntrantEntry waitlistEntry = new EntrantEntry("waitlist1", 0L);
         waitlist.add(waitlistEntry);
 
-        ArgumentCaptor<EventDB.Callback<List<Map<String, Object>>>> waitlistCap = ArgumentCaptor.forClass(EventDB.Callback.class);
+        ArgumentCaptor<EventDB.Callback<List<EntrantEntry>>> waitlistCap = ArgumentCaptor.forClass(EventDB.Callback.class);
         verify(mockEventDb).getWaitlist(eq("evt"), waitlistCap.capture());
         waitlistCap.getValue().onSuccess(waitlist);
 
@@ -278,11 +276,11 @@ public class InvitationResponseControllerTests {
         verify(mockEntrantDb).updateNotificationState(eq("dev1"), eq("notif1"), anyMap(), notifCap.capture());
         notifCap.getValue().onSuccess(null);
 
-        ArgumentCaptor<EventDB.Callback<List<Map<String, Object>>>> poolCap = ArgumentCaptor.forClass(EventDB.Callback.class);
+        ArgumentCaptor<EventDB.Callback<List<EntrantEntry>>> poolCap = ArgumentCaptor.forClass(EventDB.Callback.class);
         verify(mockEventDb).getReplacementPool(eq("evt"), poolCap.capture());
         poolCap.getValue().onSuccess(new ArrayList<>());
 
-        ArgumentCaptor<EventDB.Callback<List<Map<String, Object>>>> waitlistCap = ArgumentCaptor.forClass(EventDB.Callback.class);
+        ArgumentCaptor<EventDB.Callback<List<EntrantEntry>>> waitlistCap = ArgumentCaptor.forClass(EventDB.Callback.class);
         verify(mockEventDb).getWaitlist(eq("evt"), waitlistCap.capture());
         waitlistCap.getValue().onSuccess(new ArrayList<>());
 
@@ -311,11 +309,11 @@ public class InvitationResponseControllerTests {
         verify(mockEntrantDb).updateNotificationState(eq("dev1"), eq("notif1"), anyMap(), notifCap.capture());
         notifCap.getValue().onSuccess(null);
 
-        ArgumentCaptor<EventDB.Callback<List<Map<String, Object>>>> poolCap = ArgumentCaptor.forClass(EventDB.Callback.class);
+        ArgumentCaptor<EventDB.Callback<List<EntrantEntry>>> poolCap = ArgumentCaptor.forClass(EventDB.Callback.class);
         verify(mockEventDb).getReplacementPool(eq("evt"), poolCap.capture());
         poolCap.getValue().onError(new RuntimeException("Pool query failed"));
 
-        ArgumentCaptor<EventDB.Callback<List<Map<String, Object>>>> waitlistCap = ArgumentCaptor.forClass(EventDB.Callback.class);
+        ArgumentCaptor<EventDB.Callback<List<EntrantEntry>>> waitlistCap = ArgumentCaptor.forClass(EventDB.Callback.class);
         verify(mockEventDb).getWaitlist(eq("evt"), waitlistCap.capture());
         waitlistCap.getValue().onSuccess(new ArrayList<>());
 
@@ -340,12 +338,11 @@ public class InvitationResponseControllerTests {
         verify(mockEntrantDb).updateNotificationState(eq("dev1"), eq("notif1"), anyMap(), notifCap.capture());
         notifCap.getValue().onSuccess(null);
 
-        List<Map<String, Object>> pool = new ArrayList<>();
-        Map<String, Object> poolEntry = new HashMap<>();
-        poolEntry.put("deviceId", "replacement1");
+        List<EntrantEntry> pool = new ArrayList<>();
+        EntrantEntry poolEntry = new EntrantEntry("replacement1", 0L);
         pool.add(poolEntry);
 
-        ArgumentCaptor<EventDB.Callback<List<Map<String, Object>>>> poolCap = ArgumentCaptor.forClass(EventDB.Callback.class);
+        ArgumentCaptor<EventDB.Callback<List<EntrantEntry>>> poolCap = ArgumentCaptor.forClass(EventDB.Callback.class);
         verify(mockEventDb).getReplacementPool(eq("evt"), poolCap.capture());
         poolCap.getValue().onSuccess(pool);
 
@@ -374,11 +371,11 @@ public class InvitationResponseControllerTests {
         verify(mockEntrantDb).updateNotificationState(eq("dev1"), eq("notif1"), anyMap(), notifCap.capture());
         notifCap.getValue().onSuccess(null);
 
-        ArgumentCaptor<EventDB.Callback<List<Map<String, Object>>>> poolCap = ArgumentCaptor.forClass(EventDB.Callback.class);
+        ArgumentCaptor<EventDB.Callback<List<EntrantEntry>>> poolCap = ArgumentCaptor.forClass(EventDB.Callback.class);
         verify(mockEventDb).getReplacementPool(eq("evt"), poolCap.capture());
         poolCap.getValue().onSuccess(new ArrayList<>());
 
-        ArgumentCaptor<EventDB.Callback<List<Map<String, Object>>>> waitlistCap = ArgumentCaptor.forClass(EventDB.Callback.class);
+        ArgumentCaptor<EventDB.Callback<List<EntrantEntry>>> waitlistCap = ArgumentCaptor.forClass(EventDB.Callback.class);
         verify(mockEventDb).getWaitlist(eq("evt"), waitlistCap.capture());
         waitlistCap.getValue().onSuccess(new ArrayList<>());
 
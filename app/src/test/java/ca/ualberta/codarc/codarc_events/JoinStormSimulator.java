@@ -0,0 +1,240 @@
+package ca.ualberta.codarc.codarc_events;
+
+import com.google.firebase.firestore.GeoPoint;
+
+import ca.ualberta.codarc.codarc_events.controllers.JoinWaitlistController;
+import ca.ualberta.codarc.codarc_events.data.memory.InMemoryDatabase;
+import ca.ualberta.codarc.codarc_events.data.memory.InMemoryDocumentStore;
+import ca.ualberta.codarc.codarc_events.data.memory.InMemoryEntrantRepository;
+import ca.ualberta.codarc.codarc_events.data.memory.InMemoryEventRepository;
+import ca.ualberta.codarc.codarc_events.data.memory.InMemoryTagRepository;
+import ca.ualberta.codarc.codarc_events.models.Event;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Simulates a burst of entrants pressing "Join" on one event right after registration
+ * opens. Every join goes through {@link JoinWaitlistController} against the in-memory
+ * data layer on a virtual clock, so a storm of thousands of joins runs in well under a
+ * second and the same seed always produces the same report.
+ */
+class JoinStormSimulator {
+
+    static final String EVENT_ID = "storm-event";
+    static final String ORGANIZER_ID = "storm-organizer";
+
+    /**
+     * Knobs for one storm. Defaults model a popular event opening to a large crowd.
+     */
+    static class Config {
+        int entrants = 5_000;
+        /** Mean arrival rate; gaps between arrivals are exponentially distributed. */
+        double arrivalsPerSecond = 1_000;
+        /** Event max capacity, or 0 for no limit. */
+        int capacity = 500;
+        double bannedFraction = 0.02;
+        double unregisteredFraction = 0.03;
+        /** Fraction of entrants who press Join a second time before the first finishes. */
+        double doubleTapFraction = 0.05;
+        long doubleTapDelayMs = 150;
+        long minLatencyMs = 20;
+        long maxLatencyMs = 120;
+        double centerLatitude = 53.5232;
+        double centerLongitude = -113.5263;
+        double spreadDegrees = 0.2;
+        long seed = 1L;
+    }
+
+    /**
+     * What came out of a storm. Times are simulated milliseconds.
+     */
+    static class Report {
+        int attempts;
+        int joined;
+        int full;
+        int banned;
+        int needsProfile;
+        int alreadyJoined;
+        int otherFailures;
+        int waitlistSize;
+        int overCapacityAdmissions;
+        int duplicateJoins;
+        long durationMs;
+        double throughputPerSecond;
+        long p50Ms;
+        long p95Ms;
+        long p99Ms;
+        long maxMs;
+        long reads;
+        long writes;
+
+        int rejected() {
+            return full + banned + needsProfile + alreadyJoined + otherFailures;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US,
+                    "attempts=%d joined=%d full=%d banned=%d needsProfile=%d alreadyJoined=%d other=%d"
+                            + " waitlist=%d overCapacity=%d duplicates=%d duration=%dms throughput=%.1f/s"
+                            + " p50=%dms p95=%dms p99=%dms max=%dms reads=%d writes=%d",
+                    attempts, joined, full, banned, needsProfile, alreadyJoined, otherFailures,
+                    waitlistSize, overCapacityAdmissions, duplicateJoins, durationMs, throughputPerSecond,
+                    p50Ms, p95Ms, p99Ms, maxMs, reads, writes);
+        }
+    }
+
+    private static final class Entrant {
+        final String deviceId;
+        final GeoPoint location;
+
+        Entrant(String deviceId, GeoPoint location) {
+            this.deviceId = deviceId;
+            this.location = location;
+        }
+    }
+
+    Report run(Config config) {
+        Random random = new Random(config.seed);
+        InMemoryDatabase.QueuedDispatcher dispatcher = new InMemoryDatabase.QueuedDispatcher();
+        InMemoryDatabase database = new InMemoryDatabase(new InMemoryDocumentStore(), dispatcher, config.seed);
+        database.setClock(dispatcher::now);
+        database.setDefaultLatency(config.minLatencyMs, config.maxLatencyMs);
+        InMemoryDocumentStore store = database.getStore();
+        JoinWaitlistController controller = new JoinWaitlistController(
+                new InMemoryEventRepository(database, new InMemoryTagRepository(database)),
+                new InMemoryEntrantRepository(database));
+
+        Event event = seedEvent(store, config.capacity);
+        List<Entrant> entrants = seedEntrants(store, config, random);
+
+        Report report = new Report();
+        List<Long> latencies = new ArrayList<>();
+        Map<String, Integer> joinsPerDevice = new HashMap<>();
+        long[] lastCompletion = new long[1];
+
+        long arrivalMs = 0;
+        for (Entrant entrant : entrants) {
+            arrivalMs += nextGapMs(random, config.arrivalsPerSecond);
+            int taps = random.nextDouble() < config.doubleTapFraction ? 2 : 1;
+            for (int tap = 0; tap < taps; tap++) {
+                long delayMs = arrivalMs + tap * config.doubleTapDelayMs;
+                report.attempts++;
+                dispatcher.dispatch(delayMs, () -> {
+                    long startedMs = dispatcher.now();
+                    controller.joinWaitlistAt(event, entrant.deviceId, entrant.location, result -> {
+                        long finishedMs = dispatcher.now();
+                        latencies.add(finishedMs - startedMs);
+                        lastCompletion[0] = Math.max(lastCompletion[0], finishedMs);
+                        record(report, joinsPerDevice, entrant.deviceId, result);
+                    });
+                });
+            }
+        }
+        dispatcher.runUntilIdle();
+
+        report.waitlistSize = store.size("events/" + EVENT_ID + "/waitingList");
+        if (config.capacity > 0) {
+            report.overCapacityAdmissions = Math.max(0, report.waitlistSize - config.capacity);
+        }
+        for (int joins : joinsPerDevice.values()) {
+            report.duplicateJoins += joins - 1;
+        }
+        report.durationMs = lastCompletion[0];
+        report.throughputPerSecond = report.durationMs > 0
+                ? latencies.size() * 1000.0 / report.durationMs
+                : 0;
+        Collections.sort(latencies);
+        report.p50Ms = percentile(latencies, 0.50);
+        report.p95Ms = percentile(latencies, 0.95);
+        report.p99Ms = percentile(latencies, 0.99);
+        report.maxMs = latencies.isEmpty() ? 0 : latencies.get(latencies.size() - 1);
+        report.reads = store.getReads();
+        report.writes = store.getWrites();
+        return report;
+    }
+
+    private static Event seedEvent(InMemoryDocumentStore store, int capacity) {
+        Event event = new Event();
+        event.setId(EVENT_ID);
+        event.setName("Storm Event");
+        event.setOrganizerId(ORGANIZER_ID);
+        event.setEventDateTime("2099-06-01T18:00:00");
+        event.setRegistrationOpen("2000-01-01T00:00:00");
+        event.setRegistrationClose("2099-01-01T00:00:00");
+        event.setMaxCapacity(capacity > 0 ? capacity : null);
+
+        Map<String, Object> data = new HashMap<>();
+        data.put("name", event.getName());
+        data.put("organizerId", ORGANIZER_ID);
+        data.put("eventDateTime", event.getEventDateTime());
+        data.put("registrationOpen", event.getRegistrationOpen());
+        data.put("registrationClose", event.getRegistrationClose());
+        data.put("maxCapacity", event.getMaxCapacity());
+        data.put("waitlistCount", 0);
+        store.seed("events/" + EVENT_ID, data);
+        return event;
+    }
+
+    private static List<Entrant> seedEntrants(InMemoryDocumentStore store, Config config, Random random) {
+        List<Entrant> entrants = new ArrayList<>(config.entrants);
+        for (int i = 0; i < config.entrants; i++) {
+            String deviceId = "storm-device-" + i;
+            Map<String, Object> profile = new HashMap<>();
+            profile.put("deviceId", deviceId);
+            profile.put("name", "Entrant " + i);
+            profile.put("email", "entrant" + i + "@example.com");
+            profile.put("is_registered", random.nextDouble() >= config.unregisteredFraction);
+            profile.put("banned", random.nextDouble() < config.bannedFraction);
+            store.seed("entrants/" + deviceId, profile);
+
+            double latitude = config.centerLatitude + (random.nextDouble() * 2 - 1) * config.spreadDegrees;
+            double longitude = config.centerLongitude + (random.nextDouble() * 2 - 1) * config.spreadDegrees;
+            entrants.add(new Entrant(deviceId, new GeoPoint(latitude, longitude)));
+        }
+        return entrants;
+    }
+
+    private static long nextGapMs(Random random, double arrivalsPerSecond) {
+        if (arrivalsPerSecond <= 0) {
+            return 0;
+        }
+        return Math.round(-Math.log(1 - random.nextDouble()) * 1000.0 / arrivalsPerSecond);
+    }
+
+    private static void record(Report report, Map<String, Integer> joinsPerDevice, String deviceId,
+                               JoinWaitlistController.JoinResult result) {
+        if (result.isSuccess()) {
+            report.joined++;
+            Integer joins = joinsPerDevice.get(deviceId);
+            joinsPerDevice.put(deviceId, joins == null ? 1 : joins + 1);
+        } else if (result.needsProfileRegistration()) {
+            report.needsProfile++;
+        } else if ("Event is full".equals(result.getMessage())) {
+            report.full++;
+        } else if ("You are banned from joining events".equals(result.getMessage())) {
+            report.banned++;
+        } else if ("Already joined".equals(result.getMessage())) {
+            report.alreadyJoined++;
+        } else {
+            report.otherFailures++;
+        }
+    }
+
+    /**
+     * Nearest-rank percentile of an already sorted list.
+     */
+    private static long percentile(List<Long> sorted, double fraction) {
+        if (sorted.isEmpty()) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(fraction * sorted.size());
+        return sorted.get(Math.max(0, rank - 1));
+    }
+}
@@ -0,0 +1,101 @@
+package ca.ualberta.codarc.codarc_events;
+
+import android.util.Log;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.MockedStatic;
+import org.mockito.Mockito;
+
+import static org.junit.Assert.*;
+
+/**
+ * Join storms against a single hot event, run through {@link JoinStormSimulator}.
+ */
+public class JoinStormSimulatorTests {
+
+    private MockedStatic<Log> logMock;
+    private JoinStormSimulator simulator;
+
+    @Before
+    public void setUp() {
+        logMock = Mockito.mockStatic(Log.class);
+        simulator = new JoinStormSimulator();
+    }
+
+    @After
+    public void tearDown() {
+        if (logMock != null) {
+            logMock.close();
+        }
+    }
+
+    @Test
+    public void storm_accountsForEveryAttempt() {
+        JoinStormSimulator.Report report = simulator.run(new JoinStormSimulator.Config());
+
+        assertEquals(report.toString(), report.attempts, report.joined + report.rejected());
+        assertEquals(report.toString(), 0, report.otherFailures);
+        assertTrue(report.toString(), report.banned > 0);
+        assertTrue(report.toString(), report.needsProfile > 0);
+        assertTrue(report.toString(), report.full > 0);
+        assertEquals(report.toString(), report.waitlistSize, report.joined - report.duplicateJoins);
+        assertTrue(report.toString(), report.p50Ms <= report.p95Ms);
+        assertTrue(report.toString(), report.p95Ms <= report.p99Ms);
+        assertTrue(report.toString(), report.p99Ms <= report.maxMs);
+        assertTrue(report.toString(), report.throughputPerSecond > 0);
+    }
+
+    @Test
+    public void storm_neverAdmitsPastCapacity() {
+        JoinStormSimulator.Config config = new JoinStormSimulator.Config();
+        config.doubleTapFraction = 0;
+
+        JoinStormSimulator.Report report = simulator.run(config);
+
+        // Capacity is checked against the counter in the same transaction that bumps it.
+        assertEquals(report.toString(), 0, report.overCapacityAdmissions);
+        assertEquals(report.toString(), config.capacity, report.waitlistSize);
+        assertEquals(report.toString(), config.capacity, report.joined);
+    }
+
+    @Test
+    public void storm_slowArrivalsStayWithinCapacity() {
+        JoinStormSimulator.Config config = new JoinStormSimulator.Config();
+        config.entrants = 600;
+        config.capacity = 100;
+        config.arrivalsPerSecond = 2;
+        config.doubleTapFraction = 0;
+
+        JoinStormSimulator.Report report = simulator.run(config);
+
+        assertEquals(report.toString(), 0, report.overCapacityAdmissions);
+        assertEquals(report.toString(), 100, report.waitlistSize);
+    }
+
+    @Test
+    public void storm_doubleTapsJoinOnce() {
+        JoinStormSimulator.Config config = new JoinStormSimulator.Config();
+        config.capacity = 0;
+        config.doubleTapFraction = 0.5;
+        config.doubleTapDelayMs = 10;
+
+        JoinStormSimulator.Report report = simulator.run(config);
+
+        // The second tap finds the first tap's entry inside its transaction.
+        assertEquals(report.toString(), 0, report.duplicateJoins);
+        assertTrue(report.toString(), report.alreadyJoined > 0);
+    }
+
+    @Test
+    public void storm_isRepeatableForASeed() {
+        JoinStormSimulator.Config config = new JoinStormSimulator.Config();
+        config.entrants = 1_000;
+
+        String first = simulator.run(config).toString();
+        String second = new JoinStormSimulator().run(config).toString();
+
+        assertEquals(first, second);
+    }
+}
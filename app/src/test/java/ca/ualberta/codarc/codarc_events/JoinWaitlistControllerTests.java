@@ -5,6 +5,13 @@ import ca.ualberta.codarc.codarc_events.data.EntrantDB;
 import ca.ualberta.codarc.codarc_events.data.EventDB;
 import ca.ualberta.codarc.codarc_events.models.Entrant;
 import ca.ualberta.codarc.codarc_events.models.Event;
+import ca.ualberta.codarc.codarc_events.utils.LocationHelper;
+
+import android.content.Context;
+import android.location.Location;
+
+import com.google.firebase.firestore.GeoPoint;
+
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
@@ -158,7 +165,80 @@ public class JoinWaitlistControllerTests {
         assertTrue(resCap.getValue().needsProfileRegistration());
         assertEquals("Profile registration required", resCap.getValue().getMessage());
 
-        verify(mockEventDb, never()).isEntrantOnWaitlist(anyString(), anyString(), any());
+        // The join went out alongside the profile read; once it commits it is undone
+        ArgumentCaptor<EventDB.Callback<EventDB.JoinOutcome>> joinCap =
+                ArgumentCaptor.forClass(EventDB.Callback.class);
+        verify(mockEventDb).joinWaitlistAtomic(eq("E"), eq("dev1"), isNull(), joinCap.capture());
+        verify(mockEventDb, never()).leaveWaitlist(anyString(), anyString(), any());
+        joinCap.getValue().onSuccess(EventDB.JoinOutcome.JOINED);
+
+        verify(mockEventDb).leaveWaitlist(eq("E"), eq("dev1"), any());
+        verify(cb).onResult(any());
+    }
+
+    @Test
+    public void joinWaitlist_profileAndJoinGoOutTogether() {
+        JoinWaitlistController.Callback cb = mock(JoinWaitlistController.Callback.class);
+
+        controller.joinWaitlist(openWindowEvent("E", null), "dev1", cb);
+
+        verify(mockEntrantDb).getProfile(eq("dev1"), any());
+        verify(mockEventDb).joinWaitlistAtomic(eq("E"), eq("dev1"), isNull(), any());
+        verifyNoInteractions(cb);
+    }
+
+    @Test
+    public void joinWaitlist_joinRejection_settlesBeforeProfileArrives() {
+        JoinWaitlistController.Callback cb = mock(JoinWaitlistController.Callback.class);
+
+        controller.joinWaitlist(openWindowEvent("E", 2), "dev1", cb);
+
+        ArgumentCaptor<EventDB.Callback<EventDB.JoinOutcome>> joinCap =
+                ArgumentCaptor.forClass(EventDB.Callback.class);
+        verify(mockEventDb).joinWaitlistAtomic(eq("E"), eq("dev1"), isNull(), joinCap.capture());
+        joinCap.getValue().onSuccess(EventDB.JoinOutcome.FULL);
+
+        ArgumentCaptor<JoinWaitlistController.JoinResult> resCap =
+                ArgumentCaptor.forClass(JoinWaitlistController.JoinResult.class);
+        verify(cb).onResult(resCap.capture());
+        assertEquals("Event is full", resCap.getValue().getMessage());
+
+        // The late profile result is dropped and nothing needs undoing
+        ArgumentCaptor<EntrantDB.Callback<Entrant>> profCap =
+                ArgumentCaptor.forClass(EntrantDB.Callback.class);
+        verify(mockEntrantDb).getProfile(eq("dev1"), profCap.capture());
+        profCap.getValue().onSuccess(entrant(false));
+        verify(cb).onResult(any());
+        verify(mockEventDb, never()).leaveWaitlist(anyString(), anyString(), any());
+    }
+
+    @Test
+    public void joinWaitlist_repeatedTap_supersedesEarlierAttempt() {
+        JoinWaitlistController.Callback first = mock(JoinWaitlistController.Callback.class);
+        JoinWaitlistController.Callback second = mock(JoinWaitlistController.Callback.class);
+        Event e = openWindowEvent("E", 3);
+
+        controller.joinWaitlist(e, "dev1", first);
+        controller.joinWaitlist(e, "dev1", second);
+
+        ArgumentCaptor<EntrantDB.Callback<Entrant>> profCap =
+                ArgumentCaptor.forClass(EntrantDB.Callback.class);
+        verify(mockEntrantDb, times(2)).getProfile(eq("dev1"), profCap.capture());
+        ArgumentCaptor<EventDB.Callback<EventDB.JoinOutcome>> joinCap =
+                ArgumentCaptor.forClass(EventDB.Callback.class);
+        verify(mockEventDb, times(2)).joinWaitlistAtomic(eq("E"), eq("dev1"), isNull(), joinCap.capture());
+        for (EntrantDB.Callback<Entrant> profile : profCap.getAllValues()) {
+            profile.onSuccess(entrant(true));
+        }
+        joinCap.getAllValues().get(0).onSuccess(EventDB.JoinOutcome.JOINED);
+        joinCap.getAllValues().get(1).onSuccess(EventDB.JoinOutcome.ALREADY_JOINED);
+
+        verifyNoInteractions(first);
+        ArgumentCaptor<JoinWaitlistController.JoinResult> resCap =
+                ArgumentCaptor.forClass(JoinWaitlistController.JoinResult.class);
+        verify(second).onResult(resCap.capture());
+        assertEquals("Already joined", resCap.getValue().getMessage());
+        verify(mockEventDb, never()).leaveWaitlist(anyString(), anyString(), any());
     }
 
     @Test
@@ -173,15 +253,10 @@ public class JoinWaitlistControllerTests {
         verify(mockEntrantDb).getProfile(eq("dev1"), profCap.capture());
         profCap.getValue().onSuccess(entrant(true));
 
-        ArgumentCaptor<EntrantDB.Callback<Boolean>> banCap =
-                ArgumentCaptor.forClass(EntrantDB.Callback.class);
-        verify(mockEntrantDb).isBanned(eq("dev1"), banCap.capture());
-        banCap.getValue().onSuccess(false);
-
-        ArgumentCaptor<EventDB.Callback<Boolean>> onCap =
+        ArgumentCaptor<EventDB.Callback<EventDB.JoinOutcome>> joinCap =
                 ArgumentCaptor.forClass(EventDB.Callback.class);
-        verify(mockEventDb).isEntrantOnWaitlist(eq("E"), eq("dev1"), onCap.capture());
-        onCap.getValue().onSuccess(true);
+        verify(mockEventDb).joinWaitlistAtomic(eq("E"), eq("dev1"), isNull(), joinCap.capture());
+        joinCap.getValue().onSuccess(EventDB.JoinOutcome.ALREADY_JOINED);
 
         ArgumentCaptor<JoinWaitlistController.JoinResult> resCap =
                 ArgumentCaptor.forClass(JoinWaitlistController.JoinResult.class);
@@ -189,8 +264,7 @@ public class JoinWaitlistControllerTests {
         assertFalse(resCap.getValue().isSuccess());
         assertEquals("Already joined", resCap.getValue().getMessage());
 
-        verify(mockEventDb, never()).getWaitlistCount(anyString(), any());
-        verify(mockEventDb, never()).joinWaitlist(anyString(), anyString(), any());
+        verify(mockEntrantDb, never()).addEventToEntrant(anyString(), anyString(), any());
     }
 
     // ---------------- joinWaitlist: registration window closed ----------------
@@ -202,30 +276,47 @@ public class JoinWaitlistControllerTests {
 
         controller.joinWaitlist(e, "dev1", cb);
 
-        ArgumentCaptor<EntrantDB.Callback<Entrant>> profCap =
-                ArgumentCaptor.forClass(EntrantDB.Callback.class);
-        verify(mockEntrantDb).getProfile(eq("dev1"), profCap.capture());
-        profCap.getValue().onSuccess(entrant(true));
+        ArgumentCaptor<JoinWaitlistController.JoinResult> resCap =
+                ArgumentCaptor.forClass(JoinWaitlistController.JoinResult.class);
+        verify(cb).onResult(resCap.capture());
 
-        ArgumentCaptor<EntrantDB.Callback<Boolean>> banCap =
-                ArgumentCaptor.forClass(EntrantDB.Callback.class);
-        verify(mockEntrantDb).isBanned(eq("dev1"), banCap.capture());
-        banCap.getValue().onSuccess(false);
+        assertFalse(resCap.getValue().isSuccess());
+        assertEquals("Registration window is closed", resCap.getValue().getMessage());
+
+        verify(mockEntrantDb, never()).getProfile(anyString(), any());
+        verify(mockEventDb, never()).joinWaitlistAtomic(anyString(), anyString(), any(), any());
+    }
+
+    @Test
+    public void joinWaitlist_banned_failsFromSameProfileRead() {
+        JoinWaitlistController.Callback cb = mock(JoinWaitlistController.Callback.class);
+        Event e = openWindowEvent("E", null);
+
+        controller.joinWaitlist(e, "dev1", cb);
 
-        ArgumentCaptor<EventDB.Callback<Boolean>> onCap =
+        // The join commits first and waits for the profile
+        ArgumentCaptor<EventDB.Callback<EventDB.JoinOutcome>> joinCap =
                 ArgumentCaptor.forClass(EventDB.Callback.class);
-        verify(mockEventDb).isEntrantOnWaitlist(eq("E"), eq("dev1"), onCap.capture());
-        onCap.getValue().onSuccess(false);
+        verify(mockEventDb).joinWaitlistAtomic(eq("E"), eq("dev1"), isNull(), joinCap.capture());
+        joinCap.getValue().onSuccess(EventDB.JoinOutcome.JOINED);
+        verifyNoInteractions(cb);
+
+        Entrant banned = entrant(true);
+        banned.setBanned(true);
+        ArgumentCaptor<EntrantDB.Callback<Entrant>> profCap =
+                ArgumentCaptor.forClass(EntrantDB.Callback.class);
+        verify(mockEntrantDb).getProfile(eq("dev1"), profCap.capture());
+        profCap.getValue().onSuccess(banned);
 
         ArgumentCaptor<JoinWaitlistController.JoinResult> resCap =
                 ArgumentCaptor.forClass(JoinWaitlistController.JoinResult.class);
         verify(cb).onResult(resCap.capture());
 
         assertFalse(resCap.getValue().isSuccess());
-        assertEquals("Registration window is closed", resCap.getValue().getMessage());
+        assertEquals("You are banned from joining events", resCap.getValue().getMessage());
 
-        verify(mockEventDb, never()).getWaitlistCount(anyString(), any());
-        verify(mockEventDb, never()).joinWaitlist(anyString(), anyString(), any());
+        verify(mockEntrantDb, never()).isBanned(anyString(), any());
+        verify(mockEventDb).leaveWaitlist(eq("E"), eq("dev1"), any());
     }
 
     @Test
@@ -240,20 +331,10 @@ public class JoinWaitlistControllerTests {
         verify(mockEntrantDb).getProfile(eq("dev1"), profCap.capture());
         profCap.getValue().onSuccess(entrant(true));
 
-        ArgumentCaptor<EntrantDB.Callback<Boolean>> banCap =
-                ArgumentCaptor.forClass(EntrantDB.Callback.class);
-        verify(mockEntrantDb).isBanned(eq("dev1"), banCap.capture());
-        banCap.getValue().onSuccess(false);
-
-        ArgumentCaptor<EventDB.Callback<Boolean>> onCap =
+        ArgumentCaptor<EventDB.Callback<EventDB.JoinOutcome>> joinCap =
                 ArgumentCaptor.forClass(EventDB.Callback.class);
-        verify(mockEventDb).isEntrantOnWaitlist(eq("E"), eq("dev1"), onCap.capture());
-        onCap.getValue().onSuccess(false);
-
-        ArgumentCaptor<EventDB.Callback<Integer>> countCap =
-                ArgumentCaptor.forClass(EventDB.Callback.class);
-        verify(mockEventDb).getWaitlistCount(eq("E"), countCap.capture());
-        countCap.getValue().onSuccess(2);
+        verify(mockEventDb).joinWaitlistAtomic(eq("E"), eq("dev1"), isNull(), joinCap.capture());
+        joinCap.getValue().onSuccess(EventDB.JoinOutcome.FULL);
 
         ArgumentCaptor<JoinWaitlistController.JoinResult> resCap =
                 ArgumentCaptor.forClass(JoinWaitlistController.JoinResult.class);
@@ -262,7 +343,7 @@ public class JoinWaitlistControllerTests {
         assertFalse(resCap.getValue().isSuccess());
         assertEquals("Event is full", resCap.getValue().getMessage());
 
-        verify(mockEventDb, never()).joinWaitlist(anyString(), anyString(), any());
+        verify(mockEntrantDb, never()).addEventToEntrant(anyString(), anyString(), any());
     }
 
     @Test
@@ -277,26 +358,10 @@ public class JoinWaitlistControllerTests {
         verify(mockEntrantDb).getProfile(eq("dev1"), profCap.capture());
         profCap.getValue().onSuccess(entrant(true));
 
-        ArgumentCaptor<EntrantDB.Callback<Boolean>> banCap =
-                ArgumentCaptor.forClass(EntrantDB.Callback.class);
-        verify(mockEntrantDb).isBanned(eq("dev1"), banCap.capture());
-        banCap.getValue().onSuccess(false);
-
-        ArgumentCaptor<EventDB.Callback<Boolean>> onCap =
-                ArgumentCaptor.forClass(EventDB.Callback.class);
-        verify(mockEventDb).isEntrantOnWaitlist(eq("E"), eq("dev1"), onCap.capture());
-        onCap.getValue().onSuccess(false);
-
-        ArgumentCaptor<EventDB.Callback<Integer>> countCap =
-                ArgumentCaptor.forClass(EventDB.Callback.class);
-        verify(mockEventDb).getWaitlistCount(eq("E"), countCap.capture());
-        countCap.getValue().onSuccess(0);
-
-        ArgumentCaptor<EventDB.Callback<Void>> joinCap =
+        ArgumentCaptor<EventDB.Callback<EventDB.JoinOutcome>> joinCap =
                 ArgumentCaptor.forClass(EventDB.Callback.class);
-        verify(mockEventDb).joinWaitlist(eq("E"), eq("dev1"), isNull(), joinCap.capture());
-
-        joinCap.getValue().onSuccess(null);
+        verify(mockEventDb).joinWaitlistAtomic(eq("E"), eq("dev1"), isNull(), joinCap.capture());
+        joinCap.getValue().onSuccess(EventDB.JoinOutcome.JOINED);
 
         ArgumentCaptor<JoinWaitlistController.JoinResult> resCap =
                 ArgumentCaptor.forClass(JoinWaitlistController.JoinResult.class);
@@ -305,81 +370,98 @@ public class JoinWaitlistControllerTests {
         assertTrue(resCap.getValue().isSuccess());
         assertEquals("Joined successfully", resCap.getValue().getMessage());
         assertFalse(resCap.getValue().needsProfileRegistration());
+
+        // The join transaction writes the history entry itself
+        verify(mockEntrantDb, never()).addEventToEntrant(anyString(), anyString(), any());
+        // Membership and capacity are checked inside the join transaction
+        verify(mockEventDb, never()).isEntrantOnWaitlist(anyString(), anyString(), any());
+        verify(mockEventDb, never()).getWaitlistCount(anyString(), any());
     }
 
     @Test
-    public void joinWaitlist_joinDbError_yieldsGenericFailure() {
+    public void joinWaitlist_withContext_commitsBeforeLocationArrives() {
         JoinWaitlistController.Callback cb = mock(JoinWaitlistController.Callback.class);
-        Event e = openWindowEvent("E", 3);
+        JoinWaitlistController.LocationSource locationSource = mock(JoinWaitlistController.LocationSource.class);
+        controller = new JoinWaitlistController(mockEventDb, mockEntrantDb, locationSource);
+        Context context = mock(Context.class);
 
-        controller.joinWaitlist(e, "dev1", cb);
+        controller.joinWaitlist(openWindowEvent("E", 3), "dev1", context, cb);
 
         ArgumentCaptor<EntrantDB.Callback<Entrant>> profCap =
                 ArgumentCaptor.forClass(EntrantDB.Callback.class);
         verify(mockEntrantDb).getProfile(eq("dev1"), profCap.capture());
         profCap.getValue().onSuccess(entrant(true));
 
-        ArgumentCaptor<EntrantDB.Callback<Boolean>> banCap =
-                ArgumentCaptor.forClass(EntrantDB.Callback.class);
-        verify(mockEntrantDb).isBanned(eq("dev1"), banCap.capture());
-        banCap.getValue().onSuccess(false);
-
-        ArgumentCaptor<EventDB.Callback<Boolean>> onCap =
-                ArgumentCaptor.forClass(EventDB.Callback.class);
-        verify(mockEventDb).isEntrantOnWaitlist(eq("E"), eq("dev1"), onCap.capture());
-        onCap.getValue().onSuccess(false);
-
-        ArgumentCaptor<EventDB.Callback<Integer>> countCap =
+        // The join goes out without a location and before any lookup starts
+        verify(locationSource, never()).getLocation(any(), any(), any());
+        ArgumentCaptor<EventDB.Callback<EventDB.JoinOutcome>> joinCap =
                 ArgumentCaptor.forClass(EventDB.Callback.class);
-        verify(mockEventDb).getWaitlistCount(eq("E"), countCap.capture());
-        countCap.getValue().onSuccess(0);
-
-        ArgumentCaptor<EventDB.Callback<Void>> joinCap =
-                ArgumentCaptor.forClass(EventDB.Callback.class);
-        verify(mockEventDb).joinWaitlist(eq("E"), eq("dev1"), isNull(), joinCap.capture());
-
-        joinCap.getValue().onError(new RuntimeException("db sad"));
+        verify(mockEventDb).joinWaitlistAtomic(eq("E"), eq("dev1"), isNull(), joinCap.capture());
+        joinCap.getValue().onSuccess(EventDB.JoinOutcome.JOINED);
 
         ArgumentCaptor<JoinWaitlistController.JoinResult> resCap =
                 ArgumentCaptor.forClass(JoinWaitlistController.JoinResult.class);
         verify(cb).onResult(resCap.capture());
+        assertTrue(resCap.getValue().isSuccess());
 
-        assertFalse(resCap.getValue().isSuccess());
-        assertEquals("Failed to join. Please try again.", resCap.getValue().getMessage());
+        ArgumentCaptor<LocationHelper.LocationCallback> locCap =
+                ArgumentCaptor.forClass(LocationHelper.LocationCallback.class);
+        verify(locationSource).getLocation(eq(context), any(), locCap.capture());
+        Location fix = mock(Location.class);
+        when(fix.getLatitude()).thenReturn(53.5);
+        when(fix.getLongitude()).thenReturn(-113.5);
+        locCap.getValue().onLocation(fix);
+
+        verify(mockEventDb).attachJoinLocation(eq("E"), eq("dev1"), eq(new GeoPoint(53.5, -113.5)), any());
     }
 
     @Test
-    public void joinWaitlist_isEntrantOnWaitlist_error_yieldsStatusFailure() {
+    public void joinWaitlist_noLocationFix_keepsJoinWithoutLocation() {
         JoinWaitlistController.Callback cb = mock(JoinWaitlistController.Callback.class);
-        Event e = openWindowEvent("E", null);
+        JoinWaitlistController.LocationSource locationSource = mock(JoinWaitlistController.LocationSource.class);
+        controller = new JoinWaitlistController(mockEventDb, mockEntrantDb, locationSource);
 
-        controller.joinWaitlist(e, "dev1", cb);
+        controller.joinWaitlist(openWindowEvent("E", 3), "dev1", mock(Context.class), cb);
 
         ArgumentCaptor<EntrantDB.Callback<Entrant>> profCap =
                 ArgumentCaptor.forClass(EntrantDB.Callback.class);
         verify(mockEntrantDb).getProfile(eq("dev1"), profCap.capture());
         profCap.getValue().onSuccess(entrant(true));
+        ArgumentCaptor<EventDB.Callback<EventDB.JoinOutcome>> joinCap =
+                ArgumentCaptor.forClass(EventDB.Callback.class);
+        verify(mockEventDb).joinWaitlistAtomic(eq("E"), eq("dev1"), isNull(), joinCap.capture());
+        joinCap.getValue().onSuccess(EventDB.JoinOutcome.JOINED);
 
-        ArgumentCaptor<EntrantDB.Callback<Boolean>> banCap =
-                ArgumentCaptor.forClass(EntrantDB.Callback.class);
-        verify(mockEntrantDb).isBanned(eq("dev1"), banCap.capture());
-        banCap.getValue().onSuccess(false);
+        ArgumentCaptor<LocationHelper.LocationCallback> locCap =
+                ArgumentCaptor.forClass(LocationHelper.LocationCallback.class);
+        verify(locationSource).getLocation(any(), any(), locCap.capture());
+        locCap.getValue().onLocation(null);
 
-        ArgumentCaptor<EventDB.Callback<Boolean>> onCap =
-                ArgumentCaptor.forClass(EventDB.Callback.class);
-        verify(mockEventDb).isEntrantOnWaitlist(eq("E"), eq("dev1"), onCap.capture());
-        onCap.getValue().onError(new RuntimeException("status fail"));
+        verify(mockEventDb, never()).attachJoinLocation(anyString(), anyString(), any(), any());
+    }
 
-        ArgumentCaptor<JoinWaitlistController.JoinResult> resCap =
-                ArgumentCaptor.forClass(JoinWaitlistController.JoinResult.class);
-        verify(cb).onResult(resCap.capture());
+    @Test
+    public void joinWaitlist_alreadyJoined_skipsLocationLookup() {
+        JoinWaitlistController.Callback cb = mock(JoinWaitlistController.Callback.class);
+        JoinWaitlistController.LocationSource locationSource = mock(JoinWaitlistController.LocationSource.class);
+        controller = new JoinWaitlistController(mockEventDb, mockEntrantDb, locationSource);
 
-        assertFalse(resCap.getValue().isSuccess());
-        assertEquals("Failed to check status. Please try again.", resCap.getValue().getMessage());
+        controller.joinWaitlist(openWindowEvent("E", 3), "dev1", mock(Context.class), cb);
+
+        ArgumentCaptor<EntrantDB.Callback<Entrant>> profCap =
+                ArgumentCaptor.forClass(EntrantDB.Callback.class);
+        verify(mockEntrantDb).getProfile(eq("dev1"), profCap.capture());
+        profCap.getValue().onSuccess(entrant(true));
+        ArgumentCaptor<EventDB.Callback<EventDB.JoinOutcome>> joinCap =
+                ArgumentCaptor.forClass(EventDB.Callback.class);
+        verify(mockEventDb).joinWaitlistAtomic(eq("E"), eq("dev1"), isNull(), joinCap.capture());
+        joinCap.getValue().onSuccess(EventDB.JoinOutcome.ALREADY_JOINED);
+
+        verifyNoInteractions(locationSource);
     }
 
     @Test
-    public void joinWaitlist_getWaitlistCount_error_yieldsAvailabilityFailure() {
+    public void joinWaitlist_joinDbError_yieldsGenericFailure() {
         JoinWaitlistController.Callback cb = mock(JoinWaitlistController.Callback.class);
         Event e = openWindowEvent("E", 3);
 
@@ -390,27 +472,17 @@ public class JoinWaitlistControllerTests {
         verify(mockEntrantDb).getProfile(eq("dev1"), profCap.capture());
         profCap.getValue().onSuccess(entrant(true));
 
-        ArgumentCaptor<EntrantDB.Callback<Boolean>> banCap =
-                ArgumentCaptor.forClass(EntrantDB.Callback.class);
-        verify(mockEntrantDb).isBanned(eq("dev1"), banCap.capture());
-        banCap.getValue().onSuccess(false);
-
-        ArgumentCaptor<EventDB.Callback<Boolean>> onCap =
+        ArgumentCaptor<EventDB.Callback<EventDB.JoinOutcome>> joinCap =
                 ArgumentCaptor.forClass(EventDB.Callback.class);
-        verify(mockEventDb).isEntrantOnWaitlist(eq("E"), eq("dev1"), onCap.capture());
-        onCap.getValue().onSuccess(false);
-
-        ArgumentCaptor<EventDB.Callback<Integer>> countCap =
-                ArgumentCaptor.forClass(EventDB.Callback.class);
-        verify(mockEventDb).getWaitlistCount(eq("E"), countCap.capture());
-        countCap.getValue().onError(new RuntimeException("count fail"));
+        verify(mockEventDb).joinWaitlistAtomic(eq("E"), eq("dev1"), isNull(), joinCap.capture());
+        joinCap.getValue().onError(new RuntimeException("db sad"));
 
         ArgumentCaptor<JoinWaitlistController.JoinResult> resCap =
                 ArgumentCaptor.forClass(JoinWaitlistController.JoinResult.class);
         verify(cb).onResult(resCap.capture());
 
         assertFalse(resCap.getValue().isSuccess());
-        assertEquals("Failed to check availability", resCap.getValue().getMessage());
+        assertEquals("Failed to join. Please try again.", resCap.getValue().getMessage());
     }
 
     @Test
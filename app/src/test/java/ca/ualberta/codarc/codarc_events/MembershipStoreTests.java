@@ -0,0 +1,226 @@
+package ca.ualberta.codarc.codarc_events;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import ca.ualberta.codarc.codarc_events.data.EventDB;
+import ca.ualberta.codarc.codarc_events.data.MembershipStore;
+import ca.ualberta.codarc.codarc_events.models.MembershipStatus;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.MockedStatic;
+import org.mockito.Mockito;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * {@link MembershipStore} following the in-memory entrants/{deviceId}/events listener.
+ */
+public class MembershipStoreTests {
+
+    private static final String DEVICE_ID = "device-1";
+
+    private MockedStatic<Log> logMock;
+    private InMemoryDataLayer data;
+    private MembershipStore membershipStore;
+
+    @Before
+    public void setUp() {
+        logMock = Mockito.mockStatic(Log.class);
+        data = new InMemoryDataLayer();
+        data.seedEvent("event-1", "Event 1", "org-1", "2099-06-01T18:00:00");
+        data.seedEvent("event-2", "Event 2", "org-1", "2099-06-01T18:00:00");
+        membershipStore = new MembershipStore(data.entrantDB, data.eventDB);
+    }
+
+    @After
+    public void tearDown() {
+        membershipStore.stop();
+        if (logMock != null) {
+            logMock.close();
+        }
+    }
+
+    @Test
+    public void lookup_isUnknownUntilFirstSnapshot() {
+        data.seedMembership("event-1", "waitingList", DEVICE_ID, null);
+
+        membershipStore.start(DEVICE_ID);
+        assertFalse(membershipStore.lookup("event-1").isKnown());
+
+        data.runUntilIdle();
+
+        assertTrue(membershipStore.isSynced());
+        assertEquals(MembershipStatus.WAITLISTED, membershipStore.lookup("event-1").getStatus());
+        MembershipStore.Lookup other = membershipStore.lookup("event-2");
+        assertTrue(other.isKnown());
+        assertNull(other.getStatus());
+    }
+
+    @Test
+    public void lookup_costsNoReads() {
+        data.seedMembership("event-1", "winners", DEVICE_ID, null);
+        membershipStore.start(DEVICE_ID);
+        data.runUntilIdle();
+        data.store.resetCounters();
+
+        for (int i = 0; i < 100; i++) {
+            membershipStore.lookup("event-1");
+            membershipStore.lookup("event-2");
+        }
+
+        assertEquals(0, data.store.getReads());
+    }
+
+    @Test
+    public void transitions_reachStoreThroughListener() {
+        AtomicInteger changes = new AtomicInteger();
+        membershipStore.addOnChangeListener(changes::incrementAndGet);
+        membershipStore.start(DEVICE_ID);
+        data.runUntilIdle();
+
+        data.eventDB.joinWaitlistAtomic("event-1", DEVICE_ID, null, callback(new AtomicReference<>()));
+        data.runUntilIdle();
+        assertEquals(MembershipStatus.WAITLISTED, membershipStore.lookup("event-1").getStatus());
+
+        data.eventDB.markWinners("event-1", Collections.singletonList(DEVICE_ID), callback(new AtomicReference<>()));
+        data.runUntilIdle();
+        assertEquals(MembershipStatus.INVITED, membershipStore.lookup("event-1").getStatus());
+
+        data.eventDB.setEnrolledStatus("event-1", DEVICE_ID, false, callback(new AtomicReference<>()));
+        data.runUntilIdle();
+        MembershipStore.Entry entry = membershipStore.peek("event-1");
+        assertEquals(MembershipStatus.CANCELLED, entry.getStatus());
+        assertTrue(entry.getUpdatedAt() >= 0);
+        assertTrue(changes.get() >= 4);
+    }
+
+    @Test
+    public void leave_dropsEntry() {
+        data.seedMembership("event-1", "waitingList", DEVICE_ID, null);
+        membershipStore.start(DEVICE_ID);
+        data.runUntilIdle();
+
+        data.eventDB.leaveWaitlist("event-1", DEVICE_ID, callback(new AtomicReference<>()));
+        data.runUntilIdle();
+
+        MembershipStore.Lookup lookup = membershipStore.lookup("event-1");
+        assertTrue(lookup.isKnown());
+        assertNull(lookup.getStatus());
+    }
+
+    @Test
+    public void legacyHistoryEntry_isReconciledWithOneRead() {
+        data.seedMembership("event-1", "winners", DEVICE_ID, null);
+        Map<String, Object> legacy = new HashMap<>();
+        legacy.put("eventId", "event-1");
+        data.store.seed("entrants/" + DEVICE_ID + "/events/event-1", legacy);
+        membershipStore.start(DEVICE_ID);
+        data.runUntilIdle();
+        assertFalse(membershipStore.lookup("event-1").isKnown());
+        data.store.resetCounters();
+
+        AtomicReference<MembershipStatus> status = new AtomicReference<>();
+        membershipStore.reconcile("event-1", callback(status));
+        data.runUntilIdle();
+
+        assertEquals(MembershipStatus.INVITED, status.get());
+        assertEquals(MembershipStatus.INVITED, membershipStore.lookup("event-1").getStatus());
+        assertEquals(1, data.store.getReads());
+    }
+
+    @Test
+    public void stop_forgetsMemberships() {
+        data.seedMembership("event-1", "waitingList", DEVICE_ID, null);
+        membershipStore.start(DEVICE_ID);
+        data.runUntilIdle();
+
+        membershipStore.stop();
+
+        assertFalse(membershipStore.isSynced());
+        assertFalse(membershipStore.lookup("event-1").isKnown());
+        assertNull(membershipStore.peek("event-1"));
+    }
+
+    @Test
+    public void release_keepsListeningWhileAnotherOwnerRetains() {
+        ScheduledExecutorService scheduler = mock(ScheduledExecutorService.class);
+        MembershipStore shared = new MembershipStore(data.entrantDB, data.eventDB, scheduler);
+        Object browser = new Object();
+        Object details = new Object();
+        data.seedMembership("event-1", "waitingList", DEVICE_ID, null);
+
+        shared.retain(browser, DEVICE_ID);
+        shared.retain(details, DEVICE_ID);
+        data.runUntilIdle();
+        shared.release(details);
+
+        verify(scheduler, never()).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+        assertTrue(shared.isSynced());
+        assertEquals(MembershipStatus.WAITLISTED, shared.lookup("event-1").getStatus());
+        shared.stop();
+    }
+
+    @Test
+    public void release_stopsAfterGraceUnlessRetainedAgain() {
+        ScheduledExecutorService scheduler = mock(ScheduledExecutorService.class);
+        MembershipStore shared = new MembershipStore(data.entrantDB, data.eventDB, scheduler);
+        Object destroyed = new Object();
+        Object recreated = new Object();
+        data.seedMembership("event-1", "waitingList", DEVICE_ID, null);
+        shared.retain(destroyed, DEVICE_ID);
+        data.runUntilIdle();
+
+        // A rotation destroys the old activity before the new one retains the store.
+        shared.release(destroyed);
+        shared.retain(recreated, DEVICE_ID);
+        ArgumentCaptor<Runnable> teardown = ArgumentCaptor.forClass(Runnable.class);
+        verify(scheduler).schedule(teardown.capture(),
+                eq(MembershipStore.RELEASE_GRACE_MS),
+                eq(TimeUnit.MILLISECONDS));
+        teardown.getValue().run();
+
+        assertTrue(shared.isSynced());
+        assertEquals(MembershipStatus.WAITLISTED, shared.lookup("event-1").getStatus());
+
+        shared.release(recreated);
+        verify(scheduler, times(2)).schedule(teardown.capture(), anyLong(), any(TimeUnit.class));
+        teardown.getValue().run();
+
+        assertFalse(shared.isSynced());
+        assertNull(shared.peek("event-1"));
+    }
+
+    private static <T> EventDB.Callback<T> callback(AtomicReference<T> result) {
+        return new EventDB.Callback<T>() {
+            @Override
+            public void onSuccess(T value) {
+                result.set(value);
+            }
+
+            @Override
+            public void onError(@NonNull Exception e) {
+                fail(e.getMessage());
+            }
+        };
+    }
+}
@@ -4,6 +4,7 @@ import android.util.Log;
 import ca.ualberta.codarc.codarc_events.controllers.NotificationController;
 import ca.ualberta.codarc.codarc_events.data.EntrantDB;
 import ca.ualberta.codarc.codarc_events.data.EventDB;
+import ca.ualberta.codarc.codarc_events.models.EntrantEntry;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -12,9 +13,7 @@ import org.mockito.MockedStatic;
 import org.mockito.Mockito;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 import static org.junit.Assert.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -114,7 +113,7 @@ public class NotificationControllerTests {
                 "No waitlist found", cb);
 
         @SuppressWarnings("unchecked")
-        ArgumentCaptor<EventDB.Callback<List<Map<String, Object>>>> cap =
+        ArgumentCaptor<EventDB.Callback<List<EntrantEntry>>> cap =
                 ArgumentCaptor.forClass(EventDB.Callback.class);
         verify(mockEventDb).getWaitlist(eq(EVENT_ID), cap.capture());
         cap.getValue().onSuccess(new ArrayList<>());
@@ -133,13 +132,12 @@ public class NotificationControllerTests {
                 "No waitlist", cb);
 
         @SuppressWarnings("unchecked")
-        ArgumentCaptor<EventDB.Callback<List<Map<String, Object>>>> cap =
+        ArgumentCaptor<EventDB.Callback<List<EntrantEntry>>> cap =
                 ArgumentCaptor.forClass(EventDB.Callback.class);
         verify(mockEventDb).getWaitlist(eq(EVENT_ID), cap.capture());
 
-        List<Map<String, Object>> entrants = new ArrayList<>();
-        Map<String, Object> entry = new HashMap<>();
-        entry.put("deviceId", "dev1");
+        List<EntrantEntry> entrants = new ArrayList<>();
+        EntrantEntry entry = new EntrantEntry("dev1", 0L);
         entrants.add(entry);
         cap.getValue().onSuccess(entrants);
 
@@ -171,13 +169,12 @@ public class NotificationControllerTests {
                 "No cancelled", cb);
 
         @SuppressWarnings("unchecked")
-        ArgumentCaptor<EventDB.Callback<List<Map<String, Object>>>> cap =
+        ArgumentCaptor<EventDB.Callback<List<EntrantEntry>>> cap =
                 ArgumentCaptor.forClass(EventDB.Callback.class);
         verify(mockEventDb).getCancelled(eq(EVENT_ID), cap.capture());
 
-        List<Map<String, Object>> entrants = new ArrayList<>();
-        Map<String, Object> entry = new HashMap<>();
-        entry.put("deviceId", "dev1");
+        List<EntrantEntry> entrants = new ArrayList<>();
+        EntrantEntry entry = new EntrantEntry("dev1", 0L);
         entrants.add(entry);
         cap.getValue().onSuccess(entrants);
 
@@ -208,13 +205,12 @@ public class NotificationControllerTests {
                 "No winners", cb);
 
         @SuppressWarnings("unchecked")
-        ArgumentCaptor<EventDB.Callback<List<Map<String, Object>>>> cap =
+        ArgumentCaptor<EventDB.Callback<List<EntrantEntry>>> cap =
                 ArgumentCaptor.forClass(EventDB.Callback.class);
         verify(mockEventDb).getWinners(eq(EVENT_ID), cap.capture());
 
-        List<Map<String, Object>> entrants = new ArrayList<>();
-        Map<String, Object> entry = new HashMap<>();
-        entry.put("deviceId", "dev1");
+        List<EntrantEntry> entrants = new ArrayList<>();
+        EntrantEntry entry = new EntrantEntry("dev1", 0L);
         entrants.add(entry);
         cap.getValue().onSuccess(entrants);
 
@@ -241,13 +237,12 @@ public class NotificationControllerTests {
                 "No enrolled", cb);
 
         @SuppressWarnings("unchecked")
-        ArgumentCaptor<EventDB.Callback<List<Map<String, Object>>>> cap =
+        ArgumentCaptor<EventDB.Callback<List<EntrantEntry>>> cap =
                 ArgumentCaptor.forClass(EventDB.Callback.class);
         verify(mockEventDb).getEnrolled(eq(EVENT_ID), cap.capture());
 
-        List<Map<String, Object>> entrants = new ArrayList<>();
-        Map<String, Object> entry = new HashMap<>();
-        entry.put("deviceId", "dev1");
+        List<EntrantEntry> entrants = new ArrayList<>();
+        EntrantEntry entry = new EntrantEntry("dev1", 0L);
         entrants.add(entry);
         cap.getValue().onSuccess(entrants);
 
@@ -278,13 +273,12 @@ public class NotificationControllerTests {
                 "No waitlist", cb);
 
         @SuppressWarnings("unchecked")
-        ArgumentCaptor<EventDB.Callback<List<Map<String, Object>>>> cap =
+        ArgumentCaptor<EventDB.Callback<List<EntrantEntry>>> cap =
                 ArgumentCaptor.forClass(EventDB.Callback.class);
         verify(mockEventDb).getWaitlist(eq(EVENT_ID), cap.capture());
 
-        List<Map<String, Object>> entrants = new ArrayList<>();
-        Map<String, Object> entry = new HashMap<>();
-        entry.put("deviceId", "dev1");
+        List<EntrantEntry> entrants = new ArrayList<>();
+        EntrantEntry entry = new EntrantEntry("dev1", 0L);
         entrants.add(entry);
         cap.getValue().onSuccess(entrants);
 
@@ -310,13 +304,12 @@ public class NotificationControllerTests {
                 "No waitlist", cb);
 
         @SuppressWarnings("unchecked")
-        ArgumentCaptor<EventDB.Callback<List<Map<String, Object>>>> cap =
+        ArgumentCaptor<EventDB.Callback<List<EntrantEntry>>> cap =
                 ArgumentCaptor.forClass(EventDB.Callback.class);
         verify(mockEventDb).getWaitlist(eq(EVENT_ID), cap.capture());
 
-        List<Map<String, Object>> entrants = new ArrayList<>();
-        Map<String, Object> entry = new HashMap<>();
-        entry.put("deviceId", null);
+        List<EntrantEntry> entrants = new ArrayList<>();
+        EntrantEntry entry = new EntrantEntry(null, 0L);
         entrants.add(entry);
         cap.getValue().onSuccess(entrants);
 
@@ -337,13 +330,12 @@ public class NotificationControllerTests {
                 "No winners", cb);
 
         @SuppressWarnings("unchecked")
-        ArgumentCaptor<EventDB.Callback<List<Map<String, Object>>>> cap =
+        ArgumentCaptor<EventDB.Callback<List<EntrantEntry>>> cap =
                 ArgumentCaptor.forClass(EventDB.Callback.class);
         verify(mockEventDb).getWinners(eq(EVENT_ID), cap.capture());
 
-        List<Map<String, Object>> entrants = new ArrayList<>();
-        Map<String, Object> entry = new HashMap<>();
-        entry.put("deviceId", "dev1");
+        List<EntrantEntry> entrants = new ArrayList<>();
+        EntrantEntry entry = new EntrantEntry("dev1", 0L);
         entrants.add(entry);
         cap.getValue().onSuccess(entrants);
 
@@ -369,7 +361,7 @@ public class NotificationControllerTests {
                 "No waitlist", cb);
 
         @SuppressWarnings("unchecked")
-        ArgumentCaptor<EventDB.Callback<List<Map<String, Object>>>> cap =
+        ArgumentCaptor<EventDB.Callback<List<EntrantEntry>>> cap =
                 ArgumentCaptor.forClass(EventDB.Callback.class);
         verify(mockEventDb).getWaitlist(eq(EVENT_ID), cap.capture());
 
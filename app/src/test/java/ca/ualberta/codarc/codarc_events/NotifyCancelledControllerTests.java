@@ -3,15 +3,14 @@ package ca.ualberta.codarc.codarc_events;
 import ca.ualberta.codarc.codarc_events.controllers.NotifyCancelledController;
 import ca.ualberta.codarc.codarc_events.data.EntrantDB;
 import ca.ualberta.codarc.codarc_events.data.EventDB;
+import ca.ualberta.codarc.codarc_events.models.EntrantEntry;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
 
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 import static org.junit.Assert.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -100,7 +99,7 @@ public class NotifyCancelledControllerTests {
 
         controller.notifyCancelled("E1", "Hello", cb);
 
-        ArgumentCaptor<EventDB.Callback<List<Map<String, Object>>>> cancelCap =
+        ArgumentCaptor<EventDB.Callback<List<EntrantEntry>>> cancelCap =
                 ArgumentCaptor.forClass(EventDB.Callback.class);
         verify(mockEventDb).getCancelled(eq("E1"), cancelCap.capture());
 
@@ -118,7 +117,7 @@ public class NotifyCancelledControllerTests {
 
         controller.notifyCancelled("E1", "Hello", cb);
 
-        ArgumentCaptor<EventDB.Callback<List<Map<String, Object>>>> cancelCap =
+        ArgumentCaptor<EventDB.Callback<List<EntrantEntry>>> cancelCap =
                 ArgumentCaptor.forClass(EventDB.Callback.class);
         verify(mockEventDb).getCancelled(eq("E1"), cancelCap.capture());
 
@@ -139,15 +138,13 @@ public class NotifyCancelledControllerTests {
 
         controller.notifyCancelled("E1", "Event cancelled", cb);
 
-        ArgumentCaptor<EventDB.Callback<List<Map<String, Object>>>> cancelCap =
+        ArgumentCaptor<EventDB.Callback<List<EntrantEntry>>> cancelCap =
                 ArgumentCaptor.forClass(EventDB.Callback.class);
         verify(mockEventDb).getCancelled(eq("E1"), cancelCap.capture());
 
-        List<Map<String, Object>> cancelled = new ArrayList<>();
-        Map<String, Object> c1 = new HashMap<>();
-        c1.put("deviceId", "dev1");
-        Map<String, Object> c2 = new HashMap<>();
-        c2.put("deviceId", "dev2");
+        List<EntrantEntry> cancelled = new ArrayList<>();
+        EntrantEntry c1 = new EntrantEntry("dev1", 0L);
+        EntrantEntry c2 = new EntrantEntry("dev2", 0L);
         cancelled.add(c1);
         cancelled.add(c2);
 
@@ -199,14 +196,13 @@ public class NotifyCancelledControllerTests {
 
         controller.notifyCancelled("E1", "Event cancelled", cb);
 
-        ArgumentCaptor<EventDB.Callback<List<Map<String, Object>>>> cancelCap =
+        ArgumentCaptor<EventDB.Callback<List<EntrantEntry>>> cancelCap =
                 ArgumentCaptor.forClass(EventDB.Callback.class);
         verify(mockEventDb).getCancelled(eq("E1"), cancelCap.capture());
 
-        List<Map<String, Object>> cancelled = new ArrayList<>();
-        Map<String, Object> missingDevice = new HashMap<>();
-        Map<String, Object> valid = new HashMap<>();
-        valid.put("deviceId", "dev1");
+        List<EntrantEntry> cancelled = new ArrayList<>();
+        EntrantEntry missingDevice = new EntrantEntry(null, 0L);
+        EntrantEntry valid = new EntrantEntry("dev1", 0L);
         cancelled.add(missingDevice);
         cancelled.add(valid);
 
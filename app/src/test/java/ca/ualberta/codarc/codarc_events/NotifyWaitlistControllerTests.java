@@ -3,15 +3,14 @@ package ca.ualberta.codarc.codarc_events;
 import ca.ualberta.codarc.codarc_events.controllers.NotifyWaitlistController;
 import ca.ualberta.codarc.codarc_events.data.EntrantDB;
 import ca.ualberta.codarc.codarc_events.data.EventDB;
+import ca.ualberta.codarc.codarc_events.models.EntrantEntry;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
 
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 import static org.junit.Assert.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -98,7 +97,7 @@ public class NotifyWaitlistControllerTests {
 
         controller.notifyWaitlist("E1", "Hello", cb);
 
-        ArgumentCaptor<EventDB.Callback<List<Map<String, Object>>>> waitCap =
+        ArgumentCaptor<EventDB.Callback<List<EntrantEntry>>> waitCap =
                 ArgumentCaptor.forClass(EventDB.Callback.class);
         verify(mockEventDb).getWaitlist(eq("E1"), waitCap.capture());
 
@@ -116,7 +115,7 @@ public class NotifyWaitlistControllerTests {
 
         controller.notifyWaitlist("E1", "Hello", cb);
 
-        ArgumentCaptor<EventDB.Callback<List<Map<String, Object>>>> waitCap =
+        ArgumentCaptor<EventDB.Callback<List<EntrantEntry>>> waitCap =
                 ArgumentCaptor.forClass(EventDB.Callback.class);
         verify(mockEventDb).getWaitlist(eq("E1"), waitCap.capture());
 
@@ -137,15 +136,13 @@ public class NotifyWaitlistControllerTests {
 
         controller.notifyWaitlist("E1", "Waitlist message", cb);
 
-        ArgumentCaptor<EventDB.Callback<List<Map<String, Object>>>> waitCap =
+        ArgumentCaptor<EventDB.Callback<List<EntrantEntry>>> waitCap =
                 ArgumentCaptor.forClass(EventDB.Callback.class);
         verify(mockEventDb).getWaitlist(eq("E1"), waitCap.capture());
 
-        List<Map<String, Object>> waitlist = new ArrayList<>();
-        Map<String, Object> w1 = new HashMap<>();
-        w1.put("deviceId", "dev1");
-        Map<String, Object> w2 = new HashMap<>();
-        w2.put("deviceId", "dev2");
+        List<EntrantEntry> waitlist = new ArrayList<>();
+        EntrantEntry w1 = new EntrantEntry("dev1", 0L);
+        EntrantEntry w2 = new EntrantEntry("dev2", 0L);
         waitlist.add(w1);
         waitlist.add(w2);
 
@@ -197,14 +194,13 @@ public class NotifyWaitlistControllerTests {
 
         controller.notifyWaitlist("E1", "Waitlist message", cb);
 
-        ArgumentCaptor<EventDB.Callback<List<Map<String, Object>>>> waitCap =
+        ArgumentCaptor<EventDB.Callback<List<EntrantEntry>>> waitCap =
                 ArgumentCaptor.forClass(EventDB.Callback.class);
         verify(mockEventDb).getWaitlist(eq("E1"), waitCap.capture());
 
-        List<Map<String, Object>> waitlist = new ArrayList<>();
-        Map<String, Object> missingDevice = new HashMap<>();
-        Map<String, Object> valid = new HashMap<>();
-        valid.put("deviceId", "dev1");
+        List<EntrantEntry> waitlist = new ArrayList<>();
+        EntrantEntry missingDevice = new EntrantEntry(null, 0L);
+        EntrantEntry valid = new EntrantEntry("dev1", 0L);
         waitlist.add(missingDevice);
         waitlist.add(valid);
 
@@ -3,15 +3,14 @@ package ca.ualberta.codarc.codarc_events;
 import ca.ualberta.codarc.codarc_events.controllers.NotifyWinnersController;
 import ca.ualberta.codarc.codarc_events.data.EntrantDB;
 import ca.ualberta.codarc.codarc_events.data.EventDB;
+import ca.ualberta.codarc.codarc_events.models.EntrantEntry;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
 
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 import static org.junit.Assert.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -100,7 +99,7 @@ public class NotifyWinnersControllerTests {
 
         controller.notifyWinners("E1", "Hello winners", cb);
 
-        ArgumentCaptor<EventDB.Callback<List<Map<String, Object>>>> winnersCap =
+        ArgumentCaptor<EventDB.Callback<List<EntrantEntry>>> winnersCap =
                 ArgumentCaptor.forClass(EventDB.Callback.class);
         verify(mockEventDb).getWinners(eq("E1"), winnersCap.capture());
 
@@ -118,7 +117,7 @@ public class NotifyWinnersControllerTests {
 
         controller.notifyWinners("E1", "Hello winners", cb);
 
-        ArgumentCaptor<EventDB.Callback<List<Map<String, Object>>>> winnersCap =
+        ArgumentCaptor<EventDB.Callback<List<EntrantEntry>>> winnersCap =
                 ArgumentCaptor.forClass(EventDB.Callback.class);
         verify(mockEventDb).getWinners(eq("E1"), winnersCap.capture());
 
@@ -139,15 +138,13 @@ public class NotifyWinnersControllerTests {
 
         controller.notifyWinners("E1", "You won!", cb);
 
-        ArgumentCaptor<EventDB.Callback<List<Map<String, Object>>>> winnersCap =
+        ArgumentCaptor<EventDB.Callback<List<EntrantEntry>>> winnersCap =
                 ArgumentCaptor.forClass(EventDB.Callback.class);
         verify(mockEventDb).getWinners(eq("E1"), winnersCap.capture());
 
-        List<Map<String, Object>> winners = new ArrayList<>();
-        Map<String, Object> w1 = new HashMap<>();
-        w1.put("deviceId", "dev1");
-        Map<String, Object> w2 = new HashMap<>();
-        w2.put("deviceId", "dev2");
+        List<EntrantEntry> winners = new ArrayList<>();
+        EntrantEntry w1 = new EntrantEntry("dev1", 0L);
+        EntrantEntry w2 = new EntrantEntry("dev2", 0L);
         winners.add(w1);
         winners.add(w2);
 
@@ -189,14 +186,13 @@ public class NotifyWinnersControllerTests {
 
         controller.notifyWinners("E1", "You won!", cb);
 
-        ArgumentCaptor<EventDB.Callback<List<Map<String, Object>>>> winnersCap =
+        ArgumentCaptor<EventDB.Callback<List<EntrantEntry>>> winnersCap =
                 ArgumentCaptor.forClass(EventDB.Callback.class);
         verify(mockEventDb).getWinners(eq("E1"), winnersCap.capture());
 
-        List<Map<String, Object>> winners = new ArrayList<>();
-        Map<String, Object> missing = new HashMap<>();
-        Map<String, Object> valid = new HashMap<>();
-        valid.put("deviceId", "dev1");
+        List<EntrantEntry> winners = new ArrayList<>();
+        EntrantEntry missing = new EntrantEntry(null, 0L);
+        EntrantEntry valid = new EntrantEntry("dev1", 0L);
         winners.add(missing);
         winners.add(valid);
 
@@ -0,0 +1,533 @@
+package ca.ualberta.codarc.codarc_events;
+
+import android.util.Log;
+
+import ca.ualberta.codarc.codarc_events.controllers.DeleteEventController;
+import ca.ualberta.codarc.codarc_events.controllers.DrawController;
+import ca.ualberta.codarc.codarc_events.controllers.EntrantMapController;
+import ca.ualberta.codarc.codarc_events.controllers.NotificationController;
+import ca.ualberta.codarc.codarc_events.controllers.NotificationLogController;
+import ca.ualberta.codarc.codarc_events.controllers.RegistrationHistoryController;
+import ca.ualberta.codarc.codarc_events.controllers.RemoveOrganizerController;
+import ca.ualberta.codarc.codarc_events.data.DataExecutors;
+import ca.ualberta.codarc.codarc_events.data.EntrantDB;
+import ca.ualberta.codarc.codarc_events.data.EventDB;
+import ca.ualberta.codarc.codarc_events.data.OrganizerDB;
+import ca.ualberta.codarc.codarc_events.data.TagDB;
+import ca.ualberta.codarc.codarc_events.data.UserDB;
+import ca.ualberta.codarc.codarc_events.data.memory.InMemoryFirestore;
+import ca.ualberta.codarc.codarc_events.models.Event;
+import ca.ualberta.codarc.codarc_events.utils.FCMHelper;
+import ca.ualberta.codarc.codarc_events.utils.GeoHash;
+
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.GeoPoint;
+
+import androidx.annotation.NonNull;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.MockedStatic;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Read budgets: runs real controllers over the real EventDB, EntrantDB and the other
+ * Firestore classes at realistic sizes, with Firestore answered by
+ * {@link InMemoryFirestore}. Reads and writes are counted where the data classes meet
+ * Firestore, so a regression in a query plan fails here as well as one in a controller.
+ *
+ * Each budget is the cost of the flow today, expressed in terms of the data size. A
+ * change that makes a flow more expensive fails here; a change that makes it cheaper
+ * should tighten the budget in the same commit.
+ */
+public class ReadBudgetTests {
+
+    private static final int ENTRANTS = 10_000;
+    private static final String ORGANIZER_ID = "org-1";
+    private static final String ADMIN_ID = "admin-1";
+    private static final String FUTURE_DATE = "2099-01-01T10:00:00";
+    private static final AtomicInteger RUNS = new AtomicInteger();
+
+    // EventDB caches events process-wide, so each test uses its own event IDs.
+    private final String run = "budget" + RUNS.incrementAndGet() + "-";
+    private final String eventId = run + "event-1";
+
+    private MockedStatic<Log> logMock;
+    private InMemoryDataLayer data;
+    private InMemoryFirestore firestore;
+    private TagDB tagDB;
+    private EventDB eventDB;
+    private EntrantDB entrantDB;
+    private OrganizerDB organizerDB;
+    private UserDB userDB;
+
+    @Before
+    public void setUp() {
+        logMock = Mockito.mockStatic(Log.class);
+        data = new InMemoryDataLayer();
+        Executor queued = task -> data.dispatcher.dispatch(0, task);
+        // The data classes pick up their executors when constructed.
+        DataExecutors.set(queued, queued);
+        firestore = new InMemoryFirestore(data.store, queued);
+        FirebaseFirestore db = firestore.getFirestore();
+        tagDB = new TagDB(db);
+        eventDB = new EventDB(db);
+        entrantDB = new EntrantDB(db);
+        organizerDB = new OrganizerDB(db);
+        userDB = new UserDB(db);
+        data.seedAdmin(ADMIN_ID);
+        data.seedEvent(eventId, "Swim Lessons", ORGANIZER_ID, FUTURE_DATE);
+    }
+
+    @After
+    public void tearDown() {
+        DataExecutors.set(null, null);
+        if (firestore != null) {
+            firestore.close();
+        }
+        if (logMock != null) {
+            logMock.close();
+        }
+    }
+
+    private static String entrant(int i) {
+        return "device-" + i;
+    }
+
+    private void seedEntrants(int count) {
+        for (int i = 0; i < count; i++) {
+            // Every tenth entrant has opted out of notifications.
+            data.seedEntrant(entrant(i), "Entrant " + i, i % 10 != 0);
+        }
+    }
+
+    private void seedWaitlist(String eventId, int count, boolean withLocation) {
+        for (int i = 0; i < count; i++) {
+            GeoPoint location = withLocation ? new GeoPoint(53.5, -113.5) : null;
+            data.seedMembership(eventId, "waitingList", entrant(i), location);
+        }
+    }
+
+    private void assertBudget(String flow, long budget, long actual) {
+        assertTrue(flow + " cost " + actual + ", budget is " + budget, actual <= budget);
+    }
+
+    /**
+     * Draw: read the whole waitlist, check the event's waitlist counter, read each
+     * selected entrant's waitlist row for its location, check each winner's
+     * notifications, then write the winner/pool moves with their membership documents
+     * and history entries, the counter decrement and one notification per winner.
+     * reads = N + 1 + (W + P) + W, writes = 4(W + P) + 1 + W.
+     */
+    @Test
+    public void draw_tenThousandWaitlisted() {
+        seedEntrants(ENTRANTS);
+        seedWaitlist(eventId, ENTRANTS, false);
+        int winners = 100;
+        int pool = 3;
+        DrawController controller = new DrawController(eventDB, entrantDB);
+        data.store.resetCounters();
+
+        AtomicReference<List<String>> drawn = new AtomicReference<>();
+        controller.runDraw(eventId, winners, pool, new DrawController.DrawCallback() {
+            @Override
+            public void onSuccess(List<String> winnerIds, List<String> replacementIds) {
+                drawn.set(winnerIds);
+            }
+
+            @Override
+            public void onError(Exception e) {
+                fail(e.getMessage());
+            }
+        });
+        data.runUntilIdle();
+
+        assertEquals(winners, drawn.get().size());
+        assertEquals(winners, data.store.size("events/" + eventId + "/winners"));
+        assertBudget("draw reads", ENTRANTS + 1 + (winners + pool) + winners, data.store.getReads());
+        assertBudget("draw writes", 4 * (winners + pool) + 1 + winners, data.store.getWrites());
+    }
+
+    /**
+     * Waitlist broadcast with push: read the waitlist, read every entrant's preference,
+     * write a notification to each opted-in entrant, then re-read each opted-in
+     * entrant's preference and token for the push.
+     * reads = N + N + 2E, writes = E.
+     */
+    @Test
+    public void waitlistBroadcast_tenThousandWaitlisted() {
+        seedEntrants(ENTRANTS);
+        seedWaitlist(eventId, ENTRANTS, false);
+        FCMHelper fcmHelper = mock(FCMHelper.class);
+        NotificationController controller = new NotificationController(eventDB, entrantDB, fcmHelper);
+        int optedIn = ENTRANTS - ENTRANTS / 10;
+        data.store.resetCounters();
+
+        int[] notified = {-1};
+        controller.notifyUsers(eventId, "Pool is closed today", NotificationController.NotificationCategory.WAITLIST,
+                "No entrants", new NotificationController.NotificationCallback() {
+                    @Override
+                    public void onSuccess(int notifiedCount, int failedCount) {
+                        notified[0] = notifiedCount;
+                    }
+
+                    @Override
+                    public void onError(Exception e) {
+                        fail(e.getMessage());
+                    }
+                });
+        data.runUntilIdle();
+
+        assertEquals(optedIn, notified[0]);
+        verify(fcmHelper).sendNotifications(argThat(tokens -> tokens.size() == optedIn),
+                anyString(), anyString(), anyMap());
+        assertBudget("broadcast reads", 2L * ENTRANTS + 2L * optedIn, data.store.getReads());
+        assertBudget("broadcast writes", optedIn, data.store.getWrites());
+    }
+
+    /**
+     * Registration history: one query for the entrant's events, then per event an
+     * existence check, the event itself and its membership document. Events that keep
+     * membership documents skip the legacy per-list probes.
+     * reads = H + 3H.
+     */
+    @Test
+    public void registrationHistory_fiftyEvents() {
+        int history = 50;
+        data.seedEntrant(entrant(0), "Entrant 0", true);
+        for (int i = 0; i < history; i++) {
+            String eventId = run + "history-" + i;
+            data.seedEvent(eventId, "Event " + i, ORGANIZER_ID, FUTURE_DATE);
+            data.seedMembership(eventId, "waitingList", entrant(0), null);
+        }
+        RegistrationHistoryController controller = new RegistrationHistoryController(entrantDB, eventDB);
+        data.store.resetCounters();
+
+        AtomicReference<RegistrationHistoryController.HistoryResult> result = new AtomicReference<>();
+        controller.loadRegistrationHistory(entrant(0), result::set);
+        data.runUntilIdle();
+
+        assertTrue(result.get().isSuccess());
+        assertEquals(history, result.get().getEntries().size());
+        assertBudget("history reads", 4L * history, data.store.getReads());
+        assertEquals(0, data.store.getWrites());
+    }
+
+    /**
+     * Event deletion: admin check and event read, one query per membership
+     * subcollection (nine, billed at least one read each), then a delete per member,
+     * the event document and the organizer's index entry. Each waitlisted entrant
+     * shows up in both waitingList and memberships.
+     * reads = 2 + 2N + 7, writes = 2N + 2.
+     */
+    @Test
+    public void deleteEvent_tenThousandWaitlisted() {
+        seedWaitlist(eventId, ENTRANTS, false);
+        DeleteEventController controller = new DeleteEventController(eventDB, data.posterStorage,
+                organizerDB, tagDB, userDB);
+        data.store.resetCounters();
+
+        AtomicReference<DeleteEventController.DeleteEventResult> result = new AtomicReference<>();
+        controller.deleteEvent(eventId, ADMIN_ID, result::set);
+        data.runUntilIdle();
+
+        assertTrue(result.get().isSuccess());
+        assertFalse(data.store.exists("events/" + eventId));
+        assertBudget("delete reads", 2 + 2 * ENTRANTS + 7, data.store.getReads());
+        assertBudget("delete writes", 2 * ENTRANTS + 2, data.store.getWrites());
+    }
+
+    /**
+     * Banning an organizer with K events of M members each: besides deleting every
+     * event, each event scans the whole entrants collection to scrub histories, so the
+     * flow costs O(K * users) no matter how few entrants touched the events.
+     * reads = 1 + 2K + K(1 + 2M + 7 + U), writes = K(2M + 3 + U) + 1.
+     */
+    @Test
+    public void banOrganizer_scansAllEntrantsPerEvent() {
+        String organizerId = run + "org-2";
+        int events = 5;
+        int members = 20;
+        seedEntrants(ENTRANTS);
+        for (int e = 0; e < events; e++) {
+            String eventId = run + "org-event-" + e;
+            data.seedEvent(eventId, "Event " + e, organizerId, FUTURE_DATE);
+            seedWaitlist(eventId, members, false);
+        }
+        DeleteEventController deleteController = new DeleteEventController(eventDB, data.posterStorage,
+                organizerDB, tagDB, userDB);
+        RemoveOrganizerController controller = new RemoveOrganizerController(organizerDB, eventDB,
+                entrantDB, deleteController, data.posterStorage, userDB);
+        data.store.resetCounters();
+
+        AtomicReference<RemoveOrganizerController.RemoveOrganizerResult> result = new AtomicReference<>();
+        controller.banOrganizer(organizerId, ADMIN_ID, result::set);
+        data.runUntilIdle();
+
+        assertTrue(result.get().isSuccess());
+        assertEquals(0, data.store.size("organizers/" + organizerId + "/events"));
+        long memberDocs = (long) events * members;
+        long reads = 1 + 2L * events + events * (1 + 7 + (long) ENTRANTS) + 2 * memberDocs;
+        long writes = events * (3 + (long) ENTRANTS) + 2 * memberDocs + 1;
+        assertBudget("ban reads", reads, data.store.getReads());
+        assertBudget("ban writes", writes, data.store.getWrites());
+    }
+
+    /**
+     * Admin notification log: one query over all entrants plus one notifications query
+     * per entrant (billed at least one read even when empty), then one event read per
+     * distinct event thanks to the coalesced getEvent (modelled on EventDB's).
+     * reads = U + sum(max(1, n_u)) + distinct events.
+     */
+    @Test
+    public void notificationLog_tenThousandEntrants() {
+        seedEntrants(ENTRANTS);
+        int events = 3;
+        for (int e = 1; e < events; e++) {
+            data.seedEvent(run + "event-" + (e + 1), "Event " + e, ORGANIZER_ID, FUTURE_DATE);
+        }
+        int withNotifications = ENTRANTS / 2;
+        for (int i = 0; i < withNotifications; i++) {
+            data.seedNotification(entrant(i), run + "event-" + (i % events + 1), "winner");
+        }
+        NotificationLogController controller = new NotificationLogController(entrantDB, eventDB);
+        data.store.resetCounters();
+
+        AtomicReference<List<Map<String, Object>>> logs = new AtomicReference<>();
+        controller.loadNotificationLogs(new NotificationLogController.NotificationLogCallback() {
+            @Override
+            public void onSuccess(List<Map<String, Object>> result) {
+                logs.set(result);
+            }
+
+            @Override
+            public void onError(Exception e) {
+                fail(e.getMessage());
+            }
+        });
+        data.runUntilIdle();
+
+        assertEquals(withNotifications, logs.get().size());
+        assertEquals("Swim Lessons", logs.get().get(0).get("eventName"));
+        assertBudget("notification log reads", 2L * ENTRANTS + events, data.store.getReads());
+        assertEquals(0, data.store.getWrites());
+    }
+
+    /**
+     * Entrant map: names are no longer read up front. The first open of an event whose
+     * location projection was never built scans the four lists (three empty ones still
+     * bill a read) and writes the sixteen chunks; later opens read only the chunks.
+     * first open reads = N + 4, writes = 16; later opens reads <= 16, writes = 0.
+     */
+    @Test
+    public void entrantMap_tenThousandWithLocations() {
+        seedEntrants(ENTRANTS);
+        seedWaitlist(eventId, ENTRANTS, true);
+        EntrantMapController controller = new EntrantMapController(eventDB, entrantDB);
+        data.store.resetCounters();
+
+        assertEquals(ENTRANTS, loadMap(controller).size());
+        assertBudget("first map reads", ENTRANTS + 4, data.store.getReads());
+        assertBudget("first map writes", 16, data.store.getWrites());
+
+        data.store.resetCounters();
+        List<EntrantMapController.MapMarkerData> markers = loadMap(controller);
+
+        assertEquals(ENTRANTS, markers.size());
+        assertEquals("waitlisted", markers.get(0).getStatus());
+        assertBudget("map reads", 16, data.store.getReads());
+        assertEquals(0, data.store.getWrites());
+    }
+
+    /**
+     * Entrant map after transitions: the projection follows every move, so it matches
+     * a full scan without being rebuilt.
+     */
+    @Test
+    public void entrantMap_projectionFollowsTransitions() {
+        seedEntrants(200);
+        seedWaitlist(eventId, 200, true);
+        EntrantMapController controller = new EntrantMapController(eventDB, entrantDB);
+        loadMap(controller);
+
+        List<String> winners = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            winners.add(entrant(i));
+        }
+        eventDB.markWinners(eventId, winners, Collections.singletonList(entrant(20)), noop());
+        data.runUntilIdle();
+        eventDB.setEnrolledStatus(eventId, entrant(0), true, noop());
+        eventDB.setEnrolledStatus(eventId, entrant(1), false, noop());
+        eventDB.leaveWaitlist(eventId, entrant(199), noop());
+        eventDB.joinWaitlistAtomic(eventId, "late-joiner", new GeoPoint(53.6, -113.4), noop());
+        data.runUntilIdle();
+        data.store.resetCounters();
+
+        Map<String, String> statuses = new HashMap<>();
+        for (EntrantMapController.MapMarkerData marker : loadMap(controller)) {
+            statuses.put(marker.getDeviceId(), marker.getStatus());
+        }
+
+        assertBudget("map reads", 16, data.store.getReads());
+        assertEquals(200, statuses.size());
+        assertEquals("accepted", statuses.get(entrant(0)));
+        assertEquals("cancelled", statuses.get(entrant(1)));
+        assertEquals("invited", statuses.get(entrant(2)));
+        assertEquals("replacementPool", statuses.get(entrant(20)));
+        assertEquals("waitlisted", statuses.get(entrant(21)));
+        assertEquals("waitlisted", statuses.get("late-joiner"));
+        assertFalse(statuses.containsKey(entrant(199)));
+    }
+
+    private List<EntrantMapController.MapMarkerData> loadMap(EntrantMapController controller) {
+        AtomicReference<List<EntrantMapController.MapMarkerData>> markers = new AtomicReference<>();
+        controller.loadMapData(eventId, new EntrantMapController.MapDataCallback() {
+            @Override
+            public void onSuccess(List<EntrantMapController.MapMarkerData> result) {
+                markers.set(result);
+            }
+
+            @Override
+            public void onError(Exception e) {
+                fail(e.getMessage());
+            }
+        });
+        data.runUntilIdle();
+        return markers.get();
+    }
+
+    private static <T> EventDB.Callback<T> noop() {
+        return new EventDB.Callback<T>() {
+            @Override
+            public void onSuccess(T value) {
+            }
+
+            @Override
+            public void onError(@NonNull Exception e) {
+                fail(e.getMessage());
+            }
+        };
+    }
+
+    /**
+     * Admin poster grid: pages of events that have a poster. Events without one are
+     * never read, and each page bills only the events on it.
+     * reads = P (posters), over ceil(P / pageSize) pages.
+     */
+    @Test
+    public void posterGrid_pagesOnlyEventsWithPosters() {
+        int events = 1_000;
+        int posters = 100;
+        int pageSize = 24;
+        for (int e = 0; e < events; e++) {
+            String eventId = run + "grid-" + e;
+            data.seedEvent(eventId, "Event " + e, ORGANIZER_ID, FUTURE_DATE);
+            if (e % (events / posters) == 0) {
+                Map<String, Object> event = data.store.peek("events/" + eventId);
+                event.put("posterUrl", "https://example.com/" + eventId + "/full.webp");
+                data.store.seed("events/" + eventId, event);
+            }
+        }
+        data.store.resetCounters();
+
+        Set<String> seen = new HashSet<>();
+        Event after = null;
+        int pages = 0;
+        while (true) {
+            AtomicReference<List<Event>> page = new AtomicReference<>();
+            eventDB.getEventsWithPosters(after, pageSize, new EventDB.Callback<List<Event>>() {
+                @Override
+                public void onSuccess(List<Event> value) {
+                    page.set(value);
+                }
+
+                @Override
+                public void onError(@NonNull Exception e) {
+                    fail(e.getMessage());
+                }
+            });
+            data.runUntilIdle();
+            pages++;
+            for (Event event : page.get()) {
+                assertNotNull(event.getPosterUrl());
+                assertTrue("page repeated " + event.getId(), seen.add(event.getId()));
+            }
+            if (page.get().size() < pageSize) {
+                break;
+            }
+            after = page.get().get(pageSize - 1);
+        }
+
+        assertEquals(posters, seen.size());
+        assertEquals((posters + pageSize - 1) / pageSize, pages);
+        assertBudget("poster grid reads", posters, data.store.getReads());
+    }
+
+    /**
+     * Nearby entrants: geohash range queries over the box around a 5 km circle. Only
+     * entries in the covering cells are read, not the whole waitlist; the exact
+     * distance check then drops the corners.
+     * reads = entries in the covering cells: under 4x the matches and under N / 5.
+     */
+    @Test
+    public void nearbyWaitlist_readsOnlyCoveringCells() {
+        double venueLat = 53.5461;
+        double venueLng = -113.4938;
+        double radius = 5_000;
+        Random random = new Random(5);
+        int expected = 0;
+        for (int i = 0; i < ENTRANTS; i++) {
+            // A fifth live around the venue, the rest anywhere in the province.
+            double lat = i % 5 == 0 ? venueLat + random.nextGaussian() * 0.05 : 49 + random.nextDouble() * 11;
+            double lng = i % 5 == 0 ? venueLng + random.nextGaussian() * 0.08 : -120 + random.nextDouble() * 10;
+            data.seedMembership(eventId, "waitingList", entrant(i), new GeoPoint(lat, lng));
+            if (GeoHash.distanceMeters(venueLat, venueLng, lat, lng) <= radius) {
+                expected++;
+            }
+        }
+        data.store.resetCounters();
+
+        AtomicReference<List<Map<String, Object>>> nearby = new AtomicReference<>();
+        eventDB.getEntrantsNear(eventId, "waitingList", new GeoPoint(venueLat, venueLng), radius,
+                new EventDB.Callback<List<Map<String, Object>>>() {
+                    @Override
+                    public void onSuccess(List<Map<String, Object>> value) {
+                        nearby.set(value);
+                    }
+
+                    @Override
+                    public void onError(@NonNull Exception e) {
+                        fail(e.getMessage());
+                    }
+                });
+        data.runUntilIdle();
+
+        assertTrue(expected > 0);
+        assertEquals(expected, nearby.get().size());
+        double last = 0;
+        for (Map<String, Object> entry : nearby.get()) {
+            double distance = (Double) entry.get("distanceMeters");
+            assertTrue(distance <= radius && distance >= last);
+            last = distance;
+        }
+        assertBudget("nearby reads", 4L * expected, data.store.getReads());
+        assertBudget("nearby reads vs waitlist", ENTRANTS / 5, data.store.getReads());
+    }
+}
@@ -4,6 +4,7 @@ import ca.ualberta.codarc.codarc_events.controllers.RegistrationHistoryControlle
 import ca.ualberta.codarc.codarc_events.data.EntrantDB;
 import ca.ualberta.codarc.codarc_events.data.EventDB;
 import ca.ualberta.codarc.codarc_events.models.Event;
+import ca.ualberta.codarc.codarc_events.models.MembershipStatus;
 import ca.ualberta.codarc.codarc_events.models.RegistrationHistoryEntry;
 
 import org.junit.Before;
@@ -113,10 +114,10 @@ public class RegistrationHistoryControllerTests {
         eventCap.getValue().onSuccess(event);
 
         @SuppressWarnings("unchecked")
-        ArgumentCaptor<EventDB.Callback<Boolean>> accCap =
+        ArgumentCaptor<EventDB.Callback<MembershipStatus>> statusCap =
                 ArgumentCaptor.forClass(EventDB.Callback.class);
-        verify(mockEventDb).isEntrantAccepted(eq("E1"), eq("dev1"), accCap.capture());
-        accCap.getValue().onSuccess(true);
+        verify(mockEventDb).getMembershipStatus(eq("E1"), eq("dev1"), statusCap.capture());
+        statusCap.getValue().onSuccess(MembershipStatus.ACCEPTED);
 
         ArgumentCaptor<RegistrationHistoryController.HistoryResult> resCap =
                 ArgumentCaptor.forClass(RegistrationHistoryController.HistoryResult.class);
@@ -164,28 +165,12 @@ public class RegistrationHistoryControllerTests {
         eventCap.getValue().onSuccess(event);
 
         @SuppressWarnings("unchecked")
-        ArgumentCaptor<EventDB.Callback<Boolean>> accCap =
+        ArgumentCaptor<EventDB.Callback<MembershipStatus>> statusCap =
                 ArgumentCaptor.forClass(EventDB.Callback.class);
-        verify(mockEventDb).isEntrantAccepted(eq("E1"), eq("dev1"), accCap.capture());
-        accCap.getValue().onSuccess(false);
+        verify(mockEventDb).getMembershipStatus(eq("E1"), eq("dev1"), statusCap.capture());
+        statusCap.getValue().onSuccess(null);
 
-        @SuppressWarnings("unchecked")
-        ArgumentCaptor<EventDB.Callback<Boolean>> cancCap =
-                ArgumentCaptor.forClass(EventDB.Callback.class);
-        verify(mockEventDb).isEntrantCancelled(eq("E1"), eq("dev1"), cancCap.capture());
-        cancCap.getValue().onSuccess(false);
-
-        @SuppressWarnings("unchecked")
-        ArgumentCaptor<EventDB.Callback<Boolean>> winCap =
-                ArgumentCaptor.forClass(EventDB.Callback.class);
-        verify(mockEventDb).isEntrantWinner(eq("E1"), eq("dev1"), winCap.capture());
-        winCap.getValue().onSuccess(false);
-
-        @SuppressWarnings("unchecked")
-        ArgumentCaptor<EventDB.Callback<Boolean>> wlCap =
-                ArgumentCaptor.forClass(EventDB.Callback.class);
-        verify(mockEventDb).isEntrantOnWaitlist(eq("E1"), eq("dev1"), wlCap.capture());
-        wlCap.getValue().onSuccess(false);
+        verify(mockEventDb, never()).isEntrantOnWaitlist(anyString(), anyString(), any());
 
         ArgumentCaptor<RegistrationHistoryController.HistoryResult> resCap =
                 ArgumentCaptor.forClass(RegistrationHistoryController.HistoryResult.class);
@@ -228,28 +213,12 @@ public class RegistrationHistoryControllerTests {
         eventCap.getValue().onSuccess(event);
 
         @SuppressWarnings("unchecked")
-        ArgumentCaptor<EventDB.Callback<Boolean>> accCap =
+        ArgumentCaptor<EventDB.Callback<MembershipStatus>> statusCap =
                 ArgumentCaptor.forClass(EventDB.Callback.class);
-        verify(mockEventDb).isEntrantAccepted(eq("E1"), eq("dev1"), accCap.capture());
-        accCap.getValue().onSuccess(false);
+        verify(mockEventDb).getMembershipStatus(eq("E1"), eq("dev1"), statusCap.capture());
+        statusCap.getValue().onSuccess(null);
 
-        @SuppressWarnings("unchecked")
-        ArgumentCaptor<EventDB.Callback<Boolean>> cancCap =
-                ArgumentCaptor.forClass(EventDB.Callback.class);
-        verify(mockEventDb).isEntrantCancelled(eq("E1"), eq("dev1"), cancCap.capture());
-        cancCap.getValue().onSuccess(false);
-
-        @SuppressWarnings("unchecked")
-        ArgumentCaptor<EventDB.Callback<Boolean>> winCap =
-                ArgumentCaptor.forClass(EventDB.Callback.class);
-        verify(mockEventDb).isEntrantWinner(eq("E1"), eq("dev1"), winCap.capture());
-        winCap.getValue().onSuccess(false);
-
-        @SuppressWarnings("unchecked")
-        ArgumentCaptor<EventDB.Callback<Boolean>> wlCap =
-                ArgumentCaptor.forClass(EventDB.Callback.class);
-        verify(mockEventDb).isEntrantOnWaitlist(eq("E1"), eq("dev1"), wlCap.capture());
-        wlCap.getValue().onSuccess(false);
+        verify(mockEventDb, never()).isEntrantOnWaitlist(anyString(), anyString(), any());
 
         ArgumentCaptor<RegistrationHistoryController.HistoryResult> resCap =
                 ArgumentCaptor.forClass(RegistrationHistoryController.HistoryResult.class);
@@ -303,13 +272,13 @@ public class RegistrationHistoryControllerTests {
         eventCallbacks.get(1).onSuccess(e2);
 
         @SuppressWarnings("unchecked")
-        ArgumentCaptor<EventDB.Callback<Boolean>> accCap =
+        ArgumentCaptor<EventDB.Callback<MembershipStatus>> statusCap =
                 ArgumentCaptor.forClass(EventDB.Callback.class);
         verify(mockEventDb, times(2))
-                .isEntrantAccepted(anyString(), eq("dev1"), accCap.capture());
-        List<EventDB.Callback<Boolean>> accCallbacks = accCap.getAllValues();
-        accCallbacks.get(0).onSuccess(true);
-        accCallbacks.get(1).onSuccess(true);
+                .getMembershipStatus(anyString(), eq("dev1"), statusCap.capture());
+        List<EventDB.Callback<MembershipStatus>> statusCallbacks = statusCap.getAllValues();
+        statusCallbacks.get(0).onSuccess(MembershipStatus.ACCEPTED);
+        statusCallbacks.get(1).onSuccess(MembershipStatus.ACCEPTED);
 
         ArgumentCaptor<RegistrationHistoryController.HistoryResult> resCap =
                 ArgumentCaptor.forClass(RegistrationHistoryController.HistoryResult.class);
@@ -0,0 +1,230 @@
+package ca.ualberta.codarc.codarc_events;
+
+import androidx.annotation.NonNull;
+
+import ca.ualberta.codarc.codarc_events.data.AsyncResult;
+import ca.ualberta.codarc.codarc_events.data.EventDB;
+import ca.ualberta.codarc.codarc_events.data.SnapshotSubscriptions;
+import ca.ualberta.codarc.codarc_events.models.Event;
+
+import com.google.firebase.firestore.ListenerRegistration;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Sharing, pausing and removing of {@link SnapshotSubscriptions}, against a fake
+ * source and against the in-memory event listener.
+ */
+public class SnapshotSubscriptionsTests {
+
+    private final SnapshotSubscriptions subscriptions = new SnapshotSubscriptions();
+
+    @Test
+    public void subscribe_sharesOneListenerPerKey() {
+        FakeSource source = new FakeSource();
+        Recorder first = new Recorder();
+        Recorder second = new Recorder();
+
+        subscriptions.subscribe("events", source, first);
+        source.emit("v1");
+        subscriptions.subscribe("events", source, second);
+
+        assertEquals(1, source.starts);
+        assertEquals(1, subscriptions.activeListenerCount());
+        assertEquals(2, subscriptions.subscriberCount("events"));
+        assertEquals(Arrays.asList("v1"), first.values);
+        assertEquals(Arrays.asList("v1"), second.values);
+
+        source.emit("v2");
+        assertEquals(Arrays.asList("v1", "v2"), second.values);
+    }
+
+    @Test
+    public void subscribe_differentKeysGetTheirOwnListener() {
+        FakeSource events = new FakeSource();
+        FakeSource tags = new FakeSource();
+
+        subscriptions.subscribe("events", events, new Recorder());
+        subscriptions.subscribe("tags", tags, new Recorder());
+
+        assertEquals(1, events.starts);
+        assertEquals(1, tags.starts);
+        assertEquals(2, subscriptions.activeListenerCount());
+    }
+
+    @Test
+    public void pause_lastActiveSubscriberStopsTheListener() {
+        FakeSource source = new FakeSource();
+        Recorder recorder = new Recorder();
+        SnapshotSubscriptions.Subscription subscription = subscriptions.subscribe("events", source, recorder);
+        source.emit("v1");
+
+        subscription.pause();
+        assertEquals(0, subscriptions.activeListenerCount());
+        assertEquals(1, source.removals);
+        source.emit("while paused");
+        assertEquals(Arrays.asList("v1"), recorder.values);
+
+        subscription.resume();
+        assertEquals(2, source.starts);
+        assertEquals(1, subscriptions.activeListenerCount());
+    }
+
+    @Test
+    public void pauseAndResume_manyTimesKeepsOneListener() {
+        FakeSource source = new FakeSource();
+        SnapshotSubscriptions.Subscription subscription = subscriptions.subscribe("events", source, new Recorder());
+
+        for (int i = 0; i < 100; i++) {
+            subscription.pause();
+            subscription.resume();
+            assertEquals(1, subscriptions.activeListenerCount());
+        }
+        assertEquals(source.starts - 1, source.removals);
+    }
+
+    @Test
+    public void pause_otherActiveSubscriberKeepsTheListener() {
+        FakeSource source = new FakeSource();
+        Recorder paused = new Recorder();
+        SnapshotSubscriptions.Subscription subscription = subscriptions.subscribe("events", source, paused);
+        subscriptions.subscribe("events", source, new Recorder());
+        source.emit("v1");
+
+        subscription.pause();
+        source.emit("v2");
+        assertEquals(1, subscriptions.activeListenerCount());
+        assertEquals(Arrays.asList("v1"), paused.values);
+
+        subscription.resume();
+        assertEquals(Arrays.asList("v1", "v2"), paused.values);
+        subscription.pause();
+        subscription.resume();
+        assertEquals("Unchanged snapshot is not replayed", 2, paused.values.size());
+        assertEquals(1, source.starts);
+    }
+
+    @Test
+    public void remove_lastSubscriberDropsTheKey() {
+        FakeSource source = new FakeSource();
+        Recorder recorder = new Recorder();
+        SnapshotSubscriptions.Subscription subscription = subscriptions.subscribe("events", source, recorder);
+
+        subscription.remove();
+        subscription.remove();
+        source.emit("late");
+
+        assertEquals(0, subscriptions.activeListenerCount());
+        assertEquals(0, subscriptions.subscriberCount("events"));
+        assertEquals(1, source.removals);
+        assertTrue(recorder.values.isEmpty());
+        assertFalse(subscription.isActive());
+    }
+
+    @Test
+    public void error_endsTheListenerUntilResumed() {
+        FakeSource source = new FakeSource();
+        Recorder recorder = new Recorder();
+        SnapshotSubscriptions.Subscription subscription = subscriptions.subscribe("events", source, recorder);
+
+        source.fail(new IllegalStateException("permission denied"));
+        assertEquals(1, recorder.errors);
+        assertEquals(0, subscriptions.activeListenerCount());
+
+        subscription.pause();
+        subscription.resume();
+        assertEquals(2, source.starts);
+        assertEquals(1, subscriptions.activeListenerCount());
+    }
+
+    @Test
+    public void inMemoryEvents_secondSubscriberReadsNothing() {
+        InMemoryDataLayer data = new InMemoryDataLayer();
+        data.seedEvent("event-1", "Swim", "org-1", "2099-06-01T18:00:00");
+        data.seedEvent("event-2", "Run", "org-1", "2099-06-01T18:00:00");
+        List<List<Event>> first = new ArrayList<>();
+        List<List<Event>> second = new ArrayList<>();
+
+        SnapshotSubscriptions.Subscription a = data.eventDB.subscribeAllEvents(collect(first));
+        data.runUntilIdle();
+        long readsForOne = data.store.getReads();
+        SnapshotSubscriptions.Subscription b = data.eventDB.subscribeAllEvents(collect(second));
+        data.runUntilIdle();
+
+        assertEquals(readsForOne, data.store.getReads());
+        assertEquals(2, second.get(0).size());
+
+        Map<String, Object> fields = new HashMap<>();
+        fields.put("name", "Climb");
+        data.store.set("events/event-3", fields);
+        data.runUntilIdle();
+        assertEquals(3, first.get(first.size() - 1).size());
+        assertEquals(3, second.get(second.size() - 1).size());
+
+        a.pause();
+        b.pause();
+        int deliveries = first.size();
+        data.store.set("events/event-4", fields);
+        data.runUntilIdle();
+        assertEquals(deliveries, first.size());
+    }
+
+    private static EventDB.Callback<List<Event>> collect(List<List<Event>> into) {
+        return new EventDB.Callback<List<Event>>() {
+            @Override
+            public void onSuccess(List<Event> value) {
+                into.add(value);
+            }
+
+            @Override
+            public void onError(@NonNull Exception e) {
+                fail(e.getMessage());
+            }
+        };
+    }
+
+    /** Source whose snapshots are pushed by the test. */
+    private static class FakeSource implements SnapshotSubscriptions.Source<String> {
+        int starts;
+        int removals;
+        private AsyncResult.Listener<String> listener;
+
+        @Override
+        public ListenerRegistration start(AsyncResult.Listener<String> listener) {
+            starts++;
+            this.listener = listener;
+            return () -> removals++;
+        }
+
+        void emit(String value) {
+            listener.onSuccess(value);
+        }
+
+        void fail(Exception e) {
+            listener.onError(e);
+        }
+    }
+
+    private static class Recorder implements AsyncResult.Listener<String> {
+        final List<String> values = new ArrayList<>();
+        int errors;
+
+        @Override
+        public void onSuccess(String value) {
+            values.add(value);
+        }
+
+        @Override
+        public void onError(@NonNull Exception e) {
+            errors++;
+        }
+    }
+}
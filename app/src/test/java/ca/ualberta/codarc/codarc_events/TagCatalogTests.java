@@ -0,0 +1,143 @@
+package ca.ualberta.codarc.codarc_events;
+
+import androidx.annotation.NonNull;
+
+import ca.ualberta.codarc.codarc_events.data.TagCatalog;
+import ca.ualberta.codarc.codarc_events.data.TagDB;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+/**
+ * {@link TagCatalog} following the in-memory tags listener.
+ */
+public class TagCatalogTests {
+
+    private InMemoryDataLayer data;
+    private TagCatalog catalog;
+
+    @Before
+    public void setUp() {
+        data = new InMemoryDataLayer();
+        seedTag("chess", 3);
+        seedTag("cheerleading", 7);
+        seedTag("retired", 0);
+        catalog = new TagCatalog(data.tagDB);
+    }
+
+    @After
+    public void tearDown() {
+        catalog.stop();
+    }
+
+    @Test
+    public void suggest_servesPredefinedTagsBeforeFirstSnapshot() {
+        assertFalse(catalog.isSynced());
+        assertEquals(Arrays.asList("music"), catalog.suggest("mu", 5));
+    }
+
+    @Test
+    public void start_loadsTagsRankedByUsage() {
+        catalog.start();
+        data.runUntilIdle();
+
+        assertTrue(catalog.isSynced());
+        assertEquals(Arrays.asList("cheerleading", "chess"), catalog.suggest("che", 5));
+        assertTrue("Unused custom tags are left out", catalog.suggest("ret", 5).isEmpty());
+    }
+
+    @Test
+    public void listener_appliesCountChangesIncrementally() {
+        catalog.start();
+        data.runUntilIdle();
+        data.store.resetCounters();
+
+        data.tagDB.addTags(Arrays.asList("chess", "chess club"), new NoOp());
+        data.runUntilIdle();
+        data.tagDB.addTags(Arrays.asList("chess", "chess club"), new NoOp());
+        data.tagDB.addTags(Arrays.asList("chess", "chess club"), new NoOp());
+        data.tagDB.addTags(Arrays.asList("chess", "chess club"), new NoOp());
+        data.tagDB.addTags(Arrays.asList("chess", "chess club"), new NoOp());
+        data.runUntilIdle();
+
+        assertEquals(Arrays.asList("chess", "cheerleading", "chess club"), catalog.suggest("che", 5));
+        assertEquals(Arrays.asList("chess club"), catalog.suggest("club", 5));
+        // Each changed tag is one listener read; the collection is never re-read.
+        assertEquals(10, data.store.getReads());
+    }
+
+    @Test
+    public void listener_dropsTagsNoLongerUsed() {
+        catalog.start();
+        data.runUntilIdle();
+
+        data.tagDB.removeTags(Arrays.asList("chess", "chess", "chess"), new NoOp());
+        data.runUntilIdle();
+
+        assertEquals(Arrays.asList("cheerleading"), catalog.suggest("che", 5));
+    }
+
+    @Test
+    public void getAllTags_servedFromMemoryOnceSynced() {
+        catalog.start();
+        data.runUntilIdle();
+        data.store.resetCounters();
+
+        AtomicReference<List<String>> tags = new AtomicReference<>();
+        catalog.getAllTags(new TagDB.Callback<List<String>>() {
+            @Override
+            public void onSuccess(List<String> value) {
+                tags.set(value);
+            }
+
+            @Override
+            public void onError(@NonNull Exception e) {
+                fail(e.getMessage());
+            }
+        });
+
+        assertNotNull(tags.get());
+        assertTrue(tags.get().contains("chess"));
+        assertTrue(tags.get().contains("sports"));
+        assertFalse(tags.get().contains("retired"));
+        assertEquals(0, data.store.getReads());
+    }
+
+    @Test
+    public void stop_keepsCacheButStopsUpdates() {
+        catalog.start();
+        data.runUntilIdle();
+        catalog.stop();
+
+        data.tagDB.addTags(Arrays.asList("checkers"), new NoOp());
+        data.runUntilIdle();
+
+        assertFalse(catalog.isSynced());
+        assertEquals(Arrays.asList("cheerleading", "chess"), catalog.suggest("che", 5));
+    }
+
+    private void seedTag(String tag, long usageCount) {
+        Map<String, Object> fields = new HashMap<>();
+        fields.put("usageCount", usageCount);
+        data.store.seed("tags/" + tag, fields);
+    }
+
+    private static class NoOp implements TagDB.Callback<Void> {
+        @Override
+        public void onSuccess(Void value) { }
+
+        @Override
+        public void onError(@NonNull Exception e) {
+            fail(e.getMessage());
+        }
+    }
+}
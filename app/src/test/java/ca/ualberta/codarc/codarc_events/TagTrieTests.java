@@ -0,0 +1,131 @@
+package ca.ualberta.codarc.codarc_events;
+
+import ca.ualberta.codarc.codarc_events.utils.TagTrie;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Ranking and updates of {@link TagTrie}.
+ */
+public class TagTrieTests {
+
+    @Test
+    public void suggest_ranksByUsageThenName() {
+        TagTrie trie = new TagTrie(5);
+        trie.put("swimming", 3);
+        trie.put("swing dance", 9);
+        trie.put("sweets", 3);
+        trie.put("music", 50);
+
+        assertEquals(Arrays.asList("swing dance", "sweets", "swimming"), trie.suggest("sw", 5));
+        assertEquals(Arrays.asList("swing dance", "sweets"), trie.suggest("SW", 2));
+        assertEquals(Arrays.asList("music", "swing dance", "sweets", "swimming"), trie.suggest("", 5));
+        assertTrue(trie.suggest("x", 5).isEmpty());
+    }
+
+    @Test
+    public void suggest_matchesLaterWordsOnce() {
+        TagTrie trie = new TagTrie(5);
+        trie.put("rock climbing", 4);
+        trie.put("climbing-club", 2);
+        trie.put("run run", 1);
+
+        assertEquals(Arrays.asList("rock climbing", "climbing-club"), trie.suggest("climb", 5));
+        assertEquals(Collections.singletonList("climbing-club"), trie.suggest("club", 5));
+        assertEquals(Collections.singletonList("run run"), trie.suggest("run", 5));
+    }
+
+    @Test
+    public void put_changedCountReranks() {
+        TagTrie trie = new TagTrie(3);
+        trie.put("chess", 1);
+        trie.put("cheese", 2);
+        assertEquals(Arrays.asList("cheese", "chess"), trie.suggest("che", 3));
+
+        trie.put("chess", 10);
+        assertEquals(Arrays.asList("chess", "cheese"), trie.suggest("che", 3));
+        assertEquals(2, trie.size());
+    }
+
+    @Test
+    public void remove_dropsTagAndPrunes() {
+        TagTrie trie = new TagTrie(3);
+        trie.put("hiking", 1);
+        trie.put("hike club", 1);
+
+        trie.remove("Hiking ");
+        assertEquals(Collections.singletonList("hike club"), trie.suggest("hik", 3));
+        trie.remove("hike club");
+        assertTrue(trie.suggest("h", 3).isEmpty());
+        assertTrue(trie.suggest("club", 3).isEmpty());
+        assertFalse(trie.contains("hiking"));
+        assertEquals(0, trie.size());
+    }
+
+    @Test
+    public void suggest_matchesBruteForceAfterRandomUpdates() {
+        Random random = new Random(5);
+        TagTrie trie = new TagTrie(6);
+        List<String> names = randomTags(random, 2_000);
+        long[] counts = new long[names.size()];
+        for (int i = 0; i < names.size(); i++) {
+            counts[i] = random.nextInt(100);
+            trie.put(names.get(i), counts[i]);
+        }
+        for (int round = 0; round < 500; round++) {
+            int i = random.nextInt(names.size());
+            counts[i] = random.nextInt(100);
+            trie.put(names.get(i), counts[i]);
+            String prefix = names.get(random.nextInt(names.size())).substring(0, 2);
+            assertEquals(prefix, bruteForce(names, counts, prefix, 6), trie.suggest(prefix, 6));
+        }
+    }
+
+    private static List<String> randomTags(Random random, int count) {
+        List<String> names = new ArrayList<>(count);
+        java.util.Set<String> seen = new java.util.HashSet<>();
+        while (names.size() < count) {
+            int words = 1 + random.nextInt(2);
+            StringBuilder sb = new StringBuilder();
+            for (int w = 0; w < words; w++) {
+                if (w > 0) {
+                    sb.append(' ');
+                }
+                int length = 3 + random.nextInt(7);
+                for (int i = 0; i < length; i++) {
+                    sb.append((char) ('a' + random.nextInt(26)));
+                }
+            }
+            if (seen.add(sb.toString())) {
+                names.add(sb.toString());
+            }
+        }
+        return names;
+    }
+
+    private static List<String> bruteForce(List<String> names, long[] counts, String prefix, int limit) {
+        List<Integer> matches = new ArrayList<>();
+        for (int i = 0; i < names.size(); i++) {
+            String name = names.get(i);
+            if (name.startsWith(prefix) || name.contains(" " + prefix)) {
+                matches.add(i);
+            }
+        }
+        matches.sort((a, b) -> counts[a] != counts[b]
+                ? Long.compare(counts[b], counts[a])
+                : names.get(a).compareTo(names.get(b)));
+        List<String> result = new ArrayList<>();
+        for (int i = 0; i < Math.min(limit, matches.size()); i++) {
+            result.add(names.get(matches.get(i)));
+        }
+        return result;
+    }
+}
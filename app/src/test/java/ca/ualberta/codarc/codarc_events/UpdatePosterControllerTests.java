@@ -6,11 +6,15 @@ import ca.ualberta.codarc.codarc_events.controllers.UpdatePosterController;
 import ca.ualberta.codarc.codarc_events.data.EventDB;
 import ca.ualberta.codarc.codarc_events.data.PosterStorage;
 import ca.ualberta.codarc.codarc_events.models.Event;
+import ca.ualberta.codarc.codarc_events.models.PosterRendition;
 
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
 
+import java.util.EnumMap;
+import java.util.Map;
+
 import static org.junit.Assert.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
@@ -99,7 +103,7 @@ public class UpdatePosterControllerTests {
         controller.updatePoster(event, mockUri, cb);
 
         @SuppressWarnings("unchecked")
-        ArgumentCaptor<PosterStorage.Callback<String>> uploadCap =
+        ArgumentCaptor<PosterStorage.Callback<Map<PosterRendition, String>>> uploadCap =
                 ArgumentCaptor.forClass(PosterStorage.Callback.class);
         verify(mockPosterStorage).uploadPoster(eq("E1"), eq(mockUri), uploadCap.capture());
 
@@ -128,12 +132,12 @@ public class UpdatePosterControllerTests {
         controller.updatePoster(event, mockUri, cb);
 
         @SuppressWarnings("unchecked")
-        ArgumentCaptor<PosterStorage.Callback<String>> uploadCap =
+        ArgumentCaptor<PosterStorage.Callback<Map<PosterRendition, String>>> uploadCap =
                 ArgumentCaptor.forClass(PosterStorage.Callback.class);
         verify(mockPosterStorage).uploadPoster(eq("E1"), eq(mockUri), uploadCap.capture());
 
-        uploadCap.getValue().onSuccess("https://example.com/poster.jpg");
-        assertEquals("https://example.com/poster.jpg", event.getPosterUrl());
+        uploadCap.getValue().onSuccess(urls("https://example.com/poster"));
+        assertEquals("https://example.com/poster/full.webp", event.getPosterUrl());
 
         @SuppressWarnings("unchecked")
         ArgumentCaptor<EventDB.Callback<Void>> eventCap =
@@ -163,13 +167,15 @@ public class UpdatePosterControllerTests {
         controller.updatePoster(event, mockUri, cb);
 
         @SuppressWarnings("unchecked")
-        ArgumentCaptor<PosterStorage.Callback<String>> uploadCap =
+        ArgumentCaptor<PosterStorage.Callback<Map<PosterRendition, String>>> uploadCap =
                 ArgumentCaptor.forClass(PosterStorage.Callback.class);
         verify(mockPosterStorage).uploadPoster(eq("E1"), eq(mockUri), uploadCap.capture());
 
-        String newUrl = "https://example.com/posters/E1.jpg";
-        uploadCap.getValue().onSuccess(newUrl);
+        String newUrl = "https://example.com/posters/E1/full.webp";
+        uploadCap.getValue().onSuccess(urls("https://example.com/posters/E1"));
         assertEquals(newUrl, event.getPosterUrl());
+        assertEquals("https://example.com/posters/E1/thumb.webp", event.getPosterUrl(PosterRendition.THUMB));
+        assertEquals("https://example.com/posters/E1/card.webp", event.getPosterUrl(PosterRendition.CARD));
 
         @SuppressWarnings("unchecked")
         ArgumentCaptor<EventDB.Callback<Void>> eventCap =
@@ -189,4 +195,12 @@ public class UpdatePosterControllerTests {
         assertSame(event, res.getUpdatedEvent());
         assertEquals(newUrl, res.getUpdatedEvent().getPosterUrl());
     }
+
+    private static Map<PosterRendition, String> urls(String base) {
+        Map<PosterRendition, String> urls = new EnumMap<>(PosterRendition.class);
+        for (PosterRendition rendition : PosterRendition.values()) {
+            urls.put(rendition, base + "/" + rendition.getSuffix() + ".webp");
+        }
+        return urls;
+    }
 }
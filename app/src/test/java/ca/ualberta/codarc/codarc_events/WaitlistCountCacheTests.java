@@ -0,0 +1,211 @@
+package ca.ualberta.codarc.codarc_events;
+
+import ca.ualberta.codarc.codarc_events.data.CoalescingCache;
+import ca.ualberta.codarc.codarc_events.data.EventDB;
+import ca.ualberta.codarc.codarc_events.data.WaitlistCountCache;
+
+import com.google.firebase.firestore.ListenerRegistration;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class WaitlistCountCacheTests {
+
+    private static final long TTL = 1000;
+
+    private EventDB mockEventDb;
+    private long now;
+    private CoalescingCache<Integer> counts;
+    private WaitlistCountCache cache;
+
+    @Before
+    public void setUp() {
+        mockEventDb = mock(EventDB.class);
+        now = 0;
+        counts = new CoalescingCache<>(TTL, () -> now);
+        cache = new WaitlistCountCache(mockEventDb, counts);
+    }
+
+    @SuppressWarnings("unchecked")
+    private EventDB.Callback<Integer> captureCountLoad(String eventId) {
+        ArgumentCaptor<EventDB.Callback<Integer>> cap = ArgumentCaptor.forClass(EventDB.Callback.class);
+        verify(mockEventDb).getWaitlistCount(eq(eventId), cap.capture());
+        return cap.getValue();
+    }
+
+    @Test
+    public void concurrentRequests_shareOneLoad() {
+        EventDB.Callback<Integer> cb1 = mock(EventDB.Callback.class);
+        EventDB.Callback<Integer> cb2 = mock(EventDB.Callback.class);
+
+        cache.getWaitlistCount("E1", cb1);
+        cache.getWaitlistCount("E1", cb2);
+
+        captureCountLoad("E1").onSuccess(7);
+
+        verify(cb1).onSuccess(7);
+        verify(cb2).onSuccess(7);
+        assertEquals(1, counts.getMissCount());
+        assertEquals(1, counts.getCoalescedCount());
+
+        cache.getWaitlistCount("E1", mock(EventDB.Callback.class));
+        CoalescingCache.Stats stats = counts.getStats();
+        assertEquals(1, stats.getHits());
+        assertEquals(1, stats.getMisses());
+        assertEquals(1, stats.getCoalesced());
+        assertEquals(2.0 / 3, stats.getHitRate(), 1e-9);
+    }
+
+    @Test
+    public void freshValue_servedWithoutRead() {
+        cache.getWaitlistCount("E1", mock(EventDB.Callback.class));
+        captureCountLoad("E1").onSuccess(3);
+
+        EventDB.Callback<Integer> again = mock(EventDB.Callback.class);
+        now = TTL - 1;
+        cache.getWaitlistCount("E1", again);
+
+        verify(again).onSuccess(3);
+        verify(mockEventDb, times(1)).getWaitlistCount(eq("E1"), any());
+        assertEquals(Integer.valueOf(3), cache.peekWaitlistCount("E1"));
+    }
+
+    @Test
+    public void staleValue_isReloaded() {
+        cache.getWaitlistCount("E1", mock(EventDB.Callback.class));
+        captureCountLoad("E1").onSuccess(3);
+
+        now = TTL;
+        assertNull(cache.peekWaitlistCount("E1"));
+        cache.getWaitlistCount("E1", mock(EventDB.Callback.class));
+
+        verify(mockEventDb, times(2)).getWaitlistCount(eq("E1"), any());
+    }
+
+    @Test
+    public void invalidate_forcesReload() {
+        cache.getWaitlistCount("E1", mock(EventDB.Callback.class));
+        captureCountLoad("E1").onSuccess(3);
+
+        cache.invalidate("E1");
+        cache.getWaitlistCount("E1", mock(EventDB.Callback.class));
+
+        verify(mockEventDb, times(2)).getWaitlistCount(eq("E1"), any());
+    }
+
+    @Test
+    public void invalidateDuringLoad_resultNotCached() {
+        EventDB.Callback<Integer> cb = mock(EventDB.Callback.class);
+        cache.getWaitlistCount("E1", cb);
+        EventDB.Callback<Integer> load = captureCountLoad("E1");
+
+        cache.invalidate("E1");
+        load.onSuccess(5);
+
+        verify(cb).onSuccess(5);
+        assertNull(cache.peekWaitlistCount("E1"));
+    }
+
+    @Test
+    public void loadError_reachesAllWaiters_andIsNotCached() {
+        EventDB.Callback<Integer> cb1 = mock(EventDB.Callback.class);
+        EventDB.Callback<Integer> cb2 = mock(EventDB.Callback.class);
+        cache.getWaitlistCount("E1", cb1);
+        cache.getWaitlistCount("E1", cb2);
+
+        Exception boom = new RuntimeException("count fail");
+        captureCountLoad("E1").onError(boom);
+
+        verify(cb1).onError(boom);
+        verify(cb2).onError(boom);
+        assertNull(cache.peekWaitlistCount("E1"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void watch_registersOnce_andCounterUpdatesCache() {
+        ListenerRegistration registration = mock(ListenerRegistration.class);
+        when(mockEventDb.addWaitlistCounterListener(eq("E1"), any())).thenReturn(registration);
+
+        cache.watch("E1");
+        cache.watch("E1");
+
+        ArgumentCaptor<EventDB.Callback<Integer>> cap = ArgumentCaptor.forClass(EventDB.Callback.class);
+        verify(mockEventDb, times(1)).addWaitlistCounterListener(eq("E1"), cap.capture());
+
+        cap.getValue().onSuccess(12);
+        EventDB.Callback<Integer> cb = mock(EventDB.Callback.class);
+        cache.getWaitlistCount("E1", cb);
+
+        verify(cb).onSuccess(12);
+        verify(mockEventDb, never()).getWaitlistCount(anyString(), any());
+
+        cache.releaseListeners();
+        verify(registration).remove();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void watch_withoutCounter_invalidatesOnlyOnLaterChanges() {
+        when(mockEventDb.addWaitlistCounterListener(eq("E1"), any()))
+                .thenReturn(mock(ListenerRegistration.class));
+        cache.watch("E1");
+        ArgumentCaptor<EventDB.Callback<Integer>> cap = ArgumentCaptor.forClass(EventDB.Callback.class);
+        verify(mockEventDb).addWaitlistCounterListener(eq("E1"), cap.capture());
+
+        cache.getWaitlistCount("E1", mock(EventDB.Callback.class));
+        captureCountLoad("E1").onSuccess(4);
+
+        cap.getValue().onSuccess(null);
+        assertEquals(Integer.valueOf(4), cache.peekWaitlistCount("E1"));
+
+        cap.getValue().onSuccess(null);
+        assertNull(cache.peekWaitlistCount("E1"));
+    }
+
+    @Test
+    public void unwatch_lastWatcherRemovesListener() {
+        ListenerRegistration registration = mock(ListenerRegistration.class);
+        when(mockEventDb.addWaitlistCounterListener(eq("E1"), any())).thenReturn(registration);
+
+        cache.watch("E1");
+        cache.watch("E1");
+        cache.unwatch("E1");
+        verify(registration, never()).remove();
+        assertEquals(1, cache.watchedCount());
+
+        cache.unwatch("E1");
+        verify(registration).remove();
+        assertEquals(0, cache.watchedCount());
+
+        cache.unwatch("E1");
+        cache.unwatch(null);
+        verify(registration, times(1)).remove();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void counterChange_notifiesChangeListeners() {
+        when(mockEventDb.addWaitlistCounterListener(eq("E1"), any()))
+                .thenReturn(mock(ListenerRegistration.class));
+        WaitlistCountCache.OnCountChangeListener listener = mock(WaitlistCountCache.OnCountChangeListener.class);
+        cache.addOnCountChangeListener(listener);
+        cache.watch("E1");
+        ArgumentCaptor<EventDB.Callback<Integer>> cap = ArgumentCaptor.forClass(EventDB.Callback.class);
+        verify(mockEventDb).addWaitlistCounterListener(eq("E1"), cap.capture());
+
+        cap.getValue().onSuccess(3);
+        cap.getValue().onSuccess(3);
+        cap.getValue().onSuccess(4);
+
+        verify(listener, times(2)).onWaitlistCountChanged("E1");
+        cache.removeOnCountChangeListener(listener);
+        cap.getValue().onSuccess(5);
+        verify(listener, times(2)).onWaitlistCountChanged("E1");
+    }
+}
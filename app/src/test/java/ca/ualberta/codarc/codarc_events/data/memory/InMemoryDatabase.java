@@ -0,0 +1,272 @@
+package ca.ualberta.codarc.codarc_events.data.memory;
+
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Runs repository operations against an {@link InMemoryDocumentStore} with simulated
+ * network behaviour.
+ * Each operation is one round trip: its body runs against the store once the configured
+ * latency has passed, and its callback is delivered by the {@link Dispatcher}. Latency and
+ * failures are set per operation name, using the names FirestoreMetrics records
+ * (for example "EventDB.joinWaitlist"), so one step of a flow can be slowed or broken.
+ */
+public class InMemoryDatabase {
+
+    /**
+     * Decides where and when operation bodies and their callbacks run.
+     */
+    public interface Dispatcher {
+        void dispatch(long delayMs, Runnable task);
+    }
+
+    /**
+     * Error delivered for failures injected with {@link #setFailureRate} or {@link #failNext}.
+     */
+    public static class InjectedFailureException extends RuntimeException {
+        public InjectedFailureException(String operation) {
+            super("Injected failure: " + operation);
+        }
+    }
+
+    private final InMemoryDocumentStore store;
+    private final Dispatcher dispatcher;
+    private final Random random;
+    private final Map<String, long[]> latencies = new ConcurrentHashMap<>();
+    private final Map<String, Double> failureRates = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> forcedFailures = new ConcurrentHashMap<>();
+    private volatile long[] defaultLatency = {0, 0};
+    private volatile LongSupplier clock = System::currentTimeMillis;
+
+    public InMemoryDatabase(Dispatcher dispatcher) {
+        this(new InMemoryDocumentStore(), dispatcher, 0L);
+    }
+
+    /**
+     * @param store the documents to operate on
+     * @param dispatcher runs operations and callbacks
+     * @param seed seed for latency jitter and random failures, so runs repeat
+     */
+    public InMemoryDatabase(InMemoryDocumentStore store, Dispatcher dispatcher, long seed) {
+        this.store = store;
+        this.dispatcher = dispatcher;
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Runs every operation and callback on the calling thread, ignoring latency.
+     */
+    public static Dispatcher inline() {
+        return (delayMs, task) -> task.run();
+    }
+
+    /**
+     * Runs operations on an executor after their latency. Use a single-threaded
+     * executor to keep the main-thread callback ordering controllers expect.
+     */
+    public static Dispatcher on(ScheduledExecutorService executor) {
+        return (delayMs, task) -> {
+            if (delayMs > 0) {
+                executor.schedule(task, delayMs, TimeUnit.MILLISECONDS);
+            } else {
+                executor.execute(task);
+            }
+        };
+    }
+
+    public InMemoryDocumentStore getStore() {
+        return store;
+    }
+
+    /**
+     * Sets the clock used for stored timestamps and cache expiry, for example
+     * {@link QueuedDispatcher#now()} to keep everything on simulated time.
+     */
+    public void setClock(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    public long now() {
+        return clock.getAsLong();
+    }
+
+    /**
+     * Sets the latency used by operations without their own setting.
+     */
+    public void setDefaultLatency(long minMs, long maxMs) {
+        defaultLatency = checkedRange(minMs, maxMs);
+    }
+
+    /**
+     * Sets the latency of one operation; each call waits a uniform time in [minMs, maxMs].
+     */
+    public void setLatency(String operation, long minMs, long maxMs) {
+        latencies.put(operation, checkedRange(minMs, maxMs));
+    }
+
+    /**
+     * Makes a fraction of calls to an operation fail with {@link InjectedFailureException}.
+     */
+    public void setFailureRate(String operation, double rate) {
+        if (rate < 0 || rate > 1) {
+            throw new IllegalArgumentException("rate must be between 0 and 1");
+        }
+        failureRates.put(operation, rate);
+    }
+
+    /**
+     * Makes the next count calls to an operation fail.
+     */
+    public void failNext(String operation, int count) {
+        forcedFailures.computeIfAbsent(operation, key -> new AtomicInteger()).addAndGet(count);
+    }
+
+    /**
+     * Clears all latency and failure settings.
+     */
+    public void reset() {
+        latencies.clear();
+        failureRates.clear();
+        forcedFailures.clear();
+        defaultLatency = new long[]{0, 0};
+    }
+
+    /**
+     * Runs one round trip. The body runs after the operation's latency; its result or
+     * exception is passed to the matching callback on the same dispatch.
+     */
+    public <T> void execute(String operation, Callable<T> body,
+                            Consumer<T> onSuccess, Consumer<Exception> onError) {
+        long delayMs = sampleLatency(operation);
+        boolean fail = shouldFail(operation);
+        dispatcher.dispatch(delayMs, () -> {
+            if (fail) {
+                onError.accept(new InjectedFailureException(operation));
+                return;
+            }
+            T value;
+            try {
+                value = body.call();
+            } catch (Exception e) {
+                onError.accept(e);
+                return;
+            }
+            onSuccess.accept(value);
+        });
+    }
+
+    /**
+     * Delivers a listener snapshot; snapshots have latency but are never failed.
+     */
+    void deliver(String operation, Runnable task) {
+        dispatcher.dispatch(sampleLatency(operation), task);
+    }
+
+    private long sampleLatency(String operation) {
+        long[] range = latencies.get(operation);
+        if (range == null) {
+            range = defaultLatency;
+        }
+        if (range[1] <= range[0]) {
+            return range[0];
+        }
+        synchronized (random) {
+            return range[0] + (long) (random.nextDouble() * (range[1] - range[0] + 1));
+        }
+    }
+
+    private boolean shouldFail(String operation) {
+        AtomicInteger forced = forcedFailures.get(operation);
+        if (forced != null && forced.getAndUpdate(n -> n > 0 ? n - 1 : 0) > 0) {
+            return true;
+        }
+        Double rate = failureRates.get(operation);
+        if (rate == null || rate <= 0) {
+            return false;
+        }
+        synchronized (random) {
+            return random.nextDouble() < rate;
+        }
+    }
+
+    private static long[] checkedRange(long minMs, long maxMs) {
+        if (minMs < 0 || maxMs < minMs) {
+            throw new IllegalArgumentException("latency range must satisfy 0 <= min <= max");
+        }
+        return new long[]{minMs, maxMs};
+    }
+
+    /**
+     * Queues operations on a virtual clock instead of running them on threads.
+     * Nothing runs until {@link #runUntilIdle()}, which delivers tasks in due-time order
+     * and advances {@link #now()}; tasks due at the same time run in the order they were
+     * queued, the way Firestore listeners fire on later main-looper turns.
+     */
+    public static class QueuedDispatcher implements Dispatcher {
+
+        private static final class Pending {
+            final long dueMs;
+            final long sequence;
+            final Runnable task;
+
+            Pending(long dueMs, long sequence, Runnable task) {
+                this.dueMs = dueMs;
+                this.sequence = sequence;
+                this.task = task;
+            }
+        }
+
+        private final PriorityQueue<Pending> queue = new PriorityQueue<>((a, b) -> a.dueMs != b.dueMs
+                ? Long.compare(a.dueMs, b.dueMs)
+                : Long.compare(a.sequence, b.sequence));
+        private long nowMs;
+        private long nextSequence;
+
+        @Override
+        public synchronized void dispatch(long delayMs, Runnable task) {
+            queue.add(new Pending(nowMs + delayMs, nextSequence++, task));
+        }
+
+        /**
+         * Runs queued tasks, including any queued while running, until none are left.
+         *
+         * @return the number of tasks run
+         */
+        public int runUntilIdle() {
+            int delivered = 0;
+            while (true) {
+                Pending next;
+                synchronized (this) {
+                    next = queue.poll();
+                    if (next == null) {
+                        return delivered;
+                    }
+                    nowMs = Math.max(nowMs, next.dueMs);
+                }
+                next.task.run();
+                if (++delivered > 10_000_000) {
+                    throw new IllegalStateException("Callbacks did not settle");
+                }
+            }
+        }
+
+        /**
+         * @return simulated milliseconds elapsed since the dispatcher was created
+         */
+        public synchronized long now() {
+            return nowMs;
+        }
+
+        public synchronized int pending() {
+            return queue.size();
+        }
+    }
+}
@@ -0,0 +1,308 @@
+package ca.ualberta.codarc.codarc_events.data.memory;
+
+import com.google.firebase.firestore.ListenerRegistration;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Thread-safe stand-in for Firestore documents.
+ * Documents live under slash-separated paths ("events/E1/waitingList/d1") and every
+ * access is billed the way Firestore bills it: one read per document fetched, one read
+ * per query result (at least one per query), one write per set, update, add or delete.
+ * Seeding and inspection are not billed.
+ */
+public class InMemoryDocumentStore {
+
+    /**
+     * A document returned from a query.
+     */
+    public static class Doc {
+        private final String id;
+        private final Map<String, Object> data;
+
+        Doc(String id, Map<String, Object> data) {
+            this.id = id;
+            this.data = data;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public Map<String, Object> getData() {
+            return data;
+        }
+    }
+
+    private final Map<String, LinkedHashMap<String, Map<String, Object>>> collections = new HashMap<>();
+    private final Map<String, List<Consumer<String>>> listeners = new HashMap<>();
+    private long reads;
+    private long writes;
+    private long deletes;
+    private int nextAutoId;
+
+    // ---- seeding (not billed) ----
+
+    public synchronized void seed(String path, Map<String, Object> data) {
+        String[] parts = split(path);
+        collection(parts[0], true).put(parts[1], new HashMap<>(data));
+    }
+
+    // ---- billed operations ----
+
+    /**
+     * Reads one document.
+     *
+     * @return a copy of the document, or null if there is none
+     */
+    public synchronized Map<String, Object> get(String path) {
+        reads++;
+        return peek(path);
+    }
+
+    public synchronized List<Doc> query(String collectionPath) {
+        return query(collectionPath, data -> true);
+    }
+
+    /**
+     * Runs an indexed query; only matching documents are billed.
+     */
+    public synchronized List<Doc> query(String collectionPath, Predicate<Map<String, Object>> filter) {
+        List<Doc> results = new ArrayList<>();
+        LinkedHashMap<String, Map<String, Object>> docs = collection(collectionPath, false);
+        if (docs != null) {
+            for (Map.Entry<String, Map<String, Object>> entry : docs.entrySet()) {
+                if (filter.test(entry.getValue())) {
+                    results.add(new Doc(entry.getKey(), new HashMap<>(entry.getValue())));
+                }
+            }
+        }
+        reads += Math.max(1, results.size());
+        return results;
+    }
+
+    /**
+     * Runs an indexed, ordered query with a cursor and a limit; only the returned page
+     * is billed.
+     *
+     * @param startAfter only documents ordered after this one are returned (null for the first page)
+     */
+    public synchronized List<Doc> queryPage(String collectionPath, Predicate<Map<String, Object>> filter,
+                                            Comparator<Doc> order, Doc startAfter, int limit) {
+        List<Doc> matches = new ArrayList<>();
+        LinkedHashMap<String, Map<String, Object>> docs = collection(collectionPath, false);
+        if (docs != null) {
+            for (Map.Entry<String, Map<String, Object>> entry : docs.entrySet()) {
+                if (!filter.test(entry.getValue())) {
+                    continue;
+                }
+                Doc doc = new Doc(entry.getKey(), new HashMap<>(entry.getValue()));
+                if (startAfter == null || order.compare(doc, startAfter) > 0) {
+                    matches.add(doc);
+                }
+            }
+        }
+        matches.sort(order);
+        List<Doc> results = new ArrayList<>(matches.subList(0, Math.min(limit, matches.size())));
+        reads += Math.max(1, results.size());
+        return results;
+    }
+
+    /**
+     * Aggregate count query; billed one read per 1000 index entries.
+     */
+    public synchronized int count(String collectionPath) {
+        int size = size(collectionPath);
+        reads += Math.max(1, (size + 999) / 1000);
+        return size;
+    }
+
+    public synchronized void set(String path, Map<String, Object> data) {
+        writes++;
+        String[] parts = split(path);
+        collection(parts[0], true).put(parts[1], new HashMap<>(data));
+        notifyListeners(path, parts[0]);
+    }
+
+    /**
+     * Merges fields into a document, creating it if needed.
+     */
+    public synchronized void merge(String path, Map<String, Object> data) {
+        writes++;
+        String[] parts = split(path);
+        LinkedHashMap<String, Map<String, Object>> docs = collection(parts[0], true);
+        Map<String, Object> existing = docs.get(parts[1]);
+        if (existing == null) {
+            existing = new HashMap<>();
+            docs.put(parts[1], existing);
+        }
+        existing.putAll(data);
+        notifyListeners(path, parts[0]);
+    }
+
+    /**
+     * Updates fields of an existing document.
+     *
+     * @throws IllegalStateException if the document does not exist; nothing is billed
+     */
+    public synchronized void update(String path, Map<String, Object> data) {
+        if (!exists(path)) {
+            throw new IllegalStateException("No document to update: " + path);
+        }
+        merge(path, data);
+    }
+
+    /**
+     * Adds a document with a generated ID.
+     *
+     * @return the new document ID
+     */
+    public synchronized String add(String collectionPath, Map<String, Object> data) {
+        String id = "auto" + (nextAutoId++);
+        set(collectionPath + "/" + id, data);
+        return id;
+    }
+
+    public synchronized void delete(String path) {
+        deletes++;
+        String[] parts = split(path);
+        LinkedHashMap<String, Map<String, Object>> docs = collection(parts[0], false);
+        if (docs != null && docs.remove(parts[1]) != null) {
+            notifyListeners(path, parts[0]);
+        }
+    }
+
+    // ---- listeners ----
+
+    /**
+     * Registers a listener for a document path, or for every direct child of a
+     * collection path. It receives the path of each changed document and is called
+     * while the store is locked, so it must hand work off rather than block.
+     */
+    public synchronized ListenerRegistration addListener(String path, Consumer<String> listener) {
+        List<Consumer<String>> forPath = listeners.get(path);
+        if (forPath == null) {
+            forPath = new ArrayList<>();
+            listeners.put(path, forPath);
+        }
+        forPath.add(listener);
+        return () -> {
+            synchronized (InMemoryDocumentStore.this) {
+                List<Consumer<String>> current = listeners.get(path);
+                if (current != null) {
+                    current.remove(listener);
+                }
+            }
+        };
+    }
+
+    /**
+     * Bills reads for documents served without going through the billed operations,
+     * e.g. a query answered from {@link #snapshot}.
+     */
+    synchronized void billReads(long documents) {
+        reads += documents;
+    }
+
+    // ---- inspection (not billed) ----
+
+    /**
+     * Reads a document without billing it.
+     */
+    public synchronized Map<String, Object> peek(String path) {
+        String[] parts = split(path);
+        LinkedHashMap<String, Map<String, Object>> docs = collection(parts[0], false);
+        Map<String, Object> data = docs != null ? docs.get(parts[1]) : null;
+        return data != null ? new HashMap<>(data) : null;
+    }
+
+    /**
+     * Lists a collection without billing it.
+     */
+    public synchronized List<Doc> snapshot(String collectionPath) {
+        List<Doc> results = new ArrayList<>();
+        LinkedHashMap<String, Map<String, Object>> docs = collection(collectionPath, false);
+        if (docs != null) {
+            for (Map.Entry<String, Map<String, Object>> entry : docs.entrySet()) {
+                results.add(new Doc(entry.getKey(), new HashMap<>(entry.getValue())));
+            }
+        }
+        return results;
+    }
+
+    public synchronized boolean exists(String path) {
+        String[] parts = split(path);
+        LinkedHashMap<String, Map<String, Object>> docs = collection(parts[0], false);
+        return docs != null && docs.containsKey(parts[1]);
+    }
+
+    public synchronized int size(String collectionPath) {
+        LinkedHashMap<String, Map<String, Object>> docs = collection(collectionPath, false);
+        return docs != null ? docs.size() : 0;
+    }
+
+    public synchronized List<String> ids(String collectionPath) {
+        LinkedHashMap<String, Map<String, Object>> docs = collection(collectionPath, false);
+        return docs != null ? new ArrayList<>(docs.keySet()) : Collections.emptyList();
+    }
+
+    public synchronized long getReads() {
+        return reads;
+    }
+
+    /**
+     * @return document writes, including deletes
+     */
+    public synchronized long getWrites() {
+        return writes + deletes;
+    }
+
+    public synchronized long getDeletes() {
+        return deletes;
+    }
+
+    public synchronized void resetCounters() {
+        reads = 0;
+        writes = 0;
+        deletes = 0;
+    }
+
+    private void notifyListeners(String documentPath, String collectionPath) {
+        notifyListeners(listeners.get(documentPath), documentPath);
+        notifyListeners(listeners.get(collectionPath), documentPath);
+    }
+
+    private static void notifyListeners(List<Consumer<String>> forPath, String documentPath) {
+        if (forPath == null) {
+            return;
+        }
+        for (Consumer<String> listener : new ArrayList<>(forPath)) {
+            listener.accept(documentPath);
+        }
+    }
+
+    private LinkedHashMap<String, Map<String, Object>> collection(String path, boolean create) {
+        LinkedHashMap<String, Map<String, Object>> docs = collections.get(path);
+        if (docs == null && create) {
+            docs = new LinkedHashMap<>();
+            collections.put(path, docs);
+        }
+        return docs;
+    }
+
+    private static String[] split(String documentPath) {
+        int slash = documentPath.lastIndexOf('/');
+        if (slash <= 0) {
+            throw new IllegalArgumentException("Not a document path: " + documentPath);
+        }
+        return new String[]{documentPath.substring(0, slash), documentPath.substring(slash + 1)};
+    }
+}
@@ -0,0 +1,604 @@
+package ca.ualberta.codarc.codarc_events.data.memory;
+
+import androidx.annotation.NonNull;
+
+import com.google.firebase.firestore.ListenerRegistration;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import ca.ualberta.codarc.codarc_events.data.DocumentMappers;
+import ca.ualberta.codarc.codarc_events.data.EntrantDB;
+import ca.ualberta.codarc.codarc_events.data.EntrantRepository;
+import ca.ualberta.codarc.codarc_events.data.MembershipStore;
+import ca.ualberta.codarc.codarc_events.models.Entrant;
+import ca.ualberta.codarc.codarc_events.models.MembershipStatus;
+import ca.ualberta.codarc.codarc_events.models.NotificationEntry;
+import ca.ualberta.codarc.codarc_events.utils.ValidationHelper;
+
+/**
+ * In-memory {@link EntrantRepository} with the same document layout, round trips and
+ * billing as {@link EntrantDB}.
+ */
+public class InMemoryEntrantRepository implements EntrantRepository {
+
+    private static final int BATCH_SIZE = 500;
+
+    private final InMemoryDatabase database;
+    private final InMemoryDocumentStore store;
+
+    public InMemoryEntrantRepository(InMemoryDatabase database) {
+        this.database = database;
+        this.store = database.getStore();
+    }
+
+    @Override
+    public void getOrCreateEntrant(String deviceId, EntrantDB.Callback<Void> cb) {
+        entrantExists(deviceId, new EntrantDB.Callback<Boolean>() {
+            @Override
+            public void onSuccess(Boolean exists) {
+                cb.onSuccess(null);
+            }
+
+            @Override
+            public void onError(@NonNull Exception e) {
+                cb.onError(e);
+            }
+        });
+    }
+
+    @Override
+    public void entrantExists(String deviceId, EntrantDB.Callback<Boolean> cb) {
+        try {
+            ValidationHelper.requireNonEmpty(deviceId, "deviceId");
+        } catch (IllegalArgumentException e) {
+            cb.onError(e);
+            return;
+        }
+        database.execute("EntrantDB.entrantExists", () -> store.get("entrants/" + deviceId) != null,
+                cb::onSuccess, cb::onError);
+    }
+
+    @Override
+    public void createEntrant(Entrant entrant, EntrantDB.Callback<Void> cb) {
+        try {
+            ValidationHelper.requireNonNull(entrant, "entrant");
+            ValidationHelper.requireNonEmpty(entrant.getDeviceId(), "entrant.deviceId");
+        } catch (IllegalArgumentException e) {
+            cb.onError(e);
+            return;
+        }
+        database.execute("EntrantDB.createEntrant", () -> {
+            store.set("entrants/" + entrant.getDeviceId(), toDocument(entrant));
+            return (Void) null;
+        }, cb::onSuccess, cb::onError);
+    }
+
+    @Override
+    public void getProfile(String deviceId, EntrantDB.Callback<Entrant> cb) {
+        try {
+            ValidationHelper.requireNonEmpty(deviceId, "deviceId");
+        } catch (IllegalArgumentException e) {
+            cb.onError(e);
+            return;
+        }
+        database.execute("EntrantDB.getProfile", () -> {
+            Map<String, Object> data = store.get("entrants/" + deviceId);
+            return data != null ? toEntrant(data) : null;
+        }, cb::onSuccess, cb::onError);
+    }
+
+    @Override
+    public void upsertProfile(String deviceId, Entrant entrant, EntrantDB.Callback<Void> cb) {
+        try {
+            ValidationHelper.requireNonEmpty(deviceId, "deviceId");
+            ValidationHelper.requireNonNull(entrant, "entrant");
+        } catch (IllegalArgumentException e) {
+            cb.onError(e);
+            return;
+        }
+        entrant.setDeviceId(deviceId);
+        Map<String, Object> data = toDocument(entrant);
+        database.execute("EntrantDB.upsertProfile", () -> {
+            store.merge("entrants/" + deviceId, data);
+            return (Void) null;
+        }, cb::onSuccess, cb::onError);
+    }
+
+    @Override
+    public void addNotification(String deviceId, String eventId, String message, String category,
+                                EntrantDB.Callback<Void> cb) {
+        try {
+            ValidationHelper.requireNonEmpty(deviceId, "deviceId");
+            ValidationHelper.requireNonEmpty(message, "message");
+        } catch (IllegalArgumentException e) {
+            cb.onError(e);
+            return;
+        }
+        database.execute("EntrantDB.addNotification", () -> {
+            Map<String, Object> data = new HashMap<>();
+            data.put("eventId", eventId);
+            data.put("message", message);
+            data.put("category", category);
+            data.put("createdAt", database.now());
+            data.put("read", false);
+            store.add("entrants/" + deviceId + "/notifications", data);
+            return (Void) null;
+        }, cb::onSuccess, cb::onError);
+    }
+
+    @Override
+    public void getNotifications(String deviceId, EntrantDB.Callback<List<NotificationEntry>> cb) {
+        try {
+            ValidationHelper.requireNonEmpty(deviceId, "deviceId");
+        } catch (IllegalArgumentException e) {
+            cb.onError(e);
+            return;
+        }
+        database.execute("EntrantDB.getNotifications",
+                () -> notificationsNewestFirst(deviceId), cb::onSuccess, cb::onError);
+    }
+
+    @Override
+    public void updateNotificationState(String deviceId, String notificationId, Map<String, Object> updates,
+                                        EntrantDB.Callback<Void> cb) {
+        try {
+            ValidationHelper.requireNonEmpty(deviceId, "deviceId");
+            ValidationHelper.requireNonEmpty(notificationId, "notificationId");
+            ValidationHelper.requireNonNull(updates, "updates");
+            if (updates.isEmpty()) {
+                throw new IllegalArgumentException("updates cannot be empty");
+            }
+        } catch (IllegalArgumentException e) {
+            cb.onError(e);
+            return;
+        }
+        Map<String, Object> copy = new HashMap<>(updates);
+        database.execute("EntrantDB.updateNotificationState", () -> {
+            store.update("entrants/" + deviceId + "/notifications/" + notificationId, copy);
+            return (Void) null;
+        }, cb::onSuccess, cb::onError);
+    }
+
+    @Override
+    public void addEventToEntrant(String deviceId, String eventId, EntrantDB.Callback<Void> cb) {
+        try {
+            ValidationHelper.requireNonEmpty(deviceId, "deviceId");
+            ValidationHelper.requireNonEmpty(eventId, "eventId");
+        } catch (IllegalArgumentException e) {
+            cb.onError(e);
+            return;
+        }
+        database.execute("EntrantDB.addEventToEntrant", () -> {
+            Map<String, Object> data = new HashMap<>();
+            data.put("eventId", eventId);
+            store.merge("entrants/" + deviceId + "/events/" + eventId, data);
+            return (Void) null;
+        }, cb::onSuccess, cb::onError);
+    }
+
+    @Override
+    public void getEntrantEvents(String deviceId, EntrantDB.Callback<List<String>> cb) {
+        try {
+            ValidationHelper.requireNonEmpty(deviceId, "deviceId");
+        } catch (IllegalArgumentException e) {
+            cb.onError(e);
+            return;
+        }
+        database.execute("EntrantDB.getEntrantEvents", () -> {
+            List<String> eventIds = new ArrayList<>();
+            for (InMemoryDocumentStore.Doc doc : store.query("entrants/" + deviceId + "/events")) {
+                Object eventId = doc.getData().get("eventId");
+                if (eventId instanceof String) {
+                    eventIds.add((String) eventId);
+                }
+            }
+            return eventIds;
+        }, cb::onSuccess, cb::onError);
+    }
+
+    @Override
+    public void getRegistrationHistory(String deviceId, EntrantDB.Callback<List<String>> cb) {
+        getEntrantEvents(deviceId, cb);
+    }
+
+    @Override
+    public ListenerRegistration addEntrantEventsListener(String deviceId,
+                                                         EntrantDB.Callback<Map<String, MembershipStore.Entry>> cb) {
+        try {
+            ValidationHelper.requireNonEmpty(deviceId, "deviceId");
+        } catch (IllegalArgumentException e) {
+            cb.onError(e);
+            return null;
+        }
+        String path = "entrants/" + deviceId + "/events";
+        database.execute("EntrantDB.addEntrantEventsListener", () -> readEntries(path),
+                cb::onSuccess, cb::onError);
+        return store.addListener(path, changedPath -> database.deliver("EntrantDB.addEntrantEventsListener",
+                () -> cb.onSuccess(readEntries(path))));
+    }
+
+    private Map<String, MembershipStore.Entry> readEntries(String path) {
+        Map<String, MembershipStore.Entry> entries = new HashMap<>();
+        for (InMemoryDocumentStore.Doc doc : store.query(path)) {
+            Map<String, Object> data = doc.getData();
+            Object eventId = data.get("eventId");
+            Object status = data.get("status");
+            Object updatedAt = data.get("updatedAt");
+            entries.put(eventId instanceof String ? (String) eventId : doc.getId(), new MembershipStore.Entry(
+                    status instanceof String ? MembershipStatus.fromValue((String) status) : null,
+                    updatedAt instanceof Number ? ((Number) updatedAt).longValue() : 0));
+        }
+        return entries;
+    }
+
+    @Override
+    public void removeEventFromEntrant(String deviceId, String eventId, EntrantDB.Callback<Void> cb) {
+        try {
+            ValidationHelper.requireNonEmpty(deviceId, "deviceId");
+            ValidationHelper.requireNonEmpty(eventId, "eventId");
+        } catch (IllegalArgumentException e) {
+            cb.onError(e);
+            return;
+        }
+        database.execute("EntrantDB.removeEventFromEntrant", () -> {
+            store.delete("entrants/" + deviceId + "/events/" + eventId);
+            return (Void) null;
+        }, cb::onSuccess, cb::onError);
+    }
+
+    @Override
+    public void deleteAllEntrantEvents(String deviceId, EntrantDB.Callback<Void> cb) {
+        try {
+            ValidationHelper.requireNonEmpty(deviceId, "deviceId");
+        } catch (IllegalArgumentException e) {
+            cb.onError(e);
+            return;
+        }
+        String path = "entrants/" + deviceId + "/events";
+        database.execute("EntrantDB.deleteAllEntrantEvents", () -> store.query(path),
+                docs -> deleteInBatches(path, docs, 0, cb), cb::onError);
+    }
+
+    private void deleteInBatches(String path, List<InMemoryDocumentStore.Doc> docs, int start,
+                                 EntrantDB.Callback<Void> cb) {
+        if (start >= docs.size()) {
+            cb.onSuccess(null);
+            return;
+        }
+        int end = Math.min(start + BATCH_SIZE, docs.size());
+        database.execute("EntrantDB.deleteAllEntrantEvents", () -> {
+            synchronized (store) {
+                for (int i = start; i < end; i++) {
+                    store.delete(path + "/" + docs.get(i).getId());
+                }
+            }
+            return (Void) null;
+        }, unused -> deleteInBatches(path, docs, end, cb), cb::onError);
+    }
+
+    @Override
+    public void setBannedStatus(String deviceId, boolean banned, EntrantDB.Callback<Void> cb) {
+        try {
+            ValidationHelper.requireNonEmpty(deviceId, "deviceId");
+        } catch (IllegalArgumentException e) {
+            cb.onError(e);
+            return;
+        }
+        database.execute("EntrantDB.setBannedStatus", () -> {
+            store.update("entrants/" + deviceId, Collections.singletonMap("banned", banned));
+            return (Void) null;
+        }, cb::onSuccess, cb::onError);
+    }
+
+    @Override
+    public void isBanned(String deviceId, EntrantDB.Callback<Boolean> cb) {
+        try {
+            ValidationHelper.requireNonEmpty(deviceId, "deviceId");
+        } catch (IllegalArgumentException e) {
+            cb.onError(e);
+            return;
+        }
+        getProfile(deviceId, new EntrantDB.Callback<Entrant>() {
+            @Override
+            public void onSuccess(Entrant entrant) {
+                cb.onSuccess(entrant != null && entrant.isBanned());
+            }
+
+            @Override
+            public void onError(@NonNull Exception e) {
+                cb.onSuccess(false);
+            }
+        });
+    }
+
+    @Override
+    public void deleteProfile(String deviceId, boolean shouldBan, EntrantDB.Callback<Void> cb) {
+        try {
+            ValidationHelper.requireNonEmpty(deviceId, "deviceId");
+        } catch (IllegalArgumentException e) {
+            cb.onError(e);
+            return;
+        }
+        getProfile(deviceId, new EntrantDB.Callback<Entrant>() {
+            @Override
+            public void onSuccess(Entrant existing) {
+                long createdAtUtc = existing != null ? existing.getCreatedAtUtc() : database.now();
+                upsertProfile(deviceId, cleared(deviceId, createdAtUtc, shouldBan), cb);
+            }
+
+            @Override
+            public void onError(@NonNull Exception e) {
+                upsertProfile(deviceId, cleared(deviceId, database.now(), shouldBan), cb);
+            }
+        });
+    }
+
+    private static Entrant cleared(String deviceId, long createdAtUtc, boolean banned) {
+        Entrant cleared = new Entrant(deviceId, "", createdAtUtc);
+        cleared.setEmail("");
+        cleared.setPhone("");
+        cleared.setIsRegistered(false);
+        cleared.setBanned(banned);
+        return cleared;
+    }
+
+    @Override
+    public void getAllEntrants(EntrantDB.Callback<List<Entrant>> cb) {
+        database.execute("EntrantDB.getAllEntrants", () -> {
+            List<Entrant> entrants = new ArrayList<>();
+            for (InMemoryDocumentStore.Doc doc : store.query("entrants")) {
+                entrants.add(toEntrant(doc.getData()));
+            }
+            return entrants;
+        }, cb::onSuccess, cb::onError);
+    }
+
+    @Override
+    public void removeNotification(String deviceId, String notificationId, EntrantDB.Callback<Void> cb) {
+        try {
+            ValidationHelper.requireNonEmpty(deviceId, "deviceId");
+            ValidationHelper.requireNonEmpty(notificationId, "notificationId");
+        } catch (IllegalArgumentException e) {
+            cb.onError(e);
+            return;
+        }
+        database.execute("EntrantDB.removeNotification", () -> {
+            store.delete("entrants/" + deviceId + "/notifications/" + notificationId);
+            return (Void) null;
+        }, cb::onSuccess, cb::onError);
+    }
+
+    /**
+     * Lists entrants, then reads each entrant's notifications in parallel; a failed
+     * entrant is skipped, as in EntrantDB.
+     */
+    @Override
+    public void getAllNotificationsForAdmin(EntrantDB.Callback<List<Map<String, Object>>> callback) {
+        database.execute("EntrantDB.getAllNotificationsForAdmin", () -> store.query("entrants"), entrants -> {
+            if (entrants.isEmpty()) {
+                callback.onSuccess(new ArrayList<>());
+                return;
+            }
+            List<Map<String, Object>> all = Collections.synchronizedList(new ArrayList<>());
+            Countdown countdown = new Countdown(entrants.size(), () -> callback.onSuccess(all));
+            for (InMemoryDocumentStore.Doc entrant : entrants) {
+                database.execute("EntrantDB.getAllNotificationsForAdmin",
+                        () -> notificationDocsNewestFirst(entrant.getId()), notifications -> {
+                            for (Map<String, Object> notification : notifications) {
+                                notification.put("entrantDeviceId", entrant.getId());
+                                all.add(notification);
+                            }
+                            countdown.countDown();
+                        }, e -> countdown.countDown());
+            }
+        }, callback::onError);
+    }
+
+    @Override
+    public void removeEventFromAllEntrants(String eventId, EntrantDB.Callback<Void> cb) {
+        try {
+            ValidationHelper.requireNonEmpty(eventId, "eventId");
+        } catch (IllegalArgumentException e) {
+            cb.onError(e);
+            return;
+        }
+        database.execute("EntrantDB.removeEventFromAllEntrants", () -> store.query("entrants"), entrants -> {
+            if (entrants.isEmpty()) {
+                cb.onSuccess(null);
+                return;
+            }
+            Countdown countdown = new Countdown(entrants.size(), () -> cb.onSuccess(null));
+            EntrantDB.Callback<Void> each = new EntrantDB.Callback<Void>() {
+                @Override
+                public void onSuccess(Void value) {
+                    countdown.countDown();
+                }
+
+                @Override
+                public void onError(@NonNull Exception e) {
+                    countdown.countDown();
+                }
+            };
+            for (InMemoryDocumentStore.Doc entrant : entrants) {
+                removeEventFromEntrant(entrant.getId(), eventId, each);
+            }
+        }, cb::onError);
+    }
+
+    @Override
+    public void removeNotificationsForEvent(String eventId, EntrantDB.Callback<Void> cb) {
+        try {
+            ValidationHelper.requireNonEmpty(eventId, "eventId");
+        } catch (IllegalArgumentException e) {
+            cb.onError(e);
+            return;
+        }
+        database.execute("EntrantDB.removeNotificationsForEvent", () -> store.query("entrants"), entrants -> {
+            if (entrants.isEmpty()) {
+                cb.onSuccess(null);
+                return;
+            }
+            Countdown countdown = new Countdown(entrants.size(), () -> cb.onSuccess(null));
+            for (InMemoryDocumentStore.Doc entrant : entrants) {
+                String path = "entrants/" + entrant.getId() + "/notifications";
+                database.execute("EntrantDB.removeNotificationsForEvent",
+                        () -> store.query(path, data -> eventId.equals(data.get("eventId"))), matches -> {
+                            if (matches.isEmpty()) {
+                                countdown.countDown();
+                                return;
+                            }
+                            database.execute("EntrantDB.removeNotificationsForEvent", () -> {
+                                synchronized (store) {
+                                    for (InMemoryDocumentStore.Doc doc : matches) {
+                                        store.delete(path + "/" + doc.getId());
+                                    }
+                                }
+                                return (Void) null;
+                            }, unused -> countdown.countDown(), e -> countdown.countDown());
+                        }, e -> countdown.countDown());
+            }
+        }, cb::onError);
+    }
+
+    @Override
+    public void saveFCMToken(String deviceId, String token, EntrantDB.Callback<Void> callback) {
+        try {
+            ValidationHelper.requireNonEmpty(deviceId, "deviceId");
+            ValidationHelper.requireNonEmpty(token, "token");
+        } catch (IllegalArgumentException e) {
+            callback.onError(e);
+            return;
+        }
+        database.execute("EntrantDB.saveFCMToken", () -> {
+            store.merge("entrants/" + deviceId, Collections.singletonMap("fcmToken", token));
+            return (Void) null;
+        }, callback::onSuccess, callback::onError);
+    }
+
+    @Override
+    public void getFCMToken(String deviceId, EntrantDB.Callback<String> callback) {
+        try {
+            ValidationHelper.requireNonEmpty(deviceId, "deviceId");
+        } catch (IllegalArgumentException e) {
+            callback.onError(e);
+            return;
+        }
+        database.execute("EntrantDB.getFCMToken", () -> {
+            Map<String, Object> data = store.get("entrants/" + deviceId);
+            Object token = data != null ? data.get("fcmToken") : null;
+            return token instanceof String ? (String) token : null;
+        }, callback::onSuccess, callback::onError);
+    }
+
+    @Override
+    public void getNotificationPreference(String deviceId, EntrantDB.Callback<Boolean> callback) {
+        try {
+            ValidationHelper.requireNonEmpty(deviceId, "deviceId");
+        } catch (IllegalArgumentException e) {
+            callback.onError(e);
+            return;
+        }
+        database.execute("EntrantDB.getNotificationPreference", () -> {
+            Map<String, Object> data = store.get("entrants/" + deviceId);
+            Object enabled = data != null ? data.get("notificationEnabled") : null;
+            return !(enabled instanceof Boolean) || (Boolean) enabled;
+        }, callback::onSuccess, callback::onError);
+    }
+
+    @Override
+    public void setNotificationPreference(String deviceId, boolean enabled, EntrantDB.Callback<Void> callback) {
+        try {
+            ValidationHelper.requireNonEmpty(deviceId, "deviceId");
+        } catch (IllegalArgumentException e) {
+            callback.onError(e);
+            return;
+        }
+        database.execute("EntrantDB.setNotificationPreference", () -> {
+            store.merge("entrants/" + deviceId, Collections.singletonMap("notificationEnabled", enabled));
+            return (Void) null;
+        }, callback::onSuccess, callback::onError);
+    }
+
+    private List<NotificationEntry> notificationsNewestFirst(String deviceId) {
+        List<NotificationEntry> notifications = new ArrayList<>();
+        for (InMemoryDocumentStore.Doc doc : store.query("entrants/" + deviceId + "/notifications")) {
+            notifications.add(DocumentMappers.notification(doc.getId(), doc.getData()::get));
+        }
+        notifications.sort((a, b) -> Long.compare(b.getCreatedAt(), a.getCreatedAt()));
+        return notifications;
+    }
+
+    /**
+     * Raw notification documents, newest first, for the admin listing.
+     */
+    private List<Map<String, Object>> notificationDocsNewestFirst(String deviceId) {
+        List<Map<String, Object>> notifications = new ArrayList<>();
+        for (InMemoryDocumentStore.Doc doc : store.query("entrants/" + deviceId + "/notifications")) {
+            Map<String, Object> data = new HashMap<>(doc.getData());
+            data.put("id", doc.getId());
+            notifications.add(data);
+        }
+        notifications.sort((a, b) -> Long.compare(asLong(b.get("createdAt")), asLong(a.get("createdAt"))));
+        return notifications;
+    }
+
+    // ---- mapping, matching the Firestore property names of Entrant ----
+
+    private static Map<String, Object> toDocument(Entrant entrant) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("deviceId", entrant.getDeviceId());
+        data.put("name", entrant.getName());
+        data.put("createdAt", entrant.getCreatedAt());
+        data.put("createdAtUtc", entrant.getCreatedAtUtc());
+        data.put("email", entrant.getEmail());
+        data.put("phone", entrant.getPhone());
+        data.put("is_registered", entrant.getIsRegistered());
+        data.put("banned", entrant.isBanned());
+        data.put("notificationEnabled", entrant.isNotificationEnabled());
+        return data;
+    }
+
+    private static Entrant toEntrant(Map<String, Object> data) {
+        Entrant entrant = new Entrant();
+        entrant.setDeviceId((String) data.get("deviceId"));
+        entrant.setName((String) data.get("name"));
+        entrant.setCreatedAtUtc(asLong(data.get("createdAtUtc")));
+        entrant.setEmail((String) data.get("email"));
+        entrant.setPhone((String) data.get("phone"));
+        entrant.setIsRegistered(Boolean.TRUE.equals(data.get("is_registered")));
+        entrant.setBanned(Boolean.TRUE.equals(data.get("banned")));
+        entrant.setNotificationEnabled(!Boolean.FALSE.equals(data.get("notificationEnabled")));
+        return entrant;
+    }
+
+    private static long asLong(Object value) {
+        return value instanceof Number ? ((Number) value).longValue() : 0L;
+    }
+
+    /**
+     * Runs an action once a fixed number of parallel round trips have finished.
+     */
+    private static class Countdown {
+        private final Runnable onDone;
+        private int remaining;
+
+        Countdown(int count, Runnable onDone) {
+            this.remaining = count;
+            this.onDone = onDone;
+        }
+
+        void countDown() {
+            boolean done;
+            synchronized (this) {
+                done = --remaining == 0;
+            }
+            if (done) {
+                onDone.run();
+            }
+        }
+    }
+}
@@ -0,0 +1,1432 @@
+package ca.ualberta.codarc.codarc_events.data.memory;
+
+import androidx.annotation.NonNull;
+
+import com.google.firebase.firestore.GeoPoint;
+import com.google.firebase.firestore.ListenerRegistration;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+import ca.ualberta.codarc.codarc_events.data.CoalescingCache;
+import ca.ualberta.codarc.codarc_events.data.DocumentMappers;
+import ca.ualberta.codarc.codarc_events.data.EventDB;
+import ca.ualberta.codarc.codarc_events.data.EventRepository;
+import ca.ualberta.codarc.codarc_events.data.SnapshotSubscriptions;
+import ca.ualberta.codarc.codarc_events.data.TagDB;
+import ca.ualberta.codarc.codarc_events.data.TagRepository;
+import ca.ualberta.codarc.codarc_events.models.EntrantEntry;
+import ca.ualberta.codarc.codarc_events.models.Event;
+import ca.ualberta.codarc.codarc_events.models.MembershipStatus;
+import ca.ualberta.codarc.codarc_events.utils.GeoHash;
+import ca.ualberta.codarc.codarc_events.utils.ValidationHelper;
+
+/**
+ * In-memory {@link EventRepository} with the same document layout, round trips and
+ * billing as {@link EventDB}.
+ */
+public class InMemoryEventRepository implements EventRepository {
+
+    private static final int BATCH_SIZE = 500;
+    private static final long EVENT_CACHE_TTL_MS = 5_000;
+    private static final String WAITLIST_COUNT = "waitlistCount";
+    private static final String MEMBERSHIPS = "memberships";
+    private static final String CHECK_INS = "checkIns";
+    private static final String GEOHASH = "geohash";
+    private static final String LOCATION_CHUNKS = "locationChunks";
+    private static final int LOCATION_CHUNK_COUNT = 16;
+    private static final String CHUNK_ENTRIES = "entries";
+    private static final String CHUNK_COMPLETE = "complete";
+    private static final String MEMBERSHIP_DOCS = "membershipDocs";
+    private static final String[] LEGACY_LISTS = {"accepted", "winners", "waitingList", "cancelled", "replacementPool"};
+
+    private final InMemoryDatabase database;
+    private final InMemoryDocumentStore store;
+    private final TagRepository tagRepository;
+    private final CoalescingCache<Event> eventCache;
+    private final Map<String, Boolean> membershipDocsByEvent = new ConcurrentHashMap<>();
+    private final SnapshotSubscriptions subscriptions = new SnapshotSubscriptions();
+
+    public InMemoryEventRepository(InMemoryDatabase database, TagRepository tagRepository) {
+        this.database = database;
+        this.store = database.getStore();
+        this.tagRepository = tagRepository;
+        this.eventCache = new CoalescingCache<>(EVENT_CACHE_TTL_MS, database::now);
+    }
+
+    @Override
+    public void addEvent(Event event, EventDB.Callback<Void> cb) {
+        try {
+            ValidationHelper.requireNonNull(event, "event");
+            ValidationHelper.requireNonNull(event.getId(), "event.id");
+        } catch (IllegalArgumentException e) {
+            cb.onError(e);
+            return;
+        }
+        String path = "events/" + event.getId();
+        database.execute("EventDB.addEvent", () -> store.get(path), existing -> {
+            List<String> oldTags = existing != null ? stringList(existing.get("tags")) : null;
+            database.execute("EventDB.addEvent", () -> {
+                Map<String, Object> data = toDocument(event);
+                if (existing == null) {
+                    data.put(WAITLIST_COUNT, 0);
+                    data.put(MEMBERSHIP_DOCS, true);
+                    membershipDocsByEvent.put(event.getId(), true);
+                }
+                store.merge(path, data);
+                return null;
+            }, unused -> {
+                eventCache.invalidate(event.getId());
+                TagDB.Callback<Void> done = new TagDB.Callback<Void>() {
+                    @Override
+                    public void onSuccess(Void value) {
+                        cb.onSuccess(null);
+                    }
+
+                    @Override
+                    public void onError(@NonNull Exception e) {
+                        cb.onSuccess(null);
+                    }
+                };
+                if (oldTags == null) {
+                    tagRepository.addTags(event.getTags(), done);
+                } else {
+                    tagRepository.updateTags(oldTags, event.getTags(), done);
+                }
+            }, cb::onError);
+        }, cb::onError);
+    }
+
+    /**
+     * Delivers all events now and again after every event write. Each redelivery is
+     * billed one read, the cost of a single changed document on a Firestore listener.
+     * Subscribers share one store listener, as they share one Firestore listener.
+     */
+    @Override
+    public SnapshotSubscriptions.Subscription subscribeAllEvents(EventDB.Callback<List<Event>> cb) {
+        return subscriptions.subscribe("events", listener -> {
+            database.execute("EventDB.getAllEvents", () -> toEvents(store.query("events")),
+                    listener::onSuccess, listener::onError);
+            return store.addListener("events", changedPath -> database.deliver("EventDB.getAllEvents", () -> {
+                store.get(changedPath);
+                listener.onSuccess(toEvents(store.snapshot("events")));
+            }));
+        }, cb);
+    }
+
+    @Override
+    public void getAllEventsOnce(EventDB.Callback<List<Event>> cb) {
+        database.execute("EventDB.getAllEventsOnce", () -> toEvents(store.query("events")),
+                cb::onSuccess, cb::onError);
+    }
+
+    @Override
+    public void getEventsWithPosters(Event after, int limit, EventDB.Callback<List<Event>> cb) {
+        if (limit <= 0) {
+            cb.onError(new IllegalArgumentException("limit must be positive"));
+            return;
+        }
+        InMemoryDocumentStore.Doc startAfter = after != null && after.getPosterUrl() != null && after.getId() != null
+                ? new InMemoryDocumentStore.Doc(after.getId(),
+                        Collections.<String, Object>singletonMap("posterUrl", after.getPosterUrl()))
+                : null;
+        Comparator<InMemoryDocumentStore.Doc> order = Comparator
+                .comparing((InMemoryDocumentStore.Doc doc) -> (String) doc.getData().get("posterUrl"))
+                .thenComparing(InMemoryDocumentStore.Doc::getId);
+        database.execute("EventDB.getEventsWithPosters", () -> toEvents(store.queryPage("events", data -> {
+            Object url = data.get("posterUrl");
+            return url instanceof String && !((String) url).isEmpty();
+        }, order, startAfter, limit)), cb::onSuccess, cb::onError);
+    }
+
+    @Override
+    public void getEventsByOrganizer(String organizerId, int limit, EventDB.Callback<List<Event>> cb) {
+        try {
+            ValidationHelper.requireNonEmpty(organizerId, "organizerId");
+        } catch (IllegalArgumentException e) {
+            cb.onError(e);
+            return;
+        }
+        database.execute("EventDB.getEventsByOrganizer", () -> {
+            List<Event> events = toEvents(store.query("events",
+                    data -> organizerId.equals(data.get("organizerId"))));
+            events.sort((e1, e2) -> {
+                String date1 = e1.getEventDateTime();
+                String date2 = e2.getEventDateTime();
+                if (date1 == null && date2 == null) return 0;
+                if (date1 == null) return 1;
+                if (date2 == null) return -1;
+                return date2.compareTo(date1);
+            });
+            return events.size() > limit ? new ArrayList<>(events.subList(0, limit)) : events;
+        }, cb::onSuccess, cb::onError);
+    }
+
+    @Override
+    public void getEvent(String eventId, EventDB.Callback<Event> cb) {
+        try {
+            ValidationHelper.requireNonEmpty(eventId, "eventId");
+        } catch (IllegalArgumentException e) {
+            cb.onError(e);
+            return;
+        }
+        eventCache.get(eventId, this::loadEvent, new CoalescingCache.Callback<Event>() {
+            @Override
+            public void onSuccess(Event value) {
+                cb.onSuccess(new Event(value));
+            }
+
+            @Override
+            public void onError(@NonNull Exception e) {
+                cb.onError(e);
+            }
+        });
+    }
+
+    private void loadEvent(String eventId, CoalescingCache.Callback<Event> cb) {
+        database.execute("EventDB.getEvent", () -> {
+            Map<String, Object> data = store.get("events/" + eventId);
+            if (data == null) {
+                throw new RuntimeException("Event not found");
+            }
+            membershipDocsByEvent.put(eventId, Boolean.TRUE.equals(data.get(MEMBERSHIP_DOCS)));
+            return toEvent(eventId, data);
+        }, cb::onSuccess, cb::onError);
+    }
+
+    @Override
+    public void eventExists(String eventId, EventDB.Callback<Boolean> cb) {
+        try {
+            ValidationHelper.requireNonEmpty(eventId, "eventId");
+        } catch (IllegalArgumentException e) {
+            cb.onError(e);
+            return;
+        }
+        database.execute("EventDB.eventExists", () -> store.get("events/" + eventId) != null,
+                cb::onSuccess, cb::onError);
+    }
+
+    @Override
+    public void isEntrantOnWaitlist(String eventId, String deviceId, EventDB.Callback<Boolean> cb) {
+        checkMembership("EventDB.isEntrantOnWaitlist", eventId, "waitingList", deviceId, cb);
+    }
+
+    @Override
+    public void isEntrantWinner(String eventId, String deviceId, EventDB.Callback<Boolean> cb) {
+        checkMembership("EventDB.isEntrantWinner", eventId, "winners", deviceId, cb);
+    }
+
+    @Override
+    public void isEntrantAccepted(String eventId, String deviceId, EventDB.Callback<Boolean> cb) {
+        checkMembership("EventDB.isEntrantAccepted", eventId, "accepted", deviceId, cb);
+    }
+
+    @Override
+    public void isEntrantCancelled(String eventId, String deviceId, EventDB.Callback<Boolean> cb) {
+        checkMembership("EventDB.isEntrantCancelled", eventId, "cancelled", deviceId, cb);
+    }
+
+    private void checkMembership(String operation, String eventId, String subcollection, String deviceId,
+                                 EventDB.Callback<Boolean> cb) {
+        try {
+            ValidationHelper.requireNonEmpty(eventId, "eventId");
+            ValidationHelper.requireNonEmpty(deviceId, "deviceId");
+        } catch (IllegalArgumentException e) {
+            cb.onError(e);
+            return;
+        }
+        database.execute(operation,
+                () -> store.get("events/" + eventId + "/" + subcollection + "/" + deviceId) != null,
+                cb::onSuccess, cb::onError);
+    }
+
+    @Override
+    public void getMembershipStatus(String eventId, String deviceId, EventDB.Callback<MembershipStatus> cb) {
+        try {
+            ValidationHelper.requireNonEmpty(eventId, "eventId");
+            ValidationHelper.requireNonEmpty(deviceId, "deviceId");
+        } catch (IllegalArgumentException e) {
+            cb.onError(e);
+            return;
+        }
+        database.execute("EventDB.getMembershipStatus", () -> store.get(membershipPath(eventId, deviceId)), data -> {
+            if (data != null) {
+                cb.onSuccess(MembershipStatus.fromValue(asString(data.get("status"))));
+                return;
+            }
+            keepsMembershipDocs(eventId, keepsDocs -> {
+                if (keepsDocs) {
+                    cb.onSuccess(null);
+                } else {
+                    getLegacyMembershipStatus(eventId, deviceId, cb);
+                }
+            }, cb::onError);
+        }, cb::onError);
+    }
+
+    private void keepsMembershipDocs(String eventId, Consumer<Boolean> onFlag, Consumer<Exception> onError) {
+        Boolean known = membershipDocsByEvent.get(eventId);
+        if (known != null) {
+            onFlag.accept(known);
+            return;
+        }
+        eventCache.get(eventId, this::loadEvent, new CoalescingCache.Callback<Event>() {
+            @Override
+            public void onSuccess(Event value) {
+                onFlag.accept(Boolean.TRUE.equals(membershipDocsByEvent.get(eventId)));
+            }
+
+            @Override
+            public void onError(@NonNull Exception e) {
+                onError.accept(e);
+            }
+        });
+    }
+
+    /**
+     * Probes the lists that held entrants before membership documents, writing a
+     * status it finds back as a membership and history status.
+     */
+    private void getLegacyMembershipStatus(String eventId, String deviceId, EventDB.Callback<MembershipStatus> cb) {
+        database.execute("EventDB.getLegacyMembershipStatus", () -> {
+            synchronized (store) {
+                MembershipStatus status = null;
+                for (String list : LEGACY_LISTS) {
+                    Map<String, Object> entry = store.get("events/" + eventId + "/" + list + "/" + deviceId);
+                    if (entry != null && status == null) {
+                        status = legacyStatus(list);
+                    }
+                }
+                if (status != null) {
+                    Map<String, Object> membership = new HashMap<>();
+                    membership.put("deviceId", deviceId);
+                    membership.put("status", status.getValue());
+                    membership.put("updatedAt", database.now());
+                    store.merge(membershipPath(eventId, deviceId), membership);
+                    Map<String, Object> history = new HashMap<>();
+                    history.put("eventId", eventId);
+                    history.put("status", status.getValue());
+                    history.put("updatedAt", database.now());
+                    store.merge(entrantEventPath(deviceId, eventId), history);
+                }
+                return status;
+            }
+        }, cb::onSuccess, cb::onError);
+    }
+
+    private static MembershipStatus legacyStatus(String list) {
+        switch (list) {
+            case "waitingList":
+                return MembershipStatus.WAITLISTED;
+            case "winners":
+                return MembershipStatus.INVITED;
+            case "replacementPool":
+                return MembershipStatus.REPLACEMENT_POOL;
+            case "accepted":
+                return MembershipStatus.ACCEPTED;
+            default:
+                return MembershipStatus.CANCELLED;
+        }
+    }
+
+    @Override
+    public void canJoinWaitlist(String eventId, String deviceId, EventDB.Callback<Boolean> cb) {
+        getMembershipStatus(eventId, deviceId, new EventDB.Callback<MembershipStatus>() {
+            @Override
+            public void onSuccess(MembershipStatus status) {
+                cb.onSuccess(status == null || status.canJoinWaitlist());
+            }
+
+            @Override
+            public void onError(@NonNull Exception e) {
+                cb.onError(e);
+            }
+        });
+    }
+
+    private static String membershipPath(String eventId, String deviceId) {
+        return "events/" + eventId + "/" + MEMBERSHIPS + "/" + deviceId;
+    }
+
+    private static String entrantEventPath(String deviceId, String eventId) {
+        return "entrants/" + deviceId + "/events/" + eventId;
+    }
+
+    /**
+     * Moves an entrant into a status, keeping the timestamps of earlier statuses,
+     * and copies the status into the entrant's registration history.
+     * Callers hold the store lock.
+     */
+    private void setMembership(String eventId, String deviceId, MembershipStatus status) {
+        long now = database.now();
+        Map<String, Object> data = new HashMap<>();
+        data.put("deviceId", deviceId);
+        data.put("status", status.getValue());
+        data.put("updatedAt", now);
+        data.put(status.getTimestampField(), now);
+        store.merge(membershipPath(eventId, deviceId), data);
+
+        Map<String, Object> history = new HashMap<>();
+        history.put("eventId", eventId);
+        history.put("status", status.getValue());
+        history.put("updatedAt", now);
+        store.merge(entrantEventPath(deviceId, eventId), history);
+    }
+
+    /**
+     * Drops the entrant's membership and their history entry. Callers hold the store lock.
+     */
+    private void clearMembership(String eventId, String deviceId) {
+        store.delete(membershipPath(eventId, deviceId));
+        store.delete(entrantEventPath(deviceId, eventId));
+    }
+
+    private static int locationChunk(String deviceId) {
+        return Math.floorMod(deviceId.hashCode(), LOCATION_CHUNK_COUNT);
+    }
+
+    private static List<Object> packLocation(GeoPoint location, MembershipStatus status, long timestamp) {
+        return Arrays.asList(location.getLatitude(), location.getLongitude(), status.getValue(), timestamp);
+    }
+
+    /**
+     * Records an entrant's move in the location projection if they joined with a location.
+     * Callers hold the store lock.
+     */
+    private void setLocationEntry(String eventId, String deviceId, Object location, MembershipStatus status) {
+        if (location instanceof GeoPoint) {
+            Map<String, Object> entries = new HashMap<>();
+            entries.put(deviceId, packLocation((GeoPoint) location, status, database.now()));
+            updateLocationProjection(eventId, entries, false);
+        }
+    }
+
+    /**
+     * Sets entries of the location projection, or clears those mapped to null. Each
+     * chunk touched costs one write, like EventDB's nested merge; a rebuild writes and
+     * marks every chunk. Callers hold the store lock.
+     */
+    private void updateLocationProjection(String eventId, Map<String, Object> packedByDevice, boolean complete) {
+        Map<Integer, Map<String, Object>> byChunk = new HashMap<>();
+        for (Map.Entry<String, Object> entry : packedByDevice.entrySet()) {
+            Map<String, Object> chunk = byChunk.get(locationChunk(entry.getKey()));
+            if (chunk == null) {
+                chunk = new HashMap<>();
+                byChunk.put(locationChunk(entry.getKey()), chunk);
+            }
+            chunk.put(entry.getKey(), entry.getValue());
+        }
+        for (int chunk = 0; chunk < LOCATION_CHUNK_COUNT; chunk++) {
+            Map<String, Object> updates = byChunk.get(chunk);
+            if (updates == null && !complete) {
+                continue;
+            }
+            String path = "events/" + eventId + "/" + LOCATION_CHUNKS + "/" + chunk;
+            Map<String, Object> existing = store.peek(path);
+            Map<String, Object> entries = new HashMap<>();
+            if (existing != null && existing.get(CHUNK_ENTRIES) instanceof Map) {
+                for (Map.Entry<?, ?> entry : ((Map<?, ?>) existing.get(CHUNK_ENTRIES)).entrySet()) {
+                    entries.put((String) entry.getKey(), entry.getValue());
+                }
+            }
+            if (updates != null) {
+                for (Map.Entry<String, Object> update : updates.entrySet()) {
+                    if (update.getValue() != null) {
+                        entries.put(update.getKey(), update.getValue());
+                    } else {
+                        entries.remove(update.getKey());
+                    }
+                }
+            }
+            Map<String, Object> data = new HashMap<>();
+            data.put(CHUNK_ENTRIES, entries);
+            if (complete) {
+                data.put(CHUNK_COMPLETE, true);
+            }
+            store.merge(path, data);
+        }
+    }
+
+    @Override
+    public void getWaitlistCount(String eventId, EventDB.Callback<Integer> cb) {
+        try {
+            ValidationHelper.requireNonEmpty(eventId, "eventId");
+        } catch (IllegalArgumentException e) {
+            cb.onError(e);
+            return;
+        }
+        database.execute("EventDB.getWaitlistCount", () -> store.count("events/" + eventId + "/waitingList"),
+                cb::onSuccess, cb::onError);
+    }
+
+    @Override
+    public ListenerRegistration addWaitlistCounterListener(String eventId, EventDB.Callback<Integer> cb) {
+        try {
+            ValidationHelper.requireNonEmpty(eventId, "eventId");
+        } catch (IllegalArgumentException e) {
+            cb.onError(e);
+            return null;
+        }
+        String path = "events/" + eventId;
+        database.execute("EventDB.addWaitlistCounterListener", () -> readCounter(store.get(path)),
+                cb::onSuccess, cb::onError);
+        return store.addListener(path, changedPath -> database.deliver("EventDB.addWaitlistCounterListener",
+                () -> cb.onSuccess(readCounter(store.get(path)))));
+    }
+
+    private static Integer readCounter(Map<String, Object> data) {
+        Object counter = data != null ? data.get(WAITLIST_COUNT) : null;
+        return counter instanceof Number ? ((Number) counter).intValue() : null;
+    }
+
+    @Override
+    public void getAcceptedCount(String eventId, EventDB.Callback<Integer> cb) {
+        try {
+            ValidationHelper.requireNonEmpty(eventId, "eventId");
+        } catch (IllegalArgumentException e) {
+            cb.onError(e);
+            return;
+        }
+        database.execute("EventDB.getAcceptedCount", () -> store.query("events/" + eventId + "/accepted").size(),
+                cb::onSuccess, cb::onError);
+    }
+
+    @Override
+    public void joinWaitlist(String eventId, String deviceId, EventDB.Callback<Void> cb) {
+        joinWaitlist(eventId, deviceId, null, cb);
+    }
+
+    @Override
+    public void joinWaitlist(String eventId, String deviceId, GeoPoint location, EventDB.Callback<Void> cb) {
+        try {
+            ValidationHelper.requireNonEmpty(eventId, "eventId");
+            ValidationHelper.requireNonEmpty(deviceId, "deviceId");
+        } catch (IllegalArgumentException e) {
+            cb.onError(e);
+            return;
+        }
+        runJoinTransaction("EventDB.joinWaitlist", eventId, deviceId, location, false,
+                outcome -> cb.onSuccess(null), cb::onError);
+    }
+
+    /**
+     * Same transaction as EventDB: one round trip that reads the entry and the event,
+     * with a counter backfill and a single retry for events that predate the counter.
+     */
+    @Override
+    public void joinWaitlistAtomic(String eventId, String deviceId, GeoPoint location,
+                                   EventDB.Callback<EventDB.JoinOutcome> cb) {
+        try {
+            ValidationHelper.requireNonEmpty(eventId, "eventId");
+            ValidationHelper.requireNonEmpty(deviceId, "deviceId");
+        } catch (IllegalArgumentException e) {
+            cb.onError(e);
+            return;
+        }
+        String operation = "EventDB.joinWaitlistAtomic";
+        runJoinTransaction(operation, eventId, deviceId, location, true, outcome -> {
+            if (outcome != null) {
+                cb.onSuccess(outcome);
+                return;
+            }
+            ensureWaitlistCounter(eventId, () -> runJoinTransaction(operation, eventId, deviceId, location, true,
+                    retried -> {
+                        if (retried == null) {
+                            cb.onError(new IllegalStateException("Waitlist counter is missing"));
+                            return;
+                        }
+                        cb.onSuccess(retried);
+                    }, cb::onError), cb::onError);
+        }, cb::onError);
+    }
+
+    private void runJoinTransaction(String operation, String eventId, String deviceId, GeoPoint location,
+                                    boolean enforceCapacity, Consumer<EventDB.JoinOutcome> onSuccess,
+                                    Consumer<Exception> onError) {
+        String eventPath = "events/" + eventId;
+        String entryPath = eventPath + "/waitingList/" + deviceId;
+        database.execute(operation, () -> {
+            synchronized (store) {
+                if (store.get(entryPath) != null) {
+                    return EventDB.JoinOutcome.ALREADY_JOINED;
+                }
+                Map<String, Object> member = store.get(membershipPath(eventId, deviceId));
+                Map<String, Object> event = store.get(eventPath);
+                MembershipStatus current = member != null ? MembershipStatus.fromValue(asString(member.get("status"))) : null;
+                if (current == MembershipStatus.WAITLISTED) {
+                    return EventDB.JoinOutcome.ALREADY_JOINED;
+                }
+                if (current != null && !current.canJoinWaitlist()) {
+                    return EventDB.JoinOutcome.NOT_ELIGIBLE;
+                }
+                if (member == null && (event == null || !Boolean.TRUE.equals(event.get(MEMBERSHIP_DOCS)))
+                        && (store.get(eventPath + "/winners/" + deviceId) != null
+                        || store.get(eventPath + "/accepted/" + deviceId) != null)) {
+                    return EventDB.JoinOutcome.NOT_ELIGIBLE;
+                }
+                Integer count = readCounter(event);
+                if (count == null && enforceCapacity) {
+                    return null;
+                }
+                Object maxCapacity = event != null ? event.get("maxCapacity") : null;
+                if (enforceCapacity && maxCapacity instanceof Number
+                        && ((Number) maxCapacity).intValue() > 0
+                        && count >= ((Number) maxCapacity).intValue()) {
+                    return EventDB.JoinOutcome.FULL;
+                }
+                Map<String, Object> data = new HashMap<>();
+                data.put("deviceId", deviceId);
+                data.put("request_time", database.now());
+                putJoinLocation(data, location);
+                store.set(entryPath, data);
+                setMembership(eventId, deviceId, MembershipStatus.WAITLISTED);
+                setLocationEntry(eventId, deviceId, location, MembershipStatus.WAITLISTED);
+                if (count != null) {
+                    increment(eventPath, 1);
+                }
+                return EventDB.JoinOutcome.JOINED;
+            }
+        }, onSuccess, onError);
+    }
+
+    @Override
+    public void attachJoinLocation(String eventId, String deviceId, GeoPoint location,
+                                   EventDB.Callback<Boolean> cb) {
+        try {
+            ValidationHelper.requireNonEmpty(eventId, "eventId");
+            ValidationHelper.requireNonEmpty(deviceId, "deviceId");
+            ValidationHelper.requireNonNull(location, "location");
+        } catch (IllegalArgumentException e) {
+            cb.onError(e);
+            return;
+        }
+        String entryPath = "events/" + eventId + "/waitingList/" + deviceId;
+        database.execute("EventDB.attachJoinLocation", () -> {
+            synchronized (store) {
+                Map<String, Object> entry = store.get(entryPath);
+                if (entry == null || entry.get("joinLocation") != null) {
+                    return false;
+                }
+                Map<String, Object> data = new HashMap<>();
+                putJoinLocation(data, location);
+                store.update(entryPath, data);
+                Object requested = entry.get("request_time");
+                long joinedAt = requested instanceof Number ? ((Number) requested).longValue() : database.now();
+                updateLocationProjection(eventId, Collections.singletonMap(deviceId,
+                        packLocation(location, MembershipStatus.WAITLISTED, joinedAt)), false);
+                return true;
+            }
+        }, cb::onSuccess, cb::onError);
+    }
+
+    /**
+     * Backfills the waitlist counter from a count query, as EventDB does for older events.
+     */
+    private void ensureWaitlistCounter(String eventId, Runnable onSuccess, Consumer<Exception> onError) {
+        String eventPath = "events/" + eventId;
+        String operation = "EventDB.ensureWaitlistCounter";
+        database.execute(operation, () -> store.get(eventPath), event -> {
+            if (event == null) {
+                onError.accept(new RuntimeException("Event not found"));
+                return;
+            }
+            if (readCounter(event) != null) {
+                onSuccess.run();
+                return;
+            }
+            database.execute(operation, () -> store.count(eventPath + "/waitingList"), count ->
+                    database.execute(operation, () -> {
+                        synchronized (store) {
+                            Map<String, Object> current = store.get(eventPath);
+                            if (current != null && readCounter(current) == null) {
+                                Map<String, Object> update = new HashMap<>();
+                                update.put(WAITLIST_COUNT, count);
+                                store.update(eventPath, update);
+                                invalidateEvent(eventPath);
+                            }
+                        }
+                        return (Void) null;
+                    }, unused -> onSuccess.run(), onError), onError);
+        }, onError);
+    }
+
+    /**
+     * Applies a server-side style increment to the counter without billing a read.
+     */
+    private void increment(String eventPath, int delta) {
+        Integer count = readCounter(store.peek(eventPath));
+        Map<String, Object> update = new HashMap<>();
+        update.put(WAITLIST_COUNT, (count != null ? count : 0) + delta);
+        store.update(eventPath, update);
+        invalidateEvent(eventPath);
+    }
+
+    /**
+     * Drops the cached copy of the event at a path after a write to its document.
+     */
+    private void invalidateEvent(String eventPath) {
+        eventCache.invalidate(eventPath.substring(eventPath.lastIndexOf('/') + 1));
+    }
+
+    /**
+     * Lowers the counter inside a transaction that already read the event.
+     */
+    private void decrementWaitlistCounter(String eventPath, Map<String, Object> event, int removed) {
+        if (removed > 0 && readCounter(event) != null) {
+            increment(eventPath, -removed);
+        }
+    }
+
+    @Override
+    public void leaveWaitlist(String eventId, String deviceId, EventDB.Callback<Void> cb) {
+        try {
+            ValidationHelper.requireNonEmpty(eventId, "eventId");
+            ValidationHelper.requireNonEmpty(deviceId, "deviceId");
+        } catch (IllegalArgumentException e) {
+            cb.onError(e);
+            return;
+        }
+        String eventPath = "events/" + eventId;
+        String entryPath = eventPath + "/waitingList/" + deviceId;
+        database.execute("EventDB.leaveWaitlist", () -> {
+            synchronized (store) {
+                Map<String, Object> entry = store.get(entryPath);
+                if (entry != null) {
+                    Map<String, Object> event = store.get(eventPath);
+                    store.delete(entryPath);
+                    clearMembership(eventId, deviceId);
+                    if (entry.get("joinLocation") != null) {
+                        updateLocationProjection(eventId, Collections.singletonMap(deviceId, null), false);
+                    }
+                    decrementWaitlistCounter(eventPath, event, 1);
+                }
+            }
+            return (Void) null;
+        }, cb::onSuccess, cb::onError);
+    }
+
+    @Override
+    public void removeEntrantFromEvent(String eventId, String deviceId, EventDB.Callback<Void> cb) {
+        try {
+            ValidationHelper.requireNonEmpty(eventId, "eventId");
+            ValidationHelper.requireNonEmpty(deviceId, "deviceId");
+        } catch (IllegalArgumentException e) {
+            cb.onError(e);
+            return;
+        }
+        String base = "events/" + eventId + "/";
+        database.execute("EventDB.removeEntrantFromEvent", () -> {
+            synchronized (store) {
+                boolean onWaitlist = store.get(base + "waitingList/" + deviceId) != null;
+                Map<String, Object> event = store.get("events/" + eventId);
+                store.delete(base + "waitingList/" + deviceId);
+                decrementWaitlistCounter("events/" + eventId, event, onWaitlist ? 1 : 0);
+                store.delete(base + "winners/" + deviceId);
+                store.delete(base + "accepted/" + deviceId);
+                store.delete(base + "cancelled/" + deviceId);
+                store.delete(base + "replacementPool/" + deviceId);
+                clearMembership(eventId, deviceId);
+                updateLocationProjection(eventId, Collections.singletonMap(deviceId, null), false);
+            }
+            return (Void) null;
+        }, cb::onSuccess, cb::onError);
+    }
+
+    @Override
+    public void getWaitlist(String eventId, EventDB.Callback<List<EntrantEntry>> cb) {
+        listMembers("EventDB.getWaitlist", eventId, "waitingList", "request_time", cb);
+    }
+
+    @Override
+    public void markWinners(String eventId, List<String> winnerIds, List<String> replacementIds,
+                            EventDB.Callback<Void> cb) {
+        try {
+            ValidationHelper.requireNonEmpty(eventId, "eventId");
+            ValidationHelper.requireNonNull(winnerIds, "winnerIds");
+            if (winnerIds.isEmpty()) {
+                throw new IllegalArgumentException("winnerIds cannot be empty");
+            }
+        } catch (IllegalArgumentException e) {
+            cb.onError(e);
+            return;
+        }
+        List<String> replacements = replacementIds != null ? replacementIds : new ArrayList<>();
+        List<String> allIds = new ArrayList<>(winnerIds);
+        allIds.addAll(replacements);
+
+        ensureWaitlistCounter(eventId,
+                () -> markWinnersWithCounter(eventId, winnerIds, replacements, allIds, cb), cb::onError);
+    }
+
+    private void markWinnersWithCounter(String eventId, List<String> winnerIds, List<String> replacements,
+                                        List<String> allIds, EventDB.Callback<Void> cb) {
+        // One location read per selected entrant, in parallel; a failed read fails the draw.
+        // Only entrants whose waitlist entry was found go into the map, and only those are deleted.
+        String base = "events/" + eventId + "/";
+        Map<String, Object> locations = new HashMap<>();
+        int[] completed = {0};
+        boolean[] failed = {false};
+        Runnable writeAll = () -> database.execute("EventDB.markWinners", () -> {
+            long timestamp = database.now();
+            synchronized (store) {
+                if (!locations.isEmpty()) {
+                    increment("events/" + eventId, -locations.size());
+                }
+                Map<String, Object> projection = new HashMap<>();
+                for (String deviceId : allIds) {
+                    boolean winner = winnerIds.contains(deviceId);
+                    Map<String, Object> data = new HashMap<>();
+                    data.put("deviceId", deviceId);
+                    data.put(winner ? "invitedAt" : "addedToPoolAt", timestamp);
+                    Object location = locations.get(deviceId);
+                    putJoinLocation(data, location);
+                    if (locations.containsKey(deviceId)) {
+                        store.delete(base + "waitingList/" + deviceId);
+                    }
+                    store.set(base + (winner ? "winners/" : "replacementPool/") + deviceId, data);
+                    MembershipStatus status = winner ? MembershipStatus.INVITED : MembershipStatus.REPLACEMENT_POOL;
+                    setMembership(eventId, deviceId, status);
+                    if (location instanceof GeoPoint) {
+                        projection.put(deviceId, packLocation((GeoPoint) location, status, timestamp));
+                    }
+                }
+                if (!projection.isEmpty()) {
+                    updateLocationProjection(eventId, projection, false);
+                }
+            }
+            return (Void) null;
+        }, cb::onSuccess, cb::onError);
+        for (String deviceId : allIds) {
+            database.execute("EventDB.markWinners", () -> store.get(base + "waitingList/" + deviceId), data -> {
+                Object location = data != null ? data.get("joinLocation") : null;
+                if (onLocationRead(locations, completed, failed, deviceId, location, data != null, allIds.size())) {
+                    writeAll.run();
+                }
+            }, e -> {
+                boolean first;
+                synchronized (locations) {
+                    first = !failed[0];
+                    failed[0] = true;
+                }
+                if (first) {
+                    cb.onError(e);
+                }
+            });
+        }
+    }
+
+    /**
+     * Records one location read.
+     *
+     * @return true once every selected entrant has been read and none of the reads failed
+     */
+    private static boolean onLocationRead(Map<String, Object> locations, int[] completed, boolean[] failed,
+                                          String deviceId, Object location, boolean found, int total) {
+        synchronized (locations) {
+            if (found) {
+                locations.put(deviceId, location);
+            }
+            return ++completed[0] == total && !failed[0];
+        }
+    }
+
+    @Override
+    public void markWinners(String eventId, List<String> entrantIds, EventDB.Callback<Void> cb) {
+        markWinners(eventId, entrantIds, new ArrayList<>(), cb);
+    }
+
+    @Override
+    public void markReplacement(String eventId, String entrantId, EventDB.Callback<Void> cb) {
+        try {
+            ValidationHelper.requireNonEmpty(eventId, "eventId");
+        } catch (IllegalArgumentException e) {
+            cb.onError(e);
+            return;
+        }
+        if (entrantId != null && !entrantId.isEmpty()) {
+            promote("EventDB.promoteReplacementToWinner", eventId, "replacementPool", entrantId,
+                    "Entrant not in replacement pool", cb);
+            return;
+        }
+        getReplacementPool(eventId, new EventDB.Callback<List<EntrantEntry>>() {
+            @Override
+            public void onSuccess(List<EntrantEntry> pool) {
+                if (pool == null || pool.isEmpty()) {
+                    cb.onError(new IllegalStateException("Replacement pool is empty"));
+                    return;
+                }
+                promote("EventDB.promoteReplacementToWinner", eventId, "replacementPool",
+                        pool.get(0).getDeviceId(), "Entrant not in replacement pool", cb);
+            }
+
+            @Override
+            public void onError(@NonNull Exception e) {
+                cb.onError(e);
+            }
+        });
+    }
+
+    @Override
+    public void setEnrolledStatus(String eventId, String deviceId, Boolean enrolled, EventDB.Callback<Void> cb) {
+        try {
+            ValidationHelper.requireNonEmpty(eventId, "eventId");
+            ValidationHelper.requireNonEmpty(deviceId, "deviceId");
+        } catch (IllegalArgumentException e) {
+            cb.onError(e);
+            return;
+        }
+        String base = "events/" + eventId + "/";
+        database.execute("EventDB.setEnrolledStatus", () -> store.get(base + "winners/" + deviceId), winner -> {
+            Object location = winner != null ? winner.get("joinLocation") : null;
+            database.execute("EventDB.setEnrolledStatus", () -> {
+                Map<String, Object> data = new HashMap<>();
+                data.put("deviceId", deviceId);
+                data.put("respondedAt", database.now());
+                putJoinLocation(data, location);
+                synchronized (store) {
+                    store.delete(base + "winners/" + deviceId);
+                    store.set(base + (enrolled ? "accepted/" : "cancelled/") + deviceId, data);
+                    MembershipStatus status = enrolled ? MembershipStatus.ACCEPTED : MembershipStatus.CANCELLED;
+                    setMembership(eventId, deviceId, status);
+                    setLocationEntry(eventId, deviceId, location, status);
+                }
+                return (Void) null;
+            }, cb::onSuccess, cb::onError);
+        }, cb::onError);
+    }
+
+    @Override
+    public void getWinners(String eventId, EventDB.Callback<List<EntrantEntry>> cb) {
+        listMembers("EventDB.getWinners", eventId, "winners", "invitedAt", cb);
+    }
+
+    @Override
+    public void getCancelled(String eventId, EventDB.Callback<List<EntrantEntry>> cb) {
+        listMembers("EventDB.getCancelled", eventId, "cancelled", "respondedAt", cb);
+    }
+
+    @Override
+    public void getEnrolled(String eventId, EventDB.Callback<List<EntrantEntry>> cb) {
+        listMembers("EventDB.getEnrolled", eventId, "accepted", "respondedAt", cb);
+    }
+
+    @Override
+    public void getReplacementPool(String eventId, EventDB.Callback<List<EntrantEntry>> cb) {
+        listMembers("EventDB.getReplacementPool", eventId, "replacementPool", "addedToPoolAt", cb);
+    }
+
+    @Override
+    public void getCheckIns(String eventId, EventDB.Callback<List<EntrantEntry>> cb) {
+        listMembers("EventDB.getCheckIns", eventId, CHECK_INS, "checkedInAt", cb);
+    }
+
+    @Override
+    public void recordCheckIns(String eventId, Map<String, Long> checkIns, EventDB.Callback<Void> cb) {
+        try {
+            ValidationHelper.requireNonEmpty(eventId, "eventId");
+        } catch (IllegalArgumentException e) {
+            cb.onError(e);
+            return;
+        }
+        if (checkIns == null || checkIns.isEmpty()) {
+            cb.onSuccess(null);
+            return;
+        }
+        if (checkIns.size() > BATCH_SIZE) {
+            cb.onError(new IllegalArgumentException("At most " + BATCH_SIZE + " check-ins per batch"));
+            return;
+        }
+        Map<String, Long> copy = new HashMap<>(checkIns);
+        database.execute("EventDB.recordCheckIns", () -> {
+            synchronized (store) {
+                for (Map.Entry<String, Long> checkIn : copy.entrySet()) {
+                    Map<String, Object> data = new HashMap<>();
+                    data.put("deviceId", checkIn.getKey());
+                    data.put("checkedInAt", checkIn.getValue());
+                    store.set("events/" + eventId + "/" + CHECK_INS + "/" + checkIn.getKey(), data);
+                }
+            }
+            return (Void) null;
+        }, cb::onSuccess, cb::onError);
+    }
+
+    private void listMembers(String operation, String eventId, String subcollection, String timeField,
+                             EventDB.Callback<List<EntrantEntry>> cb) {
+        try {
+            ValidationHelper.requireNonEmpty(eventId, "eventId");
+        } catch (IllegalArgumentException e) {
+            cb.onError(e);
+            return;
+        }
+        database.execute(operation, () -> {
+            List<InMemoryDocumentStore.Doc> docs = store.query("events/" + eventId + "/" + subcollection);
+            List<EntrantEntry> entries = new ArrayList<>(docs.size());
+            for (InMemoryDocumentStore.Doc doc : docs) {
+                entries.add(new EntrantEntry(doc.getId(), DocumentMappers.millis(doc.getData().get(timeField))));
+            }
+            return entries;
+        }, cb::onSuccess, cb::onError);
+    }
+
+    /**
+     * Queries the four membership lists in parallel; a failed list is skipped, as in EventDB.
+     */
+    @Override
+    public void getEntrantsWithLocations(String eventId, EventDB.Callback<List<Map<String, Object>>> callback) {
+        try {
+            ValidationHelper.requireNonEmpty(eventId, "eventId");
+        } catch (IllegalArgumentException e) {
+            callback.onError(e);
+            return;
+        }
+        String[][] sources = {
+                {"waitingList", "request_time", MembershipStatus.WAITLISTED.getValue()},
+                {"winners", "invitedAt", MembershipStatus.INVITED.getValue()},
+                {"accepted", "respondedAt", MembershipStatus.ACCEPTED.getValue()},
+                {"cancelled", "respondedAt", MembershipStatus.CANCELLED.getValue()}
+        };
+        List<Map<String, Object>> entries = Collections.synchronizedList(new ArrayList<>());
+        int[] completed = {0};
+        Runnable onCollectionComplete = () -> {
+            boolean done;
+            synchronized (completed) {
+                done = ++completed[0] == sources.length;
+            }
+            if (done) {
+                callback.onSuccess(entries);
+            }
+        };
+        for (String[] source : sources) {
+            database.execute("EventDB.getEntrantsWithLocations", () -> {
+                for (InMemoryDocumentStore.Doc doc : store.query("events/" + eventId + "/" + source[0])) {
+                    Object location = doc.getData().get("joinLocation");
+                    if (location instanceof GeoPoint) {
+                        Map<String, Object> entry = new HashMap<>();
+                        entry.put("deviceId", doc.getId());
+                        entry.put("joinLocation", location);
+                        entry.put("timestamp", doc.getData().get(source[1]));
+                        entry.put("status", source[2]);
+                        entries.add(entry);
+                    }
+                }
+                return (Void) null;
+            }, unused -> onCollectionComplete.run(), e -> onCollectionComplete.run());
+        }
+    }
+
+    /**
+     * Reads the location projection with one query; events without a complete
+     * projection are scanned once and the projection is built, as in EventDB.
+     */
+    @Override
+    public void getEntrantLocations(String eventId, EventDB.Callback<List<Map<String, Object>>> cb) {
+        try {
+            ValidationHelper.requireNonEmpty(eventId, "eventId");
+        } catch (IllegalArgumentException e) {
+            cb.onError(e);
+            return;
+        }
+        database.execute("EventDB.getEntrantLocations", () -> {
+            boolean complete = false;
+            List<Map<String, Object>> entries = new ArrayList<>();
+            for (InMemoryDocumentStore.Doc doc : store.query("events/" + eventId + "/" + LOCATION_CHUNKS)) {
+                complete |= Boolean.TRUE.equals(doc.getData().get(CHUNK_COMPLETE));
+                Object chunkEntries = doc.getData().get(CHUNK_ENTRIES);
+                if (!(chunkEntries instanceof Map)) {
+                    continue;
+                }
+                for (Map.Entry<?, ?> packed : ((Map<?, ?>) chunkEntries).entrySet()) {
+                    List<?> values = (List<?>) packed.getValue();
+                    Map<String, Object> entry = new HashMap<>();
+                    entry.put("deviceId", packed.getKey());
+                    entry.put("joinLocation", new GeoPoint(((Number) values.get(0)).doubleValue(),
+                            ((Number) values.get(1)).doubleValue()));
+                    entry.put("status", values.get(2));
+                    entry.put("timestamp", values.get(3));
+                    entries.add(entry);
+                }
+            }
+            return complete ? entries : null;
+        }, entries -> {
+            if (entries != null) {
+                cb.onSuccess(entries);
+                return;
+            }
+            getEntrantsWithLocations(eventId, new EventDB.Callback<List<Map<String, Object>>>() {
+                @Override
+                public void onSuccess(List<Map<String, Object>> scanned) {
+                    rebuildLocationProjection(eventId, scanned);
+                    cb.onSuccess(scanned);
+                }
+
+                @Override
+                public void onError(@NonNull Exception e) {
+                    cb.onError(e);
+                }
+            });
+        }, cb::onError);
+    }
+
+    private void rebuildLocationProjection(String eventId, List<Map<String, Object>> scanned) {
+        Map<String, Object> projection = new HashMap<>();
+        for (Map<String, Object> entry : scanned) {
+            MembershipStatus status = MembershipStatus.fromValue((String) entry.get("status"));
+            Object timestamp = entry.get("timestamp");
+            if (status != null) {
+                projection.put((String) entry.get("deviceId"), packLocation((GeoPoint) entry.get("joinLocation"),
+                        status, timestamp instanceof Number ? ((Number) timestamp).longValue() : 0));
+            }
+        }
+        database.execute("EventDB.rebuildLocationProjection", () -> {
+            synchronized (store) {
+                updateLocationProjection(eventId, projection, true);
+            }
+            return (Void) null;
+        }, unused -> { }, e -> { });
+    }
+
+    @Override
+    public void getEntrantsNear(String eventId, String collection, GeoPoint center, double radiusMeters,
+                                EventDB.Callback<List<Map<String, Object>>> cb) {
+        String timestampField;
+        try {
+            ValidationHelper.requireNonEmpty(eventId, "eventId");
+            ValidationHelper.requireNonNull(center, "center");
+            if (!(radiusMeters > 0)) {
+                throw new IllegalArgumentException("radiusMeters must be positive");
+            }
+            ValidationHelper.requireNonEmpty(collection, "collection");
+            timestampField = locationTimestampField(collection);
+        } catch (IllegalArgumentException e) {
+            cb.onError(e);
+            return;
+        }
+        double lat = center.getLatitude();
+        double lng = center.getLongitude();
+        double[] box = GeoHash.boundsForRadius(lat, lng, radiusMeters);
+        queryGeohashRanges("EventDB.getEntrantsNear", eventId, collection, timestampField,
+                GeoHash.rangesForBounds(box[0], box[1], box[2], box[3]), candidates -> {
+                    List<Map<String, Object>> matches = new ArrayList<>();
+                    for (Map<String, Object> entry : candidates) {
+                        GeoPoint point = (GeoPoint) entry.get("joinLocation");
+                        double distance = GeoHash.distanceMeters(lat, lng, point.getLatitude(), point.getLongitude());
+                        if (distance <= radiusMeters) {
+                            entry.put("distanceMeters", distance);
+                            matches.add(entry);
+                        }
+                    }
+                    matches.sort(Comparator.comparingDouble(entry -> (Double) entry.get("distanceMeters")));
+                    cb.onSuccess(matches);
+                }, cb::onError);
+    }
+
+    @Override
+    public void getEntrantsInBounds(String eventId, String collection, GeoPoint southWest, GeoPoint northEast,
+                                    EventDB.Callback<List<Map<String, Object>>> cb) {
+        String timestampField;
+        try {
+            ValidationHelper.requireNonEmpty(eventId, "eventId");
+            ValidationHelper.requireNonNull(southWest, "southWest");
+            ValidationHelper.requireNonNull(northEast, "northEast");
+            ValidationHelper.requireNonEmpty(collection, "collection");
+            timestampField = locationTimestampField(collection);
+        } catch (IllegalArgumentException e) {
+            cb.onError(e);
+            return;
+        }
+        double south = southWest.getLatitude();
+        double west = southWest.getLongitude();
+        double north = northEast.getLatitude();
+        double east = northEast.getLongitude();
+        queryGeohashRanges("EventDB.getEntrantsInBounds", eventId, collection, timestampField,
+                GeoHash.rangesForBounds(south, west, north, east), candidates -> {
+                    List<Map<String, Object>> matches = new ArrayList<>();
+                    for (Map<String, Object> entry : candidates) {
+                        GeoPoint point = (GeoPoint) entry.get("joinLocation");
+                        if (GeoHash.contains(south, west, north, east, point.getLatitude(), point.getLongitude())) {
+                            matches.add(entry);
+                        }
+                    }
+                    cb.onSuccess(matches);
+                }, cb::onError);
+    }
+
+    /**
+     * One indexed range query per geohash range, billed for the documents it returns,
+     * as EventDB runs them. Any failed range fails the whole search.
+     */
+    private void queryGeohashRanges(String operation, String eventId, String collection, String timestampField,
+                                    List<String[]> ranges, Consumer<List<Map<String, Object>>> onSuccess,
+                                    Consumer<Exception> onError) {
+        Map<String, Map<String, Object>> entries = new HashMap<>();
+        int[] completed = {0};
+        boolean[] failed = {false};
+        String path = "events/" + eventId + "/" + collection;
+        for (String[] range : ranges) {
+            database.execute(operation, () -> store.query(path, data -> {
+                Object hash = data.get(GEOHASH);
+                return hash instanceof String
+                        && ((String) hash).compareTo(range[0]) >= 0
+                        && ((String) hash).compareTo(range[1]) <= 0;
+            }), docs -> {
+                List<Map<String, Object>> result = null;
+                synchronized (entries) {
+                    if (failed[0]) {
+                        return;
+                    }
+                    for (InMemoryDocumentStore.Doc doc : docs) {
+                        Object location = doc.getData().get("joinLocation");
+                        if (location instanceof GeoPoint) {
+                            Map<String, Object> entry = new HashMap<>();
+                            entry.put("deviceId", doc.getId());
+                            entry.put("joinLocation", location);
+                            entry.put("timestamp", doc.getData().get(timestampField));
+                            entries.put(doc.getId(), entry);
+                        }
+                    }
+                    if (++completed[0] == ranges.size()) {
+                        result = new ArrayList<>(entries.values());
+                    }
+                }
+                if (result != null) {
+                    onSuccess.accept(result);
+                }
+            }, e -> {
+                synchronized (entries) {
+                    if (failed[0]) {
+                        return;
+                    }
+                    failed[0] = true;
+                }
+                onError.accept(e);
+            });
+        }
+    }
+
+    private static String locationTimestampField(String collection) {
+        switch (collection) {
+            case "waitingList":
+                return "request_time";
+            case "winners":
+                return "invitedAt";
+            case "replacementPool":
+                return "addedToPoolAt";
+            case "accepted":
+            case "cancelled":
+                return "respondedAt";
+            default:
+                throw new IllegalArgumentException("Unknown entrant list: " + collection);
+        }
+    }
+
+    private static void putJoinLocation(Map<String, Object> data, Object location) {
+        if (location != null) {
+            data.put("joinLocation", location);
+            if (location instanceof GeoPoint) {
+                GeoPoint point = (GeoPoint) location;
+                data.put(GEOHASH, GeoHash.encode(point.getLatitude(), point.getLongitude()));
+            }
+        }
+    }
+
+    @Override
+    public void promoteFromWaitlist(String eventId, String entrantId, EventDB.Callback<Void> cb) {
+        try {
+            ValidationHelper.requireNonEmpty(eventId, "eventId");
+            ValidationHelper.requireNonEmpty(entrantId, "entrantId");
+        } catch (IllegalArgumentException e) {
+            cb.onError(e);
+            return;
+        }
+        String eventPath = "events/" + eventId;
+        String entryPath = eventPath + "/waitingList/" + entrantId;
+        database.execute("EventDB.promoteFromWaitlist", () -> {
+            synchronized (store) {
+                Map<String, Object> entry = store.get(entryPath);
+                if (entry == null) {
+                    return false;
+                }
+                Map<String, Object> event = store.get(eventPath);
+                Map<String, Object> data = new HashMap<>();
+                data.put("deviceId", entrantId);
+                data.put("invitedAt", database.now());
+                data.put("isReplacement", true);
+                putJoinLocation(data, entry.get("joinLocation"));
+                store.delete(entryPath);
+                store.set(eventPath + "/winners/" + entrantId, data);
+                setMembership(eventId, entrantId, MembershipStatus.INVITED);
+                setLocationEntry(eventId, entrantId, entry.get("joinLocation"), MembershipStatus.INVITED);
+                decrementWaitlistCounter(eventPath, event, 1);
+                return true;
+            }
+        }, promoted -> {
+            if (!promoted) {
+                cb.onError(new IllegalArgumentException("Entrant not in waitlist"));
+                return;
+            }
+            cb.onSuccess(null);
+        }, cb::onError);
+    }
+
+    /**
+     * Reads the entrant from a source list, then moves them to winners as a replacement.
+     */
+    private void promote(String operation, String eventId, String source, String entrantId,
+                         String missingMessage, EventDB.Callback<Void> cb) {
+        String base = "events/" + eventId + "/";
+        database.execute(operation, () -> store.get(base + source + "/" + entrantId), entry -> {
+            if (entry == null) {
+                cb.onError(new IllegalArgumentException(missingMessage));
+                return;
+            }
+            Object location = entry.get("joinLocation");
+            database.execute(operation, () -> {
+                Map<String, Object> data = new HashMap<>();
+                data.put("deviceId", entrantId);
+                data.put("invitedAt", database.now());
+                data.put("isReplacement", true);
+                putJoinLocation(data, location);
+                synchronized (store) {
+                    store.delete(base + source + "/" + entrantId);
+                    store.set(base + "winners/" + entrantId, data);
+                    setMembership(eventId, entrantId, MembershipStatus.INVITED);
+                    setLocationEntry(eventId, entrantId, location, MembershipStatus.INVITED);
+                }
+                return (Void) null;
+            }, cb::onSuccess, cb::onError);
+        }, cb::onError);
+    }
+
+    @Override
+    public void logDeclineReplacement(String eventId, String declinedEntrantId, String replacementEntrantId,
+                                      String source, boolean replacementNotified, EventDB.Callback<Void> cb) {
+        try {
+            ValidationHelper.requireNonEmpty(eventId, "eventId");
+            ValidationHelper.requireNonEmpty(declinedEntrantId, "declinedEntrantId");
+        } catch (IllegalArgumentException e) {
+            cb.onError(e);
+            return;
+        }
+        database.execute("EventDB.logDeclineReplacement", () -> {
+            long declinedAt = database.now();
+            Map<String, Object> logData = new HashMap<>();
+            logData.put("declinedEntrantId", declinedEntrantId);
+            logData.put("eventId", eventId);
+            logData.put("declinedAt", declinedAt);
+            logData.put("replacedAt", declinedAt);
+            logData.put("replacementNotified", replacementNotified);
+            if (replacementEntrantId != null && !replacementEntrantId.isEmpty()) {
+                logData.put("replacementEntrantId", replacementEntrantId);
+            }
+            if (source != null && !source.isEmpty()) {
+                logData.put("source", source);
+            }
+            store.add("events/" + eventId + "/declineLogs", logData);
+            return (Void) null;
+        }, cb::onSuccess, cb::onError);
+    }
+
+    /**
+     * Deletes each subcollection in batches of 500, then the event itself. Subcollection
+     * failures are skipped so the event document is always attempted, as in EventDB.
+     */
+    @Override
+    public void deleteEvent(String eventId, EventDB.Callback<Void> cb) {
+        try {
+            ValidationHelper.requireNonEmpty(eventId, "eventId");
+        } catch (IllegalArgumentException e) {
+            cb.onError(e);
+            return;
+        }
+        eventCache.invalidate(eventId);
+        String[] subcollections = {
+                "waitingList", "winners", "accepted", "cancelled", "replacementPool", MEMBERSHIPS, CHECK_INS,
+                LOCATION_CHUNKS, "declineLogs"
+        };
+        deleteSubcollections(eventId, subcollections, 0, () ->
+                database.execute("EventDB.deleteEvent", () -> {
+                    store.delete("events/" + eventId);
+                    return (Void) null;
+                }, unused -> {
+                    eventCache.invalidate(eventId);
+                    cb.onSuccess(null);
+                }, cb::onError));
+    }
+
+    private void deleteSubcollections(String eventId, String[] names, int index, Runnable done) {
+        if (index >= names.length) {
+            done.run();
+            return;
+        }
+        String path = "events/" + eventId + "/" + names[index];
+        Runnable next = () -> deleteSubcollections(eventId, names, index + 1, done);
+        database.execute("EventDB.deleteEvent", () -> store.query(path),
+                docs -> deleteInBatches(path, docs, 0, next),
+                e -> next.run());
+    }
+
+    private void deleteInBatches(String path, List<InMemoryDocumentStore.Doc> docs, int start, Runnable done) {
+        if (start >= docs.size()) {
+            done.run();
+            return;
+        }
+        int end = Math.min(start + BATCH_SIZE, docs.size());
+        database.execute("EventDB.deleteEvent", () -> {
+            synchronized (store) {
+                for (int i = start; i < end; i++) {
+                    store.delete(path + "/" + docs.get(i).getId());
+                }
+            }
+            return (Void) null;
+        }, unused -> deleteInBatches(path, docs, end, done), e -> deleteInBatches(path, docs, end, done));
+    }
+
+    // ---- mapping, matching EventDB.addEvent and DocumentMappers.event ----
+
+    private static Map<String, Object> toDocument(Event event) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("name", event.getName());
+        data.put("description", event.getDescription());
+        data.put("location", event.getLocation());
+        data.put("open", event.isOpen());
+        data.put("organizerId", event.getOrganizerId());
+        data.put("qrCode", event.getQrCode());
+        data.put("maxCapacity", event.getMaxCapacity());
+        data.put("eventDateTime", event.getEventDateTime());
+        data.put("registrationOpen", event.getRegistrationOpen());
+        data.put("registrationClose", event.getRegistrationClose());
+        data.put("posterUrl", event.getPosterUrl());
+        data.put("posterThumbUrl", event.getPosterThumbUrl());
+        data.put("posterCardUrl", event.getPosterCardUrl());
+        data.put("tags", event.getTags() != null ? new ArrayList<>(event.getTags()) : new ArrayList<String>());
+        return data;
+    }
+
+    private static Event toEvent(String id, Map<String, Object> data) {
+        return DocumentMappers.event(id, data::get);
+    }
+
+    private static List<Event> toEvents(List<InMemoryDocumentStore.Doc> docs) {
+        List<Event> events = new ArrayList<>();
+        for (InMemoryDocumentStore.Doc doc : docs) {
+            events.add(toEvent(doc.getId(), doc.getData()));
+        }
+        return events;
+    }
+
+    private static String asString(Object value) {
+        return value != null ? value.toString() : null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<String> stringList(Object value) {
+        return value instanceof List ? new ArrayList<>((List<String>) value) : null;
+    }
+}
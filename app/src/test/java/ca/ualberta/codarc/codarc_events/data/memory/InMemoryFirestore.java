@@ -0,0 +1,793 @@
+package ca.ualberta.codarc.codarc_events.data.memory;
+
+import com.google.android.gms.tasks.OnCanceledListener;
+import com.google.android.gms.tasks.OnCompleteListener;
+import com.google.android.gms.tasks.OnFailureListener;
+import com.google.android.gms.tasks.OnSuccessListener;
+import com.google.android.gms.tasks.Task;
+import com.google.firebase.Timestamp;
+import com.google.firebase.firestore.AggregateQuery;
+import com.google.firebase.firestore.AggregateQuerySnapshot;
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldPath;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.FirebaseFirestoreException;
+import com.google.firebase.firestore.PropertyName;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QueryDocumentSnapshot;
+import com.google.firebase.firestore.QuerySnapshot;
+import com.google.firebase.firestore.SetOptions;
+import com.google.firebase.firestore.Transaction;
+import com.google.firebase.firestore.WriteBatch;
+
+import org.mockito.MockedStatic;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * Firestore's client API answered from an {@link InMemoryDocumentStore}, so the real
+ * EventDB, EntrantDB and the other Firestore classes run on a plain JVM. The client
+ * objects are Mockito stand-ins that answer the calls those classes make; anything
+ * else throws, so a new kind of call shows up as a failing test rather than a silent
+ * zero. Tasks complete at once and deliver their listeners on the given executor, or
+ * on the one passed with the listener.
+ *
+ * Reads and writes are billed on the store as Firestore bills them: a read per
+ * document fetched, at least one per query, one per thousand entries counted, and a
+ * write per document set, updated or deleted. FieldValue's factories are static, so
+ * they are intercepted on the creating thread until {@link #close()}.
+ */
+public class InMemoryFirestore implements AutoCloseable {
+
+    private static final String INCREMENT = "increment";
+    private static final String SERVER_TIMESTAMP = "serverTimestamp";
+    private static final String DELETE = "delete";
+
+    private final InMemoryDocumentStore store;
+    private final Executor listenerExecutor;
+    private final Map<Object, Object[]> fieldValues = Collections.synchronizedMap(new IdentityHashMap<>());
+    private final MockedStatic<FieldValue> fieldValueFactories;
+    private final FirebaseFirestore firestore;
+    private int nextAutoId;
+
+    /**
+     * @param store documents to answer from
+     * @param listenerExecutor where task listeners attached without an executor run
+     */
+    public InMemoryFirestore(InMemoryDocumentStore store, Executor listenerExecutor) {
+        this.store = store;
+        this.listenerExecutor = listenerExecutor;
+        this.fieldValueFactories = Mockito.mockStatic(FieldValue.class, inv -> {
+            FieldValue sentinel = standIn(FieldValue.class, unused -> null);
+            fieldValues.put(sentinel, new Object[]{inv.getMethod().getName(),
+                    inv.getArguments().length > 0 ? inv.getArgument(0) : null});
+            return sentinel;
+        });
+        this.firestore = standIn(FirebaseFirestore.class, this::answerFirestore);
+    }
+
+    public FirebaseFirestore getFirestore() {
+        return firestore;
+    }
+
+    @Override
+    public void close() {
+        fieldValueFactories.close();
+    }
+
+    // ---- client objects ----
+
+    private Object answerFirestore(InvocationOnMock inv) throws Throwable {
+        switch (inv.getMethod().getName()) {
+            case "collection":
+                return collection(inv.getArgument(0));
+            case "document":
+                return document(inv.getArgument(0));
+            case "batch":
+                return new Batch().standIn;
+            case "runTransaction":
+                return runTransaction(inv.getArgument(0));
+            default:
+                return unsupported(inv);
+        }
+    }
+
+    private CollectionReference collection(String path) {
+        QuerySpec spec = new QuerySpec(path);
+        return standIn(CollectionReference.class, inv -> {
+            switch (inv.getMethod().getName()) {
+                case "document":
+                    return document(path + "/" + (inv.getArguments().length > 0 ? inv.getArgument(0) : autoId()));
+                case "add": {
+                    String docPath = path + "/" + autoId();
+                    write(docPath, toMap(inv.getArgument(0)), false);
+                    return task(document(docPath), null);
+                }
+                case "getId":
+                    return lastSegment(path);
+                case "getPath":
+                    return path;
+                default:
+                    return answerQuery(spec, inv);
+            }
+        });
+    }
+
+    private Query query(QuerySpec spec) {
+        return standIn(Query.class, inv -> answerQuery(spec, inv));
+    }
+
+    private Object answerQuery(QuerySpec spec, InvocationOnMock inv) throws Throwable {
+        Object[] args = inv.getArguments();
+        switch (inv.getMethod().getName()) {
+            case "whereEqualTo":
+                return query(spec.where(fieldName(inv), (value, bound) -> compare(value, bound) == 0, args[1]));
+            case "whereGreaterThan":
+                return query(spec.where(fieldName(inv), (value, bound) -> compare(value, bound) > 0, args[1]));
+            case "orderBy":
+                return query(spec.orderBy(fieldName(inv),
+                        args.length > 1 && args[1] == Query.Direction.DESCENDING));
+            case "limit":
+                return query(spec.limit(((Number) args[0]).intValue()));
+            case "startAt":
+                return query(spec.cursor(cursorValues(inv), true, true));
+            case "startAfter":
+                return query(spec.cursor(cursorValues(inv), true, false));
+            case "endAt":
+                return query(spec.cursor(cursorValues(inv), false, true));
+            case "get":
+                return task(querySnapshot(spec.collection, spec.run(store)), null);
+            case "count":
+                return standIn(AggregateQuery.class, countInv -> {
+                    if (!"get".equals(countInv.getMethod().getName())) {
+                        return unsupported(countInv);
+                    }
+                    long count = spec.run(store).size();
+                    store.billReads(Math.max(1, (count + 999) / 1000));
+                    return task(standIn(AggregateQuerySnapshot.class, snapshotInv ->
+                            "getCount".equals(snapshotInv.getMethod().getName())
+                                    ? count : unsupported(snapshotInv)), null);
+                });
+            default:
+                return unsupported(inv);
+        }
+    }
+
+    private DocumentReference document(String path) {
+        return standIn(DocumentReference.class, inv -> {
+            switch (inv.getMethod().getName()) {
+                case "getId":
+                    return lastSegment(path);
+                case "getPath":
+                    return path;
+                case "getParent":
+                    return collection(path.substring(0, path.lastIndexOf('/')));
+                case "collection":
+                    return collection(path + "/" + inv.getArgument(0));
+                case "get":
+                    return task(documentSnapshot(DocumentSnapshot.class, path, store.get(path)), null);
+                case "set":
+                    write(path, toMap(inv.getArgument(0)), hasSetOptions(inv));
+                    return task(null, null);
+                case "update":
+                    if (!store.exists(path)) {
+                        return task(null, notFound(path));
+                    }
+                    update(path, updateFields(inv.getArguments()));
+                    return task(null, null);
+                case "delete":
+                    store.delete(path);
+                    return task(null, null);
+                default:
+                    return unsupported(inv);
+            }
+        });
+    }
+
+    /**
+     * Writes buffered until commit, validated first so a failed batch writes nothing.
+     */
+    private final class Batch {
+        final List<Runnable> writes = new ArrayList<>();
+        final List<String> mustExist = new ArrayList<>();
+        final WriteBatch standIn = InMemoryFirestore.this.standIn(WriteBatch.class, this::answer);
+
+        private Object answer(InvocationOnMock inv) {
+            Object[] args = inv.getArguments();
+            switch (inv.getMethod().getName()) {
+                case "set": {
+                    String path = pathOf(args[0]);
+                    Map<String, Object> data = toMap(args[1]);
+                    boolean merge = hasSetOptions(inv);
+                    writes.add(() -> write(path, data, merge));
+                    return inv.getMock();
+                }
+                case "update": {
+                    String path = pathOf(args[0]);
+                    Map<String, Object> fields = updateFields(Arrays.copyOfRange(args, 1, args.length));
+                    mustExist.add(path);
+                    writes.add(() -> update(path, fields));
+                    return inv.getMock();
+                }
+                case "delete": {
+                    String path = pathOf(args[0]);
+                    writes.add(() -> store.delete(path));
+                    return inv.getMock();
+                }
+                case "commit":
+                    return commit();
+                default:
+                    return unsupported(inv);
+            }
+        }
+
+        Task<Void> commit() {
+            synchronized (store) {
+                for (String path : mustExist) {
+                    if (!store.exists(path)) {
+                        return task(null, notFound(path));
+                    }
+                }
+                for (Runnable write : writes) {
+                    write.run();
+                }
+            }
+            return task(null, null);
+        }
+    }
+
+    /**
+     * Runs a transaction once, reading current documents and committing its writes
+     * as a batch. Nothing runs concurrently here, so there are no retries.
+     */
+    private Task<Object> runTransaction(Transaction.Function<?> function) {
+        Batch writes = new Batch();
+        Transaction transaction = standIn(Transaction.class, inv -> {
+            switch (inv.getMethod().getName()) {
+                case "get": {
+                    String path = pathOf(inv.getArgument(0));
+                    return documentSnapshot(DocumentSnapshot.class, path, store.get(path));
+                }
+                case "set":
+                case "update":
+                case "delete":
+                    writes.answer(inv);
+                    return inv.getMock();
+                default:
+                    return unsupported(inv);
+            }
+        });
+        synchronized (store) {
+            Object result;
+            try {
+                result = function.apply(transaction);
+            } catch (Exception e) {
+                return task(null, e);
+            }
+            Task<Void> committed = writes.commit();
+            return task(result, committed.getException());
+        }
+    }
+
+    // ---- snapshots ----
+
+    private QuerySnapshot querySnapshot(String collection, List<InMemoryDocumentStore.Doc> docs) {
+        store.billReads(Math.max(1, docs.size()));
+        List<QueryDocumentSnapshot> snapshots = new ArrayList<>(docs.size());
+        for (InMemoryDocumentStore.Doc doc : docs) {
+            snapshots.add(documentSnapshot(QueryDocumentSnapshot.class, collection + "/" + doc.getId(), doc.getData()));
+        }
+        return standIn(QuerySnapshot.class, inv -> {
+            switch (inv.getMethod().getName()) {
+                case "iterator":
+                    return snapshots.iterator();
+                case "size":
+                    return snapshots.size();
+                case "isEmpty":
+                    return snapshots.isEmpty();
+                case "getDocuments":
+                    return new ArrayList<DocumentSnapshot>(snapshots);
+                case "forEach":
+                    snapshots.forEach(inv.getArgument(0));
+                    return null;
+                case "spliterator":
+                    return snapshots.spliterator();
+                default:
+                    return unsupported(inv);
+            }
+        });
+    }
+
+    private <T extends DocumentSnapshot> T documentSnapshot(Class<T> type, String path, Map<String, Object> stored) {
+        @SuppressWarnings("unchecked")
+        Map<String, Object> data = stored != null ? (Map<String, Object>) normalize(stored) : null;
+        return standIn(type, inv -> {
+            String name = inv.getMethod().getName();
+            switch (name) {
+                case "getId":
+                    return lastSegment(path);
+                case "exists":
+                    return data != null;
+                case "getReference":
+                    return document(path);
+                case "getData":
+                    return data != null ? new HashMap<>(data) : null;
+                case "contains":
+                    return data != null && field(data, fieldName(inv)) != null;
+                case "toObject":
+                    return data != null ? toObject(inv.getArgument(0), data) : null;
+                default:
+                    break;
+            }
+            if (!name.startsWith("get") || inv.getArguments().length == 0) {
+                return unsupported(inv);
+            }
+            Object value = data != null ? field(data, fieldName(inv)) : null;
+            switch (name) {
+                case "get":
+                    return value;
+                case "getString":
+                    return (String) value;
+                case "getBoolean":
+                    return (Boolean) value;
+                case "getLong":
+                    return value != null ? ((Number) value).longValue() : null;
+                case "getDouble":
+                    return value != null ? ((Number) value).doubleValue() : null;
+                case "getGeoPoint":
+                    return value;
+                case "getTimestamp":
+                    return value instanceof Number ? new Timestamp(new Date(((Number) value).longValue())) : value;
+                case "getDate":
+                    return value instanceof Timestamp ? ((Timestamp) value).toDate()
+                            : value instanceof Number ? new Date(((Number) value).longValue()) : value;
+                default:
+                    return unsupported(inv);
+            }
+        });
+    }
+
+    /**
+     * Maps a document onto a model through its setters, honouring {@code @PropertyName}
+     * the way Firestore's mapper does for the models in this app.
+     */
+    private static Object toObject(Class<?> type, Map<String, Object> data) throws Exception {
+        Object target = type.getDeclaredConstructor().newInstance();
+        for (Method setter : type.getMethods()) {
+            if (!setter.getName().startsWith("set") || setter.getParameterTypes().length != 1) {
+                continue;
+            }
+            PropertyName property = setter.getAnnotation(PropertyName.class);
+            String name = property != null ? property.value()
+                    : Character.toLowerCase(setter.getName().charAt(3)) + setter.getName().substring(4);
+            Object value = data.get(name);
+            if (value == null) {
+                continue;
+            }
+            Class<?> parameter = setter.getParameterTypes()[0];
+            if (parameter == long.class || parameter == Long.class) {
+                value = ((Number) value).longValue();
+            } else if (parameter == int.class || parameter == Integer.class) {
+                value = ((Number) value).intValue();
+            } else if (parameter == double.class || parameter == Double.class) {
+                value = ((Number) value).doubleValue();
+            }
+            if (parameter.isPrimitive() || parameter.isInstance(value)) {
+                setter.invoke(target, value);
+            }
+        }
+        return target;
+    }
+
+    // ---- writes ----
+
+    private void write(String path, Map<String, Object> data, boolean merge) {
+        synchronized (store) {
+            Map<String, Object> existing = store.peek(path);
+            Map<String, Object> written = merge && existing != null ? existing : new HashMap<>();
+            mergeInto(written, data);
+            store.set(path, written);
+        }
+    }
+
+    private void update(String path, Map<String, Object> fields) {
+        synchronized (store) {
+            Map<String, Object> existing = store.peek(path);
+            for (Map.Entry<String, Object> entry : fields.entrySet()) {
+                Map<String, Object> parent = existing;
+                String[] segments = entry.getKey().split("\\.");
+                for (int i = 0; i < segments.length - 1; i++) {
+                    parent = childMap(parent, segments[i]);
+                }
+                put(parent, segments[segments.length - 1], entry.getValue());
+            }
+            store.set(path, existing);
+        }
+    }
+
+    /**
+     * Set-with-merge semantics: nested maps merge field by field.
+     */
+    private void mergeInto(Map<String, Object> target, Map<String, Object> data) {
+        for (Map.Entry<String, Object> entry : data.entrySet()) {
+            if (entry.getValue() instanceof Map && !fieldValues.containsKey(entry.getValue())) {
+                @SuppressWarnings("unchecked")
+                Map<String, Object> nested = (Map<String, Object>) entry.getValue();
+                mergeInto(childMap(target, entry.getKey()), nested);
+            } else {
+                put(target, entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    private void put(Map<String, Object> target, String key, Object value) {
+        Object[] sentinel = fieldValues.get(value);
+        if (sentinel == null) {
+            target.put(key, normalize(value));
+        } else if (DELETE.equals(sentinel[0])) {
+            target.remove(key);
+        } else if (SERVER_TIMESTAMP.equals(sentinel[0])) {
+            target.put(key, Timestamp.now());
+        } else if (INCREMENT.equals(sentinel[0])) {
+            Object current = target.get(key);
+            Number by = (Number) sentinel[1];
+            boolean whole = !(by instanceof Double) && !(current instanceof Double);
+            double base = current instanceof Number ? ((Number) current).doubleValue() : 0;
+            target.put(key, whole ? (Object) ((long) base + by.longValue()) : base + by.doubleValue());
+        } else {
+            throw new UnsupportedOperationException("FieldValue." + sentinel[0]);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> childMap(Map<String, Object> parent, String key) {
+        Object child = parent.get(key);
+        if (!(child instanceof Map)) {
+            child = new HashMap<String, Object>();
+            parent.put(key, child);
+        } else {
+            child = new HashMap<>((Map<String, Object>) child);
+            parent.put(key, child);
+        }
+        return (Map<String, Object>) child;
+    }
+
+    private static Map<String, Object> updateFields(Object[] args) {
+        if (args[0] instanceof Map) {
+            @SuppressWarnings("unchecked")
+            Map<String, Object> fields = (Map<String, Object>) args[0];
+            return fields;
+        }
+        Map<String, Object> fields = new HashMap<>();
+        fields.put((String) args[0], args[1]);
+        Object[] more = args.length > 2 && args[2] instanceof Object[] ? (Object[]) args[2] : new Object[0];
+        for (int i = 0; i + 1 < more.length; i += 2) {
+            fields.put((String) more[i], more[i + 1]);
+        }
+        return fields;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> toMap(Object data) {
+        if (!(data instanceof Map)) {
+            throw new UnsupportedOperationException("Only map documents are written: " + data);
+        }
+        return (Map<String, Object>) data;
+    }
+
+    // ---- values ----
+
+    /**
+     * Stores numbers the way Firestore returns them: whole numbers as Long, others as Double.
+     */
+    private static Object normalize(Object value) {
+        if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return ((Number) value).longValue();
+        }
+        if (value instanceof Float) {
+            return ((Number) value).doubleValue();
+        }
+        if (value instanceof Map) {
+            Map<String, Object> copy = new HashMap<>();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                copy.put((String) entry.getKey(), normalize(entry.getValue()));
+            }
+            return copy;
+        }
+        if (value instanceof List) {
+            List<Object> copy = new ArrayList<>();
+            for (Object item : (List<?>) value) {
+                copy.add(normalize(item));
+            }
+            return copy;
+        }
+        return value;
+    }
+
+    private static Object field(Map<String, Object> data, String path) {
+        Object value = data;
+        for (String segment : path.split("\\.")) {
+            if (!(value instanceof Map)) {
+                return null;
+            }
+            value = ((Map<?, ?>) value).get(segment);
+        }
+        return value;
+    }
+
+    /**
+     * Orders values within a type the way Firestore does; mixed types fall back to type order.
+     */
+    static int compare(Object a, Object b) {
+        if (a == null || b == null) {
+            return a == b ? 0 : a == null ? -1 : 1;
+        }
+        if (a instanceof Number && b instanceof Number) {
+            return Double.compare(((Number) a).doubleValue(), ((Number) b).doubleValue());
+        }
+        if (a instanceof Timestamp && b instanceof Timestamp) {
+            Timestamp x = (Timestamp) a;
+            Timestamp y = (Timestamp) b;
+            return x.getSeconds() != y.getSeconds() ? Long.compare(x.getSeconds(), y.getSeconds())
+                    : Integer.compare(x.getNanoseconds(), y.getNanoseconds());
+        }
+        if (a instanceof String && b instanceof String) {
+            return ((String) a).compareTo((String) b);
+        }
+        if (a instanceof Boolean && b instanceof Boolean) {
+            return Boolean.compare((Boolean) a, (Boolean) b);
+        }
+        return a.getClass().getName().compareTo(b.getClass().getName());
+    }
+
+    // ---- queries ----
+
+    private interface Condition {
+        boolean test(Object value, Object bound);
+    }
+
+    /**
+     * One query over the direct children of a collection: filters, order, cursors and limit.
+     */
+    private static final class QuerySpec {
+        /** Orders by document ID, as for {@link FieldPath#documentId()}. */
+        static final String DOCUMENT_ID = "__name__";
+
+        final String collection;
+        final List<Object[]> filters = new ArrayList<>();
+        final List<String> orderFields = new ArrayList<>();
+        final List<Boolean> descending = new ArrayList<>();
+        final List<Object[]> cursors = new ArrayList<>();
+        int limit = Integer.MAX_VALUE;
+
+        QuerySpec(String collection) {
+            this.collection = collection;
+        }
+
+        private QuerySpec copy() {
+            QuerySpec copy = new QuerySpec(collection);
+            copy.filters.addAll(filters);
+            copy.orderFields.addAll(orderFields);
+            copy.descending.addAll(descending);
+            copy.cursors.addAll(cursors);
+            copy.limit = limit;
+            return copy;
+        }
+
+        QuerySpec where(String field, Condition condition, Object bound) {
+            QuerySpec copy = copy();
+            copy.filters.add(new Object[]{field, condition, normalize(bound)});
+            return copy;
+        }
+
+        QuerySpec orderBy(String field, boolean desc) {
+            QuerySpec copy = copy();
+            copy.orderFields.add(field);
+            copy.descending.add(desc);
+            return copy;
+        }
+
+        QuerySpec limit(int limit) {
+            QuerySpec copy = copy();
+            copy.limit = limit;
+            return copy;
+        }
+
+        /**
+         * @param start whether this is a start cursor rather than an end cursor
+         * @param inclusive whether documents at the cursor are included
+         */
+        QuerySpec cursor(Object[] values, boolean start, boolean inclusive) {
+            QuerySpec copy = copy();
+            copy.cursors.add(new Object[]{values, start, inclusive});
+            return copy;
+        }
+
+        List<InMemoryDocumentStore.Doc> run(InMemoryDocumentStore store) {
+            List<InMemoryDocumentStore.Doc> matches = new ArrayList<>();
+            for (InMemoryDocumentStore.Doc doc : store.snapshot(collection)) {
+                if (matches(doc)) {
+                    matches.add(doc);
+                }
+            }
+            matches.sort(this::compareDocs);
+            List<InMemoryDocumentStore.Doc> results = new ArrayList<>();
+            for (InMemoryDocumentStore.Doc doc : matches) {
+                if (withinCursors(doc)) {
+                    results.add(doc);
+                    if (results.size() == limit) {
+                        break;
+                    }
+                }
+            }
+            return results;
+        }
+
+        private boolean matches(InMemoryDocumentStore.Doc doc) {
+            Map<String, Object> data = doc.getData();
+            for (Object[] filter : filters) {
+                Object value = normalize(field(data, (String) filter[0]));
+                if (value == null || !((Condition) filter[1]).test(value, filter[2])) {
+                    return false;
+                }
+            }
+            // Ordering on a field leaves out documents without it.
+            for (String field : orderFields) {
+                if (!DOCUMENT_ID.equals(field) && field(data, field) == null) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private Object orderValue(InMemoryDocumentStore.Doc doc, String field) {
+            return DOCUMENT_ID.equals(field) ? doc.getId() : normalize(field(doc.getData(), field));
+        }
+
+        private int compareDocs(InMemoryDocumentStore.Doc a, InMemoryDocumentStore.Doc b) {
+            for (int i = 0; i < orderFields.size(); i++) {
+                int order = compare(orderValue(a, orderFields.get(i)), orderValue(b, orderFields.get(i)));
+                if (order != 0) {
+                    return descending.get(i) ? -order : order;
+                }
+            }
+            return a.getId().compareTo(b.getId());
+        }
+
+        private boolean withinCursors(InMemoryDocumentStore.Doc doc) {
+            for (Object[] cursor : cursors) {
+                Object[] values = (Object[]) cursor[0];
+                int order = 0;
+                for (int i = 0; i < values.length && order == 0; i++) {
+                    order = compare(orderValue(doc, orderFields.get(i)), normalize(values[i]));
+                    if (descending.get(i)) {
+                        order = -order;
+                    }
+                }
+                boolean start = (Boolean) cursor[1];
+                boolean inclusive = (Boolean) cursor[2];
+                if (start ? order < 0 || (order == 0 && !inclusive) : order > 0 || (order == 0 && !inclusive)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private static String fieldName(InvocationOnMock inv) {
+        return inv.getMethod().getParameterTypes()[0] == FieldPath.class
+                ? QuerySpec.DOCUMENT_ID : (String) inv.getArgument(0);
+    }
+
+    private static Object[] cursorValues(InvocationOnMock inv) {
+        Object[] args = inv.getArguments();
+        return args.length == 1 && args[0] instanceof Object[] ? (Object[]) args[0] : args;
+    }
+
+    // ---- tasks ----
+
+    /**
+     * A task that has already finished. Listeners run on the executor they were
+     * attached with, or on the listener executor, never inline.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> Task<T> task(T result, Exception error) {
+        return standIn(Task.class, inv -> {
+            Object[] args = inv.getArguments();
+            switch (inv.getMethod().getName()) {
+                case "isComplete":
+                    return true;
+                case "isSuccessful":
+                    return error == null;
+                case "isCanceled":
+                    return false;
+                case "getResult":
+                    return result;
+                case "getException":
+                    return error;
+                case "addOnSuccessListener":
+                    if (error == null) {
+                        deliver(args, () -> ((OnSuccessListener<T>) args[args.length - 1]).onSuccess(result));
+                    }
+                    return inv.getMock();
+                case "addOnFailureListener":
+                    if (error != null) {
+                        deliver(args, () -> ((OnFailureListener) args[args.length - 1]).onFailure(error));
+                    }
+                    return inv.getMock();
+                case "addOnCompleteListener":
+                    deliver(args, () -> ((OnCompleteListener<T>) args[args.length - 1])
+                            .onComplete((Task<T>) inv.getMock()));
+                    return inv.getMock();
+                case "addOnCanceledListener":
+                    return inv.getMock();
+                default:
+                    return unsupported(inv);
+            }
+        });
+    }
+
+    private void deliver(Object[] args, Runnable listener) {
+        Executor executor = args.length == 2 && args[0] instanceof Executor ? (Executor) args[0] : listenerExecutor;
+        executor.execute(listener);
+    }
+
+    // ---- helpers ----
+
+    private <T> T standIn(Class<T> type, Answer<?> answer) {
+        return Mockito.mock(type, Mockito.withSettings().stubOnly().defaultAnswer(inv -> {
+            if ("toString".equals(inv.getMethod().getName())) {
+                return type.getSimpleName() + " stand-in";
+            }
+            return answer.answer(inv);
+        }));
+    }
+
+    private static Object unsupported(InvocationOnMock inv) {
+        throw new UnsupportedOperationException(inv.getMethod().getDeclaringClass().getSimpleName()
+                + "." + inv.getMethod().getName() + " is not answered by InMemoryFirestore");
+    }
+
+    private static boolean hasSetOptions(InvocationOnMock inv) {
+        for (Class<?> parameter : inv.getMethod().getParameterTypes()) {
+            if (parameter == SetOptions.class) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String pathOf(Object reference) {
+        return ((DocumentReference) reference).getPath();
+    }
+
+    private static String lastSegment(String path) {
+        return path.substring(path.lastIndexOf('/') + 1);
+    }
+
+    private synchronized String autoId() {
+        return "auto-" + (nextAutoId++);
+    }
+
+    private static FirebaseFirestoreException notFound(String path) {
+        return new FirebaseFirestoreException("No document to update: " + path,
+                FirebaseFirestoreException.Code.NOT_FOUND);
+    }
+}
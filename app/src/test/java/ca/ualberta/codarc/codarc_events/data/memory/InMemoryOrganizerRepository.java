@@ -0,0 +1,148 @@
+package ca.ualberta.codarc.codarc_events.data.memory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import ca.ualberta.codarc.codarc_events.data.OrganizerDB;
+import ca.ualberta.codarc.codarc_events.data.OrganizerRepository;
+import ca.ualberta.codarc.codarc_events.models.Organizer;
+import ca.ualberta.codarc.codarc_events.utils.ValidationHelper;
+
+/**
+ * In-memory {@link OrganizerRepository} with the same document layout, round trips and
+ * billing as {@link OrganizerDB}.
+ */
+public class InMemoryOrganizerRepository implements OrganizerRepository {
+
+    private final InMemoryDatabase database;
+    private final InMemoryDocumentStore store;
+
+    public InMemoryOrganizerRepository(InMemoryDatabase database) {
+        this.database = database;
+        this.store = database.getStore();
+    }
+
+    @Override
+    public void createOrganizer(String deviceId, OrganizerDB.Callback<Void> cb) {
+        try {
+            ValidationHelper.requireNonEmpty(deviceId, "deviceId");
+        } catch (IllegalArgumentException e) {
+            cb.onError(e);
+            return;
+        }
+        database.execute("OrganizerDB.createOrganizer", () -> {
+            Map<String, Object> data = new HashMap<>();
+            data.put("deviceId", deviceId);
+            data.put("banned", false);
+            store.set("organizers/" + deviceId, data);
+            return (Void) null;
+        }, cb::onSuccess, cb::onError);
+    }
+
+    @Override
+    public void organizerExists(String deviceId, OrganizerDB.Callback<Boolean> cb) {
+        try {
+            ValidationHelper.requireNonEmpty(deviceId, "deviceId");
+        } catch (IllegalArgumentException e) {
+            cb.onError(e);
+            return;
+        }
+        database.execute("OrganizerDB.organizerExists", () -> store.get("organizers/" + deviceId) != null,
+                cb::onSuccess, cb::onError);
+    }
+
+    @Override
+    public void addEventToOrganizer(String deviceId, String eventId, OrganizerDB.Callback<Void> cb) {
+        try {
+            ValidationHelper.requireNonEmpty(deviceId, "deviceId");
+            ValidationHelper.requireNonEmpty(eventId, "eventId");
+        } catch (IllegalArgumentException e) {
+            cb.onError(e);
+            return;
+        }
+        database.execute("OrganizerDB.addEventToOrganizer", () -> {
+            store.set("organizers/" + deviceId + "/events/" + eventId,
+                    Collections.singletonMap("eventId", eventId));
+            return (Void) null;
+        }, cb::onSuccess, cb::onError);
+    }
+
+    @Override
+    public void getOrganizerEvents(String deviceId, OrganizerDB.Callback<List<String>> cb) {
+        try {
+            ValidationHelper.requireNonEmpty(deviceId, "deviceId");
+        } catch (IllegalArgumentException e) {
+            cb.onError(e);
+            return;
+        }
+        database.execute("OrganizerDB.getOrganizerEvents", () -> {
+            List<String> eventIds = new ArrayList<>();
+            for (InMemoryDocumentStore.Doc doc : store.query("organizers/" + deviceId + "/events")) {
+                Object eventId = doc.getData().get("eventId");
+                if (eventId instanceof String) {
+                    eventIds.add((String) eventId);
+                }
+            }
+            return eventIds;
+        }, cb::onSuccess, cb::onError);
+    }
+
+    @Override
+    public void removeEventFromOrganizer(String deviceId, String eventId, OrganizerDB.Callback<Void> cb) {
+        try {
+            ValidationHelper.requireNonEmpty(deviceId, "deviceId");
+            ValidationHelper.requireNonEmpty(eventId, "eventId");
+        } catch (IllegalArgumentException e) {
+            cb.onError(e);
+            return;
+        }
+        database.execute("OrganizerDB.removeEventFromOrganizer", () -> {
+            store.delete("organizers/" + deviceId + "/events/" + eventId);
+            return (Void) null;
+        }, cb::onSuccess, cb::onError);
+    }
+
+    @Override
+    public void setBannedStatus(String deviceId, boolean banned, OrganizerDB.Callback<Void> cb) {
+        try {
+            ValidationHelper.requireNonEmpty(deviceId, "deviceId");
+        } catch (IllegalArgumentException e) {
+            cb.onError(e);
+            return;
+        }
+        database.execute("OrganizerDB.setBannedStatus", () -> {
+            store.update("organizers/" + deviceId, Collections.singletonMap("banned", banned));
+            return (Void) null;
+        }, cb::onSuccess, cb::onError);
+    }
+
+    @Override
+    public void isBanned(String deviceId, OrganizerDB.Callback<Boolean> cb) {
+        try {
+            ValidationHelper.requireNonEmpty(deviceId, "deviceId");
+        } catch (IllegalArgumentException e) {
+            cb.onError(e);
+            return;
+        }
+        database.execute("OrganizerDB.isBanned", () -> {
+            Map<String, Object> data = store.get("organizers/" + deviceId);
+            return data != null && Boolean.TRUE.equals(data.get("banned"));
+        }, cb::onSuccess, cb::onError);
+    }
+
+    @Override
+    public void getAllOrganizers(OrganizerDB.Callback<List<Organizer>> cb) {
+        database.execute("OrganizerDB.getAllOrganizers", () -> {
+            List<Organizer> organizers = new ArrayList<>();
+            for (InMemoryDocumentStore.Doc doc : store.query("organizers")) {
+                if (!Boolean.TRUE.equals(doc.getData().get("banned"))) {
+                    organizers.add(new Organizer(doc.getId()));
+                }
+            }
+            return organizers;
+        }, cb::onSuccess, cb::onError);
+    }
+}
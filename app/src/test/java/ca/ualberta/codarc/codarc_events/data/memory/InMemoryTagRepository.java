@@ -0,0 +1,167 @@
+package ca.ualberta.codarc.codarc_events.data.memory;
+
+import androidx.annotation.NonNull;
+
+import com.google.firebase.firestore.ListenerRegistration;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import ca.ualberta.codarc.codarc_events.data.TagCatalog;
+import ca.ualberta.codarc.codarc_events.data.TagDB;
+import ca.ualberta.codarc.codarc_events.data.TagRepository;
+import ca.ualberta.codarc.codarc_events.utils.TagHelper;
+
+/**
+ * In-memory {@link TagRepository} with the same document layout, round trips and
+ * billing as {@link TagDB}.
+ */
+public class InMemoryTagRepository implements TagRepository {
+
+    private final InMemoryDatabase database;
+    private final InMemoryDocumentStore store;
+
+    public InMemoryTagRepository(InMemoryDatabase database) {
+        this.database = database;
+        this.store = database.getStore();
+    }
+
+    @Override
+    public void getAllTags(TagDB.Callback<List<String>> cb) {
+        database.execute("TagDB.getAllTags", () -> {
+            Set<String> tags = new HashSet<>(TagHelper.getPredefinedTags());
+            for (InMemoryDocumentStore.Doc doc : store.query("tags")) {
+                if (!doc.getId().trim().isEmpty()) {
+                    tags.add(doc.getId());
+                }
+            }
+            return (List<String>) new ArrayList<>(tags);
+        }, cb::onSuccess, cb::onError);
+    }
+
+    @Override
+    public void addTags(List<String> tags, TagDB.Callback<Void> cb) {
+        if (tags == null || tags.isEmpty()) {
+            cb.onSuccess(null);
+            return;
+        }
+        List<String> paths = customTagPaths(tags);
+        database.execute("TagDB.addTags", () -> {
+            synchronized (store) {
+                for (String path : paths) {
+                    Map<String, Object> existing = store.peek(path);
+                    Map<String, Object> data = new HashMap<>();
+                    data.put("usageCount", usageCount(existing) + 1);
+                    if (existing == null) {
+                        data.put("createdAt", database.now());
+                    }
+                    store.merge(path, data);
+                }
+            }
+            return (Void) null;
+        }, cb::onSuccess, cb::onError);
+    }
+
+    /**
+     * Decrements usage counts. Like a Firestore batch update, the whole call fails
+     * without writing if any tag has no document.
+     */
+    @Override
+    public void removeTags(List<String> tags, TagDB.Callback<Void> cb) {
+        if (tags == null || tags.isEmpty()) {
+            cb.onSuccess(null);
+            return;
+        }
+        List<String> paths = customTagPaths(tags);
+        database.execute("TagDB.removeTags", () -> {
+            synchronized (store) {
+                for (String path : paths) {
+                    if (!store.exists(path)) {
+                        throw new IllegalStateException("No document to update: " + path);
+                    }
+                }
+                for (String path : paths) {
+                    Map<String, Object> data = new HashMap<>();
+                    data.put("usageCount", usageCount(store.peek(path)) - 1);
+                    store.update(path, data);
+                }
+            }
+            return (Void) null;
+        }, cb::onSuccess, cb::onError);
+    }
+
+    @Override
+    public void updateTags(List<String> oldTags, List<String> newTags, TagDB.Callback<Void> cb) {
+        Set<String> oldSet = oldTags != null ? new HashSet<>(oldTags) : new HashSet<>();
+        Set<String> newSet = newTags != null ? new HashSet<>(newTags) : new HashSet<>();
+
+        List<String> toAdd = new ArrayList<>();
+        List<String> toRemove = new ArrayList<>();
+        for (String tag : newSet) {
+            if (!oldSet.contains(tag)) {
+                toAdd.add(tag);
+            }
+        }
+        for (String tag : oldSet) {
+            if (!newSet.contains(tag)) {
+                toRemove.add(tag);
+            }
+        }
+
+        removeTags(toRemove, new TagDB.Callback<Void>() {
+            @Override
+            public void onSuccess(Void value) {
+                addTags(toAdd, cb);
+            }
+
+            @Override
+            public void onError(@NonNull Exception e) {
+                cb.onError(e);
+            }
+        });
+    }
+
+    /**
+     * Delivers every tag now and then each changed tag after a write, billed one
+     * read per change as a Firestore listener is.
+     */
+    @Override
+    public ListenerRegistration addTagsListener(TagDB.Callback<List<TagCatalog.Change>> cb) {
+        database.execute("TagDB.addTagsListener", () -> {
+            List<TagCatalog.Change> changes = new ArrayList<>();
+            for (InMemoryDocumentStore.Doc doc : store.query("tags")) {
+                changes.add(TagCatalog.Change.counted(doc.getId(), usageCount(doc.getData())));
+            }
+            return changes;
+        }, cb::onSuccess, cb::onError);
+        return store.addListener("tags", changedPath -> database.deliver("TagDB.addTagsListener", () -> {
+            Map<String, Object> data = store.get(changedPath);
+            String tagName = changedPath.substring(changedPath.indexOf('/') + 1);
+            List<TagCatalog.Change> changes = new ArrayList<>(1);
+            changes.add(data != null
+                    ? TagCatalog.Change.counted(tagName, usageCount(data))
+                    : TagCatalog.Change.removed(tagName));
+            cb.onSuccess(changes);
+        }));
+    }
+
+    private static List<String> customTagPaths(List<String> tags) {
+        List<String> paths = new ArrayList<>();
+        for (String tag : tags) {
+            if (tag == null || tag.trim().isEmpty() || TagHelper.isPredefinedTag(tag)) {
+                continue;
+            }
+            paths.add("tags/" + TagHelper.normalizeTag(tag));
+        }
+        return paths;
+    }
+
+    private static long usageCount(Map<String, Object> data) {
+        Object count = data != null ? data.get("usageCount") : null;
+        return count instanceof Number ? ((Number) count).longValue() : 0L;
+    }
+}
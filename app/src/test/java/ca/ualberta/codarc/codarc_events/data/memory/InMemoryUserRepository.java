@@ -0,0 +1,99 @@
+package ca.ualberta.codarc.codarc_events.data.memory;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import ca.ualberta.codarc.codarc_events.data.UserDB;
+import ca.ualberta.codarc.codarc_events.data.UserRepository;
+import ca.ualberta.codarc.codarc_events.models.User;
+import ca.ualberta.codarc.codarc_events.utils.ValidationHelper;
+
+/**
+ * In-memory {@link UserRepository} with the same document layout, round trips and
+ * billing as {@link UserDB}.
+ */
+public class InMemoryUserRepository implements UserRepository {
+
+    private final InMemoryDatabase database;
+    private final InMemoryDocumentStore store;
+
+    public InMemoryUserRepository(InMemoryDatabase database) {
+        this.database = database;
+        this.store = database.getStore();
+    }
+
+    @Override
+    public void ensureUserExists(String deviceId, UserDB.Callback<Void> cb) {
+        try {
+            ValidationHelper.requireNonEmpty(deviceId, "deviceId");
+        } catch (IllegalArgumentException e) {
+            cb.onError(e);
+            return;
+        }
+        String path = "users/" + deviceId;
+        database.execute("UserDB.ensureUserExists", () -> store.get(path) != null, exists -> {
+            if (exists) {
+                cb.onSuccess(null);
+                return;
+            }
+            database.execute("UserDB.ensureUserExists", () -> {
+                store.set(path, toDocument(new User(deviceId)));
+                return (Void) null;
+            }, cb::onSuccess, cb::onError);
+        }, cb::onError);
+    }
+
+    @Override
+    public void getUser(String deviceId, UserDB.Callback<User> cb) {
+        try {
+            ValidationHelper.requireNonEmpty(deviceId, "deviceId");
+        } catch (IllegalArgumentException e) {
+            cb.onError(e);
+            return;
+        }
+        database.execute("UserDB.getUser", () -> {
+            Map<String, Object> data = store.get("users/" + deviceId);
+            if (data == null) {
+                throw new RuntimeException("User not found");
+            }
+            User user = new User(deviceId);
+            user.setEntrant(Boolean.TRUE.equals(data.get("isEntrant")));
+            user.setOrganizer(Boolean.TRUE.equals(data.get("isOrganizer")));
+            user.setAdmin(Boolean.TRUE.equals(data.get("isAdmin")));
+            return user;
+        }, cb::onSuccess, cb::onError);
+    }
+
+    @Override
+    public void setEntrantRole(String deviceId, boolean isEntrant, UserDB.Callback<Void> cb) {
+        setRole(deviceId, "isEntrant", isEntrant, cb);
+    }
+
+    @Override
+    public void setOrganizerRole(String deviceId, boolean isOrganizer, UserDB.Callback<Void> cb) {
+        setRole(deviceId, "isOrganizer", isOrganizer, cb);
+    }
+
+    private void setRole(String deviceId, String roleField, boolean value, UserDB.Callback<Void> cb) {
+        try {
+            ValidationHelper.requireNonEmpty(deviceId, "deviceId");
+        } catch (IllegalArgumentException e) {
+            cb.onError(e);
+            return;
+        }
+        database.execute("UserDB.setRole", () -> {
+            store.update("users/" + deviceId, Collections.singletonMap(roleField, value));
+            return (Void) null;
+        }, cb::onSuccess, cb::onError);
+    }
+
+    private static Map<String, Object> toDocument(User user) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("deviceId", user.getDeviceId());
+        data.put("isEntrant", user.isEntrant());
+        data.put("isOrganizer", user.isOrganizer());
+        data.put("isAdmin", user.isAdmin());
+        return data;
+    }
+}
@@ -0,0 +1,51 @@
+plugins {
+    `java-library`
+    alias(libs.plugins.jmh)
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+}
+
+// Only the app classes that run without the Android SDK or Firebase are compiled here,
+// straight from :app's sources, so the benchmarks always measure the shipped code.
+sourceSets {
+    main {
+        java {
+            srcDir(rootProject.file("app/src/main/java"))
+            include(
+                "android/util/Log.java",
+                "ca/ualberta/codarc/codarc_events/models/EntrantEntry.java",
+                "ca/ualberta/codarc/codarc_events/models/Event.java",
+                "ca/ualberta/codarc/codarc_events/models/PosterRendition.java",
+                "ca/ualberta/codarc/codarc_events/utils/DateHelper.java",
+                "ca/ualberta/codarc/codarc_events/utils/QRCodeHelper.java",
+                "ca/ualberta/codarc/codarc_events/utils/TagHelper.java",
+                "ca/ualberta/codarc/codarc_events/utils/TagTrie.java",
+                "ca/ualberta/codarc/codarc_events/controllers/ClusterIndex.java",
+                "ca/ualberta/codarc/codarc_events/controllers/EventFilter.java",
+                "ca/ualberta/codarc/codarc_events/controllers/EventSearchController.java",
+                "ca/ualberta/codarc/codarc_events/controllers/EventSearchIndex.java",
+                "ca/ualberta/codarc/codarc_events/controllers/EventValidationHelper.java",
+                "ca/ualberta/codarc/codarc_events/controllers/LotterySelection.java"
+            )
+        }
+    }
+}
+
+dependencies {
+    jmh(libs.jmh.core)
+    jmhAnnotationProcessor(libs.jmh.generator.annprocess)
+}
+
+jmh {
+    jmhVersion.set(libs.versions.jmh)
+    fork.set(1)
+    warmupIterations.set(3)
+    iterations.set(5)
+    // Reports gc.alloc.rate.norm, the bytes allocated per operation, next to the timings.
+    profilers.add("gc")
+    resultFormat.set("JSON")
+    resultsFile.set(layout.buildDirectory.file("results/jmh/results.json"))
+}
@@ -0,0 +1,131 @@
+package ca.ualberta.codarc.codarc_events.benchmarks;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+import ca.ualberta.codarc.codarc_events.models.EntrantEntry;
+import ca.ualberta.codarc.codarc_events.models.Event;
+
+/**
+ * Builds repeatable datasets shaped like what the app loads from Firestore.
+ */
+final class BenchmarkData {
+
+    static final long SEED = 301L;
+
+    private static final String[] TAGS = {
+            "sports", "music", "academic", "social", "arts", "technology", "food", "outdoor",
+            "Swimming", "Chess Club", " yoga ", "Robotics", "Board Games", "Volunteering",
+            "Photography", "Hiking", "Coding", "Dance", "Theatre", "Cooking"
+    };
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * Events with one to four tags each and a mix of open, closed and unparseable
+     * registration windows.
+     */
+    static List<Event> events(int count) {
+        Random random = new Random(SEED);
+        List<Event> events = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Event event = new Event();
+            event.setId("event-" + i);
+            event.setName("Event " + i);
+            event.setEventDateTime(isoDate(2025 + random.nextInt(2), random));
+
+            int tagCount = 1 + random.nextInt(4);
+            List<String> tags = new ArrayList<>(tagCount);
+            for (int t = 0; t < tagCount; t++) {
+                tags.add(TAGS[random.nextInt(TAGS.length)]);
+            }
+            event.setTags(tags);
+
+            int window = random.nextInt(10);
+            if (window < 6) {
+                event.setRegistrationOpen("2000-01-01T00:00:00");
+                event.setRegistrationClose("2099-01-01T00:00:00");
+            } else if (window < 9) {
+                event.setRegistrationOpen("2000-01-01T00:00:00");
+                event.setRegistrationClose("2001-01-01T00:00:00");
+            } else {
+                event.setRegistrationOpen("not a date");
+                event.setRegistrationClose("");
+            }
+            event.setMaxCapacity(random.nextBoolean() ? 20 + random.nextInt(200) : null);
+            events.add(event);
+        }
+        return events;
+    }
+
+    /**
+     * Accepted counts for every event, about a third of them at or over capacity.
+     */
+    static Map<String, Integer> acceptedCounts(List<Event> events) {
+        Random random = new Random(SEED);
+        Map<String, Integer> counts = new HashMap<>();
+        for (Event event : events) {
+            Integer max = event.getMaxCapacity();
+            int bound = max != null ? max + max / 2 : 300;
+            counts.put(event.getId(), random.nextInt(bound + 1));
+        }
+        return counts;
+    }
+
+    /**
+     * Distinct tag strings, the kind the tag picker searches through.
+     */
+    static List<String> tags(int count) {
+        List<String> tags = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            tags.add(TAGS[i % TAGS.length] + (i < TAGS.length ? "" : " " + i));
+        }
+        return tags;
+    }
+
+    /**
+     * Waitlist entries as returned by EventDB.getWaitlist.
+     */
+    static List<EntrantEntry> waitlist(int count) {
+        List<EntrantEntry> waitlist = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            waitlist.add(new EntrantEntry("device-" + i, 1_700_000_000_000L + i));
+        }
+        return waitlist;
+    }
+
+    /**
+     * Join locations as {latitudes, longitudes}: scattered over Alberta, denser
+     * around Edmonton and Calgary.
+     */
+    static double[][] joinLocations(int count) {
+        Random random = new Random(SEED);
+        double[] lat = new double[count];
+        double[] lng = new double[count];
+        for (int i = 0; i < count; i++) {
+            int spot = random.nextInt(3);
+            if (spot == 0) {
+                lat[i] = 53.54 + random.nextGaussian() * 0.1;
+                lng[i] = -113.49 + random.nextGaussian() * 0.15;
+            } else if (spot == 1) {
+                lat[i] = 51.05 + random.nextGaussian() * 0.1;
+                lng[i] = -114.07 + random.nextGaussian() * 0.15;
+            } else {
+                lat[i] = 49 + random.nextDouble() * 11;
+                lng[i] = -120 + random.nextDouble() * 10;
+            }
+        }
+        return new double[][]{lat, lng};
+    }
+
+    static String isoDate(int year, Random random) {
+        return String.format(Locale.US, "%04d-%02d-%02dT%02d:%02d:00",
+                year, 1 + random.nextInt(12), 1 + random.nextInt(28),
+                random.nextInt(24), random.nextInt(60));
+    }
+}
@@ -0,0 +1,64 @@
+package ca.ualberta.codarc.codarc_events.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import ca.ualberta.codarc.codarc_events.controllers.ClusterIndex;
+
+/**
+ * The entrant map: building the index, the first look at a zoom level (which
+ * includes a fresh build, since clusters are cached per level) and panning at a
+ * zoom level that is already clustered.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ClusterIndexBenchmark {
+
+    private static final int PAN_STEPS = 100;
+
+    @Param({"1000", "50000"})
+    public int points;
+
+    @Param({"6", "12"})
+    public int zoom;
+
+    private double[] latitudes;
+    private double[] longitudes;
+    private ClusterIndex index;
+    private int step;
+
+    @Setup
+    public void setUp() {
+        double[][] locations = BenchmarkData.joinLocations(points);
+        latitudes = locations[0];
+        longitudes = locations[1];
+        index = new ClusterIndex(latitudes, longitudes);
+        index.clustersAt(zoom);
+    }
+
+    @Benchmark
+    public ClusterIndex build() {
+        return new ClusterIndex(latitudes, longitudes);
+    }
+
+    @Benchmark
+    public List<ClusterIndex.Cluster> firstQueryAtZoom() {
+        return new ClusterIndex(latitudes, longitudes).query(zoom, 49, -120, 60, -110);
+    }
+
+    @Benchmark
+    public List<ClusterIndex.Cluster> pan() {
+        double offset = (step++ % PAN_STEPS) * 0.01;
+        return index.query(zoom, 53 + offset, -114 + offset, 54 + offset, -113 + offset);
+    }
+}
@@ -0,0 +1,49 @@
+package ca.ualberta.codarc.codarc_events.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import ca.ualberta.codarc.codarc_events.utils.DateHelper;
+
+/**
+ * Date formatting as done for every bound event card.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DateHelperBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int dateCount;
+
+    private List<String> dates;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(BenchmarkData.SEED);
+        dates = new ArrayList<>(dateCount);
+        for (int i = 0; i < dateCount; i++) {
+            // One in twenty is malformed and takes the fallback path.
+            dates.add(i % 20 == 0 ? "TBD" : BenchmarkData.isoDate(2025, random));
+        }
+    }
+
+    @Benchmark
+    public void formatEventDate(Blackhole blackhole) {
+        for (String date : dates) {
+            blackhole.consume(DateHelper.formatEventDate(date));
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package ca.ualberta.codarc.codarc_events.benchmarks;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import ca.ualberta.codarc.codarc_events.controllers.EventFilter;
+import ca.ualberta.codarc.codarc_events.models.Event;
+
+/**
+ * The browse screen's filter loop, which FilterEventsController.applyFilters delegates to.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class EventFilterBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int eventCount;
+
+    @Param({"1", "3"})
+    public int selectedTagCount;
+
+    private List<Event> events;
+    private Map<String, Integer> acceptedCounts;
+    private List<String> selectedTags;
+
+    @Setup
+    public void setUp() {
+        events = BenchmarkData.events(eventCount);
+        acceptedCounts = BenchmarkData.acceptedCounts(events);
+        selectedTags = Arrays.asList("Music", "hiking", "Board Games").subList(0, selectedTagCount);
+    }
+
+    @Benchmark
+    public List<Event> tagsOnly() {
+        return EventFilter.filter(events, selectedTags, false, acceptedCounts);
+    }
+
+    @Benchmark
+    public List<Event> availableOnly() {
+        return EventFilter.filter(events, null, true, acceptedCounts);
+    }
+
+    @Benchmark
+    public List<Event> tagsAndAvailability() {
+        return EventFilter.filter(events, selectedTags, true, acceptedCounts);
+    }
+}
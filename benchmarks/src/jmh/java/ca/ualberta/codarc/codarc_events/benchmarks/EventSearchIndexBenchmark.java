@@ -0,0 +1,148 @@
+package ca.ualberta.codarc.codarc_events.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import ca.ualberta.codarc.codarc_events.controllers.EventSearchController;
+import ca.ualberta.codarc.codarc_events.controllers.EventSearchIndex;
+import ca.ualberta.codarc.codarc_events.models.Event;
+
+/**
+ * Event search: building the index, applying a listener snapshot with 20 edited
+ * events, and one query per keystroke. Names and descriptions draw words with
+ * Zipf-like frequencies so common words have long postings, as in real text.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class EventSearchIndexBenchmark {
+
+    private static final int EDITED_EVENTS = 20;
+
+    @Param({"1000", "50000"})
+    public int size;
+
+    private String[] vocabulary;
+    private double[] zipf;
+    private List<Event> events;
+    private List<Event> edited;
+    private String[] queries;
+    private EventSearchIndex index;
+    private EventSearchIndex updating;
+    private int step;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(BenchmarkData.SEED);
+        vocabulary = randomWords(random, 20_000);
+        zipf = zipfCumulative(vocabulary.length);
+        String[] places = randomWords(random, 300);
+        String[] tags = randomWords(random, 40);
+
+        events = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Event event = new Event();
+            event.setId("event-" + i);
+            event.setName(phrase(random, 2 + random.nextInt(3)));
+            event.setDescription(phrase(random, 15 + random.nextInt(20)));
+            event.setLocation(places[random.nextInt(places.length)] + " hall");
+            event.setTags(Arrays.asList(tags[random.nextInt(tags.length)], tags[random.nextInt(tags.length)]));
+            events.add(event);
+        }
+        edited = new ArrayList<>(size);
+        for (Event event : events) {
+            edited.add(new Event(event));
+        }
+        for (int i = 0; i < EDITED_EVENTS; i++) {
+            edited.get(random.nextInt(size)).setName(phrase(random, 3));
+        }
+
+        // A prefix, a longer prefix, two words, and a misspelling for the fuzzy fallback.
+        queries = new String[800];
+        for (int i = 0; i < queries.length; i += 4) {
+            String word = vocabulary[sample(random)];
+            String other = vocabulary[sample(random)];
+            queries[i] = word.substring(0, 1);
+            queries[i + 1] = word.substring(0, Math.min(3, word.length()));
+            queries[i + 2] = word + " " + other.substring(0, Math.min(4, other.length()));
+            queries[i + 3] = word.substring(0, word.length() - 1) + "x" + word.charAt(word.length() - 1) + " ";
+        }
+
+        index = build();
+        updating = build();
+    }
+
+    @Benchmark
+    public EventSearchIndex build() {
+        EventSearchIndex built = new EventSearchIndex();
+        built.update(events);
+        return built;
+    }
+
+    @Benchmark
+    public EventSearchIndex snapshotUpdate() {
+        // Alternates between the two snapshots, so every call reindexes the edited events.
+        updating.update(step++ % 2 == 0 ? edited : events);
+        return updating;
+    }
+
+    @Benchmark
+    public List<Event> search() {
+        return index.search(queries[step++ % queries.length], EventSearchController.MAX_RESULTS);
+    }
+
+    private static String[] randomWords(Random random, int count) {
+        String[] words = new String[count];
+        for (int i = 0; i < count; i++) {
+            int length = 3 + random.nextInt(8);
+            StringBuilder sb = new StringBuilder();
+            for (int c = 0; c < length; c++) {
+                sb.append((char) ('a' + random.nextInt(26)));
+            }
+            words[i] = sb.toString();
+        }
+        return words;
+    }
+
+    /** Word ranks weighted 1/rank, like word use in real text. */
+    private static double[] zipfCumulative(int size) {
+        double[] cumulative = new double[size];
+        double total = 0;
+        for (int i = 0; i < size; i++) {
+            total += 1.0 / (i + 1);
+            cumulative[i] = total;
+        }
+        for (int i = 0; i < size; i++) {
+            cumulative[i] /= total;
+        }
+        return cumulative;
+    }
+
+    private int sample(Random random) {
+        int rank = Arrays.binarySearch(zipf, random.nextDouble());
+        return Math.min(rank >= 0 ? rank : -rank - 1, zipf.length - 1);
+    }
+
+    private String phrase(Random random, int words) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                sb.append(' ');
+            }
+            sb.append(vocabulary[sample(random)]);
+        }
+        return sb.toString();
+    }
+}
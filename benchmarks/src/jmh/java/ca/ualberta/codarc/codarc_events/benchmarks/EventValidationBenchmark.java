@@ -0,0 +1,58 @@
+package ca.ualberta.codarc.codarc_events.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import ca.ualberta.codarc.codarc_events.controllers.EventValidationHelper;
+import ca.ualberta.codarc.codarc_events.models.Event;
+
+/**
+ * Registration window checks, run once per event card and once per join attempt.
+ * The dataset includes unparseable windows, so the error path is measured too.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class EventValidationBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int eventCount;
+
+    private List<Event> events;
+
+    @Setup
+    public void setUp() {
+        events = BenchmarkData.events(eventCount);
+    }
+
+    @Benchmark
+    public int isWithinRegistrationWindow() {
+        int open = 0;
+        for (Event event : events) {
+            if (EventValidationHelper.isWithinRegistrationWindow(event)) {
+                open++;
+            }
+        }
+        return open;
+    }
+
+    @Benchmark
+    public int hasRegistrationDeadlinePassed() {
+        int closed = 0;
+        for (Event event : events) {
+            if (EventValidationHelper.hasRegistrationDeadlinePassed(event)) {
+                closed++;
+            }
+        }
+        return closed;
+    }
+}
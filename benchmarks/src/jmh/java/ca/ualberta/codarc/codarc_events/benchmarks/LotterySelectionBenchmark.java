@@ -0,0 +1,47 @@
+package ca.ualberta.codarc.codarc_events.benchmarks;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import ca.ualberta.codarc.codarc_events.controllers.LotterySelection;
+import ca.ualberta.codarc.codarc_events.models.EntrantEntry;
+
+/**
+ * The shuffle-and-slice step of DrawController.runDraw. Shuffling works in place, so
+ * each call starts from the previous call's order; the cost does not depend on it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LotterySelectionBenchmark {
+
+    @Param({"100", "1000", "10000", "100000"})
+    public int waitlistSize;
+
+    @Param({"10", "500"})
+    public int numWinners;
+
+    private List<EntrantEntry> waitlist;
+    private Random random;
+
+    @Setup
+    public void setUp() {
+        waitlist = BenchmarkData.waitlist(waitlistSize);
+        random = new Random(BenchmarkData.SEED);
+    }
+
+    @Benchmark
+    public LotterySelection select() {
+        return LotterySelection.select(waitlist, numWinners, 3, random);
+    }
+}
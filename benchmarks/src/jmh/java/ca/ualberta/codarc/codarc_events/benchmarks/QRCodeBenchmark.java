@@ -0,0 +1,59 @@
+package ca.ualberta.codarc.codarc_events.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import ca.ualberta.codarc.codarc_events.utils.QRCodeHelper;
+
+/**
+ * QR payload parsing, which QRScanController.parseEventIdFromQR delegates to.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class QRCodeBenchmark {
+
+    @Param({"100", "10000"})
+    public int payloadCount;
+
+    private List<String> payloads;
+
+    @Setup
+    public void setUp() {
+        payloads = new ArrayList<>(payloadCount);
+        for (int i = 0; i < payloadCount; i++) {
+            switch (i % 4) {
+                case 0:
+                    payloads.add("event:" + "abc123def456" + i);
+                    break;
+                case 1:
+                    payloads.add("  event: abc123def456" + i + "  ");
+                    break;
+                case 2:
+                    payloads.add("abc123def456" + i);
+                    break;
+                default:
+                    payloads.add("event:   ");
+                    break;
+            }
+        }
+    }
+
+    @Benchmark
+    public void parseEventId(Blackhole blackhole) {
+        for (String payload : payloads) {
+            blackhole.consume(QRCodeHelper.parseEventId(payload));
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package ca.ualberta.codarc.codarc_events.benchmarks;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import ca.ualberta.codarc.codarc_events.models.Event;
+import ca.ualberta.codarc.codarc_events.utils.TagHelper;
+
+/**
+ * Tag collection for the filter dialog. The tag picker's search is in TagTrieBenchmark.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TagHelperBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int size;
+
+    private List<Event> events;
+
+    @Setup
+    public void setUp() {
+        events = BenchmarkData.events(size);
+    }
+
+    @Benchmark
+    public Set<String> collectAllUniqueTags() {
+        return TagHelper.collectAllUniqueTags(events);
+    }
+}
@@ -0,0 +1,77 @@
+package ca.ualberta.codarc.codarc_events.benchmarks;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import ca.ualberta.codarc.codarc_events.utils.TagTrie;
+
+/**
+ * The tag picker's search-as-you-type: building the catalog's trie, one suggestion
+ * per keystroke, and a usage count change from the listener followed by the next
+ * keystroke.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TagTrieBenchmark {
+
+    private static final int SUGGESTIONS = 8;
+    private static final int QUERIES = 2_000;
+
+    @Param({"1000", "50000"})
+    public int size;
+
+    private List<String> tags;
+    private long[] counts;
+    private String[] queries;
+    private TagTrie trie;
+    private Random random;
+    private int step;
+
+    @Setup
+    public void setUp() {
+        random = new Random(BenchmarkData.SEED);
+        tags = BenchmarkData.tags(size);
+        counts = new long[size];
+        for (int i = 0; i < size; i++) {
+            counts[i] = random.nextInt(1_000);
+        }
+        queries = new String[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            String tag = tags.get(random.nextInt(size)).trim();
+            queries[i] = tag.substring(0, 1 + random.nextInt(Math.min(4, tag.length())));
+        }
+        trie = build();
+    }
+
+    @Benchmark
+    public TagTrie build() {
+        TagTrie built = new TagTrie(SUGGESTIONS);
+        for (int i = 0; i < size; i++) {
+            built.put(tags.get(i), counts[i]);
+        }
+        built.suggest("", SUGGESTIONS);
+        return built;
+    }
+
+    @Benchmark
+    public List<String> suggest() {
+        return trie.suggest(queries[step++ % QUERIES], SUGGESTIONS);
+    }
+
+    @Benchmark
+    public List<String> updateThenSuggest() {
+        trie.put(tags.get(random.nextInt(size)), random.nextInt(1_000));
+        return trie.suggest(queries[step++ % QUERIES], SUGGESTIONS);
+    }
+}
@@ -0,0 +1,69 @@
+package ca.ualberta.codarc.codarc_events.benchmarks;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import ca.ualberta.codarc.codarc_events.models.EntrantEntry;
+
+/**
+ * Building waitlist rows from a loaded snapshot: the map rows EventDB.getWaitlist used
+ * to return against the typed entries it returns now. The snapshot already holds the
+ * IDs and times, so only the rows are measured; compare gc.alloc.rate.norm per row count.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class WaitlistRowBenchmark {
+
+    @Param({"1000", "20000"})
+    public int rows;
+
+    private String[] ids;
+    private long[] times;
+    private Long[] storedTimes;
+
+    @Setup
+    public void setUp() {
+        ids = new String[rows];
+        times = new long[rows];
+        storedTimes = new Long[rows];
+        for (int i = 0; i < rows; i++) {
+            ids[i] = "device-" + i;
+            times[i] = 1_700_000_000_000L + i;
+            storedTimes[i] = times[i];
+        }
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> mapRows() {
+        List<Map<String, Object>> waitlist = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            Map<String, Object> row = new HashMap<>();
+            row.put("deviceId", ids[i]);
+            row.put("requestTime", storedTimes[i]);
+            waitlist.add(row);
+        }
+        return waitlist;
+    }
+
+    @Benchmark
+    public List<EntrantEntry> typedRows() {
+        List<EntrantEntry> waitlist = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            waitlist.add(new EntrantEntry(ids[i], times[i]));
+        }
+        return waitlist;
+    }
+}
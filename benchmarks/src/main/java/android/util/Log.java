@@ -0,0 +1,27 @@
+package android.util;
+
+/**
+ * Stand-in for the Android logger so app helpers that log on error paths compile on a
+ * plain JVM. Messages are dropped; writing them out would swamp the loops being timed.
+ */
+public final class Log {
+
+    private Log() {
+    }
+
+    public static int d(String tag, String msg) {
+        return 0;
+    }
+
+    public static int w(String tag, String msg) {
+        return 0;
+    }
+
+    public static int e(String tag, String msg) {
+        return 0;
+    }
+
+    public static int e(String tag, String msg, Throwable tr) {
+        return 0;
+    }
+}